@@ -0,0 +1,197 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test;
+
+import java.util.Objects;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.InvocationHandler;
+import org.opengis.util.Factory;
+
+
+/**
+ * Statistics about the calls to a {@code create…} method of a factory during the execution of a test.
+ * Those statistics are collected only if {@linkplain TestSuite#setInstrumentationEnabled instrumentation}
+ * is enabled. They can be obtained after the execution of a test method by {@link TestEvent#getFactoryCalls()}.
+ *
+ * <p>If the method takes an authority code in argument (for example
+ * {@link org.opengis.referencing.crs.CRSAuthorityFactory#createCoordinateReferenceSystem(String)}),
+ * then statistics are collected separately for each code. This allows to identify which codes are the
+ * most costly to create.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ *
+ * @see TestEvent#getFactoryCalls()
+ * @see TestSuite#setInstrumentationEnabled(boolean)
+ */
+public final class FactoryCall {
+    /**
+     * The factory on which the method has been invoked.
+     */
+    private final Factory factory;
+
+    /**
+     * The name of the method which has been invoked.
+     */
+    private final String method;
+
+    /**
+     * The authority code given in argument to the method, or {@code null} if none.
+     */
+    private final String code;
+
+    /**
+     * Number of invocations of the method.
+     */
+    private final int count;
+
+    /**
+     * Sum of the execution times of all invocations, in nanoseconds.
+     */
+    private final long totalTime;
+
+    /**
+     * The longest execution time of a single invocation, in nanoseconds.
+     */
+    private final long maximalTime;
+
+    /**
+     * Creates new statistics for the given method calls.
+     *
+     * @param factory      the factory on which the method has been invoked.
+     * @param method       the name of the method which has been invoked.
+     * @param code         the authority code given in argument to the method, or {@code null} if none.
+     * @param count        number of invocations of the method.
+     * @param totalTime    sum of the execution times of all invocations, in nanoseconds.
+     * @param maximalTime  the longest execution time of a single invocation, in nanoseconds.
+     */
+    public FactoryCall(final Factory factory, final String method, final String code,
+                       final int count, final long totalTime, final long maximalTime)
+    {
+        Objects.requireNonNull(factory, "Given 'factory' can not be null.");
+        Objects.requireNonNull(method,  "Given 'method' can not be null.");
+        this.factory     = unwrap(factory);
+        this.method      = method;
+        this.code        = code;
+        this.count       = count;
+        this.totalTime   = totalTime;
+        this.maximalTime = maximalTime;
+    }
+
+    /**
+     * Returns the factory on which the method has been invoked.
+     * This is the factory implementation, not the proxy used for collecting statistics.
+     *
+     * @return the factory on which the method has been invoked.
+     */
+    public Factory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Returns the name of the method which has been invoked.
+     *
+     * @return the name of the {@code create…} method.
+     */
+    public String getMethodName() {
+        return method;
+    }
+
+    /**
+     * Returns the authority code given in argument to the method, or {@code null} if none.
+     *
+     * @return the authority code, or {@code null} if none.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the number of invocations of the method.
+     *
+     * @return number of invocations.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the execution times of all invocations, in nanoseconds.
+     *
+     * @return total execution time in nanoseconds.
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * Returns the longest execution time of a single invocation, in nanoseconds.
+     *
+     * @return maximal execution time in nanoseconds.
+     */
+    public long getMaximalTime() {
+        return maximalTime;
+    }
+
+    /**
+     * Returns the factory implementation wrapped by the given factory, or the given factory itself if it is not
+     * a proxy created for collecting statistics. This method is useful when instrumentation is enabled and the
+     * factory implementation class is needed, for example in {@link ImplementationDetails} or in test reports.
+     *
+     * @param  factory  the factory to unwrap, or {@code null}.
+     * @return the factory implementation, or {@code null} if the given factory was null.
+     */
+    public static Factory unwrap(final Factory factory) {
+        if (factory != null && Proxy.isProxyClass(factory.getClass())) {
+            final InvocationHandler handler = Proxy.getInvocationHandler(factory);
+            if (handler instanceof Instrumentation) {
+                return ((Instrumentation) handler).factory;
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * Returns a string representation of these statistics for debugging purpose.
+     *
+     * @return a string representation of these statistics.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder(60).append(factory.getClass().getSimpleName()).append('.').append(method);
+        if (code != null) {
+            buffer.append("(\"").append(code).append("\")");
+        }
+        return buffer.append(": ").append(count).append(" calls in ").append(totalTime / 1E6).append(" ms").toString();
+    }
+}
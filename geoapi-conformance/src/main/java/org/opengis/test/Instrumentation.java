@@ -0,0 +1,290 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import org.opengis.util.Factory;
+import org.opengis.referencing.AuthorityFactory;
+
+
+/**
+ * A proxy handler collecting statistics about calls to {@code create…} methods of a factory.
+ * Statistics are collected per thread between calls to {@link #start()} and {@link #stop()},
+ * which are invoked by {@link TestCase} before and after each test method.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ *
+ * @see FactoryCall
+ */
+final class Instrumentation implements InvocationHandler {
+    /**
+     * Whether factories returned by {@link TestCase#factories(Class[])} shall be wrapped in proxies
+     * collecting statistics.
+     *
+     * @see TestSuite#setInstrumentationEnabled(boolean)
+     */
+    static volatile boolean enabled;
+
+    /**
+     * Statistics collected in the current thread for the test in progress,
+     * or {@code null} if no test is in progress in the current thread.
+     */
+    private static final ThreadLocal<Map<Statistics,Statistics>> CALLS = new ThreadLocal<>();
+
+    /**
+     * The factory for which to collect statistics.
+     */
+    final Factory factory;
+
+    /**
+     * Creates a new handler for the given factory.
+     *
+     * @param factory  the factory to wrap.
+     */
+    private Instrumentation(final Factory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Wraps the given factory in a proxy collecting statistics. The proxy implements all public interfaces
+     * implemented by the factory. If a proxy can not be created (for example because an interface is not
+     * visible from the factory class loader), then the factory is returned unchanged.
+     *
+     * @param  factory  the factory to wrap, or {@code null}.
+     * @return the proxy, or {@code factory} if it can not be wrapped.
+     */
+    static Factory wrap(final Factory factory) {
+        if (factory == null || Proxy.isProxyClass(factory.getClass())) {
+            return factory;
+        }
+        final ClassLoader loader = factory.getClass().getClassLoader();
+        if (loader == null) {
+            return factory;
+        }
+        final Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = factory.getClass(); c != null; c = c.getSuperclass()) {
+            addPublicInterfaces(c, interfaces);
+        }
+        try {
+            return (Factory) Proxy.newProxyInstance(loader,
+                    interfaces.toArray(new Class<?>[interfaces.size()]), new Instrumentation(factory));
+        } catch (IllegalArgumentException e) {
+            return factory;
+        }
+    }
+
+    /**
+     * Adds all public interfaces implemented by the given type, including parent interfaces.
+     *
+     * @param type        the type for which to get the interfaces.
+     * @param interfaces  where to add the public interfaces.
+     */
+    private static void addPublicInterfaces(final Class<?> type, final Set<Class<?>> interfaces) {
+        for (final Class<?> c : type.getInterfaces()) {
+            if (Modifier.isPublic(c.getModifiers())) {
+                interfaces.add(c);
+            }
+            addPublicInterfaces(c, interfaces);
+        }
+    }
+
+    /**
+     * Returns a copy of the given array with all proxies replaced by the factories that they wrap.
+     * If the given array does not contain any proxy, then it is returned unchanged.
+     *
+     * @param  factories  the factories to unwrap.
+     * @return the factories without proxies, or {@code factories} if there is no proxy.
+     */
+    static Factory[] unwrap(final Factory[] factories) {
+        Factory[] unwrapped = factories;
+        for (int i=0; i<factories.length; i++) {
+            final Factory factory = FactoryCall.unwrap(factories[i]);
+            if (factory != factories[i]) {
+                if (unwrapped == factories) {
+                    unwrapped = factories.clone();
+                }
+                unwrapped[i] = factory;
+            }
+        }
+        return unwrapped;
+    }
+
+    /**
+     * Starts collecting statistics in the current thread. Any statistics collected
+     * by a previous call to this method which has not been stopped are discarded.
+     */
+    static void start() {
+        CALLS.set(new LinkedHashMap<>());
+    }
+
+    /**
+     * Stops collecting statistics in the current thread and returns the statistics collected
+     * since the last call to {@link #start()}. If statistics were not collected, then this
+     * method returns an empty list.
+     *
+     * @return the statistics collected in the current thread.
+     */
+    static List<FactoryCall> stop() {
+        final Map<Statistics,Statistics> calls = CALLS.get();
+        if (calls == null) {
+            return Collections.emptyList();
+        }
+        CALLS.remove();
+        final List<FactoryCall> list = new ArrayList<>(calls.size());
+        for (final Statistics s : calls.values()) {
+            list.add(new FactoryCall(s.factory, s.method, s.code, s.count, s.totalTime, s.maximalTime));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Mutable statistics about a method call, used as both key and value in the {@link #CALLS} map.
+     * Keys are compared by factory identity, method name and authority code.
+     */
+    private static final class Statistics {
+        /** The factory on which the method has been invoked. */
+        final Factory factory;
+
+        /** The method name, and the authority code given in argument or {@code null} if none. */
+        final String method, code;
+
+        /** Number of invocations of the method. */
+        int count;
+
+        /** Sum and maximal value of the execution times, in nanoseconds. */
+        long totalTime, maximalTime;
+
+        /**
+         * Creates a new, initially empty, statistics for the given method.
+         *
+         * @param factory  the factory on which the method is invoked.
+         * @param method   name of the invoked method.
+         * @param code     the authority code given to the method, or {@code null} if none.
+         */
+        Statistics(final Factory factory, final String method, final String code) {
+            this.factory = factory;
+            this.method  = method;
+            this.code    = code;
+        }
+
+        /** Compares the factory, method and code of the given object with this statistics. */
+        @Override
+        public boolean equals(final Object other) {
+            if (other instanceof Statistics) {
+                final Statistics that = (Statistics) other;
+                return factory == that.factory && method.equals(that.method) && (code == null ? that.code == null : code.equals(that.code));
+            }
+            return false;
+        }
+
+        /** Returns a hash code value consistent with {@link #equals(Object)}. */
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(factory) + 31 * method.hashCode() + (code != null ? 37 * code.hashCode() : 0);
+        }
+    }
+
+    /**
+     * Invoked when a method is invoked on the proxy. This method delegates to the wrapped factory,
+     * measuring the execution time of {@code create…} methods.
+     *
+     * @param  proxy   the proxy instance on which the method has been invoked.
+     * @param  method  the method invoked on the proxy.
+     * @param  args    the method arguments, or {@code null} if none.
+     * @return the value returned by the factory method.
+     * @throws Throwable the exception thrown by the factory method.
+     */
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final String name = method.getName();
+        if (method.getDeclaringClass() == Object.class) {
+            switch (name) {
+                case "equals":   return proxy == args[0] || factory.equals(args[0] instanceof Factory ? FactoryCall.unwrap((Factory) args[0]) : args[0]);
+                case "hashCode": return factory.hashCode();
+                case "toString": return factory.toString();
+            }
+        }
+        final Map<Statistics,Statistics> calls;
+        if (!name.startsWith("create") || (calls = CALLS.get()) == null) {
+            return delegate(method, args);
+        }
+        final long startTime = System.nanoTime();
+        try {
+            return delegate(method, args);
+        } finally {
+            final long time = System.nanoTime() - startTime;
+            String code = null;
+            if (factory instanceof AuthorityFactory && args != null && args.length == 1 && args[0] instanceof String) {
+                code = (String) args[0];
+            }
+            final Statistics key = new Statistics(factory, name, code);
+            Statistics s = calls.get(key);
+            if (s == null) {
+                calls.put(key, s = key);
+            }
+            s.count++;
+            s.totalTime += time;
+            if (time > s.maximalTime) {
+                s.maximalTime = time;
+            }
+        }
+    }
+
+    /**
+     * Invokes the given method on the wrapped factory, unwrapping the exception if needed.
+     *
+     * @param  method  the method to invoke.
+     * @param  args    the method arguments, or {@code null} if none.
+     * @return the value returned by the method.
+     * @throws Throwable the exception thrown by the method.
+     */
+    private Object delegate(final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(factory, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
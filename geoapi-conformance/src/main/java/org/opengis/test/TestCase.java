@@ -39,6 +39,8 @@ import java.util.ArrayList;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.ServiceConfigurationError;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.LogRecord;
@@ -57,7 +59,7 @@ import org.opengis.util.Factory;
  * {@link #factories(Class[])} method.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   2.2
  *
  * @see TestSuite
@@ -189,15 +191,55 @@ public strictfp abstract class TestCase {
          */
         private final TestListener[] listeners = getTestListeners();
 
+        /**
+         * Value of {@link System#nanoTime()} and of the thread CPU time when the test started.
+         * The CPU time is -1 if not supported.
+         */
+        private long startTime, startCpuTime;
+
+        /**
+         * The wall-clock time and CPU time of the test execution, computed when the test ends.
+         */
+        private long elapsedTime, cpuTime;
+
+        /**
+         * Statistics about factory calls, or {@code null} if the test did not ended yet.
+         */
+        private List<FactoryCall> factoryCalls;
+
+        /**
+         * Creates a new event for the given test, with the execution time if the test has ended.
+         */
+        private TestEvent createEvent(final Description description, final boolean ended) {
+            final TestEvent event = new TestEvent(TestCase.this, description);
+            if (ended) {
+                if (factoryCalls == null) {
+                    elapsedTime  = System.nanoTime() - startTime;
+                    cpuTime      = (startCpuTime >= 0) ? currentThreadCpuTime() - startCpuTime : -1;
+                    factoryCalls = Instrumentation.stop();
+                }
+                event.elapsedTime  = elapsedTime;
+                event.cpuTime      = cpuTime;
+                event.factoryCalls = factoryCalls;
+            }
+            return event;
+        }
+
         /**
          * Invoked when a test is about to start.
          */
         @Override
         protected void starting(final Description description) {
-            final TestEvent event = new TestEvent(TestCase.this, description);
+            final TestEvent event = createEvent(description, false);
             for (final TestListener listener : listeners) {
                 listener.starting(event);
             }
+            factoryCalls = null;
+            if (Instrumentation.enabled) {
+                Instrumentation.start();
+            }
+            startCpuTime = currentThreadCpuTime();
+            startTime    = System.nanoTime();
         }
 
         /**
@@ -205,7 +247,7 @@ public strictfp abstract class TestCase {
          */
         @Override
         protected void succeeded(final Description description) {
-            final TestEvent event = new TestEvent(TestCase.this, description);
+            final TestEvent event = createEvent(description, true);
             for (final TestListener listener : listeners) {
                 listener.succeeded(event);
             }
@@ -218,7 +260,7 @@ public strictfp abstract class TestCase {
          */
         @Override
         protected void failed(final Throwable exception, final Description description) {
-            final TestEvent event = new TestEvent(TestCase.this, description);
+            final TestEvent event = createEvent(description, true);
             final Configuration.Key<Boolean> tip = configurationTip;
             if (tip != null) {
                 event.configurationTip = tip;
@@ -242,16 +284,28 @@ public strictfp abstract class TestCase {
          */
         @Override
         protected void finished(final Description description) {
-            final TestEvent event = new TestEvent(TestCase.this, description);
+            final TestEvent event = createEvent(description, true);
             for (final TestListener listener : listeners) {
                 listener.finished(event);
             }
         }
     };
 
+    /**
+     * Returns the CPU time of the current thread in nanoseconds, or -1 if not supported.
+     */
+    private static long currentThreadCpuTime() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean.isCurrentThreadCpuTimeSupported() && bean.isThreadCpuTimeEnabled()) {
+            return bean.getCurrentThreadCpuTime();
+        }
+        return -1;
+    }
+
     /**
      * The factories used by the test case to execute, or an empty array if none.
      * This array is given at construction time and is not cloned.
+     * If instrumentation is enabled, then the factory instances may be proxies.
      */
     private final Factory[] factories;
 
@@ -318,10 +372,11 @@ public strictfp abstract class TestCase {
         this.factories = factories;
         Units units = null;
         ValidatorContainer validators = null;
+        final Factory[] implementations = Instrumentation.unwrap(factories);
         final ServiceLoader<ImplementationDetails> services = getImplementationDetails();
         synchronized (services) {
             for (final ImplementationDetails impl : services) {
-                final Configuration config = impl.configuration(factories);
+                final Configuration config = impl.configuration(implementations);
                 if (config != null) {
                     if (units == null) {
                         units = config.get(Configuration.Key.units);
@@ -381,6 +436,10 @@ public strictfp abstract class TestCase {
      * {@link TestSuite#setFactories(Class, Factory[])} method. In no factories were explicitely
      * specified, then this method searches the classpath using {@link ServiceLoader}.
      *
+     * <p>If {@linkplain TestSuite#setInstrumentationEnabled(boolean) instrumentation is enabled},
+     * then the returned factories are proxies collecting statistics about calls to their
+     * {@code create…} methods. Those statistics are reported by {@link TestEvent#getFactoryCalls()}.</p>
+     *
      * @param  types  the kind of factories to fetch.
      * @return all combinations of factories of the given kind. Each list element is an array
      *         having the same length than {@code types}.
@@ -436,6 +495,13 @@ public strictfp abstract class TestCase {
             Logger.getLogger("org.opengis.test").log(Level.WARNING, e.toString(), e);
             throw e;                                          // To be caught by JUnit.
         }
+        if (Instrumentation.enabled) {
+            for (final Factory[] row : factories) {
+                for (int i=0; i<row.length; i++) {
+                    row[i] = Instrumentation.wrap(row[i]);
+                }
+            }
+        }
         return factories;
     }
 
@@ -528,10 +594,11 @@ public strictfp abstract class TestCase {
     protected final boolean[] getEnabledFlags(final Configuration.Key<Boolean>... properties) {
         final boolean[] isEnabled = new boolean[properties.length];
         Arrays.fill(isEnabled, true);
+        final Factory[] implementations = Instrumentation.unwrap(factories);
         final ServiceLoader<ImplementationDetails> services = getImplementationDetails();
         synchronized (services) {
             for (final ImplementationDetails impl : services) {
-                final Configuration config = impl.configuration(factories);
+                final Configuration config = impl.configuration(implementations);
                 if (config != null) {
                     boolean atLeastOneTestIsEnabled = false;
                     for (int i=0; i<properties.length; i++) {
@@ -31,6 +31,8 @@
  */
 package org.opengis.test;
 
+import java.util.List;
+import java.util.Collections;
 import java.util.EventObject;
 import org.junit.runner.Description;
 
@@ -39,7 +41,7 @@ import org.junit.runner.Description;
  * Events provided to {@linkplain TestListener test listeners} when a test begin, complete or fail.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  *
  * @deprecated To be replaced by JUnit 5 listener mechanism.
@@ -67,13 +69,37 @@ public final class TestEvent extends EventObject {
      */
     Configuration.Key<Boolean> configurationTip;
 
+    /**
+     * Wall-clock time elapsed during the test execution in nanoseconds, or -1 if unknown.
+     *
+     * @see #getElapsedTime()
+     */
+    long elapsedTime;
+
+    /**
+     * CPU time consumed by the thread executing the test in nanoseconds, or -1 if unknown.
+     *
+     * @see #getCpuTime()
+     */
+    long cpuTime;
+
+    /**
+     * Statistics about the calls to factory methods during the test execution.
+     *
+     * @see #getFactoryCalls()
+     */
+    List<FactoryCall> factoryCalls;
+
     /**
      * Creates a new event for the given source.
      */
     TestEvent(final TestCase source, final Description description) {
         super(source);
-        className  = description.getClassName();
-        methodName = description.getMethodName();
+        className    = description.getClassName();
+        methodName   = description.getMethodName();
+        elapsedTime  = -1;
+        cpuTime      = -1;
+        factoryCalls = Collections.emptyList();
     }
 
     /**
@@ -118,4 +144,44 @@ public final class TestEvent extends EventObject {
     public Configuration.Key<Boolean> getConfigurationTip() {
         return configurationTip;
     }
+
+    /**
+     * Returns the wall-clock time elapsed during the execution of the test method, in nanoseconds.
+     * This information is available only for events notifying the end of a test,
+     * i.e. not for the event given to {@link TestListener#starting(TestEvent)}.
+     *
+     * @return elapsed time in nanoseconds, or -1 if unknown.
+     *
+     * @since 4.0
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Returns the CPU time consumed by the thread which executed the test method, in nanoseconds.
+     * This information is available only for events notifying the end of a test, and only if
+     * the Java virtual machine supports CPU time measurement for the current thread.
+     *
+     * @return CPU time in nanoseconds, or -1 if unknown.
+     *
+     * @since 4.0
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Returns statistics about the calls to {@code create…} methods of factories during the execution
+     * of the test method. Statistics are collected only for events notifying the end of a test, and only
+     * if {@linkplain TestSuite#setInstrumentationEnabled(boolean) instrumentation is enabled}.
+     * Only the calls made from the thread executing the test are included.
+     *
+     * @return statistics about the factory calls, or an empty list if none.
+     *
+     * @since 4.0
+     */
+    public List<FactoryCall> getFactoryCalls() {
+        return factoryCalls;
+    }
 }
@@ -125,7 +125,7 @@ import org.opengis.referencing.operation.MathTransform;
  * @see Factory
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 @RunWith(Suite.class)
@@ -134,6 +134,7 @@ import org.opengis.referencing.operation.MathTransform;
   org.opengis.test.referencing.ObjectFactoryTest.class,
   org.opengis.test.referencing.AffineTransformTest.class,
   org.opengis.test.referencing.ParameterizedTransformTest.class,
+  org.opengis.test.referencing.ConcurrentTransformTest.class,
   org.opengis.test.referencing.AuthorityFactoryTest.class,
   org.opengis.test.referencing.gigs.GIGS2001.class,
   org.opengis.test.referencing.gigs.GIGS2002.class,
@@ -207,6 +208,42 @@ public strictfp class TestSuite {
         return null;
     }
 
+    /**
+     * Sets whether factories shall be instrumented for collecting statistics about calls to their
+     * {@code create…} methods. If enabled, then the factories returned by {@link TestCase#factories(Class[])}
+     * are wrapped in proxies measuring the number of calls and execution time of each {@code create…} method.
+     * Those statistics are reported by {@link TestEvent#getFactoryCalls()} after each test.
+     *
+     * <p>The proxies implement all public interfaces of the factories, but are not instances of the
+     * factory implementation classes. The factories given to {@link ImplementationDetails} are the
+     * implementations, not the proxies. {@link FactoryCall#unwrap(Factory)} can be used for getting
+     * the implementation from a proxy. Instrumentation is disabled by default.</p>
+     *
+     * <p>This method shall be invoked before the tests are created, since factories are wrapped at
+     * the time they are fetched.</p>
+     *
+     * @param enabled  whether factories shall be instrumented.
+     *
+     * @see FactoryCall
+     * @see TestEvent#getFactoryCalls()
+     *
+     * @since 4.0
+     */
+    public static void setInstrumentationEnabled(final boolean enabled) {
+        Instrumentation.enabled = enabled;
+    }
+
+    /**
+     * Returns whether factories are instrumented for collecting statistics about calls to their methods.
+     *
+     * @return whether factories are instrumented.
+     *
+     * @since 4.0
+     */
+    public static boolean isInstrumentationEnabled() {
+        return Instrumentation.enabled;
+    }
+
     /**
      * Adds a listener to be informed every time a test begin or finish, either on success
      * or failure. This method does not check if the given listener was already registered
@@ -69,7 +69,8 @@
  *   <li><p><b>Events</b><br>
  *       {@link org.opengis.test.TestListener}, {@link org.opengis.test.TestEvent} and
  *       {@link org.opengis.test.ComputationFailure} allow implementers to be notified about test executions,
- *       successes or failures.</p></li>
+ *       successes or failures. {@link org.opengis.test.FactoryCall} provides statistics about the factory
+ *       calls made during a test.</p></li>
  * </ul>
  *
  * @author  Martin Desruisseaux (Geomatys)
@@ -0,0 +1,426 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2011-2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.referencing;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.awt.geom.Rectangle2D;
+
+import org.opengis.util.Factory;
+import org.opengis.util.FactoryException;
+import org.opengis.util.NoSuchIdentifierException;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.MathTransformFactory;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.test.Configuration;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assume.*;
+import static org.opengis.test.Assert.*;
+
+
+/**
+ * Tests the use of a single {@link MathTransform} instance by many threads.
+ * {@code MathTransform} instances are typically obtained once (for example by
+ * {@link org.opengis.referencing.operation.CoordinateOperation#getMathTransform()})
+ * then shared by many concurrent requests. This class verifies that:
+ *
+ * <ul>
+ *   <li>transforming the same coordinates from many threads gives exactly the same results
+ *       than a single-threaded execution (no corruption of internal buffers or native handles),</li>
+ *   <li>the same apply to the {@linkplain MathTransform#inverse() inverse} transform, which is
+ *       often computed lazily,</li>
+ *   <li>throughput scales with the number of threads. The <cite>scaling efficiency</cite> of the
+ *       {@code transform(…)} and {@code inverse()} methods are measured separately, since a low
+ *       efficiency often reveals a lock (for example a {@code synchronized} {@code inverse()} method).</li>
+ * </ul>
+ *
+ * Scaling efficiencies depend on the hardware and on the system load. Consequently they are only measured
+ * by default; a test failure for insufficient efficiency happens only if implementers set a non-zero
+ * {@link #minimalScalingEfficiency} threshold.
+ *
+ * <div class="note"><b>Usage example:</b>
+ * in order to specify their factories and run the tests in a JUnit framework, implementers can
+ * define a subclass in their own test suite as in the example below:
+ *
+ * <blockquote><pre>import org.junit.runner.RunWith;
+ *import org.junit.runners.JUnit4;
+ *import org.opengis.test.referencing.ConcurrentTransformTest;
+ *
+ *&#64;RunWith(JUnit4.class)
+ *public class MyTest extends ConcurrentTransformTest {
+ *    public MyTest() {
+ *        super(new MyMathTransformFactory());
+ *    }
+ *}</pre></blockquote>
+ * </div>
+ *
+ * @see AffineTransformTest
+ * @see ParameterizedTransformTest
+ * @see org.opengis.test.TestSuite
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+@RunWith(Parameterized.class)
+public strictfp class ConcurrentTransformTest extends TransformTestCase {
+    /**
+     * Approximate number of points to transform in each iteration.
+     */
+    private static final int NUM_POINTS = 400;
+
+    /**
+     * The factory for creating {@link MathTransform} objects, or {@code null} if none.
+     */
+    protected final MathTransformFactory mtFactory;
+
+    /**
+     * Number of threads sharing the {@linkplain #transform transform} being tested.
+     * The default value is the number of available processors, but not less than 4.
+     */
+    protected int numThreads;
+
+    /**
+     * Number of times that each thread transforms the test coordinates. The default value is 200.
+     */
+    protected int numIterations;
+
+    /**
+     * The minimal scaling efficiency, as a value between 0 and 1, that the {@code transform(…)} and
+     * {@code inverse()} methods shall reach for the test to pass. The default value is 0, which means
+     * that efficiency is measured but not verified.
+     *
+     * @see #transformScalingEfficiency
+     * @see #inverseScalingEfficiency
+     */
+    protected double minimalScalingEfficiency;
+
+    /**
+     * The scaling efficiency of the {@code transform(double[], int, double[], int, int)} method measured
+     * by the last test, or {@link Double#NaN} if not yet measured. This is the throughput of all threads
+     * together divided by the throughput of a single thread multiplied by the number of threads that can
+     * effectively run in parallel. A value close to 1 means perfect scaling, while a value close to
+     * 1/{@link #numThreads} means that threads are serialized.
+     */
+    protected double transformScalingEfficiency;
+
+    /**
+     * The scaling efficiency of the {@link MathTransform#inverse()} method measured by the last test,
+     * or {@link Double#NaN} if not yet measured or if inverse transforms are not supported.
+     *
+     * @see #transformScalingEfficiency
+     */
+    protected double inverseScalingEfficiency;
+
+    /**
+     * Returns a default set of factories to use for running the tests. Those factories are given
+     * in arguments to the constructor when this test class is instantiated directly by JUnit (for
+     * example as a {@linkplain org.junit.runners.Suite.SuiteClasses suite} element), instead than
+     * subclassed by the implementer. The factories are fetched as documented in the
+     * {@link #factories(Class[])} javadoc.
+     *
+     * @return the default set of arguments to be given to the {@code ConcurrentTransformTest} constructor.
+     */
+    @Parameterized.Parameters
+    @SuppressWarnings("unchecked")
+    public static List<Factory[]> factories() {
+        return factories(MathTransformFactory.class);
+    }
+
+    /**
+     * Creates a new test using the given factory. If the given factory is {@code null},
+     * then the tests will be skipped.
+     *
+     * @param factory  factory for creating {@link MathTransform} instances.
+     */
+    public ConcurrentTransformTest(final MathTransformFactory factory) {
+        super(factory);
+        mtFactory                  = factory;
+        numThreads                 = Math.max(4, Runtime.getRuntime().availableProcessors());
+        numIterations              = 200;
+        transformScalingEfficiency = Double.NaN;
+        inverseScalingEfficiency   = Double.NaN;
+    }
+
+    /**
+     * Returns information about the configuration of the test which has been run.
+     * This method returns a map containing:
+     *
+     * <ul>
+     *   <li>All the entries defined in the {@linkplain TransformTestCase#configuration() parent class}.</li>
+     *   <li>All the following values associated to the {@link org.opengis.test.Configuration.Key} of the same name:
+     *     <ul>
+     *       <li>{@link #mtFactory}</li>
+     *     </ul>
+     *   </li>
+     * </ul>
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Configuration configuration() {
+        final Configuration op = super.configuration();
+        assertNull(op.put(Configuration.Key.mtFactory, mtFactory));
+        return op;
+    }
+
+    /**
+     * Transforms the given coordinates from many threads sharing the current {@linkplain #transform transform},
+     * and compares the results with a single-threaded execution. If {@link #isInverseTransformSupported} is
+     * {@code true}, then the inverse transform is also obtained and used by every threads. This method also
+     * measures the scaling efficiency of the {@code transform(…)} and {@code inverse()} methods.
+     *
+     * @param  coordinates  the source coordinates to transform.
+     * @throws TransformException if a coordinate can not be transformed.
+     */
+    protected void verifyConcurrency(final double[] coordinates) throws TransformException {
+        final MathTransform transform = this.transform;             // Protect from changes.
+        assertNotNull("TransformTestCase.transform shall be assigned a value.", transform);
+        final int numPts = coordinates.length / transform.getSourceDimensions();
+        /*
+         * Compute the expected values in a single thread. If the inverse transform is supported,
+         * we compute the inverse of the above results (not of the original coordinates) in order
+         * to stay in the domain of validity.
+         */
+        final double[] expected = new double[numPts * transform.getTargetDimensions()];
+        transform.transform(coordinates, 0, expected, 0, numPts);
+        final double[] expectedInverse;
+        if (isInverseTransformSupported) {
+            expectedInverse = new double[coordinates.length];
+            transform.inverse().transform(expected, 0, expectedInverse, 0, numPts);
+        } else {
+            expectedInverse = null;
+        }
+        /*
+         * Verify that all threads get the same results than the single-threaded execution.
+         * The inverse transform is requested in each iteration for testing lazy initialization.
+         */
+        execute(numThreads, () -> {
+            final double[] actual = new double[expected.length];
+            final double[] actualInverse = (expectedInverse != null) ? new double[expectedInverse.length] : null;
+            for (int i=0; i<numIterations; i++) {
+                transform.transform(coordinates, 0, actual, 0, numPts);
+                assertArrayEquals("Concurrent transform gave a result different than single-threaded execution.",
+                        expected, actual, 0);
+                if (actualInverse != null) {
+                    transform.inverse().transform(actual, 0, actualInverse, 0, numPts);
+                    assertArrayEquals("Concurrent inverse transform gave a result different than single-threaded execution.",
+                            expectedInverse, actualInverse, 0);
+                }
+            }
+        });
+        /*
+         * Measure the scaling efficiency of transform(…) and inverse() methods separately.
+         */
+        transformScalingEfficiency = scalingEfficiency(() -> {
+            final double[] actual = new double[expected.length];
+            for (int i=0; i<numIterations; i++) {
+                transform.transform(coordinates, 0, actual, 0, numPts);
+            }
+        });
+        if (isInverseTransformSupported) {
+            inverseScalingEfficiency = scalingEfficiency(() -> {
+                for (int i = numIterations * NUM_POINTS; --i >= 0;) {
+                    assertNotNull(transform.inverse());
+                }
+            });
+        }
+        if (minimalScalingEfficiency > 0) {
+            assertTrue("Scaling efficiency of transform(…) is " + transformScalingEfficiency
+                    + ", which is below the " + minimalScalingEfficiency + " threshold.",
+                    transformScalingEfficiency >= minimalScalingEfficiency);
+            assertFalse("Scaling efficiency of inverse() is " + inverseScalingEfficiency
+                    + ", which is below the " + minimalScalingEfficiency + " threshold.",
+                    inverseScalingEfficiency < minimalScalingEfficiency);
+        }
+    }
+
+    /**
+     * A task to be executed by each thread.
+     */
+    @FunctionalInterface
+    private interface Task {
+        /** Executes the task. */
+        void run() throws TransformException;
+    }
+
+    /**
+     * Executes the given task in the given number of threads, all started at the same time.
+     *
+     * @return the elapsed time in nanoseconds.
+     */
+    private static long execute(final int numThreads, final Task task) throws TransformException {
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        final Callable<Long> callable = () -> {
+            barrier.await();
+            final long start = System.nanoTime();
+            task.run();
+            return start;
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Future<Long>> futures = new ArrayList<>(numThreads);
+            for (int i=0; i<numThreads; i++) {
+                futures.add(executor.submit(callable));
+            }
+            long start = Long.MAX_VALUE;
+            for (final Future<Long> future : futures) {
+                start = Math.min(start, future.get());
+            }
+            return System.nanoTime() - start;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformException("Test interrupted.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof TransformException) throw (TransformException) cause;
+            if (cause instanceof RuntimeException)   throw (RuntimeException)   cause;
+            if (cause instanceof Error)              throw (Error)              cause;
+            throw new TransformException(cause.toString(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Measures the scaling efficiency of the given task. The task is first executed once for warming up,
+     * then executed in a single thread and finally in {@link #numThreads} threads.
+     */
+    private double scalingEfficiency(final Task task) throws TransformException {
+        task.run();
+        final long single   = execute(1, task);
+        final long parallel = execute(numThreads, task);
+        final int effective = Math.min(numThreads, Runtime.getRuntime().availableProcessors());
+        return (numThreads * (double) single) / (effective * (double) parallel);
+    }
+
+    /**
+     * Creates the coordinates to transform in the given domain, using the same generator than
+     * {@link #verifyInDomain verifyInDomain(…)}.
+     */
+    private static double[] createCoordinates(final Rectangle2D domain, final long seed) {
+        final int n = (int) Math.ceil(Math.sqrt(NUM_POINTS));
+        final float[] points = createDomainCoordinates(
+                new double[] {domain.getMinX(), domain.getMinY()},
+                new double[] {domain.getMaxX(), domain.getMaxY()},
+                new int[] {n, n}, new Random(seed));
+        final double[] coordinates = new double[points.length];
+        for (int i=0; i<points.length; i++) {
+            coordinates[i] = points[i];
+        }
+        return coordinates;
+    }
+
+    /**
+     * Tests an affine transform shared by many threads.
+     *
+     * @throws FactoryException if the math transform can not be created.
+     * @throws TransformException if a point can not be transformed.
+     */
+    @Test
+    public void testAffineTransform() throws FactoryException, TransformException {
+        if (transform == null) {
+            assumeNotNull(mtFactory);
+            transform = mtFactory.createAffineTransform(new SimpleMatrix(3, 3,
+                    0.8, -0.6, 200,
+                    0.6,  0.8, 300,
+                    0,    0,   1));
+            assertNotNull(transform);
+        }
+        verifyConcurrency(createCoordinates(new Rectangle2D.Double(-1000, -1000, 2000, 2000), 384703));
+    }
+
+    /**
+     * Tests a map projection shared by many threads. The projection is created from the parameters
+     * of the given sample points, and the points are generated in the area of validity.
+     */
+    private void runMapProjectionTest(final SamplePoints sample) throws FactoryException, TransformException {
+        if (transform == null) {
+            assumeNotNull(mtFactory);
+            try {
+                transform = mtFactory.createParameterizedTransform(
+                        PseudoEpsgFactory.createParameters(mtFactory, sample.operation));
+            } catch (NoSuchIdentifierException e) {
+                assumeNoException(e);                   // Will mark the test as "ignored".
+            }
+            assertNotNull(transform);
+        }
+        verifyConcurrency(createCoordinates(sample.areaOfValidity, sample.operation));
+    }
+
+    /**
+     * Tests the <cite>"Mercator (variant A)"</cite> (EPSG:9804) projection shared by many threads.
+     * The projection parameters are the ones of {@link ParameterizedTransformTest#testMercator1SP()}.
+     *
+     * @throws FactoryException if the math transform can not be created.
+     * @throws TransformException if a point can not be transformed.
+     */
+    @Test
+    public void testMercator1SP() throws FactoryException, TransformException {
+        runMapProjectionTest(SamplePoints.forCRS(3002));
+    }
+
+    /**
+     * Tests the <cite>"Transverse Mercator"</cite> (EPSG:9807) projection shared by many threads.
+     * The projection parameters are the ones of {@link ParameterizedTransformTest#testTransverseMercator()}.
+     *
+     * @throws FactoryException if the math transform can not be created.
+     * @throws TransformException if a point can not be transformed.
+     */
+    @Test
+    public void testTransverseMercator() throws FactoryException, TransformException {
+        runMapProjectionTest(SamplePoints.forCRS(27700));
+    }
+
+    /**
+     * Tests the <cite>"Lambert Conic Conformal (1SP)"</cite> (EPSG:9801) projection shared by many threads.
+     * The projection parameters are the ones of {@link ParameterizedTransformTest#testLambertConicConformal1SP()}.
+     *
+     * @throws FactoryException if the math transform can not be created.
+     * @throws TransformException if a point can not be transformed.
+     */
+    @Test
+    public void testLambertConicConformal1SP() throws FactoryException, TransformException {
+        runMapProjectionTest(SamplePoints.forCRS(24200));
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2011-2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.referencing;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Compares the costs of transforming the vertices of many geometries one point at a time
+ * or in batches. Implementations of {@code Geometry.transform(…)} often transform vertices
+ * one by one through {@link MathTransform#transform(DirectPosition, DirectPosition)}, while the array methods of {@code MathTransform}
+ * can amortize the per-call overhead over many points. This harness measures the following
+ * {@linkplain Strategy strategies} on the same set of synthetic geometries:
+ *
+ * <ul>
+ *   <li>{@link Strategy#PER_VERTEX}: one {@code DirectPosition} transform per vertex.</li>
+ *   <li>{@link Strategy#PER_GEOMETRY}: one array transform per geometry.</li>
+ *   <li>{@link Strategy#BATCHED}: all vertices gathered in a single array, transformed in one call
+ *       and scattered back to their geometries.</li>
+ * </ul>
+ *
+ * Implementers can also measure their own geometry transformation engine with
+ * {@link #measure(String, Engine, int)}.
+ *
+ * <p>The geometries are polylines of vertices generated by the same generator than
+ * {@link TransformTestCase#verifyInDomain TransformTestCase.verifyInDomain(…)}.</p>
+ *
+ * <p>Example:</p>
+ * <blockquote><pre>GeometryTransformBenchmark benchmark = new GeometryTransformBenchmark(transform,
+ *         new double[] {-180, -90}, new double[] {180, 90}, new Random(0), 1000, 100);
+ *for (Strategy strategy : Strategy.values()) {
+ *    System.out.println(benchmark.measure(strategy, 10));
+ *}</pre></blockquote>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class GeometryTransformBenchmark {
+    /**
+     * The ways to transform the vertices of geometries.
+     */
+    public enum Strategy {
+        /** One {@code MathTransform.transform(DirectPosition, DirectPosition)} call per vertex. */
+        PER_VERTEX,
+
+        /** One {@code MathTransform.transform(double[], int, double[], int, int)} call per geometry. */
+        PER_GEOMETRY,
+
+        /** One {@code MathTransform.transform(double[], int, double[], int, int)} call for all geometries. */
+        BATCHED
+    }
+
+    /**
+     * A geometry transformation engine to measure. The engine shall transform all vertices of
+     * all given geometries and shall not modify the source arrays.
+     */
+    @FunctionalInterface
+    public interface Engine {
+        /**
+         * Transforms the given geometries.
+         *
+         * @param  geometries  the ordinate values of each geometry, as (<var>x</var>₀, <var>y</var>₀,
+         *                     <var>x</var>₁, <var>y</var>₁, …) tuples. Shall not be modified.
+         * @param  transform   the transform to apply.
+         * @throws TransformException if a vertex can not be transformed.
+         */
+        void transform(List<double[]> geometries, MathTransform transform) throws TransformException;
+    }
+
+    /**
+     * The result of a measurement.
+     */
+    public static final class Result {
+        /** The name of the strategy or engine which has been measured. */
+        private final String name;
+
+        /** Total number of geometries transformed in all passes. */
+        private final long numGeometries;
+
+        /** Total number of vertices transformed in all passes. */
+        private final long numPoints;
+
+        /** Elapsed time in nanoseconds. */
+        private final long elapsedTime;
+
+        /** Creates a new result. */
+        Result(final String name, final long numGeometries, final long numPoints, final long elapsedTime) {
+            this.name          = name;
+            this.numGeometries = numGeometries;
+            this.numPoints     = numPoints;
+            this.elapsedTime   = elapsedTime;
+        }
+
+        /**
+         * Returns the name of the strategy or engine which has been measured.
+         *
+         * @return name of the measured strategy.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the total number of geometries transformed in all passes.
+         *
+         * @return number of geometries transformed.
+         */
+        public long getNumGeometries() {
+            return numGeometries;
+        }
+
+        /**
+         * Returns the total number of vertices transformed in all passes.
+         *
+         * @return number of vertices transformed.
+         */
+        public long getNumPoints() {
+            return numPoints;
+        }
+
+        /**
+         * Returns the wall-clock time elapsed for transforming all geometries, in nanoseconds.
+         *
+         * @return elapsed time in nanoseconds.
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Returns the number of vertices transformed per second.
+         *
+         * @return vertices per second.
+         */
+        public double getPointsPerSecond() {
+            return numPoints / (elapsedTime / 1E9);
+        }
+
+        /**
+         * Returns a single-line representation of this result, suitable for reports.
+         *
+         * @return a string representation of this result.
+         */
+        @Override
+        public String toString() {
+            return String.format("%-16s geometries=%-8d points=%-10d %,.0f points/s",
+                    name, numGeometries, numPoints, getPointsPerSecond());
+        }
+    }
+
+    /**
+     * The transform to measure.
+     */
+    private final MathTransform transform;
+
+    /**
+     * The ordinate values of each geometry.
+     */
+    private final List<double[]> geometries;
+
+    /**
+     * Total number of vertices in all geometries.
+     */
+    private final long numPoints;
+
+    /**
+     * Creates a new benchmark for the given transform. The vertices of all geometries are generated
+     * in the given domain, then split in geometries of {@code verticesPerGeometry} consecutive vertices.
+     *
+     * @param transform            the transform to measure.
+     * @param minOrdinates         the minimal ordinate values of the domain where to generate vertices.
+     * @param maxOrdinates         the maximal ordinate values of the domain where to generate vertices.
+     * @param randomGenerator      an optional random number generator, or {@code null} for using a regular grid.
+     * @param numGeometries        number of geometries to generate.
+     * @param verticesPerGeometry  number of vertices in each geometry.
+     */
+    public GeometryTransformBenchmark(final MathTransform transform, final double[] minOrdinates,
+            final double[] maxOrdinates, final Random randomGenerator, final int numGeometries,
+            final int verticesPerGeometry)
+    {
+        final int dimension = transform.getSourceDimensions();
+        if (minOrdinates.length != dimension || maxOrdinates.length != dimension) {
+            throw new IllegalArgumentException("The domain shall have " + dimension + " dimensions.");
+        }
+        if (numGeometries <= 0 || verticesPerGeometry <= 0) {
+            throw new IllegalArgumentException("Number of geometries and vertices shall be strictly positive.");
+        }
+        final int[] numOrdinates = new int[dimension];
+        Arrays.fill(numOrdinates, 1);
+        numOrdinates[0] = verticesPerGeometry;
+        final List<double[]> list = new ArrayList<>(numGeometries);
+        for (int i=0; i<numGeometries; i++) {
+            final float[] vertices = TransformTestCase.createDomainCoordinates(
+                    minOrdinates, maxOrdinates, numOrdinates, randomGenerator);
+            final double[] geometry = new double[vertices.length];
+            for (int j=0; j<vertices.length; j++) {
+                geometry[j] = vertices[j];
+            }
+            list.add(geometry);
+        }
+        this.transform  = transform;
+        this.geometries = Collections.unmodifiableList(list);
+        this.numPoints  = (long) numGeometries * verticesPerGeometry;
+    }
+
+    /**
+     * Returns the ordinate values of the geometries to transform. Callers shall not modify the arrays.
+     *
+     * @return the ordinate values of each geometry.
+     */
+    public List<double[]> getGeometries() {
+        return geometries;
+    }
+
+    /**
+     * Measures the given strategy.
+     *
+     * @param  strategy   the way to transform the vertices.
+     * @param  numPasses  number of times to transform all geometries.
+     * @return the measurement.
+     * @throws TransformException if an error occurred while transforming the vertices.
+     */
+    public Result measure(final Strategy strategy, final int numPasses) throws TransformException {
+        final Engine engine;
+        switch (strategy) {
+            case PER_VERTEX:   engine = GeometryTransformBenchmark::perVertex;   break;
+            case PER_GEOMETRY: engine = GeometryTransformBenchmark::perGeometry; break;
+            case BATCHED:      engine = GeometryTransformBenchmark::batched;     break;
+            default: throw new AssertionError(strategy);
+        }
+        return measure(strategy.name(), engine, numPasses);
+    }
+
+    /**
+     * Measures the given geometry transformation engine.
+     *
+     * @param  name       a name for the engine, used in the result.
+     * @param  engine     the engine to measure.
+     * @param  numPasses  number of times to transform all geometries.
+     * @return the measurement.
+     * @throws TransformException if an error occurred while transforming the vertices.
+     */
+    public Result measure(final String name, final Engine engine, final int numPasses) throws TransformException {
+        if (numPasses <= 0) {
+            throw new IllegalArgumentException("Number of passes shall be strictly positive.");
+        }
+        final long start = System.nanoTime();
+        for (int i=0; i<numPasses; i++) {
+            engine.transform(geometries, transform);
+        }
+        final long elapsedTime = Math.max(System.nanoTime() - start, 1);
+        return new Result(name, (long) numPasses * geometries.size(), numPasses * numPoints, elapsedTime);
+    }
+
+    /**
+     * Transforms the vertices one by one through {@code DirectPosition} objects.
+     */
+    private static void perVertex(final List<double[]> geometries, final MathTransform transform)
+            throws TransformException
+    {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final SimpleDirectPosition source = new SimpleDirectPosition(srcDim);
+        final SimpleDirectPosition target = new SimpleDirectPosition(tgtDim);
+        for (final double[] geometry : geometries) {
+            final int n = geometry.length / srcDim;
+            final double[] result = new double[n * tgtDim];
+            for (int i=0; i<n; i++) {
+                System.arraycopy(geometry, i*srcDim, source.ordinates, 0, srcDim);
+                final DirectPosition p = transform.transform(source, target);
+                for (int j=0; j<tgtDim; j++) {
+                    result[i*tgtDim + j] = p.getOrdinate(j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Transforms the vertices with one array call per geometry.
+     */
+    private static void perGeometry(final List<double[]> geometries, final MathTransform transform)
+            throws TransformException
+    {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        for (final double[] geometry : geometries) {
+            final int n = geometry.length / srcDim;
+            transform.transform(geometry, 0, new double[n * tgtDim], 0, n);
+        }
+    }
+
+    /**
+     * Gathers the vertices of all geometries in a single array, transforms them in one call
+     * and scatters the results back in one array per geometry.
+     */
+    private static void batched(final List<double[]> geometries, final MathTransform transform)
+            throws TransformException
+    {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        int length = 0;
+        for (final double[] geometry : geometries) {
+            length += geometry.length;
+        }
+        final double[] gathered = new double[length];
+        int offset = 0;
+        for (final double[] geometry : geometries) {
+            System.arraycopy(geometry, 0, gathered, offset, geometry.length);
+            offset += geometry.length;
+        }
+        final int n = length / srcDim;
+        final double[] target = new double[n * tgtDim];
+        transform.transform(gathered, 0, target, 0, n);
+        offset = 0;
+        for (final double[] geometry : geometries) {
+            final int size = geometry.length / srcDim * tgtDim;
+            System.arraycopy(target, offset, new double[size], 0, size);
+            offset += size;
+        }
+    }
+}
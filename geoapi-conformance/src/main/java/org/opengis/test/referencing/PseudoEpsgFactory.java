@@ -34,6 +34,7 @@ package org.opengis.test.referencing;
 import java.util.Set;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Collections;
 import java.util.Objects;
 import javax.measure.Unit;
@@ -204,15 +205,38 @@ public strictfp class PseudoEpsgFactory extends PseudoFactory implements DatumAu
     }
 
     /**
-     * The default implementation returns an empty set.
+     * Returns the codes of the objects of the given type which can be created by this factory.
+     * The set contains the codes listed in the javadoc of the {@code createFoo(String)} methods
+     * creating objects assignable to the given type. Conversion parameters are not included,
+     * since they are not identified objects.
      *
+     * @param  type  the type of objects for which to get the codes.
+     * @return the codes of the objects of the given type, in no particular order.
      * @throws FactoryException if this method can not provide the requested information.
-     *
-     * @todo Needs to be implemented.
      */
     @Override
     public Set<String> getAuthorityCodes(final Class<? extends IdentifiedObject> type) throws FactoryException {
-        return Collections.emptySet();
+        final Set<String> codes = new LinkedHashSet<>();
+        if (type.isAssignableFrom(Ellipsoid.class))            add(codes, 7030, 7019, 7001, 7004, 7024, 7022, 7011);
+        if (type.isAssignableFrom(PrimeMeridian.class))        add(codes, 8901, 8903, 8908);
+        if (type.isAssignableFrom(GeodeticDatum.class))        add(codes, 6326, 6284);
+        if (type.isAssignableFrom(CoordinateSystemAxis.class)) add(codes, 106, 107, 108, 109, 110, 115, 116, 117, 58, 59, 220, 221);
+        if (type.isAssignableFrom(EllipsoidalCS.class))        add(codes, 6403, 6422, 6423, 6424);
+        if (type.isAssignableFrom(CartesianCS.class))          add(codes, 6500);
+        if (type.isAssignableFrom(GeographicCRS.class))        add(codes, 4326, 4284);
+        return Collections.unmodifiableSet(codes);
+    }
+
+    /**
+     * Adds the given codes to the given set.
+     *
+     * @param codes   the set where to add the codes.
+     * @param values  the codes to add.
+     */
+    private static void add(final Set<String> codes, final int... values) {
+        for (final int code : values) {
+            codes.add(String.valueOf(code));
+        }
     }
 
     /**
@@ -0,0 +1,448 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2011-2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.referencing;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Measures the throughput of a {@link MathTransform} in number of points transformed per second.
+ * This harness is a companion to {@link TransformTestCase#verifyInDomain TransformTestCase.verifyInDomain(…)}:
+ * it uses the same generator of regularly spaced (optionally jittered and shuffled) points in a given domain,
+ * but instead of verifying the results it measures the time spent in the {@code transform(…)} methods.
+ * Implementers can publish those numbers next to the conformance test results.
+ *
+ * <p>The following aspects can be measured separately:</p>
+ * <ul>
+ *   <li>Each of the four {@code transform(…)} methods working on arrays, identified by {@link Signature}.</li>
+ *   <li>Transformations in-place (source and target arrays are the same) or using separated arrays.</li>
+ *   <li>Number of threads sharing the same {@code MathTransform} instance.</li>
+ * </ul>
+ *
+ * <p>The number of points to transform can be very large (e.g. 10<sup>8</sup>). In order to keep the memory
+ * usage bounded, points are generated only once in a chunk of at most {@link #getChunkSize()} points,
+ * and that chunk is transformed repeatedly until the requested number of points has been processed.
+ * For in-place transformations, the time spent in restoring the source coordinates before each chunk
+ * is included in the measurement.</p>
+ *
+ * <p>Example:</p>
+ * <blockquote><pre>TransformBenchmark benchmark = new TransformBenchmark(transform,
+ *         new double[] {-180, -90}, new double[] {180, 90}, new Random(0));
+ *for (TransformBenchmark.Result result : benchmark.measureAll(1000000, 4)) {
+ *    System.out.println(result);
+ *}</pre></blockquote>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class TransformBenchmark {
+    /**
+     * The {@code MathTransform.transform(…)} methods working on arrays.
+     */
+    public enum Signature {
+        /** {@code transform(double[], int, double[], int, int)}. */
+        DOUBLE_TO_DOUBLE(true),
+
+        /** {@code transform(float[], int, float[], int, int)}. */
+        FLOAT_TO_FLOAT(true),
+
+        /** {@code transform(double[], int, float[], int, int)}. */
+        DOUBLE_TO_FLOAT(false),
+
+        /** {@code transform(float[], int, double[], int, int)}. */
+        FLOAT_TO_DOUBLE(false);
+
+        /**
+         * Whether the source and target arrays can be the same array.
+         */
+        final boolean canTransformInPlace;
+
+        /** Creates a new enumeration value. */
+        private Signature(final boolean canTransformInPlace) {
+            this.canTransformInPlace = canTransformInPlace;
+        }
+    }
+
+    /**
+     * The result of a measurement.
+     */
+    public static final class Result {
+        /** The method which has been measured. */
+        private final Signature signature;
+
+        /** Whether the transformations were done in-place. */
+        private final boolean inPlace;
+
+        /** Number of threads which were sharing the transform. */
+        private final int numThreads;
+
+        /** Total number of points transformed by all threads. */
+        private final long numPoints;
+
+        /** Elapsed time in nanoseconds. */
+        private final long elapsedTime;
+
+        /** Creates a new result. */
+        Result(final Signature signature, final boolean inPlace, final int numThreads,
+               final long numPoints, final long elapsedTime)
+        {
+            this.signature   = signature;
+            this.inPlace     = inPlace;
+            this.numThreads  = numThreads;
+            this.numPoints   = numPoints;
+            this.elapsedTime = elapsedTime;
+        }
+
+        /**
+         * Returns the {@code transform(…)} method which has been measured.
+         *
+         * @return the method which has been measured.
+         */
+        public Signature getSignature() {
+            return signature;
+        }
+
+        /**
+         * Returns whether the source and target arrays were the same array.
+         *
+         * @return whether the transformations were done in-place.
+         */
+        public boolean isInPlace() {
+            return inPlace;
+        }
+
+        /**
+         * Returns the number of threads which were sharing the same transform.
+         *
+         * @return number of threads.
+         */
+        public int getNumThreads() {
+            return numThreads;
+        }
+
+        /**
+         * Returns the total number of points transformed by all threads.
+         *
+         * @return number of points transformed.
+         */
+        public long getNumPoints() {
+            return numPoints;
+        }
+
+        /**
+         * Returns the wall-clock time elapsed for transforming all points, in nanoseconds.
+         *
+         * @return elapsed time in nanoseconds.
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Returns the number of points transformed per second, all threads together.
+         *
+         * @return points per second.
+         */
+        public double getPointsPerSecond() {
+            return numPoints / (elapsedTime / 1E9);
+        }
+
+        /**
+         * Returns a single-line representation of this result, suitable for reports.
+         *
+         * @return a string representation of this result.
+         */
+        @Override
+        public String toString() {
+            return String.format("%-16s %-9s threads=%-3d points=%-10d %,.0f points/s",
+                    signature, inPlace ? "in-place" : "separate", numThreads, numPoints, getPointsPerSecond());
+        }
+    }
+
+    /**
+     * The transform to measure.
+     */
+    private final MathTransform transform;
+
+    /**
+     * The minimal and maximal ordinate values of the domain where to generate points.
+     */
+    private final double[] minOrdinates, maxOrdinates;
+
+    /**
+     * An optional random number generator, or {@code null} for using a regular grid.
+     */
+    private final Random randomGenerator;
+
+    /**
+     * Maximal number of points to generate in a single chunk.
+     */
+    private int chunkSize;
+
+    /**
+     * Creates a new benchmark for the given transform.
+     *
+     * @param transform        the transform to measure.
+     * @param minOrdinates     the minimal ordinate values of the domain where to generate points.
+     * @param maxOrdinates     the maximal ordinate values of the domain where to generate points.
+     * @param randomGenerator  an optional random number generator, or {@code null} for using a regular grid.
+     */
+    public TransformBenchmark(final MathTransform transform, final double[] minOrdinates,
+            final double[] maxOrdinates, final Random randomGenerator)
+    {
+        final int dimension = transform.getSourceDimensions();
+        if (minOrdinates.length != dimension || maxOrdinates.length != dimension) {
+            throw new IllegalArgumentException("The domain shall have " + dimension + " dimensions.");
+        }
+        this.transform       = transform;
+        this.minOrdinates    = minOrdinates.clone();
+        this.maxOrdinates    = maxOrdinates.clone();
+        this.randomGenerator = randomGenerator;
+        this.chunkSize       = 100000;
+    }
+
+    /**
+     * Returns the maximal number of points in a chunk of generated coordinates.
+     * Each thread transforms chunks of this size until the requested number of points is reached.
+     *
+     * @return maximal number of points in a chunk.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the maximal number of points in a chunk of generated coordinates.
+     * The default value is 100000.
+     *
+     * @param size  maximal number of points in a chunk.
+     */
+    public void setChunkSize(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Chunk size shall be strictly positive.");
+        }
+        chunkSize = size;
+    }
+
+    /**
+     * Generates the coordinates of a chunk using the {@link TransformTestCase} generator.
+     * The number of points along each dimension is chosen for having approximately
+     * {@code numPoints} points in total, but never more.
+     */
+    private float[] createChunk(final long numPoints) {
+        final int dimension = minOrdinates.length;
+        final int target = (int) Math.min(numPoints, chunkSize);
+        final int[] numOrdinates = new int[dimension];
+        int n = Math.max(1, (int) Math.floor(Math.pow(target, 1.0 / dimension)));
+        int remaining = target;
+        for (int i=0; i<dimension; i++) {
+            if (i == dimension - 1) {
+                n = Math.max(1, remaining);                     // Use all remaining points in last dimension.
+            }
+            numOrdinates[i] = n;
+            remaining /= n;
+        }
+        return TransformTestCase.createDomainCoordinates(minOrdinates, maxOrdinates, numOrdinates, randomGenerator);
+    }
+
+    /**
+     * Measures the throughput of the given {@code transform(…)} method.
+     *
+     * @param  signature   the {@code transform(…)} method to measure.
+     * @param  numPoints   total number of points to transform, all threads together.
+     * @param  inPlace     whether to use the same array for source and target coordinates.
+     * @param  numThreads  number of threads sharing the transform.
+     * @return the measurement.
+     * @throws TransformException if an error occurred while transforming the points.
+     * @throws IllegalArgumentException if {@code inPlace} is {@code true} but the signature or the
+     *         transform dimensions do not allow in-place transformations.
+     */
+    public Result measure(final Signature signature, final long numPoints, final boolean inPlace,
+            final int numThreads) throws TransformException
+    {
+        if (numPoints <= 0 || numThreads <= 0) {
+            throw new IllegalArgumentException("Number of points and threads shall be strictly positive.");
+        }
+        if (inPlace && !canTransformInPlace(signature)) {
+            throw new IllegalArgumentException(signature + " can not be measured in-place.");
+        }
+        final float[] chunk = createChunk(numPoints);
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        final List<Callable<Long>> tasks = new ArrayList<>(numThreads);
+        for (int t=0; t<numThreads; t++) {
+            final long n = numPoints / numThreads + (t < numPoints % numThreads ? 1 : 0);
+            tasks.add(() -> {
+                final Worker worker = new Worker(signature, chunk, inPlace);
+                barrier.await();
+                final long start = System.nanoTime();
+                worker.run(n);
+                return start;
+            });
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            long start = Long.MAX_VALUE;
+            final List<Future<Long>> futures = new ArrayList<>(numThreads);
+            for (final Callable<Long> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (final Future<Long> future : futures) {
+                start = Math.min(start, future.get());
+            }
+            final long end = System.nanoTime();
+            return new Result(signature, inPlace, numThreads, numPoints, end - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformException("Benchmark interrupted.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof TransformException) throw (TransformException) cause;
+            if (cause instanceof RuntimeException)   throw (RuntimeException)   cause;
+            if (cause instanceof Error)              throw (Error)              cause;
+            throw new TransformException(cause.toString(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Measures the throughput of all {@code transform(…)} methods, in-place and with separated arrays.
+     * In-place measurements are omitted for the signatures or transforms which do not allow them.
+     *
+     * @param  numPoints   total number of points to transform in each measurement, all threads together.
+     * @param  numThreads  number of threads sharing the transform.
+     * @return all measurements.
+     * @throws TransformException if an error occurred while transforming the points.
+     */
+    public List<Result> measureAll(final long numPoints, final int numThreads) throws TransformException {
+        final List<Result> results = new ArrayList<>();
+        for (final Signature signature : Signature.values()) {
+            results.add(measure(signature, numPoints, false, numThreads));
+            if (canTransformInPlace(signature)) {
+                results.add(measure(signature, numPoints, true, numThreads));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns whether the given signature can be measured in-place with the transform.
+     */
+    private boolean canTransformInPlace(final Signature signature) {
+        return signature.canTransformInPlace && transform.getSourceDimensions() == transform.getTargetDimensions();
+    }
+
+    /**
+     * The arrays used by a single thread. Each thread has its own arrays, since only the transform is shared.
+     */
+    private final class Worker {
+        /** The method to measure. */
+        private final Signature signature;
+
+        /** The original coordinates, for restoring the in-place buffers. */
+        private final float[] sourceFloats;
+        private final double[] sourceDoubles;
+
+        /** The target arrays, or copies of the sources if transforming in-place. */
+        private final float[] targetFloats;
+        private final double[] targetDoubles;
+
+        /** Whether the transformations are done in-place. */
+        private final boolean inPlace;
+
+        /** Number of points in a chunk. */
+        private final int chunkPoints;
+
+        /** Prepares the arrays for the given method. */
+        Worker(final Signature signature, final float[] chunk, final boolean inPlace) {
+            this.signature = signature;
+            this.inPlace   = inPlace;
+            final int srcDim = transform.getSourceDimensions();
+            final int tgtDim = transform.getTargetDimensions();
+            chunkPoints   = chunk.length / srcDim;
+            sourceFloats  = chunk.clone();
+            sourceDoubles = new double[chunk.length];
+            for (int i=0; i<chunk.length; i++) {
+                sourceDoubles[i] = chunk[i];
+            }
+            if (inPlace) {
+                targetFloats  = sourceFloats.clone();
+                targetDoubles = sourceDoubles.clone();
+            } else {
+                targetFloats  = new float [chunkPoints * tgtDim];
+                targetDoubles = new double[chunkPoints * tgtDim];
+            }
+        }
+
+        /** Transforms the given number of points. */
+        void run(long numPoints) throws TransformException {
+            while (numPoints > 0) {
+                final int n = (int) Math.min(numPoints, chunkPoints);
+                switch (signature) {
+                    case DOUBLE_TO_DOUBLE: {
+                        if (inPlace) {
+                            System.arraycopy(sourceDoubles, 0, targetDoubles, 0, sourceDoubles.length);
+                            transform.transform(targetDoubles, 0, targetDoubles, 0, n);
+                        } else {
+                            transform.transform(sourceDoubles, 0, targetDoubles, 0, n);
+                        }
+                        break;
+                    }
+                    case FLOAT_TO_FLOAT: {
+                        if (inPlace) {
+                            System.arraycopy(sourceFloats, 0, targetFloats, 0, sourceFloats.length);
+                            transform.transform(targetFloats, 0, targetFloats, 0, n);
+                        } else {
+                            transform.transform(sourceFloats, 0, targetFloats, 0, n);
+                        }
+                        break;
+                    }
+                    case DOUBLE_TO_FLOAT: transform.transform(sourceDoubles, 0, targetFloats,  0, n); break;
+                    case FLOAT_TO_DOUBLE: transform.transform(sourceFloats,  0, targetDoubles, 0, n); break;
+                }
+                numPoints -= n;
+            }
+        }
+    }
+}
@@ -86,7 +86,7 @@ import static org.opengis.test.Assert.*;
  * </ul>
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   2.2
  */
 public strictfp abstract class TransformTestCase extends TestCase {
@@ -934,6 +934,47 @@ public strictfp abstract class TransformTestCase extends TestCase {
         assertEquals("The minOrdinates array doesn't have the expected length.", dimension, minOrdinates.length);
         assertEquals("The maxOrdinates array doesn't have the expected length.", dimension, maxOrdinates.length);
         assertEquals("The numOrdinates array doesn't have the expected length.", dimension, numOrdinates.length);
+        final float[] coordinates = createDomainCoordinates(minOrdinates, maxOrdinates, numOrdinates, randomGenerator);
+        /*
+         * Delegate to other methods defined in this class.
+         */
+        verifyConsistency(coordinates);
+        final Configuration.Key<Boolean> oldTip = configurationTip;
+        if (isInverseTransformSupported) {
+            configurationTip = Configuration.Key.isInverseTransformSupported;
+            verifyInverse(coordinates);
+        }
+        if (isDerivativeSupported) {
+            configurationTip = Configuration.Key.isDerivativeSupported;
+            final double[] point = new double[dimension];
+            for (int i=0; i<coordinates.length; i+=dimension) {
+                for (int j=0; j<dimension; j++) {
+                    point[j] = coordinates[i+j];
+                }
+                verifyDerivative(point);
+            }
+        }
+        configurationTip = oldTip;
+        return coordinates;
+    }
+
+    /**
+     * Creates a grid of regularly spaced points along all dimensions in the given envelope.
+     * If the given random number generator is non-null, then this method adds small random
+     * displacements to every points and shuffle the coordinates in random order.
+     * This is the point generator used by {@link #verifyInDomain verifyInDomain(…)},
+     * also used by {@link TransformBenchmark}.
+     *
+     * @param  minOrdinates     the minimal ordinate values of the domain.
+     * @param  maxOrdinates     the maximal ordinate values of the domain.
+     * @param  numOrdinates     the number of points along each dimension.
+     * @param  randomGenerator  an optional random number generator, or {@code null} for a regular grid.
+     * @return the generated coordinates inside the given domain.
+     */
+    static float[] createDomainCoordinates(final double[] minOrdinates, final double[] maxOrdinates,
+            final int[] numOrdinates, final Random randomGenerator)
+    {
+        final int dimension = numOrdinates.length;
         int numPoints = 1;
         for (int i=0; i<dimension; i++) {
             numPoints *= numOrdinates[i];
@@ -975,26 +1016,6 @@ public strictfp abstract class TransformTestCase extends TestCase {
                 System.arraycopy(buffer,      0, coordinates, i, dimension);
             }
         }
-        /*
-         * Delegate to other methods defined in this class.
-         */
-        verifyConsistency(coordinates);
-        final Configuration.Key<Boolean> oldTip = configurationTip;
-        if (isInverseTransformSupported) {
-            configurationTip = Configuration.Key.isInverseTransformSupported;
-            verifyInverse(coordinates);
-        }
-        if (isDerivativeSupported) {
-            configurationTip = Configuration.Key.isDerivativeSupported;
-            final double[] point = new double[dimension];
-            for (int i=0; i<coordinates.length; i+=dimension) {
-                for (int j=0; j<dimension; j++) {
-                    point[j] = coordinates[i+j];
-                }
-                verifyDerivative(point);
-            }
-        }
-        configurationTip = oldTip;
         return coordinates;
     }
 
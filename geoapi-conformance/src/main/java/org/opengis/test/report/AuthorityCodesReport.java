@@ -34,9 +34,16 @@ package org.opengis.test.report;
 import java.io.*;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Properties;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.nio.charset.StandardCharsets;
 
 import org.opengis.util.FactoryException;
 import org.opengis.referencing.IdentifiedObject;
@@ -73,8 +80,22 @@ import org.opengis.referencing.crs.CRSAuthorityFactory;
  *   <tr><td>{@code PERCENT.ANNOTATED}</td>      <td>automatic</td> <td>Percentage of objects having an {@linkplain Row#annotation annotation}.</td></tr>
  *   <tr><td>{@code PERCENT.DEPRECATED}</td>     <td>automatic</td> <td>Percentage of {@linkplain Row#isDeprecated deprecated} objects.</td></tr>
  *   <tr><td>{@code FILENAME}</td>               <td>predefined</td><td>Name of the file to create if the {@link #write(File)} argument is a directory.</td></tr>
+ *   <tr><td>{@code PARALLELISM}</td>            <td>optional</td>  <td>Number of threads to use for creating the objects (default is 1).</td></tr>
+ *   <tr><td>{@code ROWS.IN.MEMORY}</td>         <td>optional</td>  <td>Maximal number of rows to keep in memory before to save them in temporary files (default is unlimited).</td></tr>
  * </table>
  *
+ * <h2>Performance and memory usage</h2>
+ * By default objects are created sequentially and all rows are kept in memory. For large authority factories,
+ * the {@code PARALLELISM} property can be set to a value greater than 1 for creating objects in a pool of threads.
+ * In such case the {@code createRow(…)} methods may be invoked concurrently and shall be thread-safe,
+ * but rows are still added to the {@link #rows} list in the order of authority codes.
+ *
+ * <p>If the {@code ROWS.IN.MEMORY} property is set, then every time that the {@link #rows} list reaches that size,
+ * the rows are sorted in their {@linkplain Row#compareTo natural order} and saved in a temporary file, then the list
+ * is cleared. The {@link #write(File)} method merges the saved rows with the rows remaining in the list.
+ * Only the fields declared in the {@link Row} class are saved, and {@link #sortRows()} applies only to the rows
+ * remaining in memory. Subclasses needing more control on the rows should not set this property.</p>
+ *
  * <p><b>How to use this class:</b></p>
  * <ol>
  *   <li>Create a {@link Properties} map with the values documented in the above table.
@@ -87,7 +108,7 @@ import org.opengis.referencing.crs.CRSAuthorityFactory;
  * </ol>
  *
  * @author Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  *
  * @since 3.1
  */
@@ -182,6 +203,10 @@ public class AuthorityCodesReport extends Report {
 
         /**
          * Writes this row to the given stream.
+         *
+         * @param  out        where to write the row.
+         * @param  highlight  whether to highlight the row background.
+         * @throws IOException if an error occurred while writing the row.
          */
         final void write(final Appendable out, final boolean highlight) throws IOException {
             if (isSectionHeader) {
@@ -200,6 +225,71 @@ public class AuthorityCodesReport extends Report {
             out.append("</td></tr>");
         }
 
+        /**
+         * Saves the fields of this row in the given stream, for reading back by {@link #read(DataInput)}.
+         *
+         * @param  out  where to save the fields.
+         * @throws IOException if an error occurred while writing the fields.
+         */
+        final void write(final DataOutput out) throws IOException {
+            writeString(out, code);
+            writeString(out, name);
+            writeString(out, remark);
+            out.writeChar(annotation);
+            out.writeByte((isSectionHeader ? 1 : 0) | (isDeprecated ? 2 : 0) | (hasError ? 4 : 0));
+        }
+
+        /**
+         * Restores the fields of this row from the given stream.
+         *
+         * @param  in  the stream from which to read the fields.
+         * @throws IOException if an error occurred while reading the fields.
+         */
+        final void read(final DataInput in) throws IOException {
+            code       = readString(in);
+            name       = readString(in);
+            remark     = readString(in);
+            annotation = in.readChar();
+            final int flags = in.readByte();
+            isSectionHeader = (flags & 1) != 0;
+            isDeprecated    = (flags & 2) != 0;
+            hasError        = (flags & 4) != 0;
+        }
+
+        /**
+         * Writes the given string in UTF-8 encoding, preceded by its length or -1 if null.
+         *
+         * @param  out   where to write the string.
+         * @param  text  the string to write, or {@code null}.
+         * @throws IOException if an error occurred while writing the string.
+         */
+        private static void writeString(final DataOutput out, final String text) throws IOException {
+            if (text == null) {
+                out.writeInt(-1);
+            } else {
+                final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        /**
+         * Reads a string written by {@link #writeString(DataOutput, String)}.
+         *
+         * @param  in  the stream from which to read the string.
+         * @return the string read, or {@code null}.
+         * @throws IOException if an error occurred while reading the string.
+         */
+        private static String readString(final DataInput in) throws IOException {
+            final int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            final byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
         /**
          * Compares this row with the given one for order. The default implementation
          * {@linkplain String#split(String) splits} the code spaces (or scopes) from the
@@ -243,6 +333,40 @@ public class AuthorityCodesReport extends Report {
      */
     protected final List<Row> rows;
 
+    /**
+     * Temporary files where rows have been saved when the {@link #rows} list became too large.
+     * Each file contains rows sorted in their natural order.
+     *
+     * @see #saveRows()
+     */
+    private final List<File> savedRows;
+
+    /**
+     * Number of rows saved in the {@link #savedRows} files.
+     */
+    private int numSaved;
+
+    /**
+     * Number of rows saved in the {@link #savedRows} files which are valid, annotated or deprecated.
+     * Those counts are needed for computing the {@code PERCENT.*} properties.
+     */
+    private int numSavedValids, numSavedAnnotations, numSavedDeprecated;
+
+    /**
+     * A function creating an object for a given authority code.
+     */
+    @FunctionalInterface
+    private interface Creator {
+        /**
+         * Creates the object identified by the given code.
+         *
+         * @param  code  the authority code of the object to create.
+         * @return the object for the given code.
+         * @throws FactoryException if the object can not be created.
+         */
+        IdentifiedObject create(String code) throws FactoryException;
+    }
+
     /**
      * Creates a new report generator using the given property values.
      * See the class javadoc for a list of expected values.
@@ -252,14 +376,39 @@ public class AuthorityCodesReport extends Report {
     public AuthorityCodesReport(final Properties properties) {
         super(properties);
         rows = new ArrayList<>(1024);
+        savedRows = new ArrayList<>();
         defaultProperties.setProperty("TITLE", "Authority codes for ${OBJECTS.KIND}");
         defaultProperties.setProperty("OBJECTS.KIND", "Identified Objects");
         defaultProperties.setProperty("FACTORY.VERSION.SUFFIX", "");
         defaultProperties.setProperty("PRODUCT.VERSION.SUFFIX", "");
+        defaultProperties.setProperty("PARALLELISM", "1");
+        defaultProperties.setProperty("ROWS.IN.MEMORY", Integer.toString(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the value of the given property as a strictly positive integer.
+     *
+     * @param  key  the name of the property to get.
+     * @return the property value as a strictly positive integer.
+     */
+    private int getPositiveInteger(final String key) {
+        final String value = properties.getProperty(key);
+        final int n;
+        try {
+            n = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value for the " + key + " property: " + value, e);
+        }
+        if (n <= 0) {
+            throw new IllegalArgumentException("The " + key + " property shall be strictly positive.");
+        }
+        return n;
     }
 
     /**
      * Sets the default product name and factory name.
+     *
+     * @param factory  the factory from which to get the default names.
      */
     private void setDefault(final AuthorityFactory factory) {
         setVendor("PRODUCT", factory.getVendor());
@@ -267,14 +416,137 @@ public class AuthorityCodesReport extends Report {
     }
 
     /**
-     * Adds the given row to the {@link #rows} list, of non-null.
+     * Adds the given row to the {@link #rows} list, of non-null. If the list became
+     * larger than the {@code ROWS.IN.MEMORY} property, then the rows are saved in a
+     * temporary file.
+     *
+     * @param  row           the row to add, or {@code null} if none.
+     * @param  rowsInMemory  maximal number of rows to keep in memory.
+     * @throws IOException if an error occurred while saving the rows.
      */
-    private void add(final Row row) {
+    private void add(final Row row, final int rowsInMemory) throws IOException {
         if (row != null) {
             rows.add(row);
+            if (rows.size() >= rowsInMemory) {
+                saveRows();
+            }
+        }
+    }
+
+    /**
+     * Sorts all rows in the {@link #rows} list in their natural order, saves them in a temporary file,
+     * then clears the list. The file is deleted when the Java Virtual Machine terminates.
+     *
+     * @throws IOException if an error occurred while saving the rows.
+     */
+    private void saveRows() throws IOException {
+        Collections.sort(rows);
+        final File file = File.createTempFile("AuthorityCodes", ".tmp");
+        file.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(rows.size());
+            for (final Row row : rows) {
+                row.write(out);
+                if (!row.hasError)       numSavedValids++;
+                if (row.annotation != 0) numSavedAnnotations++;
+                if (row.isDeprecated)    numSavedDeprecated++;
+            }
+        }
+        savedRows.add(file);
+        numSaved += rows.size();
+        rows.clear();
+    }
+
+    /**
+     * Creates the objects for all given codes and adds the rows to the {@link #rows} list.
+     * Objects are created in a pool of threads if the {@code PARALLELISM} property is greater than 1.
+     * In all cases, rows are added in the iteration order of the given codes.
+     *
+     * @param  codes    the authority codes of the objects to create.
+     * @param  creator  the function to invoke for creating an object from a code.
+     * @throws FactoryException if an error occurred while saving rows or waiting for the threads.
+     */
+    private void add(final Collection<String> codes, final Creator creator) throws FactoryException {
+        final int parallelism  = getPositiveInteger("PARALLELISM");
+        final int rowsInMemory = getPositiveInteger("ROWS.IN.MEMORY");
+        final int previousCount = numSaved + rows.size();
+        final int count = codes.size();
+        final long startTime = System.nanoTime();
+        int done = 0;
+        try {
+            if (parallelism <= 1) {
+                for (final String code : codes) {
+                    add(createRow(code, creator), rowsInMemory);
+                    progress(previousCount, ++done, count, startTime);
+                }
+                return;
+            }
+            /*
+             * Parallel execution: submit tasks in the order of authority codes, but never keep more than a few
+             * pending tasks per thread in order to bound the memory usage. Rows are consumed in submission order.
+             */
+            final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+            try {
+                final ArrayDeque<Future<Row>> pending = new ArrayDeque<>();
+                for (final String code : codes) {
+                    if (pending.size() >= 4 * parallelism) {
+                        add(pending.removeFirst().get(), rowsInMemory);
+                        progress(previousCount, ++done, count, startTime);
+                    }
+                    pending.addLast(executor.submit(() -> createRow(code, creator)));
+                }
+                Future<Row> task;
+                while ((task = pending.pollFirst()) != null) {
+                    add(task.get(), rowsInMemory);
+                    progress(previousCount, ++done, count, startTime);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } catch (IOException e) {
+            throw new FactoryException("Can not save the rows in a temporary file.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FactoryException("Interrupted while creating the objects.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new FactoryException(cause);
+        }
+    }
+
+    /**
+     * Creates a new row for the object identified by the given code,
+     * or for the exception that occurred while creating that object.
+     *
+     * @param  code     the authority code of the object to create.
+     * @param  creator  the function creating an object for a given authority code.
+     * @return the row for the given code.
+     */
+    private Row createRow(final String code, final Creator creator) {
+        try {
+            return createRow(code, creator.create(code));
+        } catch (FactoryException exception) {
+            return createRow(code, exception);
         }
     }
 
+    /**
+     * Reports the progress of the objects creation, with an estimation of the throughput and remaining time.
+     *
+     * @param previousCount  number of rows before the current {@code add(…)} operation.
+     * @param done           number of codes processed so far by the current {@code add(…)} operation.
+     * @param count          number of codes to process by the current {@code add(…)} operation.
+     * @param startTime      value of {@link System#nanoTime()} when the current {@code add(…)} operation started.
+     */
+    private void progress(final int previousCount, final int done, final int count, final long startTime) {
+        final double elapsed = (System.nanoTime() - startTime) / 1E9;
+        final double throughput = (elapsed > 0) ? done / elapsed : Double.NaN;
+        final long remainingTime = (throughput > 0) ? Math.round((count - done) / throughput * 1000) : -1;
+        progress(previousCount + done, previousCount + count, throughput, remainingTime);
+    }
+
     /**
      * Adds the Coordinate Reference Systems identified by all codes available from the given CRS authority factory.
      * This method performs the following steps:
@@ -295,6 +567,7 @@ public class AuthorityCodesReport extends Report {
      *
      * Subclasses can override the above-cited {@code createRow(…)}
      * methods in order to customize the table content.
+     * Objects may be created in parallel depending on the {@code PARALLELISM} property.
      *
      * @param  factory  the factory from which to get Coordinate Reference System instances.
      * @throws FactoryException if a non-recoverable error occurred while querying the factory.
@@ -304,17 +577,7 @@ public class AuthorityCodesReport extends Report {
         defaultProperties.setProperty("TITLE", "Authority codes for Coordinate Reference Systems");
         defaultProperties.setProperty("OBJECTS.KIND", "Coordinate Reference Systems (CRS)");
         defaultProperties.setProperty("FILENAME", "CRS-Codes.html");
-        final Collection<String> codes = factory.getAuthorityCodes(CoordinateReferenceSystem.class);
-        final int previousCount = rows.size();
-        for (final String code : codes) {
-            try {
-                add(createRow(code, factory.createCoordinateReferenceSystem(code)));
-            } catch (FactoryException exception) {
-                add(createRow(code, exception));
-            }
-            progress(previousCount + rows.size(),
-                     previousCount + codes.size());
-        }
+        add(factory.getAuthorityCodes(CoordinateReferenceSystem.class), factory::createCoordinateReferenceSystem);
     }
 
     /**
@@ -335,6 +598,7 @@ public class AuthorityCodesReport extends Report {
      *
      * Subclasses can override the above-cited {@code createRow(…)}
      * methods in order to customize the table content.
+     * Objects may be created in parallel depending on the {@code PARALLELISM} property.
      *
      * @param  factory  the factory from which to get the objects.
      * @param  codes    the authority codes of the objects to create.
@@ -342,16 +606,7 @@ public class AuthorityCodesReport extends Report {
      */
     public void add(final AuthorityFactory factory, final Collection<String> codes) throws FactoryException {
         setDefault(factory);
-        final int previousCount = rows.size();
-        for (final String code : codes) {
-            try {
-                add(createRow(code, factory.createObject(code)));
-            } catch (FactoryException exception) {
-                add(createRow(code, exception));
-            }
-            progress(previousCount + rows.size(),
-                     previousCount + codes.size());
-        }
+        add(codes, factory::createObject);
     }
 
     /**
@@ -425,8 +680,8 @@ public class AuthorityCodesReport extends Report {
      */
     @Override
     public File write(File destination) throws IOException {
-        final int numRows = rows.size();
-        int numValids = 0, numAnnotations = 0, numDeprecated = 0;
+        final int numRows = rows.size() + numSaved;
+        int numValids = numSavedValids, numAnnotations = numSavedAnnotations, numDeprecated = numSavedDeprecated;
         for (final Row row : rows) {
             if (!row.hasError)       numValids++;
             if (row.annotation != 0) numAnnotations++;
@@ -459,6 +714,10 @@ public class AuthorityCodesReport extends Report {
             super.writeContent(out, key);
             return;
         }
+        if (!savedRows.isEmpty()) {
+            writeMerged(out);
+            return;
+        }
         int c = 0;
         for (final Row row : rows) {
             // Do not put indentation, because there is a lot of rows.
@@ -471,4 +730,113 @@ public class AuthorityCodesReport extends Report {
             }
         }
     }
+
+    /**
+     * A sorted sequence of rows, either read from a temporary file or taken from the {@link #rows} list.
+     * Used for merging many sorted sequences in a single one.
+     */
+    private final class Run implements Comparable<Run> {
+        /** The stream from which to read the rows, or {@code null} if the rows are taken from the list. */
+        private final DataInputStream in;
+
+        /** Number of rows remaining in the stream or in the list. */
+        private int remaining;
+
+        /** The current row, or {@code null} if there is no more rows. */
+        Row current;
+
+        /**
+         * Creates a new sequence of rows read from the given file.
+         *
+         * @param  file  the file from which to read the rows.
+         * @throws IOException if the file can not be opened.
+         */
+        Run(final File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            remaining = in.readInt();
+        }
+
+        /** Creates a new sequence of rows taken from the {@link #rows} list. */
+        Run() {
+            in = null;
+            remaining = rows.size();
+        }
+
+        /**
+         * Moves to the next row.
+         *
+         * @return {@code false} if there is no more rows.
+         * @throws IOException if an error occurred while reading the row.
+         */
+        boolean next() throws IOException {
+            if (remaining <= 0) {
+                current = null;
+                return false;
+            }
+            if (in != null) {
+                current = newRow();
+                current.read(in);
+            } else {
+                current = rows.get(rows.size() - remaining);
+            }
+            remaining--;
+            return true;
+        }
+
+        /**
+         * Closes the stream, if any.
+         *
+         * @throws IOException if an error occurred while closing the stream.
+         */
+        void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+
+        /** Compares the current rows of two sequences. */
+        @Override
+        public int compareTo(final Run other) {
+            return current.compareTo(other.current);
+        }
+    }
+
+    /**
+     * Writes the rows saved in temporary files merged with the rows in the {@link #rows} list.
+     * All sequences are sorted, so we only need to write the smallest row of all sequences at each step.
+     *
+     * @param  out  where to write the rows.
+     * @throws IOException if an error occurred while reading or writing the rows.
+     */
+    private void writeMerged(final BufferedWriter out) throws IOException {
+        final List<Run> runs = new ArrayList<>(savedRows.size() + 1);
+        try {
+            final PriorityQueue<Run> queue = new PriorityQueue<>(savedRows.size() + 1);
+            for (final File file : savedRows) {
+                final Run run = new Run(file);
+                runs.add(run);
+                if (run.next()) queue.add(run);
+            }
+            final Run run = new Run();
+            if (run.next()) queue.add(run);
+            int c = 0;
+            Run smallest;
+            while ((smallest = queue.poll()) != null) {
+                final Row row = smallest.current;
+                row.write(out, (c & 2) != 0);
+                out.newLine();
+                c++;
+                if (row.isSectionHeader) {
+                    c = 0;
+                }
+                if (smallest.next()) {
+                    queue.add(smallest);
+                }
+            }
+        } finally {
+            for (final Run run : runs) {
+                run.close();
+            }
+        }
+    }
 }
@@ -38,7 +38,7 @@ package org.opengis.test.report;
  * instance, which must be last.
  *
  * @author Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  *
  * @since 3.1
  */
@@ -86,6 +86,18 @@ class ProgressListener {
      *        the number of rows to be created.
      */
     void progress(final int position, final int count) {
+        progress(position, count, Double.NaN, -1);
+    }
+
+    /**
+     * Invoked by {@link Report#progress(int, int, double, long)} when the report is making some progress.
+     *
+     * @param position       a number ranging from 0 to {@code count}.
+     * @param count          the maximal expected value of {@code position}.
+     * @param throughput     number of rows created per second, or {@link Double#NaN} if unknown.
+     * @param remainingTime  estimated remaining time in milliseconds, or -1 if unknown.
+     */
+    void progress(final int position, final int count, final double throughput, final long remainingTime) {
         final int delta = count - progressEnd;
         if (delta != 0) {
             progressEnd = count;
@@ -93,6 +105,6 @@ class ProgressListener {
                 scan.offset += delta;
             }
         }
-        next.progress(position + offset, count + offset);
+        next.progress(position + offset, count + offset, throughput, remainingTime);
     }
 }
@@ -99,7 +99,7 @@ import org.opengis.metadata.citation.Responsibility;
  * </ul>
  *
  * @author Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  *
  * @since 3.1
  */
@@ -515,4 +515,27 @@ search:     for (final Responsibility responsibility : vendor.getCitedResponsibl
             listener.progress(position, count);
         }
     }
+
+    /**
+     * Invoked when the report is making some progress, with an estimation of the throughput and
+     * of the remaining time. This method is invoked instead of {@link #progress(int, int)} by
+     * reports which can measure their speed, for example {@link AuthorityCodesReport}.
+     * The default implementation forwards the information to the {@link Reports} instance
+     * which contains this report if any, or invokes {@link #progress(int, int)} otherwise.
+     *
+     * @param position       a number ranging from 0 to {@code count}.
+     * @param count          the maximal expected value of {@code position}.
+     * @param throughput     number of rows created per second, or {@link Double#NaN} if unknown.
+     * @param remainingTime  estimated remaining time in milliseconds, or -1 if unknown.
+     *
+     * @since 4.0
+     */
+    protected void progress(final int position, final int count, final double throughput, final long remainingTime) {
+        final ProgressListener listener = this.listener;
+        if (listener != null) {
+            listener.progress(position, count, throughput, remainingTime);
+        } else {
+            progress(position, count);
+        }
+    }
 }
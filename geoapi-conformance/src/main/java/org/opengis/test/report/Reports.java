@@ -59,7 +59,7 @@ import org.opengis.referencing.operation.MathTransformFactory;
  * reports.write(new File("my-output-directory"));</pre></blockquote>
  *
  * @author Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  *
  * @since 3.1
  */
@@ -194,8 +194,10 @@ public class Reports extends Report {
                  * must stay first.
                  */
                 report.listener = new ProgressListener(new ProgressListener(null, false) {
-                    @Override void progress(final int position, final int count) {
-                        Reports.this.progress(position, count);
+                    @Override void progress(final int position, final int count,
+                                            final double throughput, final long remainingTime)
+                    {
+                        Reports.this.progress(position, count, throughput, remainingTime);
                     }
                 }, false);
             } else {
@@ -0,0 +1,463 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.report;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.io.IOException;
+
+import org.opengis.util.Factory;
+import org.opengis.test.TestEvent;
+import org.opengis.test.TestSuite;
+import org.opengis.test.FactoryCall;
+import org.opengis.test.TestListener;
+
+
+/**
+ * Collects the execution time of each test and statistics about factory calls, then writes them in CSV or JSON format.
+ * This class can also identify the authority codes and the factory methods which are the most costly to execute.
+ * Usage example:
+ *
+ * <blockquote><pre> TimingStatistics statistics = new TimingStatistics();
+ * TestSuite.setInstrumentationEnabled(true);
+ * TestSuite.addTestListener(statistics);
+ * // Run the tests here.
+ * TestSuite.removeTestListener(statistics);
+ * try (Writer out = new FileWriter("timings.csv")) {
+ *     statistics.writeCSV(out);
+ * }
+ * for (FactoryCall call : statistics.getSlowestCodes(10)) {
+ *     System.out.println(call);
+ * }</pre></blockquote>
+ *
+ * Statistics about factory calls are available only if {@linkplain TestSuite#setInstrumentationEnabled(boolean)
+ * instrumentation is enabled}. Execution times are available in all cases. This class is thread-safe;
+ * events can be received from many threads if tests are run in parallel.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+@SuppressWarnings("deprecation")
+public class TimingStatistics implements TestListener {
+    /**
+     * Timing of a single test method execution.
+     */
+    private static final class Row {
+        /** The fully-qualified name of the test class. */
+        final String className;
+
+        /** The name of the test method. */
+        final String methodName;
+
+        /** Whether the test succeeded. */
+        final boolean success;
+
+        /** The wall-clock time and CPU time in nanoseconds, or -1 if unknown. */
+        final long elapsedTime, cpuTime;
+
+        /** Number of calls to factory methods. */
+        final int callCount;
+
+        /** Sum of the execution times of factory methods, in nanoseconds. */
+        final long callTime;
+
+        /**
+         * Creates a new row for the given event.
+         *
+         * @param event    the event of the test which has been executed.
+         * @param success  whether the test succeed.
+         */
+        Row(final TestEvent event, final boolean success) {
+            this.className   = event.getClassName();
+            this.methodName  = event.getMethodName();
+            this.success     = success;
+            this.elapsedTime = event.getElapsedTime();
+            this.cpuTime     = event.getCpuTime();
+            int  count = 0;
+            long time  = 0;
+            for (final FactoryCall call : event.getFactoryCalls()) {
+                count += call.getCount();
+                time  += call.getTotalTime();
+            }
+            callCount = count;
+            callTime  = time;
+        }
+    }
+
+    /**
+     * Accumulator for the statistics of many factory calls.
+     */
+    private static final class Accumulator {
+        /** The factory, method name and authority code (may be null) for which statistics are accumulated. */
+        final FactoryCall key;
+
+        /** Number of calls. */
+        int count;
+
+        /** Sum and maximum of the execution times, in nanoseconds. */
+        long totalTime, maximalTime;
+
+        /**
+         * Creates a new accumulator for the given factory method and code.
+         *
+         * @param key  the factory method and code, without statistics.
+         */
+        Accumulator(final FactoryCall key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds the given statistics to this accumulator.
+         *
+         * @param call  the statistics to add.
+         */
+        void add(final FactoryCall call) {
+            count     += call.getCount();
+            totalTime += call.getTotalTime();
+            if (call.getMaximalTime() > maximalTime) {
+                maximalTime = call.getMaximalTime();
+            }
+        }
+
+        /**
+         * Returns the accumulated statistics.
+         *
+         * @return the accumulated statistics.
+         */
+        FactoryCall toFactoryCall() {
+            return new FactoryCall(key.getFactory(), key.getMethodName(), key.getCode(), count, totalTime, maximalTime);
+        }
+    }
+
+    /**
+     * The execution time of each test, in the order in which tests finished.
+     * All accesses to this list must be synchronized on {@code this}.
+     */
+    private final List<Row> rows;
+
+    /**
+     * Statistics about factory calls per authority code. Keys are lists of factory, method name and code.
+     * All accesses to this map must be synchronized on {@code this}.
+     */
+    private final Map<List<Object>, Accumulator> byCode;
+
+    /**
+     * Statistics about factory calls per factory method, ignoring authority codes.
+     * All accesses to this map must be synchronized on {@code this}.
+     */
+    private final Map<List<Object>, Accumulator> byMethod;
+
+    /**
+     * Creates a new, initially empty, statistics collector.
+     */
+    public TimingStatistics() {
+        rows     = new ArrayList<>();
+        byCode   = new LinkedHashMap<>();
+        byMethod = new LinkedHashMap<>();
+    }
+
+    /**
+     * Invoked when a test is about to start. The default implementation does nothing.
+     *
+     * @param event  a description of the test which is about to be run.
+     */
+    @Override
+    public void starting(final TestEvent event) {
+    }
+
+    /**
+     * Invoked when a test succeeds. The default implementation records the execution time of the test.
+     *
+     * @param event  a description of the test which has been run.
+     */
+    @Override
+    public void succeeded(final TestEvent event) {
+        add(event, true);
+    }
+
+    /**
+     * Invoked when a test fails. The default implementation records the execution time of the test.
+     *
+     * @param event      a description of the test which has been run.
+     * @param exception  the exception that occurred during the execution.
+     */
+    @Override
+    public void failed(final TestEvent event, final Throwable exception) {
+        add(event, false);
+    }
+
+    /**
+     * Invoked when a test method finishes. The default implementation does nothing,
+     * since the execution time has already been recorded on success or failure.
+     *
+     * @param event  a description of the test which has been run.
+     */
+    @Override
+    public void finished(final TestEvent event) {
+    }
+
+    /**
+     * Records the execution time of the given test, together with the factory calls.
+     *
+     * @param event    the event of the test which has been executed.
+     * @param success  whether the test succeed.
+     */
+    private synchronized void add(final TestEvent event, final boolean success) {
+        rows.add(new Row(event, success));
+        for (final FactoryCall call : event.getFactoryCalls()) {
+            final Factory factory = call.getFactory();
+            final String  method  = call.getMethodName();
+            final String  code    = call.getCode();
+            accumulator(byMethod, factory, method, null).add(call);
+            if (code != null) {
+                accumulator(byCode, factory, method, code).add(call);
+            }
+        }
+    }
+
+    /**
+     * Returns the accumulator for the given factory method and code, creating it if needed.
+     *
+     * @param  map      the accumulators, created when first needed.
+     * @param  factory  the factory on which the method has been invoked.
+     * @param  method   name of the invoked method.
+     * @param  code     the authority code given to the method, or {@code null} if none.
+     * @return the accumulator for the given factory method and code.
+     */
+    private static Accumulator accumulator(final Map<List<Object>, Accumulator> map,
+            final Factory factory, final String method, final String code)
+    {
+        final List<Object> key = Arrays.asList(factory, method, code);
+        Accumulator acc = map.get(key);
+        if (acc == null) {
+            acc = new Accumulator(new FactoryCall(factory, method, code, 0, 0, 0));
+            map.put(key, acc);
+        }
+        return acc;
+    }
+
+    /**
+     * Returns the given accumulated statistics sorted from the most costly to the least costly,
+     * truncated to the given number of elements.
+     *
+     * @param  map    the accumulated statistics.
+     * @param  limit  maximal number of elements to return.
+     * @return the most costly calls, in decreasing order of total time.
+     */
+    private static List<FactoryCall> slowest(final Map<List<Object>, Accumulator> map, final int limit) {
+        final List<FactoryCall> calls = new ArrayList<>(map.size());
+        for (final Accumulator acc : map.values()) {
+            calls.add(acc.toFactoryCall());
+        }
+        Collections.sort(calls, new Comparator<FactoryCall>() {
+            @Override public int compare(final FactoryCall c1, final FactoryCall c2) {
+                return Long.compare(c2.getTotalTime(), c1.getTotalTime());
+            }
+        });
+        return calls.subList(0, Math.min(Math.max(limit, 0), calls.size()));
+    }
+
+    /**
+     * Returns the authority codes which were the most costly to create, sorted from the most costly.
+     * Each element contains statistics about all calls to a factory method for a given code during
+     * all tests. The cost is the sum of the execution times of all calls.
+     *
+     * @param  limit  maximal number of elements to return.
+     * @return statistics about the most costly authority codes.
+     */
+    public synchronized List<FactoryCall> getSlowestCodes(final int limit) {
+        return slowest(byCode, limit);
+    }
+
+    /**
+     * Returns the factory methods which were the most costly to execute, sorted from the most costly.
+     * Each element contains statistics about all calls to a factory method during all tests, regardless
+     * the authority code (the {@linkplain FactoryCall#getCode() code} is {@code null}).
+     *
+     * @param  limit  maximal number of elements to return.
+     * @return statistics about the most costly factory methods.
+     */
+    public synchronized List<FactoryCall> getSlowestFactories(final int limit) {
+        return slowest(byMethod, limit);
+    }
+
+    /**
+     * Writes the execution time of each test in CSV format. The first line contains the column titles.
+     * Times are in milliseconds; empty cells mean that the information is unknown.
+     *
+     * @param  out  where to write the CSV.
+     * @throws IOException if an error occurred while writing.
+     */
+    public synchronized void writeCSV(final Appendable out) throws IOException {
+        out.append("class,method,status,elapsed (ms),cpu (ms),factory calls,factory time (ms)\n");
+        for (final Row row : rows) {
+            writeCSV(out, row.className);  out.append(',');
+            writeCSV(out, row.methodName); out.append(',');
+            out.append(row.success ? "success" : "failure").append(',');
+            writeMillis(out, row.elapsedTime).append(',');
+            writeMillis(out, row.cpuTime).append(',');
+            out.append(String.valueOf(row.callCount)).append(',');
+            writeMillis(out, row.callTime).append('\n');
+        }
+    }
+
+    /**
+     * Writes all statistics in JSON format: the execution time of each test,
+     * followed by statistics about all factory methods and all authority codes.
+     * Times are in milliseconds; unknown times are {@code null}.
+     *
+     * @param  out  where to write the JSON.
+     * @throws IOException if an error occurred while writing.
+     */
+    public synchronized void writeJSON(final Appendable out) throws IOException {
+        out.append("{\n  \"tests\": [");
+        String separator = "\n";
+        for (final Row row : rows) {
+            out.append(separator).append("    {\"class\": ");
+            writeJSON(out, row.className).append(", \"method\": ");
+            writeJSON(out, row.methodName).append(", \"status\": ");
+            writeJSON(out, row.success ? "success" : "failure").append(", \"elapsed\": ");
+            writeMillis(out, row.elapsedTime, "null").append(", \"cpu\": ");
+            writeMillis(out, row.cpuTime, "null").append(", \"factoryCalls\": ").append(String.valueOf(row.callCount));
+            out.append(", \"factoryTime\": ");
+            writeMillis(out, row.callTime, "null").append('}');
+            separator = ",\n";
+        }
+        out.append("\n  ],\n  \"factories\": ");
+        writeJSON(out, slowest(byMethod, Integer.MAX_VALUE));
+        out.append(",\n  \"codes\": ");
+        writeJSON(out, slowest(byCode, Integer.MAX_VALUE));
+        out.append("\n}\n");
+    }
+
+    /**
+     * Writes the given factory call statistics as a JSON array.
+     *
+     * @param  out    where to write the JSON array.
+     * @param  calls  the statistics to write.
+     * @throws IOException if an error occurred while writing.
+     */
+    private static void writeJSON(final Appendable out, final List<FactoryCall> calls) throws IOException {
+        out.append('[');
+        String separator = "\n";
+        for (final FactoryCall call : calls) {
+            out.append(separator).append("    {\"factory\": ");
+            writeJSON(out, call.getFactory().getClass().getName()).append(", \"method\": ");
+            writeJSON(out, call.getMethodName());
+            if (call.getCode() != null) {
+                out.append(", \"code\": ");
+                writeJSON(out, call.getCode());
+            }
+            out.append(", \"count\": ").append(String.valueOf(call.getCount())).append(", \"total\": ");
+            writeMillis(out, call.getTotalTime()).append(", \"maximum\": ");
+            writeMillis(out, call.getMaximalTime()).append('}');
+            separator = ",\n";
+        }
+        out.append(calls.isEmpty() ? "]" : "\n  ]");
+    }
+
+    /**
+     * Writes the given text as a CSV value, quoting it if needed.
+     *
+     * @param  out   where to write the CSV value.
+     * @param  text  the text to write.
+     * @throws IOException if an error occurred while writing.
+     */
+    private static void writeCSV(final Appendable out, final String text) throws IOException {
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+            out.append('"').append(text.replace("\"", "\"\"")).append('"');
+        } else {
+            out.append(text);
+        }
+    }
+
+    /**
+     * Writes the given text as a JSON string, escaping characters as needed.
+     *
+     * @param  out   where to write the JSON string.
+     * @param  text  the text to write.
+     * @return the given {@code out} argument.
+     * @throws IOException if an error occurred while writing.
+     */
+    private static Appendable writeJSON(final Appendable out, final String text) throws IOException {
+        out.append('"');
+        for (int i=0; i<text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '"':  out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n");  break;
+                case '\r': out.append("\\r");  break;
+                case '\t': out.append("\\t");  break;
+                default: {
+                    if (c < ' ') {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Writes the given time in milliseconds, or nothing if the time is unknown.
+     *
+     * @param  out    where to write the time.
+     * @param  nanos  the time in nanoseconds, or a negative value if unknown.
+     * @return the given {@code out} argument.
+     * @throws IOException if an error occurred while writing.
+     */
+    private static Appendable writeMillis(final Appendable out, final long nanos) throws IOException {
+        return writeMillis(out, nanos, "");
+    }
+
+    /**
+     * Writes the given time in milliseconds, or the given text if the time is unknown.
+     *
+     * @param  out      where to write the time.
+     * @param  nanos    the time in nanoseconds, or a negative value if unknown.
+     * @param  unknown  the text to write if the time is unknown.
+     * @return the given {@code out} argument.
+     * @throws IOException if an error occurred while writing.
+     */
+    private static Appendable writeMillis(final Appendable out, final long nanos, final String unknown) throws IOException {
+        return out.append(nanos >= 0 ? String.valueOf(nanos / 1E6) : unknown);
+    }
+}
@@ -39,9 +39,18 @@ import javax.swing.UIManager;
 
 /**
  * Provides the entry point for running the {@code geoapi-conformance} tests.
+ * By default the tests are run sequentially. The tests can be run in parallel
+ * by specifying the number of threads in the {@value Runner#PARALLELISM_KEY}
+ * system property, for example:
+ *
+ * <blockquote><pre>java -Dorg.opengis.test.runner.threads=8 -jar geoapi-conformance.jar</pre></blockquote>
+ *
+ * Statistics about factory calls are collected only if the {@value Runner#INSTRUMENTATION_KEY}
+ * system property is set to {@code true}. This option wraps the factories in proxies, so it
+ * should not be used with implementations that cast factories to their implementation classes.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 public final class Main {
@@ -80,6 +80,11 @@ final class MainFrame extends JFrame implements Runnable, ActionListener, ListSe
      */
     static final String REPORTS_DIRECTORY_KEY = "reports.directory";
 
+    /**
+     * The preference key for the number of threads to use for creating the objects listed in HTML reports.
+     */
+    static final String REPORTS_THREADS_KEY = "reports.threads";
+
     /**
      * The desktop for browse operations, or {@code null} if unsupported.
      */
@@ -188,7 +193,9 @@ final class MainFrame extends JFrame implements Runnable, ActionListener, ListSe
             columns.getColumn(ResultTableModel.CLASS_COLUMN)  .setPreferredWidth(125);
             columns.getColumn(ResultTableModel.METHOD_COLUMN) .setPreferredWidth(175);
             columns.getColumn(ResultTableModel.RESULT_COLUMN) .setPreferredWidth( 40);
-            columns.getColumn(ResultTableModel.MESSAGE_COLUMN).setPreferredWidth(250);      // Take all remaining space.
+            columns.getColumn(ResultTableModel.TIME_COLUMN)   .setPreferredWidth( 50);
+            columns.getColumn(ResultTableModel.CALLS_COLUMN)  .setPreferredWidth( 50);
+            columns.getColumn(ResultTableModel.MESSAGE_COLUMN).setPreferredWidth(150);      // Take all remaining space.
             tabs.addTab("Tests", new JScrollPane(table));
         }
         /*
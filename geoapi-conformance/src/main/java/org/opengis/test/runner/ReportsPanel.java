@@ -51,6 +51,8 @@ import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JTextField;
 import javax.swing.JProgressBar;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.BorderFactory;
@@ -63,6 +65,7 @@ import org.opengis.test.report.Reports;
 import org.opengis.test.report.AuthorityCodesReport;
 import org.opengis.test.report.OperationParametersReport;
 import static org.opengis.test.runner.MainFrame.REPORTS_DIRECTORY_KEY;
+import static org.opengis.test.runner.MainFrame.REPORTS_THREADS_KEY;
 
 
 /**
@@ -123,6 +126,12 @@ final class ReportsPanel extends JPanel implements ActionListener {
      */
     private final JTextField directory;
 
+    /**
+     * The number of threads to use for creating the objects listed in the reports.
+     * The default value is 1, since factories are not required to be thread-safe.
+     */
+    private final JSpinner threads;
+
     /**
      * The button for starting the HTML report generation.
      */
@@ -200,6 +209,20 @@ final class ReportsPanel extends JPanel implements ActionListener {
         c.gridy++; c.gridwidth=1; c.insets.left=0; add(label,     c);
         c.gridx++; c.weightx=1;   c.insets.left=6; add(directory, c);
         c.gridx++; c.weightx=0;                    add(browse,    c);
+        /*
+         * The number of threads. Factories are not required to be thread-safe,
+         * so parallel objects creation must be explicitly requested by the user.
+         */
+        threads = new JSpinner(new SpinnerNumberModel(
+                Math.max(1, Math.min(preferences.getInt(REPORTS_THREADS_KEY, 1), 64)), 1, 64, 1));
+        threads.setToolTipText("Number of threads for creating objects. "
+                + "Values greater than 1 require thread-safe factories.");
+        final JLabel threadsLabel = new JLabel("Threads:");
+        threadsLabel.setLabelFor(threads);
+        c.fill = GridBagConstraints.NONE;
+        c.anchor = GridBagConstraints.LINE_START;
+        c.gridy++; c.gridx=0; c.insets.left=0; add(threadsLabel, c);
+        c.gridx++;            c.insets.left=6; add(threads,      c);
         /*
          * The button starting the HTML reports generation.
          */
@@ -215,6 +238,8 @@ final class ReportsPanel extends JPanel implements ActionListener {
          */
         progressBar = new JProgressBar();
         progressBar.setBorder(BorderFactory.createLoweredBevelBorder());
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
         c.fill = GridBagConstraints.HORIZONTAL;
         c.insets.left = c.insets.right = 40;
         c.gridy++; add(progressBar, c);
@@ -235,6 +260,7 @@ final class ReportsPanel extends JPanel implements ActionListener {
      */
     final void setChoicesEnabled(final boolean enabled) {
         startButton.setEnabled(enabled);
+        threads.setEnabled(enabled);
         for (final JCheckBox choice : reportChoices) {
             choice.setEnabled(enabled);
         }
@@ -280,6 +306,9 @@ final class ReportsPanel extends JPanel implements ActionListener {
         properties.setProperty("PRODUCT.NAME",    manifest.vendor);
         properties.setProperty("PRODUCT.VERSION", manifest.version);
         properties.setProperty("PRODUCT.URL",     manifest.url);
+        final int parallelism = (Integer) threads.getValue();
+        preferences.putInt(REPORTS_THREADS_KEY, parallelism);
+        properties.setProperty("PARALLELISM",     Integer.toString(parallelism));
         final File directory = new File(this.directory.getText());
         final Controller[] controllers = Controller.values();
         int count = 0;
@@ -310,10 +339,19 @@ final class ReportsPanel extends JPanel implements ActionListener {
             /** Be informed about the progress. */
             @Override
             protected void progress(final int position, final int count) {
-                worker.progress(position, count);
+                worker.progress(position, count, Double.NaN, -1);
+            }
+
+            /** Be informed about the progress, with throughput and remaining time estimations. */
+            @Override
+            protected void progress(final int position, final int count,
+                                    final double throughput, final long remainingTime)
+            {
+                worker.progress(position, count, throughput, remainingTime);
             }
         };
         progressBar.setValue(0);
+        progressBar.setString("");
         setChoicesEnabled(false);
         worker.execute();
     }
@@ -342,6 +380,12 @@ final class ReportsPanel extends JPanel implements ActionListener {
          */
         private int progress;
 
+        /**
+         * The text to show in the progress bar, built from the throughput and remaining time
+         * given to the last call to {@link #progress(int, int, double, long)}.
+         */
+        private volatile String status;
+
         /**
          * Creates a new worker which will write reports in the given directory.
          */
@@ -364,11 +408,15 @@ final class ReportsPanel extends JPanel implements ActionListener {
 
         /**
          * Invoked in the background thread when the report generation made some progress.
+         *
+         * @param throughput     number of rows created per second, or {@link Double#NaN} if unknown.
+         * @param remainingTime  estimated remaining time in milliseconds, or -1 if unknown.
          */
-        final void progress(final int position, final int count) {
+        final void progress(final int position, final int count, final double throughput, final long remainingTime) {
             final int p = position * 100 / count;
             if (p != progress) {
                 progress = p;
+                status = status(throughput, remainingTime);
                 publish(p);
             }
         }
@@ -381,6 +429,7 @@ final class ReportsPanel extends JPanel implements ActionListener {
             final int size = chunks.size();
             if (size != 0) {
                 progressBar.setValue(chunks.get(size-1));
+                progressBar.setString(status);
             }
         }
 
@@ -395,6 +444,7 @@ final class ReportsPanel extends JPanel implements ActionListener {
             try {
                 get();
                 progressBar.setValue(100);              // Only if no exception.
+                progressBar.setString("");
             } catch (Exception exception) {
                 Runner.LOGGER.log(Level.WARNING, exception.toString(), exception);
                 JOptionPane.showMessageDialog(ReportsPanel.this, exception.toString(),
@@ -402,4 +452,29 @@ final class ReportsPanel extends JPanel implements ActionListener {
             }
         }
     }
+
+    /**
+     * Formats the throughput and remaining time for display in the progress bar.
+     *
+     * @param  throughput     number of rows created per second, or {@link Double#NaN} if unknown.
+     * @param  remainingTime  estimated remaining time in milliseconds, or -1 if unknown.
+     * @return the text to show, or an empty string if both values are unknown.
+     */
+    static String status(final double throughput, final long remainingTime) {
+        final StringBuilder buffer = new StringBuilder();
+        if (throughput >= 0 && throughput != Double.POSITIVE_INFINITY) {
+            buffer.append(String.format("%,.0f objects/s", throughput));
+        }
+        if (remainingTime >= 0) {
+            if (buffer.length() != 0) {
+                buffer.append(" \u2014 ");
+            }
+            final long seconds = (remainingTime + 500) / 1000;
+            if (seconds >= 60) {
+                buffer.append(seconds / 60).append(" min ");
+            }
+            buffer.append(seconds % 60).append(" s remaining");
+        }
+        return buffer.toString();
+    }
 }
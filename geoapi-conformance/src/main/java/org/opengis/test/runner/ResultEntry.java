@@ -47,6 +47,7 @@ import org.junit.runner.Description;
 
 import org.opengis.util.Factory;
 import org.opengis.test.TestEvent;
+import org.opengis.test.FactoryCall;
 import org.opengis.test.Configuration;
 import org.opengis.referencing.AuthorityFactory;
 import org.opengis.metadata.Identifier;
@@ -58,7 +59,7 @@ import org.opengis.metadata.citation.Citation;
  * some information about the configuration and the stack trace if an error occurred.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 final class ResultEntry {
@@ -137,6 +138,16 @@ final class ResultEntry {
      */
     final Throwable exception;
 
+    /**
+     * The wall-clock time and CPU time of the test execution in nanoseconds, or -1 if unknown.
+     */
+    final long elapsedTime, cpuTime;
+
+    /**
+     * Statistics about the calls to factory methods during the test execution.
+     */
+    final List<FactoryCall> factoryCalls;
+
     /**
      * An estimation of the test coverage, as a floating point value between 0 and 1.
      */
@@ -157,6 +168,9 @@ final class ResultEntry {
         this.simpleMethodName = createSimpleMethodName(methodName);
         this.status           = status;
         this.exception        = exception;
+        this.elapsedTime      = event.getElapsedTime();
+        this.cpuTime          = event.getCpuTime();
+        this.factoryCalls     = event.getFactoryCalls();
         trimStackTrace(exception);
         /*
          * Extract information from the configuration:
@@ -171,7 +185,10 @@ final class ResultEntry {
             final Configuration.Key<?> key = entry.getKey();
             final String   name  = key.name();
             final Class<?> type  = key.valueType();
-            final Object   value = entry.getValue();
+            Object value = entry.getValue();
+            if (value instanceof Factory) {
+                value = FactoryCall.unwrap((Factory) value);
+            }
             /*
              * Note: we assume that a test with every optional features marked as "unsupported"
              * ({@code isFooSupported = false}) still do some test, so we unconditionally start
@@ -230,6 +247,9 @@ final class ResultEntry {
         this.simpleMethodName = createSimpleMethodName(methodName);
         this.status           = status;
         this.exception        = exception;
+        this.elapsedTime      = -1;
+        this.cpuTime          = -1;
+        this.factoryCalls     = Collections.emptyList();
         this.factories        = Collections.emptyList();
         this.configuration    = Collections.emptyList();
         trimStackTrace(exception);
@@ -345,6 +365,17 @@ final class ResultEntry {
         }
     }
 
+    /**
+     * Returns the total number of calls to factory {@code create…} methods during the test execution.
+     */
+    int getFactoryCallCount() {
+        int count = 0;
+        for (final FactoryCall call : factoryCalls) {
+            count += call.getCount();
+        }
+        return count;
+    }
+
     /**
      * Returns the URL to the javadoc of the test method. Users can follow this URL in
      * order to have more details about the test data or procedure.
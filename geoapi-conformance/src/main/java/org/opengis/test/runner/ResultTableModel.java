@@ -41,7 +41,7 @@ import javax.swing.table.AbstractTableModel;
  * The table model for the {@link ResultEntry} instances to be displayed.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 @SuppressWarnings("serial")
@@ -52,17 +52,21 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
     static final int CLASS_COLUMN   = 0,
                      METHOD_COLUMN  = 1,
                      RESULT_COLUMN  = 2,
-                     MESSAGE_COLUMN = 3;
+                     TIME_COLUMN    = 3,
+                     CALLS_COLUMN   = 4,
+                     MESSAGE_COLUMN = 5;
 
     /**
      * The titles of all columns.
      */
     private static final String[] COLUMN_TITLES;
     static {
-        COLUMN_TITLES = new String[4];
+        COLUMN_TITLES = new String[6];
         COLUMN_TITLES[CLASS_COLUMN]   = "Class";
         COLUMN_TITLES[METHOD_COLUMN]  = "Method";
         COLUMN_TITLES[RESULT_COLUMN]  = "Result";
+        COLUMN_TITLES[TIME_COLUMN]    = "Time (ms)";
+        COLUMN_TITLES[CALLS_COLUMN]   = "Factory calls";
         COLUMN_TITLES[MESSAGE_COLUMN] = "Message";
     };
 
@@ -139,6 +143,13 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
                 case FAILURE: return "failure";
                 default:      return null;
             }
+            case TIME_COLUMN: {
+                return (entry.elapsedTime >= 0) ? String.format("%.1f", entry.elapsedTime / 1E6) : null;
+            }
+            case CALLS_COLUMN: {
+                final int count = entry.getFactoryCallCount();
+                return (count != 0) ? String.valueOf(count) : null;
+            }
             case MESSAGE_COLUMN: {
                 if (entry.status != ResultEntry.Status.ASSUMPTION_NOT_MET) {
                     final Throwable exception = entry.exception;
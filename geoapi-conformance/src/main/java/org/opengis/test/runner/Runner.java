@@ -32,8 +32,17 @@
 package org.opengis.test.runner;
 
 import java.util.Set;
+import java.util.List;
 import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,10 +55,14 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
 import org.junit.runner.Result;
+import org.junit.runner.Request;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Description;
+import org.junit.runner.RunWith;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
+import org.junit.runners.Suite;
+import org.junit.runners.Parameterized;
 
 import org.opengis.test.TestSuite;
 import org.opengis.test.TestEvent;
@@ -62,8 +75,24 @@ import static org.opengis.test.runner.ResultEntry.Status.*;
  * Provides methods for running the tests. This class does not depend on Swing widgets
  * or on console program.
  *
+ * <h2>Parallel execution</h2>
+ * By default all tests are run sequentially in the thread invoking {@link #run()}.
+ * If a parallelism greater than 1 is specified, then the tests are split in <cite>shards</cite>:
+ * one shard for each combination of test class and factories returned by the
+ * {@link org.junit.runners.Parameterized.Parameters} method of that class.
+ * The shards are executed concurrently by a fixed pool of worker threads,
+ * but the test methods of a single shard are still executed sequentially in declaration order.
+ * The results of each shard are buffered and published only after all previous shards (in the
+ * order declared by the test suite) have been published, so the final list of entries is the
+ * same than the one produced by a sequential execution.
+ *
+ * <p>All JUnit runners (and consequently all factory combinations) are created in the thread
+ * invoking {@link #run()} before any worker starts. Consequently a test modifying the factories
+ * (for example by invoking {@link TestSuite#setFactories TestSuite.setFactories(…)}) while running
+ * can not change the factories used by the other shards.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 final class Runner extends RunListener implements TestListener {
@@ -77,6 +106,20 @@ final class Runner extends RunListener implements TestListener {
      */
     static final String LINE_SEPARATOR = System.getProperty("line.separator", "\n");
 
+    /**
+     * The system property for specifying the number of threads to use for running the tests.
+     * If this property is not set, then the tests are run sequentially.
+     */
+    static final String PARALLELISM_KEY = "org.opengis.test.runner.threads";
+
+    /**
+     * The system property for enabling the {@linkplain TestSuite#setInstrumentationEnabled instrumentation}
+     * of factories. If this property is not set to {@code true}, then the factories are used directly.
+     * Instrumentation is disabled by default because it wraps the factories in proxies, which breaks the
+     * implementations and tests that cast factories to their implementation classes.
+     */
+    static final String INSTRUMENTATION_KEY = "org.opengis.test.runner.instrumentation";
+
     /**
      * The result of each tests. All a access to this list must be synchronized.
      */
@@ -95,18 +138,135 @@ final class Runner extends RunListener implements TestListener {
     private final ChangeEvent event;
 
     /**
-     * Creates a new, initially empty, runner.
+     * Maximal number of threads to use for running the tests.
+     * A value of 1 means that all tests are run sequentially in the thread invoking {@link #run()}.
+     */
+    private final int parallelism;
+
+    /**
+     * Whether to instrument factories during the execution in order to report statistics about factory calls.
+     */
+    private final boolean instrumented;
+
+    /**
+     * The shard executed by the current thread, or {@code null} if the tests are run sequentially.
+     * Entries created in a worker thread are buffered in that shard until they can be published.
+     */
+    private final ThreadLocal<Shard> currentShard;
+
+    /**
+     * The shards of the parallel execution in progress, in the order in which their results shall be published.
+     * Elements before {@link #nextShard} have already been published. All accesses to those fields must be
+     * synchronized on {@link #entries}.
+     */
+    private Shard[] shards;
+
+    /**
+     * Index of the first shard in the {@link #shards} array which has not yet been published.
+     */
+    private int nextShard;
+
+    /**
+     * Creates a new, initially empty, runner. The parallelism is fetched from the
+     * {@value #PARALLELISM_KEY} system property, or 1 if that property is not set.
+     * Instrumentation is enabled only if the {@value #INSTRUMENTATION_KEY} system
+     * property is set to {@code true}.
      */
     Runner() {
-        entries   = new LinkedHashSet<>();
-        listeners = new ChangeListener[0];
-        event     = new ChangeEvent(this);
+        this(Integer.getInteger(PARALLELISM_KEY, 1), Boolean.getBoolean(INSTRUMENTATION_KEY));
+    }
+
+    /**
+     * Creates a new, initially empty, runner using the given number of threads.
+     * Factories are not instrumented.
+     *
+     * @param parallelism  maximal number of threads to use for running the tests.
+     */
+    Runner(final int parallelism) {
+        this(parallelism, false);
+    }
+
+    /**
+     * Creates a new, initially empty, runner using the given number of threads.
+     *
+     * @param parallelism   maximal number of threads to use for running the tests.
+     * @param instrumented  whether to instrument factories for reporting statistics about factory calls.
+     */
+    Runner(final int parallelism, final boolean instrumented) {
+        entries      = new LinkedHashSet<>();
+        listeners    = new ChangeListener[0];
+        event        = new ChangeEvent(this);
+        currentShard = new ThreadLocal<>();
+        this.parallelism  = Math.max(1, parallelism);
+        this.instrumented = instrumented;
+    }
+
+    /**
+     * A subset of the test suite to be executed by a single thread. A shard contains all test methods
+     * of a single test class for a single combination of factories. Entries are buffered in a shard
+     * until all previous shards have been published, in order to produce deterministic results.
+     */
+    private static final class Shard {
+        /**
+         * The JUnit runner for the tests of this shard, wrapped in a request.
+         * The runner is created in advance in the thread which is planning the execution.
+         */
+        final Request request;
+
+        /**
+         * The entries created by the tests of this shard, in execution order.
+         * This set is modified only by the thread executing this shard.
+         */
+        final Set<ResultEntry> entries;
+
+        /**
+         * Whether all tests of this shard have been executed.
+         * Accesses to this field must be synchronized on {@link Runner#entries}.
+         */
+        boolean done;
+
+        /**
+         * Creates a new shard for the given request.
+         *
+         * @param request  the request for the tests of this shard.
+         */
+        Shard(final Request request) {
+            this.request = Request.runner(request.getRunner());
+            this.entries = new LinkedHashSet<>();
+        }
+    }
+
+    /**
+     * The runner of a parameterized test class, giving access to the runners for each combination of factories.
+     * The factories are searched only once, when this runner is created. Each child runner executes the tests
+     * of a single combination of factories and can be run independently of the other children.
+     */
+    private static final class ParameterizedShards extends Parameterized {
+        /**
+         * Creates a new runner for the given parameterized test class.
+         *
+         * @param  type  the test class annotated with {@code @RunWith(Parameterized.class)}.
+         * @throws Throwable if the parameters can not be created.
+         */
+        ParameterizedShards(final Class<?> type) throws Throwable {
+            super(type);
+        }
+
+        /**
+         * Returns the runners for each combination of factories.
+         *
+         * @return the runners of the tests for each combination of factories.
+         */
+        List<org.junit.runner.Runner> runners() {
+            return getChildren();
+        }
     }
 
     /**
      * Sets the class loader to use for running the tests.
      *
      * @param files  the JAR files that contain the implementation to test.
+     * @throws MalformedURLException if a file can not be converted to a URL.
      */
     static void setClassLoader(final File... files) throws MalformedURLException {
         final URL[] urls = new URL[files.length];
@@ -117,18 +277,57 @@ final class Runner extends RunListener implements TestListener {
     }
 
     /**
-     * Runs the JUnit tests.
+     * Runs the JUnit tests, either sequentially or in parallel depending on the
+     * parallelism specified at construction time.
      */
     void run() {
-        final JUnitCore junit = new JUnitCore();
-        junit.addListener(this);
-        final Result result;
+        run(TestSuite.class);
+    }
+
+    /**
+     * Runs the JUnit tests declared in the given suite. The given class shall be annotated by
+     * {@link Suite.SuiteClasses} if the tests are to be run in parallel. If this runner has been
+     * created with instrumentation enabled, then factories are {@linkplain TestSuite#setInstrumentationEnabled
+     * instrumented} during the execution in order to report statistics about factory calls.
+     *
+     * @param suite  the class of the test suite to run.
+     */
+    void run(final Class<?> suite) {
+        final boolean wasInstrumented = TestSuite.isInstrumentationEnabled();
         try {
+            if (instrumented) {
+                TestSuite.setInstrumentationEnabled(true);
+            }
             TestSuite.addTestListener(this);
-            result = junit.run(TestSuite.class);
+            if (parallelism <= 1) {
+                report(run(Request.aClass(suite)));
+            } else {
+                runInParallel(suite);
+            }
         } finally {
             TestSuite.removeTestListener(this);
+            TestSuite.setInstrumentationEnabled(wasInstrumented);
         }
+    }
+
+    /**
+     * Runs the given request in the current thread.
+     *
+     * @param  request  the tests to run.
+     * @return the result of the tests execution.
+     */
+    private Result run(final Request request) {
+        final JUnitCore junit = new JUnitCore();
+        junit.addListener(this);
+        return junit.run(request);
+    }
+
+    /**
+     * Logs the error that occurred very soon in the initialization process, if any.
+     *
+     * @param result  the result of the tests execution.
+     */
+    private static void report(final Result result) {
         if (result.getRunCount() == 1 && result.getFailureCount() == 1) {
             final Throwable exception = result.getFailures().get(0).getException();
             LOGGER.log(Level.WARNING, exception.toString(), exception);
@@ -138,9 +337,124 @@ final class Runner extends RunListener implements TestListener {
         }
     }
 
+    /**
+     * Splits the test suite in shards and executes them on a pool of worker threads.
+     * This method blocks until all shards have been executed.
+     *
+     * @param suite  the test suite to execute.
+     */
+    private void runInParallel(final Class<?> suite) {
+        final Shard[] plan = plan(suite);
+        synchronized (entries) {
+            shards    = plan;
+            nextShard = 0;
+        }
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, plan.length),
+                new ThreadFactory() {
+                    @Override public Thread newThread(final Runnable task) {
+                        final Thread thread = new Thread(task, "GeoAPI conformance tests #" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        try {
+            final List<Future<Result>> results = new ArrayList<>(plan.length);
+            for (final Shard shard : plan) {
+                results.add(executor.submit(() -> {
+                    currentShard.set(shard);
+                    try {
+                        return run(shard.request);
+                    } finally {
+                        currentShard.remove();
+                        publish(shard);
+                    }
+                }));
+            }
+            for (final Future<Result> result : results) {
+                report(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(Level.WARNING, "Interrupted while waiting for the tests to finish.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            LOGGER.log(Level.WARNING, cause.toString(), cause);
+        } finally {
+            executor.shutdownNow();
+            synchronized (entries) {
+                shards = null;
+            }
+        }
+    }
+
+    /**
+     * Creates the shards for all test classes declared in the given suite. A parameterized test class
+     * is split in one shard for each combination of factories. All JUnit runners are created by this method,
+     * which means that factories are searched in the current thread before any worker thread starts.
+     * The runner of each test class is created only once, so factories are searched only once per class.
+     *
+     * @param  suite  the test suite for which to create shards.
+     * @return the shards for all test classes of the given suite, in declaration order.
+     */
+    private static Shard[] plan(final Class<?> suite) {
+        final List<Shard> plan = new ArrayList<>();
+        for (final Class<?> type : suite.getAnnotation(Suite.SuiteClasses.class).value()) {
+            final RunWith runWith = type.getAnnotation(RunWith.class);
+            if (runWith != null && runWith.value() == Parameterized.class) {
+                List<org.junit.runner.Runner> children;
+                try {
+                    final ParameterizedShards runner = new ParameterizedShards(type);
+                    children = runner.runners();
+                    if (children.isEmpty()) {
+                        children = Collections.singletonList(runner);
+                    }
+                } catch (Throwable e) {
+                    children = Collections.singletonList(Request.errorReport(type, e).getRunner());
+                }
+                for (final org.junit.runner.Runner child : children) {
+                    plan.add(new Shard(Request.runner(child)));
+                }
+            } else {
+                plan.add(new Shard(Request.aClass(type)));
+            }
+        }
+        return plan.toArray(new Shard[plan.size()]);
+    }
+
+    /**
+     * Declares the given shard as completed, then publishes the entries of all completed shards
+     * which are not preceded by an incomplete shard. This method may be invoked from any thread.
+     *
+     * @param shard  the shard which has been completed.
+     */
+    private void publish(final Shard shard) {
+        final ChangeListener[] list;
+        synchronized (entries) {
+            shard.done = true;
+            final Shard[] plan = shards;
+            if (plan == null) {
+                return;
+            }
+            final int lower = nextShard;
+            while (nextShard < plan.length && plan[nextShard].done) {
+                entries.addAll(plan[nextShard++].entries);
+            }
+            if (nextShard == lower) {
+                return;
+            }
+            list = listeners;
+        }
+        for (final ChangeListener listener : list) {
+            listener.stateChanged(event);
+        }
+    }
+
     /**
      * Returns all entries. This method returns a copy of the internal array.
      * Changes to this {@code ReportData} object will not be reflected in that array.
+     *
+     * @return a copy of all entries.
      */
     ResultEntry[] getEntries() {
         synchronized (entries) {
@@ -153,8 +467,18 @@ final class Runner extends RunListener implements TestListener {
      * silently discards the new entry. We do that because test failure cause two
      * entries to be emitted: first an entry for the test failure, then another
      * entry because the test finished.
+     *
+     * <p>If this method is invoked from a worker thread of a parallel execution,
+     * then the entry is buffered until its shard can be {@linkplain #publish published}.</p>
+     *
+     * @param entry  the entry to add.
      */
     private void addEntry(final ResultEntry entry) {
+        final Shard shard = currentShard.get();
+        if (shard != null) {
+            shard.entries.add(entry);
+            return;
+        }
         final ChangeListener[] list;
         synchronized (entries) {
             entries.add(entry);
@@ -226,6 +550,8 @@ final class Runner extends RunListener implements TestListener {
      *
      * <p>Note that the listeners given to this method will <strong>not</strong> be notified from the
      * Swing thread. It is listener responsibility to be safe regarding the Swing events queue.</p>
+     *
+     * @param listener  the listener to add.
      */
     void addChangeListener(final ChangeListener listener) {
         synchronized (entries) {
@@ -0,0 +1,226 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.wkt;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.opengis.util.FactoryException;
+import org.opengis.referencing.crs.CRSFactory;
+
+
+/**
+ * Measures the throughput of {@link CRSFactory#createFromWKT(String)} in number of WKT strings parsed per second.
+ * This harness is a companion to {@link CRSParserTest}: the test verifies that the parsed objects have the
+ * expected values, while this class measures the time spent in parsing a corpus of WKT strings.
+ * The default corpus contains WKT 1 and WKT 2 definitions of geographic, geocentric, projected, vertical
+ * and compound CRS from the EPSG geodetic dataset, with many definitions sharing the same datum or base CRS.
+ * Implementers can publish those numbers next to the conformance test results.
+ *
+ * <p>Parsers which cache the objects created from previously parsed strings will be faster after the first
+ * pass over the corpus. Implementers who want to measure the parsing without cache can create a new factory
+ * for each measurement and measure a single pass.</p>
+ *
+ * <p>Example:</p>
+ * <blockquote><pre>CRSParserBenchmark benchmark = new CRSParserBenchmark(factory, CRSParserBenchmark.getDefaultCorpus());
+ *benchmark.measure(1);                          // Warm-up.
+ *System.out.println(benchmark.measure(100));</pre></blockquote>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class CRSParserBenchmark {
+    /**
+     * The result of a measurement.
+     */
+    public static final class Result {
+        /** Number of WKT strings parsed. */
+        private final long numTexts;
+
+        /** Total number of characters in the WKT strings parsed. */
+        private final long numCharacters;
+
+        /** Elapsed time in nanoseconds. */
+        private final long elapsedTime;
+
+        /** Creates a new result. */
+        Result(final long numTexts, final long numCharacters, final long elapsedTime) {
+            this.numTexts      = numTexts;
+            this.numCharacters = numCharacters;
+            this.elapsedTime   = elapsedTime;
+        }
+
+        /**
+         * Returns the number of WKT strings parsed.
+         *
+         * @return number of WKT strings parsed.
+         */
+        public long getNumTexts() {
+            return numTexts;
+        }
+
+        /**
+         * Returns the total number of characters in the WKT strings parsed.
+         *
+         * @return total number of characters parsed.
+         */
+        public long getNumCharacters() {
+            return numCharacters;
+        }
+
+        /**
+         * Returns the elapsed time in nanoseconds.
+         *
+         * @return elapsed time in nanoseconds.
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Returns the throughput in number of WKT strings parsed per second.
+         *
+         * @return number of WKT strings parsed per second.
+         */
+        public double getTextsPerSecond() {
+            return numTexts * 1E9 / Math.max(elapsedTime, 1);
+        }
+
+        /**
+         * Returns the throughput in number of characters parsed per second.
+         *
+         * @return number of characters parsed per second.
+         */
+        public double getCharactersPerSecond() {
+            return numCharacters * 1E9 / Math.max(elapsedTime, 1);
+        }
+
+        /**
+         * Returns a single-line representation of this result, suitable for reports.
+         *
+         * @return a string representation of this result.
+         */
+        @Override
+        public String toString() {
+            return String.format("texts=%-10d %,.0f texts/s %,.0f characters/s",
+                    numTexts, getTextsPerSecond(), getCharactersPerSecond());
+        }
+    }
+
+    /**
+     * The factory to measure.
+     */
+    private final CRSFactory factory;
+
+    /**
+     * The WKT strings to parse.
+     */
+    private final String[] corpus;
+
+    /**
+     * Creates a new benchmark for the given factory and corpus.
+     *
+     * @param factory  the factory to measure.
+     * @param corpus   the WKT strings to parse, for example {@link #getDefaultCorpus()}.
+     */
+    public CRSParserBenchmark(final CRSFactory factory, final Collection<String> corpus) {
+        if (corpus.isEmpty()) {
+            throw new IllegalArgumentException("The corpus shall contain at least one WKT string.");
+        }
+        this.factory = factory;
+        this.corpus  = corpus.toArray(new String[corpus.size()]);
+    }
+
+    /**
+     * Returns the default corpus of WKT strings. This corpus is read from the {@code EPSG.txt} resource file
+     * in this package, which contains one WKT string per line. Empty lines and lines starting with {@code #}
+     * are ignored.
+     *
+     * @return WKT strings of CRS from the EPSG geodetic dataset.
+     * @throws UncheckedIOException if the resource file can not be read.
+     */
+    public static List<String> getDefaultCorpus() {
+        final List<String> corpus = new ArrayList<>();
+        try (InputStream in = CRSParserBenchmark.class.getResourceAsStream("EPSG.txt")) {
+            if (in == null) {
+                throw new IOException("Missing EPSG.txt resource file.");
+            }
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    corpus.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Collections.unmodifiableList(corpus);
+    }
+
+    /**
+     * Parses all WKT strings of the corpus the given number of times and measures the elapsed time.
+     *
+     * @param  numPasses  number of times to parse the whole corpus.
+     * @return the measurement result.
+     * @throws FactoryException if an error occurred while parsing a WKT string.
+     */
+    public Result measure(final int numPasses) throws FactoryException {
+        if (numPasses <= 0) {
+            throw new IllegalArgumentException("The number of passes shall be positive.");
+        }
+        long numCharacters = 0;
+        for (final String wkt : corpus) {
+            numCharacters += wkt.length();
+        }
+        final long startTime = System.nanoTime();
+        for (int pass=0; pass<numPasses; pass++) {
+            for (final String wkt : corpus) {
+                if (factory.createFromWKT(wkt) == null) {
+                    throw new FactoryException("CRSFactory.createFromWKT(String) returned null.");
+                }
+            }
+        }
+        final long elapsedTime = System.nanoTime() - startTime;
+        return new Result(numPasses * (long) corpus.length, numPasses * numCharacters, elapsedTime);
+    }
+}
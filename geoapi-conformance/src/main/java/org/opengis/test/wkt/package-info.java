@@ -50,6 +50,9 @@
  *   </tr>
  * </table>
  *
+ * <p>{@link org.opengis.test.wkt.CRSParserBenchmark} measures the throughput of the same parsing method
+ * on a corpus of WKT strings from the EPSG geodetic dataset.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 3.1
  * @since   3.1
@@ -55,6 +55,7 @@
 module org.opengis.geoapi.conformance {
     requires java.prefs;
     requires java.logging;
+    requires java.management;
     requires transitive java.measure;
     requires transitive org.opengis.geoapi.pending;
     requires junit;
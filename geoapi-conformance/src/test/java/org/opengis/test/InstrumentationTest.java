@@ -0,0 +1,135 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.Collections;
+import org.opengis.util.*;
+import org.opengis.metadata.citation.Citation;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.AuthorityFactory;
+
+import org.junit.Test;
+import org.junit.After;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link Instrumentation} and {@link FactoryCall}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class InstrumentationTest {
+    /**
+     * Disables instrumentation and removes all factories registered in {@link TestSuite}.
+     */
+    @After
+    public void clear() {
+        TestSuite.setInstrumentationEnabled(false);
+        TestSuite.clear();
+    }
+
+    /**
+     * Tests the wrapping of factories returned by {@link TestCase#factories(Class[])}
+     * and the statistics collected on calls to {@code create…} methods.
+     *
+     * @throws FactoryException should never happen.
+     */
+    @Test
+    public void testFactoryCalls() throws FactoryException {
+        final Dummy factory = new Dummy();
+        TestSuite.setFactories(AuthorityFactory.class, factory);
+        TestSuite.setInstrumentationEnabled(true);
+        final List<Factory[]> factories = TestCase.factories(AuthorityFactory.class);
+        assertEquals(1, factories.size());
+        final AuthorityFactory proxy = (AuthorityFactory) factories.get(0)[0];
+        assertNotSame("Expected a proxy.", factory, proxy);
+        assertSame(factory, FactoryCall.unwrap(proxy));
+        assertEquals("Dummy", proxy.toString());
+
+        Instrumentation.start();
+        proxy.createObject("4326");
+        proxy.createObject("4326");
+        proxy.createObject("3395");
+        proxy.getVendor();
+        final List<FactoryCall> calls = Instrumentation.stop();
+        assertEquals("Expected one entry per code.", 2, calls.size());
+        assertEquals("4326", calls.get(0).getCode());
+        assertEquals("3395", calls.get(1).getCode());
+        assertEquals(2, calls.get(0).getCount());
+        assertEquals(1, calls.get(1).getCount());
+        for (final FactoryCall call : calls) {
+            assertSame(factory, call.getFactory());
+            assertEquals("createObject", call.getMethodName());
+            assertTrue(call.getMaximalTime() <= call.getTotalTime());
+        }
+        /*
+         * Calls outside a test shall not be recorded.
+         */
+        proxy.createObject("4326");
+        assertTrue(Instrumentation.stop().isEmpty());
+    }
+
+    /**
+     * Verifies that factories are not wrapped when instrumentation is disabled.
+     */
+    @Test
+    public void testDisabled() {
+        final Dummy factory = new Dummy();
+        TestSuite.setFactories(AuthorityFactory.class, factory);
+        assertSame(factory, TestCase.factories(AuthorityFactory.class).get(0)[0]);
+    }
+
+    /**
+     * A dummy authority factory for testing purpose.
+     */
+    private static final class Dummy implements AuthorityFactory {
+        @Override public Citation getVendor()    {return null;}
+        @Override public Citation getAuthority() {return null;}
+        @Override public String   toString()     {return "Dummy";}
+
+        @Override public Set<String> getAuthorityCodes(Class<? extends IdentifiedObject> type) {
+            return Collections.emptySet();
+        }
+
+        @Override public InternationalString getDescriptionText(String code) {
+            return null;
+        }
+
+        @Override public IdentifiedObject createObject(String code) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2008-2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.referencing;
+
+import org.opengis.util.FactoryException;
+import org.opengis.referencing.operation.TransformException;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link ConcurrentTransformTest} using {@link AffineTransform2D} as the shared transform.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+@RunWith(JUnit4.class)
+public strictfp class ConcurrentTransformCaseTest extends ConcurrentTransformTest {
+    /**
+     * Creates a new test case without factory.
+     */
+    public ConcurrentTransformCaseTest() {
+        super(null);
+    }
+
+    /**
+     * Initializes {@link #transform} to an affine transform.
+     */
+    @Before
+    public void initialize() {
+        final AffineTransform2D tr = new AffineTransform2D();
+        tr.rotate(0.25);
+        tr.translate(100, 200);
+        transform = tr;
+        numThreads = 4;
+        numIterations = 20;
+    }
+
+    /**
+     * Tests the affine transform, then verifies that the scaling efficiencies have been measured.
+     *
+     * @throws FactoryException should never happen since the transform is already created.
+     * @throws TransformException if a point can not be transformed.
+     */
+    @Test
+    @Override
+    public void testAffineTransform() throws FactoryException, TransformException {
+        super.testAffineTransform();
+        assertFalse(Double.isNaN(transformScalingEfficiency));
+        assertFalse(Double.isNaN(inverseScalingEfficiency));
+    }
+
+    /**
+     * Tests a transform which modifies a shared buffer, which should be detected as a concurrency error.
+     *
+     * @throws FactoryException should never happen since the transform is already created.
+     * @throws TransformException if a point can not be transformed.
+     */
+    @Test(expected = AssertionError.class)
+    public void testNonThreadSafeTransform() throws FactoryException, TransformException {
+        final double[] buffer = new double[2];
+        transform = new AffineTransform2D() {
+            @Override public void transform(double[] src, int srcOff, double[] dst, int dstOff, int numPts) {
+                while (--numPts >= 0) {
+                    buffer[0] = src[srcOff++];
+                    buffer[1] = src[srcOff++];
+                    Thread.yield();
+                    dst[dstOff++] = buffer[0] * 2;
+                    dst[dstOff++] = buffer[1] * 2;
+                }
+            }
+        };
+        numIterations = 200;
+        super.testAffineTransform();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2008-2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.referencing;
+
+import java.util.List;
+import java.util.Random;
+import org.opengis.referencing.operation.TransformException;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link TransformBenchmark} using {@link AffineTransform2D}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class TransformBenchmarkTest {
+    /**
+     * Creates the benchmark to test.
+     */
+    private static TransformBenchmark create() {
+        final AffineTransform2D transform = new AffineTransform2D();
+        transform.rotate(0.5);
+        transform.scale(2, 3);
+        final TransformBenchmark benchmark = new TransformBenchmark(transform,
+                new double[] {-180, -90}, new double[] {180, 90}, new Random(8394));
+        benchmark.setChunkSize(1000);
+        return benchmark;
+    }
+
+    /**
+     * Tests {@link TransformBenchmark#measureAll(long, int)} with many threads.
+     *
+     * @throws TransformException if an error occurred while transforming the points.
+     */
+    @Test
+    public void testMeasureAll() throws TransformException {
+        final List<TransformBenchmark.Result> results = create().measureAll(10007, 3);
+        assertEquals("Expected 4 signatures with separated arrays and 2 in-place.", 6, results.size());
+        for (final TransformBenchmark.Result result : results) {
+            assertEquals(10007, result.getNumPoints());
+            assertEquals(3, result.getNumThreads());
+            assertTrue(result.getElapsedTime() > 0);
+            assertTrue(result.getPointsPerSecond() > 0);
+            assertNotNull(result.toString());
+        }
+    }
+
+    /**
+     * Verifies that in-place measurement is rejected for signatures that do not support it.
+     *
+     * @throws TransformException if an error occurred while transforming the points.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInPlaceRejected() throws TransformException {
+        create().measure(TransformBenchmark.Signature.DOUBLE_TO_FLOAT, 1000, true, 1);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2011-2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Random;
+import org.opengis.util.FactoryException;
+import org.opengis.referencing.AuthorityFactory;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link AuthorityCodesReport}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class AuthorityCodesReportTest {
+    /**
+     * Creates a dummy authority factory. The {@code createObject(String)} method returns {@code null}
+     * for most codes, except for codes that are multiple of 7 for which an exception is thrown.
+     */
+    private static AuthorityFactory createFactory() {
+        return (AuthorityFactory) Proxy.newProxyInstance(AuthorityFactory.class.getClassLoader(),
+                new Class<?>[] {AuthorityFactory.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("createObject")) {
+                        final String code = (String) args[0];
+                        if (Integer.parseInt(code.substring(code.indexOf(':') + 1)) % 7 == 0) {
+                            throw new FactoryException("No object for " + code);
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Generates a report for the given codes using the given properties, and returns the HTML content.
+     */
+    private static String generate(final List<String> codes, final Properties properties, final File directory)
+            throws IOException, FactoryException
+    {
+        properties.setProperty("FACTORY.NAME",    "Dummy");
+        properties.setProperty("FACTORY.VERSION", "1.0");
+        properties.setProperty("PRODUCT.NAME",    "Test");
+        properties.setProperty("PRODUCT.VERSION", "1.0");
+        properties.setProperty("PRODUCT.URL",     "http://www.geoapi.org");
+        final AuthorityCodesReport report = new AuthorityCodesReport(properties);
+        report.add(createFactory(), codes);
+        final File file = report.write(directory);
+        return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+    }
+
+    /**
+     * Verifies that creating the objects in parallel and saving rows in temporary files
+     * produces the same report than the default sequential execution.
+     *
+     * @throws IOException if an error occurred while writing the report.
+     * @throws FactoryException if an error occurred while creating the rows.
+     */
+    @Test
+    public void testParallelAndSavedRows() throws IOException, FactoryException {
+        final List<String> codes = new ArrayList<>();
+        for (int i=1; i<=500; i++) {
+            codes.add("TEST:" + i);
+        }
+        Collections.shuffle(codes, new Random(8465));
+        final File directory = Files.createTempDirectory("AuthorityCodes").toFile();
+        try {
+            final String expected = generate(codes, new Properties(), directory);
+            assertTrue(expected.contains("TEST:500"));
+            final Properties properties = new Properties();
+            properties.setProperty("PARALLELISM", "4");
+            properties.setProperty("ROWS.IN.MEMORY", "64");
+            assertEquals(expected, generate(codes, properties, directory));
+        } finally {
+            for (final File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.runner;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opengis.util.Factory;
+import org.opengis.metadata.citation.Citation;
+import org.opengis.test.TestCase;
+import org.opengis.test.TestSuite;
+
+import org.junit.Test;
+import org.junit.Ignore;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Parameterized;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+
+/**
+ * Tests {@link Runner}, in particular the consistency between sequential and parallel executions.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class RunnerTest {
+    /**
+     * A suite of dummy tests to be run by {@link Runner}.
+     */
+    @RunWith(Suite.class)
+    @Suite.SuiteClasses({Sample.class, OtherSample.class})
+    public static final class SampleSuite {
+    }
+
+    /**
+     * A dummy parameterized test producing all kinds of test status.
+     * Each test is executed twice, once for each factory.
+     */
+    @RunWith(Parameterized.class)
+    public static class Sample extends TestCase {
+        /**
+         * Whether the last execution of {@link #testSuccess()} saw instrumentation enabled.
+         */
+        static volatile boolean instrumented;
+
+        /**
+         * Number of invocations of {@link #factories()}, for verifying that factories are searched once per class.
+         */
+        static final AtomicInteger searches = new AtomicInteger();
+
+        /**
+         * Returns two dummy factories, for splitting this test class in two shards.
+         *
+         * @return the dummy factories.
+         */
+        @Parameterized.Parameters
+        public static List<Factory[]> factories() {
+            searches.incrementAndGet();
+            return Arrays.asList(new Factory[] {new DummyFactory()},
+                                 new Factory[] {new DummyFactory()});
+        }
+
+        /**
+         * Creates a new test case for the given factory.
+         *
+         * @param factory  a dummy factory.
+         */
+        public Sample(final Factory factory) {
+            super(factory);
+        }
+
+        /**
+         * A test which succeed after a random delay, for shuffling the execution order of shards.
+         *
+         * @throws InterruptedException if the thread has been interrupted while sleeping.
+         */
+        @Test
+        public void testSuccess() throws InterruptedException {
+            instrumented = TestSuite.isInstrumentationEnabled();
+            Thread.sleep((long) (Math.random() * 20));
+        }
+
+        /**
+         * A test which fails.
+         */
+        @Test
+        public void testFailure() {
+            fail("Expected failure.");
+        }
+
+        /**
+         * A test which is not executed because of an unmet assumption.
+         */
+        @Test
+        public void testAssumption() {
+            assumeTrue(false);
+        }
+
+        /**
+         * A test which is ignored.
+         */
+        @Test
+        @Ignore
+        public void testIgnored() {
+        }
+    }
+
+    /**
+     * Another dummy test class, for having more than one class in the suite.
+     */
+    public static final class OtherSample extends Sample {
+        /**
+         * Creates a new test case for the given factory.
+         *
+         * @param factory  a dummy factory.
+         */
+        public OtherSample(final Factory factory) {
+            super(factory);
+        }
+    }
+
+    /**
+     * A dummy factory for testing purpose.
+     */
+    private static final class DummyFactory implements Factory {
+        @Override public Citation getVendor() {return null;}
+    }
+
+    /**
+     * Returns a string representation of the results of the given runner after the execution of the sample suite.
+     */
+    private static String[] run(final Runner runner) {
+        runner.run(SampleSuite.class);
+        final ResultEntry[] entries = runner.getEntries();
+        final String[] results = new String[entries.length];
+        for (int i=0; i<entries.length; i++) {
+            results[i] = entries[i].toString();
+        }
+        return results;
+    }
+
+    /**
+     * Verifies that a parallel execution produces the same entries, in the same order, than a sequential execution.
+     */
+    @Test
+    public void testParallelExecution() {
+        final String[] expected = run(new Runner(1));
+        assertEquals("Expected one entry per test method for each combination of test class and factory.", 2*2*4, expected.length);
+        for (int i=0; i<3; i++) {
+            Sample.searches.set(0);
+            assertArrayEquals(expected, run(new Runner(4)));
+            assertEquals("Factories shall be searched only once per test class.", 2, Sample.searches.get());
+        }
+    }
+
+    /**
+     * Verifies that factories are instrumented only when explicitly requested.
+     */
+    @Test
+    public void testInstrumentationOption() {
+        assertFalse(TestSuite.isInstrumentationEnabled());
+        run(new Runner(1));
+        assertFalse("Instrumentation shall be disabled by default.", Sample.instrumented);
+        run(new Runner(1, true));
+        assertTrue("Instrumentation shall be enabled when requested.", Sample.instrumented);
+        assertFalse("Previous state shall be restored.", TestSuite.isInstrumentationEnabled());
+    }
+}
@@ -0,0 +1,1128 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.coverage;
+
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.awt.image.DataBuffer;
+import java.awt.image.renderable.RenderableImage;
+import javax.measure.Unit;
+import javax.measure.IncommensurableException;
+import javax.measure.quantity.Angle;
+import tec.units.ri.unit.Units;
+
+import org.opengis.coverage.AttributeValues;
+import org.opengis.coverage.CannotEvaluateException;
+import org.opengis.coverage.CommonPointRule;
+import org.opengis.coverage.Coverage;
+import org.opengis.coverage.DomainObject;
+import org.opengis.coverage.GeometryValuePair;
+import org.opengis.coverage.InterpolationMethod;
+import org.opengis.coverage.PointOutsideCoverageException;
+import org.opengis.coverage.grid.GridCell;
+import org.opengis.coverage.grid.FootPrint;
+import org.opengis.coverage.grid.GridCoordinates;
+import org.opengis.coverage.grid.GridPoint;
+import org.opengis.coverage.grid.GridValuesMatrix;
+import org.opengis.coverage.grid.RectifiedGrid;
+import org.opengis.coverage.grid.SequenceRule;
+import org.opengis.coverage.grid.SequenceType;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.Geometry;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.geometry.primitive.Point;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.operation.Conversion;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.temporal.Period;
+import org.opengis.temporal.TemporalGeometricPrimitive;
+import org.opengis.util.Record;
+import org.opengis.example.geometry.SimpleDirectPosition;
+import org.opengis.example.geometry.SimpleEnvelope;
+import org.opengis.example.geometry.EnvelopeTransformer;
+import org.opengis.example.metadata.SimpleGeographicBoundingBox;
+
+
+/**
+ * A two-dimensional rectified grid coverage with sample values read from a memory-mapped file.
+ * The file contains uncompressed samples in a row-major or tiled layout, as described by {@link Layout}.
+ * Sample values are never copied on the Java heap: the file is mapped by {@link FileChannel#map} in
+ * segments of at most 1 GiB, which are created only when first needed. Consequently the file can be
+ * much larger than the heap and larger than the 2 GiB limit of a single mapped buffer.
+ *
+ * <p>Grid coordinates are converted to "real world" coordinates by the <cite>grid to CRS</cite> transform.
+ * Integer grid coordinates are the centers of pixels. The {@code evaluate(…)} methods convert the given
+ * position to grid coordinates using the inverse transform, then read the sample values using the
+ * {@linkplain InterpolationMethod#NEAREST_NEIGHBOUR nearest neighbour} or
+ * {@linkplain InterpolationMethod#BILINEAR bilinear} interpolation. Many points can be evaluated
+ * in a single call to {@link #evaluate(double[], int, int, double[])}.</p>
+ *
+ * <p>This class is also the {@linkplain GridValuesMatrix grid values matrix} and the {@linkplain RectifiedGrid
+ * rectified grid} of the coverage. {@link #getValues()} is a view reading the pixels of the file in row-major
+ * order when requested; no value is copied in advance. The {@code find(…)} methods return the grid points
+ * nearest to a position together with their sample values. The ISO 19123 methods enumerating all domain
+ * objects, grid points, grid cells or pixels matching a geometry or a value ({@code getDomainElements()},
+ * {@code getRangeElements()}, {@code getIntersections()}, {@code getCells()}, {@code list()}, {@code select(…)}
+ * and {@code evaluateInverse(…)}) and {@code getRenderableImage(…)} throw {@link UnsupportedOperationException},
+ * since creating one object per pixel of a coverage larger than the heap is not practical.
+ * Instances of this class are thread-safe.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class MappedGridCoverage implements Coverage, GridValuesMatrix, RectifiedGrid, Closeable {
+    /**
+     * Number of bits of the maximal segment size. Segments are 1 GiB.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+
+    /**
+     * Number of points transformed in a single call in bulk evaluations.
+     */
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Names of the grid axes.
+     */
+    private static final List<String> AXIS_NAMES = Collections.unmodifiableList(Arrays.asList("column", "row"));
+
+    /**
+     * The sequencing rule of {@link #getValues()}: row-major order starting from the first column and row.
+     */
+    private static final SequenceRule SEQUENCING_RULE = new RowMajor();
+
+    /**
+     * Row-major sequencing rule, with columns varying fastest.
+     */
+    private static final class RowMajor implements SequenceRule {
+        /** Returns the linear sequence type. */
+        @Override public SequenceType getType() {
+            return SequenceType.LINEAR;
+        }
+
+        /** Returns the scan directions, with columns varying fastest. */
+        @Override public List<String> getScanDirection() {
+            return Collections.unmodifiableList(Arrays.asList("+column", "+row"));
+        }
+    }
+
+    /**
+     * The unit of geographic bounding boxes.
+     */
+    private static final Unit<Angle> DEGREE = Units.RADIAN.multiply(Math.PI/180);
+
+    /**
+     * The organization of sample values in the file.
+     * Tiles on the right and bottom edges are stored with their full size, including padding.
+     */
+    public static final class Layout {
+        /** Grid size in pixels. */
+        final int width, height;
+
+        /** Number of sample values per pixel. */
+        final int numBands;
+
+        /** Tile size in pixels. Equal to the grid size for row-major layout. */
+        final int tileWidth, tileHeight;
+
+        /** One of the {@link DataBuffer} {@code TYPE_*} constants. */
+        final int dataType;
+
+        /** Number of bytes per sample. */
+        final int sampleSize;
+
+        /**
+         * Creates a row-major layout with pixel-interleaved bands.
+         *
+         * @param width     number of columns.
+         * @param height    number of rows.
+         * @param numBands  number of sample values per pixel.
+         * @param dataType  {@link DataBuffer#TYPE_BYTE}, {@code TYPE_SHORT}, {@code TYPE_USHORT},
+         *                  {@code TYPE_INT}, {@code TYPE_FLOAT} or {@code TYPE_DOUBLE}.
+         */
+        public Layout(final int width, final int height, final int numBands, final int dataType) {
+            this(width, height, numBands, dataType, width, height);
+        }
+
+        /**
+         * Creates a tiled layout. Tiles are stored in row-major order, and pixels inside
+         * each tile are stored in row-major order with pixel-interleaved bands.
+         *
+         * @param width       number of columns.
+         * @param height      number of rows.
+         * @param numBands    number of sample values per pixel.
+         * @param dataType    one of the {@link DataBuffer} {@code TYPE_*} constants.
+         * @param tileWidth   number of columns in a tile.
+         * @param tileHeight  number of rows in a tile.
+         */
+        public Layout(final int width, final int height, final int numBands, final int dataType,
+                      final int tileWidth, final int tileHeight)
+        {
+            if (width <= 0 || height <= 0 || numBands <= 0 || tileWidth <= 0 || tileHeight <= 0) {
+                throw new IllegalArgumentException("Sizes shall be strictly positive.");
+            }
+            this.width      = width;
+            this.height     = height;
+            this.numBands   = numBands;
+            this.dataType   = dataType;
+            this.tileWidth  = tileWidth;
+            this.tileHeight = tileHeight;
+            switch (dataType) {
+                case DataBuffer.TYPE_BYTE:   sampleSize = Byte.BYTES;    break;
+                case DataBuffer.TYPE_SHORT:
+                case DataBuffer.TYPE_USHORT: sampleSize = Short.BYTES;   break;
+                case DataBuffer.TYPE_INT:    sampleSize = Integer.BYTES; break;
+                case DataBuffer.TYPE_FLOAT:  sampleSize = Float.BYTES;   break;
+                case DataBuffer.TYPE_DOUBLE: sampleSize = Double.BYTES;  break;
+                default: throw new IllegalArgumentException("Unsupported data type: " + dataType);
+            }
+        }
+
+        /**
+         * Returns the number of tiles along the <var>x</var> axis.
+         *
+         * @return number of tiles in a row of tiles.
+         */
+        final int numXTiles() {
+            return (width + tileWidth - 1) / tileWidth;
+        }
+
+        /**
+         * Returns the number of bytes of a tile.
+         *
+         * @return the tile length in bytes, including padding.
+         */
+        final long tileBytes() {
+            return (long) tileWidth * tileHeight * numBands * sampleSize;
+        }
+
+        /**
+         * Returns the number of bytes of sample values in the file.
+         *
+         * @return the data length in bytes.
+         */
+        public long getDataLength() {
+            return tileBytes() * numXTiles() * ((height + tileHeight - 1) / tileHeight);
+        }
+
+        /**
+         * Returns the position in bytes, relative to the first sample value, of the given pixel and band.
+         * All computations are done in {@code long} arithmetic, since the number of pixels in a tile
+         * (or in the whole grid for the row-major layout) may exceed {@link Integer#MAX_VALUE}.
+         *
+         * @param  x     column of the pixel.
+         * @param  y     row of the pixel.
+         * @param  band  band of the sample value.
+         * @return position in bytes of the sample value.
+         */
+        final long position(final int x, final int y, final int band) {
+            final long tile = (long) (y / tileHeight) * numXTiles() + (x / tileWidth);
+            final long pixel = (long) (y % tileHeight) * tileWidth + (x % tileWidth);
+            return tile * tileBytes() + (pixel * numBands + band) * sampleSize;
+        }
+    }
+
+    /**
+     * The organization of sample values.
+     */
+    private final Layout layout;
+
+    /**
+     * The file channel, closed by {@link #close()}.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Position of the first sample value in the file.
+     */
+    private final long offset;
+
+    /**
+     * The byte order of sample values.
+     */
+    private final ByteOrder order;
+
+    /**
+     * The mapped segments, created when first needed.
+     */
+    private final AtomicReferenceArray<MappedByteBuffer> segments;
+
+    /**
+     * The coordinate reference system of this coverage.
+     */
+    private final CoordinateReferenceSystem crs;
+
+    /**
+     * Conversion from grid coordinates (pixel centers) to "real world" coordinates, and its inverse.
+     */
+    private final MathTransform gridToCRS, crsToGrid;
+
+    /**
+     * Either {@link InterpolationMethod#NEAREST_NEIGHBOUR} or {@link InterpolationMethod#BILINEAR}.
+     */
+    private final InterpolationMethod interpolation;
+
+    /**
+     * The type of the records returned by {@link #getValues()}.
+     */
+    private final SampleRecord.Type rangeType;
+
+    /**
+     * Opens a coverage for the given file.
+     *
+     * @param  file           the file containing the sample values.
+     * @param  offset         position of the first sample value in the file.
+     * @param  order          the byte order of sample values.
+     * @param  layout         the organization of sample values in the file.
+     * @param  crs            the coordinate reference system of this coverage.
+     * @param  gridToCRS      conversion from grid coordinates (pixel centers) to "real world" coordinates.
+     * @param  interpolation  {@link InterpolationMethod#NEAREST_NEIGHBOUR} or {@link InterpolationMethod#BILINEAR}.
+     * @throws IOException if the file can not be opened or is too short.
+     * @throws NoninvertibleTransformException if the <cite>grid to CRS</cite> transform is not invertible.
+     */
+    public MappedGridCoverage(final Path file, final long offset, final ByteOrder order, final Layout layout,
+                              final CoordinateReferenceSystem crs, final MathTransform gridToCRS,
+                              final InterpolationMethod interpolation) throws IOException, NoninvertibleTransformException
+    {
+        if (interpolation != InterpolationMethod.NEAREST_NEIGHBOUR && interpolation != InterpolationMethod.BILINEAR) {
+            throw new IllegalArgumentException("Unsupported interpolation: " + interpolation);
+        }
+        if (gridToCRS.getSourceDimensions() != 2) {
+            throw new MismatchedDimensionException("The grid to CRS transform shall have 2 source dimensions.");
+        }
+        this.layout        = layout;
+        this.offset        = offset;
+        this.order         = order;
+        this.crs           = crs;
+        this.gridToCRS     = gridToCRS;
+        this.crsToGrid     = gridToCRS.inverse();
+        this.interpolation = interpolation;
+        this.rangeType     = new SampleRecord.Type(layout.numBands);
+        final long length = layout.getDataLength();
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        if (channel.size() < offset + length) {
+            channel.close();
+            throw new IOException("File " + file + " is shorter than the declared layout.");
+        }
+        segments = new AtomicReferenceArray<>((int) (((length - 1) >>> SEGMENT_SHIFT) + 1));
+    }
+
+    /**
+     * Returns the segment at the given index, mapping it if needed. Only the mapping is synchronized;
+     * reading an already mapped segment does not need a lock.
+     *
+     * @param  index  index of the segment, as the sample position divided by the segment size.
+     * @return the mapped segment.
+     */
+    private MappedByteBuffer segment(final int index) {
+        MappedByteBuffer buffer = segments.get(index);
+        if (buffer != null) {
+            return buffer;
+        }
+        synchronized (segments) {
+            buffer = segments.get(index);
+            if (buffer == null) {
+                final long start = ((long) index) << SEGMENT_SHIFT;
+                final long size  = Math.min(1L << SEGMENT_SHIFT, layout.getDataLength() - start);
+                try {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset + start, size);
+                } catch (IOException e) {
+                    throw new CannotEvaluateException("Can not map the coverage file.", e);
+                }
+                buffer.order(order);
+                segments.set(index, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Returns the sample value at the given pixel and band. The pixel coordinates shall be inside the grid.
+     * Segments are multiples of the sample size, so a sample value never spans two segments.
+     *
+     * @param  x     column of the pixel.
+     * @param  y     row of the pixel.
+     * @param  band  band of the sample value.
+     * @return the sample value.
+     */
+    private double sample(final int x, final int y, final int band) {
+        final Layout l = layout;
+        final long position = l.position(x, y, band);
+        final MappedByteBuffer buffer = segment((int) (position >>> SEGMENT_SHIFT));
+        final int p = (int) (position & ((1L << SEGMENT_SHIFT) - 1));
+        switch (l.dataType) {
+            case DataBuffer.TYPE_BYTE:   return buffer.get(p) & 0xFF;
+            case DataBuffer.TYPE_SHORT:  return buffer.getShort(p);
+            case DataBuffer.TYPE_USHORT: return buffer.getShort(p) & 0xFFFF;
+            case DataBuffer.TYPE_INT:    return buffer.getInt(p);
+            case DataBuffer.TYPE_FLOAT:  return buffer.getFloat(p);
+            default:                     return buffer.getDouble(p);
+        }
+    }
+
+    /**
+     * Stores in {@code dest} the interpolated sample values at the given grid coordinates.
+     * With nearest neighbour interpolation, a point on the boundary between two or four pixels
+     * gets the greatest of their values, as specified by {@link CommonPointRule#HIGH}.
+     *
+     * @param  gx      grid coordinate along the column axis.
+     * @param  gy      grid coordinate along the row axis.
+     * @param  dest    where to store the sample values, one per band.
+     * @param  offset  index of the first value to write in {@code dest}.
+     * @return {@code false} if the point is outside the grid.
+     */
+    private boolean interpolate(final double gx, final double gy, final double[] dest, final int offset) {
+        final Layout l = layout;
+        if (!(gx >= -0.5 && gx < l.width - 0.5 && gy >= -0.5 && gy < l.height - 0.5)) {
+            return false;
+        }
+        if (interpolation == InterpolationMethod.NEAREST_NEIGHBOUR) {
+            final double rx = Math.floor(gx + 0.5);
+            final double ry = Math.floor(gy + 0.5);
+            final int x  = (int) rx;
+            final int y  = (int) ry;
+            final int xb = (rx == gx + 0.5 && x > 0) ? x - 1 : x;       // Other pixel if on a column boundary.
+            final int yb = (ry == gy + 0.5 && y > 0) ? y - 1 : y;       // Other pixel if on a row boundary.
+            for (int b=0; b<l.numBands; b++) {
+                double value = sample(x, y, b);
+                if (xb != x) value = Math.max(value, sample(xb, y, b));
+                if (yb != y) {
+                    value = Math.max(value, sample(x, yb, b));
+                    if (xb != x) value = Math.max(value, sample(xb, yb, b));
+                }
+                dest[offset + b] = value;
+            }
+        } else {
+            final double fx = Math.floor(gx);
+            final double fy = Math.floor(gy);
+            final double tx = gx - fx;
+            final double ty = gy - fy;
+            final int x0 = Math.max((int) fx, 0), x1 = Math.min((int) fx + 1, l.width  - 1);
+            final int y0 = Math.max((int) fy, 0), y1 = Math.min((int) fy + 1, l.height - 1);
+            for (int b=0; b<l.numBands; b++) {
+                final double v00 = sample(x0, y0, b);
+                final double v10 = sample(x1, y0, b);
+                final double v01 = sample(x0, y1, b);
+                final double v11 = sample(x1, y1, b);
+                final double top    = v00 + (v10 - v00) * tx;
+                final double bottom = v01 + (v11 - v01) * tx;
+                dest[offset + b] = top + (bottom - top) * ty;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates many points in a single call. The points are transformed to grid coordinates by blocks,
+     * then sample values are read for each point. Points outside the coverage get {@link Double#NaN}
+     * values instead of causing an exception.
+     *
+     * @param  coordinates  the coordinates of the points to evaluate, in the CRS of this coverage.
+     * @param  srcOff       index of the first coordinate in the given array.
+     * @param  numPts       number of points to evaluate.
+     * @param  dest         where to store the sample values, with {@code numBands} values per point.
+     * @throws CannotEvaluateException if a point can not be transformed to grid coordinates.
+     */
+    public void evaluate(final double[] coordinates, int srcOff, int numPts, final double[] dest)
+            throws CannotEvaluateException
+    {
+        final int srcDim = crsToGrid.getSourceDimensions();
+        final double[] grid = new double[Math.min(numPts, BUFFER_SIZE) * 2];
+        int dstOff = 0;
+        while (numPts > 0) {
+            final int n = Math.min(numPts, BUFFER_SIZE);
+            try {
+                crsToGrid.transform(coordinates, srcOff, grid, 0, n);
+            } catch (TransformException e) {
+                throw new CannotEvaluateException("Can not compute grid coordinates.", e);
+            }
+            for (int i=0; i<n; i++) {
+                if (!interpolate(grid[2*i], grid[2*i + 1], dest, dstOff)) {
+                    Arrays.fill(dest, dstOff, dstOff + layout.numBands, Double.NaN);
+                }
+                dstOff += layout.numBands;
+            }
+            srcOff += n * srcDim;
+            numPts -= n;
+        }
+    }
+
+    /**
+     * Transforms the given "real world" coordinates to grid coordinates.
+     *
+     * @param  point  the "real world" coordinates to transform.
+     * @return the grid coordinates, which may be outside the grid extent.
+     * @throws MismatchedDimensionException if the point does not have the expected number of dimensions.
+     * @throws CannotEvaluateException if the coordinates can not be transformed.
+     */
+    private double[] toGrid(final DirectPosition point) {
+        if (point.getDimension() != crsToGrid.getSourceDimensions()) {
+            throw new MismatchedDimensionException("Point shall have " + crsToGrid.getSourceDimensions() + " dimensions.");
+        }
+        final double[] grid = new double[2];
+        try {
+            crsToGrid.transform(point.getCoordinate(), 0, grid, 0, 1);
+        } catch (TransformException e) {
+            throw new CannotEvaluateException("Can not compute grid coordinates.", e);
+        }
+        return grid;
+    }
+
+    /**
+     * Returns the sample values at the given position.
+     *
+     * @param  point        the position where to evaluate.
+     * @param  destination  an array where to store the values, or {@code null}.
+     * @return the sample values, one per band.
+     * @throws PointOutsideCoverageException if the point is outside this coverage.
+     * @throws CannotEvaluateException if the point can not be transformed to grid coordinates.
+     */
+    @Override
+    public double[] evaluate(final DirectPosition point, double[] destination)
+            throws PointOutsideCoverageException, CannotEvaluateException
+    {
+        final double[] grid = toGrid(point);
+        if (destination == null) {
+            destination = new double[layout.numBands];
+        }
+        if (!interpolate(grid[0], grid[1], destination, 0)) {
+            throw new PointOutsideCoverageException("Point is outside the coverage.", point);
+        }
+        return destination;
+    }
+
+    /**
+     * Returns the sample values at the given position.
+     *
+     * @param  point  the position where to evaluate.
+     * @return the sample values as a {@code double[]} array.
+     */
+    @Override
+    public Object evaluate(final DirectPosition point) {
+        return evaluate(point, (double[]) null);
+    }
+
+    /**
+     * Returns the sample values at the given position, cast to {@code float}.
+     */
+    @Override
+    public float[] evaluate(final DirectPosition point, float[] destination) {
+        final double[] values = evaluate(point, (double[]) null);
+        if (destination == null) destination = new float[values.length];
+        for (int i=0; i<values.length; i++) destination[i] = (float) values[i];
+        return destination;
+    }
+
+    /**
+     * Returns the sample values at the given position, rounded to {@code int}.
+     */
+    @Override
+    public int[] evaluate(final DirectPosition point, int[] destination) {
+        final double[] values = evaluate(point, (double[]) null);
+        if (destination == null) destination = new int[values.length];
+        for (int i=0; i<values.length; i++) destination[i] = (int) Math.round(values[i]);
+        return destination;
+    }
+
+    /**
+     * Returns the sample values at the given position, rounded to {@code byte}.
+     */
+    @Override
+    public byte[] evaluate(final DirectPosition point, byte[] destination) {
+        final double[] values = evaluate(point, (double[]) null);
+        if (destination == null) destination = new byte[values.length];
+        for (int i=0; i<values.length; i++) destination[i] = (byte) Math.round(values[i]);
+        return destination;
+    }
+
+    /**
+     * Returns whether the sample values at the given position are non-zero.
+     */
+    @Override
+    public boolean[] evaluate(final DirectPosition point, boolean[] destination) {
+        final double[] values = evaluate(point, (double[]) null);
+        if (destination == null) destination = new boolean[values.length];
+        for (int i=0; i<values.length; i++) destination[i] = (values[i] != 0);
+        return destination;
+    }
+
+    /**
+     * Returns the number of sample values per pixel.
+     *
+     * @return the number of bands.
+     */
+    public int getNumBands() {
+        return layout.numBands;
+    }
+
+    /**
+     * Returns the interpolation method used by the {@code evaluate(…)} methods.
+     *
+     * @return the interpolation method.
+     */
+    public InterpolationMethod getInterpolationMethod() {
+        return interpolation;
+    }
+
+    /**
+     * Returns the conversion from grid coordinates (pixel centers) to "real world" coordinates.
+     *
+     * @return the grid to CRS transform.
+     */
+    public MathTransform getGridToCRS() {
+        return gridToCRS;
+    }
+
+    /**
+     * Returns the number of grid dimensions, which is 2.
+     *
+     * @return the number of grid dimensions.
+     */
+    @Override
+    public int getDimension() {
+        return 2;
+    }
+
+    /**
+     * Returns the names of the grid axes, which are {@code "column"} and {@code "row"}.
+     *
+     * @return the names of the grid axes.
+     */
+    @Override
+    public List<String> getAxisNames() {
+        return AXIS_NAMES;
+    }
+
+    /**
+     * Returns the grid extent.
+     *
+     * @return the grid extent.
+     */
+    @Override
+    public SimpleGridEnvelope getExtent() {
+        return new SimpleGridEnvelope(new long[] {0, 0}, new long[] {layout.width - 1, layout.height - 1});
+    }
+
+    /**
+     * Returns the type of the records returned by {@link #getValues()}, with one real member per band.
+     *
+     * @return the type of sample records.
+     */
+    @Override
+    public SampleRecord.Type getRangeType() {
+        return rangeType;
+    }
+
+    /**
+     * Returns the sample values of all pixels in row-major order, as a list of {@link SampleRecord}s.
+     * The list is a view: each call to {@link List#get(int)} reads the sample values of one pixel from
+     * the mapped file. If the grid has more than {@link Integer#MAX_VALUE} pixels, only the first
+     * {@code Integer.MAX_VALUE} pixels are reachable through this list, as required by the
+     * {@link Collection#size()} contract. Use {@link #evaluate(double[], int, int, double[])}
+     * for reading pixels beyond that limit.
+     *
+     * @return the sample values of all pixels in the order given by {@link #getSequencingRule()}.
+     */
+    @Override
+    public List<Record> getValues() {
+        return new Values();
+    }
+
+    /**
+     * The list returned by {@link #getValues()}.
+     */
+    private final class Values extends AbstractList<Record> implements RandomAccess {
+        /** Returns the number of pixels, or {@link Integer#MAX_VALUE} if greater. */
+        @Override public int size() {
+            return (int) Math.min((long) layout.width * layout.height, Integer.MAX_VALUE);
+        }
+
+        /** Reads the sample values of the pixel at the given index. */
+        @Override public Record get(final int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " is out of bounds.");
+            }
+            final int x = index % layout.width;
+            final int y = index / layout.width;
+            final double[] values = new double[layout.numBands];
+            for (int b=0; b<values.length; b++) {
+                values[b] = sample(x, y, b);
+            }
+            return new SampleRecord(rangeType, values);
+        }
+    }
+
+    /**
+     * Returns the order of pixels in {@link #getValues()}, which is linear with columns varying fastest.
+     *
+     * @return the sequencing rule of sample values.
+     */
+    @Override
+    public SequenceRule getSequencingRule() {
+        return SEQUENCING_RULE;
+    }
+
+    /**
+     * Returns the grid coordinates of the first pixel in {@link #getValues()}, which is (0,0).
+     *
+     * @return the grid coordinates of the first pixel.
+     */
+    @Override
+    public GridCoordinates getStartSequence() {
+        return new SimpleGridCoordinates(new long[] {0, 0});
+    }
+
+    /**
+     * Returns the "real world" coordinates of the grid origin, which is the center of the first pixel.
+     *
+     * @return the "real world" coordinates of grid coordinates (0,0).
+     * @throws CannotEvaluateException if the origin can not be transformed.
+     */
+    @Override
+    public DirectPosition getOrigin() {
+        return transform(0, 0);
+    }
+
+    /**
+     * Returns the displacement in "real world" coordinates of a move of one pixel along each grid axis.
+     * This is exact if the <cite>grid to CRS</cite> transform is affine, which is the case for rectified grids.
+     *
+     * @return the offset vectors of the column and row axes, in that order.
+     * @throws CannotEvaluateException if a grid position can not be transformed.
+     */
+    @Override
+    public List<double[]> getOffsetVectors() {
+        final double[] origin = getOrigin().getCoordinate();
+        final double[] column = transform(1, 0).getCoordinate();
+        final double[] row    = transform(0, 1).getCoordinate();
+        for (int i=0; i<origin.length; i++) {
+            column[i] -= origin[i];
+            row   [i] -= origin[i];
+        }
+        return Collections.unmodifiableList(Arrays.asList(column, row));
+    }
+
+    /**
+     * Transforms the given grid coordinates to "real world" coordinates.
+     *
+     * @param  gx  grid coordinate along the column axis.
+     * @param  gy  grid coordinate along the row axis.
+     * @return the "real world" coordinates.
+     * @throws CannotEvaluateException if the coordinates can not be transformed.
+     */
+    private DirectPosition transform(final double gx, final double gy) {
+        final double[] coordinates = new double[gridToCRS.getTargetDimensions()];
+        try {
+            gridToCRS.transform(new double[] {gx, gy}, 0, coordinates, 0, 1);
+        } catch (TransformException e) {
+            throw new CannotEvaluateException("Can not compute \"real world\" coordinates.", e);
+        }
+        return new SimpleDirectPosition(crs, coordinates);
+    }
+
+    /**
+     * Transforms the given grid coordinates (pixel center) to "real world" coordinates.
+     *
+     * @param  g  the grid coordinates to transform.
+     * @return the "real world" coordinates of the given pixel center.
+     * @throws CannotEvaluateException if the coordinates can not be transformed.
+     */
+    @Override
+    public DirectPosition transformCoordinates(final GridCoordinates g) {
+        if (g.getDimension() != 2) {
+            throw new MismatchedDimensionException("Grid coordinates shall have 2 dimensions.");
+        }
+        return transform(g.getCoordinateValue(0), g.getCoordinateValue(1));
+    }
+
+    /**
+     * Transforms the given "real world" coordinates to the grid coordinates of the nearest pixel center.
+     * The result may be outside the grid extent.
+     *
+     * @param  p  the "real world" coordinates to transform.
+     * @return the grid coordinates of the nearest pixel center.
+     * @throws CannotEvaluateException if the coordinates can not be transformed.
+     */
+    @Override
+    public GridCoordinates inverseTransformCoordinates(final DirectPosition p) {
+        final double[] grid = toGrid(p);
+        return new SimpleGridCoordinates(new long[] {Math.round(grid[0]), Math.round(grid[1])});
+    }
+
+    /**
+     * Same as {@link #transformCoordinates(GridCoordinates)}.
+     *
+     * @param  g  the grid coordinates to transform.
+     * @return the "real world" coordinates of the given pixel center.
+     *
+     * @deprecated Renamed {@link #transformCoordinates(GridCoordinates)}.
+     */
+    @Override
+    @Deprecated
+    public DirectPosition convertCoordinates(final GridCoordinates g) {
+        return transformCoordinates(g);
+    }
+
+    /**
+     * Same as {@link #inverseTransformCoordinates(DirectPosition)}.
+     *
+     * @param  p  the "real world" coordinates to transform.
+     * @return the grid coordinates of the nearest pixel center.
+     *
+     * @deprecated Renamed {@link #inverseTransformCoordinates(DirectPosition)}.
+     */
+    @Override
+    @Deprecated
+    public GridCoordinates inverseConvertCoordinates(final DirectPosition p) {
+        return inverseTransformCoordinates(p);
+    }
+
+    /**
+     * Returns the coordinate reference system of this coverage.
+     */
+    @Override
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the envelope of all pixels, computed by transforming the grid envelope.
+     *
+     * @throws CannotEvaluateException if the grid envelope can not be transformed.
+     */
+    @Override
+    public Envelope getEnvelope() {
+        final SimpleEnvelope grid = new SimpleEnvelope(
+                new SimpleDirectPosition(null, -0.5, -0.5),
+                new SimpleDirectPosition(null, layout.width - 0.5, layout.height - 0.5));
+        try {
+            return new EnvelopeTransformer(gridToCRS, crs).transform(grid);
+        } catch (TransformException e) {
+            throw new CannotEvaluateException("Can not compute the coverage envelope.", e);
+        }
+    }
+
+    /**
+     * Returns the rule used by the {@code evaluate(…)} methods for positions on the boundary between pixels.
+     * With bilinear interpolation, a position midway between two pixel centers gets the mean of their values.
+     * With nearest neighbour interpolation, a position at equal distance of many pixel centers gets the
+     * greatest of their values.
+     *
+     * @return {@link CommonPointRule#AVERAGE} for bilinear interpolation,
+     *         or {@link CommonPointRule#HIGH} for nearest neighbour interpolation.
+     */
+    @Override
+    public CommonPointRule getCommonPointRule() {
+        return (interpolation == InterpolationMethod.BILINEAR) ? CommonPointRule.AVERAGE : CommonPointRule.HIGH;
+    }
+
+    /**
+     * Returns the geographic bounding box of this coverage. The box can be computed only if the CRS is
+     * geographic, or projected with a base geographic CRS and an invertible map projection. The box is
+     * computed from the {@linkplain #getEnvelope() envelope}, transformed to the base CRS if needed.
+     *
+     * @return the geographic bounding box in a singleton set, or an empty set if it can not be computed.
+     * @throws CannotEvaluateException if the envelope can not be transformed to the base geographic CRS.
+     */
+    @Override
+    public Set<Extent> getDomainExtents() {
+        Envelope envelope = getEnvelope();
+        GeographicCRS geographic;
+        if (crs instanceof GeographicCRS) {
+            geographic = (GeographicCRS) crs;
+        } else if (crs instanceof ProjectedCRS) {
+            geographic = ((ProjectedCRS) crs).getBaseCRS();
+            final Conversion projection = ((ProjectedCRS) crs).getConversionFromBase();
+            final MathTransform mt = (projection != null) ? projection.getMathTransform() : null;
+            if (geographic == null || mt == null) {
+                return Collections.emptySet();
+            }
+            try {
+                envelope = new EnvelopeTransformer(mt.inverse(), geographic).transform(envelope);
+            } catch (TransformException e) {
+                throw new CannotEvaluateException("Can not compute the geographic bounding box.", e);
+            }
+        } else {
+            return Collections.emptySet();
+        }
+        final CoordinateSystem cs = geographic.getCoordinateSystem();
+        final double[] west  = new double[1], east  = new double[1];
+        final double[] south = new double[1], north = new double[1];
+        int found = 0;
+        for (int i=0; i<cs.getDimension(); i++) {
+            final AxisDirection dir = cs.getAxis(i).getDirection();
+            final double[] min, max;
+            if (AxisDirection.EAST.equals(dir)) {
+                min = west;  max = east;
+            } else if (AxisDirection.NORTH.equals(dir)) {
+                min = south; max = north;
+            } else {
+                continue;
+            }
+            final Unit<?> unit = cs.getAxis(i).getUnit();
+            try {
+                min[0] = unit.getConverterToAny(DEGREE).convert(envelope.getMinimum(i));
+                max[0] = unit.getConverterToAny(DEGREE).convert(envelope.getMaximum(i));
+            } catch (IncommensurableException e) {
+                return Collections.emptySet();
+            }
+            found++;
+        }
+        if (found != 2) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(new SimpleGeographicBoundingBox(west[0], east[0], south[0], north[0]));
+    }
+
+    /**
+     * Returns the grid point nearest to the given position, together with the sample values of its pixel.
+     * If the position is outside the coverage, the nearest pixel on the grid border is returned.
+     * This method does not interpolate.
+     *
+     * @param  p  the search position.
+     * @return the nearest grid point and its sample values.
+     * @throws CannotEvaluateException if the position can not be transformed to grid coordinates.
+     */
+    @Override
+    public GeometryValuePair find(final DirectPosition p) {
+        final double[] g = toGrid(p);
+        return new Pixel(clamp(g[0], layout.width), clamp(g[1], layout.height));
+    }
+
+    /**
+     * Returns the grid points nearest to the given position, ordered by their distance in "real world" units.
+     * Distances are computed with the {@linkplain #getOffsetVectors() offset vectors}, which is exact for
+     * rectified grids. Only the pixels in a window around the position are examined; the window is enlarged
+     * until no pixel outside it can be closer than the farthest pixel retained.
+     *
+     * @param  p      the search position.
+     * @param  limit  the maximal number of grid points to return.
+     * @return the nearest grid points and their sample values, nearest first.
+     * @throws CannotEvaluateException if the position can not be transformed to grid coordinates.
+     */
+    @Override
+    public List<GeometryValuePair> find(final DirectPosition p, final int limit) {
+        final double[] g = toGrid(p);
+        final long count = Math.min(limit, (long) layout.width * layout.height);
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        final List<double[]> vectors = getOffsetVectors();
+        final double[] column = vectors.get(0);
+        final double[] row    = vectors.get(1);
+        double a = 0, b = 0, d = 0;
+        for (int i=0; i<column.length; i++) {
+            a += column[i] * column[i];
+            b += column[i] * row[i];
+            d += row[i]    * row[i];
+        }
+        // Smallest eigenvalue of the Gram matrix, for a lower bound of distances outside the window.
+        final double scale = Math.sqrt(Math.max(0, (a + d)/2 - Math.hypot((a - d)/2, b)));
+        final int cx = clamp(g[0], layout.width);
+        final int cy = clamp(g[1], layout.height);
+        final double shift = Math.max(Math.abs(cx - g[0]), Math.abs(cy - g[1]));
+        final List<double[]> candidates = new ArrayList<>();
+        for (int r = (int) Math.ceil(Math.sqrt(count) / 2);; r = 2*r + 1) {
+            final int x0 = Math.max(cx - r, 0), x1 = Math.min(cx + r, layout.width  - 1);
+            final int y0 = Math.max(cy - r, 0), y1 = Math.min(cy + r, layout.height - 1);
+            if ((long) (x1 - x0 + 1) * (y1 - y0 + 1) < count) {
+                continue;
+            }
+            candidates.clear();
+            for (int y=y0; y<=y1; y++) {
+                final double dy = y - g[1];
+                for (int x=x0; x<=x1; x++) {
+                    final double dx = x - g[0];
+                    candidates.add(new double[] {a*dx*dx + 2*b*dx*dy + d*dy*dy, x, y});
+                }
+            }
+            candidates.sort((c1, c2) -> Double.compare(c1[0], c2[0]));
+            final boolean wholeGrid = (x0 == 0 && y0 == 0 && x1 == layout.width - 1 && y1 == layout.height - 1);
+            final double bound = scale * (r + 1 - shift);
+            if (wholeGrid || (bound > 0 && candidates.get((int) count - 1)[0] <= bound * bound)) {
+                break;
+            }
+        }
+        final List<GeometryValuePair> pixels = new ArrayList<>((int) count);
+        for (int i=0; i<count; i++) {
+            final double[] c = candidates.get(i);
+            pixels.add(new Pixel((int) c[1], (int) c[2]));
+        }
+        return pixels;
+    }
+
+    /**
+     * Returns the index of the pixel nearest to the given grid coordinate, clamped to the grid extent.
+     *
+     * @param  g     the grid coordinate.
+     * @param  size  the number of pixels along the axis of the given coordinate.
+     * @return index of the nearest pixel in the [0 … size-1] range.
+     */
+    private static int clamp(final double g, final int size) {
+        return (int) Math.max(0, Math.min(size - 1, Math.floor(g + 0.5)));
+    }
+
+    /**
+     * Returns the sample values at the given position as a record. If {@code list} is non-null,
+     * the record contains only the bands of the given names ({@code "band1"}, {@code "band2"}, <i>etc.</i>)
+     * in the order of the given collection.
+     *
+     * @param  p     the position where to evaluate.
+     * @param  list  names of the bands to evaluate, or {@code null} for all bands.
+     * @return a singleton set containing the record of sample values.
+     * @throws IllegalArgumentException if a name in the given list is not a band name.
+     * @throws PointOutsideCoverageException if the point is outside this coverage.
+     * @throws CannotEvaluateException if the point can not be transformed to grid coordinates.
+     */
+    @Override
+    public Set<Record> evaluate(final DirectPosition p, final Collection<String> list)
+            throws PointOutsideCoverageException, CannotEvaluateException
+    {
+        final double[] values = evaluate(p, (double[]) null);
+        if (list == null) {
+            return Collections.singleton(new SampleRecord(rangeType, values));
+        }
+        final int[] bands = rangeType.indicesOf(list);
+        final double[] selected = new double[bands.length];
+        for (int i=0; i<bands.length; i++) {
+            selected[i] = values[bands[i]];
+        }
+        return Collections.singleton(new SampleRecord(rangeType.select(bands), selected));
+    }
+
+    /**
+     * A grid point together with the sample values of the pixel centered on it.
+     * Instances are returned by the {@code find(…)} methods.
+     */
+    private final class Pixel implements GridPoint, GeometryValuePair {
+        /** Grid coordinates of the pixel. */
+        private final int x, y;
+
+        /**
+         * Creates a new grid point.
+         *
+         * @param x  column of the pixel.
+         * @param y  row of the pixel.
+         */
+        Pixel(final int x, final int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        /** Returns this grid point. */
+        @Override public DomainObject<?> getGeometry() {
+            return this;
+        }
+
+        /** Reads the sample values of this pixel. */
+        @Override public Record getValue() {
+            final double[] values = new double[layout.numBands];
+            for (int b=0; b<values.length; b++) {
+                values[b] = sample(x, y, b);
+            }
+            return new SampleRecord(rangeType, values);
+        }
+
+        /** Returns the grid coordinates of this grid point. */
+        @Override public GridCoordinates getGridCoordinates() {
+            return new SimpleGridCoordinates(new long[] {x, y});
+        }
+
+        /** Returns the coverage, which is the grid containing this grid point. */
+        @Override public MappedGridCoverage getFramework() {
+            return MappedGridCoverage.this;
+        }
+
+        /** Returns an empty set, since grid cells are not represented by this implementation. */
+        @Override public Set<GridCell> getCells() {
+            return Collections.emptySet();
+        }
+
+        /** Returns {@code null}, since this module has no implementation of geometric points. */
+        @Override public Point getGroundPoint() {
+            return null;
+        }
+
+        /** Returns an empty set, since the "real world" position is given by {@link #transformCoordinates}. */
+        @Override public Set<FootPrint> getFootPrints() {
+            return Collections.emptySet();
+        }
+
+        /** Returns an empty set, since this module has no implementation of geometries. */
+        @Override public Set<Geometry> getSpatialElements() {
+            return Collections.emptySet();
+        }
+
+        /** Returns an empty set, since the coverage has no temporal dimension. */
+        @Override public Set<TemporalGeometricPrimitive> getTemporalElements() {
+            return Collections.emptySet();
+        }
+
+        /** Returns the grid coordinates of this grid point. */
+        @Override public String toString() {
+            return "Pixel(" + x + ", " + y + ')';
+        }
+    }
+
+    /**
+     * Closes the file channel. Mapped segments stay valid until they are garbage-collected.
+     *
+     * @throws IOException if an error occurred while closing the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Not supported by this implementation, since it would create one object per pixel. */
+    @Override public Set<GridPoint> getIntersections() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation, since it would create one object per pixel. */
+    @Override public Set<GridCell> getCells() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation, since it would create one object per pixel. */
+    @Override public Set<? extends DomainObject<?>> getDomainElements() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation, since it would create one object per pixel. */
+    @Override public Collection<AttributeValues> getRangeElements() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation, since it would create one object per pixel. */
+    @Override public Set<? extends GeometryValuePair> list() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation, since it would create one object per pixel in the geometry. */
+    @Override public Set<? extends GeometryValuePair> select(Geometry s, Period t) {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation, since it would create one object per pixel having the given value. */
+    @Override public Set<? extends DomainObject<?>> evaluateInverse(Record v) {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation, since it would copy all pixels in an image. */
+    @Override public RenderableImage getRenderableImage(int xAxis, int yAxis) {throw new UnsupportedOperationException();}
+}
@@ -0,0 +1,284 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.coverage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+import org.opengis.util.MemberName;
+import org.opengis.util.Record;
+import org.opengis.util.RecordSchema;
+import org.opengis.util.RecordType;
+import org.opengis.util.TypeName;
+import org.opengis.example.util.SimpleNameFactory;
+
+
+/**
+ * The sample values of a pixel, as a read-only {@link Record} with one real member per band.
+ * Members are named {@code "band1"}, {@code "band2"}, <i>etc.</i>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SampleRecord implements Record {
+    /**
+     * The type of sample records for a given number of bands.
+     */
+    public static final class Type implements RecordType {
+        /** The name of this record type. */
+        private static final TypeName NAME = SimpleNameFactory.DEFAULT.createTypeName(null, "Sample");
+
+        /** The name of the type of all members. */
+        private static final TypeName REAL = SimpleNameFactory.DEFAULT.createTypeName(null, "Real");
+
+        /** The type of all members. */
+        private static final org.opengis.util.Type REAL_TYPE = () -> REAL;
+
+        /** The members in band order. */
+        final MemberName[] members;
+
+        /** The type of each member, in band order. */
+        private final Map<MemberName, org.opengis.util.Type> memberTypes;
+
+        /**
+         * Creates a new record type for the given number of bands.
+         *
+         * @param numBands  the number of sample values per pixel.
+         */
+        public Type(final int numBands) {
+            this(bands(numBands));
+        }
+
+        /**
+         * Creates a new record type for the given members.
+         *
+         * @param members  the members in band order. This array is not cloned.
+         */
+        private Type(final MemberName[] members) {
+            this.members = members;
+            final Map<MemberName, org.opengis.util.Type> types = new LinkedHashMap<>();
+            for (final MemberName member : members) {
+                types.put(member, REAL_TYPE);
+            }
+            memberTypes = Collections.unmodifiableMap(types);
+        }
+
+        /**
+         * Creates the members for the given number of bands.
+         *
+         * @param  numBands  the number of sample values per pixel.
+         * @return the members named {@code "band1"}, {@code "band2"}, <i>etc.</i>
+         */
+        private static MemberName[] bands(final int numBands) {
+            final MemberName[] members = new MemberName[numBands];
+            for (int i=0; i<numBands; i++) {
+                members[i] = SimpleNameFactory.DEFAULT.createMemberName(null, "band" + (i+1), REAL);
+            }
+            return members;
+        }
+
+        /**
+         * Returns the index of the given member.
+         *
+         * @param  name  the member to search.
+         * @return index of the given member, or -1 if none.
+         */
+        final int indexOf(final MemberName name) {
+            for (int i=0; i<members.length; i++) {
+                if (members[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the indices of the members of the given names, in the iteration order of the given collection.
+         *
+         * @param  names  the names of the members to search.
+         * @return indices of the given members.
+         * @throws IllegalArgumentException if a name is not a member of this type.
+         */
+        final int[] indicesOf(final Collection<String> names) {
+            final int[] indices = new int[names.size()];
+            int n = 0;
+search:     for (final String name : names) {
+                for (int i=0; i<members.length; i++) {
+                    if (members[i].toString().equals(name)) {
+                        indices[n++] = i;
+                        continue search;
+                    }
+                }
+                throw new IllegalArgumentException("No member named \"" + name + "\" in " + Arrays.toString(members));
+            }
+            return indices;
+        }
+
+        /**
+         * Returns a record type containing only the members at the given indices.
+         *
+         * @param  indices  indices of the members to keep, in the desired order.
+         * @return a record type with the given members.
+         */
+        final Type select(final int[] indices) {
+            final MemberName[] selected = new MemberName[indices.length];
+            for (int i=0; i<indices.length; i++) {
+                selected[i] = members[indices[i]];
+            }
+            return new Type(selected);
+        }
+
+        /** Returns the name of this record type, which is {@code "Sample"}. */
+        @Override public TypeName getTypeName() {
+            return NAME;
+        }
+
+        /** Returns {@code null} since record schemas are not supported by this implementation. */
+        @Override public RecordSchema getContainer() {
+            return null;
+        }
+
+        /** Returns the type of all bands, in band order. */
+        @Override public Map<MemberName, org.opengis.util.Type> getMemberTypes() {
+            return memberTypes;
+        }
+
+        /** Returns the names of all bands, in band order. */
+        @Override public Set<MemberName> getMembers() {
+            return memberTypes.keySet();
+        }
+
+        /** Returns the {@code "Real"} type name if the given member is a band of this type, or {@code null} otherwise. */
+        @Override public TypeName locate(final MemberName name) {
+            return (indexOf(name) >= 0) ? REAL : null;
+        }
+
+        /** Returns {@code true} if the given record is of this type. */
+        @Override public boolean isInstance(final Record record) {
+            return (record != null) && equals(record.getRecordType());
+        }
+
+        /** Returns a hash code value for this type. */
+        @Override public int hashCode() {
+            return Arrays.hashCode(members);
+        }
+
+        /** Compares this type with the given object for equality. */
+        @Override public boolean equals(final Object obj) {
+            return (obj instanceof Type) && Arrays.equals(((Type) obj).members, members);
+        }
+    }
+
+    /**
+     * The type of this record.
+     */
+    private final Type type;
+
+    /**
+     * The sample values, one per band.
+     */
+    private final double[] values;
+
+    /**
+     * Creates a new record for the given sample values.
+     *
+     * @param type    the type of this record.
+     * @param values  the sample values, one per member of the given type. This array is not cloned.
+     */
+    SampleRecord(final Type type, final double[] values) {
+        this.type   = type;
+        this.values = values;
+    }
+
+    /**
+     * Returns the type of this record.
+     *
+     * @return the type of this record.
+     */
+    @Override
+    public Type getRecordType() {
+        return type;
+    }
+
+    /**
+     * Returns the sample values of all bands.
+     *
+     * @return the sample values, one per band.
+     */
+    public double[] getValues() {
+        return values.clone();
+    }
+
+    /**
+     * Returns the sample value of each band, in band order.
+     *
+     * @return the sample values by band names.
+     */
+    @Override
+    public Map<MemberName, Object> getAttributes() {
+        final Map<MemberName, Object> attributes = new LinkedHashMap<>();
+        for (int i=0; i<values.length; i++) {
+            attributes.put(type.members[i], values[i]);
+        }
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    /**
+     * Returns the sample value of the given band.
+     *
+     * @param  name  the band name.
+     * @return the sample value as a {@link Double}, or {@code null} if the given name is not a band of this record.
+     */
+    @Override
+    public Object locate(final MemberName name) {
+        final int i = type.indexOf(name);
+        return (i >= 0) ? values[i] : null;
+    }
+
+    /**
+     * Unsupported since sample records are read-only.
+     *
+     * @throws UnsupportedOperationException always thrown.
+     */
+    @Override
+    public void set(final MemberName name, final Object value) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Sample records are read-only.");
+    }
+
+    /**
+     * Returns a hash code value for this record.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    /**
+     * Compares this record with the given object for equality.
+     *
+     * @param  obj  the object to compare with this record.
+     * @return {@code true} if the given object is a sample record with the same values.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        return (obj instanceof SampleRecord) && Arrays.equals(((SampleRecord) obj).values, values);
+    }
+
+    /**
+     * Returns a string representation of the sample values.
+     */
+    @Override
+    public String toString() {
+        return "Sample" + Arrays.toString(values);
+    }
+}
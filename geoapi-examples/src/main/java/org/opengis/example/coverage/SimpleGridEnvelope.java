@@ -45,6 +45,7 @@ public class SimpleGridEnvelope implements GridEnvelope, Serializable {
      * Checks if ordinate values in the minimum index are less than or
      * equal to the corresponding ordinate value in the maximum index.
      *
+     * @param  index  the minimum and maximum indices, in that order.
      * @throws IllegalArgumentException if an ordinate value in the minimum index is not
      *         less than or equal to the corresponding ordinate value in the maximum index.
      */
@@ -0,0 +1,175 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.display;
+
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+
+import org.opengis.display.primitive.Graphic;
+
+
+/**
+ * A polyline drawn with a single color and line width. The coordinates are expressed in the
+ * objective CRS of the canvas and can not be changed after construction, but the color and
+ * the visibility can be changed. Changes are notified to the container of this graphic.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class PolylineGraphic implements Graphic {
+    /**
+     * The (<var>x</var>,<var>y</var>) coordinates of all points, in objective CRS.
+     */
+    private final double[] coordinates;
+
+    /**
+     * The bounds of all points, in objective CRS.
+     */
+    private final Rectangle2D bounds;
+
+    /**
+     * The line width in pixels.
+     */
+    private final float lineWidth;
+
+    /**
+     * The line color.
+     */
+    private volatile Color color;
+
+    /**
+     * Whether this graphic is visible.
+     */
+    private volatile boolean visible;
+
+    /**
+     * The container of this graphic, or {@code null} if none.
+     */
+    volatile SimpleGraphicsContainer owner;
+
+    /**
+     * Creates a new polyline.
+     *
+     * @param coordinates  the (<var>x</var>,<var>y</var>) coordinates of all points, in objective CRS.
+     * @param color        the line color.
+     * @param lineWidth    the line width in pixels.
+     */
+    public PolylineGraphic(final double[] coordinates, final Color color, final float lineWidth) {
+        if ((coordinates.length & 1) != 0) {
+            throw new IllegalArgumentException("Coordinates shall be (x,y) tuples.");
+        }
+        this.coordinates = coordinates.clone();
+        this.color       = color;
+        this.lineWidth   = lineWidth;
+        this.visible     = true;
+        double xmin = Double.POSITIVE_INFINITY, ymin = Double.POSITIVE_INFINITY;
+        double xmax = Double.NEGATIVE_INFINITY, ymax = Double.NEGATIVE_INFINITY;
+        for (int i=0; i<coordinates.length; i += 2) {
+            xmin = Math.min(xmin, coordinates[i  ]);
+            xmax = Math.max(xmax, coordinates[i  ]);
+            ymin = Math.min(ymin, coordinates[i+1]);
+            ymax = Math.max(ymax, coordinates[i+1]);
+        }
+        bounds = new Rectangle2D.Double(xmin, ymin, xmax - xmin, ymax - ymin);
+    }
+
+    /**
+     * Returns the number of points in this polyline.
+     *
+     * @return number of points.
+     */
+    public int getPointCount() {
+        return coordinates.length / 2;
+    }
+
+    /**
+     * Copies the coordinates of this polyline in the given array.
+     *
+     * @param dest    the array where to copy the coordinates.
+     * @param offset  index of the first coordinate to write in the destination array.
+     */
+    final void copyCoordinates(final double[] dest, final int offset) {
+        System.arraycopy(coordinates, 0, dest, offset, coordinates.length);
+    }
+
+    /**
+     * Returns the bounds of this polyline in objective CRS.
+     *
+     * @return the polyline bounds.
+     */
+    public Rectangle2D getBounds() {
+        return (Rectangle2D) bounds.clone();
+    }
+
+    /**
+     * Returns the line width in pixels.
+     *
+     * @return the line width.
+     */
+    public float getLineWidth() {
+        return lineWidth;
+    }
+
+    /**
+     * Returns the line color.
+     *
+     * @return the line color.
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Sets the line color and notifies the container.
+     *
+     * @param color  the new line color.
+     */
+    public void setColor(final Color color) {
+        this.color = color;
+        final SimpleGraphicsContainer c = owner;
+        if (c != null) {
+            c.fireGraphicsChanged(this);
+        }
+    }
+
+    /**
+     * Returns whether this graphic is visible.
+     *
+     * @return whether this graphic is visible.
+     */
+    @Override
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Sets whether this graphic is visible and notifies the container.
+     *
+     * @param visible  whether this graphic is visible.
+     */
+    @Override
+    public void setVisible(final boolean visible) {
+        this.visible = visible;
+        final SimpleGraphicsContainer c = owner;
+        if (c != null) {
+            c.fireDisplayChanged(this);
+        }
+    }
+
+    /**
+     * Removes this graphic from its container.
+     */
+    @Override
+    public void dispose() {
+        final SimpleGraphicsContainer c = owner;
+        if (c != null) {
+            c.remove(this);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.display;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+
+import org.opengis.display.canvas.CanvasState;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.util.InternationalString;
+import org.opengis.example.geometry.SimpleDirectPosition;
+import org.opengis.example.referencing.AffineTransform2D;
+
+
+/**
+ * An immutable snapshot of the state of a {@link TiledCanvas}. The conversion from objective
+ * coordinates to display coordinates is an affine transform, which contains the scale and
+ * the translation of the visible area. Two states are equal if they have the same title,
+ * objective CRS and transform. Since the canvas size is fixed, equal states render the same
+ * image, which allows {@link TiledCanvas} to use states as keys in its tile cache.
+ *
+ * <p>This implementation has no display CRS: {@link #getDisplayCRS()} returns {@code null}.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SimpleCanvasState implements CanvasState {
+    /**
+     * The canvas title, or {@code null} if none.
+     */
+    private final InternationalString title;
+
+    /**
+     * The CRS of the graphics coordinates.
+     */
+    private final CoordinateReferenceSystem objectiveCRS;
+
+    /**
+     * The conversion from objective coordinates to pixel coordinates.
+     */
+    private final AffineTransform objectiveToDisplay;
+
+    /**
+     * The inverse of {@link #objectiveToDisplay}.
+     */
+    private final AffineTransform displayToObjective;
+
+    /**
+     * The objective coordinates of the canvas center.
+     */
+    private final double centerX, centerY;
+
+    /**
+     * Creates a new state.
+     *
+     * @param  title               the canvas title, or {@code null} if none.
+     * @param  objectiveCRS        the CRS of the graphics coordinates, or {@code null} if unknown.
+     * @param  objectiveToDisplay  the conversion from objective coordinates to pixel coordinates.
+     * @param  width               the canvas width in pixels, used for computing the center.
+     * @param  height              the canvas height in pixels, used for computing the center.
+     * @throws IllegalArgumentException if the transform is not invertible.
+     */
+    public SimpleCanvasState(final InternationalString title, final CoordinateReferenceSystem objectiveCRS,
+                             final AffineTransform objectiveToDisplay, final int width, final int height)
+    {
+        this.title              = title;
+        this.objectiveCRS       = objectiveCRS;
+        this.objectiveToDisplay = new AffineTransform(objectiveToDisplay);
+        try {
+            displayToObjective = objectiveToDisplay.createInverse();
+        } catch (NoninvertibleTransformException e) {
+            throw new IllegalArgumentException("Transform is not invertible.", e);
+        }
+        final double[] center = {width / 2.0, height / 2.0};
+        displayToObjective.transform(center, 0, center, 0, 1);
+        centerX = center[0];
+        centerY = center[1];
+    }
+
+    /**
+     * Returns the canvas title.
+     *
+     * @return the canvas title, or {@code null} if none.
+     */
+    @Override
+    public InternationalString getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the objective coordinates of the canvas center.
+     *
+     * @return the canvas center in objective CRS.
+     */
+    @Override
+    public DirectPosition getCenter() {
+        return new SimpleDirectPosition(objectiveCRS, centerX, centerY);
+    }
+
+    /**
+     * Returns the CRS of the graphics coordinates.
+     *
+     * @return the objective CRS, or {@code null} if unknown.
+     */
+    @Override
+    public CoordinateReferenceSystem getObjectiveCRS() {
+        return objectiveCRS;
+    }
+
+    /**
+     * Returns {@code null} since this implementation has no display CRS.
+     */
+    @Override
+    public CoordinateReferenceSystem getDisplayCRS() {
+        return null;
+    }
+
+    /**
+     * Returns a copy of the conversion from objective coordinates to pixel coordinates.
+     *
+     * @return the objective to display transform.
+     */
+    @Override
+    public MathTransform getObjectiveToDisplayTransform() {
+        return new AffineTransform2D(objectiveToDisplay);
+    }
+
+    /**
+     * Returns a copy of the conversion from pixel coordinates to objective coordinates.
+     *
+     * @return the display to objective transform.
+     */
+    @Override
+    public MathTransform getDisplayToObjectiveTransform() {
+        return new AffineTransform2D(displayToObjective);
+    }
+
+    /**
+     * Returns a copy of the conversion from objective coordinates to pixel coordinates as a Java2D object.
+     *
+     * @return the objective to display transform.
+     */
+    public AffineTransform getAffineTransform() {
+        return new AffineTransform(objectiveToDisplay);
+    }
+
+    /**
+     * Transforms the given objective coordinates to display coordinates in place.
+     *
+     * @param coordinates  the coordinates to transform, as (<var>x</var>,<var>y</var>) tuples.
+     * @param numPts       number of points to transform.
+     */
+    final void toDisplay(final double[] coordinates, final int numPts) {
+        objectiveToDisplay.transform(coordinates, 0, coordinates, 0, numPts);
+    }
+
+    /**
+     * Returns a hash code value for this state. This method does not use {@link AffineTransform#hashCode()}
+     * because the latter distinguishes positive and negative zeros while {@code equals} does not.
+     */
+    @Override
+    public int hashCode() {
+        final double[] matrix = new double[6];
+        objectiveToDisplay.getMatrix(matrix);
+        for (int i=0; i<matrix.length; i++) {
+            matrix[i] += 0.0;                       // Replace -0 by +0.
+        }
+        return Objects.hash(title, objectiveCRS) + 31 * Arrays.hashCode(matrix);
+    }
+
+    /**
+     * Compares this state with the given object for equality.
+     *
+     * @param  obj  the object to compare with this state.
+     * @return {@code true} if the given object is a state with the same title, CRS and transform.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof SimpleCanvasState) {
+            final SimpleCanvasState other = (SimpleCanvasState) obj;
+            return Objects.equals(title, other.title) &&
+                   Objects.equals(objectiveCRS, other.objectiveCRS) &&
+                   objectiveToDisplay.equals(other.objectiveToDisplay);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.display;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.awt.geom.Rectangle2D;
+
+import org.opengis.display.canvas.Canvas;
+import org.opengis.display.container.ContainerEvent;
+import org.opengis.display.container.ContainerListener;
+import org.opengis.display.container.GraphicsContainer;
+import org.opengis.display.primitive.Graphic;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.example.geometry.SimpleEnvelope;
+import org.opengis.example.geometry.SimpleDirectPosition;
+
+
+/**
+ * A container of {@link PolylineGraphic}s, which notifies its listeners when graphics are added,
+ * removed or changed. Listeners are notified in the thread that modified the container.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SimpleGraphicsContainer implements GraphicsContainer<PolylineGraphic> {
+    /**
+     * The canvas where the graphics are drawn.
+     */
+    private final Canvas canvas;
+
+    /**
+     * The graphics in this container, in drawing order.
+     */
+    private final List<PolylineGraphic> graphics;
+
+    /**
+     * The listeners to notify when the content of this container changed.
+     */
+    private final List<ContainerListener> listeners;
+
+    /**
+     * Creates a new, initially empty, container.
+     *
+     * @param canvas  the canvas where the graphics will be drawn.
+     */
+    public SimpleGraphicsContainer(final Canvas canvas) {
+        this.canvas = canvas;
+        graphics    = new CopyOnWriteArrayList<>();
+        listeners   = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Returns the canvas where the graphics are drawn.
+     *
+     * @return the canvas of this container.
+     */
+    @Override
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Returns the envelope of all graphics in this container, or {@code null} if this container is empty.
+     *
+     * @return the envelope of all graphics, or {@code null} if none.
+     */
+    @Override
+    public Envelope getGraphicsEnvelope() {
+        Rectangle2D bounds = null;
+        for (final PolylineGraphic graphic : graphics) {
+            if (bounds == null) {
+                bounds = graphic.getBounds();
+            } else {
+                bounds.add(graphic.getBounds());
+            }
+        }
+        if (bounds == null) {
+            return null;
+        }
+        final CoordinateReferenceSystem crs = canvas.getState().getObjectiveCRS();
+        return new SimpleEnvelope(new SimpleDirectPosition(crs, bounds.getMinX(), bounds.getMinY()),
+                                  new SimpleDirectPosition(crs, bounds.getMaxX(), bounds.getMaxY()));
+    }
+
+    /**
+     * Returns an unmodifiable view of the graphics in this container.
+     *
+     * @return the graphics in drawing order.
+     */
+    @Override
+    public Collection<PolylineGraphic> graphics() {
+        return Collections.unmodifiableList(graphics);
+    }
+
+    /**
+     * Adds the given graphics to this container.
+     *
+     * @param toAdd  the graphics to add.
+     * @throws IllegalArgumentException if a graphic already belongs to a container.
+     */
+    public void add(final PolylineGraphic... toAdd) {
+        for (final PolylineGraphic graphic : toAdd) {
+            if (graphic.owner != null) {
+                throw new IllegalArgumentException("Graphic already belongs to a container.");
+            }
+            graphic.owner = this;
+        }
+        graphics.addAll(Arrays.asList(toAdd));
+        final Event event = new Event(this, toAdd);
+        for (final ContainerListener listener : listeners) {
+            listener.graphicsAdded(event);
+        }
+    }
+
+    /**
+     * Removes the given graphic from this container.
+     *
+     * @param graphic  the graphic to remove.
+     */
+    public void remove(final PolylineGraphic graphic) {
+        if (graphic.owner == this && graphics.remove(graphic)) {
+            graphic.owner = null;
+            final Event event = new Event(this, graphic);
+            for (final ContainerListener listener : listeners) {
+                listener.graphicsRemoved(event);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners that the style of the given graphic changed.
+     *
+     * @param graphic  the graphic which has been changed.
+     */
+    final void fireGraphicsChanged(final PolylineGraphic graphic) {
+        final Event event = new Event(this, graphic);
+        for (final ContainerListener listener : listeners) {
+            listener.graphicsChanged(event);
+        }
+    }
+
+    /**
+     * Notifies the listeners that the visibility of the given graphic changed.
+     *
+     * @param graphic  the graphic which has been changed.
+     */
+    final void fireDisplayChanged(final PolylineGraphic graphic) {
+        final Event event = new Event(this, graphic);
+        for (final ContainerListener listener : listeners) {
+            listener.graphicsDisplayChanged(event);
+        }
+    }
+
+    /**
+     * Adds a listener to notify when the content of this container changed.
+     *
+     * @param listener  the listener to add.
+     */
+    @Override
+    public void addContainerListener(final ContainerListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener  the listener to remove.
+     */
+    @Override
+    public void removeContainerListener(final ContainerListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Removes all graphics and listeners from this container.
+     */
+    @Override
+    public void dispose() {
+        for (final PolylineGraphic graphic : graphics) {
+            remove(graphic);
+        }
+        listeners.clear();
+    }
+
+    /**
+     * The event fired when graphics are added, removed or changed.
+     */
+    @SuppressWarnings("serial")
+    private static final class Event extends ContainerEvent {
+        /** The graphics which have been added, removed or changed. */
+        private final Collection<Graphic> graphics;
+
+        /**
+         * Creates a new event for the given graphics.
+         *
+         * @param source    the container which fired the event.
+         * @param graphics  the graphics which have been added, removed or changed.
+         */
+        Event(final SimpleGraphicsContainer source, final Graphic... graphics) {
+            super(source);
+            this.graphics = Collections.unmodifiableList(Arrays.asList(graphics));
+        }
+
+        /** Returns the graphics which have been added, removed or changed. */
+        @Override
+        public Collection<Graphic> getGraphics() {
+            return graphics;
+        }
+    }
+}
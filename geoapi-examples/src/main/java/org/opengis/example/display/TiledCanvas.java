@@ -0,0 +1,826 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.display;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+import org.opengis.display.canvas.Canvas;
+import org.opengis.display.canvas.CanvasController;
+import org.opengis.display.canvas.CanvasEvent;
+import org.opengis.display.canvas.CanvasListener;
+import org.opengis.display.canvas.CanvasState;
+import org.opengis.display.canvas.RenderingState;
+import org.opengis.display.container.ContainerEvent;
+import org.opengis.display.container.ContainerListener;
+import org.opengis.display.primitive.Graphic;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.util.InternationalString;
+import org.opengis.example.referencing.AffineTransform2D;
+
+
+/**
+ * A canvas which renders the {@link PolylineGraphic}s of its container into fixed-size tiles,
+ * using a {@link ForkJoinPool} for rendering many tiles in parallel. The canvas draws into
+ * {@link BufferedImage}s, so it works in headless environments.
+ *
+ * <p>This canvas is designed for avoiding redundant work:</p>
+ * <ul>
+ *   <li>Rendered tiles are cached with the {@linkplain SimpleCanvasState canvas state} as part of
+ *       the key, so going back to a recent zoom or pan reuses the tiles rendered for that state.
+ *       The cache keeps the most recently used tiles of at most {@value #CACHED_STATES} canvases.</li>
+ *   <li>When graphics are added, removed or changed in the container, only the cached tiles
+ *       intersecting those graphics are discarded.</li>
+ *   <li>On each state change, the coordinates of all visible graphics are transformed to display
+ *       coordinates in a single bulk operation, then shared by all tile rendering tasks.</li>
+ * </ul>
+ *
+ * <p>Tiles are painted concurrently, but the container shall not be modified while
+ * {@link #render()} is running. The state of this canvas is modified through the methods
+ * of {@link CanvasController}, which this class implements directly.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class TiledCanvas implements Canvas, CanvasController, ContainerListener {
+    /**
+     * Number of canvas states for which to keep the rendered tiles. The cache capacity is
+     * this value multiplied by the number of tiles in a canvas.
+     */
+    static final int CACHED_STATES = 4;
+
+    /**
+     * Canvas size and tile size, in pixels.
+     */
+    private final int width, height, tileSize;
+
+    /**
+     * The graphics to render.
+     */
+    private final SimpleGraphicsContainer container;
+
+    /**
+     * The pool where to render tiles.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The rendered tiles for the current and most recent states, in access order.
+     * All accesses, including iterations, shall be synchronized on this map.
+     */
+    private final Map<TileKey, BufferedImage> tiles;
+
+    /**
+     * Incremented every time the graphics in the container are modified. Tiles rendered from
+     * {@link Prepared} graphics of an older generation are not cached, since they may have been
+     * painted after {@link #invalidate(Collection)} discarded the tiles of the same area.
+     */
+    private final AtomicInteger generation;
+
+    /**
+     * The rendering hints to apply on all tiles.
+     */
+    private final RenderingHints hints;
+
+    /**
+     * The listeners to notify when the canvas state changed.
+     */
+    private final List<CanvasListener> listeners;
+
+    /**
+     * The canvas title, or {@code null} if none.
+     */
+    private InternationalString title;
+
+    /**
+     * The CRS of the graphics coordinates.
+     */
+    private CoordinateReferenceSystem objectiveCRS;
+
+    /**
+     * The conversion from objective coordinates to display coordinates.
+     */
+    private final AffineTransform objectiveToDisplay;
+
+    /**
+     * The current state.
+     */
+    private volatile SimpleCanvasState state;
+
+    /**
+     * The graphics prepared for rendering in a given state, or {@code null} if not yet computed.
+     */
+    private volatile Prepared prepared;
+
+    /**
+     * Whether the canvas is currently rendering.
+     */
+    private volatile RenderingState renderingState;
+
+    /**
+     * Creates a new canvas of the given size. The initial conversion from objective to display
+     * coordinates is a unit scale with the <var>y</var> axis flipped and the objective origin
+     * in the canvas center.
+     *
+     * @param width         the canvas width in pixels.
+     * @param height        the canvas height in pixels.
+     * @param tileSize      the width and height of tiles in pixels.
+     * @param objectiveCRS  the CRS of the graphics coordinates, or {@code null} if unknown.
+     * @param pool          the pool where to render tiles, or {@code null} for the common pool.
+     */
+    public TiledCanvas(final int width, final int height, final int tileSize,
+                       final CoordinateReferenceSystem objectiveCRS, final ForkJoinPool pool)
+    {
+        if (width <= 0 || height <= 0 || tileSize <= 0) {
+            throw new IllegalArgumentException("Sizes shall be strictly positive.");
+        }
+        this.width         = width;
+        this.height        = height;
+        this.tileSize      = tileSize;
+        this.objectiveCRS  = objectiveCRS;
+        this.pool          = (pool != null) ? pool : ForkJoinPool.commonPool();
+        tiles              = Collections.synchronizedMap(new TileCache(CACHED_STATES * getTileCountX() * getTileCountY()));
+        generation         = new AtomicInteger();
+        hints              = new RenderingHints(null);
+        listeners          = new CopyOnWriteArrayList<>();
+        objectiveToDisplay = new AffineTransform(1, 0, 0, -1, width / 2.0, height / 2.0);
+        renderingState     = RenderingState.ON_HOLD;
+        state              = createState();
+        container          = new SimpleGraphicsContainer(this);
+        container.addContainerListener(this);
+    }
+
+    /**
+     * Creates a snapshot of the current state.
+     *
+     * @return a snapshot of the current state.
+     */
+    private SimpleCanvasState createState() {
+        return new SimpleCanvasState(title, objectiveCRS, objectiveToDisplay, width, height);
+    }
+
+    /**
+     * Returns the container of the graphics to render.
+     *
+     * @return the graphics container.
+     */
+    public SimpleGraphicsContainer getContainer() {
+        return container;
+    }
+
+    /**
+     * Returns the number of tiles along the <var>x</var> axis.
+     *
+     * @return number of tile columns.
+     */
+    public int getTileCountX() {
+        return (width + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Returns the number of tiles along the <var>y</var> axis.
+     *
+     * @return number of tile rows.
+     */
+    public int getTileCountY() {
+        return (height + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Returns the current state of this canvas.
+     *
+     * @return the current state.
+     */
+    @Override
+    public SimpleCanvasState getState() {
+        return state;
+    }
+
+    /**
+     * Returns {@code true} if the given objective coordinate is inside the canvas area.
+     *
+     * @param  coordinate  the coordinate in objective CRS.
+     * @return whether the given coordinate is visible.
+     */
+    @Override
+    public boolean isVisible(final DirectPosition coordinate) {
+        if (coordinate.getDimension() != 2) {
+            throw new MismatchedDimensionException();
+        }
+        final double[] p = coordinate.getCoordinate();
+        state.toDisplay(p, 1);
+        return p[0] >= 0 && p[0] < width && p[1] >= 0 && p[1] < height;
+    }
+
+    /**
+     * Returns the object to use for changing the state of this canvas, which is {@code this}.
+     *
+     * @return {@code this}.
+     */
+    @Override
+    public CanvasController getController() {
+        return this;
+    }
+
+    /**
+     * Sets a hint to apply on all tiles. Cached tiles are discarded.
+     *
+     * @param hintKey  the key of the hint to set.
+     * @param hint     the hint value, or {@code null} for removing the hint.
+     */
+    @Override
+    public void setRenderingHint(final RenderingHints.Key hintKey, final Object hint) {
+        synchronized (hints) {
+            if (hint == null) {
+                hints.remove(hintKey);
+            } else {
+                hints.put(hintKey, hint);
+            }
+        }
+        tiles.clear();
+    }
+
+    /**
+     * Returns the value of a rendering hint.
+     *
+     * @param  hintKey  the key of the hint to get.
+     * @return the hint value, or {@code null} if none.
+     */
+    @Override
+    public Object getRenderingHint(final RenderingHints.Key hintKey) {
+        synchronized (hints) {
+            return hints.get(hintKey);
+        }
+    }
+
+    /**
+     * Adds a listener to notify when the state of this canvas changed.
+     *
+     * @param listener  the listener to add.
+     */
+    @Override
+    public void addCanvasListener(final CanvasListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener  the listener to remove.
+     */
+    @Override
+    public void removeCanvasListener(final CanvasListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the canvas title.
+     *
+     * @param title  the new title, or {@code null} if none.
+     */
+    @Override
+    public synchronized void setTitle(final InternationalString title) {
+        this.title = title;
+        updateState();
+    }
+
+    /**
+     * Translates the canvas for showing the given objective coordinate in the canvas center.
+     *
+     * @param center  the new center in objective CRS.
+     */
+    @Override
+    public synchronized void setCenter(final DirectPosition center) {
+        if (center.getDimension() != 2) {
+            throw new MismatchedDimensionException();
+        }
+        final double[] p = center.getCoordinate();
+        objectiveToDisplay.transform(p, 0, p, 0, 1);
+        objectiveToDisplay.preConcatenate(AffineTransform.getTranslateInstance(width/2.0 - p[0], height/2.0 - p[1]));
+        updateState();
+    }
+
+    /**
+     * Sets the CRS of the graphics coordinates. This implementation does not transform the graphics:
+     * their coordinates are assumed already expressed in the given CRS.
+     *
+     * @param crs  the new objective CRS.
+     */
+    @Override
+    public synchronized void setObjectiveCRS(final CoordinateReferenceSystem crs) {
+        objectiveCRS = crs;
+        updateState();
+    }
+
+    /**
+     * Zooms by the given factor around the canvas center.
+     *
+     * @param factor  the zoom factor, greater than 1 for zooming in.
+     */
+    public synchronized void zoom(final double factor) {
+        if (!(factor > 0) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("Zoom factor shall be strictly positive.");
+        }
+        final AffineTransform zoom = AffineTransform.getTranslateInstance(width/2.0, height/2.0);
+        zoom.scale(factor, factor);
+        zoom.translate(-width/2.0, -height/2.0);
+        objectiveToDisplay.preConcatenate(zoom);
+        updateState();
+    }
+
+    /**
+     * Creates a new state from the current fields and notifies the listeners.
+     * Shall be invoked in a block synchronized on {@code this}.
+     */
+    private void updateState() {
+        final SimpleCanvasState oldState = state;
+        state = createState();
+        fire(new Event(this, oldState, state, renderingState, renderingState));
+    }
+
+    /**
+     * Sets the rendering state and notifies the listeners.
+     *
+     * @param newValue  the new rendering state.
+     */
+    private void setRenderingState(final RenderingState newValue) {
+        final RenderingState oldValue = renderingState;
+        renderingState = newValue;
+        final SimpleCanvasState s = state;
+        fire(new Event(this, s, s, oldValue, newValue));
+    }
+
+    /**
+     * Sends the given event to all listeners.
+     *
+     * @param event  the event to send.
+     */
+    private void fire(final CanvasEvent event) {
+        for (final CanvasListener listener : listeners) {
+            listener.canvasChanged(event);
+        }
+    }
+
+    /**
+     * Renders all tiles in parallel, then assembles them in a single image.
+     *
+     * @return an image of the whole canvas.
+     */
+    public BufferedImage render() {
+        final SimpleCanvasState s = state;
+        final Prepared p = prepare(s);
+        final List<Callable<BufferedImage>> tasks = new ArrayList<>();
+        final int nx = getTileCountX();
+        final int ny = getTileCountY();
+        for (int ty=0; ty<ny; ty++) {
+            for (int tx=0; tx<nx; tx++) {
+                final int x = tx, y = ty;
+                tasks.add(() -> getTile(s, p, x, y));
+            }
+        }
+        setRenderingState(RenderingState.RENDERING);
+        try {
+            final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            final Graphics2D g = image.createGraphics();
+            try {
+                final Iterator<Future<BufferedImage>> results = pool.invokeAll(tasks).iterator();
+                for (int ty=0; ty<ny; ty++) {
+                    for (int tx=0; tx<nx; tx++) {
+                        g.drawImage(results.next().get(), tx * tileSize, ty * tileSize, null);
+                    }
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Can not render tiles.", e);
+            } finally {
+                g.dispose();
+            }
+            return image;
+        } finally {
+            setRenderingState(RenderingState.ON_HOLD);
+        }
+    }
+
+    /**
+     * Returns the tile at the given index for the current state.
+     * The tile is rendered if it is not in the cache.
+     *
+     * @param  tx  column index of the tile.
+     * @param  ty  row index of the tile.
+     * @return the rendered tile.
+     */
+    public BufferedImage getTile(final int tx, final int ty) {
+        final SimpleCanvasState s = state;
+        return getTile(s, prepare(s), tx, ty);
+    }
+
+    /**
+     * Returns the number of tiles currently in the cache.
+     *
+     * @return number of cached tiles.
+     */
+    final int getCachedTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Returns the tile at the given index for the given state, rendering it if needed.
+     * If two threads render the same tile concurrently, only the first result is cached.
+     * If the graphics have been modified since {@code p} has been prepared, the tile is
+     * returned but not cached.
+     *
+     * @param  s   the state for which to get the tile.
+     * @param  p   the graphics prepared for the given state.
+     * @param  tx  column index of the tile.
+     * @param  ty  row index of the tile.
+     * @return the tile at the given index.
+     */
+    private BufferedImage getTile(final SimpleCanvasState s, final Prepared p, final int tx, final int ty) {
+        final TileKey key = new TileKey(s, tx, ty);
+        BufferedImage tile = tiles.get(key);
+        if (tile == null) {
+            tile = paint(p, tx, ty);
+            if (p.generation == generation.get()) {
+                final BufferedImage existing = tiles.putIfAbsent(key, tile);
+                if (existing != null) {
+                    tile = existing;
+                } else if (p.generation != generation.get()) {
+                    /*
+                     * The graphics have been modified while we were adding the tile. The invalidation
+                     * may have been executed before the tile has been added, so remove it ourselves.
+                     */
+                    tiles.remove(key, tile);
+                }
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Returns the graphics prepared for the given state, computing them if needed.
+     * All coordinates are transformed in a single call.
+     *
+     * @param  s  the state for which to prepare the graphics.
+     * @return the graphics prepared for the given state.
+     */
+    private synchronized Prepared prepare(final SimpleCanvasState s) {
+        Prepared p = prepared;
+        final int g = generation.get();
+        if (p == null || p.generation != g || !p.state.equals(s)) {
+            final List<PolylineGraphic> visible = new ArrayList<>();
+            int numPts = 0;
+            for (final PolylineGraphic graphic : container.graphics()) {
+                if (graphic.isVisible()) {
+                    visible.add(graphic);
+                    numPts += graphic.getPointCount();
+                }
+            }
+            final double[] coordinates = new double[numPts * 2];
+            final int[] offsets = new int[visible.size() + 1];
+            for (int i=0; i<visible.size(); i++) {
+                final PolylineGraphic graphic = visible.get(i);
+                graphic.copyCoordinates(coordinates, offsets[i]);
+                offsets[i+1] = offsets[i] + graphic.getPointCount() * 2;
+            }
+            s.toDisplay(coordinates, numPts);
+            prepared = p = new Prepared(s, g, visible.toArray(new PolylineGraphic[visible.size()]), coordinates, offsets);
+        }
+        return p;
+    }
+
+    /**
+     * Paints the tile at the given index.
+     *
+     * @param  p   the graphics prepared for the current state.
+     * @param  tx  column index of the tile.
+     * @param  ty  row index of the tile.
+     * @return the rendered tile.
+     */
+    private BufferedImage paint(final Prepared p, final int tx, final int ty) {
+        final BufferedImage tile = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = tile.createGraphics();
+        try {
+            synchronized (hints) {
+                g.addRenderingHints(hints);
+            }
+            final double xmin = tx * tileSize;
+            final double ymin = ty * tileSize;
+            g.translate(-xmin, -ymin);
+            for (int i=0; i<p.graphics.length; i++) {
+                final PolylineGraphic graphic = p.graphics[i];
+                final double margin = graphic.getLineWidth() / 2 + 1;
+                final int b = i * 4;
+                if (p.bounds[b] - margin > xmin + tileSize || p.bounds[b+2] + margin < xmin ||
+                    p.bounds[b+1] - margin > ymin + tileSize || p.bounds[b+3] + margin < ymin)
+                {
+                    continue;
+                }
+                final Path2D.Float path = new Path2D.Float();
+                final float[] c = p.coordinates;
+                final int end = p.offsets[i+1];
+                for (int k = p.offsets[i]; k < end; k += 2) {
+                    if (k == p.offsets[i]) {
+                        path.moveTo(c[k], c[k+1]);
+                    } else {
+                        path.lineTo(c[k], c[k+1]);
+                    }
+                }
+                g.setColor(graphic.getColor());
+                g.setStroke(new BasicStroke(graphic.getLineWidth()));
+                g.draw(path);
+            }
+        } finally {
+            g.dispose();
+        }
+        return tile;
+    }
+
+    /**
+     * Discards the cached tiles intersecting the given graphics, in all cached states.
+     * The generation is incremented first, so that tiles being rendered concurrently
+     * with the old graphics will not be cached.
+     *
+     * @param graphics  the graphics which have been added, removed or changed.
+     */
+    private void invalidate(final Collection<Graphic> graphics) {
+        generation.incrementAndGet();
+        prepared = null;
+        Rectangle2D bounds = null;
+        float margin = 0;
+        for (final Graphic graphic : graphics) {
+            if (!(graphic instanceof PolylineGraphic)) {
+                tiles.clear();
+                return;
+            }
+            final PolylineGraphic pg = (PolylineGraphic) graphic;
+            if (bounds == null) {
+                bounds = pg.getBounds();
+            } else {
+                bounds.add(pg.getBounds());
+            }
+            margin = Math.max(margin, pg.getLineWidth() / 2 + 1);
+        }
+        if (bounds == null) {
+            return;
+        }
+        final Map<SimpleCanvasState, Rectangle2D> areas = new HashMap<>();
+        synchronized (tiles) {
+            for (final Iterator<TileKey> it = tiles.keySet().iterator(); it.hasNext();) {
+                final TileKey key = it.next();
+                Rectangle2D area = areas.get(key.state);
+                if (area == null) {
+                    area = key.state.getAffineTransform().createTransformedShape(bounds).getBounds2D();
+                    area.setRect(area.getX() - margin, area.getY() - margin,
+                                 area.getWidth() + 2*margin, area.getHeight() + 2*margin);
+                    areas.put(key.state, area);
+                }
+                if (area.intersects(key.x * tileSize, key.y * tileSize, tileSize, tileSize)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Invoked when graphics are added in the container.
+     *
+     * @param event  the event describing the added graphics.
+     */
+    @Override
+    public void graphicsAdded(final ContainerEvent event) {
+        invalidate(event.getGraphics());
+    }
+
+    /**
+     * Invoked when graphics are removed from the container.
+     *
+     * @param event  the event describing the removed graphics.
+     */
+    @Override
+    public void graphicsRemoved(final ContainerEvent event) {
+        invalidate(event.getGraphics());
+    }
+
+    /**
+     * Invoked when the style of graphics changed.
+     *
+     * @param event  the event describing the changed graphics.
+     */
+    @Override
+    public void graphicsChanged(final ContainerEvent event) {
+        invalidate(event.getGraphics());
+    }
+
+    /**
+     * Invoked when the visibility of graphics changed.
+     *
+     * @param event  the event describing the changed graphics.
+     */
+    @Override
+    public void graphicsDisplayChanged(final ContainerEvent event) {
+        invalidate(event.getGraphics());
+    }
+
+    /**
+     * The cache of rendered tiles, discarding the least recently used tiles when the capacity is exceeded.
+     */
+    @SuppressWarnings("serial")
+    private static final class TileCache extends LinkedHashMap<TileKey, BufferedImage> {
+        /** Maximal number of tiles to keep. */
+        private final int capacity;
+
+        /**
+         * Creates a new cache of the given capacity.
+         *
+         * @param capacity  maximal number of tiles to keep.
+         */
+        TileCache(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        /** Returns {@code true} if the least recently used tile shall be discarded. */
+        @Override protected boolean removeEldestEntry(final Map.Entry<TileKey, BufferedImage> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * Key of a tile in the cache.
+     */
+    private static final class TileKey {
+        /** The canvas state for which the tile has been rendered. */
+        final SimpleCanvasState state;
+
+        /** Column and row indexes of the tile. */
+        final int x, y;
+
+        /**
+         * Creates a new key.
+         *
+         * @param state  the canvas state for which the tile is rendered.
+         * @param x      column index of the tile.
+         * @param y      row index of the tile.
+         */
+        TileKey(final SimpleCanvasState state, final int x, final int y) {
+            this.state = state;
+            this.x = x;
+            this.y = y;
+        }
+
+        /** Returns a hash code value for this key. */
+        @Override public int hashCode() {
+            return state.hashCode() + 31 * (x + 31 * y);
+        }
+
+        /** Compares this key with the given object for equality. */
+        @Override public boolean equals(final Object obj) {
+            if (obj instanceof TileKey) {
+                final TileKey other = (TileKey) obj;
+                return x == other.x && y == other.y && state.equals(other.state);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The visible graphics with their coordinates transformed to display coordinates for a given state.
+     * Instances of this class are immutable and shared by all tile rendering tasks.
+     */
+    private static final class Prepared {
+        /** The state for which the coordinates have been transformed. */
+        final SimpleCanvasState state;
+
+        /** Value of {@link TiledCanvas#generation} when the graphics have been collected. */
+        final int generation;
+
+        /** The visible graphics, in drawing order. */
+        final PolylineGraphic[] graphics;
+
+        /** Display coordinates of all graphics. */
+        final float[] coordinates;
+
+        /** Index of the first coordinate of each graphic, plus the total length at the end. */
+        final int[] offsets;
+
+        /** Display bounds of each graphic as (xmin, ymin, xmax, ymax) tuples. */
+        final float[] bounds;
+
+        /**
+         * Creates a new set of prepared graphics from the given display coordinates.
+         *
+         * @param state       the state for which the coordinates have been transformed.
+         * @param generation  value of {@link TiledCanvas#generation} when the graphics have been collected.
+         * @param graphics    the visible graphics, in drawing order.
+         * @param display     display coordinates of all graphics.
+         * @param offsets     index of the first coordinate of each graphic, plus the total length at the end.
+         */
+        Prepared(final SimpleCanvasState state, final int generation, final PolylineGraphic[] graphics,
+                 final double[] display, final int[] offsets)
+        {
+            this.state      = state;
+            this.generation = generation;
+            this.graphics   = graphics;
+            this.offsets    = offsets;
+            coordinates     = new float[display.length];
+            bounds          = new float[graphics.length * 4];
+            for (int i=0; i<graphics.length; i++) {
+                float xmin = Float.POSITIVE_INFINITY, ymin = Float.POSITIVE_INFINITY;
+                float xmax = Float.NEGATIVE_INFINITY, ymax = Float.NEGATIVE_INFINITY;
+                for (int k=offsets[i]; k<offsets[i+1]; k += 2) {
+                    final float x = (float) display[k];
+                    final float y = (float) display[k+1];
+                    coordinates[k]   = x;
+                    coordinates[k+1] = y;
+                    xmin = Math.min(xmin, x); xmax = Math.max(xmax, x);
+                    ymin = Math.min(ymin, y); ymax = Math.max(ymax, y);
+                }
+                bounds[i*4  ] = xmin;
+                bounds[i*4+1] = ymin;
+                bounds[i*4+2] = xmax;
+                bounds[i*4+3] = ymax;
+            }
+        }
+    }
+
+    /**
+     * The event sent to canvas listeners.
+     */
+    @SuppressWarnings("serial")
+    private static final class Event extends CanvasEvent {
+        /** The old and new canvas states. */
+        private final transient SimpleCanvasState oldState, newState;
+
+        /** The old and new rendering states. */
+        private final RenderingState oldRendering, newRendering;
+
+        /**
+         * Creates a new event.
+         *
+         * @param source        the canvas which fired the event.
+         * @param oldState      the canvas state before the change.
+         * @param newState      the canvas state after the change.
+         * @param oldRendering  the rendering state before the change.
+         * @param newRendering  the rendering state after the change.
+         */
+        Event(final Canvas source, final SimpleCanvasState oldState, final SimpleCanvasState newState,
+              final RenderingState oldRendering, final RenderingState newRendering)
+        {
+            super(source);
+            this.oldState     = oldState;
+            this.newState     = newState;
+            this.oldRendering = oldRendering;
+            this.newRendering = newRendering;
+        }
+
+        @Override public CanvasState    getOldState()          {return oldState;}
+        @Override public CanvasState    getNewState()          {return newState;}
+        @Override public RenderingState getOldRenderingstate() {return oldRendering;}
+        @Override public RenderingState getNewRenderingstate() {return newRendering;}
+
+        /** Returns the change in objective coordinates from the old state to the new state. */
+        @Override public MathTransform getChange() {
+            return getChange(oldState);
+        }
+
+        /** Returns the change in objective coordinates from the given state to the new state. */
+        @Override
+        @Deprecated
+        public MathTransform getChange(final CanvasState other) {
+            final AffineTransform change = ((SimpleCanvasState) other).getAffineTransform();
+            try {
+                change.preConcatenate(newState.getAffineTransform().createInverse());
+            } catch (java.awt.geom.NoninvertibleTransformException e) {
+                throw new IllegalStateException(e);     // Should never happen since SimpleCanvasState verified.
+            }
+            return new AffineTransform2D(change);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+
+/**
+ * Implementation of some interfaces from the {@link org.opengis.display} package.
+ *
+ * <p>Every classes in this package are hereby placed into the Public Domain.
+ * This means anyone is free to do whatever they wish with those files.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+package org.opengis.example.display;
@@ -0,0 +1,528 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.filter;
+
+import java.util.List;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.Serializable;
+
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.query.AdhocQueryExpression;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+
+
+/**
+ * Sorts a stream of features according a {@link SortBy} array, as found in the
+ * {@linkplain AdhocQueryExpression#getSortingClause() sorting clause} of a query.
+ * The property values used as sort keys are evaluated only once per feature,
+ * then features are sorted in memory as long as their number does not exceed the
+ * {@linkplain #setMemoryBudget(int) memory budget}. Above that budget, sorted runs
+ * are written in temporary files and merged when all features have been read.
+ *
+ * <p>Property values are compared as below, which defines a total order over all values:</p>
+ * <ul>
+ *   <li>{@code null} values are before all other values in ascending order.</li>
+ *   <li>Numbers are before character strings, which are before all other values.</li>
+ *   <li>Numbers are compared by their {@code double} values, regardless of their classes.</li>
+ *   <li>Character strings are compared lexicographically.</li>
+ *   <li>Other values of the same class are compared by their natural order if they are {@link Comparable}.
+ *       Values of different classes are compared by their class names, then by their string representations.</li>
+ * </ul>
+ *
+ * The {@link SortBy#NATURAL_ORDER} and {@link SortBy#REVERSE_ORDER} constants sort
+ * the features in the order they were given to this sorter, or in the reverse order.
+ * The sort is stable: features having equal keys stay in their original order.
+ *
+ * <p>Features written in temporary files are serialized with {@link ObjectOutputStream};
+ * they must be {@link Serializable} if the number of features exceeds the memory budget.
+ * Instances of this class are immutable after configuration and can be used concurrently.</p>
+ *
+ * @param <F> the type of features to sort.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class FeatureSorter<F> {
+    /**
+     * Number of records to write in a temporary file before to reset the object stream,
+     * for preventing the stream from keeping references to all features of a run.
+     */
+    private static final int RESET_INTERVAL = 1024;
+
+    /**
+     * The property to use as sort key for each criterion, or {@code null} for the natural order.
+     */
+    private final PropertyName[] properties;
+
+    /**
+     * Whether each criterion is in descending order.
+     */
+    private final boolean[] descending;
+
+    /**
+     * The comparator of records, compiled once from the {@link SortBy} array.
+     */
+    private final Comparator<Record<F>> comparator;
+
+    /**
+     * Maximal number of features to keep in memory.
+     */
+    private int memoryBudget;
+
+    /**
+     * The directory where to create temporary files, or {@code null} for the default directory.
+     */
+    private File directory;
+
+    /**
+     * Creates a new sorter for the given sort criteria.
+     *
+     * @param sortBy  the sort criteria, in decreasing order of significance.
+     */
+    public FeatureSorter(final SortBy... sortBy) {
+        properties = new PropertyName[sortBy.length];
+        descending = new boolean[sortBy.length];
+        for (int i=0; i<sortBy.length; i++) {
+            properties[i] = sortBy[i].getPropertyName();
+            descending[i] = SortOrder.DESCENDING.equals(sortBy[i].getSortOrder());
+        }
+        comparator = this::compare;
+        memoryBudget = 100000;
+    }
+
+    /**
+     * Returns the sort criteria declared in the sorting clause of the given query.
+     * The sorting clause can be {@code null}, a single {@link SortBy}, an array
+     * or a collection of {@code SortBy}.
+     *
+     * @param  query  the query from which to get the sort criteria.
+     * @return the sort criteria, or {@link SortBy#UNSORTED} if none.
+     * @throws IllegalArgumentException if the sorting clause is not one of the above types.
+     */
+    public static SortBy[] getSortBy(final AdhocQueryExpression query) {
+        final Object clause = query.getSortingClause();
+        if (clause == null) {
+            return SortBy.UNSORTED;
+        }
+        if (clause instanceof SortBy) {
+            return new SortBy[] {(SortBy) clause};
+        }
+        if (clause instanceof SortBy[]) {
+            return ((SortBy[]) clause).clone();
+        }
+        if (clause instanceof Collection<?>) {
+            final Collection<?> c = (Collection<?>) clause;
+            if (c.stream().allMatch(SortBy.class::isInstance)) {
+                return c.toArray(new SortBy[c.size()]);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sorting clause: " + clause);
+    }
+
+    /**
+     * Sets the maximal number of features to keep in memory. If the number of features
+     * to sort is greater, then sorted runs are written in temporary files.
+     * The default value is 100000.
+     *
+     * @param count  maximal number of features to keep in memory.
+     */
+    public void setMemoryBudget(final int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Memory budget shall be strictly positive.");
+        }
+        memoryBudget = count;
+    }
+
+    /**
+     * Sets the directory where to create temporary files.
+     *
+     * @param directory  the directory for temporary files, or {@code null} for the system default.
+     */
+    public void setTemporaryDirectory(final File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Sorts all the given features and sends the result to the given consumer.
+     *
+     * @param  features  the features to sort.
+     * @param  output    the consumer where to send the sorted features.
+     * @throws IOException if an error occurred while writing or reading a temporary file.
+     */
+    public void sort(final Iterator<? extends F> features, final Consumer<? super F> output) throws IOException {
+        sort(features, Long.MAX_VALUE, output);
+    }
+
+    /**
+     * Sorts the given features and sends the first {@code limit} ones to the given consumer.
+     * If the limit is not greater than the memory budget, this method keeps only the
+     * {@code limit} smallest features in a bounded heap, without sorting the other features.
+     *
+     * @param  features  the features to sort.
+     * @param  limit     maximal number of features to send to the consumer.
+     * @param  output    the consumer where to send the sorted features.
+     * @throws IOException if an error occurred while writing or reading a temporary file.
+     */
+    public void sort(final Iterator<? extends F> features, final long limit, final Consumer<? super F> output)
+            throws IOException
+    {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit shall be positive.");
+        }
+        if (limit <= memoryBudget) {
+            top(features, (int) limit, output);
+            return;
+        }
+        final List<Record<F>> records = new ArrayList<>();
+        final List<File> files = new ArrayList<>();
+        try {
+            long sequence = 0;
+            while (features.hasNext()) {
+                if (records.size() >= memoryBudget) {
+                    files.add(spill(records));
+                    records.clear();
+                }
+                records.add(new Record<>(sequence++, features.next(), properties));
+            }
+            records.sort(comparator);
+            if (files.isEmpty()) {
+                long n = limit;
+                for (final Record<F> r : records) {
+                    if (--n < 0) break;
+                    output.accept(r.feature);
+                }
+            } else {
+                merge(files, records, limit, output);
+            }
+        } finally {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Sends the {@code limit} smallest features to the given consumer. The features are
+     * kept in a heap where the head is the greatest feature, so that the head can be
+     * replaced when a smaller feature is found.
+     *
+     * @param  features  the features to sort.
+     * @param  limit     maximal number of features to send to the consumer.
+     * @param  output    the consumer where to send the sorted features.
+     */
+    private void top(final Iterator<? extends F> features, final int limit, final Consumer<? super F> output) {
+        if (limit == 0) {
+            return;
+        }
+        final PriorityQueue<Record<F>> heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, comparator.reversed());
+        long sequence = 0;
+        while (features.hasNext()) {
+            final Record<F> r = new Record<>(sequence++, features.next(), properties);
+            if (heap.size() < limit) {
+                heap.add(r);
+            } else if (comparator.compare(r, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(r);
+            }
+        }
+        final List<Record<F>> sorted = new ArrayList<>(heap);
+        sorted.sort(comparator);
+        for (final Record<F> r : sorted) {
+            output.accept(r.feature);
+        }
+    }
+
+    /**
+     * Sorts the given records and writes them in a new temporary file.
+     *
+     * @param  records  the records to sort and write.
+     * @return the temporary file where the records have been written.
+     * @throws IOException if an error occurred while writing the file.
+     */
+    private File spill(final List<Record<F>> records) throws IOException {
+        records.sort(comparator);
+        final File file = File.createTempFile("sort", ".tmp", directory);
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(records.size());
+            int count = 0;
+            for (final Record<F> r : records) {
+                out.writeLong(r.sequence);
+                out.writeObject(r.feature);
+                if (++count % RESET_INTERVAL == 0) {
+                    out.reset();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Merges the sorted runs stored in the given files with the sorted records still in memory.
+     * Each run is closed as soon as it is exhausted; the runs remaining in the queue are closed
+     * when this method exits, even on failure.
+     *
+     * @param  files    the temporary files containing sorted runs.
+     * @param  records  the sorted records still in memory.
+     * @param  limit    maximal number of features to send to the consumer.
+     * @param  output   the consumer where to send the sorted features.
+     * @throws IOException if an error occurred while reading a temporary file.
+     */
+    private void merge(final List<File> files, final List<Record<F>> records, long limit,
+            final Consumer<? super F> output) throws IOException
+    {
+        final PriorityQueue<Run<F>> queue = new PriorityQueue<>(files.size() + 1,
+                (a, b) -> comparator.compare(a.current, b.current));
+        try {
+            for (final File file : files) {
+                final Run<F> run = new FileRun<>(file, properties);
+                boolean added = false;
+                try {
+                    added = run.next() && queue.add(run);
+                } finally {
+                    if (!added) run.close();
+                }
+            }
+            final Run<F> memory = new MemoryRun<>(records.iterator());
+            if (memory.next()) queue.add(memory);
+            while (--limit >= 0) {
+                final Run<F> run = queue.poll();
+                if (run == null) break;
+                boolean more = false;
+                try {
+                    output.accept(run.current.feature);
+                    more = run.next();
+                } finally {
+                    if (more) {
+                        queue.add(run);
+                    } else {
+                        run.close();
+                    }
+                }
+            }
+        } finally {
+            for (final Run<F> run : queue) {
+                run.close();
+            }
+        }
+    }
+
+    /**
+     * Compares two records according the sort criteria, then by sequence number.
+     *
+     * @param  a  the first record to compare.
+     * @param  b  the second record to compare.
+     * @return negative, zero or positive if {@code a} is before, equal or after {@code b}.
+     */
+    private int compare(final Record<F> a, final Record<F> b) {
+        for (int i=0; i<properties.length; i++) {
+            final int c;
+            if (properties[i] == null) {
+                c = Long.compare(a.sequence, b.sequence);
+            } else {
+                c = compareValues(a.keys[i], b.keys[i]);
+            }
+            if (c != 0) {
+                return descending[i] ? -c : c;
+            }
+        }
+        return Long.compare(a.sequence, b.sequence);
+    }
+
+    /**
+     * Compares two property values. See class javadoc for the rules.
+     *
+     * @param  a  the first value to compare, or {@code null}.
+     * @param  b  the second value to compare, or {@code null}.
+     * @return negative, zero or positive if {@code a} is before, equal or after {@code b}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareValues(final Object a, final Object b) {
+        if (a == b)    return  0;
+        if (a == null) return -1;
+        if (b == null) return +1;
+        final int ta = rank(a);
+        final int tb = rank(b);
+        if (ta != tb) {
+            return Integer.compare(ta, tb);
+        }
+        switch (ta) {
+            case 0:  return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+            case 1:  return a.toString().compareTo(b.toString());
+        }
+        final Class<?> ca = a.getClass();
+        final Class<?> cb = b.getClass();
+        if (ca != cb) {
+            final int c = ca.getName().compareTo(cb.getName());
+            if (c != 0) return c;
+        } else if (a instanceof Comparable) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * Returns the position of the type of the given value in the sort order:
+     * 0 for numbers, 1 for character strings and 2 for all other values.
+     *
+     * @param  value  the non-null value for which to get the type position.
+     * @return position of the value type in the sort order.
+     */
+    private static int rank(final Object value) {
+        if (value instanceof Number)       return 0;
+        if (value instanceof CharSequence) return 1;
+        return 2;
+    }
+
+    /**
+     * A feature together with its sort keys and its position in the input stream.
+     */
+    private static final class Record<F> {
+        /** Position of the feature in the input stream. */
+        final long sequence;
+
+        /** The feature. */
+        final F feature;
+
+        /** Values of the properties used as sort keys, evaluated once. */
+        final Object[] keys;
+
+        /**
+         * Creates a new record for the given feature.
+         *
+         * @param sequence    position of the feature in the input stream.
+         * @param feature     the feature.
+         * @param properties  the properties to evaluate as sort keys.
+         */
+        Record(final long sequence, final F feature, final PropertyName[] properties) {
+            this.sequence = sequence;
+            this.feature  = feature;
+            keys = new Object[properties.length];
+            for (int i=0; i<properties.length; i++) {
+                if (properties[i] != null) {
+                    keys[i] = properties[i].evaluate(feature);
+                }
+            }
+        }
+    }
+
+    /**
+     * A sorted sequence of records to merge with other runs.
+     */
+    private abstract static class Run<F> {
+        /** The current record, or {@code null} if none. */
+        Record<F> current;
+
+        /**
+         * Moves to the next record.
+         *
+         * @return {@code false} if there is no more record.
+         * @throws IOException if an error occurred while reading the record.
+         */
+        abstract boolean next() throws IOException;
+
+        /**
+         * Releases the resources used by this run.
+         *
+         * @throws IOException if an error occurred while closing the run.
+         */
+        void close() throws IOException {
+        }
+    }
+
+    /**
+     * A run of records kept in memory.
+     */
+    private static final class MemoryRun<F> extends Run<F> {
+        /** Iterator over the sorted records. */
+        private final Iterator<Record<F>> it;
+
+        /**
+         * Creates a new run for the given sorted records.
+         *
+         * @param it  iterator over the sorted records.
+         */
+        MemoryRun(final Iterator<Record<F>> it) {
+            this.it = it;
+        }
+
+        /** Moves to the next record. */
+        @Override boolean next() {
+            current = it.hasNext() ? it.next() : null;
+            return current != null;
+        }
+    }
+
+    /**
+     * A run of records read from a temporary file.
+     */
+    private static final class FileRun<F> extends Run<F> {
+        /** The stream from which to read the records. */
+        private final ObjectInputStream in;
+
+        /** The properties for computing the sort keys of records read from the file. */
+        private final PropertyName[] properties;
+
+        /** Number of records remaining in the file. */
+        private int remaining;
+
+        /**
+         * Opens the given file.
+         *
+         * @param file        the file containing a sorted run.
+         * @param properties  the properties for computing the sort keys.
+         * @throws IOException if the file can not be opened.
+         */
+        FileRun(final File file, final PropertyName[] properties) throws IOException {
+            in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+            this.properties = properties;
+            remaining = in.readInt();
+        }
+
+        /** Reads the next record. */
+        @Override
+        @SuppressWarnings("unchecked")
+        boolean next() throws IOException {
+            if (--remaining < 0) {
+                current = null;
+                return false;
+            }
+            final long sequence = in.readLong();
+            final F feature;
+            try {
+                feature = (F) in.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Can not deserialize feature.", e);
+            }
+            current = new Record<>(sequence, feature, properties);
+            return true;
+        }
+
+        /** Closes the file. */
+        @Override void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.filter;
+
+import java.util.Set;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.opengis.filter.Id;
+import org.opengis.filter.FilterVisitor;
+import org.opengis.filter.identity.Identifier;
+
+
+/**
+ * An {@link Id} filter which evaluates features in constant time regardless the number of identifiers.
+ * On first use, this filter builds an immutable open-addressing hash table of the identifiers returned
+ * by {@link Id#getIDs()}. If all identifiers are integers or strings in the decimal representation of
+ * integers, the table stores primitive {@code long} values. Otherwise the table stores the string
+ * representations of the identifiers.
+ *
+ * <p>{@link Identifier} instances are replaced by their {@linkplain Identifier#getID() identifier value}.
+ * The identifier of each feature is obtained by a function given at construction time,
+ * then compared to the indexed identifiers by their decimal or string representation.
+ * For example the {@code Integer} 123 matches the {@code "123"} identifier.</p>
+ *
+ * <p>In addition to evaluation, this filter can be used as an access path: the
+ * {@link #lookup(Function, Consumer)} method fetches the features directly from a store
+ * by their identifiers instead of scanning all features of the store.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class IndexedIdFilter implements Id {
+    /**
+     * The filter providing the set of identifiers.
+     */
+    private final Id filter;
+
+    /**
+     * The function computing the identifier of a feature.
+     */
+    private final Function<Object,?> identifierOf;
+
+    /**
+     * The index, created when first needed. This field is not synchronized
+     * since all indexes are immutable: at worst, the index is built twice.
+     */
+    private volatile Index index;
+
+    /**
+     * Creates a new indexed filter for the identifiers of the given filter.
+     *
+     * @param filter        the filter providing the set of identifiers.
+     * @param identifierOf  the function computing the identifier of a feature.
+     */
+    public IndexedIdFilter(final Id filter, final Function<Object,?> identifierOf) {
+        this.filter       = Objects.requireNonNull(filter);
+        this.identifierOf = Objects.requireNonNull(identifierOf);
+    }
+
+    /**
+     * Returns the identifiers of the features to select.
+     *
+     * @return the identifiers of the wrapped filter.
+     */
+    @Override
+    public Set<Object> getIDs() {
+        return filter.getIDs();
+    }
+
+    /**
+     * Returns the identifiers of the features to select.
+     *
+     * @return the identifiers of the wrapped filter.
+     */
+    @Override
+    public Set<Identifier> getIdentifiers() {
+        return filter.getIdentifiers();
+    }
+
+    /**
+     * Returns the index, building it if needed.
+     *
+     * @return the index of the identifiers of the wrapped filter.
+     */
+    private Index index() {
+        Index i = index;
+        if (i == null) {
+            final Object[] ids = filter.getIDs().toArray();
+            final long[] values = new long[ids.length];
+            int count = 0;
+            boolean integers = true;
+            for (int j=0; j<ids.length; j++) {
+                final Object id = unwrap(ids[j]);
+                ids[j] = id;
+                if (id != null && integers) {
+                    final Long value = toLong(id);
+                    if (value != null) {
+                        values[count++] = value;
+                    } else {
+                        integers = false;
+                    }
+                }
+            }
+            index = i = integers ? new LongIndex(values, count) : new StringIndex(ids);
+        }
+        return i;
+    }
+
+    /**
+     * Returns the value of the given identifier if it is an {@link Identifier} instance.
+     *
+     * @param  id  the identifier to unwrap, or {@code null}.
+     * @return the identifier value, or {@code id} itself if it is not an {@link Identifier}.
+     */
+    private static Object unwrap(final Object id) {
+        return (id instanceof Identifier) ? ((Identifier) id).getID() : id;
+    }
+
+    /**
+     * Returns the given identifier as a {@code long} if it is an integer or the decimal representation
+     * of an integer. Strings are accepted only if they are the canonical representation of their value,
+     * so that comparisons of {@code long} values give the same result than comparisons of strings.
+     * For example {@code "123"} is converted but {@code "0123"} and {@code "+123"} are not.
+     *
+     * @param  id  the non-null identifier to convert.
+     * @return the identifier as a {@code long}, or {@code null} if it is not an integer.
+     */
+    private static Long toLong(final Object id) {
+        if ((id instanceof Long) || (id instanceof Integer) || (id instanceof Short) || (id instanceof Byte)) {
+            return ((Number) id).longValue();
+        }
+        final String text = id.toString();
+        final long value;
+        try {
+            value = Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return Long.toString(value).equals(text) ? value : null;
+    }
+
+    /**
+     * Returns {@code true} if the given identifier is one of the identifiers of this filter.
+     *
+     * @param  id  the identifier to test.
+     * @return whether the given identifier is selected by this filter.
+     */
+    public boolean contains(final Object id) {
+        final Object value = unwrap(id);
+        return (value != null) && index().contains(value);
+    }
+
+    /**
+     * Returns {@code true} if the identifier of the given feature is one of the identifiers of this filter.
+     *
+     * @param  feature  the feature to test.
+     * @return whether the given feature is selected by this filter.
+     */
+    @Override
+    public boolean evaluate(final Object feature) {
+        return contains(identifierOf.apply(feature));
+    }
+
+    /**
+     * Fetches the selected features from a store by their identifiers, without scanning the store.
+     * The given function is invoked once for each identifier, typically {@code Map::get} or a
+     * query by primary key. {@link Identifier} instances are replaced by their identifier value
+     * as in {@link #contains(Object)}. Identifiers for which the function returns {@code null}
+     * are skipped.
+     *
+     * @param  <F>     the type of features.
+     * @param  store   the function returning the feature for an identifier, or {@code null} if none.
+     * @param  output  the consumer where to send the features found in the store.
+     */
+    public <F> void lookup(final Function<Object, ? extends F> store, final Consumer<? super F> output) {
+        for (final Object id : filter.getIDs()) {
+            final Object value = unwrap(id);
+            if (value == null) continue;
+            final F feature = store.apply(value);
+            if (feature != null) {
+                output.accept(feature);
+            }
+        }
+    }
+
+    /**
+     * Accepts a visitor.
+     *
+     * @param  visitor    the visitor to accept.
+     * @param  extraData  value to give to the visitor.
+     * @return the value returned by the visitor.
+     */
+    @Override
+    public Object accept(final FilterVisitor visitor, final Object extraData) {
+        return visitor.visit(this, extraData);
+    }
+
+    /**
+     * Spreads the bits of the given hash code, for reducing collisions in tables of power of 2 length.
+     *
+     * @param  h  the hash code or value to mix.
+     * @return the mixed bits.
+     */
+    private static int mix(final long h) {
+        final long m = h * 0x9E3779B97F4A7C15L;
+        return (int) (m ^ (m >>> 32));
+    }
+
+    /**
+     * Returns the length of a table for the given number of elements, as a power of 2
+     * with a load factor not greater than 0.5.
+     *
+     * @param  size  the number of elements to store in the table.
+     * @return the table length.
+     */
+    private static int capacity(final int size) {
+        return Integer.highestOneBit(Math.max(size, 2) * 2 - 1) << 1;
+    }
+
+    /**
+     * An immutable set of identifiers.
+     */
+    private abstract static class Index {
+        /**
+         * Returns whether the given non-null identifier is in this set.
+         *
+         * @param  id  the identifier to search.
+         * @return whether the given identifier is in this set.
+         */
+        abstract boolean contains(Object id);
+    }
+
+    /**
+     * A set of identifiers stored as primitive {@code long} values with linear probing.
+     * The value 0 is used as the marker of empty slots and is stored separately.
+     */
+    private static final class LongIndex extends Index {
+        /** The hash table, with 0 for empty slots. */
+        private final long[] table;
+
+        /** Whether the set contains the value 0. */
+        private final boolean hasZero;
+
+        /**
+         * Builds the table for the given integer identifiers.
+         *
+         * @param values  the identifiers.
+         * @param count   number of valid elements in the {@code values} array.
+         */
+        LongIndex(final long[] values, final int count) {
+            table = new long[capacity(count)];
+            final int mask = table.length - 1;
+            boolean zero = false;
+            for (int j=0; j<count; j++) {
+                final long value = values[j];
+                if (value == 0) {
+                    zero = true;
+                    continue;
+                }
+                int i = mix(value) & mask;
+                while (table[i] != 0 && table[i] != value) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = value;
+            }
+            hasZero = zero;
+        }
+
+        /** Returns whether the given identifier is in this set. */
+        @Override boolean contains(final Object id) {
+            final Long n = toLong(id);
+            if (n == null) {
+                return false;
+            }
+            final long value = n;
+            if (value == 0) {
+                return hasZero;
+            }
+            final int mask = table.length - 1;
+            int i = mix(value) & mask;
+            long e;
+            while ((e = table[i]) != 0) {
+                if (e == value) return true;
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A set of identifiers stored as strings with linear probing.
+     * The hash codes are stored in a separated array for avoiding
+     * most calls to {@link String#equals(Object)}.
+     */
+    private static final class StringIndex extends Index {
+        /** The hash table, with {@code null} for empty slots. */
+        private final String[] table;
+
+        /** The hash codes of the strings in the table. */
+        private final int[] hashes;
+
+        /**
+         * Builds the table for the given identifiers.
+         *
+         * @param ids  the identifiers, which may contain {@code null} elements.
+         */
+        StringIndex(final Object[] ids) {
+            final int capacity = capacity(ids.length);
+            table  = new String[capacity];
+            hashes = new int[capacity];
+            final int mask = capacity - 1;
+            for (final Object id : ids) {
+                if (id == null) continue;
+                final String value = id.toString();
+                final int hash = value.hashCode();
+                int i = mix(hash) & mask;
+                while (table[i] != null && !(hashes[i] == hash && table[i].equals(value))) {
+                    i = (i + 1) & mask;
+                }
+                table[i]  = value;
+                hashes[i] = hash;
+            }
+        }
+
+        /** Returns whether the given identifier is in this set. */
+        @Override boolean contains(final Object id) {
+            final String value = id.toString();
+            final int hash = value.hashCode();
+            final int mask = table.length - 1;
+            int i = mix(hash) & mask;
+            String e;
+            while ((e = table[i]) != null) {
+                if (hashes[i] == hash && e.equals(value)) return true;
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+    }
+}
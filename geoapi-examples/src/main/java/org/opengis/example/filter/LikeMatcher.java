@@ -0,0 +1,489 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.filter;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.LinkedHashMap;
+
+import org.opengis.filter.PropertyIsLike;
+
+
+/**
+ * A {@link PropertyIsLike} pattern compiled into the cheapest matcher for that pattern.
+ * The pattern is parsed once by {@link #compile compile(…)}, then one of the following
+ * strategies is selected:
+ *
+ * <ul>
+ *   <li>Pattern without wildcard: comparison of the whole string.</li>
+ *   <li>Pure prefix ({@code "abc*"}) or suffix ({@code "*abc"}) pattern:
+ *       {@link String#regionMatches(boolean, int, String, int, int)} at the beginning or end of the string.</li>
+ *   <li>Pure contains pattern ({@code "*abc*"}): {@link String#indexOf(String)} if the match is case sensitive.</li>
+ *   <li>Any other pattern: the literal parts between multi-characters wildcards are searched from left to right,
+ *       with the first and last parts anchored at the beginning and end of the string. This is linear for most
+ *       patterns and never needs regular expressions.</li>
+ * </ul>
+ *
+ * Case-insensitive comparisons are done character by character with the same rules than
+ * {@link String#equalsIgnoreCase(String)}, so no lower-case copy of the strings is created.
+ * Compiled matchers are immutable, thread-safe and cached by their pattern.
+ * The cache keeps the most recently used matchers and discards the least recently used ones.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public abstract class LikeMatcher {
+    /**
+     * Maximal number of matchers to keep in the cache.
+     */
+    private static final int CACHE_SIZE = 1000;
+
+    /**
+     * The matchers compiled for previous patterns.
+     * All accesses to this map shall be synchronized on the map.
+     */
+    private static final Cache CACHE = new Cache(CACHE_SIZE);
+
+    /**
+     * Whether the match is case sensitive.
+     */
+    final boolean matchCase;
+
+    /**
+     * For subclass constructors.
+     *
+     * @param matchCase  whether the match is case sensitive.
+     */
+    LikeMatcher(final boolean matchCase) {
+        this.matchCase = matchCase;
+    }
+
+    /**
+     * Returns the matcher for the pattern of the given filter.
+     *
+     * @param  filter  the filter for which to get a matcher.
+     * @return the matcher for the filter pattern.
+     */
+    public static LikeMatcher compile(final PropertyIsLike filter) {
+        return compile(filter.getLiteral(), filter.getWildCard(), filter.getSingleChar(),
+                       filter.getEscape(), filter.isMatchingCase());
+    }
+
+    /**
+     * Returns the matcher for the given pattern. The wildcard, single character and escape
+     * strings can be {@code null} or empty if they are not used by the pattern.
+     *
+     * @param  pattern     the pattern to compile.
+     * @param  wildCard    the wildcard matching any sequence of characters, typically {@code "*"} or {@code "%"}.
+     * @param  singleChar  the wildcard matching exactly one character, typically {@code "?"} or {@code "_"}.
+     * @param  escape      the character used for escaping the wildcards, typically {@code "\\"}.
+     * @param  matchCase   whether the match is case sensitive.
+     * @return the matcher for the given pattern.
+     */
+    public static LikeMatcher compile(final String pattern, final String wildCard, final String singleChar,
+                                      final String escape, final boolean matchCase)
+    {
+        final List<Object> key = Arrays.asList(pattern, wildCard, singleChar, escape, matchCase);
+        LikeMatcher matcher;
+        synchronized (CACHE) {
+            matcher = CACHE.get(key);
+        }
+        if (matcher == null) {
+            matcher = create(pattern, wildCard, singleChar, escape, matchCase);
+            synchronized (CACHE) {
+                final LikeMatcher existing = CACHE.putIfAbsent(key, matcher);
+                if (existing != null) {
+                    matcher = existing;
+                }
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * Evaluates the given filter on the given object.
+     *
+     * @param  filter  the filter to evaluate.
+     * @param  object  the object on which to evaluate the filter expression.
+     * @return whether the expression value matches the filter pattern.
+     */
+    public static boolean evaluate(final PropertyIsLike filter, final Object object) {
+        final Object value = filter.getExpression().evaluate(object);
+        return (value != null) && compile(filter).matches(value.toString());
+    }
+
+    /**
+     * Returns {@code true} if the given text matches the pattern.
+     *
+     * @param  text  the text to test.
+     * @return whether the given text matches the pattern.
+     */
+    public abstract boolean matches(String text);
+
+    /**
+     * Parses the given pattern and creates the cheapest matcher for it.
+     *
+     * @param  pattern     the pattern to compile.
+     * @param  wildCard    the wildcard matching any sequence of characters, or {@code null}.
+     * @param  singleChar  the wildcard matching exactly one character, or {@code null}.
+     * @param  escape      the character used for escaping the wildcards, or {@code null}.
+     * @param  matchCase   whether the match is case sensitive.
+     * @return the matcher for the given pattern.
+     */
+    private static LikeMatcher create(final String pattern, final String wildCard, final String singleChar,
+                                      final String escape, final boolean matchCase)
+    {
+        /*
+         * Split the pattern in the parts separated by multi-characters wildcards.
+         * In each part, the positions of single character wildcards are flagged.
+         */
+        final List<Part> parts = new ArrayList<>();
+        final StringBuilder buffer = new StringBuilder();
+        final StringBuilder singles = new StringBuilder();
+        boolean anchoredStart = true;
+        boolean anchoredEnd = true;
+        boolean hasSingle = false;
+        final int length = pattern.length();
+        int i = 0;
+        while (i < length) {
+            if (startsWith(pattern, escape, i)) {
+                i += escape.length();
+                if (i < length) {
+                    final int c = pattern.codePointAt(i);
+                    buffer.appendCodePoint(c);
+                    while (singles.length() < buffer.length()) singles.append('0');
+                    i += Character.charCount(c);
+                }
+                anchoredEnd = true;
+            } else if (startsWith(pattern, wildCard, i)) {
+                i += wildCard.length();
+                if (buffer.length() != 0) {
+                    parts.add(new Part(buffer, singles));
+                    buffer.setLength(0);
+                    singles.setLength(0);
+                } else if (parts.isEmpty()) {
+                    anchoredStart = false;
+                }
+                anchoredEnd = false;
+            } else if (startsWith(pattern, singleChar, i)) {
+                i += singleChar.length();
+                buffer.append('\u0000');
+                singles.append('1');
+                hasSingle = true;
+                anchoredEnd = true;
+            } else {
+                final char c = pattern.charAt(i++);
+                buffer.append(c);
+                singles.append('0');
+                anchoredEnd = true;
+            }
+        }
+        if (buffer.length() != 0) {
+            parts.add(new Part(buffer, singles));
+        }
+        /*
+         * Select the cheapest matcher. Note that anchoredStart is false if the pattern starts with a
+         * wildcard, and anchoredEnd is false if the pattern ends with a wildcard.
+         */
+        if (parts.isEmpty()) {
+            return anchoredEnd ? new Exact("", matchCase) : new Any();
+        }
+        if (!hasSingle && parts.size() == 1) {
+            final String text = parts.get(0).text;
+            final boolean hasWildcard = !(anchoredStart & anchoredEnd);
+            if (!hasWildcard)   return new Exact(text, matchCase);
+            if (anchoredStart)  return new Prefix(text, matchCase);
+            if (anchoredEnd)    return new Suffix(text, matchCase);
+            return new Contains(text, matchCase);
+        }
+        final boolean hasWildcard = !(anchoredStart & anchoredEnd) || parts.size() > 1;
+        return new General(parts.toArray(new Part[parts.size()]), anchoredStart, anchoredEnd, hasWildcard, matchCase);
+    }
+
+    /**
+     * Returns {@code true} if the given pattern contains the given non-empty token at the given position.
+     *
+     * @param  pattern  the pattern to check.
+     * @param  token    the token to search, or {@code null}.
+     * @param  index    position in the pattern where to search the token.
+     * @return whether the pattern contains the token at the given position.
+     */
+    private static boolean startsWith(final String pattern, final String token, final int index) {
+        return token != null && !token.isEmpty() && pattern.startsWith(token, index);
+    }
+
+    /**
+     * Compares two characters with the same rules than {@link String#equalsIgnoreCase(String)}
+     * if {@link #matchCase} is {@code false}.
+     *
+     * @param  a  the first character to compare.
+     * @param  b  the second character to compare.
+     * @return whether the two characters are considered the same.
+     */
+    final boolean same(final char a, final char b) {
+        if (a == b) return true;
+        if (matchCase) return false;
+        final char ua = Character.toUpperCase(a);
+        final char ub = Character.toUpperCase(b);
+        return ua == ub || Character.toLowerCase(ua) == Character.toLowerCase(ub);
+    }
+
+    /**
+     * The cache of compiled matchers, discarding the least recently used matchers when the capacity is exceeded.
+     */
+    @SuppressWarnings("serial")
+    private static final class Cache extends LinkedHashMap<List<Object>, LikeMatcher> {
+        /** Maximal number of matchers to keep. */
+        private final int capacity;
+
+        /**
+         * Creates a new cache of the given capacity.
+         *
+         * @param capacity  maximal number of matchers to keep.
+         */
+        Cache(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        /** Returns {@code true} if the least recently used matcher shall be discarded. */
+        @Override protected boolean removeEldestEntry(final Map.Entry<List<Object>, LikeMatcher> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * A part of the pattern between two multi-characters wildcards.
+     */
+    private static final class Part {
+        /** The characters to match. Characters at the position of single wildcards are ignored. */
+        final String text;
+
+        /** Whether each character is a single character wildcard, or {@code null} if none. */
+        final boolean[] singles;
+
+        /**
+         * Creates a new part.
+         *
+         * @param text   the characters to match.
+         * @param flags  {@code '1'} at the position of each single character wildcard, {@code '0'} elsewhere.
+         */
+        Part(final CharSequence text, final CharSequence flags) {
+            this.text = text.toString();
+            boolean[] s = null;
+            for (int i=0; i<flags.length(); i++) {
+                if (flags.charAt(i) == '1') {
+                    if (s == null) s = new boolean[flags.length()];
+                    s[i] = true;
+                }
+            }
+            singles = s;
+        }
+    }
+
+    /**
+     * Matches any string.
+     */
+    private static final class Any extends LikeMatcher {
+        /** Creates a matcher for any string. */
+        Any() {super(true);}
+
+        /** Returns {@code true} in all cases. */
+        @Override public boolean matches(final String text) {
+            return true;
+        }
+    }
+
+    /**
+     * Matches a string equals to a literal.
+     */
+    private static final class Exact extends LikeMatcher {
+        /** The literal to search. */
+        private final String literal;
+
+        /**
+         * Creates a matcher for strings equal to the given literal.
+         *
+         * @param literal    the literal to search.
+         * @param matchCase  whether the match is case sensitive.
+         */
+        Exact(final String literal, final boolean matchCase) {super(matchCase); this.literal = literal;}
+
+        /** Returns whether the given text is equal to the literal. */
+        @Override public boolean matches(final String text) {
+            return matchCase ? literal.equals(text) : literal.equalsIgnoreCase(text);
+        }
+    }
+
+    /**
+     * Matches a string starting with a literal.
+     */
+    private static final class Prefix extends LikeMatcher {
+        /** The literal to search. */
+        private final String literal;
+
+        /**
+         * Creates a matcher for strings starting with the given literal.
+         *
+         * @param literal    the literal to search.
+         * @param matchCase  whether the match is case sensitive.
+         */
+        Prefix(final String literal, final boolean matchCase) {super(matchCase); this.literal = literal;}
+
+        /** Returns whether the given text starts with the literal. */
+        @Override public boolean matches(final String text) {
+            return text.regionMatches(!matchCase, 0, literal, 0, literal.length());
+        }
+    }
+
+    /**
+     * Matches a string ending with a literal.
+     */
+    private static final class Suffix extends LikeMatcher {
+        /** The literal to search. */
+        private final String literal;
+
+        /**
+         * Creates a matcher for strings ending with the given literal.
+         *
+         * @param literal    the literal to search.
+         * @param matchCase  whether the match is case sensitive.
+         */
+        Suffix(final String literal, final boolean matchCase) {super(matchCase); this.literal = literal;}
+
+        /** Returns whether the given text ends with the literal. */
+        @Override public boolean matches(final String text) {
+            final int start = text.length() - literal.length();
+            return start >= 0 && text.regionMatches(!matchCase, start, literal, 0, literal.length());
+        }
+    }
+
+    /**
+     * Matches a string containing a literal.
+     */
+    private static final class Contains extends LikeMatcher {
+        /** The literal to search. */
+        private final String literal;
+
+        /**
+         * Creates a matcher for strings containing the given literal.
+         *
+         * @param literal    the literal to search.
+         * @param matchCase  whether the match is case sensitive.
+         */
+        Contains(final String literal, final boolean matchCase) {super(matchCase); this.literal = literal;}
+
+        /** Returns whether the given text contains the literal. */
+        @Override public boolean matches(final String text) {
+            if (matchCase) {
+                return text.indexOf(literal) >= 0;
+            }
+            final int length = literal.length();
+            final int end = text.length() - length;
+            for (int i=0; i<=end; i++) {
+                if (text.regionMatches(true, i, literal, 0, length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Matches a string against an arbitrary pattern. The first and last parts are anchored at the
+     * beginning and end of the string if the pattern does not start or end with a wildcard. Other
+     * parts are searched from left to right; choosing the leftmost occurrence of each part is always
+     * optimal, so no backtracking is needed.
+     */
+    private static final class General extends LikeMatcher {
+        /** The parts of the pattern between multi-characters wildcards. */
+        private final Part[] parts;
+
+        /** Whether the first part is anchored at the beginning of the string. */
+        private final boolean anchoredStart;
+
+        /** Whether the last part is anchored at the end of the string. */
+        private final boolean anchoredEnd;
+
+        /** Whether the pattern contains at least one multi-characters wildcard. */
+        private final boolean hasWildcard;
+
+        /**
+         * Creates a matcher for the given parts.
+         *
+         * @param parts          the parts of the pattern between multi-characters wildcards.
+         * @param anchoredStart  whether the first part is anchored at the beginning of the string.
+         * @param anchoredEnd    whether the last part is anchored at the end of the string.
+         * @param hasWildcard    whether the pattern contains at least one multi-characters wildcard.
+         * @param matchCase      whether the match is case sensitive.
+         */
+        General(final Part[] parts, final boolean anchoredStart, final boolean anchoredEnd,
+                final boolean hasWildcard, final boolean matchCase)
+        {
+            super(matchCase);
+            this.parts         = parts;
+            this.anchoredStart = anchoredStart;
+            this.anchoredEnd   = anchoredEnd;
+            this.hasWildcard   = hasWildcard;
+        }
+
+        /**
+         * Returns whether the given part matches the text at the given position.
+         *
+         * @param  part      the part to compare with the text.
+         * @param  text      the text to test.
+         * @param  position  position in the text where to compare the part.
+         * @return whether the part matches the text at the given position.
+         */
+        private boolean matchAt(final Part part, final String text, final int position) {
+            final String p = part.text;
+            final boolean[] singles = part.singles;
+            for (int k=p.length(); --k >= 0;) {
+                if ((singles == null || !singles[k]) && !same(text.charAt(position + k), p.charAt(k))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Returns whether the given text matches all parts of the pattern. */
+        @Override public boolean matches(final String text) {
+            int start = 0;
+            int end   = text.length();
+            int first = 0;
+            int last  = parts.length;
+            if (!hasWildcard) {
+                return text.length() == parts[0].text.length() && matchAt(parts[0], text, 0);
+            }
+            if (anchoredStart) {
+                final Part part = parts[first++];
+                if (part.text.length() > end || !matchAt(part, text, 0)) return false;
+                start = part.text.length();
+            }
+            if (anchoredEnd) {
+                final Part part = parts[--last];
+                end -= part.text.length();
+                if (end < start || !matchAt(part, text, end)) return false;
+            }
+            for (int i=first; i<last; i++) {
+                final Part part = parts[i];
+                final int limit = end - part.text.length();
+                while (true) {
+                    if (start > limit) return false;
+                    if (matchAt(part, text, start)) break;
+                    start++;
+                }
+                start += part.text.length();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.filter;
+
+import java.util.List;
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+import org.opengis.filter.And;
+import org.opengis.filter.Or;
+import org.opengis.filter.Filter;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.temporal.After;
+import org.opengis.filter.temporal.AnyInteracts;
+import org.opengis.filter.temporal.Before;
+import org.opengis.filter.temporal.Begins;
+import org.opengis.filter.temporal.BegunBy;
+import org.opengis.filter.temporal.BinaryTemporalOperator;
+import org.opengis.filter.temporal.During;
+import org.opengis.filter.temporal.EndedBy;
+import org.opengis.filter.temporal.Ends;
+import org.opengis.filter.temporal.Meets;
+import org.opengis.filter.temporal.MetBy;
+import org.opengis.filter.temporal.OverlappedBy;
+import org.opengis.filter.temporal.TContains;
+import org.opengis.filter.temporal.TEquals;
+import org.opengis.filter.temporal.TOverlaps;
+import org.opengis.temporal.Instant;
+import org.opengis.temporal.Period;
+import org.opengis.example.temporal.SimpleInstant;
+import org.opengis.example.temporal.SimplePeriod;
+
+
+/**
+ * An index of the time periods of a list of features, for evaluating temporal filters without
+ * scanning all features. The beginning and ending times of all periods are stored as {@code long}
+ * values in two arrays, one sorted by beginning time and the other sorted by ending time.
+ * Each {@linkplain Operator temporal operator} is a condition on the beginning time combined
+ * with a condition on the ending time; the index finds by binary search the range of features
+ * satisfying each condition, then scans the smallest range for checking the other condition.
+ *
+ * <p>The {@link #filter(Filter, Consumer)} method recognizes the {@link BinaryTemporalOperator}s
+ * comparing the indexed property with a literal period or instant, including inside {@link And}
+ * and {@link Or} filters, and routes them to the index. Other filters are evaluated on each feature
+ * selected by the index, or on all features if the index can not be used.</p>
+ *
+ * <p>Times are stored as nanoseconds since January 1st, 1970, taken directly from the {@code long}
+ * values of {@link SimpleInstant} and {@link SimplePeriod}, or computed from {@link Instant#getDate()}
+ * for other implementations. Sub-millisecond differences are therefore preserved by the equality-based
+ * operators such as {@link Operator#MEETS} or {@link Operator#EQUALS}.
+ * Instants are indexed as periods of zero length. Features having no temporal value are never selected
+ * by temporal operators. Instances of this class are immutable and thread-safe.</p>
+ *
+ * @param <F> the type of features in the index.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class TemporalIndex<F> {
+    /**
+     * The temporal operators defined by the Filter Encoding specification.
+     * The conditions given in the documentation of each constant are for a feature period
+     * <var>A</var> compared to a literal period <var>B</var>.
+     */
+    public enum Operator {
+        /** <var>A</var>.begin &gt; <var>B</var>.end. */
+        AFTER,
+        /** <var>A</var>.end &lt; <var>B</var>.begin. */
+        BEFORE,
+        /** <var>A</var>.begin = <var>B</var>.begin and <var>A</var>.end &lt; <var>B</var>.end. */
+        BEGINS,
+        /** <var>A</var>.begin = <var>B</var>.begin and <var>A</var>.end &gt; <var>B</var>.end. */
+        BEGUN_BY,
+        /** <var>A</var>.begin &gt; <var>B</var>.begin and <var>A</var>.end &lt; <var>B</var>.end. */
+        DURING,
+        /** <var>A</var>.begin &lt; <var>B</var>.begin and <var>A</var>.end &gt; <var>B</var>.end. */
+        CONTAINS,
+        /** <var>A</var>.begin = <var>B</var>.begin and <var>A</var>.end = <var>B</var>.end. */
+        EQUALS,
+        /** <var>A</var>.begin &gt; <var>B</var>.begin and <var>A</var>.end = <var>B</var>.end. */
+        ENDS,
+        /** <var>A</var>.begin &lt; <var>B</var>.begin and <var>A</var>.end = <var>B</var>.end. */
+        ENDED_BY,
+        /** <var>A</var>.end = <var>B</var>.begin. */
+        MEETS,
+        /** <var>A</var>.begin = <var>B</var>.end. */
+        MET_BY,
+        /** <var>A</var>.begin &lt; <var>B</var>.begin &lt; <var>A</var>.end &lt; <var>B</var>.end. */
+        OVERLAPS,
+        /** <var>B</var>.begin &lt; <var>A</var>.begin &lt; <var>B</var>.end &lt; <var>A</var>.end. */
+        OVERLAPPED_BY,
+        /** Any of the above except {@link #BEFORE} and {@link #AFTER}. */
+        ANY_INTERACTS;
+
+        /**
+         * Returns the operator implemented by the given filter.
+         *
+         * @param  filter  the temporal filter.
+         * @return the operator of the given filter, or {@code null} if unknown.
+         */
+        public static Operator of(final BinaryTemporalOperator filter) {
+            if (filter instanceof After)        return AFTER;
+            if (filter instanceof Before)       return BEFORE;
+            if (filter instanceof Begins)       return BEGINS;
+            if (filter instanceof BegunBy)      return BEGUN_BY;
+            if (filter instanceof During)       return DURING;
+            if (filter instanceof TContains)    return CONTAINS;
+            if (filter instanceof TEquals)      return EQUALS;
+            if (filter instanceof Ends)         return ENDS;
+            if (filter instanceof EndedBy)      return ENDED_BY;
+            if (filter instanceof Meets)        return MEETS;
+            if (filter instanceof MetBy)        return MET_BY;
+            if (filter instanceof TOverlaps)    return OVERLAPS;
+            if (filter instanceof OverlappedBy) return OVERLAPPED_BY;
+            if (filter instanceof AnyInteracts) return ANY_INTERACTS;
+            return null;
+        }
+    }
+
+    /**
+     * Number of nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    /**
+     * The indexed features.
+     */
+    private final List<? extends F> features;
+
+    /**
+     * Name of the property providing the temporal value of features.
+     */
+    private final String property;
+
+    /**
+     * Beginning and ending times of features, in the order of the {@link #features} list.
+     */
+    private final long[] begins, ends;
+
+    /**
+     * Beginning times sorted in increasing order.
+     */
+    private final long[] sortedBegins;
+
+    /**
+     * Index of the feature for each time in the {@link #sortedBegins} array.
+     */
+    private final int[] byBegin;
+
+    /**
+     * Ending times sorted in increasing order.
+     */
+    private final long[] sortedEnds;
+
+    /**
+     * Index of the feature for each time in the {@link #sortedEnds} array.
+     */
+    private final int[] byEnd;
+
+    /**
+     * Creates an index of the temporal values of the given features.
+     * The list shall not be modified after this constructor call.
+     *
+     * @param  features  the features to index.
+     * @param  property  the property providing the {@link Instant} or {@link Period} of each feature.
+     * @throws ArithmeticException if a date is too far from 1970 for a {@code long} number of nanoseconds.
+     */
+    public TemporalIndex(final List<? extends F> features, final PropertyName property) {
+        this.features = features;
+        this.property = property.getPropertyName();
+        final int n = features.size();
+        begins = new long[n];
+        ends   = new long[n];
+        final int[] valid = new int[n];
+        final long[] bounds = new long[2];
+        int count = 0;
+        for (int i=0; i<n; i++) {
+            if (bounds(property.evaluate(features.get(i)), bounds)) {
+                begins[i] = bounds[0];
+                ends  [i] = bounds[1];
+                valid[count++] = i;
+            }
+        }
+        byBegin = Arrays.copyOf(valid, count);
+        byEnd   = byBegin.clone();
+        sort(byBegin, begins, new int[count], 0, count);
+        sort(byEnd,   ends,   new int[count], 0, count);
+        sortedBegins = new long[count];
+        sortedEnds   = new long[count];
+        for (int i=0; i<count; i++) {
+            sortedBegins[i] = begins[byBegin[i]];
+            sortedEnds  [i] = ends  [byEnd  [i]];
+        }
+    }
+
+    /**
+     * Sorts the given feature indexes by increasing times with a merge sort on primitive arrays.
+     * This is stable, so features having the same time stay in increasing index order.
+     *
+     * @param indexes  the feature indexes to sort.
+     * @param times    the time of each feature.
+     * @param buffer   a temporary array of the same length than {@code indexes}.
+     * @param lower    index of the first element to sort, inclusive.
+     * @param upper    index of the last element to sort, exclusive.
+     */
+    private static void sort(final int[] indexes, final long[] times, final int[] buffer, final int lower, final int upper) {
+        if (upper - lower < 2) {
+            return;
+        }
+        final int mid = (lower + upper) >>> 1;
+        sort(indexes, times, buffer, lower, mid);
+        sort(indexes, times, buffer, mid, upper);
+        if (times[indexes[mid - 1]] <= times[indexes[mid]]) {
+            return;                                             // Already sorted.
+        }
+        System.arraycopy(indexes, lower, buffer, lower, upper - lower);
+        int i = lower, j = mid, k = lower;
+        while (i < mid && j < upper) {
+            indexes[k++] = (times[buffer[j]] < times[buffer[i]]) ? buffer[j++] : buffer[i++];
+        }
+        while (i < mid)   indexes[k++] = buffer[i++];
+        while (j < upper) indexes[k++] = buffer[j++];
+    }
+
+    /**
+     * Converts the given date to nanoseconds since January 1st, 1970.
+     *
+     * @param  date  the date to convert.
+     * @return the date in nanoseconds since January 1st, 1970.
+     * @throws ArithmeticException if the date is too far from 1970 for a {@code long} number of nanoseconds.
+     */
+    private static long toNanos(final Date date) {
+        return Math.multiplyExact(date.getTime(), NANOS_PER_MILLI);
+    }
+
+    /**
+     * Stores the beginning and ending times of the given temporal object in the given array.
+     *
+     * @param  value   the {@link Instant} or {@link Period}, or {@code null}.
+     * @param  bounds  where to store the beginning and ending times, in nanoseconds since epoch.
+     * @return {@code false} if the given value has no beginning and ending times.
+     * @throws ArithmeticException if a date is too far from 1970 for a {@code long} number of nanoseconds.
+     */
+    static boolean bounds(final Object value, final long[] bounds) {
+        if (value instanceof SimplePeriod) {
+            final SimplePeriod period = (SimplePeriod) value;
+            bounds[0] = period.getBeginNanos();
+            bounds[1] = period.getEndNanos();
+            return true;
+        } else if (value instanceof SimpleInstant) {
+            bounds[0] = bounds[1] = ((SimpleInstant) value).getEpochNanos();
+            return true;
+        } else if (value instanceof Instant) {
+            final Date date = ((Instant) value).getDate();
+            if (date != null) {
+                bounds[0] = bounds[1] = toNanos(date);
+                return true;
+            }
+        } else if (value instanceof Period) {
+            final Period period = (Period) value;
+            final Instant begin = period.getBeginning();
+            final Instant end   = period.getEnding();
+            if (begin != null && end != null) {
+                final Date b = begin.getDate();
+                final Date e = end.getDate();
+                if (b != null && e != null) {
+                    bounds[0] = toNanos(b);
+                    bounds[1] = toNanos(e);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of indexed features.
+     *
+     * @return number of features in the index.
+     */
+    public int size() {
+        return features.size();
+    }
+
+    /**
+     * Returns the indexes of features satisfying the given operator with the given period.
+     *
+     * @param  operator  the temporal operator.
+     * @param  begin     the beginning time of the literal period, in nanoseconds since epoch.
+     * @param  end       the ending time of the literal period, in nanoseconds since epoch.
+     * @return indexes in the feature list of the features satisfying the operator.
+     */
+    public BitSet select(final Operator operator, final long begin, final long end) {
+        final long MIN = Long.MIN_VALUE, MAX = Long.MAX_VALUE;
+        final long bp = inc(begin), bm = dec(begin), ep = inc(end), em = dec(end);
+        switch (operator) {
+            case AFTER:         return select(ep,  MAX, MIN, MAX);
+            case BEFORE:        return select(MIN, MAX, MIN, bm);
+            case BEGINS:        return select(begin, begin, MIN, em);
+            case BEGUN_BY:      return select(begin, begin, ep, MAX);
+            case DURING:        return select(bp,  MAX, MIN, em);
+            case CONTAINS:      return select(MIN, bm,  ep,  MAX);
+            case EQUALS:        return select(begin, begin, end, end);
+            case ENDS:          return select(bp,  MAX, end, end);
+            case ENDED_BY:      return select(MIN, bm,  end, end);
+            case MEETS:         return select(MIN, MAX, begin, begin);
+            case MET_BY:        return select(end, end, MIN, MAX);
+            case OVERLAPS:      return select(MIN, bm,  bp,  em);
+            case OVERLAPPED_BY: return select(bp,  em,  ep,  MAX);
+            case ANY_INTERACTS: return select(MIN, end, begin, MAX);
+            default: throw new AssertionError(operator);
+        }
+    }
+
+    /**
+     * Increments the given time, saturating at the maximal value.
+     *
+     * @param  t  the time to increment.
+     * @return the incremented time.
+     */
+    private static long inc(final long t) {return (t == Long.MAX_VALUE) ? t : t + 1;}
+
+    /**
+     * Decrements the given time, saturating at the minimal value.
+     *
+     * @param  t  the time to decrement.
+     * @return the decremented time.
+     */
+    private static long dec(final long t) {return (t == Long.MIN_VALUE) ? t : t - 1;}
+
+    /**
+     * Returns the indexes of features having a beginning time in the given range
+     * and an ending time in the other given range. All bounds are inclusive.
+     *
+     * @param  beginMin  minimal beginning time, inclusive.
+     * @param  beginMax  maximal beginning time, inclusive.
+     * @param  endMin    minimal ending time, inclusive.
+     * @param  endMax    maximal ending time, inclusive.
+     * @return indexes of features in the given ranges.
+     */
+    private BitSet select(final long beginMin, final long beginMax, final long endMin, final long endMax) {
+        final BitSet result = new BitSet(features.size());
+        if (beginMin > beginMax || endMin > endMax) {
+            return result;
+        }
+        final int b0 = lowerBound(sortedBegins, beginMin);
+        final int b1 = upperBound(sortedBegins, beginMax);
+        final int e0 = lowerBound(sortedEnds, endMin);
+        final int e1 = upperBound(sortedEnds, endMax);
+        if (b1 - b0 <= e1 - e0) {
+            for (int i=b0; i<b1; i++) {
+                final int f = byBegin[i];
+                final long t = ends[f];
+                if (t >= endMin && t <= endMax) result.set(f);
+            }
+        } else {
+            for (int i=e0; i<e1; i++) {
+                final int f = byEnd[i];
+                final long t = begins[f];
+                if (t >= beginMin && t <= beginMax) result.set(f);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the first value greater than or equal to the given value.
+     *
+     * @param  sorted  the values sorted in increasing order.
+     * @param  value   the value to search.
+     * @return index of the first value greater than or equal to the given value.
+     */
+    private static int lowerBound(final long[] sorted, final long value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index after the last value less than or equal to the given value.
+     *
+     * @param  sorted  the values sorted in increasing order.
+     * @param  value   the value to search.
+     * @return index after the last value less than or equal to the given value.
+     */
+    private static int upperBound(final long[] sorted, final long value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the indexes of features satisfying the given filter, or {@code null} if the index
+     * can not be used for that filter. For {@link And} filters, the children that can not be
+     * answered by the index are added to the {@code residual} list; the returned set contains
+     * the features satisfying all other children, and the residual filters still need to be
+     * evaluated on them. For all other filters, the returned set is exact.
+     *
+     * @param  filter    the filter for which to select features.
+     * @param  residual  where to add the filters that still need to be evaluated.
+     * @return indexes of features satisfying the filter, or {@code null} if the index can not be used.
+     */
+    private BitSet select(final Filter filter, final List<Filter> residual) {
+        if (filter instanceof BinaryTemporalOperator) {
+            final BinaryTemporalOperator op = (BinaryTemporalOperator) filter;
+            final Operator operator = Operator.of(op);
+            final Expression e1 = op.getExpression1();
+            final Expression e2 = op.getExpression2();
+            if (operator != null && e1 instanceof PropertyName && e2 instanceof Literal
+                    && property.equals(((PropertyName) e1).getPropertyName()))
+            {
+                final long[] bounds = new long[2];
+                if (bounds(((Literal) e2).getValue(), bounds)) {
+                    return select(operator, bounds[0], bounds[1]);
+                }
+            }
+        } else if (filter instanceof And) {
+            BitSet result = null;
+            for (final Filter child : ((And) filter).getChildren()) {
+                final BitSet c = (residual != null) ? select(child, residual) : null;
+                if (c == null) {
+                    if (residual == null) return null;
+                    residual.add(child);
+                } else if (result == null) {
+                    result = c;
+                } else {
+                    result.and(c);
+                }
+            }
+            return result;
+        } else if (filter instanceof Or) {
+            final BitSet result = new BitSet(features.size());
+            for (final Filter child : ((Or) filter).getChildren()) {
+                final BitSet c = select(child, null);
+                if (c == null) return null;
+                result.or(c);
+            }
+            return result;
+        } else if (filter == Filter.EXCLUDE) {
+            return new BitSet();
+        }
+        return null;
+    }
+
+    /**
+     * Sends to the given consumer all features satisfying the given filter, in the order of the feature list.
+     * Temporal predicates on the indexed property are answered by the index, and other predicates are
+     * evaluated only on the features selected by the index.
+     *
+     * @param filter  the filter to apply.
+     * @param output  the consumer where to send the features satisfying the filter.
+     */
+    public void filter(final Filter filter, final Consumer<? super F> output) {
+        final List<Filter> residual = new ArrayList<>();
+        final BitSet selected = select(filter, residual);
+        if (selected == null) {
+            for (final F feature : features) {
+                if (filter.evaluate(feature)) {
+                    output.accept(feature);
+                }
+            }
+        } else {
+next:       for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i+1)) {
+                final F feature = features.get(i);
+                for (final Filter r : residual) {
+                    if (!r.evaluate(feature)) continue next;
+                }
+                output.accept(feature);
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.util.Arrays;
+
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.cs.RangeMeaning;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Transforms two-dimensional envelopes, taking in account the curvature of the envelope edges
+ * in the target CRS. Transforming only the envelope corners is not sufficient for most map
+ * projections, since the extremum of a transformed edge may be located between two corners.
+ * This class samples the envelope edges with a density adapted to the transform curvature:
+ *
+ * <ol>
+ *   <li>Each edge is recursively split in two halves until the deviation of the transformed edge
+ *       from a straight line, estimated from the {@linkplain MathTransform#derivative derivatives}
+ *       at the segment extremities, is smaller than the {@linkplain #setTolerance tolerance}.
+ *       Nearly linear areas are therefore sampled with few points, while curved areas get more.</li>
+ *   <li>All sampled points are transformed in a single call to
+ *       {@link MathTransform#transform(double[], int, double[], int, int)}.</li>
+ *   <li>If the target CRS has an axis with {@link RangeMeaning#WRAPAROUND} (typically longitude),
+ *       values along that axis are made continuous along the envelope boundary. If the boundary
+ *       goes around the world, the full axis range is used.</li>
+ *   <li>If the target CRS has a North or South axis with a finite range (typically latitude),
+ *       the pole points are transformed back to the source CRS. Poles located inside the
+ *       source envelope extend the result to the axis limits.</li>
+ * </ol>
+ *
+ * If the transform can not compute derivatives, each edge is split in a fixed number of segments.
+ * The {@link SimpleEnvelope} class does not support envelopes crossing the anti-meridian, so for
+ * such envelopes the upper value along the wrap-around axis may be greater than the axis maximum.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class EnvelopeTransformer {
+    /**
+     * Number of segments in each edge before adaptive refinement.
+     */
+    private static final int INITIAL_SEGMENTS = 4;
+
+    /**
+     * The transform from source to target coordinates. Source dimension shall be 2.
+     */
+    private final MathTransform transform;
+
+    /**
+     * The coordinate reference system of the transformed envelopes, or {@code null} if unspecified.
+     */
+    private final CoordinateReferenceSystem targetCRS;
+
+    /**
+     * Maximal deviation in target units, or {@code NaN} for a value relative to the envelope size.
+     */
+    private double tolerance;
+
+    /**
+     * Maximal number of times that a segment can be split in two halves.
+     */
+    private int maximalDepth;
+
+    /**
+     * Creates a new envelope transformer.
+     *
+     * @param transform  the transform from source to target coordinates. Source dimension shall be 2.
+     * @param targetCRS  the CRS of the transformed envelopes, or {@code null} if unspecified.
+     *        If non-null, the axis ranges are used for handling poles and wrap-around axes.
+     * @throws MismatchedDimensionException if the transform does not have 2 source dimensions,
+     *         or if the target CRS dimension is not the transform target dimension.
+     */
+    public EnvelopeTransformer(final MathTransform transform, final CoordinateReferenceSystem targetCRS) {
+        if (transform.getSourceDimensions() != 2) {
+            throw new MismatchedDimensionException("Only two-dimensional source envelopes are supported.");
+        }
+        if (targetCRS != null && targetCRS.getCoordinateSystem().getDimension() != transform.getTargetDimensions()) {
+            throw new MismatchedDimensionException();
+        }
+        this.transform = transform;
+        this.targetCRS = targetCRS;
+        tolerance      = Double.NaN;
+        maximalDepth   = 8;
+    }
+
+    /**
+     * Sets the maximal deviation, in target units, between a transformed edge and its approximation by
+     * straight segments. The default value is 1/1000 of the largest span of the transformed corners.
+     *
+     * @param tolerance  the maximal deviation in target units.
+     */
+    public void setTolerance(final double tolerance) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Tolerance shall be strictly positive.");
+        }
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Sets the maximal number of times that a segment can be split in two halves.
+     * Each edge will have at most 4×2<sup>depth</sup> segments. The default value is 8.
+     *
+     * @param depth  the maximal recursion depth.
+     */
+    public void setMaximalDepth(final int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth shall be positive.");
+        }
+        maximalDepth = depth;
+    }
+
+    /**
+     * Transforms the given envelope.
+     *
+     * @param  envelope  the envelope to transform, in source coordinates.
+     * @return the transformed envelope, in target coordinates.
+     * @throws MismatchedDimensionException if the envelope is not two-dimensional.
+     * @throws TransformException if the sampled points can not be transformed.
+     */
+    public SimpleEnvelope transform(final Envelope envelope) throws TransformException {
+        if (envelope.getDimension() != 2) {
+            throw new MismatchedDimensionException();
+        }
+        final double xmin = envelope.getMinimum(0), xmax = envelope.getMaximum(0);
+        final double ymin = envelope.getMinimum(1), ymax = envelope.getMaximum(1);
+        final double[] corners = {xmin, ymin,  xmax, ymin,  xmax, ymax,  xmin, ymax};
+        final int tgtDim = transform.getTargetDimensions();
+        /*
+         * Compute the default tolerance from the transformed corners if the user did not specified it.
+         */
+        double tol = tolerance;
+        if (Double.isNaN(tol)) {
+            final double[] tc = new double[4 * tgtDim];
+            transform.transform(corners, 0, tc, 0, 4);
+            double span = 0;
+            for (int j=0; j<tgtDim; j++) {
+                double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                for (int i=j; i<tc.length; i+=tgtDim) {
+                    min = Math.min(min, tc[i]);
+                    max = Math.max(max, tc[i]);
+                }
+                if (max - min > span) span = max - min;
+            }
+            tol = (span > 0) ? span / 1000 : Double.MIN_NORMAL;
+        }
+        /*
+         * Sample the boundary as a closed ring: bottom, right, top and left edges.
+         * The last corner is not repeated.
+         */
+        final Sampler sampler = new Sampler(tol);
+        for (int e=0; e<4; e++) {
+            final int a = 2*e, b = (2*e + 2) % 8;
+            sampler.edge(corners[a], corners[a+1], corners[b], corners[b+1]);
+        }
+        final int numPoints = sampler.count;
+        final double[] points = new double[numPoints * tgtDim];
+        transform.transform(sampler.points, 0, points, 0, numPoints);
+        /*
+         * Compute the bounds, with special care for wrap-around axes and poles.
+         */
+        final double[] lower = new double[tgtDim];
+        final double[] upper = new double[tgtDim];
+        final CoordinateSystem cs = (targetCRS != null) ? targetCRS.getCoordinateSystem() : null;
+        for (int j=0; j<tgtDim; j++) {
+            final CoordinateSystemAxis axis = (cs != null) ? cs.getAxis(j) : null;
+            double period = Double.NaN;
+            if (axis != null && RangeMeaning.WRAPAROUND.equals(axis.getRangeMeaning())) {
+                period = axis.getMaximumValue() - axis.getMinimumValue();
+                if (!(period > 0 && period != Double.POSITIVE_INFINITY)) {
+                    period = Double.NaN;
+                }
+            }
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            double previous = Double.NaN, first = Double.NaN;
+            for (int i=j; i<points.length; i+=tgtDim) {
+                double value = points[i];
+                if (Double.isNaN(value)) continue;
+                if (!Double.isNaN(period)) {
+                    if (Double.isNaN(first)) {
+                        first = value;
+                    } else {
+                        final double delta = value - previous;
+                        if (Math.abs(delta) > period / 2) {
+                            value -= period * Math.rint(delta / period);
+                        }
+                    }
+                    previous = value;
+                }
+                if (value < min) min = value;
+                if (value > max) max = value;
+            }
+            if (!Double.isNaN(period)) {
+                /*
+                 * If closing the ring requires a shift of a full period, the boundary goes around the world.
+                 * Otherwise shift the range so that the lower value is inside the axis range.
+                 */
+                final double closing = first - previous;
+                if (Math.abs(closing) > period / 2 || max - min >= period) {
+                    min = axis.getMinimumValue();
+                    max = axis.getMaximumValue();
+                } else {
+                    final double shift = period * Math.floor((min - axis.getMinimumValue()) / period);
+                    min -= shift;
+                    max -= shift;
+                }
+            }
+            lower[j] = min;
+            upper[j] = max;
+        }
+        if (cs != null) {
+            includePoles(cs, xmin, xmax, ymin, ymax, lower, upper);
+        }
+        return new SimpleEnvelope(new SimpleDirectPosition(targetCRS, lower),
+                                  new SimpleDirectPosition(targetCRS, upper));
+    }
+
+    /**
+     * Extends the given bounds to the axis limits if a pole is located inside the source envelope.
+     * When a pole is included, all values along the wrap-around axes are included too.
+     *
+     * @param cs     the target coordinate system.
+     * @param xmin   minimal <var>x</var> value of the source envelope.
+     * @param xmax   maximal <var>x</var> value of the source envelope.
+     * @param ymin   minimal <var>y</var> value of the source envelope.
+     * @param ymax   maximal <var>y</var> value of the source envelope.
+     * @param lower  the lower bounds of the target envelope, updated in-place.
+     * @param upper  the upper bounds of the target envelope, updated in-place.
+     */
+    private void includePoles(final CoordinateSystem cs, final double xmin, final double xmax,
+            final double ymin, final double ymax, final double[] lower, final double[] upper)
+    {
+        final int tgtDim = lower.length;
+        for (int j=0; j<tgtDim; j++) {
+            final CoordinateSystemAxis axis = cs.getAxis(j);
+            final AxisDirection direction = axis.getDirection();
+            if (!AxisDirection.NORTH.equals(direction) && !AxisDirection.SOUTH.equals(direction)) {
+                continue;
+            }
+            final double[] poles = new double[2 * tgtDim];
+            for (int k=0; k<tgtDim; k++) {
+                final double median = (lower[k] + upper[k]) / 2;
+                poles[k] = median;
+                poles[k + tgtDim] = median;
+            }
+            poles[j] = axis.getMinimumValue();
+            poles[j + tgtDim] = axis.getMaximumValue();
+            if (Double.isInfinite(poles[j]) || Double.isInfinite(poles[j + tgtDim])) {
+                continue;
+            }
+            final double[] sources = new double[4];
+            try {
+                transform.inverse().transform(poles, 0, sources, 0, 2);
+            } catch (TransformException e) {
+                continue;                                   // No pole information, keep the sampled bounds.
+            }
+            for (int p=0; p<2; p++) {
+                final double x = sources[2*p], y = sources[2*p + 1];
+                if (x >= xmin && x <= xmax && y >= ymin && y <= ymax) {
+                    if (p == 0) lower[j] = poles[j];
+                    else        upper[j] = poles[j + tgtDim];
+                    for (int k=0; k<tgtDim; k++) {
+                        final CoordinateSystemAxis other = cs.getAxis(k);
+                        if (RangeMeaning.WRAPAROUND.equals(other.getRangeMeaning())) {
+                            lower[k] = other.getMinimumValue();
+                            upper[k] = other.getMaximumValue();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the source points to transform, with an adaptive density.
+     */
+    private final class Sampler {
+        /** The source coordinates of sampled points, as (x,y) tuples. */
+        double[] points = new double[64];
+
+        /** Number of points in the {@link #points} array. */
+        int count;
+
+        /** Maximal deviation in target units. */
+        private final double tolerance;
+
+        /** Whether the transform can compute derivatives. Set to {@code false} after the first failure. */
+        private boolean hasDerivative = true;
+
+        /** A position reused for computing derivatives. */
+        private final SimpleDirectPosition position = new SimpleDirectPosition(2);
+
+        /**
+         * Creates a new sampler.
+         *
+         * @param tolerance  maximal deviation in target units.
+         */
+        Sampler(final double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        /**
+         * Adds the given point.
+         *
+         * @param x  the <var>x</var> value of the point to add.
+         * @param y  the <var>y</var> value of the point to add.
+         */
+        private void add(final double x, final double y) {
+            if (count * 2 == points.length) {
+                points = Arrays.copyOf(points, points.length * 2);
+            }
+            points[count*2    ] = x;
+            points[count*2 + 1] = y;
+            count++;
+        }
+
+        /**
+         * Returns the derivative at the given point, or {@code null} if it can not be computed.
+         *
+         * @param  x  the <var>x</var> value of the point where to compute the derivative.
+         * @param  y  the <var>y</var> value of the point where to compute the derivative.
+         * @return the derivative at the given point, or {@code null}.
+         */
+        private Matrix derivative(final double x, final double y) {
+            if (hasDerivative) {
+                position.ordinates[0] = x;
+                position.ordinates[1] = y;
+                try {
+                    return transform.derivative(position);
+                } catch (TransformException e) {
+                    // The derivative may be undefined at this point only (e.g. a pole).
+                } catch (UnsupportedOperationException e) {
+                    hasDerivative = false;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Samples the edge from (x0,y0) inclusive to (x1,y1) exclusive.
+         *
+         * @param x0  the <var>x</var> value of the edge start.
+         * @param y0  the <var>y</var> value of the edge start.
+         * @param x1  the <var>x</var> value of the edge end.
+         * @param y1  the <var>y</var> value of the edge end.
+         */
+        void edge(final double x0, final double y0, final double x1, final double y1) {
+            double xa = x0, ya = y0;
+            Matrix da = derivative(xa, ya);
+            for (int i=1; i<=INITIAL_SEGMENTS; i++) {
+                final double f  = i / (double) INITIAL_SEGMENTS;
+                final double xb = x0 + f * (x1 - x0);
+                final double yb = y0 + f * (y1 - y0);
+                final Matrix db = derivative(xb, yb);
+                refine(xa, ya, da, xb, yb, db, 0);
+                xa = xb; ya = yb; da = db;
+            }
+        }
+
+        /**
+         * Adds the point (xa,ya) and the intermediate points needed between (xa,ya) and (xb,yb).
+         * The deviation from a straight line at the middle of the segment is estimated by
+         * (J<sub>a</sub> − J<sub>b</sub>)⋅(b − a) / 8 where J are the Jacobian matrices.
+         *
+         * @param xa     the <var>x</var> value of the segment start.
+         * @param ya     the <var>y</var> value of the segment start.
+         * @param da     the derivative at the segment start, or {@code null} if unknown.
+         * @param xb     the <var>x</var> value of the segment end.
+         * @param yb     the <var>y</var> value of the segment end.
+         * @param db     the derivative at the segment end, or {@code null} if unknown.
+         * @param depth  the recursion depth, used for limiting the number of splits.
+         */
+        private void refine(final double xa, final double ya, final Matrix da,
+                            final double xb, final double yb, final Matrix db, final int depth)
+        {
+            if (depth < maximalDepth && !isFlat(da, db, xb - xa, yb - ya)) {
+                final double xm = (xa + xb) / 2;
+                final double ym = (ya + yb) / 2;
+                final Matrix dm = derivative(xm, ym);
+                refine(xa, ya, da, xm, ym, dm, depth + 1);
+                refine(xm, ym, dm, xb, yb, db, depth + 1);
+            } else {
+                add(xa, ya);
+            }
+        }
+
+        /**
+         * Returns {@code true} if the transformed segment is close enough to a straight line.
+         * If derivatives are unknown, the segment is split until a fixed depth is reached.
+         *
+         * @param  da  the derivative at the segment start, or {@code null} if unknown.
+         * @param  db  the derivative at the segment end, or {@code null} if unknown.
+         * @param  dx  the segment length along <var>x</var>.
+         * @param  dy  the segment length along <var>y</var>.
+         * @return whether the segment can be considered flat.
+         */
+        private boolean isFlat(final Matrix da, final Matrix db, final double dx, final double dy) {
+            if (da == null || db == null) {
+                return false;
+            }
+            double sum = 0;
+            for (int j = da.getNumRow(); --j >= 0;) {
+                final double d = (da.getElement(j, 0) - db.getElement(j, 0)) * dx
+                               + (da.getElement(j, 1) - db.getElement(j, 1)) * dy;
+                sum += d * d;
+            }
+            return Math.sqrt(sum) / 8 <= tolerance;             // Use <= for returning false on NaN.
+        }
+    }
+}
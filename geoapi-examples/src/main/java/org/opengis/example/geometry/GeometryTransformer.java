@@ -0,0 +1,321 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.geometry.coordinate.PointArray;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Transforms the vertices of many geometries with a minimal number of calls to {@link MathTransform}.
+ * Implementations of {@link org.opengis.geometry.Geometry#transform(CoordinateReferenceSystem, MathTransform)}
+ * can delegate to this class instead of transforming their vertices one {@link DirectPosition} at a time.
+ *
+ * <p>For each batch of {@linkplain PointArray point arrays}, this class:</p>
+ * <ol>
+ *   <li>gathers the ordinate values of all points in a single contiguous {@code double[]} array,
+ *       optionally inserting intermediate points (see {@link #setMaximalSegmentLength(double)}),</li>
+ *   <li>invokes {@link MathTransform#transform(double[], int, double[], int, int)} once for the whole batch,</li>
+ *   <li>optionally makes the coordinates continuous across the anti-meridian
+ *       (see {@link #setWrapAround(int, double)}),</li>
+ *   <li>returns one {@link SimplePointArray} per source array. All arrays of the same batch are views
+ *       over the same target array, so no copy is done after the transformation.</li>
+ * </ol>
+ *
+ * <p>Instances of this class are not thread-safe, but the {@link MathTransform} can be shared.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class GeometryTransformer {
+    /**
+     * The transform to apply on all vertices.
+     */
+    private final MathTransform transform;
+
+    /**
+     * The coordinate reference system of the transformed geometries, or {@code null} if unspecified.
+     */
+    private final CoordinateReferenceSystem targetCRS;
+
+    /**
+     * Maximal distance between two consecutive points in source coordinates,
+     * or {@link Double#POSITIVE_INFINITY} for disabling densification.
+     */
+    private double maximalSegmentLength;
+
+    /**
+     * Target dimension where to apply wrap-around, or -1 if none.
+     */
+    private int wrapAroundDimension;
+
+    /**
+     * Period of the wrap-around axis (typically 360° for longitudes).
+     */
+    private double period;
+
+    /**
+     * Maximal number of points to transform in a single call to {@link MathTransform}.
+     */
+    private int batchSize;
+
+    /**
+     * Creates a new transformer for the given transform.
+     *
+     * @param transform  the transform to apply on all vertices.
+     * @param targetCRS  the CRS of the transformed geometries, or {@code null} if unspecified.
+     * @throws MismatchedDimensionException if the target CRS dimension does not match the transform.
+     */
+    public GeometryTransformer(final MathTransform transform, final CoordinateReferenceSystem targetCRS) {
+        if (targetCRS != null && targetCRS.getCoordinateSystem().getDimension() != transform.getTargetDimensions()) {
+            throw new MismatchedDimensionException();
+        }
+        this.transform       = transform;
+        this.targetCRS       = targetCRS;
+        maximalSegmentLength = Double.POSITIVE_INFINITY;
+        wrapAroundDimension  = -1;
+        batchSize            = 65536;
+    }
+
+    /**
+     * Sets the maximal number of points to transform in a single call to {@link MathTransform}.
+     * A point array larger than this size is transformed in its own batch.
+     * The default value is 65536.
+     *
+     * @param size  maximal number of points in a batch.
+     */
+    public void setBatchSize(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Batch size shall be strictly positive.");
+        }
+        batchSize = size;
+    }
+
+    /**
+     * Sets the maximal distance between two consecutive points, in units of the source coordinates.
+     * If two consecutive points are farther, then intermediate points are inserted on the straight
+     * line between them before the transformation, so that curves in the target CRS are approximated
+     * by more segments. The default value is infinity, which disables densification.
+     *
+     * @param length  maximal distance between two consecutive source points, or infinity for none.
+     */
+    public void setMaximalSegmentLength(final double length) {
+        if (!(length > 0)) {
+            throw new IllegalArgumentException("Segment length shall be strictly positive.");
+        }
+        maximalSegmentLength = length;
+    }
+
+    /**
+     * Sets the target dimension where to avoid discontinuities. After transformation, every point is shifted
+     * by a multiple of the given period if needed for making its distance from the previous point less than
+     * half the period. For example with longitudes and a period of 360°, a line going from 179°E to 179°W
+     * becomes a line from 179° to 181° instead of a line crossing the whole world.
+     *
+     * @param dimension  the target dimension of the wrap-around axis, or -1 for none.
+     * @param period     the period of the axis, typically 360 for longitudes in degrees.
+     */
+    public void setWrapAround(final int dimension, final double period) {
+        if (dimension >= transform.getTargetDimensions()) {
+            throw new IndexOutOfBoundsException("Dimension " + dimension + " is out of bounds.");
+        }
+        if (dimension >= 0 && !(period > 0)) {
+            throw new IllegalArgumentException("Period shall be strictly positive.");
+        }
+        wrapAroundDimension = dimension;
+        this.period = period;
+    }
+
+    /**
+     * Transforms all points in the given array.
+     *
+     * @param  source  the points to transform.
+     * @return the transformed points (possibly with intermediate points if densification is enabled).
+     * @throws TransformException if a point can not be transformed.
+     */
+    public SimplePointArray transform(final PointArray source) throws TransformException {
+        return transform(Collections.singletonList(source)).get(0);
+    }
+
+    /**
+     * Transforms all points in all the given arrays. Arrays are grouped in batches of about
+     * {@linkplain #setBatchSize batch size} points, and each batch is transformed in a single call
+     * to {@link MathTransform#transform(double[], int, double[], int, int)}.
+     *
+     * @param  sources  the point arrays to transform, typically the vertices of many geometries.
+     * @return the transformed points, in the same order than the given arrays.
+     * @throws MismatchedDimensionException if an array does not have the transform source dimension.
+     * @throws IllegalArgumentException if densification would create an array of more than
+     *         {@link Integer#MAX_VALUE} ordinate values.
+     * @throws TransformException if a point can not be transformed.
+     */
+    public List<SimplePointArray> transform(final List<? extends PointArray> sources) throws TransformException {
+        final int srcDim = transform.getSourceDimensions();
+        final List<SimplePointArray> results = new ArrayList<>(sources.size());
+        double[] gathered = new double[0];
+        int[] lengths = new int[8];                     // Number of points of each array in the batch (after densification).
+        int numArrays = 0, numPoints = 0;
+        for (int k=0; k<sources.size(); k++) {
+            final PointArray source = sources.get(k);
+            if (source.getDimension() != srcDim) {
+                throw new MismatchedDimensionException();
+            }
+            double[] points = new double[source.size() * srcDim];
+            if (source instanceof SimplePointArray) {
+                ((SimplePointArray) source).copyTo(points, 0);
+            } else {
+                DirectPosition position = null;
+                for (int i=0; i<source.size(); i++) {
+                    position = source.getDirectPosition(i, position);
+                    for (int j=0; j<srcDim; j++) {
+                        points[i*srcDim + j] = position.getOrdinate(j);
+                    }
+                }
+            }
+            if (maximalSegmentLength != Double.POSITIVE_INFINITY) {
+                points = densify(points, srcDim);
+            }
+            /*
+             * Append the points to the current batch, then transform the batch if it is full
+             * or if this array is the last one.
+             */
+            if ((long) numPoints * srcDim + points.length > Integer.MAX_VALUE) {
+                // The batch can not grow further: transform the points collected so far.
+                transformBatch(gathered, lengths, numArrays, numPoints, results);
+                numArrays = 0;
+                numPoints = 0;
+            }
+            final int n = points.length / srcDim;
+            final int required = numPoints * srcDim + points.length;
+            if (required > gathered.length) {
+                gathered = Arrays.copyOf(gathered, (int) Math.min(Math.max(gathered.length * 2L, required), Integer.MAX_VALUE));
+            }
+            System.arraycopy(points, 0, gathered, numPoints * srcDim, points.length);
+            if (numArrays == lengths.length) {
+                lengths = Arrays.copyOf(lengths, numArrays * 2);
+            }
+            lengths[numArrays++] = n;
+            numPoints += n;
+            if (numPoints >= batchSize || k == sources.size() - 1) {
+                transformBatch(gathered, lengths, numArrays, numPoints, results);
+                numArrays = 0;
+                numPoints = 0;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Transforms a batch of points and adds the resulting arrays in the given list.
+     *
+     * @param gathered   the source coordinates of all points in the batch.
+     * @param lengths    number of points in each array of the batch.
+     * @param numArrays  number of valid elements in the {@code lengths} array.
+     * @param numPoints  total number of points in the batch.
+     * @param results    the list where to add the transformed arrays.
+     * @throws TransformException if a point can not be transformed.
+     */
+    private void transformBatch(final double[] gathered, final int[] lengths, final int numArrays,
+            final int numPoints, final List<SimplePointArray> results) throws TransformException
+    {
+        final int tgtDim = transform.getTargetDimensions();
+        if ((long) numPoints * tgtDim > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many points in a batch for the target dimension.");
+        }
+        final double[] target = new double[numPoints * tgtDim];
+        transform.transform(gathered, 0, target, 0, numPoints);
+        int start = 0;
+        for (int i=0; i<numArrays; i++) {
+            final int length = lengths[i] * tgtDim;
+            if (wrapAroundDimension >= 0) {
+                unwrap(target, start, length, tgtDim);
+            }
+            results.add(new SimplePointArray(targetCRS, tgtDim, target, start, length));
+            start += length;
+        }
+    }
+
+    /**
+     * Returns the given points with intermediate points inserted between consecutive points
+     * farther than {@link #maximalSegmentLength}. Intermediate points are interpolated linearly.
+     *
+     * @param  points     the coordinates of the points to densify.
+     * @param  dimension  number of ordinate values for each point.
+     * @return the densified points, or {@code points} if no point needed to be inserted.
+     */
+    private double[] densify(final double[] points, final int dimension) {
+        final int n = points.length / dimension;
+        final int[] splits = new int[Math.max(n - 1, 0)];
+        long total = n;
+        for (int i=1; i<n; i++) {
+            double sum = 0;
+            for (int j=0; j<dimension; j++) {
+                final double d = points[i*dimension + j] - points[(i-1)*dimension + j];
+                sum += d*d;
+            }
+            final double length = Math.sqrt(sum);
+            if (length > maximalSegmentLength) {
+                splits[i-1] = (int) Math.min(Math.ceil(length / maximalSegmentLength), Integer.MAX_VALUE) - 1;
+                total += splits[i-1];
+                if (total * dimension > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Densification would create more than "
+                            + (Integer.MAX_VALUE / dimension) + " points. Maximal segment length may be too small.");
+                }
+            }
+        }
+        if (total == n) {
+            return points;
+        }
+        final double[] result = new double[(int) (total * dimension)];
+        int t = 0;
+        for (int i=0; i<n; i++) {
+            System.arraycopy(points, i*dimension, result, t, dimension);
+            t += dimension;
+            if (i < n - 1) {
+                final int s = splits[i];
+                for (int k=1; k<=s; k++) {
+                    final double f = k / (double) (s + 1);
+                    for (int j=0; j<dimension; j++) {
+                        final double p = points[i*dimension + j];
+                        result[t++] = p + f * (points[(i+1)*dimension + j] - p);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Shifts the ordinate values in the wrap-around dimension by multiples of the period
+     * for keeping consecutive points at a distance less than half the period.
+     *
+     * @param target     the ordinate values to modify in-place.
+     * @param start      index of the first ordinate value of the first point to modify.
+     * @param length     number of ordinate values to modify.
+     * @param dimension  number of ordinate values for each point.
+     */
+    private void unwrap(final double[] target, final int start, final int length, final int dimension) {
+        final int end = start + length;
+        for (int i = start + wrapAroundDimension + dimension; i < end; i += dimension) {
+            final double delta = target[i] - target[i - dimension];
+            if (Math.abs(delta) > period / 2) {
+                target[i] -= period * Math.rint(delta / period);
+            }
+        }
+    }
+}
@@ -0,0 +1,504 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.nio.DoubleBuffer;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.geometry.coordinate.PointArray;
+import org.opengis.geometry.coordinate.Position;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * A {@link PointArray} implementation which stores all ordinate values in a single interleaved buffer.
+ * The buffer can be a {@code double[]} array, a {@code float[]} array or a {@link DoubleBuffer}
+ * (possibly allocated outside the Java heap). Coordinates are stored in (<var>x</var>₀, <var>y</var>₀,
+ * <var>x</var>₁, <var>y</var>₁, …) order, with no {@link Position} object created until requested.
+ *
+ * <p>This class is designed for geometries having a large number of points:</p>
+ * <ul>
+ *   <li>{@link #getDirectPosition(int, DirectPosition)} can copy the coordinates in an existing
+ *       position, so iterating over all points does not need to allocate any object.</li>
+ *   <li>{@link #subList(int, int)} returns a view over a range of points, without copying
+ *       the coordinates. Changes in the view are reflected in this array and vice-versa.</li>
+ *   <li>{@link #transform(MathTransform, CoordinateReferenceSystem)} gives the backing array directly to the
+ *       {@link MathTransform#transform(double[], int, double[], int, int) MathTransform.transform(…)}
+ *       array method, so all points are transformed in a single call.</li>
+ * </ul>
+ *
+ * The array has a fixed size: positions can be {@linkplain #set set}, but not added or removed.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SimplePointArray extends AbstractList<Position> implements PointArray, RandomAccess {
+    /**
+     * Maximal number of ordinate values to copy at once when transforming
+     * points stored in a {@link DoubleBuffer}.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * The ordinate values if they are stored in a {@code double[]} array, or {@code null} otherwise.
+     */
+    private final double[] doubles;
+
+    /**
+     * The ordinate values if they are stored in a {@code float[]} array, or {@code null} otherwise.
+     */
+    private final float[] floats;
+
+    /**
+     * The ordinate values if they are stored in a buffer, or {@code null} otherwise.
+     * This is a private duplicate of the user buffer with its limit set to the capacity,
+     * so that changes in the position or limit of the user buffer have no effect here.
+     */
+    private final DoubleBuffer buffer;
+
+    /**
+     * Index of the first ordinate value of the first point in the backing storage.
+     */
+    private final int offset;
+
+    /**
+     * Number of points in this array.
+     */
+    private final int size;
+
+    /**
+     * Number of ordinate values for each point.
+     */
+    private final int dimension;
+
+    /**
+     * The coordinate reference system of all points, or {@code null} if unspecified.
+     *
+     * @see #getCoordinateReferenceSystem()
+     */
+    protected final CoordinateReferenceSystem crs;
+
+    /**
+     * Creates a new point array wrapping the given ordinate values. The array is <strong>not</strong> cloned;
+     * changes in the given array will be reflected in this point array and vice-versa.
+     *
+     * @param  crs        the coordinate reference system, or {@code null} if unspecified.
+     * @param  dimension  the number of ordinate values for each point.
+     * @param  ordinates  the ordinate values of all points. This array is <strong>not</strong> cloned.
+     * @param  start      index of the first valid value in the {@code ordinates} array.
+     * @param  length     number of valid values in the {@code ordinates} array.
+     * @throws IllegalArgumentException if the length is not a multiple of the dimension.
+     * @throws MismatchedDimensionException if the given CRS is non-null but its dimension
+     *         is not equal to the given dimension.
+     */
+    public SimplePointArray(final CoordinateReferenceSystem crs, final int dimension,
+            final double[] ordinates, final int start, final int length)
+    {
+        this(crs, dimension, ordinates, null, null, start, length, ordinates.length);
+    }
+
+    /**
+     * Creates a new point array wrapping the given ordinate values in single precision.
+     * The array is <strong>not</strong> cloned; changes in the given array will be reflected
+     * in this point array and vice-versa.
+     *
+     * @param  crs        the coordinate reference system, or {@code null} if unspecified.
+     * @param  dimension  the number of ordinate values for each point.
+     * @param  ordinates  the ordinate values of all points. This array is <strong>not</strong> cloned.
+     * @param  start      index of the first valid value in the {@code ordinates} array.
+     * @param  length     number of valid values in the {@code ordinates} array.
+     * @throws IllegalArgumentException if the length is not a multiple of the dimension.
+     * @throws MismatchedDimensionException if the given CRS is non-null but its dimension
+     *         is not equal to the given dimension.
+     */
+    public SimplePointArray(final CoordinateReferenceSystem crs, final int dimension,
+            final float[] ordinates, final int start, final int length)
+    {
+        this(crs, dimension, null, ordinates, null, start, length, ordinates.length);
+    }
+
+    /**
+     * Creates a new point array wrapping the given buffer, which may be allocated outside the Java heap.
+     * The buffer position and limit are ignored: the {@code start} and {@code length} arguments are
+     * absolute indices which may go up to the buffer {@linkplain DoubleBuffer#capacity() capacity}.
+     * This constructor does not modify the given buffer. Changes in the buffer content will be
+     * reflected in this point array and vice-versa.
+     *
+     * @param  crs        the coordinate reference system, or {@code null} if unspecified.
+     * @param  dimension  the number of ordinate values for each point.
+     * @param  ordinates  the ordinate values of all points.
+     * @param  start      index of the first valid value in the {@code ordinates} buffer.
+     * @param  length     number of valid values in the {@code ordinates} buffer.
+     * @throws IllegalArgumentException if the length is not a multiple of the dimension.
+     * @throws MismatchedDimensionException if the given CRS is non-null but its dimension
+     *         is not equal to the given dimension.
+     */
+    public SimplePointArray(final CoordinateReferenceSystem crs, final int dimension,
+            final DoubleBuffer ordinates, final int start, final int length)
+    {
+        this(crs, dimension, null, null, view(ordinates), start, length, ordinates.capacity());
+    }
+
+    /**
+     * Returns a view over the full capacity of the given buffer, ignoring its position and limit.
+     *
+     * @param  ordinates  the buffer for which to create a view.
+     * @return a view sharing the buffer content, with position 0 and limit set to the capacity.
+     */
+    private static DoubleBuffer view(final DoubleBuffer ordinates) {
+        final DoubleBuffer view = ordinates.duplicate();
+        view.clear();
+        return view;
+    }
+
+    /**
+     * Creates a new point array for one of the given storages. Exactly one of the
+     * {@code doubles}, {@code floats} or {@code buffer} arguments shall be non-null.
+     *
+     * @param crs        the coordinate reference system, or {@code null} if unspecified.
+     * @param dimension  the number of ordinate values for each point.
+     * @param doubles    the ordinate values in a {@code double[]} array, or {@code null}.
+     * @param floats     the ordinate values in a {@code float[]} array, or {@code null}.
+     * @param buffer     the ordinate values in a buffer, or {@code null}.
+     * @param start      index of the first valid value in the backing storage.
+     * @param length     number of valid values in the backing storage.
+     * @param capacity   number of values in the backing storage.
+     */
+    private SimplePointArray(final CoordinateReferenceSystem crs, final int dimension,
+            final double[] doubles, final float[] floats, final DoubleBuffer buffer,
+            final int start, final int length, final int capacity)
+    {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Dimension shall be strictly positive.");
+        }
+        if (start < 0 || length < 0 || start + length > capacity) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start + " … " + (start + length) + ").");
+        }
+        if (length % dimension != 0) {
+            throw new IllegalArgumentException("Number of values shall be a multiple of " + dimension + '.');
+        }
+        if (crs != null && crs.getCoordinateSystem().getDimension() != dimension) {
+            throw new MismatchedDimensionException();
+        }
+        this.crs       = crs;
+        this.dimension = dimension;
+        this.doubles   = doubles;
+        this.floats    = floats;
+        this.buffer    = buffer;
+        this.offset    = start;
+        this.size      = length / dimension;
+    }
+
+    /**
+     * Creates a view over a range of points of the given array, associated to the given CRS.
+     *
+     * @param parent     the array for which to create a view.
+     * @param crs        the coordinate reference system of the view, or {@code null} if unspecified.
+     * @param fromIndex  index of the first point, inclusive.
+     * @param toIndex    index of the last point, exclusive.
+     */
+    private SimplePointArray(final SimplePointArray parent, final CoordinateReferenceSystem crs,
+            final int fromIndex, final int toIndex)
+    {
+        this.crs  = crs;
+        dimension = parent.dimension;
+        doubles   = parent.doubles;
+        floats    = parent.floats;
+        buffer    = parent.buffer;
+        offset    = parent.offset + fromIndex * dimension;
+        size      = toIndex - fromIndex;
+    }
+
+    /**
+     * Returns the dimensionality of the coordinates in this array.
+     *
+     * @return the dimensionality of this array.
+     */
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the coordinate reference system in which the coordinates are given.
+     *
+     * @return the coordinate reference system, or {@code null}.
+     */
+    @Override
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the number of points in this array.
+     *
+     * @return the number of points.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index in the backing storage of the first ordinate value of the given point.
+     *
+     * @param  index  the point index, from 0 inclusive to {@link #size()} exclusive.
+     * @return index in the backing storage of the first ordinate value of the point.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    private int indexOf(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds [0 … " + size + ").");
+        }
+        return offset + index * dimension;
+    }
+
+    /**
+     * Returns the ordinate value at the given index in the backing storage.
+     *
+     * @param  i  index in the backing storage of the value to get.
+     * @return the ordinate value at the given index.
+     */
+    private double getValue(final int i) {
+        if (doubles != null) return doubles[i];
+        if (floats  != null) return floats [i];
+        return buffer.get(i);
+    }
+
+    /**
+     * Sets the ordinate value at the given index in the backing storage.
+     *
+     * @param  i      index in the backing storage of the value to set.
+     * @param  value  the new ordinate value.
+     */
+    private void setValue(final int i, final double value) {
+        if (doubles != null) {
+            doubles[i] = value;
+        } else if (floats != null) {
+            floats[i] = (float) value;
+        } else {
+            buffer.put(i, value);
+        }
+    }
+
+    /**
+     * Returns the ordinate value of the point at the given index along the given dimension.
+     * This is a convenience method for accessing a single value without creating position.
+     *
+     * @param  index      the point index, from 0 inclusive to {@link #size()} exclusive.
+     * @param  dimension  the dimension, from 0 inclusive to {@link #getDimension()} exclusive.
+     * @return the ordinate value.
+     * @throws IndexOutOfBoundsException if an index is out of bounds.
+     */
+    public double getOrdinate(final int index, final int dimension) throws IndexOutOfBoundsException {
+        if (dimension < 0 || dimension >= this.dimension) {
+            throw new IndexOutOfBoundsException("Dimension " + dimension + " is out of bounds.");
+        }
+        return getValue(indexOf(index) + dimension);
+    }
+
+    /**
+     * Returns a copy of the position at the given index.
+     * Changes in the returned position will not be reflected in this array.
+     *
+     * @param  index  the point index, from 0 inclusive to {@link #size()} exclusive.
+     * @return a copy of the position at the given index.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    @Override
+    public Position get(final int index) throws IndexOutOfBoundsException {
+        return getDirectPosition(index, null);
+    }
+
+    /**
+     * Copies the coordinates at the given index in the given position. If {@code dest} is null,
+     * then a new position is created. Using the same {@code dest} object for all points allows
+     * iteration without object allocation.
+     *
+     * @param  index  the point index, from 0 inclusive to {@link #size()} exclusive.
+     * @param  dest   an optionally pre-allocated direct position.
+     * @return the {@code dest} argument, or a new object if {@code dest} was null.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     * @throws MismatchedDimensionException if the given position does not have the dimension of this array.
+     */
+    @Override
+    public DirectPosition getDirectPosition(final int index, DirectPosition dest) throws IndexOutOfBoundsException {
+        int i = indexOf(index);
+        if (dest == null) {
+            dest = new SimpleDirectPosition(crs, new double[dimension]);
+        } else if (dest.getDimension() != dimension) {
+            throw new MismatchedDimensionException();
+        }
+        if (dest instanceof SimpleDirectPosition) {
+            final double[] ordinates = ((SimpleDirectPosition) dest).ordinates;
+            if (doubles != null) {
+                System.arraycopy(doubles, i, ordinates, 0, dimension);
+            } else {
+                for (int j=0; j<dimension; j++) {
+                    ordinates[j] = getValue(i++);
+                }
+            }
+        } else {
+            for (int j=0; j<dimension; j++) {
+                dest.setOrdinate(j, getValue(i++));
+            }
+        }
+        return dest;
+    }
+
+    /**
+     * Sets the point at the given index. The point coordinates are copied.
+     *
+     * @param  index     the point index, from 0 inclusive to {@link #size()} exclusive.
+     * @param  position  the point to set at the given location in this array.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     * @throws MismatchedDimensionException if the given position does not have the dimension of this array.
+     */
+    @Override
+    public void setDirectPosition(final int index, final DirectPosition position) throws IndexOutOfBoundsException {
+        if (position.getDimension() != dimension) {
+            throw new MismatchedDimensionException();
+        }
+        int i = indexOf(index);
+        for (int j=0; j<dimension; j++) {
+            setValue(i++, position.getOrdinate(j));
+        }
+    }
+
+    /**
+     * Sets the point at the given index and returns the previous point.
+     *
+     * @param  index     the point index, from 0 inclusive to {@link #size()} exclusive.
+     * @param  position  the point to set at the given location in this array.
+     * @return the point previously at the given index.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    @Override
+    public Position set(final int index, final Position position) throws IndexOutOfBoundsException {
+        final DirectPosition old = getDirectPosition(index, null);
+        setDirectPosition(index, position.getDirectPosition());
+        return old;
+    }
+
+    /**
+     * Returns a view over the points in the given range. The coordinates are not copied:
+     * changes in the returned array are reflected in this array and vice-versa.
+     *
+     * @param  fromIndex  index of the first point, inclusive.
+     * @param  toIndex    index of the last point, exclusive.
+     * @return a view over the given range of points.
+     * @throws IndexOutOfBoundsException if an index is out of bounds.
+     */
+    @Override
+    public SimplePointArray subList(final int fromIndex, final int toIndex) throws IndexOutOfBoundsException {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Invalid range [" + fromIndex + " … " + toIndex + ").");
+        }
+        return new SimplePointArray(this, crs, fromIndex, toIndex);
+    }
+
+    /**
+     * Copies the ordinate values of all points in the given array.
+     * This method is useful for gathering the coordinates of many geometries in a single array.
+     *
+     * @param  dest        the array where to copy the ordinate values.
+     * @param  destOffset  index of the first value to write in the destination array.
+     * @throws IndexOutOfBoundsException if the destination array is too small.
+     */
+    public void copyTo(final double[] dest, final int destOffset) throws IndexOutOfBoundsException {
+        final int length = size * dimension;
+        if (doubles != null) {
+            System.arraycopy(doubles, offset, dest, destOffset, length);
+        } else if (floats != null) {
+            for (int i=0; i<length; i++) {
+                dest[destOffset + i] = floats[offset + i];
+            }
+        } else {
+            final DoubleBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.get(dest, destOffset, length);
+        }
+    }
+
+    /**
+     * Overwrites the ordinate values of all points with the values in the given array.
+     * This method is the converse of {@link #copyTo(double[], int)}.
+     *
+     * @param  source        the array from which to copy the ordinate values.
+     * @param  sourceOffset  index of the first value to read in the source array.
+     * @throws IndexOutOfBoundsException if the source array is too small.
+     */
+    public void copyFrom(final double[] source, final int sourceOffset) throws IndexOutOfBoundsException {
+        final int length = size * dimension;
+        if (doubles != null) {
+            System.arraycopy(source, sourceOffset, doubles, offset, length);
+        } else if (floats != null) {
+            for (int i=0; i<length; i++) {
+                floats[offset + i] = (float) source[sourceOffset + i];
+            }
+        } else {
+            final DoubleBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.put(source, sourceOffset, length);
+        }
+    }
+
+    /**
+     * Transforms all points in this array in-place and returns a view over the transformed points
+     * associated to the given target CRS. If the ordinate values are stored in a {@code double[]}
+     * or {@code float[]} array, then that array is given directly to the corresponding
+     * {@code MathTransform.transform(…)} method in a single call. If the ordinate values are stored in a
+     * buffer, then they are transformed by chunks of a few thousands values.
+     *
+     * <p>Since the coordinates are modified in-place, this array is no longer expressed in its
+     * {@linkplain #getCoordinateReferenceSystem() coordinate reference system} after this method call.
+     * Callers should use the returned array instead, which shares the same storage.</p>
+     *
+     * @param  transform  the transform to apply.
+     * @param  targetCRS  the coordinate reference system of the transformed points, or {@code null} if unspecified.
+     * @return a view over the same storage, with the points associated to the given target CRS.
+     * @throws MismatchedDimensionException if the transform source or target dimension or the target CRS
+     *         dimension is not equal to the dimension of this array.
+     * @throws TransformException if a point can not be transformed. Some points may have been
+     *         transformed before the exception is thrown.
+     */
+    public SimplePointArray transform(final MathTransform transform, final CoordinateReferenceSystem targetCRS)
+            throws TransformException
+    {
+        if (transform.getSourceDimensions() != dimension || transform.getTargetDimensions() != dimension ||
+                (targetCRS != null && targetCRS.getCoordinateSystem().getDimension() != dimension))
+        {
+            throw new MismatchedDimensionException();
+        }
+        if (doubles != null) {
+            transform.transform(doubles, offset, doubles, offset, size);
+        } else if (floats != null) {
+            transform.transform(floats, offset, floats, offset, size);
+        } else {
+            final int chunkPoints = Math.max(1, CHUNK_SIZE / dimension);
+            final double[] chunk = new double[Math.min(size, chunkPoints) * dimension];
+            final DoubleBuffer view = buffer.duplicate();
+            for (int start = 0; start < size; start += chunkPoints) {
+                final int n = Math.min(size - start, chunkPoints);
+                final int i = offset + start * dimension;
+                view.position(i);
+                view.get(chunk, 0, n * dimension);
+                transform.transform(chunk, 0, chunk, 0, n);
+                view.position(i);
+                view.put(chunk, 0, n * dimension);
+            }
+        }
+        return new SimplePointArray(this, targetCRS, 0, size);
+    }
+}
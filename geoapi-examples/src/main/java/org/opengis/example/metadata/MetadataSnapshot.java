@@ -0,0 +1,751 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.metadata;
+
+import java.util.Map;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.InvocationTargetException;
+
+import org.opengis.util.CodeList;
+import org.opengis.util.InternationalString;
+
+
+/**
+ * Immutable copies of metadata trees, with a compact binary encoding. A snapshot is created by copying
+ * eagerly all properties of any implementation of GeoAPI metadata interfaces, for example a metadata
+ * created by {@link MetadataProxyFactory} or a metadata wrapping a netCDF file. The snapshot does not
+ * keep any reference to the source objects, so it can outlive the file from which the metadata were read.
+ *
+ * <p>Snapshots are implemented by {@link java.lang.reflect.Proxy} with property values stored in arrays.
+ * Strings are {@linkplain String#intern() interned}, international strings are replaced by
+ * immutable copies keeping the text in all languages known to the source, code lists are unique
+ * by construction and empty collections are shared. Metadata objects found many times in the source tree are copied only once,
+ * so cycles and shared branches are preserved.</p>
+ *
+ * <p>The binary format written by {@link #write(Object, DataOutput)} stores each metadata interface and
+ * each string only once, then refers to them by index. The format is self-describing: property names
+ * are stored with the interfaces, so snapshots written with another version of GeoAPI can still be read
+ * (unknown properties are ignored). Values of types unknown to this format are written with Java
+ * serialization, or cause a {@link NotSerializableException} if they are not serializable.</p>
+ *
+ * <p><b>Example:</b></p>
+ *
+ * <blockquote><pre>Metadata copy = MetadataSnapshot.snapshot(Metadata.class, new NetcdfMetadata(file));
+ *file.close();
+ *MetadataSnapshot.write(copy, out);
+ *<i>// Later, possibly in another JVM:</i>
+ *Metadata restored = MetadataSnapshot.read(Metadata.class, in);</pre></blockquote>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public final class MetadataSnapshot {
+    /**
+     * The first bytes of the binary format, followed by {@link #VERSION}.
+     */
+    private static final int MAGIC = 0x4D445348;
+
+    /**
+     * Version of the binary format.
+     */
+    private static final byte VERSION = 1;
+
+    /**
+     * Tags identifying the type of values in the binary format.
+     */
+    private static final byte NULL = 0, STRING = 1, STRING_REF = 2, INTERNATIONAL = 3, CODE_LIST = 4, ENUM = 5,
+            TRUE = 6, FALSE = 7, INTEGER = 8, LONG = 9, DOUBLE = 10, FLOAT = 11, DATE = 12, URI_STRING = 13,
+            LOCALE = 14, CHARSET = 15, COLLECTION = 16, NODE = 17, NODE_REF = 18, SERIALIZED = 19, MAP = 20;
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private MetadataSnapshot() {
+    }
+
+    /**
+     * Returns {@code true} if the given object is a snapshot created by this class.
+     *
+     * @param  metadata  the object to test, or {@code null}.
+     * @return whether the given object is a metadata snapshot.
+     */
+    public static boolean isSnapshot(final Object metadata) {
+        return SnapshotHandler.handler(metadata) != null;
+    }
+
+    /**
+     * Returns an immutable copy of the given metadata. All properties of the given object and of
+     * the metadata objects that it contains are copied recursively. If the given metadata is already
+     * a snapshot, then it is returned unchanged.
+     *
+     * <p>Values which are not metadata objects, strings, international strings, collections, maps, dates
+     * or immutable objects (numbers, code lists, URI, <i>etc.</i>) are copied by reference.</p>
+     *
+     * @param  <T>       the compile-time type of the {@code type} argument.
+     * @param  type      the metadata interface to copy.
+     * @param  metadata  the metadata to copy, or {@code null}.
+     * @return an immutable copy of the given metadata, or {@code null} if the given metadata was null.
+     * @throws IllegalArgumentException if the given type is not an interface from the GeoAPI metadata package.
+     */
+    public static <T> T snapshot(final Class<T> type, final T metadata) throws IllegalArgumentException {
+        if (!SnapshotSchema.isMetadata(type)) {
+            throw new IllegalArgumentException("Illegal type: " + type);
+        }
+        return type.cast(new Copier().copy(metadata, type));
+    }
+
+    /**
+     * Copies a metadata tree. A new instance shall be used for each snapshot.
+     */
+    private static final class Copier {
+        /**
+         * The copies of metadata objects, for preserving cycles and shared branches.
+         */
+        private final Map<SourceKey,Object> copies = new HashMap<>();
+
+        /**
+         * The international strings, for sharing instances having the same text in all languages.
+         */
+        private final Map<SnapshotText,SnapshotText> texts = new HashMap<>();
+
+        /**
+         * Returns a copy of the given metadata object as an instance of the given interface.
+         *
+         * @param  metadata  the metadata object to copy, or {@code null}.
+         * @param  type      the metadata interface to implement.
+         * @return the copy, or {@code null} if the given metadata was null.
+         */
+        Object copy(final Object metadata, final Class<?> type) {
+            if (metadata == null) {
+                return null;
+            }
+            final SnapshotHandler existing = SnapshotHandler.handler(metadata);
+            if (existing != null && type.isAssignableFrom(existing.schema().type)) {
+                return metadata;
+            }
+            final SourceKey key = new SourceKey(metadata, type);
+            Object copy = copies.get(key);
+            if (copy == null) {
+                final SnapshotSchema schema = SnapshotSchema.forType(type);
+                final Object[] values = new Object[schema.size()];
+                copy = SnapshotHandler.proxy(schema, values);
+                copies.put(key, copy);                      // Must be before the copy of properties.
+                for (int i=0; i<values.length; i++) {
+                    final Object value;
+                    try {
+                        value = schema.getters[i].invoke(metadata);
+                    } catch (InvocationTargetException e) {
+                        final Throwable cause = e.getCause();
+                        if (cause instanceof UnsupportedOperationException) {
+                            continue;                       // Property not supported by the source.
+                        }
+                        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                        if (cause instanceof Error) throw (Error) cause;
+                        throw new IllegalArgumentException(cause);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalArgumentException(e);
+                    }
+                    if (value != null) {
+                        if (schema.kinds[i] == SnapshotSchema.SINGLE) {
+                            values[i] = element(value, schema.elementTypes[i]);
+                        } else if (value instanceof Collection<?>) {
+                            final List<Object> elements = new ArrayList<>();
+                            for (final Object element : (Collection<?>) value) {
+                                if (element != null) {
+                                    elements.add(element(element, schema.elementTypes[i]));
+                                }
+                            }
+                            values[i] = schema.collection(i, elements.toArray());
+                        }
+                    }
+                }
+            }
+            return copy;
+        }
+
+        /**
+         * Returns an immutable copy of a single property value.
+         *
+         * @param  value     the property value to copy.
+         * @param  declared  the type of property values declared by the getter method.
+         * @return the immutable copy.
+         */
+        private Object element(final Object value, final Class<?> declared) {
+            if (SnapshotSchema.isMetadata(declared)) {
+                return copy(value, implementation(value, declared));
+            }
+            if (value instanceof String) {
+                return ((String) value).intern();
+            }
+            if (value instanceof InternationalString) {
+                final SnapshotText text = (value instanceof SnapshotText) ? (SnapshotText) value
+                                        : SnapshotText.copy((InternationalString) value);
+                return texts.computeIfAbsent(text, (t) -> t);
+            }
+            if (value instanceof Date) {
+                return new Date(((Date) value).getTime());
+            }
+            if (value instanceof Map<?,?>) {
+                final Map<?,?> map = (Map<?,?>) value;
+                if (map.isEmpty()) {
+                    return Collections.emptyMap();
+                }
+                final Map<Object,Object> copy = new LinkedHashMap<>();
+                for (final Map.Entry<?,?> entry : map.entrySet()) {
+                    copy.put(element(entry.getKey(), Object.class), element(entry.getValue(), Object.class));
+                }
+                return Collections.unmodifiableMap(copy);
+            }
+            return value;
+        }
+
+        /**
+         * Returns the most specific GeoAPI metadata interface implemented by the given value and assignable
+         * to the declared type. For example if a property is declared as {@code GeographicExtent} and the value
+         * implements {@code GeographicBoundingBox}, then the latter is used.
+         *
+         * @param  value     the metadata object for which to get the interface.
+         * @param  declared  the type of property values declared by the getter method.
+         * @return the most specific metadata interface implemented by the given value.
+         */
+        private static Class<?> implementation(final Object value, final Class<?> declared) {
+            final SnapshotHandler existing = SnapshotHandler.handler(value);
+            if (existing != null) {
+                return existing.schema().type;
+            }
+            final List<Class<?>> candidates = new ArrayList<>();
+            for (Class<?> c = value.getClass(); c != null; c = c.getSuperclass()) {
+                collect(c.getInterfaces(), declared, candidates);
+            }
+            Class<?> best = declared;
+            for (final Class<?> candidate : candidates) {
+                if (best.isAssignableFrom(candidate)) {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds the given interfaces and their parents to the given list if they are assignable to the declared type.
+         *
+         * @param interfaces  the interfaces to add if assignable to the declared type.
+         * @param declared    the type of property values declared by the getter method.
+         * @param addTo       where to add the interfaces.
+         */
+        private static void collect(final Class<?>[] interfaces, final Class<?> declared, final List<Class<?>> addTo) {
+            for (final Class<?> c : interfaces) {
+                if (declared.isAssignableFrom(c) && SnapshotSchema.isMetadata(c) && !addTo.contains(c)) {
+                    addTo.add(c);
+                }
+                collect(c.getInterfaces(), declared, addTo);
+            }
+        }
+    }
+
+    /**
+     * Identifies a source object to copy as an instance of a given interface.
+     * Source objects are compared by identity.
+     */
+    private static final class SourceKey {
+        /** The source object. */
+        private final Object source;
+
+        /** The interface to copy. */
+        private final Class<?> type;
+
+        /**
+         * Creates a new key.
+         *
+         * @param source  the source object.
+         * @param type    the interface to copy.
+         */
+        SourceKey(final Object source, final Class<?> type) {
+            this.source = source;
+            this.type   = type;
+        }
+
+        /** Returns a hash code value based on the source identity. */
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(source) + 31 * type.hashCode();
+        }
+
+        /** Compares the source by identity. */
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof SourceKey) {
+                final SourceKey other = (SourceKey) obj;
+                return source == other.source && type == other.type;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Writes the given snapshot in the binary format.
+     *
+     * @param  snapshot  the snapshot to write.
+     * @param  out       where to write the snapshot.
+     * @throws IllegalArgumentException if the given object is not a snapshot.
+     * @throws NotSerializableException if a property value can not be serialized.
+     * @throws IOException if an error occurred while writing.
+     */
+    public static void write(final Object snapshot, final DataOutput out) throws IOException {
+        if (!isSnapshot(snapshot)) {
+            throw new IllegalArgumentException("Not a metadata snapshot.");
+        }
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        new Writer(out).write(snapshot);
+    }
+
+    /**
+     * Encodes a snapshot. A new instance shall be used for each snapshot.
+     */
+    private static final class Writer {
+        /** Where to write the snapshot. */
+        private final DataOutput out;
+
+        /** Index of strings already written. */
+        private final Map<String,Integer> strings = new HashMap<>();
+
+        /** Index of metadata interfaces already written. */
+        private final Map<Class<?>,Integer> schemas = new HashMap<>();
+
+        /** Index of metadata objects already written. */
+        private final Map<SnapshotHandler,Integer> nodes = new IdentityHashMap<>();
+
+        /**
+         * Creates a new writer.
+         *
+         * @param out  where to write the snapshot.
+         */
+        Writer(final DataOutput out) {
+            this.out = out;
+        }
+
+        /**
+         * Writes a non-negative integer using 7 bits per byte.
+         *
+         * @param  value  the integer to write.
+         * @throws IOException if an error occurred while writing.
+         */
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        /**
+         * Writes the given string, or a reference to it if it has already been written.
+         *
+         * @param  value  the string to write.
+         * @throws IOException if an error occurred while writing.
+         */
+        private void writeString(final String value) throws IOException {
+            final Integer index = strings.get(value);
+            if (index != null) {
+                out.writeByte(STRING_REF);
+                writeVarInt(index);
+            } else {
+                strings.put(value, strings.size());
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeByte(STRING);
+                writeVarInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        /**
+         * Writes the given value with its tag.
+         *
+         * @param  value  the value to write, or {@code null}.
+         * @throws IOException if an error occurred while writing or if the value can not be serialized.
+         */
+        void write(final Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof String) {
+                writeString((String) value);
+            } else if (value instanceof Collection<?>) {
+                final Collection<?> c = (Collection<?>) value;
+                out.writeByte(COLLECTION);
+                writeVarInt(c.size());
+                for (final Object element : c) {
+                    write(element);
+                }
+            } else if (value instanceof Map<?,?>) {
+                final Map<?,?> map = (Map<?,?>) value;
+                out.writeByte(MAP);
+                writeVarInt(map.size());
+                for (final Map.Entry<?,?> entry : map.entrySet()) {
+                    write(entry.getKey());
+                    write(entry.getValue());
+                }
+            } else if (value instanceof CodeList<?>) {
+                out.writeByte(CODE_LIST);
+                writeString(value.getClass().getName());
+                writeString(((CodeList<?>) value).name());
+            } else if (value instanceof Enum<?>) {
+                out.writeByte(ENUM);
+                writeString(((Enum<?>) value).getDeclaringClass().getName());
+                writeString(((Enum<?>) value).name());
+            } else if (value instanceof Boolean) {
+                out.writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value.getClass() == Date.class) {
+                out.writeByte(DATE);
+                out.writeLong(((Date) value).getTime());
+            } else if (value instanceof URI) {
+                out.writeByte(URI_STRING);
+                writeString(value.toString());
+            } else if (value instanceof Locale) {
+                out.writeByte(LOCALE);
+                writeString(((Locale) value).toLanguageTag());
+            } else if (value instanceof Charset) {
+                out.writeByte(CHARSET);
+                writeString(((Charset) value).name());
+            } else if (value instanceof SnapshotText) {
+                final Map<Locale,String> translations = ((SnapshotText) value).translations;
+                out.writeByte(INTERNATIONAL);
+                writeString(value.toString());
+                writeVarInt(translations.size());
+                for (final Map.Entry<Locale,String> entry : translations.entrySet()) {
+                    writeString(entry.getKey().toLanguageTag());
+                    writeString(entry.getValue());
+                }
+            } else {
+                final SnapshotHandler handler = SnapshotHandler.handler(value);
+                if (handler != null) {
+                    writeNode(handler);
+                } else if (value instanceof Serializable) {
+                    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    try (ObjectOutputStream s = new ObjectOutputStream(buffer)) {
+                        s.writeObject(value);
+                    }
+                    out.writeByte(SERIALIZED);
+                    writeVarInt(buffer.size());
+                    out.write(buffer.toByteArray());
+                } else {
+                    throw new NotSerializableException(value.getClass().getName());
+                }
+            }
+        }
+
+        /**
+         * Writes a metadata object, or a reference to it if it has already been written.
+         * The properties of a metadata interface are written the first time that the interface is used.
+         *
+         * @param  handler  the handler of the metadata object to write.
+         * @throws IOException if an error occurred while writing.
+         */
+        private void writeNode(final SnapshotHandler handler) throws IOException {
+            final Integer index = nodes.get(handler);
+            if (index != null) {
+                out.writeByte(NODE_REF);
+                writeVarInt(index);
+                return;
+            }
+            nodes.put(handler, nodes.size());
+            final SnapshotSchema schema = handler.schema();
+            out.writeByte(NODE);
+            Integer id = schemas.get(schema.type);
+            if (id != null) {
+                writeVarInt(id);
+            } else {
+                writeVarInt(schemas.size());
+                schemas.put(schema.type, schemas.size());
+                writeString(schema.type.getName());
+                writeVarInt(schema.size());
+                for (int i=0; i<schema.size(); i++) {
+                    writeString(schema.getters[i].getName());
+                }
+            }
+            for (final Object value : handler.values) {
+                write(value);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(Object, DataOutput)}.
+     *
+     * @param  <T>   the compile-time type of the {@code type} argument.
+     * @param  type  the expected metadata interface of the snapshot.
+     * @param  in    where to read the snapshot.
+     * @return the snapshot.
+     * @throws StreamCorruptedException if the stream is not in the expected format.
+     * @throws IOException if an error occurred while reading.
+     */
+    public static <T> T read(final Class<T> type, final DataInput in) throws IOException {
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+            throw new StreamCorruptedException("Not a metadata snapshot.");
+        }
+        final Object snapshot = new Reader(in).read();
+        if (!type.isInstance(snapshot)) {
+            throw new StreamCorruptedException("Expected a " + type.getSimpleName() + " snapshot.");
+        }
+        return type.cast(snapshot);
+    }
+
+    /**
+     * Decodes a snapshot. A new instance shall be used for each snapshot.
+     */
+    private static final class Reader {
+        /** Where to read the snapshot. */
+        private final DataInput in;
+
+        /** The strings read so far. */
+        private final List<String> strings = new ArrayList<>();
+
+        /** The international strings read so far, for sharing instances having the same text in all languages. */
+        private final Map<SnapshotText,SnapshotText> texts = new HashMap<>();
+
+        /** The metadata interfaces read so far. */
+        private final List<SnapshotSchema> schemas = new ArrayList<>();
+
+        /** For each metadata interface, the local index of each property in the stream, or -1 if unknown. */
+        private final List<int[]> mappings = new ArrayList<>();
+
+        /** The metadata objects read so far. */
+        private final List<Object> nodes = new ArrayList<>();
+
+        /**
+         * Creates a new reader.
+         *
+         * @param in  where to read the snapshot.
+         */
+        Reader(final DataInput in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads a non-negative integer written with 7 bits per byte.
+         *
+         * @return the integer read.
+         * @throws IOException if an error occurred while reading or if the integer is malformed.
+         */
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                final int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Malformed integer.");
+        }
+
+        /**
+         * Reads a string with its tag.
+         *
+         * @return the string read.
+         * @throws IOException if an error occurred while reading or if the value is not a string.
+         */
+        private String readString() throws IOException {
+            final Object value = read();
+            if (value instanceof String) {
+                return (String) value;
+            }
+            throw new StreamCorruptedException("Expected a string.");
+        }
+
+        /**
+         * Loads the class of the given name.
+         *
+         * @param  name  the fully qualified class name.
+         * @return the class of the given name.
+         * @throws IOException if the class has not been found.
+         */
+        private static Class<?> load(final String name) throws IOException {
+            try {
+                return Class.forName(name, false, MetadataSnapshot.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new StreamCorruptedException("Unknown type: " + name);
+            }
+        }
+
+        /**
+         * Reads a value with its tag.
+         *
+         * @return the value read, or {@code null}.
+         * @throws IOException if an error occurred while reading or if the stream is corrupted.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Object read() throws IOException {
+            final byte tag = in.readByte();
+            switch (tag) {
+                case NULL:          return null;
+                case STRING_REF:    return strings.get(readVarInt());
+                case TRUE:          return Boolean.TRUE;
+                case FALSE:         return Boolean.FALSE;
+                case INTEGER:       return in.readInt();
+                case LONG:          return in.readLong();
+                case DOUBLE:        return in.readDouble();
+                case FLOAT:         return in.readFloat();
+                case DATE:          return new Date(in.readLong());
+                case URI_STRING:    return URI.create(readString());
+                case LOCALE:        return Locale.forLanguageTag(readString());
+                case CHARSET:       return Charset.forName(readString());
+                case INTERNATIONAL: return readText();
+                case NODE_REF:      return nodes.get(readVarInt());
+                case NODE:          return readNode();
+                case STRING: {
+                    final byte[] bytes = new byte[readVarInt()];
+                    in.readFully(bytes);
+                    final String value = new String(bytes, StandardCharsets.UTF_8).intern();
+                    strings.add(value);
+                    return value;
+                }
+                case CODE_LIST: {
+                    final Class<?> c = load(readString());
+                    if (!CodeList.class.isAssignableFrom(c)) {
+                        throw new StreamCorruptedException("Not a code list: " + c.getName());
+                    }
+                    return CodeList.valueOf((Class) c, readString());
+                }
+                case ENUM: {
+                    final Class<?> c = load(readString());
+                    if (!c.isEnum()) {
+                        throw new StreamCorruptedException("Not an enumeration: " + c.getName());
+                    }
+                    return Enum.valueOf((Class) c, readString());
+                }
+                case COLLECTION: {
+                    final Object[] elements = new Object[readVarInt()];
+                    for (int i=0; i<elements.length; i++) {
+                        elements[i] = read();
+                    }
+                    return elements;            // Converted to a collection by the caller.
+                }
+                case MAP: {
+                    final int size = readVarInt();
+                    if (size == 0) {
+                        return Collections.emptyMap();
+                    }
+                    final Map<Object,Object> map = new LinkedHashMap<>();
+                    for (int i=0; i<size; i++) {
+                        map.put(read(), read());
+                    }
+                    return Collections.unmodifiableMap(map);
+                }
+                case SERIALIZED: {
+                    final byte[] bytes = new byte[readVarInt()];
+                    in.readFully(bytes);
+                    try (ObjectInputStream s = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                        return s.readObject();
+                    } catch (ClassNotFoundException e) {
+                        throw new StreamCorruptedException("Unknown type: " + e.getMessage());
+                    }
+                }
+                default: throw new StreamCorruptedException("Unknown tag: " + tag);
+            }
+        }
+
+        /**
+         * Reads an international string after its tag. The international string is shared
+         * with previously read strings having the same text in all languages.
+         *
+         * @return the international string read.
+         * @throws IOException if an error occurred while reading or if the stream is corrupted.
+         */
+        private SnapshotText readText() throws IOException {
+            final String text = readString();
+            final int count = readVarInt();
+            Map<Locale,String> translations = Collections.emptyMap();
+            if (count != 0) {
+                translations = new LinkedHashMap<>();
+                for (int i=0; i<count; i++) {
+                    translations.put(Locale.forLanguageTag(readString()), readString());
+                }
+                translations = Collections.unmodifiableMap(translations);
+            }
+            return texts.computeIfAbsent(new SnapshotText(text, translations), (t) -> t);
+        }
+
+        /**
+         * Reads a metadata object. The proxy is registered before its properties are read,
+         * so properties can refer to the object being read.
+         *
+         * @return the metadata object read.
+         * @throws IOException if an error occurred while reading or if the stream is corrupted.
+         */
+        private Object readNode() throws IOException {
+            final int id = readVarInt();
+            if (id == schemas.size()) {
+                final Class<?> type = load(readString());
+                if (!SnapshotSchema.isMetadata(type)) {
+                    throw new StreamCorruptedException("Not a metadata interface: " + type.getName());
+                }
+                final SnapshotSchema schema = SnapshotSchema.forType(type);
+                final int[] mapping = new int[readVarInt()];
+                for (int i=0; i<mapping.length; i++) {
+                    mapping[i] = schema.indexOf(readString());
+                }
+                schemas.add(schema);
+                mappings.add(mapping);
+            } else if (id > schemas.size()) {
+                throw new StreamCorruptedException("Unknown metadata interface: " + id);
+            }
+            final SnapshotSchema schema = schemas.get(id);
+            final Object[] values = new Object[schema.size()];
+            final Object node = SnapshotHandler.proxy(schema, values);
+            nodes.add(node);
+            for (final int i : mappings.get(id)) {
+                Object value = read();
+                if (i >= 0) {
+                    final boolean multiple = (schema.kinds[i] != SnapshotSchema.SINGLE);
+                    if (value instanceof Object[]) {
+                        value = multiple ? schema.collection(i, (Object[]) value) : null;
+                    } else if (multiple && value != null) {
+                        value = schema.collection(i, new Object[] {value});
+                    }
+                    values[i] = value;
+                }
+            }
+            return node;
+        }
+    }
+}
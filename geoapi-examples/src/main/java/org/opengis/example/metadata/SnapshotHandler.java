@@ -0,0 +1,306 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.metadata;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Iterator;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Collections;
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Method;
+import java.lang.reflect.InvocationHandler;
+
+
+/**
+ * The handler of all metadata proxy created by {@link MetadataSnapshot}. Property values are stored
+ * in an array in the order defined by {@link SnapshotSchema}. Values are never modified after the
+ * snapshot has been completed.
+ *
+ * <p>Snapshots may contain cycles, for example a citation having an identifier whose authority is
+ * the citation itself. The {@code equals(Object)}, {@code hashCode()} and {@code toString()} methods
+ * take care of those cycles.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class SnapshotHandler implements InvocationHandler, Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = -4139528564317745017L;
+
+    /**
+     * The GeoAPI interface implemented by this handler.
+     */
+    private final Class<?> type;
+
+    /**
+     * The property values in the order defined by {@link #schema}. Elements may be {@code null}.
+     * The content of this array shall not be modified after the snapshot has been completed.
+     */
+    final Object[] values;
+
+    /**
+     * The properties of the {@linkplain #type}, fetched when first needed after deserialization.
+     */
+    private transient SnapshotSchema schema;
+
+    /**
+     * Creates a new handler with the given property values, which are not cloned.
+     *
+     * @param schema  the properties of the metadata interface.
+     * @param values  the property values in the order defined by the schema.
+     */
+    private SnapshotHandler(final SnapshotSchema schema, final Object[] values) {
+        this.type   = schema.type;
+        this.schema = schema;
+        this.values = values;
+    }
+
+    /**
+     * Creates a new proxy implementing the interface of the given schema. The given array is stored
+     * directly and can be completed by the caller before the proxy is made available to users.
+     *
+     * @param  schema  the properties of the metadata interface to implement.
+     * @param  values  the property values in the order defined by the schema.
+     * @return the proxy implementing the metadata interface.
+     */
+    static Object proxy(final SnapshotSchema schema, final Object[] values) {
+        return Proxy.newProxyInstance(SnapshotHandler.class.getClassLoader(),
+                new Class<?>[] {schema.type}, new SnapshotHandler(schema, values));
+    }
+
+    /**
+     * Returns the handler of the given object if it is a snapshot, or {@code null} otherwise.
+     *
+     * @param  object  the object for which to get the handler, or {@code null}.
+     * @return the snapshot handler of the given object, or {@code null}.
+     */
+    static SnapshotHandler handler(final Object object) {
+        if (object != null && Proxy.isProxyClass(object.getClass())) {
+            final InvocationHandler handler = Proxy.getInvocationHandler(object);
+            if (handler instanceof SnapshotHandler) {
+                return (SnapshotHandler) handler;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the properties of the metadata interface.
+     *
+     * @return the properties of the metadata interface.
+     */
+    SnapshotSchema schema() {
+        SnapshotSchema s = schema;
+        if (s == null) {
+            schema = s = SnapshotSchema.forType(type);
+        }
+        return s;
+    }
+
+    /**
+     * Invoked when a method from a GeoAPI interface has been invoked. This method returns the stored
+     * value of the property, or an empty collection or {@code null} if the property has no value.
+     * Dates are cloned since {@link Date} objects are mutable.
+     *
+     * @param  proxy   the proxy object on which a method has been invoked.
+     * @param  method  the method which has been invoked.
+     * @param  args    the argument given to the invoked method.
+     * @return the value to return, which may be {@code null}.
+     * @throws UnsupportedOperationException if the invoked method is not a property getter
+     *         and is not one of the methods handled in a special way.
+     */
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args)
+            throws UnsupportedOperationException
+    {
+        final String name = method.getName();
+        if (args != null) {
+            if (args.length == 1 && name.equals("equals")) {
+                return equals(args[0]);
+            }
+            throw new UnsupportedOperationException(String.valueOf(method));
+        }
+        final SnapshotSchema s = schema();
+        final int i = s.indexOf(name);
+        if (i >= 0) {
+            final Object value = values[i];
+            if (value == null) {
+                return s.defaultValue(i);
+            }
+            if (value instanceof Date) {
+                return ((Date) value).clone();
+            }
+            return value;
+        }
+        if (name.equals("toString")) return toString();
+        if (name.equals("hashCode")) return hashCode();
+        throw new UnsupportedOperationException("Unknown method: " + name + "()");
+    }
+
+    /**
+     * Returns a string representation of this snapshot. This method formats the ISO/OGC identifier
+     * of the metadata type followed by the properties having a value.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        format(buffer, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return buffer.toString();
+    }
+
+    /**
+     * Formats this snapshot in the given buffer. Snapshots which are already being formatted
+     * are written as their identifier followed by an ellipsis, for avoiding infinite recursion.
+     *
+     * @param buffer    where to format this snapshot.
+     * @param visiting  the snapshots which are being formatted.
+     */
+    private void format(final StringBuilder buffer, final Set<SnapshotHandler> visiting) {
+        final SnapshotSchema s = schema();
+        buffer.append(s.identifier).append('{');
+        if (visiting.add(this)) {
+            String separator = "";
+            for (int i=0; i<values.length; i++) {
+                final Object value = values[i];
+                if (value != null && !(value instanceof Collection<?> && ((Collection<?>) value).isEmpty())
+                                  && !(value instanceof Map<?,?> && ((Map<?,?>) value).isEmpty()))
+                {
+                    buffer.append(separator).append(s.names[i]).append('=');
+                    formatValue(buffer, value, visiting);
+                    separator = ", ";
+                }
+            }
+            visiting.remove(this);
+        } else {
+            buffer.append('…');
+        }
+        buffer.append('}');
+    }
+
+    /**
+     * Formats the given property value in the given buffer.
+     *
+     * @param buffer    where to format the value.
+     * @param value     the property value to format.
+     * @param visiting  the snapshots which are being formatted.
+     */
+    private static void formatValue(final StringBuilder buffer, final Object value, final Set<SnapshotHandler> visiting) {
+        if (value instanceof Collection<?>) {
+            buffer.append('[');
+            String separator = "";
+            for (final Object element : (Collection<?>) value) {
+                buffer.append(separator);
+                formatValue(buffer, element, visiting);
+                separator = ", ";
+            }
+            buffer.append(']');
+        } else {
+            final SnapshotHandler h = handler(value);
+            if (h != null) {
+                h.format(buffer, visiting);
+            } else {
+                buffer.append(value);
+            }
+        }
+    }
+
+    /**
+     * Returns a hash code value for this snapshot. Only the values which are not other metadata objects
+     * are used for computing the hash code, which avoids infinite recursion and is sufficient for hashing.
+     */
+    @Override
+    public int hashCode() {
+        int code = type.hashCode();
+        for (final Object value : values) {
+            code *= 31;
+            if (value instanceof Collection<?>) {
+                code += ((Collection<?>) value).size();
+            } else if (handler(value) == null) {
+                code += Objects.hashCode(value);
+            }
+        }
+        return code ^ 1354856163;
+    }
+
+    /**
+     * Returns {@code true} if the given object is a snapshot with the same property values than this snapshot.
+     * If the given object is the proxy, then the proxy handler will be unwrapped. Note that since the proxy
+     * {@code equals} method delegates to this method, the symmetry is preserved.
+     */
+    @Override
+    public boolean equals(final Object object) {
+        final SnapshotHandler other = (object instanceof SnapshotHandler) ? (SnapshotHandler) object : handler(object);
+        return (other != null) && equals(this, other, new IdentityHashMap<>());
+    }
+
+    /**
+     * Compares the given snapshots, assuming that the pairs of snapshots in the {@code assumed} map are equal.
+     * That assumption is valid for cycles: if all other values are equal, then the snapshots are equal.
+     *
+     * @param  a        the first snapshot to compare.
+     * @param  b        the second snapshot to compare.
+     * @param  assumed  the pairs of snapshots assumed equal.
+     * @return whether the given snapshots are equal.
+     */
+    private static boolean equals(final SnapshotHandler a, final SnapshotHandler b,
+                                  final Map<SnapshotHandler,SnapshotHandler> assumed)
+    {
+        if (a == b || assumed.get(a) == b) {
+            return true;
+        }
+        if (a.type != b.type) {
+            return false;
+        }
+        assumed.put(a, b);
+        for (int i=0; i<a.values.length; i++) {
+            if (!valueEquals(a.values[i], b.values[i], assumed)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the given property values, which may be snapshots or collections of snapshots.
+     *
+     * @param  x        the first value to compare.
+     * @param  y        the second value to compare.
+     * @param  assumed  the pairs of snapshots assumed equal.
+     * @return whether the given values are equal.
+     */
+    private static boolean valueEquals(final Object x, final Object y, final Map<SnapshotHandler,SnapshotHandler> assumed) {
+        if (x instanceof Collection<?> && y instanceof Collection<?>) {
+            final Collection<?> cx = (Collection<?>) x;
+            final Collection<?> cy = (Collection<?>) y;
+            if (cx.size() != cy.size()) {
+                return false;
+            }
+            final Iterator<?> it = cy.iterator();
+            for (final Object element : cx) {
+                if (!valueEquals(element, it.next(), assumed)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        final SnapshotHandler hx = handler(x);
+        final SnapshotHandler hy = handler(y);
+        if (hx != null || hy != null) {
+            return (hx != null) && (hy != null) && equals(hx, hy, assumed);
+        }
+        return Objects.equals(x, y);
+    }
+}
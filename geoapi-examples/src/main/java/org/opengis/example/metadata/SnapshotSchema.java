@@ -0,0 +1,248 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.metadata;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.lang.reflect.Type;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.WildcardType;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.ParameterizedType;
+
+import org.opengis.annotation.UML;
+
+
+/**
+ * The list of properties of a GeoAPI metadata interface, in a fixed order used by {@link SnapshotHandler}
+ * for storing the property values in an array. Properties are the methods without parameters having a
+ * {@link UML} annotation, sorted by method name. Instances are created once per interface.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class SnapshotSchema {
+    /**
+     * The schemas created for each metadata interface.
+     */
+    private static final ClassValue<SnapshotSchema> SCHEMAS = new Cache();
+
+    /**
+     * The cache of schemas, computed when first needed for each metadata interface.
+     */
+    private static final class Cache extends ClassValue<SnapshotSchema> {
+        /** Creates the schema for the given metadata interface. */
+        @Override protected SnapshotSchema computeValue(final Class<?> type) {
+            return new SnapshotSchema(type);
+        }
+    }
+
+    /**
+     * Kind of property values. Values of multi-valued properties are stored as unmodifiable collections.
+     */
+    static final byte SINGLE = 0, COLLECTION = 1, LIST = 2, SET = 3;
+
+    /**
+     * The metadata interface.
+     */
+    final Class<?> type;
+
+    /**
+     * The UML identifier of the metadata interface, or its simple name if none.
+     */
+    final String identifier;
+
+    /**
+     * The getter methods, sorted by name.
+     */
+    final Method[] getters;
+
+    /**
+     * The UML identifiers of the getter methods.
+     */
+    final String[] names;
+
+    /**
+     * The type of values, or the type of elements for multi-valued properties.
+     */
+    final Class<?>[] elementTypes;
+
+    /**
+     * Whether each property is {@link #SINGLE}, {@link #COLLECTION}, {@link #LIST} or {@link #SET}.
+     */
+    final byte[] kinds;
+
+    /**
+     * Index of each property by method name.
+     */
+    private final Map<String,Integer> indices;
+
+    /**
+     * Returns the schema for the given metadata interface.
+     *
+     * @param  type  the metadata interface.
+     * @return the schema of the given interface.
+     */
+    static SnapshotSchema forType(final Class<?> type) {
+        return SCHEMAS.get(type);
+    }
+
+    /**
+     * Returns whether the given type is a GeoAPI metadata interface.
+     *
+     * @param  type  the type to test.
+     * @return whether the given type is a metadata interface.
+     */
+    static boolean isMetadata(final Class<?> type) {
+        return type.isInterface() && type.getName().startsWith("org.opengis.metadata.");
+    }
+
+    /**
+     * Creates the schema for the given metadata interface.
+     *
+     * @param type  the metadata interface.
+     */
+    private SnapshotSchema(final Class<?> type) {
+        this.type = type;
+        final UML uml = type.getAnnotation(UML.class);
+        identifier = (uml != null && !uml.identifier().trim().isEmpty()) ? uml.identifier() : type.getSimpleName();
+        /*
+         * Collect the getter methods. If the same method is inherited from many interfaces
+         * (for example with a covariant return type), keep the most specific one.
+         */
+        final Map<String,Method> methods = new HashMap<>();
+        for (final Method method : type.getMethods()) {
+            if (method.getParameterCount() == 0 && !Modifier.isStatic(method.getModifiers())
+                    && method.isAnnotationPresent(UML.class))
+            {
+                final Method previous = methods.putIfAbsent(method.getName(), method);
+                if (previous != null && previous.getReturnType().isAssignableFrom(method.getReturnType())) {
+                    methods.put(method.getName(), method);
+                }
+            }
+        }
+        getters = methods.values().toArray(new Method[methods.size()]);
+        Arrays.sort(getters, (m1, m2) -> m1.getName().compareTo(m2.getName()));
+        names        = new String  [getters.length];
+        elementTypes = new Class<?>[getters.length];
+        kinds        = new byte    [getters.length];
+        indices      = new HashMap<>(2 * getters.length);
+        for (int i=0; i<getters.length; i++) {
+            final Method method = getters[i];
+            final Class<?> rt = method.getReturnType();
+            names[i] = method.getAnnotation(UML.class).identifier();
+            indices.put(method.getName(), i);
+            if (Collection.class.isAssignableFrom(rt)) {
+                kinds[i] = Set .class.isAssignableFrom(rt) ? SET :
+                           List.class.isAssignableFrom(rt) ? LIST : COLLECTION;
+                Type element = Object.class;
+                final Type generic = method.getGenericReturnType();
+                if (generic instanceof ParameterizedType) {
+                    element = ((ParameterizedType) generic).getActualTypeArguments()[0];
+                }
+                elementTypes[i] = erasure(element);
+            } else {
+                kinds[i] = SINGLE;
+                elementTypes[i] = rt;
+            }
+        }
+    }
+
+    /**
+     * Returns the class of the given type, using the upper bound of wildcards and type variables.
+     *
+     * @param  type  the type for which to get the class.
+     * @return the erasure of the given type.
+     */
+    private static Class<?> erasure(Type type) {
+        if (type instanceof WildcardType) {
+            type = ((WildcardType) type).getUpperBounds()[0];
+        } else if (type instanceof TypeVariable<?>) {
+            type = ((TypeVariable<?>) type).getBounds()[0];
+        }
+        if (type instanceof ParameterizedType) {
+            type = ((ParameterizedType) type).getRawType();
+        }
+        return (type instanceof Class<?>) ? (Class<?>) type : Object.class;
+    }
+
+    /**
+     * Returns the number of properties.
+     *
+     * @return the number of properties.
+     */
+    int size() {
+        return getters.length;
+    }
+
+    /**
+     * Returns the index of the property for the given method name, or -1 if none.
+     *
+     * @param  method  name of the getter method.
+     * @return index of the property, or -1 if none.
+     */
+    int indexOf(final String method) {
+        final Integer i = indices.get(method);
+        return (i != null) ? i : -1;
+    }
+
+    /**
+     * Returns the value to return for a property without value. This is an empty collection for
+     * multi-valued properties, 0 or {@code NaN} for primitive types, or {@code null} otherwise.
+     *
+     * @param  index  index of the property.
+     * @return the value of the property when no value has been stored.
+     */
+    Object defaultValue(final int index) {
+        switch (kinds[index]) {
+            case SET:  return Collections.emptySet();
+            case LIST: // Fall through
+            case COLLECTION: return Collections.emptyList();
+        }
+        final Class<?> rt = elementTypes[index];
+        if (rt.isPrimitive()) {
+            if (rt == Boolean.TYPE)   return Boolean.FALSE;
+            if (rt == Double.TYPE)    return Double.NaN;
+            if (rt == Float.TYPE)     return Float.NaN;
+            if (rt == Long.TYPE)      return 0L;
+            if (rt == Integer.TYPE)   return 0;
+            if (rt == Short.TYPE)     return (short) 0;
+            if (rt == Byte.TYPE)      return (byte) 0;
+            if (rt == Character.TYPE) return (char) 0;
+        }
+        return null;
+    }
+
+    /**
+     * Wraps the given elements in an unmodifiable collection of the kind of the given property.
+     * Empty collections are shared.
+     *
+     * @param  index     index of the property.
+     * @param  elements  the elements to wrap.
+     * @return an unmodifiable collection of the given elements.
+     */
+    Collection<?> collection(final int index, final Object[] elements) {
+        final boolean isSet = (kinds[index] == SET);
+        if (elements.length == 0) {
+            return isSet ? Collections.emptySet() : Collections.emptyList();
+        }
+        if (elements.length == 1) {
+            return isSet ? Collections.singleton(elements[0]) : Collections.singletonList(elements[0]);
+        }
+        final List<Object> list = Arrays.asList(elements);
+        return isSet ? Collections.unmodifiableSet(new LinkedHashSet<>(list)) : Collections.unmodifiableList(list);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.metadata;
+
+import java.util.Map;
+import java.util.Locale;
+import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.io.Serializable;
+
+import org.opengis.util.InternationalString;
+
+
+/**
+ * An immutable copy of an international string, with the text in all languages known to the source.
+ * The {@link InternationalString} interface does not tell which languages are available, so the source
+ * is queried for each ISO 639 language and only the translations which differ from the default text are
+ * retained.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class SnapshotText implements InternationalString, Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 2218417524386734196L;
+
+    /**
+     * The languages for which to query the source international strings.
+     */
+    private static final Locale[] LANGUAGES;
+    static {
+        final String[] codes = Locale.getISOLanguages();
+        LANGUAGES = new Locale[codes.length];
+        for (int i=0; i<codes.length; i++) {
+            LANGUAGES[i] = new Locale(codes[i]);
+        }
+    }
+
+    /**
+     * The text in the default locale.
+     */
+    private final String text;
+
+    /**
+     * The translations which differ from the default text. May be an empty map, but never null.
+     * This map shall not be modified after construction.
+     */
+    final Map<Locale,String> translations;
+
+    /**
+     * Creates a new international string with the given text and translations, which are not cloned.
+     *
+     * @param text          the text in the default locale.
+     * @param translations  the translations which differ from the default text.
+     */
+    SnapshotText(final String text, final Map<Locale,String> translations) {
+        this.text         = text;
+        this.translations = translations;
+    }
+
+    /**
+     * Returns an immutable copy of the given international string.
+     *
+     * @param  source  the international string to copy.
+     * @return the immutable copy.
+     */
+    static SnapshotText copy(final InternationalString source) {
+        final String text = source.toString().intern();
+        if (source.getClass() == SimpleCitation.class) {
+            return new SnapshotText(text, Collections.emptyMap());          // Single-language by construction.
+        }
+        Map<Locale,String> translations = null;
+        for (final Locale locale : LANGUAGES) {
+            final String t = source.toString(locale);
+            if (t != null && !t.equals(text)) {
+                if (translations == null) {
+                    translations = new LinkedHashMap<>();
+                }
+                translations.put(locale, t.intern());
+            }
+        }
+        return new SnapshotText(text, (translations != null) ? Collections.unmodifiableMap(translations)
+                                                             : Collections.emptyMap());
+    }
+
+    /**
+     * Returns the number of characters in the default text.
+     */
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    /**
+     * Returns the character of the default text at the given index.
+     */
+    @Override
+    public char charAt(final int index) {
+        return text.charAt(index);
+    }
+
+    /**
+     * Returns a sub-sequence of the default text.
+     */
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        return text.substring(start, end);
+    }
+
+    /**
+     * Returns the text in the given locale, or in the language of that locale if there is no translation
+     * specific to the country, or the default text if there is no translation in that language.
+     *
+     * @param  locale  the desired locale, or {@code null} for the default text.
+     * @return the text in the given locale if available, or the default text otherwise.
+     */
+    @Override
+    public String toString(final Locale locale) {
+        if (locale != null && !translations.isEmpty()) {
+            String t = translations.get(locale);
+            if (t == null) {
+                t = translations.get(new Locale(locale.getLanguage()));
+            }
+            if (t != null) {
+                return t;
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Returns the text in the default locale.
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Compares the default text of this string with the default text of the given string.
+     */
+    @Override
+    public int compareTo(final InternationalString other) {
+        return text.compareTo(other.toString());
+    }
+
+    /**
+     * Returns a hash code value computed from the text and translations.
+     */
+    @Override
+    public int hashCode() {
+        return text.hashCode() + 31 * translations.hashCode();
+    }
+
+    /**
+     * Compares the text and translations with the given object.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof SnapshotText) {
+            final SnapshotText other = (SnapshotText) obj;
+            return text.equals(other.text) && translations.equals(other.translations);
+        }
+        return false;
+    }
+}
@@ -18,6 +18,9 @@
  * {@link org.opengis.metadata.citation.Citation} interface because it is widely used by the
  * referencing packages.</p>
  *
+ * <p>The {@link org.opengis.example.metadata.MetadataSnapshot} class uses the same proxy strategy for
+ * creating immutable copies of arbitrary metadata trees, with a compact binary encoding.</p>
+ *
  * <p>Every classes in this package are hereby placed into the Public Domain.
  * This means anyone is free to do whatever they wish with those files.</p>
  *
@@ -107,7 +107,12 @@ public class SimpleParameter extends SimpleIdentifiedObject
         /**
          * Scale as dimensionless number in the [0 … ∞] range.
          */
-        SCALE(AbstractUnit.ONE, LENGTH.minimum, null);
+        SCALE(AbstractUnit.ONE, LENGTH.minimum, null),
+
+        /**
+         * Any angle as decimal degrees, unbounded.
+         */
+        ANGLE(DEGREE, null, null);
 
         /** Value to be returned by {@link SimpleParameter#getUnit()}. */
         final Unit<?> unit;
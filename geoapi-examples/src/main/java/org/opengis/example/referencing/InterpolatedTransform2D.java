@@ -0,0 +1,592 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import java.util.Arrays;
+import java.awt.geom.Point2D;
+
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.example.geometry.SimpleDirectPosition;
+
+
+/**
+ * An approximation of a two-dimensional {@link MathTransform} by bilinear interpolation in an adaptive grid.
+ * The exact transform is evaluated on a coarse grid over a given domain, and each grid cell is recursively
+ * split in four quadrants until the interpolation error is below a given threshold. Points inside the domain
+ * are then transformed by locating their cell and interpolating bilinearly between the cell corners, which
+ * is much faster than most map projections. Points outside the domain are transformed by the exact transform.
+ *
+ * <p>The interpolation error of a cell is estimated by comparing the exact transform with the bilinear
+ * interpolation at the cell center and at the middle of each cell edge. This is a good estimation for
+ * smooth transforms, but not a strict guarantee: transforms with singularities inside the domain
+ * should not be approximated by this class.</p>
+ *
+ * <p>The grid is computed at construction time. The exact transform is invoked once for each refinement
+ * level with all the points needed for that level, using the
+ * {@link MathTransform#transform(double[], int, double[], int, int)} array method.
+ * The refinement stops after {@value #MAXIMAL_DEPTH} levels or {@value #MAXIMAL_CELLS} cells,
+ * whichever comes first. When the cell limit is reached, the cells having the largest errors are
+ * split first, and the maximal error may not be met everywhere.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class InterpolatedTransform2D extends SimpleTransform2D {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 1624957318225744730L;
+
+    /**
+     * Maximal number of times that a cell can be split.
+     */
+    private static final int MAXIMAL_DEPTH = 12;
+
+    /**
+     * Maximal number of cells, including the cells which have been split.
+     * Each cell uses 9 {@code int} and {@code double} values, so this limit bounds the grid to a few megabytes.
+     */
+    private static final int MAXIMAL_CELLS = 1 << 18;
+
+    /**
+     * Maximal number of points to convert at once between {@code float} and {@code double} arrays.
+     */
+    private static final int CHUNK_SIZE = 512;
+
+    /**
+     * Indices in a 3×3 lattice of the points used for estimating the interpolation error:
+     * middle of the bottom edge, left edge, center, right edge and top edge.
+     */
+    private static final int[] TEST_POINTS = {1, 3, 4, 5, 7};
+
+    /**
+     * The transform to approximate.
+     */
+    private final MathTransform exact;
+
+    /**
+     * The maximal interpolation error, in units of the target coordinates.
+     */
+    private final double maximalError;
+
+    /**
+     * The domain where interpolation is applied.
+     */
+    private final double xmin, ymin, width, height;
+
+    /**
+     * For each cell, index of its first child cell or -1 if the cell is a leaf.
+     * The four children are stored consecutively in (x,y) = (0,0), (1,0), (0,1), (1,1) order.
+     */
+    private int[] children;
+
+    /**
+     * For each cell, the target coordinates of the four corners in (0,0), (1,0), (0,1), (1,1) order.
+     * The length of this array is 8 times the number of cells.
+     */
+    private double[] corners;
+
+    /**
+     * Number of cells, including the cells which have been split.
+     */
+    private int numCells;
+
+    /**
+     * Number of leaf cells.
+     */
+    private int numLeafs;
+
+    /**
+     * Creates a new approximation of the given transform.
+     *
+     * @param  exact         the transform to approximate. Shall have 2 source and target dimensions.
+     * @param  domain        the domain (in source coordinates) where interpolation is applied.
+     * @param  maximalError  the maximal interpolation error, in units of the target coordinates.
+     * @throws MismatchedDimensionException if the transform or the envelope is not two-dimensional.
+     * @throws TransformException if the exact transform failed for a point of the grid.
+     */
+    public InterpolatedTransform2D(final MathTransform exact, final Envelope domain, final double maximalError)
+            throws TransformException
+    {
+        super(null, "Interpolated transform", domain.getCoordinateReferenceSystem(), null);
+        if (exact.getSourceDimensions() != 2 || exact.getTargetDimensions() != 2 || domain.getDimension() != 2) {
+            throw new MismatchedDimensionException("Only two-dimensional transforms are supported.");
+        }
+        if (!(maximalError > 0)) {
+            throw new IllegalArgumentException("Maximal error shall be strictly positive.");
+        }
+        this.exact        = exact;
+        this.maximalError = maximalError;
+        xmin     = domain.getMinimum(0);
+        ymin     = domain.getMinimum(1);
+        width    = domain.getSpan(0);
+        height   = domain.getSpan(1);
+        children = new int[64];
+        corners  = new double[64 * 8];
+        buildGrid();
+    }
+
+    /**
+     * Computes the grid cells, one refinement level at a time. For each cell, the exact transform is
+     * known on a 3×3 lattice (the corners, the middle of each edge and the center). The lattice points
+     * are stored in row-major order: index = row×3 + column, with row 0 at the minimal <var>y</var>.
+     *
+     * @throws TransformException if a lattice point can not be transformed.
+     */
+    private void buildGrid() throws TransformException {
+        final double[] source = new double[9 * 2];
+        for (int i=0; i<9; i++) {
+            source[2*i    ] = xmin + width  * (i % 3) / 2;
+            source[2*i + 1] = ymin + height * (i / 3) / 2;
+        }
+        double[][] lattices = new double[1][9 * 2];
+        exact.transform(source, 0, lattices[0], 0, 9);
+        int[] cells = {newCell()};
+        int[] columns = {0}, rows = {0};                // Position of each cell in the grid of current depth.
+        for (int depth = 0; ; depth++) {
+            /*
+             * Store the corners of all cells of the current level,
+             * and select the cells that need to be split.
+             */
+            int numSplit = 0;
+            final int[] split = new int[cells.length];
+            final double[] errors = new double[cells.length];
+            for (int c=0; c<cells.length; c++) {
+                final double[] lattice = lattices[c];
+                final int cell = cells[c];
+                System.arraycopy(lattice,  0, corners, cell*8,     2);
+                System.arraycopy(lattice,  4, corners, cell*8 + 2, 2);
+                System.arraycopy(lattice, 12, corners, cell*8 + 4, 2);
+                System.arraycopy(lattice, 16, corners, cell*8 + 6, 2);
+                if (depth < MAXIMAL_DEPTH) {
+                    final double e = error(cell, lattice);
+                    if (e > maximalError) {
+                        errors[numSplit] = e;
+                        split[numSplit++] = c;
+                    }
+                }
+            }
+            final int allowed = (MAXIMAL_CELLS - numCells) / 4;
+            if (numSplit > allowed) {
+                numSplit = largest(split, errors, numSplit, allowed);
+            }
+            if (numSplit == 0) break;
+            /*
+             * Compute the source coordinates of the points needed by the children lattices.
+             * Child lattice points coincide with parent lattice points when both indices are
+             * even in a 5×5 lattice of quarter steps; only the other points are computed.
+             */
+            final double cellWidth  = width  / (1 << depth);
+            final double cellHeight = height / (1 << depth);
+            final double[] gathered = new double[numSplit * 4 * 5 * 2];
+            int n = 0;
+            for (int s=0; s<numSplit; s++) {
+                final double x0 = xmin + cellWidth  * columns[split[s]];
+                final double y0 = ymin + cellHeight * rows   [split[s]];
+                for (int q=0; q<4; q++) {
+                    for (int i=0; i<9; i++) {
+                        final int u = (q & 1)*2 + i % 3;
+                        final int v = (q >> 1)*2 + i / 3;
+                        if (((u | v) & 1) != 0) {
+                            gathered[n++] = x0 + cellWidth  * u / 4;
+                            gathered[n++] = y0 + cellHeight * v / 4;
+                        }
+                    }
+                }
+            }
+            final double[] transformed = new double[gathered.length];
+            exact.transform(gathered, 0, transformed, 0, gathered.length / 2);
+            /*
+             * Create the children cells with their lattices for the next level.
+             */
+            final int[] nextCells = new int[numSplit * 4];
+            final int[] nextColumns = new int[numSplit * 4];
+            final int[] nextRows = new int[numSplit * 4];
+            final double[][] nextLattices = new double[numSplit * 4][];
+            n = 0;
+            for (int s=0; s<numSplit; s++) {
+                final double[] parent = lattices[split[s]];
+                final int first = numCells;
+                for (int q=0; q<4; q++) {
+                    final int child = newCell();
+                    final double[] lattice = new double[9 * 2];
+                    for (int i=0; i<9; i++) {
+                        final int u = (q & 1)*2 + i % 3;
+                        final int v = (q >> 1)*2 + i / 3;
+                        if (((u | v) & 1) != 0) {
+                            lattice[2*i    ] = transformed[n++];
+                            lattice[2*i + 1] = transformed[n++];
+                        } else {
+                            final int p = (v/2)*3 + u/2;
+                            lattice[2*i    ] = parent[2*p    ];
+                            lattice[2*i + 1] = parent[2*p + 1];
+                        }
+                    }
+                    nextCells  [s*4 + q] = child;
+                    nextColumns[s*4 + q] = columns[split[s]]*2 + (q & 1);
+                    nextRows   [s*4 + q] = rows   [split[s]]*2 + (q >> 1);
+                    nextLattices[s*4 + q] = lattice;
+                }
+                children[cells[split[s]]] = first;
+            }
+            cells    = nextCells;
+            columns  = nextColumns;
+            rows     = nextRows;
+            lattices = nextLattices;
+        }
+        numLeafs = 0;
+        for (int i=0; i<numCells; i++) {
+            if (children[i] < 0) numLeafs++;
+        }
+    }
+
+    /**
+     * Keeps only the {@code n} cells having the largest errors, in their original order.
+     *
+     * @param  split     indices of the cells to split.
+     * @param  errors    the error of each cell in the {@code split} array.
+     * @param  count     number of valid elements in the {@code split} and {@code errors} arrays.
+     * @param  n         maximal number of cells to keep.
+     * @return number of cells kept, which is {@code n}.
+     */
+    private static int largest(final int[] split, final double[] errors, final int count, final int n) {
+        if (n <= 0) {
+            return 0;
+        }
+        final double[] sorted = Arrays.copyOf(errors, count);
+        Arrays.sort(sorted);
+        final double threshold = sorted[count - n];
+        int kept = 0;
+        for (int i=0; i<count && kept < n; i++) {
+            if (errors[i] > threshold) {
+                split[kept++] = split[i];
+            }
+        }
+        for (int i=0; i<count && kept < n; i++) {
+            if (errors[i] == threshold) {
+                split[kept++] = split[i];
+            }
+        }
+        Arrays.sort(split, 0, kept);
+        return kept;
+    }
+
+    /**
+     * Allocates a new cell and returns its index.
+     *
+     * @return index of the new cell.
+     */
+    private int newCell() {
+        if (numCells == children.length) {
+            children = Arrays.copyOf(children, numCells * 2);
+            corners  = Arrays.copyOf(corners,  numCells * 16);
+        }
+        children[numCells] = -1;
+        return numCells++;
+    }
+
+    /**
+     * Returns the maximal distance between the exact values and the bilinear interpolation
+     * in the given cell, measured at the test points of the given lattice.
+     *
+     * @param  cell     index of the cell.
+     * @param  lattice  the exact target coordinates on the 3×3 lattice of the cell.
+     * @return maximal distance between the exact and the interpolated values.
+     */
+    private double error(final int cell, final double[] lattice) {
+        double max = 0;
+        for (final int i : TEST_POINTS) {
+            final double fx = (i % 3) / 2.0;
+            final double fy = (i / 3) / 2.0;
+            final double dx = interpolate(cell, 0, fx, fy) - lattice[2*i    ];
+            final double dy = interpolate(cell, 1, fx, fy) - lattice[2*i + 1];
+            final double e = Math.hypot(dx, dy);
+            if (!(e <= max)) max = e;                       // Use ! for propagating NaN.
+        }
+        return max;
+    }
+
+    /**
+     * Interpolates bilinearly the given target dimension in the given cell.
+     *
+     * @param  cell  index of the cell.
+     * @param  dim   0 for <var>x</var>, 1 for <var>y</var>.
+     * @param  fx    position inside the cell along <var>x</var>, from 0 to 1.
+     * @param  fy    position inside the cell along <var>y</var>, from 0 to 1.
+     * @return the interpolated value.
+     */
+    private double interpolate(final int cell, final int dim, final double fx, final double fy) {
+        final int i = cell*8 + dim;
+        final double bottom = corners[i    ] + fx * (corners[i + 2] - corners[i    ]);
+        final double top    = corners[i + 4] + fx * (corners[i + 6] - corners[i + 4]);
+        return bottom + fy * (top - bottom);
+    }
+
+    /**
+     * Returns the number of grid cells used for interpolation.
+     * This is an indication of the approximation complexity.
+     *
+     * @return the number of grid cells.
+     */
+    public int getCellCount() {
+        return numLeafs;
+    }
+
+    /**
+     * Interpolates the given point if it is inside the domain, or returns {@code false} otherwise.
+     *
+     * @param  x       the <var>x</var> source coordinate.
+     * @param  y       the <var>y</var> source coordinate.
+     * @param  dstPts  where to write the interpolated coordinates.
+     * @param  dstOff  index where to write in the destination array.
+     * @return whether the point has been interpolated.
+     */
+    private boolean interpolate(final double x, final double y, final double[] dstPts, final int dstOff) {
+        double fx = (x - xmin) / width;
+        double fy = (y - ymin) / height;
+        if (!(fx >= 0 && fx <= 1 && fy >= 0 && fy <= 1)) {          // Use ! for catching NaN.
+            return false;
+        }
+        int cell = 0, first;
+        while ((first = children[cell]) >= 0) {
+            fx *= 2;
+            fy *= 2;
+            final int cx = (fx >= 1) ? 1 : 0;
+            final int cy = (fy >= 1) ? 1 : 0;
+            fx -= cx;
+            fy -= cy;
+            cell = first + cy*2 + cx;
+        }
+        dstPts[dstOff    ] = interpolate(cell, 0, fx, fy);
+        dstPts[dstOff + 1] = interpolate(cell, 1, fx, fy);
+        return true;
+    }
+
+    /**
+     * Transforms the given point by interpolation if it is inside the domain,
+     * or by the exact transform otherwise.
+     *
+     * @param  ptSrc  the coordinate point to be transformed.
+     * @param  ptDst  the coordinate point where to store the result, or {@code null}.
+     * @return the transformed point.
+     * @throws TransformException if the point is outside the domain and the exact transform failed.
+     */
+    @Override
+    public Point2D transform(final Point2D ptSrc, Point2D ptDst) throws TransformException {
+        final double[] buffer = {ptSrc.getX(), ptSrc.getY()};
+        if (!interpolate(buffer[0], buffer[1], buffer, 0)) {
+            exact.transform(buffer, 0, buffer, 0, 1);
+        }
+        if (ptDst == null) {
+            ptDst = new Point2D.Double();
+        }
+        ptDst.setLocation(buffer[0], buffer[1]);
+        return ptDst;
+    }
+
+    /**
+     * Transforms many points. Points inside the domain are interpolated, and points outside the domain
+     * are gathered and transformed by a single call to the exact transform.
+     *
+     * @param  srcPts  the array containing the source point coordinates.
+     * @param  srcOff  the offset to the first point to be transformed in the source array.
+     * @param  dstPts  the array into which the transformed point coordinates are returned. May be the same than {@code srcPts}.
+     * @param  dstOff  the offset to the location of the first transformed point that is stored in the destination array.
+     * @param  numPts  the number of point objects to be transformed.
+     * @throws TransformException if a point outside the domain can not be transformed.
+     */
+    @Override
+    public void transform(double[] srcPts, int srcOff, final double[] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        if (srcPts == dstPts) {
+            srcPts = Arrays.copyOfRange(srcPts, srcOff, srcOff + numPts*2);
+            srcOff = 0;
+        }
+        int[] outside = null;
+        int numOutside = 0;
+        for (int i=0; i<numPts; i++) {
+            final int s = srcOff + i*2;
+            if (!interpolate(srcPts[s], srcPts[s+1], dstPts, dstOff + i*2)) {
+                if (outside == null) {
+                    outside = new int[Math.min(numPts, 16)];
+                } else if (numOutside == outside.length) {
+                    outside = Arrays.copyOf(outside, numOutside * 2);
+                }
+                outside[numOutside++] = i;
+            }
+        }
+        if (numOutside != 0) {
+            final double[] buffer = new double[numOutside * 2];
+            for (int k=0; k<numOutside; k++) {
+                System.arraycopy(srcPts, srcOff + outside[k]*2, buffer, k*2, 2);
+            }
+            exact.transform(buffer, 0, buffer, 0, numOutside);
+            for (int k=0; k<numOutside; k++) {
+                System.arraycopy(buffer, k*2, dstPts, dstOff + outside[k]*2, 2);
+            }
+        }
+    }
+
+    /**
+     * Transforms many points given as single-precision coordinates.
+     * Coordinates are converted to double precision by chunks and processed by the same grid loop
+     * than {@link #transform(double[], int, double[], int, int)}.
+     *
+     * @param  srcPts  the array containing the source point coordinates.
+     * @param  srcOff  the offset to the first point to be transformed in the source array.
+     * @param  dstPts  the array into which the transformed point coordinates are returned. May be the same than {@code srcPts}.
+     * @param  dstOff  the offset to the location of the first transformed point that is stored in the destination array.
+     * @param  numPts  the number of point objects to be transformed.
+     * @throws TransformException if a point outside the domain can not be transformed.
+     */
+    @Override
+    public void transform(float[] srcPts, int srcOff, final float[] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        if (srcPts == dstPts) {
+            srcPts = Arrays.copyOfRange(srcPts, srcOff, srcOff + numPts*2);
+            srcOff = 0;
+        }
+        transform(srcPts, null, srcOff, dstPts, null, dstOff, numPts);
+    }
+
+    /**
+     * Transforms many points given as single-precision coordinates into double-precision coordinates.
+     *
+     * @param  srcPts  the array containing the source point coordinates.
+     * @param  srcOff  the offset to the first point to be transformed in the source array.
+     * @param  dstPts  the array into which the transformed point coordinates are returned.
+     * @param  dstOff  the offset to the location of the first transformed point that is stored in the destination array.
+     * @param  numPts  the number of point objects to be transformed.
+     * @throws TransformException if a point outside the domain can not be transformed.
+     */
+    @Override
+    public void transform(final float[] srcPts, final int srcOff, final double[] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        transform(srcPts, null, srcOff, null, dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Transforms many points given as double-precision coordinates into single-precision coordinates.
+     *
+     * @param  srcPts  the array containing the source point coordinates.
+     * @param  srcOff  the offset to the first point to be transformed in the source array.
+     * @param  dstPts  the array into which the transformed point coordinates are returned.
+     * @param  dstOff  the offset to the location of the first transformed point that is stored in the destination array.
+     * @param  numPts  the number of point objects to be transformed.
+     * @throws TransformException if a point outside the domain can not be transformed.
+     */
+    @Override
+    public void transform(final double[] srcPts, final int srcOff, final float[] dstPts, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        transform(null, srcPts, srcOff, dstPts, null, dstOff, numPts);
+    }
+
+    /**
+     * Transforms points by chunks, converting between single and double precision as needed.
+     * Exactly one of each ({@code srcFloats}, {@code srcDoubles}) and ({@code dstFloats}, {@code dstDoubles})
+     * pairs shall be non-null. The source and destination arrays shall not overlap.
+     *
+     * @param  srcFloats   the source coordinates in single precision, or {@code null}.
+     * @param  srcDoubles  the source coordinates in double precision, or {@code null}.
+     * @param  srcOff      index of the first coordinate to transform in the source array.
+     * @param  dstFloats   where to store the coordinates in single precision, or {@code null}.
+     * @param  dstDoubles  where to store the coordinates in double precision, or {@code null}.
+     * @param  dstOff      index where to store the first transformed coordinate in the destination array.
+     * @param  numPts      number of points to transform.
+     * @throws TransformException if a point outside the domain can not be transformed.
+     */
+    private void transform(final float[] srcFloats, final double[] srcDoubles, final int srcOff,
+                           final float[] dstFloats, final double[] dstDoubles, final int dstOff, final int numPts)
+            throws TransformException
+    {
+        final double[] buffer = new double[Math.min(numPts, CHUNK_SIZE) * 2];
+        for (int start = 0; start < numPts; start += CHUNK_SIZE) {
+            final int n = Math.min(numPts - start, CHUNK_SIZE);
+            final int length = n * 2;
+            final int s = srcOff + start*2;
+            final int d = dstOff + start*2;
+            if (srcFloats != null) {
+                for (int i=0; i<length; i++) {
+                    buffer[i] = srcFloats[s + i];
+                }
+            } else {
+                System.arraycopy(srcDoubles, s, buffer, 0, length);
+            }
+            if (dstDoubles != null) {
+                transform(buffer, 0, dstDoubles, d, n);
+            } else {
+                transform(buffer, 0, buffer, 0, n);
+                for (int i=0; i<length; i++) {
+                    dstFloats[d + i] = (float) buffer[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the derivative of this transform at the given point. Inside the domain, this is the Jacobian
+     * of the bilinear interpolation in the cell containing the point. Outside the domain, this method
+     * delegates to the exact transform.
+     *
+     * @param  point  the coordinate point where to evaluate the derivative.
+     * @return the derivative at the specified point.
+     * @throws TransformException if the point is outside the domain and the exact transform
+     *         can not compute the derivative.
+     */
+    @Override
+    public Matrix derivative(final Point2D point) throws TransformException {
+        double fx = (point.getX() - xmin) / width;
+        double fy = (point.getY() - ymin) / height;
+        if (!(fx >= 0 && fx <= 1 && fy >= 0 && fy <= 1)) {          // Use ! for catching NaN.
+            return exact.derivative(new SimpleDirectPosition(null, point.getX(), point.getY()));
+        }
+        double cellWidth = width, cellHeight = height;
+        int cell = 0, first;
+        while ((first = children[cell]) >= 0) {
+            fx *= 2;
+            fy *= 2;
+            final int cx = (fx >= 1) ? 1 : 0;
+            final int cy = (fy >= 1) ? 1 : 0;
+            fx -= cx;
+            fy -= cy;
+            cell = first + cy*2 + cx;
+            cellWidth  /= 2;
+            cellHeight /= 2;
+        }
+        final SimpleMatrix matrix = new SimpleMatrix(2, 2);
+        for (int dim=0; dim<2; dim++) {
+            final int i = cell*8 + dim;
+            final double bottom = corners[i + 2] - corners[i    ];         // ∂/∂fx along the bottom edge.
+            final double top    = corners[i + 6] - corners[i + 4];         // ∂/∂fx along the top edge.
+            final double left   = corners[i + 4] - corners[i    ];         // ∂/∂fy along the left edge.
+            final double right  = corners[i + 6] - corners[i + 2];         // ∂/∂fy along the right edge.
+            matrix.setElement(dim, 0, (bottom + fy * (top   - bottom)) / cellWidth);
+            matrix.setElement(dim, 1, (left   + fx * (right - left))   / cellHeight);
+        }
+        return matrix;
+    }
+
+    /**
+     * Returns {@code false} since this transform is not expected to be an identity transform.
+     *
+     * @return {@code false}.
+     */
+    @Override
+    public boolean isIdentity() {
+        return false;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Date;
+import java.util.Collection;
+import java.util.Collections;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Method;
+import java.lang.reflect.InvocationHandler;
+
+import org.opengis.metadata.Identifier;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+
+
+/**
+ * The handler of all referencing objects created by {@link SimpleObjectFactory}. Property values
+ * are stored in a map where keys are the names of the getter methods, for example {@code "getEllipsoid"}.
+ * Properties not present in the map are assumed to have no value, in which case the handler returns
+ * an empty collection, {@code NaN} or {@code null} depending on the method return type.
+ *
+ * <p>Two methods have an argument and are handled in a special way:</p>
+ * <ul>
+ *   <li>{@code equals(Object)} compares the objects by identity.</li>
+ *   <li>{@code CoordinateSystem.getAxis(int)} fetches the axis from the array stored
+ *       under the {@value #AXES} key.</li>
+ * </ul>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class ObjectHandler implements InvocationHandler {
+    /**
+     * The key for the array of coordinate system axes.
+     */
+    static final String AXES = "getAxis";
+
+    /**
+     * The GeoAPI interface implemented by the proxy.
+     */
+    private final Class<?> type;
+
+    /**
+     * The property values, keyed by getter method names.
+     * This map shall not be modified after the proxy has been made available to users.
+     */
+    private final Map<String,Object> properties;
+
+    /**
+     * Creates a new handler for the given property values, which are not cloned.
+     *
+     * @param type        the GeoAPI interface implemented by the proxy.
+     * @param properties  the property values, keyed by getter method names.
+     */
+    private ObjectHandler(final Class<?> type, final Map<String,Object> properties) {
+        this.type       = type;
+        this.properties = properties;
+    }
+
+    /**
+     * Creates a new proxy implementing the given interface with the given property values.
+     * The map is stored directly and can be completed by the caller before the proxy is made
+     * available to users.
+     *
+     * @param  <T>         the compile-time type of the {@code type} argument.
+     * @param  type        the GeoAPI interface to implement.
+     * @param  properties  the property values, keyed by getter method names.
+     * @return the proxy implementing the given interface.
+     */
+    static <T> T create(final Class<T> type, final Map<String,Object> properties) {
+        return type.cast(Proxy.newProxyInstance(ObjectHandler.class.getClassLoader(),
+                new Class<?>[] {type}, new ObjectHandler(type, properties)));
+    }
+
+    /**
+     * Invoked when a method from a GeoAPI interface has been invoked.
+     *
+     * @param  proxy   the proxy object on which a method has been invoked.
+     * @param  method  the method which has been invoked.
+     * @param  args    the argument given to the invoked method.
+     * @return the value to return, which may be {@code null}.
+     * @throws UnsupportedOperationException if the invoked method is not supported.
+     */
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args)
+            throws UnsupportedOperationException
+    {
+        final String name = method.getName();
+        if (args == null) {
+            final Object value = properties.get(name);
+            if (value instanceof Date) {
+                return ((Date) value).clone();
+            }
+            if (value != null || properties.containsKey(name)) {
+                return value;
+            }
+            switch (name) {
+                case "toString": return toString();
+                case "hashCode": return System.identityHashCode(proxy);
+                case "toWKT":    throw new UnsupportedOperationException("WKT formatting is not implemented.");
+            }
+            final Class<?> rt = method.getReturnType();
+            if (Collection.class.isAssignableFrom(rt)) {
+                return List.class.isAssignableFrom(rt) ? Collections.emptyList() : Collections.emptySet();
+            }
+            if (rt.isPrimitive()) {
+                if (rt == Double.TYPE)  return Double.NaN;
+                if (rt == Boolean.TYPE) return Boolean.FALSE;
+                if (rt == Integer.TYPE) return 0;
+            }
+            if (rt != Void.TYPE && (name.startsWith("get") || name.startsWith("is"))) {
+                return null;
+            }
+        } else if (args.length == 1) {
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals(AXES)) {
+                return ((CoordinateSystemAxis[]) properties.get(AXES))[(Integer) args[0]];
+            }
+        }
+        throw new UnsupportedOperationException("Unsupported method: " + type.getSimpleName() + '.' + name);
+    }
+
+    /**
+     * Returns a string representation of the referencing object,
+     * made of the interface name followed by the object name.
+     */
+    @Override
+    public String toString() {
+        final Object name = properties.get("getName");
+        return type.getSimpleName() + "[\"" + ((name instanceof Identifier) ? ((Identifier) name).getCode() : name) + "\"]";
+    }
+}
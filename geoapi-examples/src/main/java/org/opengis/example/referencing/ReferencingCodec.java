@@ -0,0 +1,1094 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.Date;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+import javax.measure.IncommensurableException;
+import javax.measure.quantity.Angle;
+import javax.measure.quantity.Length;
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.unit.Units;
+
+import org.opengis.util.CodeList;
+import org.opengis.util.GenericName;
+import org.opengis.util.FactoryException;
+import org.opengis.util.InternationalString;
+import org.opengis.metadata.Identifier;
+import org.opengis.parameter.ParameterValue;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.parameter.GeneralParameterValue;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.ReferenceSystem;
+import org.opengis.referencing.cs.AffineCS;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CartesianCS;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.cs.CSFactory;
+import org.opengis.referencing.cs.CylindricalCS;
+import org.opengis.referencing.cs.EllipsoidalCS;
+import org.opengis.referencing.cs.LinearCS;
+import org.opengis.referencing.cs.ParametricCS;
+import org.opengis.referencing.cs.PolarCS;
+import org.opengis.referencing.cs.SphericalCS;
+import org.opengis.referencing.cs.TimeCS;
+import org.opengis.referencing.cs.UserDefinedCS;
+import org.opengis.referencing.cs.VerticalCS;
+import org.opengis.referencing.crs.CompoundCRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.CRSFactory;
+import org.opengis.referencing.crs.DerivedCRS;
+import org.opengis.referencing.crs.EngineeringCRS;
+import org.opengis.referencing.crs.GeneralDerivedCRS;
+import org.opengis.referencing.crs.GeodeticCRS;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ImageCRS;
+import org.opengis.referencing.crs.ParametricCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.crs.SingleCRS;
+import org.opengis.referencing.crs.TemporalCRS;
+import org.opengis.referencing.crs.VerticalCRS;
+import org.opengis.referencing.datum.Datum;
+import org.opengis.referencing.datum.DatumFactory;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.EngineeringDatum;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.ImageDatum;
+import org.opengis.referencing.datum.ParametricDatum;
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.opengis.referencing.datum.TemporalDatum;
+import org.opengis.referencing.datum.VerticalDatum;
+import org.opengis.referencing.datum.VerticalDatumType;
+import org.opengis.referencing.operation.Conversion;
+import org.opengis.referencing.operation.CoordinateOperationFactory;
+import org.opengis.referencing.operation.MathTransformFactory;
+import org.opengis.example.metadata.SimpleCitation;
+
+
+/**
+ * Compact binary encoding of datum, coordinate systems and coordinate reference systems.
+ * Objects are decoded by invoking the {@link DatumFactory}, {@link CSFactory} and {@link CRSFactory}
+ * given at construction time, so the decoded objects are instances of the library backing those factories.
+ * This is an alternative to WKT when many CRS need to be cached and restored quickly.
+ *
+ * <p>A stream is a header followed by a sequence of records, one per referencing object, terminated by an
+ * end marker. Each record contains the object properties followed by the indices of its components, which
+ * are always written before the object that use them. The last record is the object given to
+ * {@link #write write(…)}. Components having the same properties (for example the same ellipsoid used by
+ * many datum) are written only once and are shared after decoding. Strings and units of measurement are
+ * also written only once, then referenced by index.</p>
+ *
+ * <p>The encoded properties are the name, identifiers (code and code space), aliases, remarks, scope,
+ * datum anchor point and realization epoch, and all the properties given to the factory methods.
+ * Domains of validity and identifier versions are not encoded. Conversions are decoded by
+ * {@link CoordinateOperationFactory#createDefiningConversion createDefiningConversion(…)} using the
+ * parameters given by {@link MathTransformFactory#getDefaultParameters(String)} for the method name.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class ReferencingCodec {
+    /**
+     * The first bytes of the binary format, followed by {@link #VERSION}.
+     */
+    private static final int MAGIC = 0x43525342;
+
+    /**
+     * Version of the binary format.
+     */
+    private static final byte VERSION = 1;
+
+    /**
+     * Kinds of records. The {@link #END} marker terminates the stream.
+     */
+    private static final byte END = 0, ELLIPSOID = 1, PRIME_MERIDIAN = 2, GEODETIC_DATUM = 3, VERTICAL_DATUM = 4,
+            TEMPORAL_DATUM = 5, PARAMETRIC_DATUM = 6, ENGINEERING_DATUM = 7, IMAGE_DATUM = 8, AXIS = 9,
+            CARTESIAN_CS = 10, AFFINE_CS = 11, ELLIPSOIDAL_CS = 12, SPHERICAL_CS = 13, CYLINDRICAL_CS = 14,
+            POLAR_CS = 15, VERTICAL_CS = 16, TIME_CS = 17, PARAMETRIC_CS = 18, LINEAR_CS = 19, USER_DEFINED_CS = 20,
+            GEOGRAPHIC_CRS = 21, GEOCENTRIC_CRS = 22, VERTICAL_CRS = 23, TEMPORAL_CRS = 24, PARAMETRIC_CRS = 25,
+            ENGINEERING_CRS = 26, IMAGE_CRS = 27, PROJECTED_CRS = 28, DERIVED_CRS = 29, COMPOUND_CRS = 30,
+            CONVERSION = 31;
+
+    /**
+     * Tags identifying the type of values in a record.
+     */
+    private static final byte NULL = 0, STRING = 1, STRING_REF = 2, DOUBLE = 3, INTEGER = 4, TRUE = 5, FALSE = 6,
+            DATE = 7, UNIT = 8, UNIT_REF = 9, OBJECT_REF = 10, DOUBLES = 11;
+
+    /**
+     * The base units of measurement, in the order of their codes in the binary format.
+     */
+    private static final Unit<?>[] BASE_UNITS = {AbstractUnit.ONE, Units.METRE, Units.RADIAN, Units.SECOND, Units.PASCAL};
+
+    /**
+     * The factory to use for decoding datum, ellipsoids and prime meridians.
+     */
+    private final DatumFactory datumFactory;
+
+    /**
+     * The factory to use for decoding coordinate systems.
+     */
+    private final CSFactory csFactory;
+
+    /**
+     * The factory to use for decoding coordinate reference systems.
+     */
+    private final CRSFactory crsFactory;
+
+    /**
+     * The factory to use for decoding conversions, or {@code null} if none.
+     */
+    private final CoordinateOperationFactory opFactory;
+
+    /**
+     * The factory to use for creating the parameters of decoded conversions, or {@code null} if none.
+     */
+    private final MathTransformFactory mtFactory;
+
+    /**
+     * Creates a new codec which will use the given factories for decoding objects.
+     * The last two factories are needed only for decoding derived and projected CRS.
+     *
+     * @param  datumFactory  factory for creating {@link Datum} instances.
+     * @param  csFactory     factory for creating {@link CoordinateSystem} instances.
+     * @param  crsFactory    factory for creating {@link CoordinateReferenceSystem} instances.
+     * @param  opFactory     factory for creating {@link Conversion} instances, or {@code null} if none.
+     * @param  mtFactory     factory for creating conversion parameters, or {@code null} if none.
+     */
+    public ReferencingCodec(final DatumFactory datumFactory, final CSFactory csFactory, final CRSFactory crsFactory,
+                            final CoordinateOperationFactory opFactory, final MathTransformFactory mtFactory)
+    {
+        this.datumFactory = datumFactory;
+        this.csFactory    = csFactory;
+        this.crsFactory   = crsFactory;
+        this.opFactory    = opFactory;
+        this.mtFactory    = mtFactory;
+    }
+
+    /**
+     * Writes the given referencing object and all its components.
+     *
+     * @param  object  the ellipsoid, prime meridian, datum, axis, coordinate system, CRS or conversion to write.
+     * @param  out     where to write the object.
+     * @throws NotSerializableException if the object or one of its components is of an unsupported type.
+     * @throws IOException if an error occurred while writing.
+     */
+    public void write(final IdentifiedObject object, final DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        new Writer(out).write(object);
+        out.writeByte(END);
+    }
+
+    /**
+     * Reads a referencing object written by {@link #write(IdentifiedObject, DataOutput)}.
+     *
+     * @param  <T>   the compile-time type of the {@code type} argument.
+     * @param  type  the expected type of the object.
+     * @param  in    where to read the object.
+     * @return the object created by the factories.
+     * @throws StreamCorruptedException if the stream is not in the expected format.
+     * @throws IOException if an error occurred while reading.
+     * @throws FactoryException if a factory failed to create an object.
+     */
+    public <T extends IdentifiedObject> T read(final Class<T> type, final DataInput in) throws IOException, FactoryException {
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+            throw new StreamCorruptedException("Not an encoded referencing object.");
+        }
+        final Object object = new Reader(in).read();
+        if (!type.isInstance(object)) {
+            throw new StreamCorruptedException("Expected a " + type.getSimpleName() + " object.");
+        }
+        return type.cast(object);
+    }
+
+    /**
+     * A reference to a record in the stream, for use in the list of record values.
+     */
+    private static final class Ref {
+        /** Index of the record. */
+        final int index;
+
+        /**
+         * Creates a new reference.
+         *
+         * @param index  index of the record.
+         */
+        Ref(final int index) {
+            this.index = index;
+        }
+
+        /** Returns a hash code value for the reference. */
+        @Override public int hashCode() {
+            return index ^ 0x5A3C96E1;
+        }
+
+        /** Compares the index with the given object. */
+        @Override public boolean equals(final Object other) {
+            return (other instanceof Ref) && ((Ref) other).index == index;
+        }
+    }
+
+    /**
+     * A record to write, made of a kind and a list of values. Used as keys for detecting duplicated records.
+     */
+    private static final class Record {
+        /** One of the {@link #ELLIPSOID}, {@link #AXIS}, <i>etc.</i> constants. */
+        final byte kind;
+
+        /** The values of the record. */
+        final List<Object> values = new ArrayList<>();
+
+        /**
+         * Creates a new record of the given kind.
+         *
+         * @param kind  one of the {@link #ELLIPSOID}, {@link #AXIS}, <i>etc.</i> constants.
+         */
+        Record(final byte kind) {
+            this.kind = kind;
+        }
+
+        /** Returns a hash code value for the record. */
+        @Override public int hashCode() {
+            return kind + 31 * values.hashCode();
+        }
+
+        /** Compares the kind and values of this record with the given object. */
+        @Override public boolean equals(final Object other) {
+            return (other instanceof Record) && ((Record) other).kind == kind && ((Record) other).values.equals(values);
+        }
+    }
+
+    /**
+     * Encodes an object. A new instance shall be used for each object to write.
+     */
+    private static final class Writer {
+        /** Where to write the records. */
+        private final DataOutput out;
+
+        /** Index of records already written, for sharing duplicated components. */
+        private final Map<Record,Ref> records = new HashMap<>();
+
+        /** Index of objects already written, for avoiding to build their records again. */
+        private final Map<Object,Ref> objects = new IdentityHashMap<>();
+
+        /** Index of strings already written. */
+        private final Map<String,Integer> strings = new HashMap<>();
+
+        /** Index of units of measurement already written. */
+        private final Map<Unit<?>,Integer> units = new HashMap<>();
+
+        /**
+         * Creates a new writer.
+         *
+         * @param out  where to write the records.
+         */
+        Writer(final DataOutput out) {
+            this.out = out;
+        }
+
+        /**
+         * Writes a non-negative integer using 7 bits per byte.
+         *
+         * @param  value  the integer to write.
+         * @throws IOException if an error occurred while writing.
+         */
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        /**
+         * Writes the given object if not already done, after all its components.
+         * Returns a reference to the record of the object.
+         *
+         * @param  object  the object to write.
+         * @return reference to the record of the given object.
+         * @throws IOException if an error occurred while writing.
+         */
+        Ref write(final Object object) throws IOException {
+            Ref ref = objects.get(object);
+            if (ref == null) {
+                final Record record = record(object);
+                ref = records.get(record);
+                if (ref == null) {
+                    ref = new Ref(records.size());
+                    records.put(record, ref);
+                    out.writeByte(record.kind);
+                    for (final Object value : record.values) {
+                        writeValue(value);
+                    }
+                }
+                objects.put(object, ref);
+            }
+            return ref;
+        }
+
+        /**
+         * Builds the record for the given object. The components of the object are written by this method.
+         *
+         * @param  object  the object for which to build a record.
+         * @return the record of the given object.
+         * @throws IOException if an error occurred while writing a component.
+         */
+        private Record record(final Object object) throws IOException {
+            final Record r;
+            if (object instanceof Ellipsoid) {
+                final Ellipsoid e = (Ellipsoid) object;
+                final boolean ivf = e.isIvfDefinitive();
+                r = header(ELLIPSOID, e);
+                r.values.add(e.getSemiMajorAxis());
+                r.values.add(ivf ? e.getInverseFlattening() : e.getSemiMinorAxis());
+                r.values.add(ivf);
+                r.values.add(e.getAxisUnit());
+            } else if (object instanceof PrimeMeridian) {
+                final PrimeMeridian pm = (PrimeMeridian) object;
+                r = header(PRIME_MERIDIAN, pm);
+                r.values.add(pm.getGreenwichLongitude());
+                r.values.add(pm.getAngularUnit());
+            } else if (object instanceof Datum) {
+                r = datum((Datum) object);
+            } else if (object instanceof CoordinateSystemAxis) {
+                final CoordinateSystemAxis axis = (CoordinateSystemAxis) object;
+                r = header(AXIS, axis);
+                r.values.add(axis.getAbbreviation());
+                r.values.add(name(axis.getDirection()));
+                r.values.add(axis.getUnit());
+            } else if (object instanceof CoordinateSystem) {
+                final CoordinateSystem cs = (CoordinateSystem) object;
+                final byte kind;
+                if      (cs instanceof CartesianCS)   kind = CARTESIAN_CS;      // Must be before AffineCS.
+                else if (cs instanceof AffineCS)      kind = AFFINE_CS;
+                else if (cs instanceof EllipsoidalCS) kind = ELLIPSOIDAL_CS;
+                else if (cs instanceof SphericalCS)   kind = SPHERICAL_CS;
+                else if (cs instanceof CylindricalCS) kind = CYLINDRICAL_CS;
+                else if (cs instanceof PolarCS)       kind = POLAR_CS;
+                else if (cs instanceof VerticalCS)    kind = VERTICAL_CS;
+                else if (cs instanceof TimeCS)        kind = TIME_CS;
+                else if (cs instanceof ParametricCS)  kind = PARAMETRIC_CS;
+                else if (cs instanceof LinearCS)      kind = LINEAR_CS;
+                else if (cs instanceof UserDefinedCS) kind = USER_DEFINED_CS;
+                else throw new NotSerializableException(cs.getClass().getName());
+                final Ref[] axes = new Ref[cs.getDimension()];
+                for (int i=0; i<axes.length; i++) {
+                    axes[i] = write(cs.getAxis(i));
+                }
+                r = header(kind, cs);
+                r.values.add(axes.length);
+                for (final Ref axis : axes) {
+                    r.values.add(axis);
+                }
+            } else if (object instanceof CompoundCRS) {
+                final List<CoordinateReferenceSystem> components = ((CompoundCRS) object).getComponents();
+                final Ref[] refs = new Ref[components.size()];
+                for (int i=0; i<refs.length; i++) {
+                    refs[i] = write(components.get(i));
+                }
+                r = header(COMPOUND_CRS, (CompoundCRS) object);
+                r.values.add(refs.length);
+                for (final Ref component : refs) {
+                    r.values.add(component);
+                }
+            } else if (object instanceof SingleCRS) {
+                r = crs((SingleCRS) object);
+            } else if (object instanceof Conversion) {
+                final Conversion c = (Conversion) object;
+                r = header(CONVERSION, c);
+                r.values.add(c.getMethod().getName().getCode());
+                final List<GeneralParameterValue> parameters = c.getParameterValues().values();
+                r.values.add(parameters.size());
+                for (final GeneralParameterValue p : parameters) {
+                    if (!(p instanceof ParameterValue<?>)) {
+                        throw new NotSerializableException("Parameter groups are not supported.");
+                    }
+                    final ParameterValue<?> pv = (ParameterValue<?>) p;
+                    Object value = pv.getValue();
+                    if (value instanceof Float || value instanceof Long) {
+                        value = ((Number) value).doubleValue();
+                    } else if (!(value == null || value instanceof Double || value instanceof Integer
+                            || value instanceof Boolean || value instanceof String || value instanceof double[]))
+                    {
+                        throw new NotSerializableException(value.getClass().getName());
+                    }
+                    r.values.add(pv.getDescriptor().getName().getCode());
+                    r.values.add(value);
+                    r.values.add(pv.getUnit());
+                }
+            } else {
+                throw new NotSerializableException(object.getClass().getName());
+            }
+            return r;
+        }
+
+        /**
+         * Creates a record for a datum.
+         *
+         * @param  datum  the datum for which to build a record.
+         * @return the record of the given datum.
+         * @throws IOException if an error occurred while writing a component.
+         */
+        private Record datum(final Datum datum) throws IOException {
+            final Record r;
+            if (datum instanceof GeodeticDatum) {
+                final GeodeticDatum gd = (GeodeticDatum) datum;
+                final Ref ellipsoid = write(gd.getEllipsoid());
+                final Ref pm = write(gd.getPrimeMeridian());
+                r = header(GEODETIC_DATUM, datum);
+                r.values.add(ellipsoid);
+                r.values.add(pm);
+            } else if (datum instanceof VerticalDatum) {
+                r = header(VERTICAL_DATUM, datum);
+                r.values.add(name(((VerticalDatum) datum).getVerticalDatumType()));
+            } else if (datum instanceof TemporalDatum) {
+                r = header(TEMPORAL_DATUM, datum);
+                r.values.add(((TemporalDatum) datum).getOrigin());
+            } else if (datum instanceof ImageDatum) {
+                r = header(IMAGE_DATUM, datum);
+                r.values.add(name(((ImageDatum) datum).getPixelInCell()));
+            } else if (datum instanceof ParametricDatum) {
+                r = header(PARAMETRIC_DATUM, datum);
+            } else if (datum instanceof EngineeringDatum) {
+                r = header(ENGINEERING_DATUM, datum);
+            } else {
+                throw new NotSerializableException(datum.getClass().getName());
+            }
+            final InternationalString anchor = datum.getAnchorPoint();
+            r.values.add(anchor != null ? anchor.toString() : null);
+            r.values.add(datum.getRealizationEpoch());
+            return r;
+        }
+
+        /**
+         * Creates a record for a single CRS.
+         *
+         * @param  crs  the CRS for which to build a record.
+         * @return the record of the given CRS.
+         * @throws IOException if an error occurred while writing a component.
+         */
+        private Record crs(final SingleCRS crs) throws IOException {
+            final byte kind;
+            final Object[] components;
+            if (crs instanceof ProjectedCRS || crs instanceof DerivedCRS) {
+                final GeneralDerivedCRS derived = (GeneralDerivedCRS) crs;
+                kind = (crs instanceof ProjectedCRS) ? PROJECTED_CRS : DERIVED_CRS;
+                components = new Object[] {derived.getBaseCRS(), derived.getConversionFromBase(), crs.getCoordinateSystem()};
+            } else {
+                if (crs instanceof GeodeticCRS) {
+                    kind = (crs.getCoordinateSystem() instanceof EllipsoidalCS) ? GEOGRAPHIC_CRS : GEOCENTRIC_CRS;
+                } else if (crs instanceof VerticalCRS)    kind = VERTICAL_CRS;
+                else if   (crs instanceof TemporalCRS)    kind = TEMPORAL_CRS;
+                else if   (crs instanceof ParametricCRS)  kind = PARAMETRIC_CRS;
+                else if   (crs instanceof EngineeringCRS) kind = ENGINEERING_CRS;
+                else if   (crs instanceof ImageCRS)       kind = IMAGE_CRS;
+                else throw new NotSerializableException(crs.getClass().getName());
+                components = new Object[] {crs.getDatum(), crs.getCoordinateSystem()};
+            }
+            final Ref[] refs = new Ref[components.length];
+            for (int i=0; i<refs.length; i++) {
+                refs[i] = write(components[i]);
+            }
+            final Record r = header(kind, crs);
+            for (final Ref ref : refs) {
+                r.values.add(ref);
+            }
+            return r;
+        }
+
+        /**
+         * Creates a record with the properties common to all identified objects.
+         *
+         * @param  kind    one of the {@link #ELLIPSOID}, {@link #AXIS}, <i>etc.</i> constants.
+         * @param  object  the object from which to get the name, identifiers, aliases and remarks.
+         * @return a new record with the common properties.
+         */
+        private static Record header(final byte kind, final IdentifiedObject object) {
+            final Record r = new Record(kind);
+            final Identifier name = object.getName();
+            r.values.add(name.getCodeSpace());
+            r.values.add(name.getCode());
+            final Set<Identifier> identifiers = object.getIdentifiers();
+            r.values.add(identifiers.size());
+            for (final Identifier id : identifiers) {
+                r.values.add(id.getCodeSpace());
+                r.values.add(id.getCode());
+            }
+            final Collection<GenericName> aliases = object.getAlias();
+            r.values.add(aliases.size());
+            for (final GenericName alias : aliases) {
+                r.values.add(alias.toString());
+            }
+            InternationalString text = object.getRemarks();
+            r.values.add(text != null ? text.toString() : null);
+            if (object instanceof ReferenceSystem) {
+                text = ((ReferenceSystem) object).getScope();
+            } else if (object instanceof Datum) {
+                text = ((Datum) object).getScope();
+            } else if (object instanceof Conversion) {
+                text = ((Conversion) object).getScope();
+            } else {
+                text = null;
+            }
+            r.values.add(text != null ? text.toString() : null);
+            return r;
+        }
+
+        /**
+         * Returns the name of the given code list, or {@code null} if none.
+         *
+         * @param  code  the code list element, or {@code null}.
+         * @return the code name, or {@code null}.
+         */
+        private static String name(final CodeList<?> code) {
+            return (code != null) ? code.name() : null;
+        }
+
+        /**
+         * Writes a value of a record with its tag.
+         *
+         * @param  value  the value to write, or {@code null}.
+         * @throws IOException if an error occurred while writing.
+         */
+        private void writeValue(final Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof String) {
+                final Integer index = strings.get(value);
+                if (index != null) {
+                    out.writeByte(STRING_REF);
+                    writeVarInt(index);
+                } else {
+                    strings.put((String) value, strings.size());
+                    final byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                    out.writeByte(STRING);
+                    writeVarInt(bytes.length);
+                    out.write(bytes);
+                }
+            } else if (value instanceof Ref) {
+                out.writeByte(OBJECT_REF);
+                writeVarInt(((Ref) value).index);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Date) {
+                out.writeByte(DATE);
+                out.writeLong(((Date) value).getTime());
+            } else if (value instanceof double[]) {
+                final double[] array = (double[]) value;
+                out.writeByte(DOUBLES);
+                writeVarInt(array.length);
+                for (final double v : array) {
+                    out.writeDouble(v);
+                }
+            } else if (value instanceof Unit<?>) {
+                writeUnit((Unit<?>) value);
+            } else {
+                throw new NotSerializableException(value.getClass().getName());
+            }
+        }
+
+        /**
+         * Writes a unit of measurement as a base unit multiplied by a scale factor.
+         *
+         * @param  unit  the unit to write.
+         * @throws IOException if an error occurred while writing, or if the unit is not a multiple of a base unit.
+         */
+        private void writeUnit(final Unit<?> unit) throws IOException {
+            final Integer index = units.get(unit);
+            if (index != null) {
+                out.writeByte(UNIT_REF);
+                writeVarInt(index);
+                return;
+            }
+            final Unit<?> system = unit.getSystemUnit();
+            for (int code=0; code < BASE_UNITS.length; code++) {
+                final Unit<?> base = BASE_UNITS[code];
+                if (base.equals(system)) {                          // Radian is compatible with one.
+                    final UnitConverter c;
+                    try {
+                        c = unit.getConverterToAny(base);
+                    } catch (IncommensurableException e) {
+                        break;
+                    }
+                    if (c.convert(0) != 0) break;                   // Non-linear unit like Celsius.
+                    units.put(unit, units.size());
+                    out.writeByte(UNIT);
+                    out.writeByte(code);
+                    out.writeDouble(c.convert(1));
+                    return;
+                }
+            }
+            throw new NotSerializableException("Unsupported unit: " + unit);
+        }
+    }
+
+    /**
+     * Decodes an object. A new instance shall be used for each object to read.
+     */
+    private final class Reader {
+        /** Where to read the records. */
+        private final DataInput in;
+
+        /** The objects read so far, in the order of their records. */
+        private final List<Object> objects = new ArrayList<>();
+
+        /** The strings read so far. */
+        private final List<String> strings = new ArrayList<>();
+
+        /** The units of measurement read so far. */
+        private final List<Unit<?>> units = new ArrayList<>();
+
+        /**
+         * Creates a new reader.
+         *
+         * @param in  where to read the records.
+         */
+        Reader(final DataInput in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads a non-negative integer written with 7 bits per byte.
+         *
+         * @return the integer read.
+         * @throws IOException if an error occurred while reading.
+         */
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                final int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Malformed integer.");
+        }
+
+        /**
+         * Reads all records and returns the object of the last record.
+         *
+         * @return the object of the last record.
+         * @throws IOException if an error occurred while reading or if the stream is corrupted.
+         * @throws FactoryException if a factory failed to create an object.
+         */
+        Object read() throws IOException, FactoryException {
+            byte kind;
+            while ((kind = in.readByte()) != END) {
+                objects.add(create(kind));
+            }
+            if (objects.isEmpty()) {
+                throw new StreamCorruptedException("No object.");
+            }
+            return objects.get(objects.size() - 1);
+        }
+
+        /**
+         * Reads a value of a record with its tag.
+         *
+         * @return the value read, or {@code null}.
+         * @throws IOException if an error occurred while reading or if the tag is unknown.
+         */
+        private Object readValue() throws IOException {
+            final byte tag = in.readByte();
+            switch (tag) {
+                case NULL:       return null;
+                case TRUE:       return Boolean.TRUE;
+                case FALSE:      return Boolean.FALSE;
+                case DOUBLE:     return in.readDouble();
+                case INTEGER:    return in.readInt();
+                case DATE:       return new Date(in.readLong());
+                case STRING_REF: return strings.get(readVarInt());
+                case UNIT_REF:   return units.get(readVarInt());
+                case OBJECT_REF: {
+                    final int index = readVarInt();
+                    if (index >= objects.size()) {
+                        throw new StreamCorruptedException("Forward reference to object " + index + '.');
+                    }
+                    return objects.get(index);
+                }
+                case STRING: {
+                    final byte[] bytes = new byte[readVarInt()];
+                    in.readFully(bytes);
+                    final String value = new String(bytes, StandardCharsets.UTF_8);
+                    strings.add(value);
+                    return value;
+                }
+                case DOUBLES: {
+                    final double[] array = new double[readVarInt()];
+                    for (int i=0; i<array.length; i++) {
+                        array[i] = in.readDouble();
+                    }
+                    return array;
+                }
+                case UNIT: {
+                    final int code = in.readUnsignedByte();
+                    if (code >= BASE_UNITS.length) {
+                        throw new StreamCorruptedException("Unknown unit: " + code);
+                    }
+                    final double scale = in.readDouble();
+                    Unit<?> unit = BASE_UNITS[code];
+                    if (scale != 1) {
+                        unit = unit.multiply(scale);
+                    }
+                    units.add(unit);
+                    return unit;
+                }
+                default: throw new StreamCorruptedException("Unknown tag: " + tag);
+            }
+        }
+
+        /**
+         * Reads a value which is expected to be of the given type.
+         *
+         * @param  <T>   the compile-time type of the {@code type} argument.
+         * @param  type  the expected type of the value.
+         * @return the value read, or {@code null}.
+         * @throws IOException if an error occurred while reading or if the value is not of the expected type.
+         */
+        private <T> T next(final Class<T> type) throws IOException {
+            final Object value = readValue();
+            if (value == null || type.isInstance(value)) {
+                return type.cast(value);
+            }
+            throw new StreamCorruptedException("Expected a value of type " + type.getSimpleName()
+                    + " but got " + value.getClass().getSimpleName() + '.');
+        }
+
+        /**
+         * Reads a value which is expected to be a non-null number.
+         *
+         * @return the number read.
+         * @throws IOException if an error occurred while reading or if the value is not a number.
+         */
+        private double nextDouble() throws IOException {
+            final Number value = next(Number.class);
+            if (value == null) {
+                throw new StreamCorruptedException("Missing number.");
+            }
+            return value.doubleValue();
+        }
+
+        /**
+         * Reads a value which is expected to be a non-negative count.
+         *
+         * @return the count read.
+         * @throws IOException if an error occurred while reading or if the value is not a valid count.
+         */
+        private int nextCount() throws IOException {
+            final Integer value = next(Integer.class);
+            if (value == null || value < 0) {
+                throw new StreamCorruptedException("Illegal count.");
+            }
+            return value;
+        }
+
+        /**
+         * Reads the properties common to all identified objects.
+         *
+         * @return the properties to give to factory methods.
+         * @throws IOException if an error occurred while reading.
+         */
+        private Map<String,Object> header() throws IOException {
+            final Map<String,Object> properties = new HashMap<>(8);
+            properties.put(IdentifiedObject.NAME_KEY, identifier());
+            final Identifier[] identifiers = new Identifier[nextCount()];
+            for (int i=0; i<identifiers.length; i++) {
+                identifiers[i] = identifier();
+            }
+            if (identifiers.length != 0) {
+                properties.put(IdentifiedObject.IDENTIFIERS_KEY, identifiers);
+            }
+            final String[] aliases = new String[nextCount()];
+            for (int i=0; i<aliases.length; i++) {
+                aliases[i] = next(String.class);
+            }
+            if (aliases.length != 0) {
+                properties.put(IdentifiedObject.ALIAS_KEY, aliases);
+            }
+            putIfNonNull(properties, IdentifiedObject.REMARKS_KEY, next(String.class));
+            putIfNonNull(properties, ReferenceSystem.SCOPE_KEY,    next(String.class));
+            return properties;
+        }
+
+        /**
+         * Reads a code space and a code.
+         *
+         * @return the identifier read.
+         * @throws IOException if an error occurred while reading.
+         */
+        private Identifier identifier() throws IOException {
+            final String codespace = next(String.class);
+            final String code = next(String.class);
+            if (code == null) {
+                throw new StreamCorruptedException("Missing identifier code.");
+            }
+            return new SimpleIdentifiedObject((codespace != null) ? new SimpleCitation(codespace) : null, code);
+        }
+
+        /**
+         * Reads the properties specific to datum and adds them to the given map.
+         *
+         * @param  properties  where to add the datum properties.
+         * @throws IOException if an error occurred while reading.
+         */
+        private void datum(final Map<String,Object> properties) throws IOException {
+            putIfNonNull(properties, Datum.ANCHOR_POINT_KEY,      next(String.class));
+            putIfNonNull(properties, Datum.REALIZATION_EPOCH_KEY, next(Date.class));
+        }
+
+        /**
+         * Reads the axes of a coordinate system.
+         *
+         * @param  min  the minimal number of axes.
+         * @param  max  the maximal number of axes.
+         * @return the axes read.
+         * @throws IOException if an error occurred while reading or if the number of axes is not in the expected range.
+         */
+        private CoordinateSystemAxis[] axes(final int min, final int max) throws IOException {
+            final CoordinateSystemAxis[] axes = new CoordinateSystemAxis[nextCount()];
+            if (axes.length < min || axes.length > max) {
+                throw new StreamCorruptedException("Unexpected number of axes: " + axes.length);
+            }
+            for (int i=0; i<axes.length; i++) {
+                axes[i] = next(CoordinateSystemAxis.class);
+            }
+            return axes;
+        }
+
+        /**
+         * Reads the remaining of a record of the given kind and creates the object using the factories.
+         *
+         * @param  kind  one of the {@link #ELLIPSOID}, {@link #AXIS}, <i>etc.</i> constants.
+         * @return the object created by the factories.
+         * @throws IOException if an error occurred while reading or if the stream is corrupted.
+         * @throws FactoryException if a factory failed to create the object.
+         */
+        @SuppressWarnings("unchecked")
+        private Object create(final byte kind) throws IOException, FactoryException {
+            final Map<String,Object> properties = header();
+            switch (kind) {
+                case ELLIPSOID: {
+                    final double  a   = nextDouble();
+                    final double  b   = nextDouble();
+                    final boolean ivf = next(Boolean.class);
+                    final Unit<Length> unit = next(Unit.class).asType(Length.class);
+                    return ivf ? datumFactory.createFlattenedSphere(properties, a, b, unit)
+                               : datumFactory.createEllipsoid      (properties, a, b, unit);
+                }
+                case PRIME_MERIDIAN: {
+                    final double longitude = nextDouble();
+                    return datumFactory.createPrimeMeridian(properties, longitude, next(Unit.class).asType(Angle.class));
+                }
+                case GEODETIC_DATUM: {
+                    final Ellipsoid     ellipsoid = next(Ellipsoid.class);
+                    final PrimeMeridian pm        = next(PrimeMeridian.class);
+                    datum(properties);
+                    return datumFactory.createGeodeticDatum(properties, ellipsoid, pm);
+                }
+                case VERTICAL_DATUM: {
+                    final String type = next(String.class);
+                    datum(properties);
+                    return datumFactory.createVerticalDatum(properties, (type != null) ? VerticalDatumType.valueOf(type) : null);
+                }
+                case TEMPORAL_DATUM: {
+                    final Date origin = next(Date.class);
+                    datum(properties);
+                    return datumFactory.createTemporalDatum(properties, origin);
+                }
+                case IMAGE_DATUM: {
+                    final String pixelInCell = next(String.class);
+                    datum(properties);
+                    return datumFactory.createImageDatum(properties, (pixelInCell != null) ? PixelInCell.valueOf(pixelInCell) : null);
+                }
+                case PARAMETRIC_DATUM: {
+                    datum(properties);
+                    return datumFactory.createParametricDatum(properties);
+                }
+                case ENGINEERING_DATUM: {
+                    datum(properties);
+                    return datumFactory.createEngineeringDatum(properties);
+                }
+                case AXIS: {
+                    final String abbreviation = next(String.class);
+                    final String direction = next(String.class);
+                    return csFactory.createCoordinateSystemAxis(properties, abbreviation,
+                            (direction != null) ? AxisDirection.valueOf(direction) : null, next(Unit.class));
+                }
+                case CARTESIAN_CS: {
+                    final CoordinateSystemAxis[] a = axes(2, 3);
+                    return (a.length == 2) ? csFactory.createCartesianCS(properties, a[0], a[1])
+                                           : csFactory.createCartesianCS(properties, a[0], a[1], a[2]);
+                }
+                case AFFINE_CS: {
+                    final CoordinateSystemAxis[] a = axes(2, 3);
+                    return (a.length == 2) ? csFactory.createAffineCS(properties, a[0], a[1])
+                                           : csFactory.createAffineCS(properties, a[0], a[1], a[2]);
+                }
+                case ELLIPSOIDAL_CS: {
+                    final CoordinateSystemAxis[] a = axes(2, 3);
+                    return (a.length == 2) ? csFactory.createEllipsoidalCS(properties, a[0], a[1])
+                                           : csFactory.createEllipsoidalCS(properties, a[0], a[1], a[2]);
+                }
+                case USER_DEFINED_CS: {
+                    final CoordinateSystemAxis[] a = axes(2, 3);
+                    return (a.length == 2) ? csFactory.createUserDefinedCS(properties, a[0], a[1])
+                                           : csFactory.createUserDefinedCS(properties, a[0], a[1], a[2]);
+                }
+                case SPHERICAL_CS: {
+                    final CoordinateSystemAxis[] a = axes(3, 3);
+                    return csFactory.createSphericalCS(properties, a[0], a[1], a[2]);
+                }
+                case CYLINDRICAL_CS: {
+                    final CoordinateSystemAxis[] a = axes(3, 3);
+                    return csFactory.createCylindricalCS(properties, a[0], a[1], a[2]);
+                }
+                case POLAR_CS: {
+                    final CoordinateSystemAxis[] a = axes(2, 2);
+                    return csFactory.createPolarCS(properties, a[0], a[1]);
+                }
+                case VERTICAL_CS:   return csFactory.createVerticalCS  (properties, axes(1, 1)[0]);
+                case TIME_CS:       return csFactory.createTimeCS      (properties, axes(1, 1)[0]);
+                case PARAMETRIC_CS: return csFactory.createParametricCS(properties, axes(1, 1)[0]);
+                case LINEAR_CS:     return csFactory.createLinearCS    (properties, axes(1, 1)[0]);
+                case GEOGRAPHIC_CRS: {
+                    final GeodeticDatum datum = next(GeodeticDatum.class);
+                    return crsFactory.createGeographicCRS(properties, datum, next(EllipsoidalCS.class));
+                }
+                case GEOCENTRIC_CRS: {
+                    final GeodeticDatum datum = next(GeodeticDatum.class);
+                    final CoordinateSystem cs = next(CoordinateSystem.class);
+                    if (cs instanceof SphericalCS) {
+                        return crsFactory.createGeocentricCRS(properties, datum, (SphericalCS) cs);
+                    }
+                    return crsFactory.createGeocentricCRS(properties, datum, cast(CartesianCS.class, cs));
+                }
+                case VERTICAL_CRS: {
+                    final VerticalDatum datum = next(VerticalDatum.class);
+                    return crsFactory.createVerticalCRS(properties, datum, next(VerticalCS.class));
+                }
+                case TEMPORAL_CRS: {
+                    final TemporalDatum datum = next(TemporalDatum.class);
+                    return crsFactory.createTemporalCRS(properties, datum, next(TimeCS.class));
+                }
+                case PARAMETRIC_CRS: {
+                    final ParametricDatum datum = next(ParametricDatum.class);
+                    return crsFactory.createParametricCRS(properties, datum, next(ParametricCS.class));
+                }
+                case ENGINEERING_CRS: {
+                    final EngineeringDatum datum = next(EngineeringDatum.class);
+                    return crsFactory.createEngineeringCRS(properties, datum, next(CoordinateSystem.class));
+                }
+                case IMAGE_CRS: {
+                    final ImageDatum datum = next(ImageDatum.class);
+                    return crsFactory.createImageCRS(properties, datum, next(AffineCS.class));
+                }
+                case PROJECTED_CRS: {
+                    final GeographicCRS base = next(GeographicCRS.class);
+                    final Conversion conversion = next(Conversion.class);
+                    return crsFactory.createProjectedCRS(properties, base, conversion, next(CartesianCS.class));
+                }
+                case DERIVED_CRS: {
+                    final CoordinateReferenceSystem base = next(CoordinateReferenceSystem.class);
+                    final Conversion conversion = next(Conversion.class);
+                    return crsFactory.createDerivedCRS(properties, base, conversion, next(CoordinateSystem.class));
+                }
+                case COMPOUND_CRS: {
+                    final CoordinateReferenceSystem[] components = new CoordinateReferenceSystem[nextCount()];
+                    for (int i=0; i<components.length; i++) {
+                        components[i] = next(CoordinateReferenceSystem.class);
+                    }
+                    return crsFactory.createCompoundCRS(properties, components);
+                }
+                case CONVERSION: {
+                    final String method = next(String.class);
+                    if (opFactory == null || mtFactory == null) {
+                        throw new FactoryException("No factory for creating the \"" + method + "\" conversion.");
+                    }
+                    final ParameterValueGroup parameters = mtFactory.getDefaultParameters(method);
+                    for (int n = nextCount(); --n >= 0;) {
+                        final String name  = next(String.class);
+                        final Object value = readValue();
+                        final Unit<?> unit = next(Unit.class);
+                        if (value != null) {
+                            final ParameterValue<?> p = parameters.parameter(name);
+                            if (value instanceof Double) {
+                                if (unit != null) p.setValue((Double) value, unit);
+                                else p.setValue((double) (Double) value);
+                            } else if (value instanceof double[]) {
+                                if (unit != null) p.setValue((double[]) value, unit);
+                                else p.setValue(value);
+                            } else if (value instanceof Integer) {
+                                p.setValue((int) (Integer) value);
+                            } else if (value instanceof Boolean) {
+                                p.setValue((boolean) (Boolean) value);
+                            } else {
+                                p.setValue(value);
+                            }
+                        }
+                    }
+                    return opFactory.createDefiningConversion(properties, opFactory.getOperationMethod(method), parameters);
+                }
+                default: throw new StreamCorruptedException("Unknown record: " + kind);
+            }
+        }
+    }
+
+    /**
+     * Casts the given object to the given type, or throws an exception if the object is not of that type.
+     *
+     * @param  <T>    the compile-time type of the {@code type} argument.
+     * @param  type   the expected type.
+     * @param  value  the object to cast, or {@code null}.
+     * @return the given object cast to the given type.
+     * @throws StreamCorruptedException if the object is not of the expected type.
+     */
+    private static <T> T cast(final Class<T> type, final Object value) throws StreamCorruptedException {
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        throw new StreamCorruptedException("Expected a " + type.getSimpleName() + " object.");
+    }
+
+    /**
+     * Adds the given value to the given map if non-null.
+     *
+     * @param properties  the map where to add the value.
+     * @param key         the key of the value to add.
+     * @param value       the value to add, or {@code null}.
+     */
+    private static void putIfNonNull(final Map<String,Object> properties, final String key, final Object value) {
+        if (value != null) {
+            properties.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,777 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.Date;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import javax.measure.Unit;
+import javax.measure.quantity.Angle;
+import javax.measure.quantity.Length;
+import tec.units.ri.AbstractUnit;
+import tec.units.ri.unit.Units;
+
+import org.opengis.util.GenericName;
+import org.opengis.util.FactoryException;
+import org.opengis.util.InternationalString;
+import org.opengis.metadata.Identifier;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.metadata.citation.Citation;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.parameter.ParameterDescriptorGroup;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.ReferenceSystem;
+import org.opengis.referencing.cs.AffineCS;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CSFactory;
+import org.opengis.referencing.cs.CartesianCS;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.cs.CylindricalCS;
+import org.opengis.referencing.cs.EllipsoidalCS;
+import org.opengis.referencing.cs.LinearCS;
+import org.opengis.referencing.cs.ParametricCS;
+import org.opengis.referencing.cs.PolarCS;
+import org.opengis.referencing.cs.SphericalCS;
+import org.opengis.referencing.cs.TimeCS;
+import org.opengis.referencing.cs.UserDefinedCS;
+import org.opengis.referencing.cs.VerticalCS;
+import org.opengis.referencing.crs.CRSFactory;
+import org.opengis.referencing.crs.CompoundCRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.DerivedCRS;
+import org.opengis.referencing.crs.EngineeringCRS;
+import org.opengis.referencing.crs.GeneralDerivedCRS;
+import org.opengis.referencing.crs.GeocentricCRS;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ImageCRS;
+import org.opengis.referencing.crs.ParametricCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.crs.SingleCRS;
+import org.opengis.referencing.crs.TemporalCRS;
+import org.opengis.referencing.crs.VerticalCRS;
+import org.opengis.referencing.datum.Datum;
+import org.opengis.referencing.datum.DatumFactory;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.EngineeringDatum;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.ImageDatum;
+import org.opengis.referencing.datum.ParametricDatum;
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.opengis.referencing.datum.TemporalDatum;
+import org.opengis.referencing.datum.VerticalDatum;
+import org.opengis.referencing.datum.VerticalDatumType;
+import org.opengis.referencing.operation.Conversion;
+import org.opengis.referencing.operation.CoordinateOperation;
+import org.opengis.referencing.operation.CoordinateOperationFactory;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.OperationMethod;
+import org.opengis.referencing.operation.OperationNotFoundException;
+import org.opengis.referencing.operation.Projection;
+import org.opengis.referencing.wkt.WKTParser;
+import org.opengis.example.metadata.SimpleCitation;
+import org.opengis.example.parameter.SimpleParameter;
+import org.opengis.example.parameter.SimpleParameterGroup;
+import org.opengis.example.util.SimpleNameFactory;
+
+
+/**
+ * A factory for datum, coordinate systems and coordinate reference systems implemented by
+ * {@link java.lang.reflect.Proxy}. This factory demonstrates that all {@link DatumFactory},
+ * {@link CSFactory} and {@link CRSFactory} methods can be implemented with minimal effort
+ * when the objects do not need to perform coordinate operations.
+ *
+ * <p>The objects created by this factory are immutable and compared by identity. They contain only
+ * the properties given to the factory methods, together with the following properties derived from
+ * them: ellipsoid semi-minor axis or inverse flattening, coordinate system dimension, datum of derived
+ * CRS, and source and target CRS of the conversion from base CRS. The recognized keys in the maps of
+ * properties are listed below, all other keys are ignored:</p>
+ *
+ * <ul>
+ *   <li>{@value IdentifiedObject#NAME_KEY} (mandatory) as a {@link String} or {@link Identifier}.</li>
+ *   <li>{@value IdentifiedObject#ALIAS_KEY} as a {@link CharSequence} or {@link GenericName}, or an array or collection of them.</li>
+ *   <li>{@value IdentifiedObject#IDENTIFIERS_KEY} as an {@link Identifier}, or an array or collection of them.</li>
+ *   <li>{@value IdentifiedObject#REMARKS_KEY}, {@value ReferenceSystem#SCOPE_KEY} and {@value Datum#ANCHOR_POINT_KEY}
+ *       as {@link CharSequence}.</li>
+ *   <li>{@value ReferenceSystem#DOMAIN_OF_VALIDITY_KEY} as an {@link Extent}.</li>
+ *   <li>{@value Datum#REALIZATION_EPOCH_KEY} as a {@link Date}.</li>
+ *   <li>{@value CoordinateOperation#OPERATION_VERSION_KEY} as a {@link String}.</li>
+ * </ul>
+ *
+ * <p>This factory also implements the {@link CoordinateOperationFactory} methods creating conversions
+ * and operation methods, for use as arguments to {@link #createDerivedCRS createDerivedCRS(…)} and
+ * {@link #createProjectedCRS createProjectedCRS(…)}. Coordinate operations between arbitrary CRS are not
+ * supported.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SimpleObjectFactory implements DatumFactory, CSFactory, CRSFactory, CoordinateOperationFactory {
+    /**
+     * The value to be returned by {@link #getVendor()}.
+     * Implementations should replace {@code "GeoAPI-example"} by their name.
+     */
+    private static final Citation VENDOR = new SimpleCitation("GeoAPI-example");
+
+    /**
+     * The parser to use for {@link #createFromWKT(String)}, created when first needed.
+     * Race conditions are harmless since the parser would only be created twice.
+     */
+    private volatile Parser parser;
+
+    /**
+     * Creates a new factory.
+     */
+    public SimpleObjectFactory() {
+    }
+
+    /**
+     * Returns the implementer of this factory.
+     */
+    @Override
+    public Citation getVendor() {
+        return VENDOR;
+    }
+
+    /**
+     * Converts the user-supplied properties into the map of property values used by {@link ObjectHandler}.
+     *
+     * @param  properties  the user-supplied properties.
+     * @return the property values keyed by getter method names.
+     * @throws FactoryException if the name is missing or a property value is of the wrong type.
+     */
+    private static Map<String,Object> properties(final Map<String,?> properties) throws FactoryException {
+        final Map<String,Object> values = new HashMap<>();
+        for (final Map.Entry<String,?> entry : properties.entrySet()) {
+            final String key = entry.getKey();
+            Object value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            try {
+                final String getter;
+                switch (key) {
+                    case IdentifiedObject.NAME_KEY: {
+                        getter = "getName";
+                        if (!(value instanceof Identifier)) {
+                            value = new SimpleIdentifiedObject(null, (String) value);
+                        }
+                        break;
+                    }
+                    case IdentifiedObject.ALIAS_KEY: {
+                        getter = "getAlias";
+                        final Set<Object> aliases = new LinkedHashSet<>();
+                        for (final Object alias : elements(value)) {
+                            aliases.add((alias instanceof GenericName) ? alias
+                                    : SimpleNameFactory.DEFAULT.createLocalName(null, (CharSequence) alias));
+                        }
+                        value = Collections.unmodifiableSet(aliases);
+                        break;
+                    }
+                    case IdentifiedObject.IDENTIFIERS_KEY: {
+                        getter = "getIdentifiers";
+                        final Set<Identifier> identifiers = new LinkedHashSet<>();
+                        for (final Object identifier : elements(value)) {
+                            identifiers.add((Identifier) identifier);
+                        }
+                        value = Collections.unmodifiableSet(identifiers);
+                        break;
+                    }
+                    case IdentifiedObject.REMARKS_KEY:  getter = "getRemarks";     value = text(value); break;
+                    case ReferenceSystem.SCOPE_KEY:     getter = "getScope";       value = text(value); break;
+                    case Datum.ANCHOR_POINT_KEY:        getter = "getAnchorPoint"; value = text(value); break;
+                    case Datum.REALIZATION_EPOCH_KEY:   getter = "getRealizationEpoch"; value = ((Date) value).clone(); break;
+                    case ReferenceSystem.DOMAIN_OF_VALIDITY_KEY: getter = "getDomainOfValidity"; value = (Extent) value; break;
+                    case CoordinateOperation.OPERATION_VERSION_KEY: getter = "getOperationVersion"; value = (String) value; break;
+                    default: continue;
+                }
+                values.put(getter, value);
+            } catch (ClassCastException e) {
+                throw new FactoryException("Illegal value for the \"" + key + "\" property.", e);
+            }
+        }
+        if (!values.containsKey("getName")) {
+            throw new FactoryException("Missing value for the \"" + IdentifiedObject.NAME_KEY + "\" property.");
+        }
+        return values;
+    }
+
+    /**
+     * Returns the given property value as a collection of elements.
+     *
+     * @param  value  an array, a collection or a single element.
+     * @return the elements of the given value.
+     */
+    private static Collection<?> elements(final Object value) {
+        if (value instanceof Object[])      return Arrays.asList((Object[]) value);
+        if (value instanceof Collection<?>) return (Collection<?>) value;
+        return Collections.singleton(value);
+    }
+
+    /**
+     * Returns the given property value as an international string.
+     *
+     * @param  value  an international string or any other object.
+     * @return the given value as an international string.
+     */
+    private static InternationalString text(final Object value) {
+        return (value instanceof InternationalString) ? (InternationalString) value : new SimpleCitation(value.toString());
+    }
+
+    /**
+     * Creates an ellipsoid from radius values.
+     */
+    @Override
+    public Ellipsoid createEllipsoid(final Map<String,?> properties, final double semiMajorAxis,
+            final double semiMinorAxis, final Unit<Length> unit) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getSemiMajorAxis",     semiMajorAxis);
+        values.put("getSemiMinorAxis",     semiMinorAxis);
+        values.put("getInverseFlattening", semiMajorAxis / (semiMajorAxis - semiMinorAxis));
+        values.put("isIvfDefinitive",      Boolean.FALSE);
+        values.put("isSphere",             semiMajorAxis == semiMinorAxis);
+        values.put("getAxisUnit",          unit);
+        return ObjectHandler.create(Ellipsoid.class, values);
+    }
+
+    /**
+     * Creates an ellipsoid from a major semi-axis length and inverse flattening.
+     */
+    @Override
+    public Ellipsoid createFlattenedSphere(final Map<String,?> properties, final double semiMajorAxis,
+            final double inverseFlattening, final Unit<Length> unit) throws FactoryException
+    {
+        final boolean isSphere = Double.isInfinite(inverseFlattening);
+        final Map<String,Object> values = properties(properties);
+        values.put("getSemiMajorAxis",     semiMajorAxis);
+        values.put("getSemiMinorAxis",     isSphere ? semiMajorAxis : semiMajorAxis * (1 - 1/inverseFlattening));
+        values.put("getInverseFlattening", inverseFlattening);
+        values.put("isIvfDefinitive",      Boolean.TRUE);
+        values.put("isSphere",             isSphere);
+        values.put("getAxisUnit",          unit);
+        return ObjectHandler.create(Ellipsoid.class, values);
+    }
+
+    /**
+     * Creates a prime meridian, relative to Greenwich.
+     */
+    @Override
+    public PrimeMeridian createPrimeMeridian(final Map<String,?> properties, final double longitude,
+            final Unit<Angle> unit) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getGreenwichLongitude", longitude);
+        values.put("getAngularUnit", unit);
+        return ObjectHandler.create(PrimeMeridian.class, values);
+    }
+
+    /**
+     * Creates geodetic datum from ellipsoid and prime meridian.
+     */
+    @Override
+    public GeodeticDatum createGeodeticDatum(final Map<String,?> properties, final Ellipsoid ellipsoid,
+            final PrimeMeridian primeMeridian) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getEllipsoid",     ellipsoid);
+        values.put("getPrimeMeridian", primeMeridian);
+        return ObjectHandler.create(GeodeticDatum.class, values);
+    }
+
+    /**
+     * Creates a vertical datum from an enumerated type value.
+     */
+    @Override
+    public VerticalDatum createVerticalDatum(final Map<String,?> properties, final VerticalDatumType type)
+            throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getVerticalDatumType", type);
+        return ObjectHandler.create(VerticalDatum.class, values);
+    }
+
+    /**
+     * Creates a temporal datum from an enumerated type value.
+     */
+    @Override
+    public TemporalDatum createTemporalDatum(final Map<String,?> properties, final Date origin) throws FactoryException {
+        final Map<String,Object> values = properties(properties);
+        values.put("getOrigin", origin.clone());
+        return ObjectHandler.create(TemporalDatum.class, values);
+    }
+
+    /**
+     * Creates a parametric datum.
+     */
+    @Override
+    public ParametricDatum createParametricDatum(final Map<String,?> properties) throws FactoryException {
+        return ObjectHandler.create(ParametricDatum.class, properties(properties));
+    }
+
+    /**
+     * Creates an engineering datum.
+     */
+    @Override
+    public EngineeringDatum createEngineeringDatum(final Map<String,?> properties) throws FactoryException {
+        return ObjectHandler.create(EngineeringDatum.class, properties(properties));
+    }
+
+    /**
+     * Creates an image datum.
+     */
+    @Override
+    public ImageDatum createImageDatum(final Map<String,?> properties, final PixelInCell pixelInCell)
+            throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getPixelInCell", pixelInCell);
+        return ObjectHandler.create(ImageDatum.class, values);
+    }
+
+    /**
+     * Creates a coordinate system axis from an abbreviation and a unit.
+     * The axis range is unbounded.
+     */
+    @Override
+    public CoordinateSystemAxis createCoordinateSystemAxis(final Map<String,?> properties, final String abbreviation,
+            final AxisDirection direction, final Unit<?> unit) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getAbbreviation", abbreviation);
+        values.put("getDirection",    direction);
+        values.put("getUnit",         unit);
+        values.put("getMinimumValue", Double.NEGATIVE_INFINITY);
+        values.put("getMaximumValue", Double.POSITIVE_INFINITY);
+        return ObjectHandler.create(CoordinateSystemAxis.class, values);
+    }
+
+    /**
+     * Creates a coordinate system of the given type with the given axes.
+     *
+     * @param  <T>         the compile-time type of the coordinate system.
+     * @param  type        the interface of the coordinate system to create.
+     * @param  properties  name and other properties to give to the new object.
+     * @param  axes        the axes of the new coordinate system.
+     * @return the coordinate system for the given properties and axes.
+     * @throws FactoryException if a property has an illegal value.
+     */
+    private static <T extends CoordinateSystem> T createCS(final Class<T> type, final Map<String,?> properties,
+            final CoordinateSystemAxis... axes) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put(ObjectHandler.AXES, axes);
+        values.put("getDimension", axes.length);
+        return ObjectHandler.create(type, values);
+    }
+
+    /** Creates a two-dimensional Cartesian coordinate system from the given pair of axis. */
+    @Override public CartesianCS createCartesianCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1) throws FactoryException {
+        return createCS(CartesianCS.class, properties, axis0, axis1);
+    }
+
+    /** Creates a three-dimensional Cartesian coordinate system from the given set of axis. */
+    @Override public CartesianCS createCartesianCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+        return createCS(CartesianCS.class, properties, axis0, axis1, axis2);
+    }
+
+    /** Creates a two-dimensional affine coordinate system from the given pair of axis. */
+    @Override public AffineCS createAffineCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1) throws FactoryException {
+        return createCS(AffineCS.class, properties, axis0, axis1);
+    }
+
+    /** Creates a three-dimensional affine coordinate system from the given set of axis. */
+    @Override public AffineCS createAffineCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+        return createCS(AffineCS.class, properties, axis0, axis1, axis2);
+    }
+
+    /** Creates a polar coordinate system from the given pair of axis. */
+    @Override public PolarCS createPolarCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1) throws FactoryException {
+        return createCS(PolarCS.class, properties, axis0, axis1);
+    }
+
+    /** Creates a cylindrical coordinate system from the given set of axis. */
+    @Override public CylindricalCS createCylindricalCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+        return createCS(CylindricalCS.class, properties, axis0, axis1, axis2);
+    }
+
+    /** Creates a spherical coordinate system from the given set of axis. */
+    @Override public SphericalCS createSphericalCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+        return createCS(SphericalCS.class, properties, axis0, axis1, axis2);
+    }
+
+    /** Creates an ellipsoidal coordinate system without ellipsoidal height. */
+    @Override public EllipsoidalCS createEllipsoidalCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1) throws FactoryException {
+        return createCS(EllipsoidalCS.class, properties, axis0, axis1);
+    }
+
+    /** Creates an ellipsoidal coordinate system with ellipsoidal height. */
+    @Override public EllipsoidalCS createEllipsoidalCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+        return createCS(EllipsoidalCS.class, properties, axis0, axis1, axis2);
+    }
+
+    /** Creates a vertical coordinate system. */
+    @Override public VerticalCS createVerticalCS(Map<String,?> properties, CoordinateSystemAxis axis) throws FactoryException {
+        return createCS(VerticalCS.class, properties, axis);
+    }
+
+    /** Creates a temporal coordinate system. */
+    @Override public TimeCS createTimeCS(Map<String,?> properties, CoordinateSystemAxis axis) throws FactoryException {
+        return createCS(TimeCS.class, properties, axis);
+    }
+
+    /** Creates a parametric coordinate system. */
+    @Override public ParametricCS createParametricCS(Map<String,?> properties, CoordinateSystemAxis axis) throws FactoryException {
+        return createCS(ParametricCS.class, properties, axis);
+    }
+
+    /** Creates a linear coordinate system. */
+    @Override public LinearCS createLinearCS(Map<String,?> properties, CoordinateSystemAxis axis) throws FactoryException {
+        return createCS(LinearCS.class, properties, axis);
+    }
+
+    /** Creates a two-dimensional user defined coordinate system. */
+    @Override public UserDefinedCS createUserDefinedCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1) throws FactoryException {
+        return createCS(UserDefinedCS.class, properties, axis0, axis1);
+    }
+
+    /** Creates a three-dimensional user defined coordinate system. */
+    @Override public UserDefinedCS createUserDefinedCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+        return createCS(UserDefinedCS.class, properties, axis0, axis1, axis2);
+    }
+
+    /**
+     * Creates a single coordinate reference system of the given type with the given datum and coordinate system.
+     *
+     * @param  <T>         the compile-time type of the coordinate reference system.
+     * @param  type        the interface of the coordinate reference system to create.
+     * @param  properties  name and other properties to give to the new object.
+     * @param  datum       the datum of the new coordinate reference system.
+     * @param  cs          the coordinate system of the new coordinate reference system.
+     * @return the coordinate reference system for the given properties.
+     * @throws FactoryException if a property has an illegal value.
+     */
+    private static <T extends SingleCRS> T createCRS(final Class<T> type, final Map<String,?> properties,
+            final Datum datum, final CoordinateSystem cs) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getDatum", datum);
+        values.put("getCoordinateSystem", cs);
+        return ObjectHandler.create(type, values);
+    }
+
+    /** Creates a geographic coordinate reference system. */
+    @Override public GeographicCRS createGeographicCRS(Map<String,?> properties, GeodeticDatum datum, EllipsoidalCS cs) throws FactoryException {
+        return createCRS(GeographicCRS.class, properties, datum, cs);
+    }
+
+    /** Creates a geocentric coordinate reference system from a Cartesian coordinate system. */
+    @Override public GeocentricCRS createGeocentricCRS(Map<String,?> properties, GeodeticDatum datum, CartesianCS cs) throws FactoryException {
+        return createCRS(GeocentricCRS.class, properties, datum, cs);
+    }
+
+    /** Creates a geocentric coordinate reference system from a spherical coordinate system. */
+    @Override public GeocentricCRS createGeocentricCRS(Map<String,?> properties, GeodeticDatum datum, SphericalCS cs) throws FactoryException {
+        return createCRS(GeocentricCRS.class, properties, datum, cs);
+    }
+
+    /** Creates a vertical coordinate reference system. */
+    @Override public VerticalCRS createVerticalCRS(Map<String,?> properties, VerticalDatum datum, VerticalCS cs) throws FactoryException {
+        return createCRS(VerticalCRS.class, properties, datum, cs);
+    }
+
+    /** Creates a temporal coordinate reference system. */
+    @Override public TemporalCRS createTemporalCRS(Map<String,?> properties, TemporalDatum datum, TimeCS cs) throws FactoryException {
+        return createCRS(TemporalCRS.class, properties, datum, cs);
+    }
+
+    /** Creates a parametric coordinate reference system. */
+    @Override public ParametricCRS createParametricCRS(Map<String,?> properties, ParametricDatum datum, ParametricCS cs) throws FactoryException {
+        return createCRS(ParametricCRS.class, properties, datum, cs);
+    }
+
+    /** Creates an engineering coordinate reference system. */
+    @Override public EngineeringCRS createEngineeringCRS(Map<String,?> properties, EngineeringDatum datum, CoordinateSystem cs) throws FactoryException {
+        return createCRS(EngineeringCRS.class, properties, datum, cs);
+    }
+
+    /** Creates an image coordinate reference system. */
+    @Override public ImageCRS createImageCRS(Map<String,?> properties, ImageDatum datum, AffineCS cs) throws FactoryException {
+        return createCRS(ImageCRS.class, properties, datum, cs);
+    }
+
+    /**
+     * Creates a compound coordinate reference system. The coordinate system of the compound CRS
+     * is the concatenation of the axes of all components.
+     */
+    @Override
+    public CompoundCRS createCompoundCRS(final Map<String,?> properties, final CoordinateReferenceSystem... components)
+            throws FactoryException
+    {
+        final List<CoordinateSystemAxis> axes = new ArrayList<>();
+        for (final CoordinateReferenceSystem component : components) {
+            final CoordinateSystem cs = component.getCoordinateSystem();
+            for (int i=0; i<cs.getDimension(); i++) {
+                axes.add(cs.getAxis(i));
+            }
+        }
+        final Map<String,Object> values = properties(properties);
+        values.put("getComponents", Collections.unmodifiableList(Arrays.asList(components.clone())));
+        values.put("getCoordinateSystem", createCS(CoordinateSystem.class,
+                Collections.singletonMap(IdentifiedObject.NAME_KEY, values.get("getName")),
+                axes.toArray(new CoordinateSystemAxis[axes.size()])));
+        return ObjectHandler.create(CompoundCRS.class, values);
+    }
+
+    /**
+     * Creates a derived coordinate reference system. The conversion given in argument is typically a
+     * {@linkplain #createDefiningConversion defining conversion}. The conversion returned by the derived
+     * CRS is a copy having the base CRS as its source and the derived CRS as its target if the given conversion
+     * has a math transform. Otherwise the copy has no source and target CRS, like a defining conversion.
+     */
+    @Override
+    public DerivedCRS createDerivedCRS(final Map<String,?> properties, final CoordinateReferenceSystem baseCRS,
+            final Conversion conversionFromBase, final CoordinateSystem derivedCS) throws FactoryException
+    {
+        if (!(baseCRS instanceof SingleCRS)) {
+            throw new FactoryException("The base CRS shall be a single CRS.");
+        }
+        return createDerivedCRS(DerivedCRS.class, Conversion.class, properties, (SingleCRS) baseCRS, conversionFromBase, derivedCS);
+    }
+
+    /**
+     * Creates a projected coordinate reference system. The conversion given in argument is typically a
+     * {@linkplain #createDefiningConversion defining conversion}. The conversion returned by the projected
+     * CRS is a copy having the base CRS as its source and the projected CRS as its target if the given conversion
+     * has a math transform. Otherwise the copy has no source and target CRS, like a defining conversion.
+     */
+    @Override
+    public ProjectedCRS createProjectedCRS(final Map<String,?> properties, final GeographicCRS baseCRS,
+            final Conversion conversionFromBase, final CartesianCS derivedCS) throws FactoryException
+    {
+        return createDerivedCRS(ProjectedCRS.class, Projection.class, properties, baseCRS, conversionFromBase, derivedCS);
+    }
+
+    /**
+     * Implementation of {@link #createDerivedCRS createDerivedCRS(…)} and {@link #createProjectedCRS createProjectedCRS(…)}.
+     *
+     * @param  <T>                 the compile-time type of the derived coordinate reference system.
+     * @param  type                the interface of the derived coordinate reference system to create.
+     * @param  conversionType      the interface of the conversion from the base CRS.
+     * @param  properties          name and other properties to give to the new object.
+     * @param  baseCRS             the coordinate reference system to base the derived CRS on.
+     * @param  conversionFromBase  the defining conversion from the base CRS.
+     * @param  derivedCS           the coordinate system of the derived CRS.
+     * @return the derived coordinate reference system for the given properties.
+     * @throws FactoryException if a property has an illegal value.
+     */
+    private static <T extends GeneralDerivedCRS> T createDerivedCRS(final Class<T> type, final Class<? extends Conversion> conversionType,
+            final Map<String,?> properties, final SingleCRS baseCRS, final Conversion conversionFromBase,
+            final CoordinateSystem derivedCS) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getBaseCRS",          baseCRS);
+        values.put("getDatum",            baseCRS.getDatum());
+        values.put("getCoordinateSystem", derivedCS);
+        final T crs = ObjectHandler.create(type, values);
+        final Map<String,Object> conversion = new HashMap<>();
+        conversion.put("getName",              conversionFromBase.getName());
+        conversion.put("getAlias",             conversionFromBase.getAlias());
+        conversion.put("getIdentifiers",       conversionFromBase.getIdentifiers());
+        conversion.put("getRemarks",           conversionFromBase.getRemarks());
+        conversion.put("getScope",             conversionFromBase.getScope());
+        conversion.put("getDomainOfValidity",  conversionFromBase.getDomainOfValidity());
+        conversion.put("getMethod",            conversionFromBase.getMethod());
+        conversion.put("getParameterValues",   conversionFromBase.getParameterValues());
+        final MathTransform transform = conversionFromBase.getMathTransform();
+        if (transform != null) {
+            conversion.put("getMathTransform", transform);
+            conversion.put("getSourceCRS",     baseCRS);
+            conversion.put("getTargetCRS",     crs);
+        }
+        values.put("getConversionFromBase", ObjectHandler.create(conversionType, conversion));
+        return crs;
+    }
+
+    /**
+     * Creates a defining conversion from the given operation parameters. Defining conversions have no
+     * source and target CRS and no math transform; they are used as arguments when creating derived CRS.
+     * The given parameters are cloned.
+     */
+    @Override
+    public Conversion createDefiningConversion(final Map<String,?> properties, final OperationMethod method,
+            final ParameterValueGroup parameters) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getMethod", method);
+        values.put("getParameterValues", parameters.clone());
+        return ObjectHandler.create(Conversion.class, values);
+    }
+
+    /**
+     * Creates an operation method from a set of properties and a descriptor group.
+     */
+    @Override
+    public OperationMethod createOperationMethod(final Map<String,?> properties, final Integer sourceDimension,
+            final Integer targetDimension, final ParameterDescriptorGroup parameters) throws FactoryException
+    {
+        final Map<String,Object> values = properties(properties);
+        values.put("getSourceDimensions", sourceDimension);
+        values.put("getTargetDimensions", targetDimension);
+        values.put("getParameters", parameters);
+        return ObjectHandler.create(OperationMethod.class, values);
+    }
+
+    /**
+     * Returns an operation method of the given name. Since this simple factory does not have a
+     * catalog of operation methods, this method returns a new method of the given name without
+     * parameter descriptors.
+     */
+    @Override
+    public OperationMethod getOperationMethod(final String name) throws FactoryException {
+        return createOperationMethod(Collections.singletonMap(OperationMethod.NAME_KEY, name), null, null, null);
+    }
+
+    /**
+     * Unsupported operation, since this simple factory does not implement coordinate operations.
+     */
+    @Override
+    public CoordinateOperation createOperation(CoordinateReferenceSystem sourceCRS,
+            CoordinateReferenceSystem targetCRS) throws FactoryException
+    {
+        throw new OperationNotFoundException("Coordinate operations are not implemented.");
+    }
+
+    /**
+     * Unsupported operation, since this simple factory does not implement coordinate operations.
+     */
+    @Override
+    public CoordinateOperation createOperation(CoordinateReferenceSystem sourceCRS,
+            CoordinateReferenceSystem targetCRS, OperationMethod method) throws FactoryException
+    {
+        throw new OperationNotFoundException("Coordinate operations are not implemented.");
+    }
+
+    /**
+     * Unsupported operation, since this simple factory does not implement coordinate operations.
+     */
+    @Override
+    public CoordinateOperation createConcatenatedOperation(Map<String,?> properties,
+            CoordinateOperation... operations) throws FactoryException
+    {
+        throw new FactoryException("Coordinate operations are not implemented.");
+    }
+
+    /**
+     * Creates a coordinate reference system object from a XML string. The default implementation
+     * throws an exception in all cases since XML parsing is not implemented by this simple factory.
+     */
+    @Override
+    public CoordinateReferenceSystem createFromXML(String xml) throws FactoryException {
+        throw new FactoryException("XML parsing is not implemented.");
+    }
+
+    /**
+     * Creates a coordinate reference system object from a WKT 1 or WKT 2 string.
+     * Components parsed by previous invocations of this method are reused when the same WKT
+     * elements appear again, for example when many projected CRS share the same base CRS.
+     *
+     * @see WKTParser#parseCRS(CharSequence)
+     */
+    @Override
+    public CoordinateReferenceSystem createFromWKT(final String wkt) throws FactoryException {
+        Parser p = parser;
+        if (p == null) {
+            parser = p = new Parser(this);
+        }
+        return p.parseCRS(wkt);
+    }
+
+    /**
+     * The WKT parser used by {@link SimpleObjectFactory#createFromWKT(String)}. Since this factory has no
+     * math transform factory, the parameters of defining conversions are stored in simple parameter groups.
+     */
+    private static final class Parser extends WKTParser {
+        /**
+         * Creates a new parser creating objects with the given factory.
+         *
+         * @param factory  the factory to use for creating datum, coordinate systems, CRS and conversions.
+         */
+        Parser(final SimpleObjectFactory factory) {
+            super(factory, factory, factory, factory, null);
+        }
+
+        /**
+         * Returns a group of simple parameters for the given method. The type of each parameter is inferred
+         * from its unit of measurement. Parameters in units other than lengths, angles or scales are stored
+         * without unit.
+         *
+         * @param  method      name of the operation method.
+         * @param  parameters  names of the parameters associated to their units, or to {@code null} if unknown.
+         * @return a group of simple parameters with the given names.
+         */
+        @Override
+        protected ParameterValueGroup createParameters(final String method, final Map<String,Unit<?>> parameters) {
+            final SimpleParameter[] values = new SimpleParameter[parameters.size()];
+            int i = 0;
+            for (final Map.Entry<String,Unit<?>> entry : parameters.entrySet()) {
+                SimpleParameter.Type type = null;
+                final Unit<?> unit = entry.getValue();
+                if (unit != null) {
+                    final Unit<?> base = unit.getSystemUnit();
+                    if      (Units.METRE .equals(base)) type = SimpleParameter.Type.LINEAR;
+                    else if (Units.RADIAN.equals(base)) type = SimpleParameter.Type.ANGLE;
+                    else if (AbstractUnit.ONE.equals(base)) type = SimpleParameter.Type.SCALE;
+                }
+                values[i++] = (type != null || unit == null) ? new SimpleParameter(null, entry.getKey(), type)
+                                                             : new UnitlessParameter(entry.getKey());
+            }
+            return new SimpleParameterGroup(null, method, values);
+        }
+    }
+
+    /**
+     * A parameter in a unit not supported by {@link SimpleParameter}. The value is stored as given,
+     * ignoring the unit of measurement.
+     */
+    private static final class UnitlessParameter extends SimpleParameter {
+        /**
+         * For cross-version compatibility.
+         */
+        private static final long serialVersionUID = -3155419374524810931L;
+
+        /**
+         * Creates a new parameter of the given name.
+         *
+         * @param name  the parameter name.
+         */
+        UnitlessParameter(final String name) {
+            super(null, name, null);
+        }
+
+        /**
+         * Sets the parameter value, ignoring the given unit.
+         *
+         * @param value  the parameter value.
+         * @param unit   the unit of the given value, ignored.
+         */
+        @Override
+        public void setValue(final double value, final Unit<?> unit) {
+            setValue(value);
+        }
+    }
+}
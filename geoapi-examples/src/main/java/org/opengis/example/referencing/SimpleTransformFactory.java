@@ -22,6 +22,7 @@ import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.MathTransformFactory;
 import org.opengis.referencing.operation.OperationMethod;
 import org.opengis.referencing.operation.SingleOperation;
+import org.opengis.referencing.wkt.WKTParser;
 
 
 /**
@@ -91,6 +92,9 @@ public class SimpleTransformFactory implements MathTransformFactory {
 
     /**
      * Returns the exception to be thrown when a transform for the given parameters is requested.
+     *
+     * @param  parameters  the parameters of the requested transform.
+     * @return the exception to throw.
      */
     private static NoSuchIdentifierException unsupported(final ParameterValueGroup parameters) {
         return new NoSuchIdentifierException("Parameterized transforms are not implemented.",
@@ -169,11 +173,14 @@ public class SimpleTransformFactory implements MathTransformFactory {
     }
 
     /**
-     * Creates a transform from a WKT string. The default implementation throws an exception
-     * in all cases since WKT parsing is not implemented by this simple factory.
+     * Creates a transform from a WKT string. This simple factory supports only the WKT 1 elements
+     * {@code PARAM_MT["Affine", …]}, {@code CONCAT_MT}, {@code INVERSE_MT} and {@code PASSTHROUGH_MT}
+     * to the extent supported by the other methods of this factory.
+     *
+     * @see WKTParser#parseMathTransform(CharSequence)
      */
     @Override
-    public MathTransform createFromWKT(String wkt) throws FactoryException {
-        throw new FactoryException("WKT parsing is not implemented.");
+    public MathTransform createFromWKT(final String wkt) throws FactoryException {
+        return new WKTParser(null, null, null, null, this).parseMathTransform(wkt);
     }
 }
@@ -43,6 +43,12 @@
  * <td>{@link org.opengis.util.InternationalString}</td>
  * </tr></table></blockquote>
  *
+ * <p>{@link org.opengis.example.referencing.SimpleObjectFactory} creates datum, coordinate systems
+ * and CRS of any type as read-only objects, and {@link org.opengis.example.referencing.ReferencingCodec}
+ * encodes such objects in a compact binary format which can be decoded by any GeoAPI factories.
+ * {@link org.opengis.referencing.wkt.WKTParser} creates objects from their <cite>Well Known Text</cite>
+ * representation using any GeoAPI factories.</p>
+ *
  * <p>Every classes in this package are hereby placed into the Public Domain.
  * This means anyone is free to do whatever they wish with those files.</p>
  *
@@ -0,0 +1,386 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.opengis.filter.And;
+import org.opengis.filter.Or;
+import org.opengis.filter.Not;
+import org.opengis.filter.Filter;
+import org.opengis.filter.PropertyIsLike;
+import org.opengis.filter.expression.Expression;
+import org.opengis.style.Rule;
+import org.opengis.style.Style;
+import org.opengis.style.Symbolizer;
+import org.opengis.style.FeatureTypeStyle;
+import org.opengis.example.filter.LikeMatcher;
+
+
+/**
+ * A {@link Style} compiled in a table of rules indexed by scale denominator.
+ * The scale range of the style is partitioned in buckets delimited by all distinct minimal
+ * and maximal scale denominators declared in the rules. Each bucket contains only the rules
+ * applicable at all scales of that bucket, so selecting the rules for a map request is a
+ * binary search instead of a test on every rule.
+ *
+ * <p>Rules having equal filters share a single compiled filter, which is evaluated at most
+ * once per feature. Consecutive rules with the same filter in the same feature type style are
+ * merged in a single entry. Filters are compiled in predicates when a faster evaluation
+ * is possible, for example {@link PropertyIsLike} filters use a precompiled {@link LikeMatcher}.</p>
+ *
+ * <p>Instances of this class are immutable and thread-safe. They are snapshots of the style at
+ * construction time; {@link StyleCache} can be used for recompiling styles when they change.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class CompiledStyle {
+    /**
+     * Index of filters which always evaluate to {@code true}.
+     */
+    private static final int ALWAYS = -1;
+
+    /**
+     * The rules having the same filter in a feature type style.
+     */
+    private static final class Entry {
+        /** Index of the filter in {@link CompiledStyle#filters}, or {@link #ALWAYS}. */
+        final int filter;
+
+        /** Symbolizers of all rules merged in this entry, in declaration order. */
+        final Symbolizer[] symbolizers;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param filter       index of the filter, or {@link #ALWAYS}.
+         * @param symbolizers  symbolizers of all rules merged in this entry.
+         */
+        Entry(final int filter, final Symbolizer[] symbolizers) {
+            this.filter      = filter;
+            this.symbolizers = symbolizers;
+        }
+    }
+
+    /**
+     * The rules of a feature type style applicable in a scale bucket.
+     */
+    private static final class Group {
+        /** The rules with a filter, in declaration order. */
+        final Entry[] rules;
+
+        /** Symbolizers of the "else" rules, used if no rule matched. */
+        final Symbolizer[] elseSymbolizers;
+
+        /**
+         * Creates a new group.
+         *
+         * @param rules            the rules with a filter, in declaration order.
+         * @param elseSymbolizers  symbolizers of the "else" rules.
+         */
+        Group(final Entry[] rules, final Symbolizer[] elseSymbolizers) {
+            this.rules           = rules;
+            this.elseSymbolizers = elseSymbolizers;
+        }
+    }
+
+    /**
+     * Sorted distinct scale denominators where the set of applicable rules may change.
+     * Bucket <var>i</var> contains the scales from {@code breaks[i-1]} inclusive to
+     * {@code breaks[i]} exclusive.
+     */
+    private final double[] breaks;
+
+    /**
+     * The rules for each bucket, grouped by feature type style. Length is {@code breaks.length + 1}.
+     * Groups without rules are omitted.
+     */
+    private final Group[][] buckets;
+
+    /**
+     * All distinct compiled filters. Rules refer to those filters by index.
+     */
+    private final Predicate<Object>[] filters;
+
+    /**
+     * The style content at compilation time, used for detecting changes.
+     */
+    private final List<Object> snapshot;
+
+    /**
+     * Compiles the given style.
+     *
+     * @param style  the style to compile.
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    public CompiledStyle(final Style style) {
+        snapshot = snapshot(style);
+        final TreeSet<Double> scales = new TreeSet<>();
+        for (final FeatureTypeStyle fts : style.featureTypeStyles()) {
+            for (final Rule rule : fts.rules()) {
+                addBreak(scales, rule.getMinScaleDenominator());
+                addBreak(scales, rule.getMaxScaleDenominator());
+            }
+        }
+        breaks = new double[scales.size()];
+        int n = 0;
+        for (final double scale : scales) {
+            breaks[n++] = scale;
+        }
+        final Map<Filter,Integer> filterIndex = new HashMap<>();
+        final List<Predicate<Object>> compiled = new ArrayList<>();
+        buckets = new Group[breaks.length + 1][];
+        for (int b=0; b<buckets.length; b++) {
+            final double lower = (b == 0) ? 0 : breaks[b-1];
+            final double upper = (b == breaks.length) ? Double.POSITIVE_INFINITY : breaks[b];
+            final List<Group> groups = new ArrayList<>();
+            for (final FeatureTypeStyle fts : style.featureTypeStyles()) {
+                final List<Entry> entries = new ArrayList<>();
+                final List<Symbolizer> elseSymbolizers = new ArrayList<>();
+                int previous = Integer.MIN_VALUE;
+                for (final Rule rule : fts.rules()) {
+                    if (!(rule.getMinScaleDenominator() <= lower && upper <= maxScale(rule))) {
+                        continue;
+                    }
+                    final List<? extends Symbolizer> symbolizers = rule.symbolizers();
+                    if (rule.isElseFilter()) {
+                        elseSymbolizers.addAll(symbolizers);
+                        continue;
+                    }
+                    final Filter filter = rule.getFilter();
+                    final int index;
+                    if (filter == null || filter == Filter.INCLUDE) {
+                        index = ALWAYS;
+                    } else if (filter == Filter.EXCLUDE) {
+                        continue;
+                    } else {
+                        Integer i = filterIndex.get(filter);
+                        if (i == null) {
+                            i = compiled.size();
+                            compiled.add(compile(filter));
+                            filterIndex.put(filter, i);
+                        }
+                        index = i;
+                    }
+                    if (index == previous) {
+                        final Entry last = entries.remove(entries.size() - 1);
+                        final Symbolizer[] merged = Arrays.copyOf(last.symbolizers, last.symbolizers.length + symbolizers.size());
+                        for (int i=0; i<symbolizers.size(); i++) {
+                            merged[last.symbolizers.length + i] = symbolizers.get(i);
+                        }
+                        entries.add(new Entry(index, merged));
+                    } else {
+                        entries.add(new Entry(index, symbolizers.toArray(new Symbolizer[symbolizers.size()])));
+                    }
+                    previous = index;
+                }
+                if (!entries.isEmpty() || !elseSymbolizers.isEmpty()) {
+                    groups.add(new Group(entries.toArray(new Entry[entries.size()]),
+                            elseSymbolizers.toArray(new Symbolizer[elseSymbolizers.size()])));
+                }
+            }
+            buckets[b] = groups.toArray(new Group[groups.size()]);
+        }
+        filters = compiled.toArray(new Predicate[compiled.size()]);
+    }
+
+    /**
+     * Adds the given scale denominator to the set of bucket boundaries if it is finite and positive.
+     *
+     * @param scales  the set of bucket boundaries where to add the scale.
+     * @param scale   the scale denominator to add.
+     */
+    private static void addBreak(final TreeSet<Double> scales, final double scale) {
+        if (scale > 0 && scale < Double.POSITIVE_INFINITY) {
+            scales.add(scale);
+        }
+    }
+
+    /**
+     * Returns the maximal scale denominator of the given rule, taking zero as "no maximum".
+     * Some styles leave the maximum to zero when the {@code MaxScaleDenominator} element is absent.
+     *
+     * @param  rule  the rule for which to get the maximal scale denominator.
+     * @return the maximal scale denominator, or infinity if none.
+     */
+    private static double maxScale(final Rule rule) {
+        final double max = rule.getMaxScaleDenominator();
+        return (max > 0) ? max : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns a predicate for the given filter. Logical operators are compiled recursively,
+     * and {@link PropertyIsLike} filters are compiled with {@link LikeMatcher}.
+     *
+     * @param  filter  the filter to compile.
+     * @return a predicate equivalent to the given filter.
+     */
+    private static Predicate<Object> compile(final Filter filter) {
+        if (filter instanceof PropertyIsLike) {
+            final PropertyIsLike like = (PropertyIsLike) filter;
+            final LikeMatcher matcher = LikeMatcher.compile(like);
+            final Expression expression = like.getExpression();
+            return (feature) -> {
+                final Object value = expression.evaluate(feature);
+                return (value != null) && matcher.matches(value.toString());
+            };
+        }
+        if (filter instanceof Not) {
+            return compile(((Not) filter).getFilter()).negate();
+        }
+        if (filter instanceof And || filter instanceof Or) {
+            final List<Filter> children = (filter instanceof And) ? ((And) filter).getChildren() : ((Or) filter).getChildren();
+            @SuppressWarnings({"unchecked","rawtypes"})
+            final Predicate<Object>[] operands = new Predicate[children.size()];
+            for (int i=0; i<operands.length; i++) {
+                operands[i] = compile(children.get(i));
+            }
+            final boolean and = (filter instanceof And);
+            return (feature) -> {
+                for (final Predicate<Object> operand : operands) {
+                    if (operand.test(feature) != and) {
+                        return !and;
+                    }
+                }
+                return and;
+            };
+        }
+        return filter::evaluate;
+    }
+
+    /**
+     * Returns the index of the bucket containing the given scale denominator.
+     *
+     * @param  scale  the scale denominator for which to get the bucket.
+     * @return index of the bucket containing the given scale.
+     */
+    private int bucket(final double scale) {
+        int i = Arrays.binarySearch(breaks, scale);
+        return (i >= 0) ? i + 1 : ~i;
+    }
+
+    /**
+     * Returns {@code true} if at least one rule is applicable at the given scale.
+     * Renderers can use this method for skipping a layer without reading its features.
+     *
+     * @param  scale  the scale denominator of the map.
+     * @return whether at least one rule may be applied at the given scale.
+     */
+    public boolean isVisible(final double scale) {
+        return buckets[bucket(scale)].length != 0;
+    }
+
+    /**
+     * Sends to the given consumer the symbolizers to apply on the given feature at the given scale,
+     * in rendering order. Each distinct filter is evaluated at most once.
+     *
+     * @param feature  the feature to render.
+     * @param scale    the scale denominator of the map.
+     * @param action   the consumer of symbolizers.
+     */
+    public void symbolizers(final Object feature, final double scale, final Consumer<? super Symbolizer> action) {
+        final Group[] groups = buckets[bucket(scale)];
+        byte[] results = null;      // 0 = not yet evaluated, 1 = false, 2 = true.
+        for (final Group group : groups) {
+            boolean matched = false;
+            for (final Entry entry : group.rules) {
+                final int f = entry.filter;
+                if (f != ALWAYS) {
+                    if (results == null) {
+                        results = new byte[filters.length];
+                    }
+                    if (results[f] == 0) {
+                        results[f] = filters[f].test(feature) ? (byte) 2 : (byte) 1;
+                    }
+                    if (results[f] != 2) {
+                        continue;
+                    }
+                }
+                matched = true;
+                for (final Symbolizer symbolizer : entry.symbolizers) {
+                    action.accept(symbolizer);
+                }
+            }
+            if (!matched) {
+                for (final Symbolizer symbolizer : group.elseSymbolizers) {
+                    action.accept(symbolizer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the symbolizers to apply on the given feature at the given scale, in rendering order.
+     *
+     * @param  feature  the feature to render.
+     * @param  scale    the scale denominator of the map.
+     * @return the symbolizers to apply, or an empty list if none.
+     */
+    public List<Symbolizer> symbolizers(final Object feature, final double scale) {
+        final List<Symbolizer> list = new ArrayList<>();
+        symbolizers(feature, scale, list::add);
+        return list.isEmpty() ? Collections.emptyList() : list;
+    }
+
+    /**
+     * Returns {@code true} if the given style has the same content than the style compiled by this object.
+     * This method compares the feature type styles, rules, filters and symbolizers by identity,
+     * and the scale denominators by value. It does not inspect the symbolizers content.
+     *
+     * @param  style  the style to compare with the compiled one.
+     * @return whether this compiled style is still valid for the given style.
+     */
+    public boolean isCurrent(final Style style) {
+        final List<Object> current = snapshot(style);
+        if (current.size() != snapshot.size()) {
+            return false;
+        }
+        for (int i=0; i<current.size(); i++) {
+            final Object a = current.get(i);
+            final Object b = snapshot.get(i);
+            if (a != b && !(a instanceof Number && a.equals(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the properties of the given style which determine the compilation result.
+     *
+     * @param  style  the style for which to get a snapshot.
+     * @return the properties which determine the compilation result.
+     */
+    private static List<Object> snapshot(final Style style) {
+        final List<Object> snapshot = new ArrayList<>();
+        for (final FeatureTypeStyle fts : style.featureTypeStyles()) {
+            snapshot.add(fts);
+            for (final Rule rule : fts.rules()) {
+                snapshot.add(rule);
+                snapshot.add(rule.getFilter());
+                snapshot.add(rule.isElseFilter() ? 1 : 0);
+                snapshot.add(rule.getMinScaleDenominator());
+                snapshot.add(rule.getMaxScaleDenominator());
+                final List<? extends Symbolizer> symbolizers = rule.symbolizers();
+                snapshot.add(symbolizers.size());
+                snapshot.addAll(symbolizers);
+            }
+        }
+        return snapshot;
+    }
+}
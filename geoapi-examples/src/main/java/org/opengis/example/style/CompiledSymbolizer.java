@@ -0,0 +1,449 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Map;
+import java.util.List;
+import java.util.EnumMap;
+import java.util.Arrays;
+import java.awt.Color;
+
+import org.opengis.filter.expression.Expression;
+import org.opengis.style.AnchorPoint;
+import org.opengis.style.ChannelSelection;
+import org.opengis.style.ColorMap;
+import org.opengis.style.ColorReplacement;
+import org.opengis.style.ContrastEnhancement;
+import org.opengis.style.Description;
+import org.opengis.style.Displacement;
+import org.opengis.style.ExtensionSymbolizer;
+import org.opengis.style.ExternalGraphic;
+import org.opengis.style.ExternalMark;
+import org.opengis.style.FeatureTypeStyle;
+import org.opengis.style.Fill;
+import org.opengis.style.Font;
+import org.opengis.style.Graphic;
+import org.opengis.style.GraphicFill;
+import org.opengis.style.GraphicLegend;
+import org.opengis.style.GraphicStroke;
+import org.opengis.style.GraphicalSymbol;
+import org.opengis.style.Halo;
+import org.opengis.style.LinePlacement;
+import org.opengis.style.LineSymbolizer;
+import org.opengis.style.Mark;
+import org.opengis.style.PointPlacement;
+import org.opengis.style.PointSymbolizer;
+import org.opengis.style.PolygonSymbolizer;
+import org.opengis.style.RasterSymbolizer;
+import org.opengis.style.Rule;
+import org.opengis.style.SelectedChannelType;
+import org.opengis.style.ShadedRelief;
+import org.opengis.style.Stroke;
+import org.opengis.style.Style;
+import org.opengis.style.StyleVisitor;
+import org.opengis.style.Symbolizer;
+import org.opengis.style.TextSymbolizer;
+import org.opengis.example.style.ResolvedSymbolizer.Property;
+
+
+/**
+ * A symbolizer analyzed for fast repeated evaluation. When a compiled symbolizer is created,
+ * a {@link StyleVisitor} collects the expressions of all strokes, fills, graphics, fonts and halos,
+ * and each expression is classified by {@link ExpressionClassifier}:
+ *
+ * <ul>
+ *   <li>{@linkplain Variability#CONSTANT Constant} expressions are evaluated and converted once, at construction time.</li>
+ *   <li>{@linkplain Variability#PER_RENDER Per-render} expressions are evaluated once per map request by
+ *       {@link #forRender(Object)}, which returns a new compiled symbolizer where those values became constants.</li>
+ *   <li>{@linkplain Variability#PER_FEATURE Per-feature} expressions are the only ones evaluated by {@link #resolve(Object)}.</li>
+ * </ul>
+ *
+ * If all expressions are constant (the most common case), {@link #resolve(Object)} returns
+ * the same {@link ResolvedSymbolizer} instance for all features without any evaluation.
+ * Only the first {@linkplain Mark mark} of a graphic and the first font family are resolved.
+ *
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class CompiledSymbolizer {
+    /**
+     * The source symbolizer.
+     */
+    private final Symbolizer symbolizer;
+
+    /**
+     * Values of constant properties indexed by {@link Property#ordinal()}.
+     * Values of other properties are {@code null}. Shall not be modified.
+     */
+    private final Object[] constants;
+
+    /**
+     * The properties to evaluate for each render or feature. Per-render properties are first.
+     */
+    private final Property[] dynamicProperties;
+
+    /**
+     * Expressions of {@link #dynamicProperties}, in the same order.
+     */
+    private final Expression[] dynamicExpressions;
+
+    /**
+     * Number of leading elements in {@link #dynamicProperties} which are per-render.
+     * The remaining elements are per-feature.
+     */
+    private final int perRenderCount;
+
+    /**
+     * The result of {@link #resolve(Object)} if all properties are constant, or {@code null} otherwise.
+     */
+    private final ResolvedSymbolizer constant;
+
+    /**
+     * Analyzes the given symbolizer.
+     *
+     * @param symbolizer  the symbolizer to compile.
+     */
+    public CompiledSymbolizer(final Symbolizer symbolizer) {
+        this.symbolizer = symbolizer;
+        final Map<Property,Object> collected = new EnumMap<>(Property.class);
+        symbolizer.accept(new Collector(collected), Role.MAIN);
+        constants = new Object[Property.values().length];
+        final Property[] properties  = new Property[collected.size()];
+        final Expression[] expressions = new Expression[collected.size()];
+        int perRender = 0, perFeature = 0;
+        for (final Variability pass : new Variability[] {Variability.PER_RENDER, Variability.PER_FEATURE}) {
+            for (final Map.Entry<Property,Object> entry : collected.entrySet()) {
+                final Property property = entry.getKey();
+                final Object value = entry.getValue();
+                if (!(value instanceof Expression)) {
+                    if (pass == Variability.PER_RENDER) {
+                        constants[property.ordinal()] = convert(property, value);
+                    }
+                    continue;
+                }
+                final Expression expression = (Expression) value;
+                final Variability variability = ExpressionClassifier.classify(expression);
+                if (variability == Variability.CONSTANT) {
+                    if (pass == Variability.PER_RENDER) {
+                        constants[property.ordinal()] = convert(property, expression.evaluate(null));
+                    }
+                } else if (variability == pass) {
+                    properties [perRender + perFeature] = property;
+                    expressions[perRender + perFeature] = expression;
+                    if (pass == Variability.PER_RENDER) perRender++;
+                    else perFeature++;
+                }
+            }
+        }
+        final int n = perRender + perFeature;
+        dynamicProperties  = Arrays.copyOf(properties,  n);
+        dynamicExpressions = Arrays.copyOf(expressions, n);
+        perRenderCount     = perRender;
+        constant = (n == 0) ? new ResolvedSymbolizer(symbolizer, constants) : null;
+    }
+
+    /**
+     * Creates a compiled symbolizer where the per-render expressions of the given one have been evaluated.
+     *
+     * @param source   the compiled symbolizer for which to evaluate the per-render expressions.
+     * @param context  the object on which to evaluate the per-render expressions.
+     */
+    private CompiledSymbolizer(final CompiledSymbolizer source, final Object context) {
+        symbolizer = source.symbolizer;
+        constants  = source.constants.clone();
+        for (int i=0; i<source.perRenderCount; i++) {
+            final Property property = source.dynamicProperties[i];
+            constants[property.ordinal()] = convert(property, source.dynamicExpressions[i].evaluate(context));
+        }
+        final int n = source.dynamicProperties.length;
+        dynamicProperties  = Arrays.copyOfRange(source.dynamicProperties,  source.perRenderCount, n);
+        dynamicExpressions = Arrays.copyOfRange(source.dynamicExpressions, source.perRenderCount, n);
+        perRenderCount     = 0;
+        constant = (dynamicProperties.length == 0) ? new ResolvedSymbolizer(symbolizer, constants) : null;
+    }
+
+    /**
+     * Returns the most variable of the symbolizer expressions.
+     *
+     * @return the variability of this symbolizer.
+     */
+    public Variability getVariability() {
+        if (dynamicProperties.length == 0) {
+            return Variability.CONSTANT;
+        }
+        return (dynamicProperties.length == perRenderCount) ? Variability.PER_RENDER : Variability.PER_FEATURE;
+    }
+
+    /**
+     * Returns a compiled symbolizer where the per-render expressions have been evaluated with the given
+     * rendering context. Renderers should invoke this method once per map request. If this symbolizer
+     * has no per-render expression, then this method returns {@code this}.
+     *
+     * @param  context  the object on which to evaluate the per-render expressions (for example a map of
+     *                  environment variables), or {@code null}.
+     * @return a compiled symbolizer with only constant and per-feature expressions.
+     */
+    public CompiledSymbolizer forRender(final Object context) {
+        return (perRenderCount == 0) ? this : new CompiledSymbolizer(this, context);
+    }
+
+    /**
+     * Returns the symbolizer properties for the given feature. Only the per-feature expressions
+     * are evaluated; per-render expressions not yet evaluated by {@link #forRender(Object)} are
+     * evaluated on the feature.
+     *
+     * @param  feature  the feature to render.
+     * @return the symbolizer properties for the given feature.
+     */
+    public ResolvedSymbolizer resolve(final Object feature) {
+        if (constant != null) {
+            return constant;
+        }
+        final Object[] values = constants.clone();
+        for (int i=0; i<dynamicProperties.length; i++) {
+            final Property property = dynamicProperties[i];
+            values[property.ordinal()] = convert(property, dynamicExpressions[i].evaluate(feature));
+        }
+        return new ResolvedSymbolizer(symbolizer, values);
+    }
+
+    /**
+     * Converts the given value to the type of the given property.
+     *
+     * @param  property  the property for which to convert the value.
+     * @param  value     the value to convert, or {@code null}.
+     * @return the converted value, or {@code null}.
+     * @throws IllegalArgumentException if the value can not be converted.
+     */
+    private static Object convert(final Property property, final Object value) {
+        if (value == null || property.getValueType().isInstance(value)) {
+            return (value instanceof float[]) ? ((float[]) value).clone() : value;
+        }
+        final Class<?> type = property.getValueType();
+        if (type == Double.class) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            final String text = value.toString().trim();
+            return text.isEmpty() ? null : Double.valueOf(text);
+        }
+        if (type == Color.class) {
+            if (value instanceof Number) {
+                return new Color(((Number) value).intValue());
+            }
+            String text = value.toString().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            if (text.startsWith("#")) {
+                text = text.substring(1);
+            }
+            final int argb = (int) Long.parseLong(text, 16);
+            return (text.length() <= 6) ? new Color(argb) : new Color(argb, true);
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        throw new IllegalArgumentException("Can not convert " + value + " for " + property);
+    }
+
+    /**
+     * The symbolizer component being visited, which determines the properties to assign.
+     */
+    private enum Role {
+        /** The main stroke, fill, graphic and font of a symbolizer. */
+        MAIN,
+        /** The stroke and fill of a mark. */
+        MARK,
+        /** The fill of a halo. */
+        HALO
+    }
+
+    /**
+     * The visitor collecting the expressions of a symbolizer. The {@code data} argument is the {@link Role}.
+     * Values in the map are {@link Expression}s, or the values of properties which are not expressions.
+     */
+    private static final class Collector implements StyleVisitor {
+        /** Where to store the expressions. */
+        private final Map<Property,Object> collected;
+
+        /**
+         * Creates a new collector.
+         *
+         * @param collected  where to store the expressions.
+         */
+        Collector(final Map<Property,Object> collected) {
+            this.collected = collected;
+        }
+
+        /**
+         * Stores the given value if non-null.
+         *
+         * @param property  the property of the value.
+         * @param value     the expression or value to store, or {@code null}.
+         */
+        private void put(final Property property, final Object value) {
+            if (value != null) {
+                collected.put(property, value);
+            }
+        }
+
+        /**
+         * Asks the given component, if non-null, to accept this visitor in the given role.
+         *
+         * @param component  the component to visit, or {@code null}.
+         * @param role       the role of the component in the symbolizer.
+         */
+        private void accept(final Object component, final Role role) {
+            if      (component instanceof Stroke)       ((Stroke)       component).accept(this, role);
+            else if (component instanceof Fill)         ((Fill)         component).accept(this, role);
+            else if (component instanceof Graphic)      ((Graphic)      component).accept(this, role);
+            else if (component instanceof Displacement) ((Displacement) component).accept(this, role);
+            else if (component instanceof Font)         ((Font)         component).accept(this, role);
+            else if (component instanceof Halo)         ((Halo)         component).accept(this, role);
+            else if (component instanceof AnchorPoint)  ((AnchorPoint)  component).accept(this, role);
+            else if (component instanceof Mark)         ((Mark)         component).accept(this, role);
+        }
+
+        @Override public Object visit(final LineSymbolizer symbolizer, final Object data) {
+            accept(symbolizer.getStroke(), Role.MAIN);
+            put(Property.PERPENDICULAR_OFFSET, symbolizer.getPerpendicularOffset());
+            return data;
+        }
+
+        @Override public Object visit(final PolygonSymbolizer symbolizer, final Object data) {
+            accept(symbolizer.getStroke(), Role.MAIN);
+            accept(symbolizer.getFill(), Role.MAIN);
+            accept(symbolizer.getDisplacement(), Role.MAIN);
+            put(Property.PERPENDICULAR_OFFSET, symbolizer.getPerpendicularOffset());
+            return data;
+        }
+
+        @Override public Object visit(final PointSymbolizer symbolizer, final Object data) {
+            accept(symbolizer.getGraphic(), Role.MAIN);
+            return data;
+        }
+
+        @Override public Object visit(final TextSymbolizer symbolizer, final Object data) {
+            put(Property.LABEL, symbolizer.getLabel());
+            accept(symbolizer.getFont(), Role.MAIN);
+            accept(symbolizer.getFill(), Role.MAIN);
+            accept(symbolizer.getHalo(), Role.HALO);
+            return data;
+        }
+
+        @Override public Object visit(final Stroke stroke, final Object data) {
+            if (data == Role.MARK) {
+                put(Property.MARK_STROKE_COLOR,   stroke.getColor());
+                put(Property.MARK_STROKE_OPACITY, stroke.getOpacity());
+                put(Property.MARK_STROKE_WIDTH,   stroke.getWidth());
+            } else {
+                put(Property.STROKE_COLOR,       stroke.getColor());
+                put(Property.STROKE_OPACITY,     stroke.getOpacity());
+                put(Property.STROKE_WIDTH,       stroke.getWidth());
+                put(Property.STROKE_LINEJOIN,    stroke.getLineJoin());
+                put(Property.STROKE_LINECAP,     stroke.getLineCap());
+                put(Property.STROKE_DASH_ARRAY,  stroke.getDashArray());
+                put(Property.STROKE_DASH_OFFSET, stroke.getDashOffset());
+            }
+            return data;
+        }
+
+        @Override public Object visit(final Fill fill, final Object data) {
+            if (data == Role.MARK) {
+                put(Property.MARK_FILL_COLOR,   fill.getColor());
+                put(Property.MARK_FILL_OPACITY, fill.getOpacity());
+            } else if (data == Role.HALO) {
+                put(Property.HALO_FILL_COLOR,   fill.getColor());
+                put(Property.HALO_FILL_OPACITY, fill.getOpacity());
+            } else {
+                put(Property.FILL_COLOR,   fill.getColor());
+                put(Property.FILL_OPACITY, fill.getOpacity());
+            }
+            return data;
+        }
+
+        @Override public Object visit(final Graphic graphic, final Object data) {
+            put(Property.GRAPHIC_OPACITY,  graphic.getOpacity());
+            put(Property.GRAPHIC_SIZE,     graphic.getSize());
+            put(Property.GRAPHIC_ROTATION, graphic.getRotation());
+            accept(graphic.getAnchorPoint(), Role.MAIN);
+            accept(graphic.getDisplacement(), Role.MAIN);
+            final List<GraphicalSymbol> symbols = graphic.graphicalSymbols();
+            if (symbols != null) {
+                for (final GraphicalSymbol symbol : symbols) {
+                    if (symbol instanceof Mark) {
+                        accept(symbol, Role.MARK);
+                        break;
+                    }
+                }
+            }
+            return data;
+        }
+
+        @Override public Object visit(final Mark mark, final Object data) {
+            put(Property.MARK_NAME, mark.getWellKnownName());
+            accept(mark.getFill(), Role.MARK);
+            accept(mark.getStroke(), Role.MARK);
+            return data;
+        }
+
+        @Override public Object visit(final Font font, final Object data) {
+            final List<Expression> family = font.getFamily();
+            if (family != null && !family.isEmpty()) {
+                put(Property.FONT_FAMILY, family.get(0));
+            }
+            put(Property.FONT_STYLE,  font.getStyle());
+            put(Property.FONT_WEIGHT, font.getWeight());
+            put(Property.FONT_SIZE,   font.getSize());
+            return data;
+        }
+
+        @Override public Object visit(final Halo halo, final Object data) {
+            put(Property.HALO_RADIUS, halo.getRadius());
+            accept(halo.getFill(), Role.HALO);
+            return data;
+        }
+
+        @Override public Object visit(final Displacement displacement, final Object data) {
+            put(Property.DISPLACEMENT_X, displacement.getDisplacementX());
+            put(Property.DISPLACEMENT_Y, displacement.getDisplacementY());
+            return data;
+        }
+
+        @Override public Object visit(final AnchorPoint anchor, final Object data) {
+            put(Property.ANCHOR_X, anchor.getAnchorPointX());
+            put(Property.ANCHOR_Y, anchor.getAnchorPointY());
+            return data;
+        }
+
+        /* Elements without resolved properties. */
+        @Override public Object visit(Style               style,     Object data) {return data;}
+        @Override public Object visit(FeatureTypeStyle    style,     Object data) {return data;}
+        @Override public Object visit(Rule                rule,      Object data) {return data;}
+        @Override public Object visit(RasterSymbolizer    symbolizer,Object data) {return data;}
+        @Override public Object visit(ExtensionSymbolizer symbolizer,Object data) {return data;}
+        @Override public Object visit(Description         desc,      Object data) {return data;}
+        @Override public Object visit(GraphicFill         fill,      Object data) {return data;}
+        @Override public Object visit(GraphicStroke       stroke,    Object data) {return data;}
+        @Override public Object visit(ExternalMark        mark,      Object data) {return data;}
+        @Override public Object visit(ExternalGraphic     graphic,   Object data) {return data;}
+        @Override public Object visit(PointPlacement      placement, Object data) {return data;}
+        @Override public Object visit(LinePlacement       placement, Object data) {return data;}
+        @Override public Object visit(GraphicLegend       legend,    Object data) {return data;}
+        @Override public Object visit(ColorMap            colors,    Object data) {return data;}
+        @Override public Object visit(ColorReplacement    colors,    Object data) {return data;}
+        @Override public Object visit(ContrastEnhancement enhancement, Object data) {return data;}
+        @Override public Object visit(ChannelSelection    selection, Object data) {return data;}
+        @Override public Object visit(SelectedChannelType type,      Object data) {return data;}
+        @Override public Object visit(ShadedRelief        relief,    Object data) {return data;}
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.opengis.filter.expression.Add;
+import org.opengis.filter.expression.BinaryExpression;
+import org.opengis.filter.expression.Divide;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.ExpressionVisitor;
+import org.opengis.filter.expression.Function;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.Multiply;
+import org.opengis.filter.expression.NilExpression;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.expression.Subtract;
+
+
+/**
+ * Determines the {@linkplain Variability variability} of expressions. Literals are constant and
+ * property names are per-feature. Arithmetic expressions have the variability of their most variable
+ * operand. Functions have the variability of their most variable parameter, except that functions
+ * not known to be pure are at least {@link Variability#PER_RENDER} since they may depend on the
+ * rendering context.
+ *
+ * <p>Expression implementations which do not dispatch to one of the {@code visit} methods
+ * are conservatively classified as {@link Variability#PER_FEATURE}.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class ExpressionClassifier implements ExpressionVisitor {
+    /**
+     * Lower-case names of functions whose result depends only on their parameters.
+     */
+    private static final Set<String> PURE_FUNCTIONS = new HashSet<>(Arrays.asList(
+            "categorize", "interpolate", "recode", "concatenate", "strconcat", "abs", "min", "max",
+            "floor", "ceil", "round", "sqrt", "pow", "exp", "log", "sin", "cos", "tan", "todegrees", "toradians"));
+
+    /**
+     * The shared instance.
+     */
+    private static final ExpressionClassifier INSTANCE = new ExpressionClassifier();
+
+    /**
+     * Creates a new classifier. Subclasses can override {@link #visit(Function, Object)}
+     * for recognizing more pure functions.
+     */
+    protected ExpressionClassifier() {
+    }
+
+    /**
+     * Returns the variability of the given expression.
+     *
+     * @param  expression  the expression to classify, or {@code null}.
+     * @return the variability of the given expression. A {@code null} expression is constant.
+     */
+    public static Variability classify(final Expression expression) {
+        return INSTANCE.apply(expression);
+    }
+
+    /**
+     * Returns the variability of the given expression using this classifier.
+     *
+     * @param  expression  the expression to classify, or {@code null}.
+     * @return the variability of the given expression.
+     */
+    public Variability apply(final Expression expression) {
+        if (expression == null) {
+            return Variability.CONSTANT;
+        }
+        final Object result = expression.accept(this, null);
+        return (result instanceof Variability) ? (Variability) result : Variability.PER_FEATURE;
+    }
+
+    /**
+     * Returns the most variable of the two operands.
+     *
+     * @param  expression  the binary expression to classify.
+     * @return the most variable of the two operands.
+     */
+    private Variability binary(final BinaryExpression expression) {
+        return apply(expression.getExpression1()).max(apply(expression.getExpression2()));
+    }
+
+    /** Nil expressions are constant. */
+    @Override public Object visit(NilExpression expression, Object extraData) {return Variability.CONSTANT;}
+
+    /** Literals are constant. */
+    @Override public Object visit(Literal expression, Object extraData) {return Variability.CONSTANT;}
+
+    /** Property names depend on the feature. */
+    @Override public Object visit(PropertyName expression, Object extraData) {return Variability.PER_FEATURE;}
+
+    /** Returns the most variable operand. */
+    @Override public Object visit(Add      expression, Object extraData) {return binary(expression);}
+
+    /** Returns the most variable operand. */
+    @Override public Object visit(Subtract expression, Object extraData) {return binary(expression);}
+
+    /** Returns the most variable operand. */
+    @Override public Object visit(Multiply expression, Object extraData) {return binary(expression);}
+
+    /** Returns the most variable operand. */
+    @Override public Object visit(Divide   expression, Object extraData) {return binary(expression);}
+
+    /**
+     * Returns the most variable parameter, or {@link Variability#PER_RENDER} if the function is not known to be pure.
+     *
+     * @param  expression  the function to classify.
+     * @param  extraData   ignored.
+     * @return the variability of the given function.
+     */
+    @Override
+    public Object visit(final Function expression, final Object extraData) {
+        final String name = expression.getName();
+        Variability result = (name != null && PURE_FUNCTIONS.contains(name.toLowerCase(Locale.US)))
+                ? Variability.CONSTANT : Variability.PER_RENDER;
+        if (expression.getParameters() != null) {
+            for (final Expression parameter : expression.getParameters()) {
+                result = result.max(apply(parameter));
+                if (result == Variability.PER_FEATURE) break;
+            }
+        }
+        return result;
+    }
+}
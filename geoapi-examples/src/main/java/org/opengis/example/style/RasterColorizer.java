@@ -0,0 +1,581 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.awt.Color;
+import java.awt.image.Raster;
+import java.awt.image.DataBuffer;
+import java.awt.image.BufferedImage;
+
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Function;
+import org.opengis.style.ColorMap;
+import org.opengis.style.ChannelSelection;
+import org.opengis.style.ContrastEnhancement;
+import org.opengis.style.ContrastMethod;
+import org.opengis.style.RasterSymbolizer;
+import org.opengis.style.SelectedChannelType;
+
+
+/**
+ * Converts the sample values of a {@link Raster} band to ARGB colors as specified by a {@link RasterSymbolizer}.
+ * The {@linkplain ColorMap color map}, {@linkplain ContrastEnhancement contrast enhancement} and opacity are
+ * compiled once when this object is created:
+ *
+ * <ul>
+ *   <li>The color map function ({@code "Categorize"} or {@code "Interpolate"}) is compiled in a sorted array
+ *       of thresholds with their ARGB colors. A sample value is colored by a binary search in that array,
+ *       followed by a linear interpolation between the two bounding colors in the {@code "Interpolate"} case.</li>
+ *   <li>For integer rasters, the complete chain (contrast enhancement, color map and opacity) is evaluated
+ *       once for each integer value and stored in a lookup table. Colorizing a pixel is then a single array
+ *       access. If the contrast enhancement does not depend on raster statistics, a table for all
+ *       {@link DataBuffer#TYPE_BYTE} values (256 entries) or all {@link DataBuffer#TYPE_USHORT} values
+ *       (65536 entries) is built when a raster of that type is colorized for the first time, then reused.
+ *       Otherwise a table is built for each raster over the range of its values, provided that its length
+ *       does not exceed 65536, nor the number of pixels if greater than 256.</li>
+ * </ul>
+ *
+ * <p>Rasters are read and colorized one row at a time, which keeps the memory overhead independent of the raster
+ * height. The {@linkplain ContrastMethod#NORMALIZE normalize} and {@linkplain ContrastMethod#HISTOGRAM histogram}
+ * contrast enhancements, as well as gamma values other than 1, are computed from the statistics of the raster
+ * given to the {@link #colorize(Raster, int[])} method. Without color map, the enhanced values are shown as
+ * gray levels.</p>
+ *
+ * <p>This class colorizes a single band, selected by the {@linkplain ChannelSelection#getGrayChannel() gray channel}
+ * (as a 1-based band number) or the first band if none. Selection of red, green and blue channels is not supported.
+ * Instances of this class are thread-safe. The only mutable state is the lookup tables cached for unsigned integer
+ * types, which may be computed twice if two threads colorize a raster of the same type at the same time.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class RasterColorizer {
+    /**
+     * Maximal length of lookup tables for integer rasters.
+     */
+    private static final int MAX_TABLE_LENGTH = 0x10000;
+
+    /**
+     * Maximal length of lookup tables which are always built, regardless the number of pixels to colorize.
+     */
+    private static final int SMALL_TABLE_LENGTH = 0x100;
+
+    /**
+     * Number of bins in histograms computed for the {@link ContrastMethod#HISTOGRAM} enhancement.
+     */
+    private static final int NUM_BINS = 1024;
+
+    /**
+     * Index of the band to colorize.
+     */
+    private final int band;
+
+    /**
+     * Sorted thresholds of the color map, or {@code null} if there is no color map.
+     */
+    private final double[] thresholds;
+
+    /**
+     * ARGB colors of the color map. For the {@code "Categorize"} function, this array has one more element
+     * than {@link #thresholds} and {@code colors[i]} is the color of values below {@code thresholds[i]}.
+     * For the {@code "Interpolate"} function, {@code colors[i]} is the color of {@code thresholds[i]}.
+     */
+    private final int[] colors;
+
+    /**
+     * {@code true} for the {@code "Interpolate"} function, {@code false} for {@code "Categorize"}.
+     */
+    private final boolean interpolate;
+
+    /**
+     * Whether values equal to a {@code "Categorize"} threshold belong to the preceding interval.
+     */
+    private final boolean preceding;
+
+    /**
+     * The contrast enhancement method, never {@code null}.
+     */
+    private final ContrastMethod method;
+
+    /**
+     * The contrast enhancement gamma value, 1 for no change.
+     */
+    private final double gamma;
+
+    /**
+     * The opacity multiplier, from 0 to 256 inclusive.
+     */
+    private final int opacity;
+
+    /**
+     * ARGB colors for all {@link DataBuffer#TYPE_BYTE} values, or {@code null} if not yet computed.
+     *
+     * @see #unsignedTable(int)
+     */
+    private volatile int[] byteTable;
+
+    /**
+     * ARGB colors for all {@link DataBuffer#TYPE_USHORT} values, or {@code null} if not yet computed.
+     *
+     * @see #unsignedTable(int)
+     */
+    private volatile int[] ushortTable;
+
+    /**
+     * Compiles the given symbolizer.
+     *
+     * @param  symbolizer  the symbolizer to compile.
+     * @throws IllegalArgumentException if the symbolizer uses an unsupported color map function, fallback value
+     *         or channel selection.
+     */
+    public RasterColorizer(final RasterSymbolizer symbolizer) {
+        int band = 0;
+        ContrastEnhancement enhancement = symbolizer.getContrastEnhancement();
+        final ChannelSelection channels = symbolizer.getChannelSelection();
+        if (channels != null) {
+            final SelectedChannelType[] rgb = channels.getRGBChannels();
+            if (rgb != null && rgb.length != 0) {
+                throw new IllegalArgumentException("RGB channel selection is not supported.");
+            }
+            final SelectedChannelType gray = channels.getGrayChannel();
+            if (gray != null) {
+                band = Integer.parseInt(gray.getChannelName().trim()) - 1;
+                if (gray.getContrastEnhancement() != null) {
+                    enhancement = gray.getContrastEnhancement();
+                }
+            }
+        }
+        this.band = band;
+        ContrastMethod method = null;
+        double gamma = 1;
+        if (enhancement != null) {
+            method = enhancement.getMethod();
+            final Expression value = enhancement.getGammaValue();
+            if (value != null) {
+                gamma = toDouble(value.evaluate(null));
+            }
+        }
+        this.method = (method != null) ? method : ContrastMethod.NONE;
+        this.gamma  = gamma;
+        double alpha = 1;
+        if (symbolizer.getOpacity() != null) {
+            alpha = toDouble(symbolizer.getOpacity().evaluate(null));
+        }
+        opacity = (int) Math.round(Math.max(0, Math.min(1, alpha)) * 256);
+        /*
+         * Compile the color map. Parameters of "Categorize" are (lookup, value0, threshold1, value1, …)
+         * optionally followed by "succeeding" or "preceding". Parameters of "Interpolate" are
+         * (lookup, data1, value1, data2, value2, …) optionally followed by the mode and method.
+         */
+        final ColorMap colorMap = symbolizer.getColorMap();
+        final Function function = (colorMap != null) ? colorMap.getFunction() : null;
+        if (function == null) {
+            thresholds  = null;
+            colors      = null;
+            interpolate = false;
+            preceding   = false;
+            return;
+        }
+        final List<Expression> parameters = function.getParameters();
+        final List<Object> values = new ArrayList<>(parameters.size());
+        for (int i=1; i<parameters.size(); i++) {
+            values.add(parameters.get(i).evaluate(null));
+        }
+        boolean isPreceding = false;
+        final String name = function.getName();
+        if ("Categorize".equalsIgnoreCase(name)) {
+            interpolate = false;
+            if ((values.size() & 1) == 0) {
+                final String fallback = String.valueOf(values.remove(values.size() - 1)).trim();
+                isPreceding = "preceding".equalsIgnoreCase(fallback);
+                if (!isPreceding && !"succeeding".equalsIgnoreCase(fallback)) {
+                    throw new IllegalArgumentException("Unsupported \"Categorize\" fallback value: " + fallback);
+                }
+            }
+            final int n = values.size() / 2;
+            thresholds = new double[n];
+            colors = new int[n + 1];
+            colors[0] = toARGB(values.get(0));
+            for (int i=0; i<n; i++) {
+                thresholds[i] = toDouble(values.get(2*i + 1));
+                colors[i + 1] = toARGB(values.get(2*i + 2));
+            }
+        } else if ("Interpolate".equalsIgnoreCase(name)) {
+            interpolate = true;
+            while (!values.isEmpty()) {
+                final String option = String.valueOf(values.get(values.size() - 1));
+                if (option.equalsIgnoreCase("color") || option.equalsIgnoreCase("linear")) {
+                    values.remove(values.size() - 1);
+                } else if (option.equalsIgnoreCase("numeric") || option.equalsIgnoreCase("cosine")
+                        || option.equalsIgnoreCase("cubic"))
+                {
+                    throw new IllegalArgumentException("Unsupported interpolation option: " + option);
+                } else {
+                    break;
+                }
+            }
+            final int n = values.size() / 2;
+            thresholds = new double[n];
+            colors = new int[n];
+            for (int i=0; i<n; i++) {
+                thresholds[i] = toDouble(values.get(2*i));
+                colors[i]     = toARGB(values.get(2*i + 1));
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported color map function: " + name);
+        }
+        preceding = isPreceding;
+        for (int i=1; i<thresholds.length; i++) {
+            if (!(thresholds[i] > thresholds[i-1])) {
+                throw new IllegalArgumentException("Color map thresholds shall be in increasing order.");
+            }
+        }
+    }
+
+    /**
+     * Returns the lookup table for all values of the given unsigned integer type, computing it when first needed.
+     * The table has 256 entries for {@link DataBuffer#TYPE_BYTE} and 65536 entries for {@link DataBuffer#TYPE_USHORT}.
+     *
+     * @param  dataType  the {@link DataBuffer} type of the raster to colorize.
+     * @return the lookup table for the given type, or {@code null} if the type is not an unsigned integer type
+     *         or if the colors depend on the raster statistics.
+     */
+    private int[] unsignedTable(final int dataType) {
+        final boolean isByte;
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE:   isByte = true;  break;
+            case DataBuffer.TYPE_USHORT: isByte = false; break;
+            default: return null;
+        }
+        if (needsStatistics()) {
+            return null;
+        }
+        int[] table = isByte ? byteTable : ushortTable;
+        if (table == null) {
+            table = new int[isByte ? SMALL_TABLE_LENGTH : MAX_TABLE_LENGTH];
+            for (int i=0; i<table.length; i++) {
+                table[i] = color(i);
+            }
+            if (isByte) {
+                byteTable = table;
+            } else {
+                ushortTable = table;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the given literal value as a floating point number.
+     *
+     * @param  value  the literal value to convert.
+     * @return the value as a floating point number.
+     */
+    private static double toDouble(final Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString().trim());
+    }
+
+    /**
+     * Returns the given literal value as an ARGB color. Strings are parsed as {@code "#RRGGBB"}
+     * (opaque colors) or {@code "#AARRGGBB"}.
+     *
+     * @param  value  the literal value to convert.
+     * @return the value as an ARGB color.
+     */
+    private static int toARGB(final Object value) {
+        if (value instanceof Color) {
+            return ((Color) value).getRGB();
+        }
+        String text = value.toString().trim();
+        if (text.startsWith("#")) {
+            text = text.substring(1);
+        }
+        int argb = (int) Long.parseLong(text, 16);
+        if (text.length() <= 6) {
+            argb |= 0xFF000000;
+        }
+        return argb;
+    }
+
+    /**
+     * Returns {@code true} if the enhancement depends on the raster statistics.
+     *
+     * @return whether the enhancement depends on the raster statistics.
+     */
+    private boolean needsStatistics() {
+        return method != ContrastMethod.NONE || gamma != 1;
+    }
+
+    /**
+     * The contrast enhancement computed for a particular raster.
+     */
+    private final class Enhancement {
+        /** Minimal and maximal sample values in the raster, ignoring NaN. */
+        final double min, max;
+
+        /** Cumulative histogram normalized to [0 … 1], or {@code null} if not needed. */
+        private final double[] cdf;
+
+        /**
+         * Computes the statistics of the given raster.
+         *
+         * @param raster  the raster for which to compute the statistics.
+         */
+        Enhancement(final Raster raster) {
+            final int width = raster.getWidth();
+            final int x = raster.getMinX();
+            final int y = raster.getMinY();
+            final double[] row = new double[width];
+            double lo = Double.POSITIVE_INFINITY;
+            double hi = Double.NEGATIVE_INFINITY;
+            for (int j=0; j<raster.getHeight(); j++) {
+                raster.getSamples(x, y + j, width, 1, band, row);
+                for (final double v : row) {
+                    if (v < lo) lo = v;
+                    if (v > hi) hi = v;
+                }
+            }
+            min = lo;
+            max = hi;
+            if (method == ContrastMethod.HISTOGRAM && hi > lo) {
+                final long[] counts = new long[NUM_BINS];
+                final double scale = NUM_BINS / (hi - lo);
+                for (int j=0; j<raster.getHeight(); j++) {
+                    raster.getSamples(x, y + j, width, 1, band, row);
+                    for (final double v : row) {
+                        if (v == v) {
+                            counts[Math.min(NUM_BINS - 1, (int) ((v - lo) * scale))]++;
+                        }
+                    }
+                }
+                cdf = new double[NUM_BINS + 1];
+                long sum = 0;
+                for (int i=0; i<NUM_BINS; i++) {
+                    sum += counts[i];
+                    cdf[i+1] = sum;
+                }
+                for (int i=1; i<=NUM_BINS; i++) {
+                    cdf[i] /= sum;
+                }
+            } else {
+                cdf = null;
+            }
+        }
+
+        /**
+         * Applies the contrast enhancement on the given value. The result is in the range of raster values
+         * if there is a color map, or in the [0 … 255] range otherwise.
+         *
+         * @param  value  the raster value to enhance.
+         * @return the enhanced value.
+         */
+        double apply(final double value) {
+            double n;
+            if (!(max > min)) {
+                n = 0;
+            } else if (cdf != null) {
+                final double p = Math.max(0, Math.min(NUM_BINS, (value - min) * (NUM_BINS / (max - min))));
+                final int i = Math.min(NUM_BINS - 1, (int) p);
+                n = cdf[i] + (cdf[i+1] - cdf[i]) * (p - i);
+            } else {
+                n = Math.max(0, Math.min(1, (value - min) / (max - min)));
+            }
+            if (gamma != 1) {
+                n = Math.pow(n, 1 / gamma);
+            }
+            return (thresholds != null) ? min + n * (max - min) : n * 255;
+        }
+    }
+
+    /**
+     * Returns the ARGB color of the given value after contrast enhancement.
+     *
+     * @param  value  the sample value after contrast enhancement.
+     * @return the ARGB color of the given value, or 0 for NaN.
+     */
+    private int color(final double value) {
+        if (value != value) {
+            return 0;
+        }
+        final int argb;
+        if (thresholds == null) {
+            final int gray = (int) Math.max(0, Math.min(255, Math.round(value)));
+            argb = 0xFF000000 | (gray << 16) | (gray << 8) | gray;
+        } else {
+            int i = Arrays.binarySearch(thresholds, value);
+            if (!interpolate) {
+                if (i < 0) {
+                    i = ~i;
+                } else if (!preceding) {
+                    i++;
+                }
+                argb = colors[i];
+            } else if (i >= 0) {
+                argb = colors[i];
+            } else {
+                i = ~i;
+                if (i == 0) {
+                    argb = colors[0];
+                } else if (i == thresholds.length) {
+                    argb = colors[i - 1];
+                } else {
+                    final double t = (value - thresholds[i-1]) / (thresholds[i] - thresholds[i-1]);
+                    argb = interpolate(colors[i-1], colors[i], t);
+                }
+            }
+        }
+        if (opacity == 256) {
+            return argb;
+        }
+        return (argb & 0xFFFFFF) | (((argb >>> 24) * opacity >>> 8) << 24);
+    }
+
+    /**
+     * Interpolates linearly each component of the given ARGB colors.
+     *
+     * @param  c0  the color at <var>t</var> = 0.
+     * @param  c1  the color at <var>t</var> = 1.
+     * @param  t   the interpolation factor, from 0 to 1.
+     * @return the interpolated color.
+     */
+    private static int interpolate(final int c0, final int c1, final double t) {
+        int argb = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            final int a = (c0 >>> shift) & 0xFF;
+            final int b = (c1 >>> shift) & 0xFF;
+            argb |= ((int) Math.round(a + (b - a) * t)) << shift;
+        }
+        return argb;
+    }
+
+    /**
+     * Returns the ARGB color for the given sample value. Contrast enhancements
+     * which depend on raster statistics are ignored by this method.
+     *
+     * @param  value  the sample value.
+     * @return the ARGB color of the given value.
+     */
+    public int getColor(final double value) {
+        return color(value);
+    }
+
+    /**
+     * Colorizes the given raster. The colors are stored in row-major order in the given array,
+     * which shall have a length of at least the number of pixels in the raster.
+     *
+     * @param raster  the raster to colorize.
+     * @param argb    where to store the ARGB colors.
+     */
+    public void colorize(final Raster raster, final int[] argb) {
+        final int width  = raster.getWidth();
+        final int height = raster.getHeight();
+        final int x = raster.getMinX();
+        final int y = raster.getMinY();
+        final int dataType = raster.getSampleModel().getDataType();
+        final int[] unsignedTable = unsignedTable(dataType);
+        if (unsignedTable != null) {
+            final int[] row = new int[width];
+            for (int j=0; j<height; j++) {
+                raster.getSamples(x, y + j, width, 1, band, row);
+                final int start = j * width;
+                for (int i=0; i<width; i++) {
+                    argb[start + i] = unsignedTable[row[i]];
+                }
+            }
+            return;
+        }
+        final Enhancement enhancement = needsStatistics() ? new Enhancement(raster) : null;
+        if (isInteger(dataType)) {
+            /*
+             * Find the range of values, then build the lookup table. If the enhancement has been
+             * computed, its range is reused instead of reading the raster again.
+             */
+            final int[] row = new int[width];
+            long min, max;
+            if (enhancement != null) {
+                min = (long) enhancement.min;
+                max = (long) enhancement.max;
+            } else {
+                min = Long.MAX_VALUE;
+                max = Long.MIN_VALUE;
+                for (int j=0; j<height; j++) {
+                    raster.getSamples(x, y + j, width, 1, band, row);
+                    for (final int v : row) {
+                        if (v < min) min = v;
+                        if (v > max) max = v;
+                    }
+                }
+            }
+            final long length = max - min + 1;
+            if (length > 0 && length <= MAX_TABLE_LENGTH && (length <= SMALL_TABLE_LENGTH || length <= (long) width * height)) {
+                final int offset = (int) min;
+                final int[] table = new int[(int) length];
+                for (int i=0; i<table.length; i++) {
+                    final double value = offset + i;
+                    table[i] = color((enhancement != null) ? enhancement.apply(value) : value);
+                }
+                for (int j=0; j<height; j++) {
+                    raster.getSamples(x, y + j, width, 1, band, row);
+                    final int start = j * width;
+                    for (int i=0; i<width; i++) {
+                        argb[start + i] = table[row[i] - offset];
+                    }
+                }
+                return;
+            }
+        }
+        final double[] row = new double[width];
+        for (int j=0; j<height; j++) {
+            raster.getSamples(x, y + j, width, 1, band, row);
+            final int start = j * width;
+            for (int i=0; i<width; i++) {
+                final double value = row[i];
+                argb[start + i] = color((enhancement != null && value == value) ? enhancement.apply(value) : value);
+            }
+        }
+    }
+
+    /**
+     * Colorizes the given raster in a new image.
+     *
+     * @param  raster  the raster to colorize.
+     * @return an image of type {@link BufferedImage#TYPE_INT_ARGB}.
+     */
+    public BufferedImage toImage(final Raster raster) {
+        final int width  = raster.getWidth();
+        final int height = raster.getHeight();
+        final int[] argb = new int[width * height];
+        colorize(raster, argb);
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, argb, 0, width);
+        return image;
+    }
+
+    /**
+     * Returns {@code true} if the given {@link DataBuffer} type is an integer type.
+     *
+     * @param  dataType  the {@link DataBuffer} type to test.
+     * @return whether the given type is an integer type.
+     */
+    private static boolean isInteger(final int dataType) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE:
+            case DataBuffer.TYPE_USHORT:
+            case DataBuffer.TYPE_SHORT:
+            case DataBuffer.TYPE_INT: return true;
+            default: return false;
+        }
+    }
+}
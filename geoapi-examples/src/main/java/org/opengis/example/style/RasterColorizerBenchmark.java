@@ -0,0 +1,153 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Random;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+
+/**
+ * Measures the throughput of {@link RasterColorizer#colorize(Raster, int[])} in number of pixels per second.
+ * The raster is filled with random integer values in a given range, stored with the given
+ * {@link DataBuffer} type. Comparing {@link DataBuffer#TYPE_USHORT} with {@link DataBuffer#TYPE_FLOAT}
+ * shows the gain of the lookup table compared to the evaluation of the color map for each pixel.
+ *
+ * <p>Example:</p>
+ * <blockquote><pre>RasterColorizerBenchmark benchmark = new RasterColorizerBenchmark(colorizer, DataBuffer.TYPE_USHORT, 4096, 4096, 2000, new Random());
+ *benchmark.measure(1);                          // Warm-up.
+ *System.out.println(benchmark.measure(5));</pre></blockquote>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class RasterColorizerBenchmark {
+    /**
+     * The result of a measurement.
+     */
+    public static final class Result {
+        /** Number of pixels colorized. */
+        private final long numPixels;
+
+        /** Elapsed time in nanoseconds. */
+        private final long elapsedTime;
+
+        /**
+         * Creates a new result.
+         *
+         * @param numPixels    number of pixels colorized.
+         * @param elapsedTime  elapsed time in nanoseconds.
+         */
+        Result(final long numPixels, final long elapsedTime) {
+            this.numPixels   = numPixels;
+            this.elapsedTime = elapsedTime;
+        }
+
+        /**
+         * Returns the number of pixels colorized.
+         *
+         * @return number of pixels colorized.
+         */
+        public long getNumPixels() {
+            return numPixels;
+        }
+
+        /**
+         * Returns the elapsed time in nanoseconds.
+         *
+         * @return elapsed time in nanoseconds.
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Returns the throughput in number of pixels colorized per second.
+         *
+         * @return number of pixels colorized per second.
+         */
+        public double getPixelsPerSecond() {
+            return numPixels * 1E9 / Math.max(elapsedTime, 1);
+        }
+
+        /**
+         * Returns a single-line representation of this result, suitable for reports.
+         *
+         * @return a string representation of this result.
+         */
+        @Override
+        public String toString() {
+            return String.format("pixels=%-12d %.1f ms %,.0f pixels/s", numPixels, elapsedTime / 1E6, getPixelsPerSecond());
+        }
+    }
+
+    /**
+     * The colorizer to measure.
+     */
+    private final RasterColorizer colorizer;
+
+    /**
+     * The raster to colorize.
+     */
+    private final Raster raster;
+
+    /**
+     * Where to store the colors.
+     */
+    private final int[] argb;
+
+    /**
+     * Creates a new benchmark for a raster of the given type and size filled with random values.
+     *
+     * @param colorizer  the colorizer to measure.
+     * @param dataType   the {@link DataBuffer} type of the raster, for example {@link DataBuffer#TYPE_USHORT}.
+     * @param width      the raster width in pixels.
+     * @param height     the raster height in pixels.
+     * @param range      the sample values are random integers from 0 inclusive to this value exclusive.
+     * @param random     the random number generator to use for creating the sample values.
+     */
+    public RasterColorizerBenchmark(final RasterColorizer colorizer, final int dataType,
+            final int width, final int height, final int range, final Random random)
+    {
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The raster is too large.");
+        }
+        final WritableRaster raster = Raster.createWritableRaster(new BandedSampleModel(dataType, width, height, 1), null);
+        final int[] row = new int[width];
+        for (int y=0; y<height; y++) {
+            for (int x=0; x<width; x++) {
+                row[x] = random.nextInt(range);
+            }
+            raster.setSamples(0, y, width, 1, 0, row);
+        }
+        this.colorizer = colorizer;
+        this.raster    = raster;
+        this.argb      = new int[width * height];
+    }
+
+    /**
+     * Colorizes the raster the given number of times and measures the elapsed time.
+     *
+     * @param  numPasses  number of times to colorize the whole raster.
+     * @return the measurement result.
+     */
+    public Result measure(final int numPasses) {
+        if (numPasses <= 0) {
+            throw new IllegalArgumentException("The number of passes shall be positive.");
+        }
+        final long startTime = System.nanoTime();
+        for (int pass=0; pass<numPasses; pass++) {
+            colorizer.colorize(raster, argb);
+        }
+        final long elapsedTime = System.nanoTime() - startTime;
+        return new Result(numPasses * (long) argb.length, elapsedTime);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.awt.Color;
+
+import org.opengis.style.Symbolizer;
+
+
+/**
+ * The values of all properties of a symbolizer, with expressions evaluated for a particular feature.
+ * Values are stored in a flat array indexed by {@link Property} and are already converted to the
+ * {@linkplain Property#getValueType() property type}, so renderers can read them without further
+ * evaluation or parsing.
+ *
+ * <p>Instances of this class are immutable. When a symbolizer has no per-feature expression,
+ * the same instance is shared by all features.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ *
+ * @see CompiledSymbolizer#resolve(Object)
+ */
+public final class ResolvedSymbolizer {
+    /**
+     * The symbolizer properties which can be resolved.
+     */
+    public enum Property {
+        /** Stroke color.              */ STROKE_COLOR(Color.class),
+        /** Stroke opacity.            */ STROKE_OPACITY(Double.class),
+        /** Stroke width.              */ STROKE_WIDTH(Double.class),
+        /** Stroke line join.          */ STROKE_LINEJOIN(String.class),
+        /** Stroke line cap.           */ STROKE_LINECAP(String.class),
+        /** Stroke dash array.         */ STROKE_DASH_ARRAY(float[].class),
+        /** Stroke dash offset.        */ STROKE_DASH_OFFSET(Double.class),
+        /** Fill color.                */ FILL_COLOR(Color.class),
+        /** Fill opacity.              */ FILL_OPACITY(Double.class),
+        /** Line or polygon offset.    */ PERPENDICULAR_OFFSET(Double.class),
+        /** Displacement along x.      */ DISPLACEMENT_X(Double.class),
+        /** Displacement along y.      */ DISPLACEMENT_Y(Double.class),
+        /** Graphic opacity.           */ GRAPHIC_OPACITY(Double.class),
+        /** Graphic size.              */ GRAPHIC_SIZE(Double.class),
+        /** Graphic rotation.          */ GRAPHIC_ROTATION(Double.class),
+        /** Anchor point along x.      */ ANCHOR_X(Double.class),
+        /** Anchor point along y.      */ ANCHOR_Y(Double.class),
+        /** Well-known name of mark.   */ MARK_NAME(String.class),
+        /** Mark fill color.           */ MARK_FILL_COLOR(Color.class),
+        /** Mark fill opacity.         */ MARK_FILL_OPACITY(Double.class),
+        /** Mark stroke color.         */ MARK_STROKE_COLOR(Color.class),
+        /** Mark stroke opacity.       */ MARK_STROKE_OPACITY(Double.class),
+        /** Mark stroke width.         */ MARK_STROKE_WIDTH(Double.class),
+        /** Text label.                */ LABEL(String.class),
+        /** First font family.         */ FONT_FAMILY(String.class),
+        /** Font style.                */ FONT_STYLE(String.class),
+        /** Font weight.               */ FONT_WEIGHT(String.class),
+        /** Font size.                 */ FONT_SIZE(Double.class),
+        /** Halo radius.               */ HALO_RADIUS(Double.class),
+        /** Halo fill color.           */ HALO_FILL_COLOR(Color.class),
+        /** Halo fill opacity.         */ HALO_FILL_OPACITY(Double.class);
+
+        /**
+         * The type of values.
+         */
+        private final Class<?> valueType;
+
+        /**
+         * Creates a new property.
+         *
+         * @param valueType  the type of values.
+         */
+        private Property(final Class<?> valueType) {
+            this.valueType = valueType;
+        }
+
+        /**
+         * Returns the type of values of this property.
+         *
+         * @return the type of values.
+         */
+        public Class<?> getValueType() {
+            return valueType;
+        }
+    }
+
+    /**
+     * The symbolizer from which the values have been resolved.
+     */
+    private final Symbolizer symbolizer;
+
+    /**
+     * The property values indexed by {@link Property#ordinal()}. Elements may be {@code null}.
+     * This array shall not be modified after construction.
+     */
+    private final Object[] values;
+
+    /**
+     * Creates a new resolved symbolizer. The given array is stored directly, not cloned.
+     *
+     * @param symbolizer  the symbolizer from which the values have been resolved.
+     * @param values      the property values indexed by {@link Property#ordinal()}.
+     */
+    ResolvedSymbolizer(final Symbolizer symbolizer, final Object[] values) {
+        this.symbolizer = symbolizer;
+        this.values     = values;
+    }
+
+    /**
+     * Returns the symbolizer from which the values have been resolved.
+     *
+     * @return the source symbolizer.
+     */
+    public Symbolizer getSymbolizer() {
+        return symbolizer;
+    }
+
+    /**
+     * Returns the value of the given property.
+     *
+     * @param  property  the property for which to get the value.
+     * @return the value, or {@code null} if not specified.
+     */
+    public Object get(final Property property) {
+        final Object value = values[property.ordinal()];
+        return (value instanceof float[]) ? ((float[]) value).clone() : value;
+    }
+
+    /**
+     * Returns the value of the given color property.
+     *
+     * @param  property  a property of type {@link Color}.
+     * @return the color, or {@code null} if not specified.
+     */
+    public Color getColor(final Property property) {
+        return (Color) values[property.ordinal()];
+    }
+
+    /**
+     * Returns the value of the given numeric property.
+     *
+     * @param  property      a property of type {@link Double}.
+     * @param  defaultValue  the value to return if the property is not specified.
+     * @return the property value, or the default value.
+     */
+    public double getDouble(final Property property, final double defaultValue) {
+        final Double value = (Double) values[property.ordinal()];
+        return (value != null) ? value : defaultValue;
+    }
+
+    /**
+     * Returns the value of the given text property.
+     *
+     * @param  property  a property of type {@link String}.
+     * @return the text, or {@code null} if not specified.
+     */
+    public String getString(final Property property) {
+        return (String) values[property.ordinal()];
+    }
+
+    /**
+     * Returns a hash code value for this resolved symbolizer.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(symbolizer) + 31 * Arrays.deepHashCode(values);
+    }
+
+    /**
+     * Compares this resolved symbolizer with the given object. Two instances are equal if they
+     * have the same source symbolizer and property values. Renderers can use this method for
+     * grouping features rendered with the same style.
+     *
+     * @param  obj  the object to compare with this resolved symbolizer.
+     * @return whether the given object is equal to this resolved symbolizer.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof ResolvedSymbolizer) {
+            final ResolvedSymbolizer other = (ResolvedSymbolizer) obj;
+            return Objects.equals(symbolizer, other.symbolizer) && Arrays.deepEquals(values, other.values);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Map;
+import java.util.IdentityHashMap;
+
+import org.opengis.style.Style;
+
+
+/**
+ * A cache of {@link CompiledStyle} instances. Styles are compared by identity.
+ * On each request, the cached compiled style is verified against the current style content
+ * and recompiled if a rule, filter, scale range or symbolizer list changed. This verification
+ * cost is proportional to the number of rules, which is small compared to the cost of evaluating
+ * every rule on every feature.
+ *
+ * <p>Styles which are modified in ways not detected by {@link CompiledStyle#isCurrent(Style)}
+ * can be removed from the cache explicitly by a call to {@link #invalidate(Style)}.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class StyleCache {
+    /**
+     * The compiled styles. All accesses shall be synchronized on this map.
+     */
+    private final Map<Style,CompiledStyle> cache;
+
+    /**
+     * Creates a new, initially empty, cache.
+     */
+    public StyleCache() {
+        cache = new IdentityHashMap<>();
+    }
+
+    /**
+     * Returns the compiled form of the given style, compiling it if needed.
+     *
+     * @param  style  the style to compile.
+     * @return the compiled style.
+     */
+    public CompiledStyle get(final Style style) {
+        CompiledStyle compiled;
+        synchronized (cache) {
+            compiled = cache.get(style);
+        }
+        if (compiled == null || !compiled.isCurrent(style)) {
+            compiled = new CompiledStyle(style);
+            synchronized (cache) {
+                cache.put(style, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Removes the compiled form of the given style from the cache.
+     *
+     * @param style  the style which has been modified.
+     */
+    public void invalidate(final Style style) {
+        synchronized (cache) {
+            cache.remove(style);
+        }
+    }
+
+    /**
+     * Removes all compiled styles from the cache.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
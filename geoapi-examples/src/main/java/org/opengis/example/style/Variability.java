@@ -0,0 +1,48 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+
+/**
+ * How often the value of an expression may change during rendering.
+ * Values are declared from the most stable to the most variable,
+ * so the variability of a composite expression is the maximal variability of its components.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ *
+ * @see ExpressionClassifier
+ */
+public enum Variability {
+    /**
+     * The expression always has the same value. It can be evaluated once when the style is compiled.
+     */
+    CONSTANT,
+
+    /**
+     * The expression does not depend on features, but may depend on the rendering context
+     * (for example environment variables or current time). It can be evaluated once per map request.
+     */
+    PER_RENDER,
+
+    /**
+     * The expression depends on feature properties and shall be evaluated for each feature.
+     */
+    PER_FEATURE;
+
+    /**
+     * Returns the most variable of this value and the given one.
+     *
+     * @param  other  the variability to combine with this one.
+     * @return the most variable of {@code this} and {@code other}.
+     */
+    public Variability max(final Variability other) {
+        return (other.compareTo(this) > 0) ? other : this;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.temporal;
+
+import java.util.BitSet;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import org.opengis.temporal.Period;
+import org.opengis.temporal.RelativePosition;
+import org.opengis.temporal.TemporalPrimitive;
+
+
+/**
+ * A list of periods stored in two columns of beginning and ending times, in nanoseconds since
+ * January 1st, 1970 UTC. This class is designed for evaluating the relative positions of many
+ * periods in bulk: the loops in {@link #relativePositions relativePositions(…)} and
+ * {@link #select select(…)} work only on {@code long} values, without creating any object
+ * per period. {@link Period} instances are created only when requested by {@link #get(int)}.
+ *
+ * <p>The arrays given to the constructor are not copied, so changes in those arrays are reflected
+ * in this list. This list is not modifiable through the {@link java.util.List} interface.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class PeriodArray extends AbstractList<Period> implements RandomAccess {
+    /**
+     * Beginning and ending times of all periods, in nanoseconds since epoch.
+     */
+    private final long[] begins, ends;
+
+    /**
+     * Creates a new list of periods backed by the given arrays.
+     *
+     * @param begins  beginning times of all periods, in nanoseconds since epoch.
+     * @param ends    ending times of all periods, in nanoseconds since epoch.
+     * @throws IllegalArgumentException if the arrays do not have the same length,
+     *         or if a beginning time is after the corresponding ending time.
+     */
+    public PeriodArray(final long[] begins, final long[] ends) {
+        if (begins.length != ends.length) {
+            throw new IllegalArgumentException("Arrays shall have the same length.");
+        }
+        for (int i=0; i<begins.length; i++) {
+            if (begins[i] > ends[i]) {
+                throw new IllegalArgumentException("Beginning time is after ending time at index " + i + '.');
+            }
+        }
+        this.begins = begins;
+        this.ends   = ends;
+    }
+
+    /**
+     * Returns the number of periods in this list.
+     *
+     * @return number of periods.
+     */
+    @Override
+    public int size() {
+        return begins.length;
+    }
+
+    /**
+     * Returns the period at the given index.
+     *
+     * @param  index  index of the period to get.
+     * @return the period at the given index.
+     */
+    @Override
+    public Period get(final int index) {
+        return new SimplePeriod(begins[index], ends[index]);
+    }
+
+    /**
+     * Computes the relative position of all periods in this list relative to the given period.
+     *
+     * @param begin   beginning time of the period to compare with, in nanoseconds since epoch.
+     * @param end     ending time of the period to compare with, in nanoseconds since epoch.
+     * @param dest    where to store the relative positions.
+     * @param offset  index in {@code dest} where to store the first relative position.
+     */
+    public void relativePositions(final long begin, final long end, final RelativePosition[] dest, int offset) {
+        for (int i=0; i<begins.length; i++) {
+            dest[offset++] = Relations.position(Relations.code(begins[i], ends[i], begin, end));
+        }
+    }
+
+    /**
+     * Returns the relative position of all periods in this list relative to the given instant or period.
+     *
+     * @param  other  the instant or period to compare with.
+     * @return the relative position of each period in this list.
+     * @throws IllegalArgumentException if the given object is not an instant or a period with dates.
+     */
+    public RelativePosition[] relativePositions(final TemporalPrimitive other) {
+        final long[] bounds = Relations.bounds(other);
+        final RelativePosition[] dest = new RelativePosition[begins.length];
+        relativePositions(bounds[0], bounds[1], dest, 0);
+        return dest;
+    }
+
+    /**
+     * Returns the indexes of all periods having the given position relative to the given period.
+     *
+     * @param  position  the desired relative position.
+     * @param  begin     beginning time of the period to compare with, in nanoseconds since epoch.
+     * @param  end       ending time of the period to compare with, in nanoseconds since epoch.
+     * @return indexes of periods having the given relative position.
+     */
+    public BitSet select(final RelativePosition position, final long begin, final long end) {
+        final BitSet result = new BitSet(begins.length);
+        for (int i=0; i<begins.length; i++) {
+            if (Relations.position(Relations.code(begins[i], ends[i], begin, end)) == position) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexes of all periods having the given position relative to the given instant or period.
+     *
+     * @param  position  the desired relative position.
+     * @param  other     the instant or period to compare with.
+     * @return indexes of periods having the given relative position.
+     * @throws IllegalArgumentException if the given object is not an instant or a period with dates.
+     */
+    public BitSet select(final RelativePosition position, final TemporalPrimitive other) {
+        final long[] bounds = Relations.bounds(other);
+        return select(position, bounds[0], bounds[1]);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.temporal;
+
+import java.util.Date;
+
+import org.opengis.temporal.Instant;
+import org.opengis.temporal.Period;
+import org.opengis.temporal.RelativePosition;
+import org.opengis.temporal.TemporalPrimitive;
+
+
+/**
+ * Computes the {@link RelativePosition} between two periods given by their beginning and ending times.
+ * The relative position is computed with four comparisons and two equality tests, combined in an index
+ * in a precomputed table. This avoids the cascade of conditional branches of a direct implementation,
+ * which are difficult to predict when comparing many unrelated periods.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class Relations {
+    /**
+     * Number of nanoseconds in a millisecond.
+     */
+    static final long NANOS_PER_MILLI = 1000000;
+
+    /**
+     * The relative positions for all combinations of comparison results.
+     * See {@link #code(long, long, long, long)} for the index computation.
+     */
+    private static final RelativePosition[] TABLE = new RelativePosition[4 * 81];
+    static {
+        for (int i=0; i<TABLE.length; i++) {
+            int c = i;
+            final int cBE = c % 3 - 1; c /= 3;
+            final int cEB = c % 3 - 1; c /= 3;
+            final int cEE = c % 3 - 1; c /= 3;
+            final int cBB = c % 3 - 1; c /= 3;
+            TABLE[i] = classify(cBB, cEE, cEB, cBE, (c & 1) != 0, (c & 2) != 0);
+        }
+    }
+
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private Relations() {
+    }
+
+    /**
+     * Returns the relative position from the results of comparisons between the bounds of
+     * periods <var>A</var> and <var>B</var>. This is the reference implementation used for
+     * building the table; it is not invoked after class initialization.
+     *
+     * @param cBB    sign of <var>A</var>.begin − <var>B</var>.begin.
+     * @param cEE    sign of <var>A</var>.end − <var>B</var>.end.
+     * @param cEB    sign of <var>A</var>.end − <var>B</var>.begin.
+     * @param cBE    sign of <var>A</var>.begin − <var>B</var>.end.
+     * @param aInst  whether <var>A</var> is an instant.
+     * @param bInst  whether <var>B</var> is an instant.
+     * @return the position of <var>A</var> relative to <var>B</var>.
+     */
+    private static RelativePosition classify(final int cBB, final int cEE, final int cEB, final int cBE,
+                                             final boolean aInst, final boolean bInst)
+    {
+        if (cEB < 0) return RelativePosition.BEFORE;
+        if (cBE > 0) return RelativePosition.AFTER;
+        if (aInst && bInst) return RelativePosition.EQUALS;
+        if (aInst) {
+            if (cBB == 0) return RelativePosition.BEGINS;
+            if (cBE == 0) return RelativePosition.ENDS;
+            return RelativePosition.DURING;
+        }
+        if (bInst) {
+            if (cBB == 0) return RelativePosition.BEGUN_BY;
+            if (cEE == 0) return RelativePosition.ENDED_BY;
+            return RelativePosition.CONTAINS;
+        }
+        if (cEB == 0) return RelativePosition.MEETS;
+        if (cBE == 0) return RelativePosition.MET_BY;
+        if (cBB == 0) {
+            if (cEE == 0) return RelativePosition.EQUALS;
+            return (cEE < 0) ? RelativePosition.BEGINS : RelativePosition.BEGUN_BY;
+        }
+        if (cEE == 0) {
+            return (cBB > 0) ? RelativePosition.ENDS : RelativePosition.ENDED_BY;
+        }
+        if (cBB > 0) {
+            return (cEE < 0) ? RelativePosition.DURING : RelativePosition.OVERLAPPED_BY;
+        } else {
+            return (cEE > 0) ? RelativePosition.CONTAINS : RelativePosition.OVERLAPS;
+        }
+    }
+
+    /**
+     * Returns the index in the table of the relative position of period <var>A</var> relative
+     * to period <var>B</var>. The beginning of each period shall not be after its end.
+     *
+     * @param  ab  beginning of period <var>A</var>.
+     * @param  ae  end of period <var>A</var>.
+     * @param  bb  beginning of period <var>B</var>.
+     * @param  be  end of period <var>B</var>.
+     * @return index in the table of the position of <var>A</var> relative to <var>B</var>.
+     */
+    static int code(final long ab, final long ae, final long bb, final long be) {
+        return (((((ab == ae ? 1 : 0) | (bb == be ? 2 : 0)) * 3
+                + Long.compare(ab, bb) + 1) * 3
+                + Long.compare(ae, be) + 1) * 3
+                + Long.compare(ae, bb) + 1) * 3
+                + Long.compare(ab, be) + 1;
+    }
+
+    /**
+     * Returns the relative position of period <var>A</var> relative to period <var>B</var>.
+     *
+     * @param  ab  beginning of period <var>A</var>.
+     * @param  ae  end of period <var>A</var>.
+     * @param  bb  beginning of period <var>B</var>.
+     * @param  be  end of period <var>B</var>.
+     * @return the position of <var>A</var> relative to <var>B</var>.
+     */
+    static RelativePosition relativePosition(final long ab, final long ae, final long bb, final long be) {
+        return TABLE[code(ab, ae, bb, be)];
+    }
+
+    /**
+     * Returns the relative position for the given table index.
+     *
+     * @param  code  index in the table, as computed by {@link #code(long, long, long, long)}.
+     * @return the relative position for the given index.
+     */
+    static RelativePosition position(final int code) {
+        return TABLE[code];
+    }
+
+    /**
+     * Converts a date to nanoseconds since epoch.
+     *
+     * @param  date  the date to convert.
+     * @return the date in nanoseconds since January 1st, 1970.
+     */
+    static long toNanos(final Date date) {
+        return Math.multiplyExact(date.getTime(), NANOS_PER_MILLI);
+    }
+
+    /**
+     * Returns the beginning and ending times in nanoseconds of the given temporal primitive.
+     *
+     * @param  other  the instant or period for which to get the bounds.
+     * @return the beginning and ending times in nanoseconds.
+     * @throws IllegalArgumentException if the given object is not an instant or a period with dates.
+     */
+    static long[] bounds(final TemporalPrimitive other) {
+        if (other instanceof SimpleInstant) {
+            final long t = ((SimpleInstant) other).nanos;
+            return new long[] {t, t};
+        }
+        if (other instanceof SimplePeriod) {
+            final SimplePeriod p = (SimplePeriod) other;
+            return new long[] {p.begin, p.end};
+        }
+        if (other instanceof Instant) {
+            final long t = nanos((Instant) other);
+            return new long[] {t, t};
+        }
+        if (other instanceof Period) {
+            final Period p = (Period) other;
+            return new long[] {nanos(p.getBeginning()), nanos(p.getEnding())};
+        }
+        throw new IllegalArgumentException("Unsupported temporal primitive: " + other);
+    }
+
+    /**
+     * Returns the time in nanoseconds of the given instant.
+     *
+     * @param  instant  the instant for which to get the time.
+     * @return the time in nanoseconds since January 1st, 1970.
+     * @throws IllegalArgumentException if the given instant has no date.
+     */
+    static long nanos(final Instant instant) {
+        if (instant instanceof SimpleInstant) {
+            return ((SimpleInstant) instant).nanos;
+        }
+        final Date date = (instant != null) ? instant.getDate() : null;
+        if (date == null) {
+            throw new IllegalArgumentException("Instant has no date.");
+        }
+        return toNanos(date);
+    }
+}
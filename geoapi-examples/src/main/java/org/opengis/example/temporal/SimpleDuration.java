@@ -0,0 +1,76 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.temporal;
+
+import java.io.Serializable;
+import org.opengis.temporal.Duration;
+
+
+/**
+ * A {@link Duration} stored as a number of nanoseconds.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SimpleDuration implements Duration, Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 2306137424524006712L;
+
+    /**
+     * The duration in nanoseconds.
+     */
+    private final long nanos;
+
+    /**
+     * Creates a new duration of the given length.
+     *
+     * @param nanos  the duration in nanoseconds.
+     */
+    public SimpleDuration(final long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns the duration in nanoseconds.
+     *
+     * @return the duration in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns a hash code value for this duration.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(nanos) ^ (int) serialVersionUID;
+    }
+
+    /**
+     * Compares this duration with the given object for equality.
+     *
+     * @param  obj  the object to compare with this duration.
+     * @return {@code true} if the given object is a duration of the same length.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        return (obj instanceof SimpleDuration) && ((SimpleDuration) obj).nanos == nanos;
+    }
+
+    /**
+     * Returns a string representation of this duration in ISO 8601 format.
+     */
+    @Override
+    public String toString() {
+        return java.time.Duration.ofNanos(nanos).toString();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.temporal;
+
+import java.util.Date;
+import java.io.Serializable;
+
+import org.opengis.metadata.Identifier;
+import org.opengis.temporal.Instant;
+import org.opengis.temporal.Duration;
+import org.opengis.temporal.RelativePosition;
+import org.opengis.temporal.TemporalPosition;
+import org.opengis.temporal.TemporalPrimitive;
+import org.opengis.temporal.TemporalGeometricPrimitive;
+
+
+/**
+ * An {@link Instant} stored as a number of nanoseconds since January 1st, 1970 UTC.
+ * No {@link Date} object is created unless {@link #getDate()} is invoked, and the
+ * {@link #relativePosition(TemporalPrimitive) relativePosition(…)} method works
+ * directly on the {@code long} values when the other object is also an instance
+ * of this package.
+ *
+ * <p>Instances of this class are anonymous: {@link #getName()} returns {@code null}.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SimpleInstant implements Instant, Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = -4571920476219730712L;
+
+    /**
+     * Number of nanoseconds since January 1st, 1970 UTC.
+     */
+    final long nanos;
+
+    /**
+     * Creates a new instant at the given time.
+     *
+     * @param nanos  number of nanoseconds since January 1st, 1970 UTC.
+     */
+    public SimpleInstant(final long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * Creates a new instant at the given date.
+     *
+     * @param  date  the date of the instant.
+     * @return the instant at the given date.
+     * @throws ArithmeticException if the date is too far from 1970 for a {@code long} number of nanoseconds.
+     */
+    public static SimpleInstant of(final Date date) {
+        return new SimpleInstant(Relations.toNanos(date));
+    }
+
+    /**
+     * Returns the number of nanoseconds since January 1st, 1970 UTC.
+     *
+     * @return number of nanoseconds since epoch.
+     */
+    public long getEpochNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns {@code null} since the instants created by this class are anonymous.
+     */
+    @Override
+    public Identifier getName() {
+        return null;
+    }
+
+    /**
+     * Returns the date of this instant, truncated to milliseconds.
+     *
+     * @return the date of this instant.
+     */
+    @Override
+    public Date getDate() {
+        return new Date(Math.floorDiv(nanos, Relations.NANOS_PER_MILLI));
+    }
+
+    /**
+     * Returns {@code null} since this implementation does not support temporal reference systems
+     * other than the Gregorian calendar in UTC.
+     */
+    @Override
+    public TemporalPosition getTemporalPosition() {
+        return null;
+    }
+
+    /**
+     * Returns the position of this instant relative to the given instant or period.
+     *
+     * @param  other  the instant or period to compare with this instant.
+     * @return the position of this instant relative to the given object.
+     * @throws IllegalArgumentException if the given object is not an instant or a period with dates.
+     */
+    @Override
+    public RelativePosition relativePosition(final TemporalPrimitive other) {
+        if (other instanceof SimpleInstant) {
+            final long t = ((SimpleInstant) other).nanos;
+            return Relations.relativePosition(nanos, nanos, t, t);
+        }
+        final long[] bounds = Relations.bounds(other);
+        return Relations.relativePosition(nanos, nanos, bounds[0], bounds[1]);
+    }
+
+    /**
+     * Returns the distance between this instant and the given instant or period.
+     * The distance is zero if this instant is inside the given period.
+     *
+     * @param  other  the instant or period from which to compute the distance.
+     * @return the distance, in nanoseconds.
+     */
+    @Override
+    public Duration distance(final TemporalGeometricPrimitive other) {
+        final long[] bounds = Relations.bounds(other);
+        return new SimpleDuration(Math.max(0, Math.max(bounds[0] - nanos, nanos - bounds[1])));
+    }
+
+    /**
+     * Returns a duration of zero since an instant has no length.
+     *
+     * @return a zero duration.
+     */
+    @Override
+    public Duration length() {
+        return new SimpleDuration(0);
+    }
+
+    /**
+     * Returns a hash code value for this instant.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(nanos) ^ (int) serialVersionUID;
+    }
+
+    /**
+     * Compares this instant with the given object for equality.
+     *
+     * @param  obj  the object to compare with this instant.
+     * @return {@code true} if the given object is an instant at the same time.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        return (obj instanceof SimpleInstant) && ((SimpleInstant) obj).nanos == nanos;
+    }
+
+    /**
+     * Returns a string representation of this instant in ISO 8601 format.
+     */
+    @Override
+    public String toString() {
+        return java.time.Instant.ofEpochSecond(Math.floorDiv(nanos, 1000000000L), Math.floorMod(nanos, 1000000000L)).toString();
+    }
+}
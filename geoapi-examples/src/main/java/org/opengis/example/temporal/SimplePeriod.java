@@ -0,0 +1,186 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.temporal;
+
+import java.io.Serializable;
+
+import org.opengis.metadata.Identifier;
+import org.opengis.temporal.Instant;
+import org.opengis.temporal.Period;
+import org.opengis.temporal.Duration;
+import org.opengis.temporal.RelativePosition;
+import org.opengis.temporal.TemporalPrimitive;
+import org.opengis.temporal.TemporalGeometricPrimitive;
+
+
+/**
+ * A {@link Period} stored as beginning and ending times in nanoseconds since January 1st, 1970 UTC.
+ * The {@link Instant} objects are created only when {@link #getBeginning()} or {@link #getEnding()}
+ * is invoked. The {@link #relativePosition(TemporalPrimitive) relativePosition(…)} method works
+ * directly on the {@code long} values when the other object is also an instance of this package.
+ *
+ * <p>Instances of this class are anonymous: {@link #getName()} returns {@code null}.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SimplePeriod implements Period, Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 8395273718211489560L;
+
+    /**
+     * Beginning and ending times, in nanoseconds since January 1st, 1970 UTC.
+     */
+    final long begin, end;
+
+    /**
+     * Creates a new period between the given times.
+     *
+     * @param begin  beginning time, in nanoseconds since January 1st, 1970 UTC.
+     * @param end    ending time, in nanoseconds since January 1st, 1970 UTC.
+     * @throws IllegalArgumentException if the beginning time is after the ending time.
+     */
+    public SimplePeriod(final long begin, final long end) {
+        if (begin > end) {
+            throw new IllegalArgumentException("Beginning time is after ending time.");
+        }
+        this.begin = begin;
+        this.end   = end;
+    }
+
+    /**
+     * Creates a new period between the given instants.
+     *
+     * @param begin  the beginning instant.
+     * @param end    the ending instant.
+     * @throws IllegalArgumentException if an instant has no date or if the beginning is after the end.
+     */
+    public SimplePeriod(final Instant begin, final Instant end) {
+        this(Relations.nanos(begin), Relations.nanos(end));
+    }
+
+    /**
+     * Returns the beginning time in nanoseconds since January 1st, 1970 UTC.
+     *
+     * @return beginning time in nanoseconds since epoch.
+     */
+    public long getBeginNanos() {
+        return begin;
+    }
+
+    /**
+     * Returns the ending time in nanoseconds since January 1st, 1970 UTC.
+     *
+     * @return ending time in nanoseconds since epoch.
+     */
+    public long getEndNanos() {
+        return end;
+    }
+
+    /**
+     * Returns {@code null} since the periods created by this class are anonymous.
+     */
+    @Override
+    public Identifier getName() {
+        return null;
+    }
+
+    /**
+     * Returns the beginning of this period.
+     *
+     * @return the beginning instant.
+     */
+    @Override
+    public Instant getBeginning() {
+        return new SimpleInstant(begin);
+    }
+
+    /**
+     * Returns the end of this period.
+     *
+     * @return the ending instant.
+     */
+    @Override
+    public Instant getEnding() {
+        return new SimpleInstant(end);
+    }
+
+    /**
+     * Returns the position of this period relative to the given instant or period.
+     *
+     * @param  other  the instant or period to compare with this period.
+     * @return the position of this period relative to the given object.
+     * @throws IllegalArgumentException if the given object is not an instant or a period with dates.
+     */
+    @Override
+    public RelativePosition relativePosition(final TemporalPrimitive other) {
+        if (other instanceof SimplePeriod) {
+            final SimplePeriod p = (SimplePeriod) other;
+            return Relations.relativePosition(begin, end, p.begin, p.end);
+        }
+        final long[] bounds = Relations.bounds(other);
+        return Relations.relativePosition(begin, end, bounds[0], bounds[1]);
+    }
+
+    /**
+     * Returns the distance between this period and the given instant or period.
+     * The distance is zero if the two objects intersect.
+     *
+     * @param  other  the instant or period from which to compute the distance.
+     * @return the distance, in nanoseconds.
+     */
+    @Override
+    public Duration distance(final TemporalGeometricPrimitive other) {
+        final long[] bounds = Relations.bounds(other);
+        return new SimpleDuration(Math.max(0, Math.max(bounds[0] - end, begin - bounds[1])));
+    }
+
+    /**
+     * Returns the length of this period.
+     *
+     * @return the length, in nanoseconds.
+     */
+    @Override
+    public Duration length() {
+        return new SimpleDuration(end - begin);
+    }
+
+    /**
+     * Returns a hash code value for this period.
+     */
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(begin) + 31 * Long.hashCode(end)) ^ (int) serialVersionUID;
+    }
+
+    /**
+     * Compares this period with the given object for equality.
+     *
+     * @param  obj  the object to compare with this period.
+     * @return {@code true} if the given object is a period with the same bounds.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof SimplePeriod) {
+            final SimplePeriod other = (SimplePeriod) obj;
+            return other.begin == begin && other.end == end;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a string representation of this period in ISO 8601 format.
+     */
+    @Override
+    public String toString() {
+        return getBeginning() + "/" + getEnding();
+    }
+}
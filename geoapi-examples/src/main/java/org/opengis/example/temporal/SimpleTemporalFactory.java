@@ -0,0 +1,56 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.temporal;
+
+import java.util.Date;
+
+import org.opengis.temporal.Instant;
+
+
+/**
+ * A factory creating {@link SimpleInstant} and {@link SimplePeriod} objects,
+ * which store their times as nanoseconds since January 1st, 1970 UTC.
+ * The method signatures are the same than the corresponding methods of
+ * {@link org.opengis.temporal.TemporalFactory}, but this class does not implement that interface
+ * since calendars, clocks and ordinal reference systems are not supported by this simple implementation.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class SimpleTemporalFactory {
+    /**
+     * Creates a new factory.
+     */
+    public SimpleTemporalFactory() {
+    }
+
+    /**
+     * Creates an instant at the given date.
+     *
+     * @param  date  the date of the instant.
+     * @return the instant at the given date.
+     * @throws ArithmeticException if the date is too far from 1970 for a {@code long} number of nanoseconds.
+     */
+    public SimpleInstant createInstant(final Date date) {
+        return SimpleInstant.of(date);
+    }
+
+    /**
+     * Creates a period between the given instants. If the given instants are {@link SimpleInstant}s,
+     * their nanosecond times are used directly. Otherwise the times are computed from the instant dates.
+     *
+     * @param  begin  the beginning instant.
+     * @param  end    the ending instant.
+     * @return the period between the given instants.
+     * @throws IllegalArgumentException if an instant has no date or if the beginning is after the end.
+     */
+    public SimplePeriod createPeriod(final Instant begin, final Instant end) {
+        return new SimplePeriod(begin, end);
+    }
+}
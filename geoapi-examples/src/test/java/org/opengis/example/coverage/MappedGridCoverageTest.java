@@ -0,0 +1,350 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.coverage;
+
+import java.util.Set;
+import java.util.List;
+import java.util.Random;
+import java.util.Arrays;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.awt.geom.AffineTransform;
+import java.awt.image.DataBuffer;
+
+import org.opengis.coverage.CommonPointRule;
+import org.opengis.coverage.GeometryValuePair;
+import org.opengis.coverage.InterpolationMethod;
+import org.opengis.coverage.PointOutsideCoverageException;
+import org.opengis.coverage.grid.GridPoint;
+import org.opengis.coverage.grid.SequenceType;
+import org.opengis.geometry.Envelope;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.metadata.extent.GeographicBoundingBox;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.opengis.util.MemberName;
+import org.opengis.util.Record;
+import org.opengis.example.geometry.SimpleDirectPosition;
+import org.opengis.example.referencing.SimpleCRS;
+import org.opengis.example.referencing.AffineTransform2D;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link MappedGridCoverage}. The test files contain a grid of 10×7 pixels with 2 bands,
+ * where the sample value at pixel (<var>x</var>,<var>y</var>) in band <var>b</var> is
+ * <var>x</var> + 100<var>y</var> + 1000<var>b</var>. Pixel (0,0) is centered on (100, 50)
+ * and pixels are 2 units wide with the <var>y</var> axis flipped.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class MappedGridCoverageTest {
+    /**
+     * Grid size and number of bands.
+     */
+    private static final int WIDTH = 10, HEIGHT = 7, BANDS = 2;
+
+    /**
+     * Number of bytes before the sample values in test files.
+     */
+    private static final int HEADER = 13;
+
+    /**
+     * Returns the expected sample value.
+     */
+    private static double expected(final double x, final double y, final int band) {
+        return x + 100*y + 1000*band;
+    }
+
+    /**
+     * Writes a test file with the given layout and opens it as a coverage without CRS.
+     */
+    private static MappedGridCoverage create(final Path file, final MappedGridCoverage.Layout layout,
+            final ByteOrder order, final InterpolationMethod interpolation) throws IOException, NoninvertibleTransformException
+    {
+        return create(file, layout, order, interpolation, null, new AffineTransform(2, 0, 0, -2, 100, 50));
+    }
+
+    /**
+     * Writes a test file with the given layout and opens it as a coverage with the given CRS and grid geometry.
+     */
+    private static MappedGridCoverage create(final Path file, final MappedGridCoverage.Layout layout,
+            final ByteOrder order, final InterpolationMethod interpolation, final CoordinateReferenceSystem crs,
+            final AffineTransform gridToCRS) throws IOException, NoninvertibleTransformException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER + (int) layout.getDataLength()).order(order);
+        for (int y=0; y<HEIGHT; y++) {
+            for (int x=0; x<WIDTH; x++) {
+                final int tile = (y / layout.tileHeight) * layout.numXTiles() + (x / layout.tileWidth);
+                final int index = ((y % layout.tileHeight) * layout.tileWidth + (x % layout.tileWidth)) * BANDS;
+                for (int b=0; b<BANDS; b++) {
+                    final int position = HEADER + (int) (tile * layout.tileBytes()) + (index + b) * layout.sampleSize;
+                    final double value = expected(x, y, b);
+                    if (layout.dataType == DataBuffer.TYPE_FLOAT) {
+                        buffer.putFloat(position, (float) value);
+                    } else {
+                        buffer.putShort(position, (short) value);
+                    }
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(buffer);
+        }
+        return new MappedGridCoverage(file, HEADER, order, layout, crs, new AffineTransform2D(gridToCRS), interpolation);
+    }
+
+    /**
+     * Tests nearest neighbour interpolation on a tiled layout of {@code float} values.
+     *
+     * @throws Exception if an I/O or transform error occurred.
+     */
+    @Test
+    public void testNearestNeighbour() throws Exception {
+        final Path file = Files.createTempFile("coverage", ".raw");
+        try (MappedGridCoverage coverage = create(file,
+                new MappedGridCoverage.Layout(WIDTH, HEIGHT, BANDS, DataBuffer.TYPE_FLOAT, 4, 3),
+                ByteOrder.BIG_ENDIAN, InterpolationMethod.NEAREST_NEIGHBOUR))
+        {
+            assertArrayEquals(new double[] {0, 1000}, coverage.evaluate(new SimpleDirectPosition(null, 100, 50), (double[]) null), 0);
+            assertArrayEquals(new double[] {605, 1605}, coverage.evaluate(new SimpleDirectPosition(null, 110.9, 38.6), (double[]) null), 0);
+            assertArrayEquals(new int[] {9, 1009}, coverage.evaluate(new SimpleDirectPosition(null, 118, 50), (int[]) null));
+            try {
+                coverage.evaluate(new SimpleDirectPosition(null, 98.9, 50), (double[]) null);
+                fail("Expected PointOutsideCoverageException.");
+            } catch (PointOutsideCoverageException e) {
+                assertNotNull(e.getMessage());
+            }
+            final Envelope envelope = coverage.getEnvelope();
+            assertEquals( 99, envelope.getMinimum(0), 1E-12);
+            assertEquals(119, envelope.getMaximum(0), 1E-12);
+            assertEquals( 37, envelope.getMinimum(1), 1E-12);
+            assertEquals( 51, envelope.getMaximum(1), 1E-12);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests bilinear interpolation with bulk evaluation on a row-major layout of little-endian {@code short} values,
+     * and compares with a tiled layout of the same data.
+     *
+     * @throws Exception if an I/O or transform error occurred.
+     */
+    @Test
+    public void testBilinear() throws Exception {
+        final Path rowMajor = Files.createTempFile("coverage", ".raw");
+        final Path tiled    = Files.createTempFile("coverage", ".raw");
+        try (MappedGridCoverage c1 = create(rowMajor, new MappedGridCoverage.Layout(WIDTH, HEIGHT, BANDS, DataBuffer.TYPE_SHORT),
+                    ByteOrder.LITTLE_ENDIAN, InterpolationMethod.BILINEAR);
+             MappedGridCoverage c2 = create(tiled, new MappedGridCoverage.Layout(WIDTH, HEIGHT, BANDS, DataBuffer.TYPE_SHORT, 3, 2),
+                    ByteOrder.LITTLE_ENDIAN, InterpolationMethod.BILINEAR))
+        {
+            final int numPts = 500;
+            final double[] coordinates = new double[numPts * 2];
+            final Random random = new Random(7321);
+            for (int i=0; i<coordinates.length; i += 2) {
+                coordinates[i  ] = 99  + random.nextDouble() * 20;
+                coordinates[i+1] = 37  + random.nextDouble() * 14;
+            }
+            coordinates[0] = 130;                           // Outside the coverage.
+            final double[] v1 = new double[numPts * BANDS];
+            final double[] v2 = new double[numPts * BANDS];
+            c1.evaluate(coordinates, 0, numPts, v1);
+            c2.evaluate(coordinates, 0, numPts, v2);
+            assertArrayEquals(v1, v2, 0);
+            assertTrue(Double.isNaN(v1[0]));
+            for (int i=1; i<numPts; i++) {
+                final double gx = Math.max(0, Math.min(WIDTH  - 1, (coordinates[2*i] - 100) / 2));
+                final double gy = Math.max(0, Math.min(HEIGHT - 1, (50 - coordinates[2*i+1]) / 2));
+                for (int b=0; b<BANDS; b++) {
+                    assertEquals(expected(gx, gy, b), v1[i*BANDS + b], 1E-9);
+                }
+            }
+        } finally {
+            Files.delete(rowMajor);
+            Files.delete(tiled);
+        }
+    }
+
+    /**
+     * Tests the position arithmetic on layouts having more than 2<sup>31</sup> pixels in the grid
+     * (row-major layout) or in a tile. This test does not create any file.
+     */
+    @Test
+    public void testLargeLayout() {
+        MappedGridCoverage.Layout layout = new MappedGridCoverage.Layout(100000, 50000, 1, DataBuffer.TYPE_BYTE);
+        assertEquals(5000000000L, layout.getDataLength());
+        assertEquals(2147500000L, layout.position(0, 21475, 0));
+        assertEquals(layout.getDataLength() - 1, layout.position(99999, 49999, 0));
+
+        layout = new MappedGridCoverage.Layout(200000, 100000, 3, DataBuffer.TYPE_DOUBLE, 70000, 40000);
+        final long tileBytes = 70000L * 40000 * 3 * Double.BYTES;
+        assertEquals(9 * tileBytes, layout.getDataLength());
+        final long pixel = 19999L * 70000 + 59999;                  // Pixel index inside the last tile.
+        assertEquals(8 * tileBytes + (pixel * 3 + 2) * Double.BYTES, layout.position(199999, 99999, 2));
+    }
+
+    /**
+     * Tests the {@link org.opengis.coverage.grid.GridValuesMatrix} and
+     * {@link org.opengis.coverage.grid.RectifiedGrid} methods.
+     *
+     * @throws Exception if an I/O or transform error occurred.
+     */
+    @Test
+    public void testGrid() throws Exception {
+        final Path file = Files.createTempFile("coverage", ".raw");
+        try (MappedGridCoverage coverage = create(file,
+                new MappedGridCoverage.Layout(WIDTH, HEIGHT, BANDS, DataBuffer.TYPE_SHORT, 3, 2),
+                ByteOrder.BIG_ENDIAN, InterpolationMethod.NEAREST_NEIGHBOUR))
+        {
+            assertEquals(2, coverage.getDimension());
+            assertEquals(WIDTH  - 1, coverage.getExtent().getHigh(0));
+            assertEquals(HEIGHT - 1, coverage.getExtent().getHigh(1));
+            assertArrayEquals(new long[] {0, 0}, coverage.getStartSequence().getCoordinateValues());
+            assertEquals(SequenceType.LINEAR, coverage.getSequencingRule().getType());
+
+            final List<Record> values = coverage.getValues();
+            assertEquals(WIDTH * HEIGHT, values.size());
+            final SampleRecord record = (SampleRecord) values.get(6 * WIDTH + 4);
+            assertArrayEquals(new double[] {expected(4, 6, 0), expected(4, 6, 1)}, record.getValues(), 0);
+            assertTrue(coverage.getRangeType().isInstance(record));
+            final MemberName band2 = coverage.getRangeType().getMembers().stream().skip(1).findFirst().get();
+            assertEquals("band2", band2.toString());
+            assertEquals(expected(4, 6, 1), record.locate(band2));
+
+            assertArrayEquals(new double[] {100, 50}, coverage.getOrigin().getCoordinate(), 0);
+            assertArrayEquals(new double[] {2,  0}, coverage.getOffsetVectors().get(0), 0);
+            assertArrayEquals(new double[] {0, -2}, coverage.getOffsetVectors().get(1), 0);
+            assertArrayEquals(new double[] {108, 38}, coverage.transformCoordinates(
+                    new SimpleGridCoordinates(new long[] {4, 6})).getCoordinate(), 0);
+            assertArrayEquals(new long[] {4, 6}, coverage.inverseTransformCoordinates(
+                    new SimpleDirectPosition(null, 108.9, 37.2)).getCoordinateValues());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Returns the grid coordinates of the given grid points.
+     */
+    private static long[] gridCoordinates(final GeometryValuePair pair) {
+        return ((GridPoint) pair.getGeometry()).getGridCoordinates().getCoordinateValues();
+    }
+
+    /**
+     * Tests {@link MappedGridCoverage#find(org.opengis.geometry.DirectPosition)} and
+     * {@link MappedGridCoverage#find(org.opengis.geometry.DirectPosition, int)}.
+     *
+     * @throws Exception if an I/O or transform error occurred.
+     */
+    @Test
+    public void testFind() throws Exception {
+        final Path file = Files.createTempFile("coverage", ".raw");
+        try (MappedGridCoverage coverage = create(file,
+                new MappedGridCoverage.Layout(WIDTH, HEIGHT, BANDS, DataBuffer.TYPE_SHORT, 3, 2),
+                ByteOrder.BIG_ENDIAN, InterpolationMethod.BILINEAR))
+        {
+            GeometryValuePair pair = coverage.find(new SimpleDirectPosition(null, 108.9, 37.2));
+            assertArrayEquals(new long[] {4, 6}, gridCoordinates(pair));
+            assertArrayEquals(new double[] {expected(4, 6, 0), expected(4, 6, 1)}, ((SampleRecord) pair.getValue()).getValues(), 0);
+            pair = coverage.find(new SimpleDirectPosition(null, 200, 0));                   // Outside the coverage.
+            assertArrayEquals(new long[] {WIDTH - 1, HEIGHT - 1}, gridCoordinates(pair));
+
+            List<GeometryValuePair> pairs = coverage.find(new SimpleDirectPosition(null, 108.6, 38.2), 3);
+            assertEquals(3, pairs.size());
+            assertArrayEquals(new long[] {4, 6}, gridCoordinates(pairs.get(0)));
+            assertArrayEquals(new long[] {5, 6}, gridCoordinates(pairs.get(1)));
+            assertArrayEquals(new long[] {4, 5}, gridCoordinates(pairs.get(2)));
+
+            pairs = coverage.find(new SimpleDirectPosition(null, 99, 51), 1000);
+            assertEquals(WIDTH * HEIGHT, pairs.size());
+            assertArrayEquals(new long[] {0, 0}, gridCoordinates(pairs.get(0)));
+            assertArrayEquals(new long[] {WIDTH - 1, HEIGHT - 1}, gridCoordinates(pairs.get(pairs.size() - 1)));
+            assertTrue(coverage.find(new SimpleDirectPosition(null, 99, 51), 0).isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests {@link MappedGridCoverage#evaluate(org.opengis.geometry.DirectPosition, java.util.Collection)}
+     * and the common point rule.
+     *
+     * @throws Exception if an I/O or transform error occurred.
+     */
+    @Test
+    public void testEvaluateRecord() throws Exception {
+        final Path file = Files.createTempFile("coverage", ".raw");
+        try (MappedGridCoverage coverage = create(file,
+                new MappedGridCoverage.Layout(WIDTH, HEIGHT, BANDS, DataBuffer.TYPE_FLOAT),
+                ByteOrder.BIG_ENDIAN, InterpolationMethod.NEAREST_NEIGHBOUR))
+        {
+            assertEquals(CommonPointRule.HIGH, coverage.getCommonPointRule());
+            final SimpleDirectPosition p = new SimpleDirectPosition(null, 108.2, 38.4);
+            Set<Record> records = coverage.evaluate(p, (List<String>) null);
+            assertEquals(1, records.size());
+            SampleRecord record = (SampleRecord) records.iterator().next();
+            assertArrayEquals(new double[] {expected(4, 6, 0), expected(4, 6, 1)}, record.getValues(), 0);
+
+            records = coverage.evaluate(p, Arrays.asList("band2"));
+            record = (SampleRecord) records.iterator().next();
+            assertArrayEquals(new double[] {expected(4, 6, 1)}, record.getValues(), 0);
+            assertEquals("band2", record.getRecordType().getMembers().iterator().next().toString());
+            try {
+                coverage.evaluate(p, Arrays.asList("band3"));
+                fail("Expected IllegalArgumentException.");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("band3"));
+            }
+            /*
+             * Position on the corner shared by pixels (3,5), (4,5), (3,6) and (4,6):
+             * the greatest value is retained.
+             */
+            assertArrayEquals(new double[] {expected(4, 6, 0), expected(4, 6, 1)},
+                    coverage.evaluate(new SimpleDirectPosition(null, 107, 39), (double[]) null), 0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests {@link MappedGridCoverage#getDomainExtents()} with a geographic CRS in (latitude, longitude) order.
+     *
+     * @throws Exception if an I/O or transform error occurred.
+     */
+    @Test
+    public void testDomainExtents() throws Exception {
+        final Path file = Files.createTempFile("coverage", ".raw");
+        try (MappedGridCoverage coverage = create(file,
+                new MappedGridCoverage.Layout(WIDTH, HEIGHT, BANDS, DataBuffer.TYPE_SHORT),
+                ByteOrder.BIG_ENDIAN, InterpolationMethod.BILINEAR,
+                SimpleCRS.Geographic.WGS84, new AffineTransform(0, 2, -2, 0, 50, 100)))
+        {
+            assertEquals(CommonPointRule.AVERAGE, coverage.getCommonPointRule());
+            final Set<Extent> extents = coverage.getDomainExtents();
+            assertEquals(1, extents.size());
+            final GeographicBoundingBox bbox = (GeographicBoundingBox) extents.iterator().next();
+            assertEquals( 99, bbox.getWestBoundLongitude(), 1E-12);
+            assertEquals(119, bbox.getEastBoundLongitude(), 1E-12);
+            assertEquals( 37, bbox.getSouthBoundLatitude(), 1E-12);
+            assertEquals( 51, bbox.getNorthBoundLatitude(), 1E-12);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.display;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+
+import org.opengis.display.canvas.CanvasEvent;
+import org.opengis.display.canvas.RenderingState;
+import org.opengis.example.geometry.SimpleDirectPosition;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link TiledCanvas}. The canvas is 100×100 pixels with tiles of 50×50 pixels,
+ * and the objective origin is in the canvas center.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class TiledCanvasTest {
+    /**
+     * Creates the canvas to test with a horizontal red line in the upper half.
+     */
+    private static TiledCanvas createCanvas(final ForkJoinPool pool) {
+        final TiledCanvas canvas = new TiledCanvas(100, 100, 50, null, pool);
+        canvas.getContainer().add(new PolylineGraphic(new double[] {-40, 20, 40, 20}, Color.RED, 3));
+        return canvas;
+    }
+
+    /**
+     * Tests the colors of a few pixels after rendering.
+     */
+    @Test
+    public void testRender() {
+        final TiledCanvas canvas = createCanvas(null);
+        final BufferedImage image = canvas.render();
+        assertEquals(Color.RED.getRGB(), image.getRGB(20, 30));         // Display y = 50 - 20.
+        assertEquals(Color.RED.getRGB(), image.getRGB(70, 30));
+        assertEquals(0, image.getRGB(50, 70));
+        assertEquals(0, image.getRGB(95, 30));
+    }
+
+    /**
+     * Tests that tiles are cached per state, and that adding a graphic invalidates only the tiles that it intersects.
+     */
+    @Test
+    public void testCache() {
+        final TiledCanvas canvas = createCanvas(null);
+        final BufferedImage upperLeft  = canvas.getTile(0, 0);
+        final BufferedImage lowerLeft  = canvas.getTile(0, 1);
+        final BufferedImage lowerRight = canvas.getTile(1, 1);
+        assertSame(upperLeft, canvas.getTile(0, 0));
+
+        canvas.getContainer().add(new PolylineGraphic(new double[] {10, -30, 40, -30}, Color.BLUE, 1));
+        assertSame   (upperLeft,  canvas.getTile(0, 0));
+        assertSame   (lowerLeft,  canvas.getTile(0, 1));
+        assertNotSame(lowerRight, canvas.getTile(1, 1));
+        assertEquals(Color.BLUE.getRGB(), canvas.getTile(1, 1).getRGB(20, 30));
+
+        canvas.zoom(2);
+        final BufferedImage zoomed = canvas.getTile(0, 0);
+        assertNotSame(upperLeft, zoomed);
+        canvas.zoom(0.5);
+        assertSame("Tiles of the previous state shall still be cached.", upperLeft, canvas.getTile(0, 0));
+    }
+
+    /**
+     * Tests that the cache does not grow without limit when the canvas is panned many times.
+     */
+    @Test
+    public void testCacheCapacity() {
+        final TiledCanvas canvas = createCanvas(null);
+        for (int i=0; i<20; i++) {
+            canvas.setCenter(new SimpleDirectPosition(null, i, 0));
+            canvas.render();
+            assertTrue(canvas.getCachedTileCount() <= TiledCanvas.CACHED_STATES * 4);
+        }
+        assertEquals(TiledCanvas.CACHED_STATES * 4, canvas.getCachedTileCount());
+    }
+
+    /**
+     * Tests that tiles rendered from graphics which have been modified during the rendering are not cached.
+     * The container is modified by a listener after {@link TiledCanvas#render()} prepared the graphics.
+     */
+    @Test
+    public void testStaleTiles() {
+        final TiledCanvas canvas = createCanvas(null);
+        final PolylineGraphic line = new PolylineGraphic(new double[] {10, -30, 40, -30}, Color.BLUE, 1);
+        canvas.addCanvasListener((CanvasEvent event) -> {
+            if (event.getNewRenderingstate() == RenderingState.RENDERING && canvas.getContainer().graphics().size() == 1) {
+                canvas.getContainer().add(line);
+            }
+        });
+        assertEquals("Rendering shall use the graphics prepared before the change.", 0, canvas.render().getRGB(80, 80));
+        assertEquals(0, canvas.getCachedTileCount());
+        assertEquals(Color.BLUE.getRGB(), canvas.getTile(1, 1).getRGB(20, 30));
+    }
+
+    /**
+     * Tests a style change and a visibility change.
+     */
+    @Test
+    public void testGraphicChanges() {
+        final TiledCanvas canvas = createCanvas(null);
+        final PolylineGraphic line = canvas.getContainer().graphics().iterator().next();
+        assertEquals(Color.RED.getRGB(), canvas.render().getRGB(20, 30));
+        line.setColor(Color.GREEN);
+        assertEquals(Color.GREEN.getRGB(), canvas.render().getRGB(20, 30));
+        line.setVisible(false);
+        assertEquals(0, canvas.render().getRGB(20, 30));
+    }
+
+    /**
+     * Verifies that rendering in a pool of many threads gives the same result than rendering in a single thread,
+     * and that listeners are notified of rendering state changes.
+     */
+    @Test
+    public void testParallel() {
+        final ForkJoinPool single = new ForkJoinPool(1);
+        final ForkJoinPool many   = new ForkJoinPool(4);
+        try {
+            final TiledCanvas expected = new TiledCanvas(300, 200, 32, null, single);
+            final TiledCanvas actual   = new TiledCanvas(300, 200, 32, null, many);
+            final java.util.Random random = new java.util.Random(6201);
+            for (int i=0; i<200; i++) {
+                final double[] coordinates = new double[8];
+                for (int j=0; j<coordinates.length; j++) {
+                    coordinates[j] = random.nextDouble() * 300 - 150;
+                }
+                final Color color = new Color(random.nextInt());
+                expected.getContainer().add(new PolylineGraphic(coordinates, color, 2));
+                actual  .getContainer().add(new PolylineGraphic(coordinates, color, 2));
+            }
+            final List<RenderingState> states = new ArrayList<>();
+            actual.addCanvasListener((CanvasEvent event) -> states.add(event.getNewRenderingstate()));
+            actual.setCenter(new SimpleDirectPosition(null, 10, 20));
+            expected.setCenter(new SimpleDirectPosition(null, 10, 20));
+            final BufferedImage e = expected.render();
+            final BufferedImage a = actual.render();
+            for (int y=0; y<e.getHeight(); y++) {
+                for (int x=0; x<e.getWidth(); x++) {
+                    assertEquals(e.getRGB(x, y), a.getRGB(x, y));
+                }
+            }
+            assertEquals(3, states.size());
+            assertEquals(RenderingState.RENDERING, states.get(1));
+            assertEquals(RenderingState.ON_HOLD,   states.get(2));
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.filter;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.io.IOException;
+
+import org.opengis.filter.expression.ExpressionVisitor;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link FeatureSorter}. Features are represented by {@link HashMap} instances
+ * and properties are evaluated by {@link Map#get(Object)}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class FeatureSorterTest {
+    /**
+     * A property name evaluated as a {@link Map} value.
+     */
+    private static final class Property implements PropertyName {
+        private final String name;
+        Property(final String name) {this.name = name;}
+        @Override public String getPropertyName() {return name;}
+        @Override public Object evaluate(Object object) {return ((Map<?,?>) object).get(name);}
+        @Override public <T> T evaluate(Object object, Class<T> context) {return context.cast(evaluate(object));}
+        @Override public Object accept(ExpressionVisitor visitor, Object extraData) {return visitor.visit(this, extraData);}
+    }
+
+    /**
+     * Creates a sort criterion on the given property.
+     */
+    private static SortBy sortBy(final String name, final SortOrder order) {
+        final PropertyName property = new Property(name);
+        return new SortBy() {
+            @Override public PropertyName getPropertyName() {return property;}
+            @Override public SortOrder    getSortOrder()    {return order;}
+        };
+    }
+
+    /**
+     * Creates features with random values, including some {@code null} values.
+     */
+    private static List<HashMap<String,Object>> createFeatures(final int count) {
+        final Random random = new Random(862091);
+        final List<HashMap<String,Object>> features = new ArrayList<>(count);
+        for (int i=0; i<count; i++) {
+            final HashMap<String,Object> f = new HashMap<>();
+            f.put("id", i);
+            f.put("class", (random.nextInt(10) == 0) ? null : "C" + random.nextInt(5));
+            f.put("value", (random.nextBoolean()) ? random.nextInt(100) : (Object) (random.nextInt(1000) / 10.0));
+            features.add(f);
+        }
+        return features;
+    }
+
+    /**
+     * Sorts the given features with the given sorter.
+     */
+    private static List<HashMap<String,Object>> sort(final FeatureSorter<HashMap<String,Object>> sorter,
+            final List<HashMap<String,Object>> features, final long limit) throws IOException
+    {
+        final List<HashMap<String,Object>> sorted = new ArrayList<>();
+        sorter.sort(features.iterator(), limit, sorted::add);
+        return sorted;
+    }
+
+    /**
+     * Verifies that the given features are sorted by ascending class, then descending value,
+     * then ascending identifier.
+     */
+    private static void verifyOrder(final List<HashMap<String,Object>> sorted) {
+        for (int i=1; i<sorted.size(); i++) {
+            final Map<String,Object> a = sorted.get(i-1);
+            final Map<String,Object> b = sorted.get(i);
+            int c = FeatureSorter.compareValues(a.get("class"), b.get("class"));
+            if (c == 0) {
+                c = -FeatureSorter.compareValues(a.get("value"), b.get("value"));
+                if (c == 0) {
+                    c = FeatureSorter.compareValues(a.get("id"), b.get("id"));
+                }
+            }
+            assertTrue("Wrong order at index " + i, c < 0);
+        }
+    }
+
+    /**
+     * Tests sorting in memory on two properties with {@code null} values and mixed number types.
+     *
+     * @throws IOException should never happen.
+     */
+    @Test
+    public void testInMemory() throws IOException {
+        final List<HashMap<String,Object>> features = createFeatures(1000);
+        final FeatureSorter<HashMap<String,Object>> sorter = new FeatureSorter<>(
+                sortBy("class", SortOrder.ASCENDING), sortBy("value", SortOrder.DESCENDING));
+        final List<HashMap<String,Object>> sorted = sort(sorter, features, Long.MAX_VALUE);
+        assertEquals(features.size(), sorted.size());
+        assertNull("Null values shall be first.", sorted.get(0).get("class"));
+        verifyOrder(sorted);
+    }
+
+    /**
+     * Tests sorting with a memory budget smaller than the number of features,
+     * which forces the use of temporary files.
+     *
+     * @throws IOException if an error occurred while using temporary files.
+     */
+    @Test
+    public void testExternal() throws IOException {
+        final List<HashMap<String,Object>> features = createFeatures(1000);
+        final FeatureSorter<HashMap<String,Object>> sorter = new FeatureSorter<>(
+                sortBy("class", SortOrder.ASCENDING), sortBy("value", SortOrder.DESCENDING));
+        final List<HashMap<String,Object>> expected = sort(sorter, features, Long.MAX_VALUE);
+        sorter.setMemoryBudget(70);
+        assertEquals(expected, sort(sorter, features, Long.MAX_VALUE));
+        assertEquals(expected.subList(0, 300), sort(sorter, features, 300));
+    }
+
+    /**
+     * Tests the top-K mode, which uses a bounded heap.
+     *
+     * @throws IOException should never happen.
+     */
+    @Test
+    public void testTop() throws IOException {
+        final List<HashMap<String,Object>> features = createFeatures(1000);
+        final FeatureSorter<HashMap<String,Object>> sorter = new FeatureSorter<>(
+                sortBy("class", SortOrder.ASCENDING), sortBy("value", SortOrder.DESCENDING));
+        final List<HashMap<String,Object>> expected = sort(sorter, features, Long.MAX_VALUE);
+        assertEquals(expected.subList(0, 25), sort(sorter, features, 25));
+        assertTrue(sort(sorter, features, 0).isEmpty());
+    }
+
+    /**
+     * Tests {@link SortBy#NATURAL_ORDER} and {@link SortBy#REVERSE_ORDER}.
+     *
+     * @throws IOException should never happen.
+     */
+    @Test
+    public void testNaturalOrder() throws IOException {
+        final List<HashMap<String,Object>> features = createFeatures(100);
+        FeatureSorter<HashMap<String,Object>> sorter = new FeatureSorter<>(SortBy.NATURAL_ORDER);
+        assertEquals(features, sort(sorter, features, Long.MAX_VALUE));
+
+        sorter = new FeatureSorter<>(SortBy.REVERSE_ORDER);
+        sorter.setMemoryBudget(30);
+        final List<HashMap<String,Object>> sorted = sort(sorter, features, Long.MAX_VALUE);
+        for (int i=0; i<sorted.size(); i++) {
+            assertEquals(features.get(features.size() - 1 - i), sorted.get(i));
+        }
+    }
+
+    /**
+     * Tests the order of values of different types. The sort shall be consistent
+     * regardless of the order in which the values are compared.
+     */
+    @Test
+    public void testMixedTypes() {
+        final Object[] values = {
+            null, -4, 2.5f, 3L, 7.0, "10", "9", "A", Boolean.FALSE, Boolean.TRUE, new StringBuilder("Z")
+        };
+        final Object[] expected = {
+            null, -4, 2.5f, 3L, 7.0, "10", "9", "A", new StringBuilder("Z"), Boolean.FALSE, Boolean.TRUE
+        };
+        final List<Object> list = new ArrayList<>(Arrays.asList(values));
+        Collections.reverse(list);
+        list.sort(FeatureSorter::compareValues);
+        assertEquals(expected.length, list.size());
+        for (int i=0; i<expected.length; i++) {
+            assertEquals(String.valueOf(expected[i]), String.valueOf(list.get(i)));
+        }
+        for (final Object a : values) {
+            for (final Object b : values) {
+                assertEquals(Integer.signum(FeatureSorter.compareValues(a, b)),
+                            -Integer.signum(FeatureSorter.compareValues(b, a)));
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.filter;
+
+import java.util.Set;
+import java.util.Map;
+import java.util.List;
+import java.util.Random;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.function.Function;
+
+import org.opengis.filter.Id;
+import org.opengis.filter.FilterVisitor;
+import org.opengis.filter.identity.Identifier;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link IndexedIdFilter}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class IndexedIdFilterTest {
+    /**
+     * Creates an {@link Id} filter for the given identifiers. Only {@link Id#getIDs()} is implemented.
+     */
+    private static Id filter(final Set<Object> ids) {
+        return new Id() {
+            @Override public Set<Object>     getIDs()         {return Collections.unmodifiableSet(ids);}
+            @Override public Set<Identifier> getIdentifiers() {throw new UnsupportedOperationException();}
+            @Override public boolean evaluate(Object object)  {throw new UnsupportedOperationException();}
+            @Override public Object accept(FilterVisitor visitor, Object extraData) {return visitor.visit(this, extraData);}
+        };
+    }
+
+    /**
+     * Tests a large set of integer identifiers, which are stored as primitive {@code long} values.
+     * Features are represented by their identifier.
+     */
+    @Test
+    public void testIntegerIdentifiers() {
+        final Random random = new Random(548121);
+        final Set<Object> ids = new HashSet<>();
+        ids.add(0L);
+        ids.add(-1L);
+        while (ids.size() < 100000) {
+            ids.add(random.nextLong() % 10000000);
+        }
+        final IndexedIdFilter filter = new IndexedIdFilter(filter(ids), Function.identity());
+        for (int i=0; i<200000; i++) {
+            final long id = random.nextLong() % 10000000;
+            assertEquals(ids.contains(id), filter.evaluate(id));
+        }
+        for (final Object id : ids) {
+            assertTrue(filter.evaluate(id));
+            assertTrue(filter.evaluate(id.toString()));
+        }
+        assertTrue (filter.evaluate(0));
+        assertFalse(filter.evaluate("not a number"));
+        assertFalse(filter.evaluate(null));
+    }
+
+    /**
+     * Tests string identifiers, some of them wrapped in {@link Identifier} instances.
+     * Features are represented by maps with an {@code "id"} entry.
+     */
+    @Test
+    public void testStringIdentifiers() {
+        final Set<Object> ids = new HashSet<>();
+        for (int i=0; i<1000; i += 3) {
+            ids.add("roads." + i);
+        }
+        ids.add(new Identifier() {
+            @Override public Object  getID()               {return "rivers.7";}
+            @Override public boolean matches(Object other) {return false;}
+        });
+        final IndexedIdFilter filter = new IndexedIdFilter(filter(ids), (f) -> ((Map<?,?>) f).get("id"));
+        for (int i=0; i<1000; i++) {
+            assertEquals(i % 3 == 0, filter.evaluate(Collections.singletonMap("id", "roads." + i)));
+        }
+        assertTrue (filter.evaluate(Collections.singletonMap("id", "rivers.7")));
+        assertFalse(filter.evaluate(Collections.singletonMap("id", "rivers.8")));
+        assertFalse(filter.evaluate(Collections.emptyMap()));
+    }
+
+    /**
+     * Creates an identifier wrapping the given value.
+     */
+    private static Identifier identifier(final Object value) {
+        return new Identifier() {
+            @Override public Object  getID()               {return value;}
+            @Override public boolean matches(Object other) {return false;}
+        };
+    }
+
+    /**
+     * Tests identifiers given as the decimal representation of integers, some of them wrapped
+     * in {@link Identifier} instances. Those identifiers are stored as primitive {@code long} values
+     * and compared by their decimal representation.
+     */
+    @Test
+    public void testNumericStringIdentifiers() {
+        final Set<Object> ids = new HashSet<>();
+        for (int i=-500; i<500; i += 7) {
+            ids.add(Integer.toString(i));
+        }
+        ids.add(identifier("123456789012"));
+        final IndexedIdFilter filter = new IndexedIdFilter(filter(ids), Function.identity());
+        for (int i=-500; i<500; i++) {
+            final boolean expected = (i + 500) % 7 == 0;
+            assertEquals(expected, filter.evaluate(i));
+            assertEquals(expected, filter.evaluate(Integer.toString(i)));
+        }
+        assertTrue (filter.evaluate(123456789012L));
+        assertTrue (filter.contains(identifier(123456789012L)));
+        assertFalse(filter.evaluate("0123456789012"));
+        assertFalse(filter.evaluate("+123456789012"));
+        assertFalse(filter.evaluate("not a number"));
+    }
+
+    /**
+     * Tests the use of the filter as an access path.
+     */
+    @Test
+    public void testLookup() {
+        final Map<Object,String> store = new HashMap<>();
+        for (long i=0; i<100; i++) {
+            store.put(i, "Feature " + i);
+        }
+        final Set<Object> ids = new HashSet<>();
+        ids.add(4L);
+        ids.add(8L);
+        ids.add(200L);
+        ids.add(identifier(15L));
+        final IndexedIdFilter filter = new IndexedIdFilter(filter(ids), Function.identity());
+        final List<String> found = new ArrayList<>();
+        filter.lookup(store::get, found::add);
+        Collections.sort(found);
+        assertEquals(3, found.size());
+        assertEquals("Feature 15", found.get(0));
+        assertEquals("Feature 4",  found.get(1));
+        assertEquals("Feature 8",  found.get(2));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.filter;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link LikeMatcher}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class LikeMatcherTest {
+    /**
+     * Compiles the given pattern with {@code *} and {@code ?} wildcards and {@code \} escape.
+     */
+    private static LikeMatcher compile(final String pattern, final boolean matchCase) {
+        return LikeMatcher.compile(pattern, "*", "?", "\\", matchCase);
+    }
+
+    /**
+     * Tests the patterns handled by the fast paths.
+     */
+    @Test
+    public void testSimplePatterns() {
+        LikeMatcher m = compile("Rhône", true);
+        assertTrue (m.matches("Rhône"));
+        assertFalse(m.matches("rhône"));
+        assertFalse(m.matches("Rhône river"));
+
+        m = compile("rhô*", false);
+        assertTrue (m.matches("RHÔNE"));
+        assertFalse(m.matches("Le Rhône"));
+
+        m = compile("*river", true);
+        assertTrue (m.matches("Rhône river"));
+        assertFalse(m.matches("Rhône River"));
+        assertFalse(m.matches("ver"));
+
+        m = compile("*RIVER*", false);
+        assertTrue (m.matches("the river Rhône"));
+        assertFalse(m.matches("the rive"));
+
+        m = compile("*", true);
+        assertTrue(m.matches(""));
+        assertTrue(m.matches("anything"));
+
+        m = compile("", true);
+        assertTrue (m.matches(""));
+        assertFalse(m.matches("a"));
+    }
+
+    /**
+     * Tests patterns with single character wildcards, many parts and escaped characters.
+     */
+    @Test
+    public void testGeneralPatterns() {
+        LikeMatcher m = compile("a?c*d*e", true);
+        assertTrue (m.matches("abcde"));
+        assertTrue (m.matches("axcxxdxxdxe"));
+        assertFalse(m.matches("acde"));
+        assertFalse(m.matches("abcdex"));
+
+        m = compile("*ab*ab", true);
+        assertTrue (m.matches("abab"));
+        assertFalse(m.matches("aba"));
+
+        m = compile("100\\*", true);
+        assertTrue (m.matches("100*"));
+        assertFalse(m.matches("1000"));
+
+        m = compile("??", false);
+        assertTrue (m.matches("ab"));
+        assertFalse(m.matches("abc"));
+    }
+
+    /**
+     * Compares the results with a regular expression for random patterns and texts.
+     */
+    @Test
+    public void compareWithRegex() {
+        final Random random = new Random(90251);
+        final String alphabet = "aAbB*?";
+        for (int n=0; n<2000; n++) {
+            final StringBuilder pattern = new StringBuilder();
+            final StringBuilder regex = new StringBuilder();
+            for (int i=random.nextInt(6); --i >= 0;) {
+                final char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                pattern.append(c);
+                switch (c) {
+                    case '*': regex.append(".*"); break;
+                    case '?': regex.append('.'); break;
+                    default:  regex.append(c); break;
+                }
+            }
+            final boolean matchCase = random.nextBoolean();
+            final LikeMatcher m = compile(pattern.toString(), matchCase);
+            final Pattern p = Pattern.compile(regex.toString(), matchCase ? 0 : Pattern.CASE_INSENSITIVE);
+            for (int k=0; k<20; k++) {
+                final StringBuilder text = new StringBuilder();
+                for (int i=random.nextInt(8); --i >= 0;) {
+                    text.append(alphabet.charAt(random.nextInt(4)));
+                }
+                final String t = text.toString();
+                assertEquals(pattern + " with " + t, p.matcher(t).matches(), m.matches(t));
+            }
+        }
+    }
+
+    /**
+     * Tests that compiled matchers are cached.
+     */
+    @Test
+    public void testCache() {
+        assertSame(compile("ab*c?", false), compile("ab*c?", false));
+        assertNotSame(compile("ab*c?", false), compile("ab*c?", true));
+        /*
+         * A matcher used frequently shall stay in the cache
+         * while many other patterns are compiled.
+         */
+        final LikeMatcher frequent = compile("frequent*", true);
+        for (int i=0; i<5000; i++) {
+            compile("pattern" + i + '*', true);
+            assertSame(frequent, compile("frequent*", true));
+        }
+    }
+}
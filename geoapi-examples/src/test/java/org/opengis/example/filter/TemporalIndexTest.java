@@ -0,0 +1,210 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.filter;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Date;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.lang.reflect.Proxy;
+
+import org.opengis.filter.And;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterVisitor;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.filter.temporal.During;
+import org.opengis.temporal.Instant;
+import org.opengis.temporal.Period;
+import org.opengis.example.temporal.SimplePeriod;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link TemporalIndex}. Features are represented by {@link Map} instances with a {@code "time"}
+ * entry and a {@code "value"} entry. Temporal objects and most filters are created by {@link Proxy}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class TemporalIndexTest {
+    /**
+     * Creates a proxy implementing the given interface, where each method returns the value
+     * associated to the method name in the given map.
+     */
+    private static <T> T proxy(final Class<T> type, final Map<String,Object> values) {
+        return type.cast(Proxy.newProxyInstance(TemporalIndexTest.class.getClassLoader(), new Class<?>[] {type},
+                (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode": return System.identityHashCode(p);
+                        case "equals":   return p == args[0];
+                        case "evaluate": return ((Map<?,?>) args[0]).get(values.get("getPropertyName"));
+                        default:         return values.get(method.getName());
+                    }
+                }));
+    }
+
+    /**
+     * Number of nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    /**
+     * Creates an instant at the given time.
+     */
+    private static Instant instant(final long time) {
+        final Map<String,Object> values = new HashMap<>();
+        values.put("getDate", new Date(time));
+        return proxy(Instant.class, values);
+    }
+
+    /**
+     * Creates a period between the given times.
+     */
+    private static Period period(final long begin, final long end) {
+        final Map<String,Object> values = new HashMap<>();
+        values.put("getBeginning", instant(begin));
+        values.put("getEnding", instant(end));
+        return proxy(Period.class, values);
+    }
+
+    /**
+     * Creates the property name for the {@code "time"} entry of features.
+     */
+    private static PropertyName time() {
+        return proxy(PropertyName.class, java.util.Collections.singletonMap("getPropertyName", "time"));
+    }
+
+    /**
+     * Creates features with random periods or instants, and a few features without time.
+     */
+    private static List<Map<String,Object>> createFeatures(final Random random, final int count) {
+        final List<Map<String,Object>> features = new ArrayList<>(count);
+        for (int i=0; i<count; i++) {
+            final Map<String,Object> f = new HashMap<>();
+            final long begin = random.nextInt(100);
+            switch (random.nextInt(10)) {
+                case 0:  break;
+                case 1:  f.put("time", instant(begin)); break;
+                default: f.put("time", period(begin, begin + random.nextInt(20))); break;
+            }
+            f.put("value", i);
+            features.add(f);
+        }
+        return features;
+    }
+
+    /**
+     * Returns whether the given operator is satisfied, computed directly from the definitions.
+     */
+    private static boolean expected(final TemporalIndex.Operator op, final long ab, final long ae, final long bb, final long be) {
+        switch (op) {
+            case AFTER:         return ab > be;
+            case BEFORE:        return ae < bb;
+            case BEGINS:        return ab == bb && ae < be;
+            case BEGUN_BY:      return ab == bb && ae > be;
+            case DURING:        return ab > bb && ae < be;
+            case CONTAINS:      return ab < bb && ae > be;
+            case EQUALS:        return ab == bb && ae == be;
+            case ENDS:          return ae == be && ab > bb;
+            case ENDED_BY:      return ae == be && ab < bb;
+            case MEETS:         return ae == bb;
+            case MET_BY:        return ab == be;
+            case OVERLAPS:      return ab < bb && ae > bb && ae < be;
+            case OVERLAPPED_BY: return ab > bb && ab < be && ae > be;
+            case ANY_INTERACTS: return ab <= be && ae >= bb;
+            default: throw new AssertionError(op);
+        }
+    }
+
+    /**
+     * Compares the index selection with a linear scan for all operators and random periods.
+     */
+    @Test
+    public void testSelect() {
+        final Random random = new Random(3120937);
+        final List<Map<String,Object>> features = createFeatures(random, 2000);
+        final TemporalIndex<Map<String,Object>> index = new TemporalIndex<>(features, time());
+        final long[] bounds = new long[2];
+        for (int n=0; n<50; n++) {
+            final long bb = (random.nextInt(110) - 5) * NANOS_PER_MILLI;
+            final long be = bb + random.nextInt(30) * NANOS_PER_MILLI;
+            for (final TemporalIndex.Operator op : TemporalIndex.Operator.values()) {
+                final BitSet expected = new BitSet();
+                for (int i=0; i<features.size(); i++) {
+                    if (TemporalIndex.bounds(features.get(i).get("time"), bounds) &&
+                            expected(op, bounds[0], bounds[1], bb, be))
+                    {
+                        expected.set(i);
+                    }
+                }
+                assertEquals(op.name(), expected, index.select(op, bb, be));
+            }
+        }
+    }
+
+    /**
+     * Tests the routing of a {@link During} filter combined with a non-temporal filter.
+     */
+    @Test
+    public void testFilter() {
+        final Random random = new Random(92047);
+        final List<Map<String,Object>> features = createFeatures(random, 500);
+        final TemporalIndex<Map<String,Object>> index = new TemporalIndex<>(features, time());
+        final Map<String,Object> values = new HashMap<>();
+        values.put("getExpression1", time());
+        values.put("getExpression2", proxy(Literal.class, java.util.Collections.singletonMap("getValue", period(20, 50))));
+        final During during = proxy(During.class, values);
+        final Filter even = new Filter() {
+            @Override public boolean evaluate(Object object) {return ((Integer) ((Map<?,?>) object).get("value")) % 2 == 0;}
+            @Override public Object accept(FilterVisitor visitor, Object extraData) {return extraData;}
+        };
+        final List<Filter> children = Arrays.asList(during, even);
+        final And and = new And() {
+            @Override public List<Filter> getChildren() {return children;}
+            @Override public boolean evaluate(Object object) {throw new AssertionError("Temporal filter shall use the index.");}
+            @Override public Object accept(FilterVisitor visitor, Object extraData) {return visitor.visit(this, extraData);}
+        };
+
+        final List<Map<String,Object>> expected = new ArrayList<>();
+        final long[] bounds = new long[2];
+        for (final Map<String,Object> f : features) {
+            if (TemporalIndex.bounds(f.get("time"), bounds) && bounds[0] > 20 * NANOS_PER_MILLI && bounds[1] < 50 * NANOS_PER_MILLI && even.evaluate(f)) {
+                expected.add(f);
+            }
+        }
+        final List<Map<String,Object>> actual = new ArrayList<>();
+        index.filter(and, actual::add);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Tests that the equality-based operators do not match periods differing by less than a millisecond.
+     */
+    @Test
+    public void testSubMillisecond() {
+        final List<Map<String,Object>> features = new ArrayList<>();
+        final Map<String,Object> f = new HashMap<>();
+        f.put("time", new SimplePeriod(0, 1000500));                // Ends at 1.0005 ms.
+        features.add(f);
+        final TemporalIndex<Map<String,Object>> index = new TemporalIndex<>(features, time());
+        assertTrue (index.select(TemporalIndex.Operator.MEETS,  1000000, 2000000).isEmpty());
+        assertFalse(index.select(TemporalIndex.Operator.MEETS,  1000500, 2000000).isEmpty());
+        assertTrue (index.select(TemporalIndex.Operator.EQUALS, 0, 1000000).isEmpty());
+        assertFalse(index.select(TemporalIndex.Operator.EQUALS, 0, 1000500).isEmpty());
+        assertFalse(index.select(TemporalIndex.Operator.ENDED_BY, 1000000, 1000500).isEmpty());
+    }
+}
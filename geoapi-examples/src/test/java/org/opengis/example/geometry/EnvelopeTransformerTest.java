@@ -0,0 +1,132 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.example.referencing.SimpleCRS;
+import org.opengis.example.referencing.SimpleMatrix;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link EnvelopeTransformer}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class EnvelopeTransformerTest {
+    /**
+     * Number of kilometres per degree of latitude in the {@link Polar} projection.
+     */
+    private static final double KM_PER_DEGREE = 111;
+
+    /**
+     * A simple polar projection from (<var>x</var>,<var>y</var>) in kilometres to (φ,λ) in degrees.
+     * The North pole is at (0,0) and the 0° meridian is on the negative <var>y</var> axis.
+     */
+    private static final class Polar implements MathTransform {
+        /** Whether this transform is the inverse projection. */
+        private final boolean inverse;
+
+        /** Creates a new projection or inverse projection. */
+        Polar(final boolean inverse) {
+            this.inverse = inverse;
+        }
+
+        @Override public int     getSourceDimensions() {return 2;}
+        @Override public int     getTargetDimensions() {return 2;}
+        @Override public boolean isIdentity()          {return false;}
+        @Override public String  toWKT()               {throw new UnsupportedOperationException();}
+        @Override public MathTransform inverse()       {return new Polar(!inverse);}
+
+        @Override public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+            while (--numPts >= 0) {
+                final double a = srcPts[srcOff++];
+                final double b = srcPts[srcOff++];
+                if (inverse) {
+                    final double r = (90 - a) * KM_PER_DEGREE;
+                    final double λ = Math.toRadians(b);
+                    dstPts[dstOff++] =  r * Math.sin(λ);
+                    dstPts[dstOff++] = -r * Math.cos(λ);
+                } else {
+                    dstPts[dstOff++] = 90 - Math.hypot(a, b) / KM_PER_DEGREE;
+                    dstPts[dstOff++] = Math.toDegrees(Math.atan2(a, -b));
+                }
+            }
+        }
+
+        @Override public Matrix derivative(final DirectPosition point) throws TransformException {
+            if (inverse) throw new TransformException("Not needed by this test.");
+            final double x  = point.getOrdinate(0);
+            final double y  = point.getOrdinate(1);
+            final double r2 = x*x + y*y;
+            final double r  = Math.sqrt(r2);
+            if (r == 0) throw new TransformException("Undefined at pole.");
+            final SimpleMatrix m = new SimpleMatrix(2, 2);
+            m.setElement(0, 0, -x / (r * KM_PER_DEGREE));
+            m.setElement(0, 1, -y / (r * KM_PER_DEGREE));
+            m.setElement(1, 0, Math.toDegrees(-y / r2));
+            m.setElement(1, 1, Math.toDegrees( x / r2));
+            return m;
+        }
+
+        @Override public DirectPosition transform(DirectPosition ptSrc, DirectPosition ptDst) {throw new UnsupportedOperationException();}
+        @Override public void transform(float [] srcPts, int srcOff, float [] dstPts, int dstOff, int numPts) {throw new UnsupportedOperationException();}
+        @Override public void transform(float [] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {throw new UnsupportedOperationException();}
+        @Override public void transform(double[] srcPts, int srcOff, float [] dstPts, int dstOff, int numPts) {throw new UnsupportedOperationException();}
+    }
+
+    /**
+     * Creates a source envelope.
+     */
+    private static SimpleEnvelope envelope(final double xmin, final double ymin, final double xmax, final double ymax) {
+        return new SimpleEnvelope(new SimpleDirectPosition(null, xmin, ymin),
+                                  new SimpleDirectPosition(null, xmax, ymax));
+    }
+
+    /**
+     * Tests an envelope containing the North pole.
+     * The result shall span all longitudes and reach 90°N.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testPole() throws TransformException {
+        final EnvelopeTransformer transformer = new EnvelopeTransformer(new Polar(false), SimpleCRS.Geographic.WGS84);
+        final SimpleEnvelope result = transformer.transform(envelope(-1000, -1000, 1000, 1000));
+        assertEquals(90 - Math.hypot(1000, 1000) / KM_PER_DEGREE, result.getMinimum(0), 1E-9);
+        assertEquals(  90, result.getMaximum(0), 0);
+        assertEquals(-180, result.getMinimum(1), 0);
+        assertEquals(+180, result.getMaximum(1), 0);
+    }
+
+    /**
+     * Tests an envelope crossing the anti-meridian, with a latitude extremum in the middle of an edge.
+     * Transforming only the corners would miss that extremum.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testAntiMeridian() throws TransformException {
+        final EnvelopeTransformer transformer = new EnvelopeTransformer(new Polar(false), SimpleCRS.Geographic.WGS84);
+        transformer.setTolerance(1E-6);
+        final SimpleEnvelope result = transformer.transform(envelope(-100, 500, 300, 1000));
+        final double λ = Math.toDegrees(Math.atan2(100, 500));
+        final double φ = Math.toDegrees(Math.atan2(300, 500));
+        assertEquals(90 - Math.hypot(300, 1000) / KM_PER_DEGREE, result.getMinimum(0), 1E-9);
+        assertEquals(90 - 500 / KM_PER_DEGREE,                   result.getMaximum(0), 1E-6);
+        assertEquals(180 - φ, result.getMinimum(1), 1E-9);
+        assertEquals(180 + λ, result.getMaximum(1), 1E-9);
+    }
+}
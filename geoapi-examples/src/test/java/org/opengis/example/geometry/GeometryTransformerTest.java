@@ -0,0 +1,137 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.ArrayList;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.example.referencing.AffineTransform2D;
+import org.opengis.test.referencing.GeometryTransformBenchmark;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link GeometryTransformer}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class GeometryTransformerTest {
+    /**
+     * Tests the transformation of many arrays in many batches, and compares
+     * with the results of transforming each vertex individually.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testBatches() throws TransformException {
+        final AffineTransform2D tr = new AffineTransform2D();
+        tr.rotate(0.3);
+        tr.translate(20, -5);
+        final Random random = new Random(4805);
+        final SimplePointArray[] sources = new SimplePointArray[20];
+        for (int i=0; i<sources.length; i++) {
+            final double[] ordinates = new double[2 * (1 + random.nextInt(30))];
+            for (int j=0; j<ordinates.length; j++) {
+                ordinates[j] = random.nextDouble() * 100;
+            }
+            sources[i] = new SimplePointArray(null, 2, ordinates, 0, ordinates.length);
+        }
+        final GeometryTransformer transformer = new GeometryTransformer(tr, null);
+        transformer.setBatchSize(50);
+        final List<SimplePointArray> results = transformer.transform(Arrays.asList(sources));
+        assertEquals(sources.length, results.size());
+        final SimpleDirectPosition expected = new SimpleDirectPosition(2);
+        DirectPosition source = null, actual = null;
+        for (int i=0; i<sources.length; i++) {
+            assertEquals(sources[i].size(), results.get(i).size());
+            for (int j=0; j<sources[i].size(); j++) {
+                source = sources[i].getDirectPosition(j, source);
+                actual = results.get(i).getDirectPosition(j, actual);
+                tr.transform(source, expected);
+                assertArrayEquals(expected.ordinates, actual.getCoordinate(), 1E-9);
+            }
+        }
+    }
+
+    /**
+     * Tests densification of long segments.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testDensification() throws TransformException {
+        final GeometryTransformer transformer = new GeometryTransformer(new AffineTransform2D(), null);
+        transformer.setMaximalSegmentLength(3);
+        final SimplePointArray result = transformer.transform(
+                new SimplePointArray(null, 2, new double[] {0, 0, 10, 0, 11, 0}, 0, 6));
+        final double[] actual = new double[result.size() * 2];
+        result.copyTo(actual, 0);
+        assertArrayEquals(new double[] {0, 0, 2.5, 0, 5, 0, 7.5, 0, 10, 0, 11, 0}, actual, 1E-12);
+    }
+
+    /**
+     * Tests the handling of anti-meridian crossing.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testWrapAround() throws TransformException {
+        final GeometryTransformer transformer = new GeometryTransformer(new AffineTransform2D(), null);
+        transformer.setWrapAround(0, 360);
+        final SimplePointArray result = transformer.transform(
+                new SimplePointArray(null, 2, new double[] {178, 10, -179, 11, -177, 12, 179, 13}, 0, 8));
+        final double[] actual = new double[8];
+        result.copyTo(actual, 0);
+        assertArrayEquals(new double[] {178, 10, 181, 11, 183, 12, 179, 13}, actual, 1E-12);
+    }
+
+    /**
+     * Verifies that densification creating more points than an array can hold is rejected
+     * before any attempt to allocate the array.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDensificationOverflow() throws TransformException {
+        final GeometryTransformer transformer = new GeometryTransformer(new AffineTransform2D(), null);
+        transformer.setMaximalSegmentLength(1E-9);
+        transformer.transform(new SimplePointArray(null, 2, new double[] {0, 0, 10, 0, 20, 0}, 0, 6));
+    }
+
+    /**
+     * Measures {@link GeometryTransformer} with {@link GeometryTransformBenchmark}, next to the
+     * per-vertex and batched strategies predefined by the benchmark.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testBenchmark() throws TransformException {
+        final AffineTransform2D tr = new AffineTransform2D();
+        tr.rotate(0.3);
+        final GeometryTransformBenchmark benchmark = new GeometryTransformBenchmark(tr,
+                new double[] {-180, -90}, new double[] {180, 90}, new Random(2083), 200, 50);
+        final GeometryTransformer transformer = new GeometryTransformer(tr, null);
+        final GeometryTransformBenchmark.Result result = benchmark.measure("GeometryTransformer", (geometries, transform) -> {
+            final List<SimplePointArray> arrays = new ArrayList<>(geometries.size());
+            for (final double[] geometry : geometries) {
+                arrays.add(new SimplePointArray(null, 2, geometry, 0, geometry.length));
+            }
+            assertEquals(geometries.size(), transformer.transform(arrays).size());
+        }, 3);
+        assertEquals(30000, result.getNumPoints());
+        assertTrue(result.getPointsPerSecond() > 0);
+        assertEquals(30000, benchmark.measure(GeometryTransformBenchmark.Strategy.PER_VERTEX, 3).getNumPoints());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.nio.DoubleBuffer;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.example.referencing.AffineTransform2D;
+import org.opengis.example.referencing.SimpleCRS;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link SimplePointArray}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class SimplePointArrayTest {
+    /**
+     * Verifies the content of the given array, which is expected to contain the points
+     * (1,2), (3,4), (5,6) optionally multiplied by the given factor.
+     */
+    private static void verify(final SimplePointArray array, final double factor) {
+        assertEquals(2, array.getDimension());
+        assertEquals(3, array.size());
+        DirectPosition position = null;
+        for (int i=0; i<3; i++) {
+            final DirectPosition previous = position;
+            position = array.getDirectPosition(i, position);
+            if (previous != null) {
+                assertSame("Position should be reused.", previous, position);
+            }
+            assertEquals((2*i + 1) * factor, position.getOrdinate(0), 0);
+            assertEquals((2*i + 2) * factor, position.getOrdinate(1), 0);
+        }
+    }
+
+    /**
+     * Tests a point array backed by a {@code double[]}, a {@code float[]} and a direct buffer.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testStorages() throws TransformException {
+        final double[] doubles = {0, 1, 2, 3, 4, 5, 6, 0};
+        final DoubleBuffer buffer = DoubleBuffer.allocate(8).put(doubles);
+        final SimplePointArray[] arrays = {
+            new SimplePointArray(null, 2, doubles, 1, 6),
+            new SimplePointArray(null, 2, new float[] {0, 1, 2, 3, 4, 5, 6, 0}, 1, 6),
+            new SimplePointArray(null, 2, buffer, 1, 6)
+        };
+        final AffineTransform2D scale = new AffineTransform2D();
+        scale.scale(10, 10);
+        for (final SimplePointArray array : arrays) {
+            verify(array, 1);
+            final SimplePointArray result = array.transform(scale, SimpleCRS.Geographic.WGS84);
+            assertSame(SimpleCRS.Geographic.WGS84, result.getCoordinateReferenceSystem());
+            assertNull(array.getCoordinateReferenceSystem());
+            verify(result, 10);
+            verify(array, 10);
+        }
+        assertEquals("Value outside the range shall not be modified.", 0, doubles[0], 0);
+        assertEquals("Value outside the range shall not be modified.", 0, doubles[7], 0);
+        assertEquals(60, buffer.get(6), 0);
+    }
+
+    /**
+     * Tests {@link SimplePointArray#subList(int, int)}, which shall be a view over the same storage.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testSubList() throws TransformException {
+        final double[] doubles = {1, 2, 3, 4, 5, 6, 7, 8};
+        final SimplePointArray array = new SimplePointArray(null, 2, doubles, 0, 8);
+        final SimplePointArray view = array.subList(1, 3);
+        assertEquals(2, view.size());
+        assertEquals(3, view.getOrdinate(0, 0), 0);
+        assertEquals(6, view.getOrdinate(1, 1), 0);
+
+        view.setDirectPosition(0, new SimpleDirectPosition(null, -3, -4));
+        assertEquals(-3, doubles[2], 0);
+        assertEquals(-4, array.getOrdinate(1, 1), 0);
+
+        final AffineTransform2D translate = new AffineTransform2D();
+        translate.translate(100, 0);
+        view.transform(translate, null);
+        assertArrayEquals(new double[] {1, 2, 97, -4, 105, 6, 7, 8}, doubles, 0);
+
+        final double[] copy = new double[4];
+        view.copyTo(copy, 0);
+        assertArrayEquals(new double[] {97, -4, 105, 6}, copy, 0);
+        assertEquals(new SimpleDirectPosition(null, 105, 6), view.get(1));
+    }
+
+    /**
+     * Tests a point array backed by a buffer having a limit smaller than its capacity.
+     * The limit shall be ignored and the user buffer shall not be modified.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testBufferLimit() throws TransformException {
+        final DoubleBuffer buffer = DoubleBuffer.allocate(8);
+        buffer.put(new double[] {0, 1, 2, 3, 4, 5, 6, 0}).position(2).limit(4);
+        final SimplePointArray array = new SimplePointArray(null, 2, buffer, 1, 6);
+        verify(array, 1);
+        final AffineTransform2D scale = new AffineTransform2D();
+        scale.scale(10, 10);
+        verify(array.transform(scale, null), 10);
+        final double[] copy = new double[6];
+        array.copyTo(copy, 0);
+        assertArrayEquals(new double[] {10, 20, 30, 40, 50, 60}, copy, 0);
+        assertEquals("position", 2, buffer.position());
+        assertEquals("limit",    4, buffer.limit());
+    }
+
+    /**
+     * Tests that out of bounds indices are rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() {
+        new SimplePointArray(null, 2, new double[4], 0, 4).subList(0, 1).get(1);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.metadata;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.io.IOException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import org.junit.Test;
+
+import org.opengis.metadata.Metadata;
+import org.opengis.metadata.Identifier;
+import org.opengis.metadata.citation.Party;
+import org.opengis.metadata.citation.Citation;
+import org.opengis.metadata.citation.Responsibility;
+import org.opengis.metadata.citation.Role;
+import org.opengis.util.InternationalString;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link MetadataSnapshot}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class MetadataSnapshotTest {
+    /**
+     * Creates a metadata containing a {@link Responsibility}, using the same structure than
+     * {@link MetadataProxyFactoryTest}. The party name is built in a way that prevents
+     * the string from being interned by the compiler.
+     */
+    private static Metadata createMetadata() {
+        final MetadataProxyFactory factory = new MetadataProxyFactory();
+        Map<String,Object> attributes = new HashMap<>();
+        attributes.put("name", new SimpleCitation(new StringBuilder("Aristo").append("tle").toString()));
+        final Party party = factory.create(Party.class, attributes);
+
+        attributes = new HashMap<>();
+        attributes.put("party", Collections.singleton(party));
+        attributes.put("role", Role.AUTHOR);
+        final Responsibility responsibility = factory.create(Responsibility.class, attributes);
+
+        attributes = new HashMap<>();
+        attributes.put("contact", Collections.singleton(responsibility));
+        return factory.create(Metadata.class, attributes);
+    }
+
+    /**
+     * Tests the snapshot of a metadata created by {@link MetadataProxyFactory}.
+     */
+    @Test
+    public void testSnapshot() {
+        final Metadata source = createMetadata();
+        final Metadata md = MetadataSnapshot.snapshot(Metadata.class, source);
+        assertTrue (MetadataSnapshot.isSnapshot(md));
+        assertFalse(MetadataSnapshot.isSnapshot(source));
+        assertSame(md, MetadataSnapshot.snapshot(Metadata.class, md));
+
+        final Responsibility responsibility = getSingleton(md.getContacts());
+        assertTrue(MetadataSnapshot.isSnapshot(responsibility));
+        assertEquals(Role.AUTHOR, responsibility.getRole());
+        final String name = getSingleton(responsibility.getParties()).getName().toString();
+        assertEquals("Aristotle", name);
+        assertSame("Strings shall be interned.", "Aristotle", name);
+
+        assertSame("Empty collections shall be shared.", Collections.emptyList(), md.getSpatialRepresentationInfo());
+        assertSame("Empty collections shall be shared.", Collections.emptyList(), responsibility.getExtents());
+        try {
+            md.getContacts().clear();
+            fail("Snapshot shall be unmodifiable.");
+        } catch (UnsupportedOperationException e) {
+            // This is the expected exception.
+        }
+        assertEquals("MD_Metadata{contact=[CI_Responsibility{party=[CI_Party{name=Aristotle}], role=Role[AUTHOR]}]}",
+                md.toString());
+
+        final Metadata other = MetadataSnapshot.snapshot(Metadata.class, createMetadata());
+        assertNotSame(md, other);
+        assertEquals(md, other);
+        assertEquals(md.hashCode(), other.hashCode());
+    }
+
+    /**
+     * Tests the snapshot of a metadata containing a cycle:
+     * a citation having an identifier whose authority is the citation itself.
+     *
+     * @throws IOException if an error occurred while writing or reading the binary format.
+     */
+    @Test
+    public void testCycle() throws IOException {
+        final MetadataProxyFactory factory = new MetadataProxyFactory();
+        final Map<String,Object> citationAttributes = new HashMap<>();
+        citationAttributes.put("title", new SimpleCitation("European Petroleum Survey Group"));
+        final Citation citation = factory.create(Citation.class, citationAttributes);
+
+        final Map<String,Object> identifierAttributes = new HashMap<>();
+        identifierAttributes.put("code", "EPSG");
+        identifierAttributes.put("authority", citation);
+        citationAttributes.put("identifier", Collections.singleton(factory.create(Identifier.class, identifierAttributes)));
+
+        final Citation snapshot = MetadataSnapshot.snapshot(Citation.class, citation);
+        final Identifier identifier = getSingleton(snapshot.getIdentifiers());
+        assertEquals("EPSG", identifier.getCode());
+        assertSame("Cycle shall be preserved.", snapshot, identifier.getAuthority());
+        assertEquals("CI_Citation{identifier=[MD_Identifier{authority=CI_Citation{…}, code=EPSG}],"
+                   + " title=European Petroleum Survey Group}", snapshot.toString());
+
+        final Citation copy = roundtrip(Citation.class, snapshot);
+        assertNotSame(snapshot, copy);
+        assertEquals(snapshot, copy);
+        assertSame(copy, getSingleton(copy.getIdentifiers()).getAuthority());
+    }
+
+    /**
+     * Tests writing and reading a snapshot in the binary format, then with Java serialization.
+     *
+     * @throws IOException if an error occurred while writing or reading the snapshot.
+     * @throws ClassNotFoundException if a class of the serialized snapshot has not been found.
+     */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        final Metadata md = MetadataSnapshot.snapshot(Metadata.class, createMetadata());
+        final Metadata copy = roundtrip(Metadata.class, md);
+        assertTrue(MetadataSnapshot.isSnapshot(copy));
+        assertNotSame(md, copy);
+        assertEquals(md, copy);
+        assertEquals(md.toString(), copy.toString());
+        assertSame("Aristotle", getSingleton(getSingleton(copy.getContacts()).getParties()).getName().toString());
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(md);
+        }
+        final Object deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            deserialized = in.readObject();
+        }
+        assertEquals(md, deserialized);
+        assertEquals(md.toString(), deserialized.toString());
+    }
+
+    /**
+     * Tests the snapshot of an international string having translations in many languages.
+     * All translations shall be preserved by the snapshot and by the binary format.
+     *
+     * @throws IOException if an error occurred while writing or reading the binary format.
+     */
+    @Test
+    public void testInternationalString() throws IOException {
+        final InternationalString title = new SimpleCitation("Geodetic Parameter Dataset") {
+            @Override public String toString(final Locale locale) {
+                if (locale != null) {
+                    switch (locale.getLanguage()) {
+                        case "fr": return "Jeu de paramètres géodésiques";
+                        case "de": return "Geodätischer Parameterdatensatz";
+                    }
+                }
+                return super.toString(locale);
+            }
+        };
+        final Map<String,Object> attributes = new HashMap<>();
+        attributes.put("title", title);
+        final Citation snapshot = MetadataSnapshot.snapshot(Citation.class,
+                new MetadataProxyFactory().create(Citation.class, attributes));
+        for (final Citation c : new Citation[] {snapshot, roundtrip(Citation.class, snapshot)}) {
+            final InternationalString copy = c.getTitle();
+            assertNotSame(title, copy);
+            assertEquals("Geodetic Parameter Dataset",      copy.toString());
+            assertEquals("Geodetic Parameter Dataset",      copy.toString(Locale.ENGLISH));
+            assertEquals("Jeu de paramètres géodésiques",   copy.toString(Locale.FRENCH));
+            assertEquals("Jeu de paramètres géodésiques",   copy.toString(Locale.CANADA_FRENCH));
+            assertEquals("Geodätischer Parameterdatensatz", copy.toString(Locale.GERMAN));
+        }
+        assertEquals(snapshot, roundtrip(Citation.class, snapshot));
+    }
+
+    /**
+     * Writes the given snapshot in the binary format, then reads it back.
+     */
+    private static <T> T roundtrip(final Class<T> type, final T snapshot) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            MetadataSnapshot.write(snapshot, out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            final T copy = MetadataSnapshot.read(type, in);
+            assertEquals("Unread bytes.", -1, in.read());
+            return copy;
+        }
+    }
+
+    /**
+     * Verifies that the given collection contains exactly one element, then returns that element.
+     */
+    private static <T> T getSingleton(final Collection<? extends T> collection) {
+        assertEquals("size", 1, collection.size());
+        return collection.iterator().next();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import java.util.Random;
+import java.awt.geom.Point2D;
+
+import org.opengis.referencing.operation.MathTransform2D;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.test.referencing.TransformTestCase;
+import org.opengis.example.geometry.SimpleEnvelope;
+import org.opengis.example.geometry.SimpleDirectPosition;
+import org.junit.Test;
+
+import static org.opengis.test.Assert.*;
+
+
+/**
+ * Tests {@link InterpolatedTransform2D} using a spherical Mercator projection as the exact transform.
+ * The interpolated transform is verified against the exact transform with a tolerance equals to the
+ * maximal error given to the constructor.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class InterpolatedTransform2DTest extends TransformTestCase {
+    /**
+     * The maximal interpolation error, in kilometres.
+     */
+    private static final double MAXIMAL_ERROR = 0.01;
+
+    /**
+     * The domain where to test the interpolation, in degrees of longitude and latitude.
+     */
+    private static final double XMIN = -30, XMAX = 30, YMIN = 0, YMAX = 60;
+
+    /**
+     * The exact transform: a spherical Mercator projection from degrees to kilometres.
+     */
+    private final MathTransform2D exact;
+
+    /**
+     * Creates a new test case for a spherical Mercator projection.
+     *
+     * @throws TransformException should never happen.
+     */
+    @SuppressWarnings("serial")
+    public InterpolatedTransform2DTest() throws TransformException {
+        exact = new SimpleTransform2D(null, "Mercator", null, null) {
+            @Override
+            public Point2D transform(final Point2D ptSrc, Point2D ptDst) {
+                if (ptDst == null) {
+                    ptDst = new Point2D.Double();
+                }
+                final double R = 6371;
+                ptDst.setLocation(R * Math.toRadians(ptSrc.getX()),
+                                  R * Math.log(Math.tan(Math.PI/4 + Math.toRadians(ptSrc.getY())/2)));
+                return ptDst;
+            }
+        };
+        transform = new InterpolatedTransform2D(exact, new SimpleEnvelope(
+                new SimpleDirectPosition(null, XMIN, YMIN),
+                new SimpleDirectPosition(null, XMAX, YMAX)), MAXIMAL_ERROR);
+        tolerance = MAXIMAL_ERROR;
+        derivativeDeltas = new double[] {0.001};
+        isInverseTransformSupported = false;
+    }
+
+    /**
+     * Compares the interpolated values with the exact values for random points in the domain
+     * and outside the domain.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testErrorBound() throws TransformException {
+        final Random random = new Random(6102387);
+        final double[] source = new double[2000];
+        for (int i=0; i<source.length; i += 2) {
+            source[i  ] = XMIN - 5 + random.nextDouble() * (XMAX - XMIN + 10);
+            source[i+1] = YMIN - 5 + random.nextDouble() * (YMAX - YMIN + 10);
+        }
+        final double[] expected = new double[source.length];
+        exact.transform(source, 0, expected, 0, source.length / 2);
+        verifyTransform(source, expected);
+        assertTrue("Grid should have been refined.", ((InterpolatedTransform2D) transform).getCellCount() > 1);
+    }
+
+    /**
+     * Tests the consistency of the various {@code transform} methods.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testConsistency() throws TransformException {
+        validators.validate(transform);
+        verifyInDomain(new double[] {XMIN, YMIN},
+                       new double[] {XMAX, YMAX},
+                       new int[]    {  50,   50},
+                       new Random(743930));
+    }
+
+    /**
+     * Verifies that the {@code float[]} and mixed-precision array methods give the same results
+     * than the {@code double[]} method.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testFloatArrays() throws TransformException {
+        final Random random = new Random(827045);
+        final int numPts = 1500;                    // More than one chunk.
+        final float[]  floats  = new float [numPts * 2];
+        final double[] doubles = new double[numPts * 2];
+        for (int i=0; i<floats.length; i += 2) {
+            floats[i  ] = (float) (XMIN - 5 + random.nextDouble() * (XMAX - XMIN + 10));
+            floats[i+1] = (float) (YMIN - 5 + random.nextDouble() * (YMAX - YMIN + 10));
+            doubles[i  ] = floats[i  ];
+            doubles[i+1] = floats[i+1];
+        }
+        final double[] expected = new double[doubles.length];
+        transform.transform(doubles, 0, expected, 0, numPts);
+
+        final double[] actualDoubles = new double[doubles.length];
+        transform.transform(floats, 0, actualDoubles, 0, numPts);
+        assertArrayEquals(expected, actualDoubles, 0);
+
+        final float[] actualFloats = new float[floats.length];
+        transform.transform(doubles, 0, actualFloats, 0, numPts);
+        for (int i=0; i<expected.length; i++) {
+            assertEquals((float) expected[i], actualFloats[i], 0);
+        }
+        final float[] inPlace = floats.clone();
+        transform.transform(inPlace, 0, inPlace, 0, numPts);
+        assertArrayEquals(actualFloats, inPlace, 0);
+    }
+
+    /**
+     * Verifies that the number of cells is bounded when the requested error can not be reached.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testCellLimit() throws TransformException {
+        final InterpolatedTransform2D tr = new InterpolatedTransform2D(exact, new SimpleEnvelope(
+                new SimpleDirectPosition(null, XMIN, YMIN),
+                new SimpleDirectPosition(null, XMAX, YMAX)), 1E-9);
+        final int count = tr.getCellCount();
+        assertTrue("Cell count should be bounded: " + count, count <= (1 << 18));
+        assertTrue("Grid should have been refined: " + count, count > 1000);
+    }
+}
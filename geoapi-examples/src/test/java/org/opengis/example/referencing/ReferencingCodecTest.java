@@ -0,0 +1,266 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.Collections;
+import java.io.IOException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import org.junit.Test;
+
+import org.opengis.util.FactoryException;
+import org.opengis.parameter.ParameterValue;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.parameter.ParameterNotFoundException;
+import org.opengis.parameter.GeneralParameterValue;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CartesianCS;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.cs.EllipsoidalCS;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.opengis.referencing.operation.Conversion;
+import org.opengis.referencing.operation.MathTransformFactory;
+import org.opengis.example.parameter.SimpleParameter;
+import org.opengis.example.parameter.SimpleParameterGroup;
+import org.opengis.test.Units;
+import org.opengis.test.Validators;
+import org.opengis.test.referencing.PseudoEpsgFactory;
+
+import static org.junit.Assert.*;
+import static tec.units.ri.unit.Units.METRE;
+
+
+/**
+ * Tests {@link ReferencingCodec} by encoding and decoding all objects created by {@link PseudoEpsgFactory}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class ReferencingCodecTest {
+    /**
+     * The factory used for creating and decoding all referencing objects.
+     */
+    private final SimpleObjectFactory factory = new SimpleObjectFactory();
+
+    /**
+     * A math transform factory providing parameter groups which accept any parameter name.
+     * Only the {@link #getDefaultParameters(String)} method is used by this test.
+     */
+    private static final class ParameterFactory extends SimpleTransformFactory {
+        @Override public ParameterValueGroup getDefaultParameters(final String method) {
+            return new SimpleParameterGroup(null, method) {
+                @Override public ParameterValue<?> parameter(final String name) {
+                    try {
+                        return super.parameter(name);
+                    } catch (ParameterNotFoundException e) {
+                        final SimpleParameter p = new SimpleParameter(null, name, null);
+                        parameters.add(p);
+                        return p;
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * The factory providing conversion parameters.
+     */
+    private final MathTransformFactory mtFactory = new ParameterFactory();
+
+    /**
+     * The factory of the objects to encode, with an accessor to its protected {@code createParameters} method.
+     */
+    private static final class EpsgFactory extends PseudoEpsgFactory {
+        EpsgFactory(final SimpleObjectFactory factory, final MathTransformFactory mtFactory) {
+            super(Units.getDefault(), factory, factory, factory, factory, mtFactory, Validators.DEFAULT);
+        }
+
+        /** Returns the parameters of the conversion having the given EPSG code. */
+        ParameterValueGroup parameters(final int code) throws FactoryException {
+            return createParameters(code);
+        }
+    }
+
+    /**
+     * The factory of the objects to encode.
+     */
+    private final EpsgFactory epsg = new EpsgFactory(factory, mtFactory);
+
+    /**
+     * The codec to test.
+     */
+    private final ReferencingCodec codec = new ReferencingCodec(factory, factory, factory, factory, mtFactory);
+
+    /**
+     * Encodes the given object, decodes it, then verifies that the decoded object has the same properties
+     * and is encoded to the same bytes.
+     */
+    private <T extends IdentifiedObject> T roundtrip(final Class<T> type, final T object) throws IOException, FactoryException {
+        final byte[] encoded = encode(object);
+        final T copy;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            copy = codec.read(type, in);
+            assertEquals("Unread bytes.", -1, in.read());
+        }
+        assertNotSame(object, copy);
+        assertEquals(object.getName().getCode(), copy.getName().getCode());
+        assertEquals(object.getIdentifiers().size(), copy.getIdentifiers().size());
+        assertArrayEquals(object.toString(), encoded, encode(copy));
+        return copy;
+    }
+
+    /**
+     * Returns the encoded bytes of the given object.
+     */
+    private byte[] encode(final IdentifiedObject object) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            codec.write(object, out);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Returns the codes of all objects of the given type known to {@link PseudoEpsgFactory}.
+     */
+    private Set<String> codes(final Class<? extends IdentifiedObject> type) throws FactoryException {
+        final Set<String> codes = epsg.getAuthorityCodes(type);
+        assertFalse(type.getSimpleName(), codes.isEmpty());
+        return codes;
+    }
+
+    /**
+     * Encodes and decodes the given coordinate system, then compares the axes.
+     */
+    private void verifyAxes(final CoordinateSystem source) throws IOException, FactoryException {
+        final CoordinateSystem copy = roundtrip(CoordinateSystem.class, source);
+        assertEquals(source.getDimension(), copy.getDimension());
+        for (int i=0; i<source.getDimension(); i++) {
+            assertEquals(source.getAxis(i).getDirection(), copy.getAxis(i).getDirection());
+            assertEquals(source.getAxis(i).getUnit(),      copy.getAxis(i).getUnit());
+        }
+    }
+
+    /**
+     * Tests the encoding of all ellipsoids, prime meridians and datum known to {@link PseudoEpsgFactory}.
+     *
+     * @throws IOException if an error occurred while encoding or decoding an object.
+     * @throws FactoryException if an error occurred while creating an object.
+     */
+    @Test
+    public void testDatum() throws IOException, FactoryException {
+        for (final String code : codes(Ellipsoid.class)) {
+            final Ellipsoid source = epsg.createEllipsoid(code);
+            final Ellipsoid copy = roundtrip(Ellipsoid.class, source);
+            assertEquals(source.getSemiMajorAxis(),     copy.getSemiMajorAxis(),     0);
+            assertEquals(source.getSemiMinorAxis(),     copy.getSemiMinorAxis(),     0);
+            assertEquals(source.getInverseFlattening(), copy.getInverseFlattening(), 0);
+            assertEquals(source.isIvfDefinitive(),      copy.isIvfDefinitive());
+            assertEquals(source.getAxisUnit(),          copy.getAxisUnit());
+        }
+        for (final String code : codes(PrimeMeridian.class)) {
+            roundtrip(PrimeMeridian.class, epsg.createPrimeMeridian(code));
+        }
+        for (final String code : codes(GeodeticDatum.class)) {
+            final GeodeticDatum copy = roundtrip(GeodeticDatum.class, epsg.createGeodeticDatum(code));
+            assertNotNull(copy.getEllipsoid());
+            assertNotNull(copy.getPrimeMeridian());
+        }
+    }
+
+    /**
+     * Tests the encoding of all axes and coordinate systems known to {@link PseudoEpsgFactory}.
+     *
+     * @throws IOException if an error occurred while encoding or decoding an object.
+     * @throws FactoryException if an error occurred while creating an object.
+     */
+    @Test
+    public void testCoordinateSystems() throws IOException, FactoryException {
+        for (final String code : codes(CoordinateSystemAxis.class)) {
+            roundtrip(CoordinateSystemAxis.class, epsg.createCoordinateSystemAxis(code));
+        }
+        for (final String code : codes(EllipsoidalCS.class)) {
+            verifyAxes(epsg.createEllipsoidalCS(code));
+        }
+        for (final String code : codes(CartesianCS.class)) {
+            verifyAxes(epsg.createCartesianCS(code));
+        }
+    }
+
+    /**
+     * Tests the encoding of geographic CRS. Verifies that the datum is written only once
+     * when many CRS share the same datum.
+     *
+     * @throws IOException if an error occurred while encoding or decoding an object.
+     * @throws FactoryException if an error occurred while creating an object.
+     */
+    @Test
+    public void testGeographicCRS() throws IOException, FactoryException {
+        for (final String code : codes(GeographicCRS.class)) {
+            final GeographicCRS copy = roundtrip(GeographicCRS.class, epsg.createGeographicCRS(code));
+            assertEquals(2, copy.getCoordinateSystem().getDimension());
+        }
+        final GeographicCRS crs = epsg.createGeographicCRS("4326");
+        final GeodeticDatum datum = crs.getDatum();
+        final int datumLength = encode(datum).length;
+        final int crsLength = encode(crs).length;
+        final GeographicCRS other = factory.createGeographicCRS(Collections.singletonMap(
+                IdentifiedObject.NAME_KEY, "Other"), datum, crs.getCoordinateSystem());
+        final GeographicCRS copy = roundtrip(GeographicCRS.class, other);
+        assertTrue("Datum shall be written once.", encode(other).length < crsLength + datumLength / 2);
+        assertEquals(datum.getEllipsoid().getSemiMajorAxis(), copy.getDatum().getEllipsoid().getSemiMajorAxis(), 0);
+    }
+
+    /**
+     * Tests the encoding of projected CRS using all conversion parameters known to {@link PseudoEpsgFactory}.
+     *
+     * @throws IOException if an error occurred while encoding or decoding an object.
+     * @throws FactoryException if an error occurred while creating an object.
+     */
+    @Test
+    public void testProjectedCRS() throws IOException, FactoryException {
+        final GeographicCRS base = epsg.createGeographicCRS("4326");
+        final CartesianCS cs = factory.createCartesianCS(name("Cartesian CS"),
+                factory.createCoordinateSystemAxis(name("Easting"),  "E", AxisDirection.EAST,  METRE),
+                factory.createCoordinateSystemAxis(name("Northing"), "N", AxisDirection.NORTH, METRE));
+        for (final int code : new int[] {19905, 19884, 3856, 310642901, 19958, 19916, 17529, 19975, 19910, 14204,
+                                         6198, 19902, 19986, 16061, 19993, 19983, 19914, 9818, 9840, 19952, 9605})
+        {
+            final ParameterValueGroup parameters = epsg.parameters(code);
+            final String method = parameters.getDescriptor().getName().getCode();
+            final Conversion conversion = factory.createDefiningConversion(name("Conversion " + code),
+                    factory.getOperationMethod(method), parameters);
+            final ProjectedCRS source = factory.createProjectedCRS(name("CRS " + code), base, conversion, cs);
+            final ProjectedCRS copy = roundtrip(ProjectedCRS.class, source);
+            assertEquals(method, copy.getConversionFromBase().getMethod().getName().getCode());
+            final ParameterValueGroup actual = copy.getConversionFromBase().getParameterValues();
+            for (final GeneralParameterValue p : parameters.values()) {
+                final ParameterValue<?> expected = (ParameterValue<?>) p;
+                assertEquals(expected.getValue(), actual.parameter(expected.getDescriptor().getName().getCode()).getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns properties map containing only the given name.
+     */
+    private static Map<String,Object> name(final String name) {
+        return Collections.singletonMap(IdentifiedObject.NAME_KEY, name);
+    }
+}
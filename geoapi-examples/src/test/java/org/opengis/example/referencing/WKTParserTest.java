@@ -0,0 +1,131 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import org.opengis.util.FactoryException;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.test.wkt.CRSParserTest;
+import org.opengis.test.wkt.CRSParserBenchmark;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link org.opengis.referencing.wkt.WKTParser} through {@link SimpleObjectFactory#createFromWKT(String)}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+@RunWith(JUnit4.class)
+public strictfp class WKTParserTest extends CRSParserTest {
+    /**
+     * Creates a new test case using a {@link SimpleObjectFactory}.
+     */
+    public WKTParserTest() {
+        super(new SimpleObjectFactory());
+    }
+
+    /**
+     * Tests the parsing of WKT 1 math transforms by {@link SimpleTransformFactory#createFromWKT(String)}.
+     *
+     * @throws FactoryException if an error occurred during the WKT parsing.
+     * @throws TransformException if an error occurred while transforming the test point.
+     */
+    @Test
+    public void testMathTransform() throws FactoryException, TransformException {
+        final MathTransform tr = new SimpleTransformFactory().createFromWKT(
+                "INVERSE_MT[PARAM_MT[\"Affine\",\n" +
+                "  PARAMETER[\"num_row\",3],\n" +
+                "  PARAMETER[\"num_col\",3],\n" +
+                "  PARAMETER[\"elt_0_0\",2],\n" +
+                "  PARAMETER[\"elt_0_2\",5.0E+2],\n" +
+                "  PARAMETER[\"elt_1_1\",-0.25]]]");
+        final double[] point = {502, -1};
+        tr.transform(point, 0, point, 0, 1);
+        assertEquals(1, point[0], 0);
+        assertEquals(4, point[1], 0);
+    }
+
+    /**
+     * Verifies that components appearing in many WKT strings are parsed once and shared.
+     *
+     * @throws FactoryException if an error occurred during the WKT parsing.
+     */
+    @Test
+    public void testSharedComponents() throws FactoryException {
+        final List<String> corpus = CRSParserBenchmark.getDefaultCorpus();
+        ProjectedCRS first = null;
+        String firstWKT = null;
+        for (final String wkt : corpus) {
+            if (wkt.startsWith("PROJCRS[\"WGS 84 / UTM zone")) {
+                final ProjectedCRS crs = (ProjectedCRS) crsFactory.createFromWKT(wkt);
+                if (first == null) {
+                    first = crs;
+                    firstWKT = wkt;
+                } else {
+                    assertNotSame(first, crs);
+                    assertSame("baseCRS", first.getBaseCRS(), crs.getBaseCRS());
+                    assertSame("coordinateSystem", first.getCoordinateSystem(), crs.getCoordinateSystem());
+                }
+            }
+        }
+        assertNotNull(first);
+        assertSame(first, crsFactory.createFromWKT(firstWKT));
+    }
+
+    /**
+     * Verifies that parsing errors are reported with the position of the error.
+     */
+    @Test
+    public void testParseError() {
+        try {
+            crsFactory.createFromWKT("VERTCRS[\"MSL height\", VDATUM[\"Mean Sea Level\"] CS[vertical,1]]");
+            fail("Missing separator shall be reported.");
+        } catch (FactoryException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("index 47"));
+        }
+    }
+
+    /**
+     * Runs {@link CRSParserBenchmark} on its default corpus of EPSG definitions.
+     *
+     * @throws FactoryException if an error occurred during the WKT parsing.
+     */
+    @Test
+    public void testBenchmark() throws FactoryException {
+        final List<String> corpus = CRSParserBenchmark.getDefaultCorpus();
+        final CRSParserBenchmark.Result result = new CRSParserBenchmark(new SimpleObjectFactory(), corpus).measure(3);
+        assertEquals(3 * corpus.size(), result.getNumTexts());
+        assertTrue(result.getElapsedTime() > 0);
+        assertTrue(result.getTextsPerSecond() > 0);
+        assertNotNull(result.toString());
+    }
+
+    /**
+     * Verifies that all WKT strings of the benchmark corpus can be parsed.
+     *
+     * @throws FactoryException if an error occurred during the WKT parsing.
+     */
+    @Test
+    public void testCorpus() throws FactoryException {
+        for (final String wkt : CRSParserBenchmark.getDefaultCorpus()) {
+            final CoordinateReferenceSystem crs = crsFactory.createFromWKT(wkt);
+            assertTrue(wkt, wkt.contains('"' + crs.getName().getCode() + '"'));
+            assertFalse(wkt, crs.getIdentifiers().isEmpty());
+        }
+    }
+}
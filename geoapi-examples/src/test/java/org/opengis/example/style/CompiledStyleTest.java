@@ -0,0 +1,184 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.lang.reflect.Proxy;
+
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterVisitor;
+import org.opengis.style.Rule;
+import org.opengis.style.Style;
+import org.opengis.style.Symbolizer;
+import org.opengis.style.FeatureTypeStyle;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link CompiledStyle} and {@link StyleCache}. Styles are created by {@link Proxy},
+ * and features are {@link Map} instances with a {@code "type"} entry.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class CompiledStyleTest {
+    /**
+     * Number of filter evaluations since the beginning of the test.
+     */
+    private int evaluationCount;
+
+    /**
+     * Creates a proxy implementing the given interface, where each method returns the value
+     * associated to the method name in the given map.
+     */
+    private static <T> T proxy(final Class<T> type, final Map<String,Object> values) {
+        return type.cast(Proxy.newProxyInstance(CompiledStyleTest.class.getClassLoader(), new Class<?>[] {type},
+                (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode": return System.identityHashCode(p);
+                        case "equals":   return p == args[0];
+                        case "toString": return String.valueOf(values.get("getName"));
+                        default:         return values.get(method.getName());
+                    }
+                }));
+    }
+
+    /**
+     * Creates a symbolizer of the given name.
+     */
+    private static Symbolizer symbolizer(final String name) {
+        return proxy(Symbolizer.class, Collections.singletonMap("getName", name));
+    }
+
+    /**
+     * Creates a rule with the given filter and scale range.
+     */
+    private static Rule rule(final Filter filter, final boolean isElse, final double min, final double max,
+                             final Symbolizer... symbolizers)
+    {
+        final Map<String,Object> values = new HashMap<>();
+        values.put("getFilter", filter);
+        values.put("isElseFilter", isElse);
+        values.put("getMinScaleDenominator", min);
+        values.put("getMaxScaleDenominator", max);
+        values.put("symbolizers", Arrays.asList(symbolizers));
+        return proxy(Rule.class, values);
+    }
+
+    /**
+     * Creates a style with a single feature type style containing the given rules.
+     */
+    private static Style style(final List<Rule> rules) {
+        final FeatureTypeStyle fts = proxy(FeatureTypeStyle.class, Collections.singletonMap("rules", rules));
+        return proxy(Style.class, Collections.singletonMap("featureTypeStyles", Collections.singletonList(fts)));
+    }
+
+    /**
+     * Creates a filter accepting features of the given type, and counting the number of evaluations.
+     */
+    private Filter type(final String type) {
+        return new Filter() {
+            @Override public boolean evaluate(final Object feature) {
+                evaluationCount++;
+                return type.equals(((Map<?,?>) feature).get("type"));
+            }
+            @Override public Object accept(FilterVisitor visitor, Object extraData) {
+                return extraData;
+            }
+        };
+    }
+
+    /**
+     * Creates a feature of the given type.
+     */
+    private static Map<String,Object> feature(final String type) {
+        return Collections.singletonMap("type", type);
+    }
+
+    /**
+     * Returns the names of the given symbolizers.
+     */
+    private static List<String> names(final List<Symbolizer> symbolizers) {
+        final List<String> names = new ArrayList<>();
+        for (final Symbolizer s : symbolizers) {
+            names.add(s.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Tests rule selection by scale and filter, including "else" rules
+     * and rules sharing the same filter.
+     */
+    @Test
+    public void testSymbolizers() {
+        final Filter road = type("road");
+        final Style style = style(Arrays.asList(
+                rule(road,           false, 0,     50000, symbolizer("road-casing")),
+                rule(road,           false, 0,     50000, symbolizer("road-fill")),
+                rule(road,           false, 50000, Double.POSITIVE_INFINITY, symbolizer("road-thin")),
+                rule(type("river"),  false, 0,     Double.POSITIVE_INFINITY, symbolizer("river")),
+                rule(Filter.INCLUDE, false, 0,     10000, symbolizer("label")),
+                rule(null,           true,  0,     Double.POSITIVE_INFINITY, symbolizer("other"))));
+        final CompiledStyle compiled = new CompiledStyle(style);
+
+        assertEquals(Arrays.asList("road-casing", "road-fill", "label"), names(compiled.symbolizers(feature("road"), 5000)));
+        assertEquals(Arrays.asList("road-casing", "road-fill"), names(compiled.symbolizers(feature("road"), 10000)));
+        assertEquals(Arrays.asList("road-thin"), names(compiled.symbolizers(feature("road"), 50000)));
+        assertEquals(Arrays.asList("river"),     names(compiled.symbolizers(feature("river"), 1E6)));
+        assertEquals(Arrays.asList("other"),     names(compiled.symbolizers(feature("rail"), 20000)));
+        assertEquals(Arrays.asList("label"),     names(compiled.symbolizers(feature("rail"), 1000)));
+
+        evaluationCount = 0;
+        compiled.symbolizers(feature("road"), 20000);
+        assertEquals("Each distinct filter shall be evaluated once.", 2, evaluationCount);
+        assertTrue(compiled.isVisible(1E9));
+    }
+
+    /**
+     * Tests a style with no rule at some scales.
+     */
+    @Test
+    public void testInvisibleScales() {
+        final CompiledStyle compiled = new CompiledStyle(style(Collections.singletonList(
+                rule(null, false, 1000, 20000, symbolizer("point")))));
+        assertFalse(compiled.isVisible(999));
+        assertTrue (compiled.isVisible(1000));
+        assertFalse(compiled.isVisible(20000));
+        assertTrue (compiled.symbolizers(feature("any"), 100).isEmpty());
+    }
+
+    /**
+     * Tests the detection of style changes by {@link StyleCache}.
+     */
+    @Test
+    public void testCache() {
+        final List<Rule> rules = new ArrayList<>();
+        rules.add(rule(null, false, 0, Double.POSITIVE_INFINITY, symbolizer("first")));
+        final Style style = style(rules);
+        final StyleCache cache = new StyleCache();
+        final CompiledStyle compiled = cache.get(style);
+        assertSame(compiled, cache.get(style));
+
+        rules.add(rule(null, false, 0, Double.POSITIVE_INFINITY, symbolizer("second")));
+        final CompiledStyle modified = cache.get(style);
+        assertNotSame(compiled, modified);
+        assertEquals(Arrays.asList("first", "second"), names(modified.symbolizers(feature("any"), 1)));
+
+        cache.invalidate(style);
+        assertNotSame(modified, cache.get(style));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.awt.Color;
+import java.lang.reflect.Proxy;
+
+import org.opengis.filter.expression.Add;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.ExpressionVisitor;
+import org.opengis.filter.expression.Function;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+import org.opengis.style.Fill;
+import org.opengis.style.Font;
+import org.opengis.style.LineSymbolizer;
+import org.opengis.style.PolygonSymbolizer;
+import org.opengis.style.Stroke;
+import org.opengis.style.StyleVisitor;
+import org.opengis.style.TextSymbolizer;
+import org.opengis.example.style.ResolvedSymbolizer.Property;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link CompiledSymbolizer} and {@link ExpressionClassifier}. Symbolizers and expressions are created by
+ * {@link Proxy}, and features are {@link Map} instances.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class CompiledSymbolizerTest {
+    /**
+     * Number of literal evaluations since the beginning of the test.
+     */
+    private final AtomicInteger literalEvaluations = new AtomicInteger();
+
+    /**
+     * Creates a proxy implementing the given interface, where each method returns the value associated
+     * to the method name in the given map. The {@code accept} method dispatches to the visitor method
+     * for the given interface, and the {@code evaluate} method invokes the {@code "evaluate"} value if
+     * it is a {@link java.util.function.Function}.
+     */
+    private static <T> T proxy(final Class<T> type, final Map<String,Object> values) {
+        return type.cast(Proxy.newProxyInstance(CompiledSymbolizerTest.class.getClassLoader(), new Class<?>[] {type},
+                (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode": return System.identityHashCode(p);
+                        case "equals":   return p == args[0];
+                        case "accept": {
+                            for (final Class<?> visitor : new Class<?>[] {StyleVisitor.class, ExpressionVisitor.class}) {
+                                if (visitor.isInstance(args[0])) {
+                                    return visitor.getMethod("visit", type, Object.class).invoke(args[0], p, args[1]);
+                                }
+                            }
+                            return null;
+                        }
+                        case "evaluate": {
+                            final Object value = values.get("evaluate");
+                            if (value instanceof java.util.function.Function<?,?>) {
+                                @SuppressWarnings("unchecked")
+                                final java.util.function.Function<Object,?> f = (java.util.function.Function<Object,?>) value;
+                                return f.apply(args[0]);
+                            }
+                            return value;
+                        }
+                        default: return values.get(method.getName());
+                    }
+                }));
+    }
+
+    /**
+     * Creates a map of a single entry, for brevity.
+     */
+    private static Map<String,Object> map(final String key, final Object value) {
+        final Map<String,Object> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+
+    /**
+     * Creates a literal which counts its evaluations.
+     */
+    private Literal literal(final Object value) {
+        final Map<String,Object> values = map("getValue", value);
+        values.put("evaluate", (java.util.function.Function<Object,Object>) (o) -> {
+            literalEvaluations.incrementAndGet();
+            return value;
+        });
+        return proxy(Literal.class, values);
+    }
+
+    /**
+     * Creates an expression for the value of the given property in {@link Map} features.
+     */
+    private static PropertyName property(final String name) {
+        final Map<String,Object> values = map("getPropertyName", name);
+        values.put("evaluate", (java.util.function.Function<Object,Object>) (f) -> ((Map<?,?>) f).get(name));
+        return proxy(PropertyName.class, values);
+    }
+
+    /**
+     * Creates a function of the given name, evaluated by the given lambda.
+     */
+    private static Function function(final String name, final java.util.function.Function<Object,Object> evaluator,
+                                     final Expression... parameters)
+    {
+        final Map<String,Object> values = map("getName", name);
+        values.put("getParameters", Arrays.asList(parameters));
+        values.put("evaluate", evaluator);
+        return proxy(Function.class, values);
+    }
+
+    /**
+     * Creates a stroke of the given color and width.
+     */
+    private Stroke stroke(final Expression color, final Expression width) {
+        final Map<String,Object> values = map("getColor", color);
+        values.put("getWidth", width);
+        values.put("getDashArray", new float[] {4, 2});
+        return proxy(Stroke.class, values);
+    }
+
+    /**
+     * Tests a symbolizer where all expressions are literals.
+     */
+    @Test
+    public void testConstant() {
+        final LineSymbolizer symbolizer = proxy(LineSymbolizer.class,
+                map("getStroke", stroke(literal("#FF8000"), literal(2.5))));
+        final CompiledSymbolizer compiled = new CompiledSymbolizer(symbolizer);
+        assertEquals(Variability.CONSTANT, compiled.getVariability());
+        assertEquals(2, literalEvaluations.get());
+
+        final ResolvedSymbolizer resolved = compiled.resolve(Collections.emptyMap());
+        assertSame(resolved, compiled.resolve(Collections.emptyMap()));
+        assertSame(symbolizer, resolved.getSymbolizer());
+        assertEquals(new Color(0xFF8000), resolved.getColor(Property.STROKE_COLOR));
+        assertEquals(2.5, resolved.getDouble(Property.STROKE_WIDTH, 1), 0);
+        assertEquals(1.0, resolved.getDouble(Property.STROKE_OPACITY, 1), 0);
+        assertArrayEquals(new float[] {4, 2}, (float[]) resolved.get(Property.STROKE_DASH_ARRAY), 0);
+        assertEquals("Literals shall not be evaluated for each feature.", 2, literalEvaluations.get());
+    }
+
+    /**
+     * Tests a symbolizer with a fill color taken from a feature property.
+     */
+    @Test
+    public void testPerFeature() {
+        final Map<String,Object> values = new HashMap<>();
+        values.put("getFill", proxy(Fill.class, map("getColor", property("color"))));
+        values.put("getStroke", stroke(literal("#000000"), literal(1)));
+        final CompiledSymbolizer compiled = new CompiledSymbolizer(proxy(PolygonSymbolizer.class, values));
+        assertEquals(Variability.PER_FEATURE, compiled.getVariability());
+        assertSame(compiled, compiled.forRender(null));
+        final int count = literalEvaluations.get();
+
+        final ResolvedSymbolizer red  = compiled.resolve(map("color", "#FF0000"));
+        final ResolvedSymbolizer blue = compiled.resolve(map("color", "#0000FF"));
+        assertEquals(Color.RED,   red .getColor(Property.FILL_COLOR));
+        assertEquals(Color.BLUE,  blue.getColor(Property.FILL_COLOR));
+        assertEquals(Color.BLACK, blue.getColor(Property.STROKE_COLOR));
+        assertEquals(red, compiled.resolve(map("color", "#FF0000")));
+        assertNotEquals(red, blue);
+        assertEquals(count, literalEvaluations.get());
+    }
+
+    /**
+     * Tests a text symbolizer with a font size depending on the rendering context.
+     */
+    @Test
+    public void testPerRender() {
+        final Function env = function("env", (context) -> ((Map<?,?>) context).get("size"), literal("size"));
+        final Map<String,Object> values = new HashMap<>();
+        values.put("getLabel", property("name"));
+        values.put("getFont", proxy(Font.class, map("getSize", env)));
+        final CompiledSymbolizer compiled = new CompiledSymbolizer(proxy(TextSymbolizer.class, values));
+        assertEquals(Variability.PER_FEATURE, compiled.getVariability());
+
+        final CompiledSymbolizer prepared = compiled.forRender(map("size", 12));
+        assertEquals(Variability.PER_FEATURE, prepared.getVariability());
+        final ResolvedSymbolizer resolved = prepared.resolve(map("name", "Rhône"));
+        assertEquals("Rhône", resolved.getString(Property.LABEL));
+        assertEquals(12, resolved.getDouble(Property.FONT_SIZE, 10), 0);
+    }
+
+    /**
+     * Tests {@link ExpressionClassifier#classify(Expression)}.
+     */
+    @Test
+    public void testClassify() {
+        final Map<String,Object> values = map("getExpression1", literal(1));
+        values.put("getExpression2", property("width"));
+        assertEquals(Variability.PER_FEATURE, ExpressionClassifier.classify(proxy(Add.class, values)));
+        assertEquals(Variability.CONSTANT,    ExpressionClassifier.classify(literal(1)));
+        assertEquals(Variability.CONSTANT,    ExpressionClassifier.classify(null));
+        assertEquals(Variability.CONSTANT,    ExpressionClassifier.classify(function("Categorize", null, literal(1), literal("#000000"))));
+        assertEquals(Variability.PER_RENDER,  ExpressionClassifier.classify(function("env", null, literal("size"))));
+        assertEquals(Variability.PER_FEATURE, ExpressionClassifier.classify(function("Categorize", null, property("p"), literal("#000000"))));
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.style;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.lang.reflect.Proxy;
+
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Function;
+import org.opengis.filter.expression.Literal;
+import org.opengis.style.ColorMap;
+import org.opengis.style.ContrastEnhancement;
+import org.opengis.style.ContrastMethod;
+import org.opengis.style.RasterSymbolizer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link RasterColorizer}. Symbolizers are created by {@link Proxy}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class RasterColorizerTest {
+    /**
+     * Creates a proxy implementing the given interface, where each method returns the value
+     * associated to the method name in the given map.
+     */
+    private static <T> T proxy(final Class<T> type, final Map<String,Object> values) {
+        return type.cast(Proxy.newProxyInstance(RasterColorizerTest.class.getClassLoader(), new Class<?>[] {type},
+                (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode": return System.identityHashCode(p);
+                        case "equals":   return p == args[0];
+                        default:         return values.get(method.getName());
+                    }
+                }));
+    }
+
+    /**
+     * Creates a literal for the given value.
+     */
+    private static Literal literal(final Object value) {
+        final Map<String,Object> values = new HashMap<>();
+        values.put("getValue", value);
+        values.put("evaluate", value);
+        return proxy(Literal.class, values);
+    }
+
+    /**
+     * Creates a symbolizer with a color map function of the given name and parameters
+     * (excluding the lookup value), and the given contrast enhancement.
+     */
+    private static RasterSymbolizer symbolizer(final String name, final ContrastMethod method,
+                                               final double gamma, final Object... parameters)
+    {
+        final Map<String,Object> values = new HashMap<>();
+        if (name != null) {
+            final List<Expression> expressions = new ArrayList<>();
+            expressions.add(literal("Rasterdata"));
+            for (final Object p : parameters) {
+                expressions.add(literal(p));
+            }
+            final Map<String,Object> function = new HashMap<>();
+            function.put("getName", name);
+            function.put("getParameters", expressions);
+            values.put("getColorMap", proxy(ColorMap.class,
+                    Collections.singletonMap("getFunction", proxy(Function.class, function))));
+        }
+        if (method != null) {
+            final Map<String,Object> enhancement = new HashMap<>();
+            enhancement.put("getMethod", method);
+            enhancement.put("getGammaValue", literal(gamma));
+            values.put("getContrastEnhancement", proxy(ContrastEnhancement.class, enhancement));
+        }
+        return proxy(RasterSymbolizer.class, values);
+    }
+
+    /**
+     * Creates a raster of the given type with the given values in a single row.
+     */
+    private static Raster raster(final int dataType, final double... values) {
+        final WritableRaster raster = Raster.createWritableRaster(new BandedSampleModel(dataType, values.length, 1, 1), null);
+        raster.setSamples(0, 0, values.length, 1, 0, values);
+        return raster;
+    }
+
+    /**
+     * Colorizes the given raster.
+     */
+    private static int[] colorize(final RasterColorizer colorizer, final Raster raster) {
+        final int[] argb = new int[raster.getWidth() * raster.getHeight()];
+        colorizer.colorize(raster, argb);
+        return argb;
+    }
+
+    /**
+     * Tests the {@code "Categorize"} function on integer values, which uses a lookup table.
+     */
+    @Test
+    public void testCategorize() {
+        final RasterColorizer colorizer = new RasterColorizer(symbolizer("Categorize", null, 1,
+                "#0000FF", 10, "#00FF00", 20, "#80FF0000"));
+        assertArrayEquals(new int[] {0xFF0000FF, 0xFF0000FF, 0xFF00FF00, 0xFF00FF00, 0x80FF0000, 0x80FF0000},
+                colorize(colorizer, raster(DataBuffer.TYPE_BYTE, 0, 9, 10, 19, 20, 255)));
+        assertEquals(0xFF0000FF, colorizer.getColor(9.5));
+    }
+
+    /**
+     * Tests the {@code "Interpolate"} function on floating point values, including NaN.
+     */
+    @Test
+    public void testInterpolate() {
+        final RasterColorizer colorizer = new RasterColorizer(symbolizer("Interpolate", null, 1,
+                -10, "#000000", 10, "#FF0064", "color", "linear"));
+        assertArrayEquals(new int[] {0xFF000000, 0xFF000000, 0xFF800032, 0xFFFF0064, 0xFFFF0064, 0},
+                colorize(colorizer, raster(DataBuffer.TYPE_FLOAT, -20, -10, 0, 10, 1000, Double.NaN)));
+    }
+
+    /**
+     * Verifies that the lookup table used for integer rasters gives the same result
+     * than the direct evaluation used for floating point rasters.
+     */
+    @Test
+    public void testTableConsistency() {
+        final Random random = new Random(5297);
+        final double[] values = new double[5000];
+        for (int i=0; i<values.length; i++) {
+            values[i] = random.nextInt(3000);
+        }
+        for (final ContrastMethod method : new ContrastMethod[] {null, ContrastMethod.NORMALIZE, ContrastMethod.HISTOGRAM}) {
+            final RasterColorizer colorizer = new RasterColorizer(symbolizer("Interpolate", method, 0.5,
+                    0, "#000000", 1000, "#40FF8000", 3000, "#FFFFFF"));
+            assertArrayEquals(String.valueOf(method),
+                    colorize(colorizer, raster(DataBuffer.TYPE_DOUBLE, values)),
+                    colorize(colorizer, raster(DataBuffer.TYPE_USHORT, values)));
+        }
+    }
+
+    /**
+     * Tests contrast enhancement without color map, which produces gray levels.
+     */
+    @Test
+    public void testNormalize() {
+        final RasterColorizer colorizer = new RasterColorizer(symbolizer(null, ContrastMethod.NORMALIZE, 1));
+        assertArrayEquals(new int[] {0xFF000000, 0xFF808080, 0xFFFFFFFF},
+                colorize(colorizer, raster(DataBuffer.TYPE_USHORT, 1000, 1500, 2000)));
+    }
+
+    /**
+     * Tests the {@code "Categorize"} function with explicit fallback values.
+     */
+    @Test
+    public void testCategorizeFallback() {
+        RasterColorizer colorizer = new RasterColorizer(symbolizer("Categorize", null, 1,
+                "#0000FF", 10, "#00FF00", "preceding"));
+        assertEquals(0xFF0000FF, colorizer.getColor(10));
+        colorizer = new RasterColorizer(symbolizer("Categorize", null, 1,
+                "#0000FF", 10, "#00FF00", "Succeeding"));
+        assertEquals(0xFF00FF00, colorizer.getColor(10));
+        try {
+            new RasterColorizer(symbolizer("Categorize", null, 1, "#0000FF", 10, "#00FF00", "following"));
+            fail("Unknown fallback value shall be rejected.");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("following"));
+        }
+    }
+
+    /**
+     * Verifies that the lookup tables built for unsigned integer types are used for small rasters,
+     * and give the same colors than the direct evaluation.
+     */
+    @Test
+    public void testUnsignedTable() {
+        final RasterColorizer colorizer = new RasterColorizer(symbolizer("Interpolate", null, 1,
+                0, "#000000", 1000, "#FF8000", 60000, "#FFFFFF"));
+        final double[] values = {0, 1, 999, 1000, 30000, 65535};
+        final int[] expected = new int[values.length];
+        for (int i=0; i<values.length; i++) {
+            expected[i] = colorizer.getColor(values[i]);
+        }
+        assertArrayEquals(expected, colorize(colorizer, raster(DataBuffer.TYPE_USHORT, values)));
+        assertArrayEquals(expected, colorize(colorizer, raster(DataBuffer.TYPE_DOUBLE, values)));
+        final double[] bytes = {0, 1, 127, 255};
+        final int[] expectedBytes = new int[bytes.length];
+        for (int i=0; i<bytes.length; i++) {
+            expectedBytes[i] = colorizer.getColor(bytes[i]);
+        }
+        assertArrayEquals(expectedBytes, colorize(colorizer, raster(DataBuffer.TYPE_BYTE, bytes)));
+    }
+
+    /**
+     * Runs {@link RasterColorizerBenchmark} on a small raster for verifying that it works.
+     */
+    @Test
+    public void testBenchmark() {
+        final RasterColorizer colorizer = new RasterColorizer(symbolizer("Interpolate", null, 1,
+                0, "#000000", 1000, "#FF8000", 2000, "#FFFFFF"));
+        for (final int dataType : new int[] {DataBuffer.TYPE_USHORT, DataBuffer.TYPE_FLOAT}) {
+            final RasterColorizerBenchmark benchmark = new RasterColorizerBenchmark(
+                    colorizer, dataType, 64, 32, 2000, new Random(4096));
+            final RasterColorizerBenchmark.Result result = benchmark.measure(2);
+            assertEquals(2 * 64 * 32, result.getNumPixels());
+            assertTrue(result.getPixelsPerSecond() > 0);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.temporal;
+
+import java.util.Date;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.opengis.temporal.RelativePosition;
+import org.opengis.temporal.TemporalPrimitive;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link SimplePeriod}, {@link SimpleInstant} and {@link PeriodArray}.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class SimplePeriodTest {
+    /**
+     * Tests the relative positions between periods and instants for all cases defined by ISO 19108.
+     */
+    @Test
+    public void testRelativePosition() {
+        final SimplePeriod p = new SimplePeriod(10, 20);
+        assertEquals(RelativePosition.BEFORE,        new SimplePeriod( 0,  5).relativePosition(p));
+        assertEquals(RelativePosition.AFTER,         new SimplePeriod(25, 30).relativePosition(p));
+        assertEquals(RelativePosition.MEETS,         new SimplePeriod( 0, 10).relativePosition(p));
+        assertEquals(RelativePosition.MET_BY,        new SimplePeriod(20, 30).relativePosition(p));
+        assertEquals(RelativePosition.OVERLAPS,      new SimplePeriod( 5, 15).relativePosition(p));
+        assertEquals(RelativePosition.OVERLAPPED_BY, new SimplePeriod(15, 25).relativePosition(p));
+        assertEquals(RelativePosition.BEGINS,        new SimplePeriod(10, 15).relativePosition(p));
+        assertEquals(RelativePosition.BEGUN_BY,      new SimplePeriod(10, 25).relativePosition(p));
+        assertEquals(RelativePosition.ENDS,          new SimplePeriod(15, 20).relativePosition(p));
+        assertEquals(RelativePosition.ENDED_BY,      new SimplePeriod( 5, 20).relativePosition(p));
+        assertEquals(RelativePosition.DURING,        new SimplePeriod(12, 18).relativePosition(p));
+        assertEquals(RelativePosition.CONTAINS,      new SimplePeriod( 5, 25).relativePosition(p));
+        assertEquals(RelativePosition.EQUALS,        new SimplePeriod(10, 20).relativePosition(p));
+
+        assertEquals(RelativePosition.BEGINS,        new SimpleInstant(10).relativePosition(p));
+        assertEquals(RelativePosition.DURING,        new SimpleInstant(15).relativePosition(p));
+        assertEquals(RelativePosition.ENDS,          new SimpleInstant(20).relativePosition(p));
+        assertEquals(RelativePosition.BEFORE,        new SimpleInstant( 9).relativePosition(p));
+        assertEquals(RelativePosition.BEGUN_BY,      p.relativePosition(new SimpleInstant(10)));
+        assertEquals(RelativePosition.CONTAINS,      p.relativePosition(new SimpleInstant(15)));
+        assertEquals(RelativePosition.ENDED_BY,      p.relativePosition(new SimpleInstant(20)));
+        assertEquals(RelativePosition.AFTER,         p.relativePosition(new SimpleInstant( 9)));
+        assertEquals(RelativePosition.EQUALS,        new SimpleInstant(7).relativePosition(new SimpleInstant(7)));
+        assertEquals(RelativePosition.BEFORE,        new SimpleInstant(6).relativePosition(new SimpleInstant(7)));
+    }
+
+    /**
+     * Tests conversions from and to {@link Date}.
+     */
+    @Test
+    public void testDate() {
+        final Date date = new Date(1500000000123L);
+        final SimpleInstant instant = SimpleInstant.of(date);
+        assertEquals(1500000000123000000L, instant.getEpochNanos());
+        assertEquals(date, instant.getDate());
+        assertEquals(date, new SimpleInstant(1500000000123999999L).getDate());
+        assertEquals("2017-07-14T02:40:00.123Z", instant.toString());
+        assertEquals(new SimpleDuration(5), new SimplePeriod(10, 15).length());
+        assertEquals(new SimpleDuration(3), new SimplePeriod(10, 15).distance(new SimpleInstant(18)));
+    }
+
+    /**
+     * Compares the bulk evaluation of {@link PeriodArray} with evaluations of individual periods.
+     */
+    @Test
+    public void testPeriodArray() {
+        final Random random = new Random(720145);
+        final long[] begins = new long[1000];
+        final long[] ends   = new long[begins.length];
+        for (int i=0; i<begins.length; i++) {
+            begins[i] = random.nextInt(100);
+            ends[i] = begins[i] + (random.nextBoolean() ? 0 : random.nextInt(20));
+        }
+        final PeriodArray periods = new PeriodArray(begins, ends);
+        for (int n=0; n<20; n++) {
+            final long b = random.nextInt(100);
+            final TemporalPrimitive other = (n % 4 == 0) ? new SimpleInstant(b) : new SimplePeriod(b, b + random.nextInt(20));
+            final RelativePosition[] positions = periods.relativePositions(other);
+            final BitSet during = periods.select(RelativePosition.DURING, other);
+            for (int i=0; i<positions.length; i++) {
+                final RelativePosition expected = periods.get(i).relativePosition(other);
+                assertEquals(expected, positions[i]);
+                assertEquals(expected == RelativePosition.DURING, during.get(i));
+            }
+        }
+    }
+
+    /**
+     * Tests the creation of instants and periods through {@link SimpleTemporalFactory}.
+     */
+    @Test
+    public void testFactory() {
+        final SimpleTemporalFactory factory = new SimpleTemporalFactory();
+        final SimpleInstant begin = factory.createInstant(new Date(1000));
+        final SimpleInstant end   = factory.createInstant(new Date(3000));
+        assertEquals(1000000000L, begin.getEpochNanos());
+        final SimplePeriod period = factory.createPeriod(begin, end);
+        assertEquals(1000000000L, period.getBeginNanos());
+        assertEquals(3000000000L, period.getEndNanos());
+        assertEquals(RelativePosition.MEETS, new SimplePeriod(0, 1000000000L).relativePosition(period));
+    }
+}
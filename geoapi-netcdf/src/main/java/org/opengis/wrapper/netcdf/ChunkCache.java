@@ -0,0 +1,180 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+
+/**
+ * A cache of decoded netCDF chunks, shared by all {@link NetcdfGridCoverage} instances given the same cache.
+ * Chunks are arrays of unpacked {@code double} values. The cache retains the most recently used chunks up to
+ * a given amount of memory, and discards the least recently used chunks when that amount is exceeded.
+ *
+ * <p>This class is thread-safe. Chunks are decoded outside the lock, so threads reading different chunks
+ * do not block each other. If two threads decode the same chunk concurrently, only the first result is
+ * retained and both threads receive it.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public final class ChunkCache {
+    /**
+     * Identifies a chunk in a particular coverage.
+     */
+    static final class Key {
+        /** The coverage which owns the chunk. Compared by identity. */
+        private final Object owner;
+
+        /** Index of the chunk in the coverage. */
+        private final long index;
+
+        /** Creates a new key for the given chunk. */
+        Key(final Object owner, final long index) {
+            this.owner = owner;
+            this.index = index;
+        }
+
+        /** Returns a hash code value for this key. */
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(owner) + 31 * Long.hashCode(index);
+        }
+
+        /** Compares this key with the given object for equality. */
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof Key) {
+                final Key other = (Key) obj;
+                return owner == other.owner && index == other.index;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The cached chunks, in order of access from the least recently used to the most recently used.
+     * All accesses shall be synchronized on this map.
+     */
+    private final LinkedHashMap<Key,double[]> chunks;
+
+    /**
+     * Maximal amount of memory, in bytes, to retain in this cache.
+     */
+    private final long capacity;
+
+    /**
+     * Amount of memory, in bytes, used by the chunks in this cache.
+     */
+    private long usage;
+
+    /**
+     * Number of requests which have been found in the cache, or which have not been found.
+     */
+    private long hits, misses;
+
+    /**
+     * Creates a new cache which will retain at most the given amount of memory.
+     * Note that the cache retains always at least the last chunk, even if it is larger than the capacity.
+     *
+     * @param  capacity  maximal amount of memory, in bytes, to retain in this cache.
+     * @throws IllegalArgumentException if the given capacity is negative.
+     */
+    public ChunkCache(final long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity shall be positive.");
+        }
+        this.capacity = capacity;
+        chunks = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the chunk for the given key, or {@code null} if it is not in the cache.
+     */
+    final double[] get(final Key key) {
+        synchronized (chunks) {
+            final double[] data = chunks.get(key);
+            if (data != null) hits++;
+            else misses++;
+            return data;
+        }
+    }
+
+    /**
+     * Adds the given chunk in the cache, unless another thread added a chunk for the same key in the meantime.
+     * Least recently used chunks are discarded if the memory usage exceeds the capacity.
+     *
+     * @return the chunk in the cache, which may be the given one or the one added by another thread.
+     */
+    final double[] put(final Key key, final double[] data) {
+        synchronized (chunks) {
+            final double[] existing = chunks.putIfAbsent(key, data);
+            if (existing != null) {
+                return existing;
+            }
+            usage += data.length * (long) Double.BYTES;
+            final Iterator<double[]> it = chunks.values().iterator();
+            while (usage > capacity && chunks.size() > 1) {
+                usage -= it.next().length * (long) Double.BYTES;
+                it.remove();
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Returns the amount of memory, in bytes, used by the chunks currently in this cache.
+     *
+     * @return current memory usage in bytes.
+     */
+    public long getUsage() {
+        synchronized (chunks) {
+            return usage;
+        }
+    }
+
+    /**
+     * Returns the number of chunk requests which have been found in the cache.
+     *
+     * @return number of cache hits since this cache creation.
+     */
+    public long getHitCount() {
+        synchronized (chunks) {
+            return hits;
+        }
+    }
+
+    /**
+     * Returns the number of chunk requests which have not been found in the cache.
+     * This is the number of chunks which had to be read from the netCDF file.
+     *
+     * @return number of cache misses since this cache creation.
+     */
+    public long getMissCount() {
+        synchronized (chunks) {
+            return misses;
+        }
+    }
+
+    /**
+     * Removes all chunks from this cache.
+     */
+    public void clear() {
+        synchronized (chunks) {
+            chunks.clear();
+            usage = 0;
+        }
+    }
+}
@@ -449,8 +449,10 @@ public class NetcdfCRS extends NetcdfIdentifiedObject implements CoordinateRefer
 
     /**
      * Returns the transform from grid coordinates to this CRS coordinates, or {@code null} if
-     * none. If this CRS is regular and two-dimensional, then the returned transform is also an
-     * instance of Java2D {@link java.awt.geom.AffineTransform}.
+     * none. The transform is created by the {@link MathTransformFactory} found on the classpath,
+     * or by a simple affine implementation if there is no such factory. If this CRS is regular
+     * and two-dimensional, then the returned transform may also be an instance of Java2D
+     * {@link java.awt.geom.AffineTransform}, depending on the factory.
     *
     * <p><b>Limitation</b><br>
      * Current implementation can build a transform only for regular coordinate systems.
@@ -497,8 +499,15 @@ public class NetcdfCRS extends NetcdfIdentifiedObject implements CoordinateRefer
             matrix.setElement(i, i, nice(scale));
             matrix.setElement(i, numDimensions, nice(axis.getStart()));
         }
+        final MathTransformFactory factory;
         try {
-            return Factories.getFactory(MathTransformFactory.class).createAffineTransform(matrix);
+            factory = Factories.getFactory(MathTransformFactory.class);
+        } catch (FactoryException e) {
+            // No factory on the classpath. Fallback on the simple implementation provided in this package.
+            return new SimpleAffineTransform(matrix);
+        }
+        try {
+            return factory.createAffineTransform(matrix);
         } catch (FactoryException e) {
             throw new IllegalStateException(e);
         }
@@ -0,0 +1,1180 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.io.IOException;
+import java.awt.image.renderable.RenderableImage;
+
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.IndexIterator;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.Attribute;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+import ucar.nc2.constants.AxisType;
+import ucar.nc2.constants.CDM;
+
+import org.opengis.coverage.AttributeValues;
+import org.opengis.coverage.CannotEvaluateException;
+import org.opengis.coverage.CommonPointRule;
+import org.opengis.coverage.Coverage;
+import org.opengis.coverage.DomainObject;
+import org.opengis.coverage.GeometryValuePair;
+import org.opengis.coverage.PointOutsideCoverageException;
+import org.opengis.coverage.grid.GridCell;
+import org.opengis.coverage.grid.GridCoordinates;
+import org.opengis.coverage.grid.FootPrint;
+import org.opengis.coverage.grid.Grid;
+import org.opengis.coverage.grid.GridEnvelope;
+import org.opengis.coverage.grid.GridPoint;
+import org.opengis.coverage.grid.GridValuesMatrix;
+import org.opengis.coverage.grid.SequenceRule;
+import org.opengis.coverage.grid.SequenceType;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.Geometry;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.geometry.primitive.Point;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.referencing.crs.CompoundCRS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.temporal.Period;
+import org.opengis.temporal.TemporalGeometricPrimitive;
+import org.opengis.util.Record;
+import org.opengis.util.RecordType;
+
+
+/**
+ * A {@link Coverage} implementation backed by a numeric netCDF {@link Variable}. Data are read in blocks
+ * aligned on the variable chunks (or on blocks of consecutive rows for netCDF-3 files, which are not chunked).
+ * Each block is unpacked once in an array of {@code double} values, with the {@code scale_factor} and
+ * {@code add_offset} attributes applied and the {@code _FillValue} and {@code missing_value} replaced by
+ * {@link Double#NaN}. Unpacked blocks are kept in a {@link ChunkCache}, which can be shared by many coverages.
+ *
+ * <p><b>Axis order</b><br>
+ * As in {@link NetcdfCRS}, the order of grid dimensions is reversed compared to the order of dimensions
+ * in the netCDF variable. For example a variable declared as {@code SST(lat, lon)} in netCDF has
+ * (<var>lon</var>, <var>lat</var>) grid coordinates.</p>
+ *
+ * <p><b>Restrictions</b><br>
+ * Current implementation has the following restrictions:</p>
+ * <ul>
+ *   <li><p>Values are evaluated at the nearest grid point. No interpolation is performed.</p></li>
+ *   <li><p>Only the evaluation and {@code find(…)} methods, the envelope, domain extents and common point
+ *       rule of the {@link Coverage} interface, and the grid extent, values and sequencing rule of the
+ *       {@link GridValuesMatrix} interface are implemented. Methods enumerating geometries, domain objects
+ *       or grid cells throw {@link UnsupportedOperationException}.</p></li>
+ * </ul>
+ *
+ * <p>Instances of this class are thread-safe. Reads from the netCDF file are synchronized on the
+ * {@link NetcdfFile} instance, since netCDF files do not support concurrent reads. The netCDF file
+ * is not closed by this class.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class NetcdfGridCoverage implements Coverage, GridValuesMatrix {
+    /**
+     * Number of elements in blocks read from netCDF files which are not chunked.
+     */
+    private static final int DEFAULT_CHUNK_LENGTH = 65536;
+
+    /**
+     * Maximal number of points to transform in a single call to {@link MathTransform#transform}.
+     */
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * The netCDF file which contains the variable. Used as a lock for reading data.
+     */
+    private final NetcdfFile file;
+
+    /**
+     * The netCDF variable from which to read data.
+     */
+    private final Variable variable;
+
+    /**
+     * The variable shape, in netCDF order.
+     */
+    private final int[] shape;
+
+    /**
+     * The size of chunks in each dimension, in netCDF order. Chunks at the end of each dimension may be smaller.
+     */
+    private final int[] chunkShape;
+
+    /**
+     * Number of chunks in each dimension, in netCDF order.
+     */
+    private final int[] chunkCounts;
+
+    /**
+     * The {@code scale_factor} and {@code add_offset} attribute values,
+     * or 1 and 0 respectively if the variable is not packed.
+     */
+    private final double scale, offset;
+
+    /**
+     * The {@code _FillValue} and {@code missing_value} attribute values, or {@code NaN} if none.
+     * Those values are in packed units.
+     */
+    private final double fillValue, missingValue;
+
+    /**
+     * The value to add to negative integers for interpreting them as unsigned, or 0 if values are signed.
+     */
+    private final double unsignedOffset;
+
+    /**
+     * The cache of unpacked chunks.
+     */
+    private final ChunkCache cache;
+
+    /**
+     * The coordinate reference system, or {@code null} if coordinates are grid coordinates.
+     */
+    private final NetcdfCRS crs;
+
+    /**
+     * The transform from CRS coordinates to grid coordinates, or {@code null} if none.
+     * This is {@code null} if the {@linkplain #crs} is null or not regular.
+     */
+    private final MathTransform crsToGrid;
+
+    /**
+     * The type of the records returned by {@link #getValues()}.
+     */
+    private final SampleRecord.Type rangeType;
+
+    /**
+     * Creates a new coverage for the given variable, using the chunks declared in the netCDF file.
+     *
+     * @param  file      the netCDF file which contains the variable.
+     * @param  variable  name of the numeric variable from which to read data.
+     * @param  crs       the coordinate reference system, or {@code null} if coordinates are grid coordinates.
+     * @param  cache     the cache of unpacked chunks, which may be shared with other coverages.
+     * @throws IllegalArgumentException if the variable is not found or is not numeric,
+     *         or if the CRS dimension does not match the variable rank.
+     */
+    public NetcdfGridCoverage(final NetcdfFile file, final String variable, final NetcdfCRS crs, final ChunkCache cache) {
+        this(file, variable, crs, cache, null);
+    }
+
+    /**
+     * Creates a new coverage for the given variable, reading data in blocks of the given size.
+     * A block size can be specified for netCDF-3 files, which are not chunked. For netCDF-4 files,
+     * the block size should be a multiple of the chunk size declared in the file.
+     *
+     * @param  file       the netCDF file which contains the variable.
+     * @param  variable   name of the numeric variable from which to read data.
+     * @param  crs        the coordinate reference system, or {@code null} if coordinates are grid coordinates.
+     * @param  cache      the cache of unpacked chunks, which may be shared with other coverages.
+     * @param  blockSize  number of grid cells in each block along each grid dimension, or {@code null} for the
+     *                    chunk size declared in the netCDF file.
+     * @throws IllegalArgumentException if the variable is not found or is not numeric,
+     *         or if the CRS dimension or block size length does not match the variable rank.
+     */
+    public NetcdfGridCoverage(final NetcdfFile file, final String variable, final NetcdfCRS crs,
+                              final ChunkCache cache, final int[] blockSize)
+    {
+        this.file     = file;
+        this.variable = file.findVariable(variable);
+        this.cache    = cache;
+        this.crs      = crs;
+        if (this.variable == null) {
+            throw new IllegalArgumentException("Variable \"" + variable + "\" not found.");
+        }
+        final DataType type = this.variable.getDataType();
+        if (!type.isNumeric()) {
+            throw new IllegalArgumentException("Variable \"" + variable + "\" is not numeric.");
+        }
+        shape = this.variable.getShape();
+        final int rank = shape.length;
+        if (rank == 0) {
+            throw new IllegalArgumentException("Variable \"" + variable + "\" is a scalar.");
+        }
+        if (blockSize != null) {
+            if (blockSize.length != rank) {
+                throw new MismatchedDimensionException("Block size shall have " + rank + " dimensions.");
+            }
+            chunkShape = new int[rank];
+            for (int i=0; i<rank; i++) {
+                final int d = rank - 1 - i;
+                chunkShape[d] = Math.max(1, Math.min(shape[d], blockSize[i]));
+            }
+        } else {
+            chunkShape = chunkShape(this.variable, shape);
+        }
+        chunkCounts = new int[rank];
+        for (int d=0; d<rank; d++) {
+            chunkCounts[d] = (shape[d] + chunkShape[d] - 1) / chunkShape[d];
+        }
+        scale        = numeric(this.variable, CDM.SCALE_FACTOR,  1);
+        offset       = numeric(this.variable, CDM.ADD_OFFSET,    0);
+        final Attribute unsigned = this.variable.findAttribute(CDM.UNSIGNED);
+        if (type.isIntegral() && unsigned != null && "true".equalsIgnoreCase(unsigned.getStringValue())) {
+            unsignedOffset = Math.scalb(1.0, Byte.SIZE * type.getSize());
+        } else {
+            unsignedOffset = 0;
+        }
+        fillValue    = toUnsigned(numeric(this.variable, CDM.FILL_VALUE,    Double.NaN));
+        missingValue = toUnsigned(numeric(this.variable, CDM.MISSING_VALUE, Double.NaN));
+        /*
+         * The grid to CRS transform can be computed only for regular grids.
+         * For other grids, evaluation at CRS coordinates is not supported.
+         */
+        MathTransform inverse = null;
+        if (crs != null) {
+            if (crs.getDimension() != rank) {
+                throw new MismatchedDimensionException("CRS shall have " + rank + " dimensions.");
+            }
+            final MathTransform gridToCRS = crs.getGridToCRS();
+            if (gridToCRS != null) try {
+                inverse = gridToCRS.inverse();
+            } catch (NoninvertibleTransformException e) {
+                throw new IllegalArgumentException("Grid to CRS transform is not invertible.", e);
+            }
+        }
+        crsToGrid = inverse;
+        rangeType = new SampleRecord.Type(this.variable.getShortName());
+    }
+
+    /**
+     * Returns the chunk shape declared in the netCDF file, or rows of at most
+     * {@value #DEFAULT_CHUNK_LENGTH} elements if the variable is not chunked.
+     */
+    private static int[] chunkShape(final Variable variable, final int[] shape) {
+        final int[] chunk = new int[shape.length];
+        final Attribute sizes = variable.findAttribute(CDM.CHUNK_SIZES);
+        if (sizes != null && !sizes.isString() && sizes.getLength() == shape.length) {
+            for (int d=0; d<shape.length; d++) {
+                chunk[d] = Math.max(1, Math.min(shape[d], sizes.getNumericValue(d).intValue()));
+            }
+        } else {
+            int remaining = DEFAULT_CHUNK_LENGTH;
+            for (int d=shape.length; --d >= 0;) {
+                chunk[d] = Math.max(1, Math.min(shape[d], remaining));
+                remaining = Math.max(1, remaining / chunk[d]);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns the value of the given numeric attribute, or the given fallback if none.
+     * Attributes stored as character strings are parsed, since some files store numbers that way.
+     */
+    private static double numeric(final Variable variable, final String name, final double fallback) {
+        final Attribute attribute = variable.findAttribute(name);
+        if (attribute != null) {
+            if (!attribute.isString()) {
+                final Number value = attribute.getNumericValue();
+                if (value != null) {
+                    return value.doubleValue();
+                }
+            } else try {
+                return Double.parseDouble(attribute.getStringValue().trim());
+            } catch (NumberFormatException e) {
+                // Ignore the malformed attribute, as netCDF-Java does.
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Interprets the given raw value as an unsigned integer if the variable is unsigned.
+     */
+    private double toUnsigned(final double value) {
+        return (value < 0) ? value + unsignedOffset : value;
+    }
+
+    /**
+     * Returns the unpacked values of the chunk at the given index, reading them from the file if needed.
+     * The returned array is shared and shall not be modified.
+     */
+    private double[] chunk(final long index) throws IOException {
+        final ChunkCache.Key key = new ChunkCache.Key(this, index);
+        double[] data = cache.get(key);
+        if (data == null) {
+            final int[] origin = new int[shape.length];
+            final int[] size   = new int[shape.length];
+            long r = index;
+            for (int d=shape.length; --d >= 0;) {
+                origin[d] = (int) (r % chunkCounts[d]) * chunkShape[d];
+                size  [d] = Math.min(chunkShape[d], shape[d] - origin[d]);
+                r /= chunkCounts[d];
+            }
+            final Array array;
+            synchronized (file) {
+                try {
+                    array = variable.read(origin, size);
+                } catch (InvalidRangeException e) {
+                    throw new IllegalStateException(e);             // Should never happen.
+                }
+            }
+            data = cache.put(key, unpack(array));
+        }
+        return data;
+    }
+
+    /**
+     * Converts all raw values of the given array to geophysical values in a single pass.
+     */
+    private double[] unpack(final Array array) {
+        final double[] values = new double[(int) array.getSize()];
+        final IndexIterator it = array.getIndexIterator();
+        for (int i=0; i<values.length; i++) {
+            double v = it.getDoubleNext();
+            if (v < 0) v += unsignedOffset;
+            values[i] = (v == fillValue || v == missingValue) ? Double.NaN : v * scale + offset;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the values at the given grid coordinates, using nearest neighbour.
+     * Coordinates are in GeoAPI order, with {@code rank} values per point.
+     * Points outside the grid get {@link Double#NaN}. Consecutive points in the
+     * same chunk are read without querying the cache.
+     */
+    private void sample(final double[] grid, final int numPts, final double[] dest, int dstOff) throws IOException {
+        final int rank = shape.length;
+        final int[] index = new int[rank];
+        long lastChunk = -1;
+        double[] data = null;
+next:   for (int p=0; p<numPts; p++) {
+            final int g = p * rank;
+            for (int i=0; i<rank; i++) {
+                final int d = rank - 1 - i;
+                final double c = Math.floor(grid[g + i] + 0.5);
+                if (!(c >= 0 && c < shape[d])) {                    // Use ! for catching NaN.
+                    dest[dstOff++] = Double.NaN;
+                    continue next;
+                }
+                index[d] = (int) c;
+            }
+            long chunkIndex = 0;
+            int inner = 0;
+            for (int d=0; d<rank; d++) {
+                final int c = index[d] / chunkShape[d];
+                final int o = c * chunkShape[d];
+                chunkIndex = chunkIndex * chunkCounts[d] + c;
+                inner = inner * Math.min(chunkShape[d], shape[d] - o) + (index[d] - o);
+            }
+            if (chunkIndex != lastChunk) {
+                data = chunk(chunkIndex);
+                lastChunk = chunkIndex;
+            }
+            dest[dstOff++] = data[inner];
+        }
+    }
+
+    /**
+     * Evaluates many points in a single call. The points are transformed to grid coordinates by blocks,
+     * then values are read at the nearest grid points. Points outside the coverage get {@link Double#NaN}
+     * values instead of causing an exception.
+     *
+     * @param  coordinates  the coordinates of the points to evaluate, in the CRS of this coverage
+     *                      or in grid coordinates if this coverage has no CRS.
+     * @param  srcOff       index of the first coordinate in the given array.
+     * @param  numPts       number of points to evaluate.
+     * @param  dest         where to store the values, one per point.
+     * @param  dstOff       index of the first value to write in the destination array.
+     * @throws CannotEvaluateException if the points can not be transformed to grid coordinates
+     *         or if an error occurred while reading the netCDF file.
+     */
+    public void evaluate(final double[] coordinates, int srcOff, int numPts, final double[] dest, int dstOff)
+            throws CannotEvaluateException
+    {
+        final int rank = shape.length;
+        if (crsToGrid == null && crs != null) {
+            throw new CannotEvaluateException("Can not compute grid coordinates of an irregular grid.");
+        }
+        final double[] grid = (crsToGrid != null) ? new double[Math.min(numPts, BUFFER_SIZE) * rank] : null;
+        try {
+            while (numPts > 0) {
+                final int n = Math.min(numPts, BUFFER_SIZE);
+                if (grid != null) {
+                    crsToGrid.transform(coordinates, srcOff, grid, 0, n);
+                    sample(grid, n, dest, dstOff);
+                } else {
+                    sample(Arrays.copyOfRange(coordinates, srcOff, srcOff + n * rank), n, dest, dstOff);
+                }
+                srcOff += n * rank;
+                dstOff += n;
+                numPts -= n;
+            }
+        } catch (TransformException e) {
+            throw new CannotEvaluateException("Can not compute grid coordinates.", e);
+        } catch (IOException e) {
+            throw new CannotEvaluateException("Can not read the \"" + variable.getShortName() + "\" variable.", e);
+        }
+    }
+
+    /**
+     * Reads all values in the given region of the grid. The returned array contains the values in row-major order,
+     * with indices along the first grid dimension (the last netCDF dimension) varying fastest. Only the chunks
+     * intersecting the given region are read, and each chunk is read at most once.
+     *
+     * @param  region  the region to read, in grid coordinates. High coordinates are inclusive.
+     * @return the unpacked values in the given region.
+     * @throws IllegalArgumentException if the region is not inside the grid extent.
+     * @throws ArithmeticException if the region contains more than {@value Integer#MAX_VALUE} cells.
+     * @throws IOException if an error occurred while reading the netCDF file.
+     */
+    public double[] read(final GridEnvelope region) throws IOException {
+        final int rank = shape.length;
+        if (region.getDimension() != rank) {
+            throw new MismatchedDimensionException("Region shall have " + rank + " dimensions.");
+        }
+        final int[] lo   = new int[rank];
+        final int[] hi   = new int[rank];
+        final int[] size = new int[rank];
+        int length = 1;
+        for (int i=0; i<rank; i++) {
+            final int d = rank - 1 - i;
+            final long low  = region.getLow (i);
+            final long high = region.getHigh(i);
+            if (low < 0 || high >= shape[d] || high < low) {
+                throw new IllegalArgumentException("Region is outside the grid extent: " + region);
+            }
+            lo[d]   = (int) low;
+            hi[d]   = (int) high;
+            size[d] = hi[d] - lo[d] + 1;
+            length  = Math.multiplyExact(length, size[d]);
+        }
+        final double[] result = new double[length];
+        final int   last   = rank - 1;
+        final int[] cLo    = new int[rank];
+        final int[] cHi    = new int[rank];
+        final int[] c      = new int[rank];
+        final int[] origin = new int[rank];
+        final int[] extent = new int[rank];
+        final int[] start  = new int[rank];
+        final int[] end    = new int[rank];
+        final int[] p      = new int[rank];
+        for (int d=0; d<rank; d++) {
+            c[d] = cLo[d] = lo[d] / chunkShape[d];
+            cHi[d] = hi[d] / chunkShape[d];
+        }
+        do {
+            /*
+             * For each chunk intersecting the region, compute the intersection
+             * and copy it by runs of consecutive values along the last dimension.
+             */
+            long chunkIndex = 0;
+            for (int d=0; d<rank; d++) {
+                chunkIndex = chunkIndex * chunkCounts[d] + c[d];
+                origin[d]  = c[d] * chunkShape[d];
+                extent[d]  = Math.min(chunkShape[d], shape[d] - origin[d]);
+                start[d]   = Math.max(lo[d], origin[d]);
+                end[d]     = Math.min(hi[d], origin[d] + extent[d] - 1);
+            }
+            final double[] data = chunk(chunkIndex);
+            final int run = end[last] - start[last] + 1;
+            System.arraycopy(start, 0, p, 0, rank);
+            do {
+                int src = 0, dst = 0;
+                for (int d=0; d<rank; d++) {
+                    src = src * extent[d] + (p[d] - origin[d]);
+                    dst = dst * size[d]   + (p[d] - lo[d]);
+                }
+                System.arraycopy(data, src, result, dst, run);
+            } while (increment(p, start, end, last));
+        } while (increment(c, cLo, cHi, rank));
+        return result;
+    }
+
+    /**
+     * Increments the given indices in the first {@code n} dimensions, with the last of those dimensions
+     * varying fastest. Returns {@code false} when the iteration is finished.
+     */
+    private static boolean increment(final int[] p, final int[] lo, final int[] hi, int n) {
+        while (--n >= 0) {
+            if (++p[n] <= hi[n]) {
+                return true;
+            }
+            p[n] = lo[n];
+        }
+        return false;
+    }
+
+    /**
+     * Converts the given position to grid coordinates and verifies that it is inside the grid.
+     */
+    private double[] toGrid(final DirectPosition point) throws CannotEvaluateException {
+        final double[] grid = transformToGrid(point);
+        final int rank = shape.length;
+        for (int i=0; i<rank; i++) {
+            final double c = Math.floor(grid[i] + 0.5);
+            if (!(c >= 0 && c < shape[rank - 1 - i])) {
+                throw new PointOutsideCoverageException("Point is outside the coverage.", point);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Converts the given position to grid coordinates, which may be outside the grid.
+     */
+    private double[] transformToGrid(final DirectPosition point) throws CannotEvaluateException {
+        final int rank = shape.length;
+        if (point.getDimension() != rank) {
+            throw new MismatchedDimensionException("Point shall have " + rank + " dimensions.");
+        }
+        double[] grid = point.getCoordinate();
+        if (crs != null) {
+            if (crsToGrid == null) {
+                throw new CannotEvaluateException("Can not compute grid coordinates of an irregular grid.");
+            }
+            try {
+                crsToGrid.transform(grid, 0, grid, 0, 1);
+            } catch (TransformException e) {
+                throw new CannotEvaluateException("Can not compute grid coordinates.", e);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns the value at the given position. The returned array has a length of 1,
+     * since netCDF variables have a single sample value per grid cell.
+     *
+     * @param  point        the position where to evaluate.
+     * @param  destination  an array where to store the value, or {@code null}.
+     * @return the unpacked value, or {@link Double#NaN} for fill values.
+     * @throws PointOutsideCoverageException if the point is outside this coverage.
+     * @throws CannotEvaluateException if the point can not be transformed to grid coordinates
+     *         or if an error occurred while reading the netCDF file.
+     */
+    @Override
+    public double[] evaluate(final DirectPosition point, double[] destination)
+            throws PointOutsideCoverageException, CannotEvaluateException
+    {
+        final double[] grid = toGrid(point);
+        if (destination == null) {
+            destination = new double[1];
+        }
+        try {
+            sample(grid, 1, destination, 0);
+        } catch (IOException e) {
+            throw new CannotEvaluateException("Can not read the \"" + variable.getShortName() + "\" variable.", e);
+        }
+        return destination;
+    }
+
+    /**
+     * Returns the value at the given position.
+     *
+     * @param  point  the position where to evaluate.
+     * @return the value as a {@code double[]} array.
+     */
+    @Override
+    public Object evaluate(final DirectPosition point) {
+        return evaluate(point, (double[]) null);
+    }
+
+    /**
+     * Returns the value at the given position, cast to {@code float}.
+     */
+    @Override
+    public float[] evaluate(final DirectPosition point, float[] destination) {
+        final double value = evaluate(point, (double[]) null)[0];
+        if (destination == null) destination = new float[1];
+        destination[0] = (float) value;
+        return destination;
+    }
+
+    /**
+     * Returns the value at the given position, rounded to {@code int}.
+     */
+    @Override
+    public int[] evaluate(final DirectPosition point, int[] destination) {
+        final double value = evaluate(point, (double[]) null)[0];
+        if (destination == null) destination = new int[1];
+        destination[0] = (int) Math.round(value);
+        return destination;
+    }
+
+    /**
+     * Returns the value at the given position, rounded to {@code byte}.
+     */
+    @Override
+    public byte[] evaluate(final DirectPosition point, byte[] destination) {
+        final double value = evaluate(point, (double[]) null)[0];
+        if (destination == null) destination = new byte[1];
+        destination[0] = (byte) Math.round(value);
+        return destination;
+    }
+
+    /**
+     * Returns whether the value at the given position is non-zero and not NaN.
+     */
+    @Override
+    public boolean[] evaluate(final DirectPosition point, boolean[] destination) {
+        final double value = evaluate(point, (double[]) null)[0];
+        if (destination == null) destination = new boolean[1];
+        destination[0] = (value != 0 && !Double.isNaN(value));
+        return destination;
+    }
+
+    /**
+     * Returns the number of grid dimensions, which is the rank of the netCDF variable.
+     */
+    @Override
+    public int getDimension() {
+        return shape.length;
+    }
+
+    /**
+     * Returns the names of netCDF dimensions, in reverse order.
+     */
+    @Override
+    public List<String> getAxisNames() {
+        final String[] names = new String[shape.length];
+        for (int i=0; i<names.length; i++) {
+            names[i] = variable.getDimension(names.length - 1 - i).getShortName();
+        }
+        return Arrays.asList(names);
+    }
+
+    /**
+     * Returns the valid coordinate range of the grid, from 0 to the length of each netCDF dimension minus 1.
+     */
+    @Override
+    public GridEnvelope getExtent() {
+        final long[] low  = new long[shape.length];
+        final long[] high = new long[shape.length];
+        for (int i=0; i<high.length; i++) {
+            high[i] = shape[shape.length - 1 - i] - 1L;
+        }
+        return new SimpleGridEnvelope(low, high);
+    }
+
+    /**
+     * Returns the grid coordinates of the first value, which is the origin of the grid.
+     */
+    @Override
+    public GridCoordinates getStartSequence() {
+        return new SimpleGridCoordinates(new long[shape.length]);
+    }
+
+    /**
+     * Returns the coordinate reference system, or {@code null} if coordinates are grid coordinates.
+     */
+    @Override
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the extent of the grid cells in the CRS of this coverage, or in grid coordinates if this coverage
+     * has no CRS. Grid coordinates are located at cell centers, so the envelope extends half a cell beyond the
+     * first and last grid coordinates. If the grid is not regular, the envelope is computed from the minimal
+     * and maximal axis values instead, which are the coordinates of the centers of the first and last cells.
+     *
+     * @return the extent of the grid cells.
+     * @throws IllegalStateException if the grid corners can not be transformed to CRS coordinates.
+     */
+    @Override
+    public Envelope getEnvelope() {
+        final int rank = shape.length;
+        final double[] minimum = new double[rank];
+        final double[] maximum = new double[rank];
+        for (int i=0; i<rank; i++) {
+            minimum[i] = -0.5;
+            maximum[i] = shape[rank - 1 - i] - 0.5;
+        }
+        if (crs != null) {
+            final MathTransform gridToCRS = crs.getGridToCRS();
+            if (gridToCRS == null) {
+                for (int i=0; i<rank; i++) {
+                    final CoordinateSystemAxis axis = crs.getAxis(i);
+                    minimum[i] = axis.getMinimumValue();
+                    maximum[i] = axis.getMaximumValue();
+                }
+            } else {
+                /*
+                 * Transform all corners of the grid, since the envelope of an arbitrary
+                 * transform is not necessarily delimited by the two extreme corners.
+                 */
+                final int numCorners = 1 << rank;
+                final double[] corners = new double[numCorners * rank];
+                for (int c=0; c<numCorners; c++) {
+                    for (int i=0; i<rank; i++) {
+                        corners[c*rank + i] = ((c & (1 << i)) == 0) ? minimum[i] : maximum[i];
+                    }
+                }
+                try {
+                    gridToCRS.transform(corners, 0, corners, 0, numCorners);
+                } catch (TransformException e) {
+                    throw new IllegalStateException("Can not compute the coverage envelope.", e);
+                }
+                Arrays.fill(minimum, Double.POSITIVE_INFINITY);
+                Arrays.fill(maximum, Double.NEGATIVE_INFINITY);
+                for (int c=0; c<corners.length; c++) {
+                    final int i = c % rank;
+                    minimum[i] = Math.min(minimum[i], corners[c]);
+                    maximum[i] = Math.max(maximum[i], corners[c]);
+                }
+            }
+        }
+        return new SimpleEnvelope(crs, minimum, maximum);
+    }
+
+    /**
+     * Returns the type of the records returned by {@link #getValues()}.
+     * Records have a single real member named after the netCDF variable.
+     *
+     * @return the type of sample records.
+     */
+    @Override
+    public RecordType getRangeType() {
+        return rangeType;
+    }
+
+    /**
+     * Returns the values of all grid cells in the order given by {@link #getSequencingRule()}.
+     * All values are read by {@link #read(GridEnvelope)} when this method is invoked;
+     * callers interested in only a part of the grid should use that method instead.
+     *
+     * @return the values of all grid cells, with {@link Double#NaN} for fill values.
+     * @throws ArithmeticException if the grid contains more than {@value Integer#MAX_VALUE} cells.
+     * @throws CannotEvaluateException if an error occurred while reading the netCDF file.
+     */
+    @Override
+    public List<Record> getValues() {
+        final double[] values;
+        try {
+            values = read(getExtent());
+        } catch (IOException e) {
+            throw new CannotEvaluateException("Can not read the \"" + variable.getShortName() + "\" variable.", e);
+        }
+        return new Values(values);
+    }
+
+    /**
+     * The list returned by {@link #getValues()}.
+     */
+    private final class Values extends AbstractList<Record> implements RandomAccess {
+        /** The values of all grid cells. */
+        private final double[] values;
+
+        /** Creates a new list for the given values. */
+        Values(final double[] values) {
+            this.values = values;
+        }
+
+        /** Returns the number of grid cells. */
+        @Override public int size() {
+            return values.length;
+        }
+
+        /** Returns the value of the grid cell at the given index. */
+        @Override public Record get(final int index) {
+            return new SampleRecord(rangeType, values[index]);
+        }
+    }
+
+    /**
+     * Returns a linear sequencing rule with the first grid dimension varying fastest.
+     * The scan directions are the {@linkplain #getAxisNames() axis names} prefixed by {@code '+'}.
+     *
+     * @return the order of the values returned by {@link #getValues()}.
+     */
+    @Override
+    public SequenceRule getSequencingRule() {
+        final List<String> directions = new ArrayList<>(shape.length);
+        for (final String name : getAxisNames()) {
+            directions.add('+' + name);
+        }
+        final List<String> scan = Collections.unmodifiableList(directions);
+        return new SequenceRule() {
+            @Override public SequenceType getType() {
+                return SequenceType.LINEAR;
+            }
+
+            @Override public List<String> getScanDirection() {
+                return scan;
+            }
+        };
+    }
+
+    /**
+     * Returns the value at the given position as a record, if the given list of fields is {@code null}
+     * or contains the name of the netCDF variable. Otherwise returns an empty set.
+     *
+     * @param  point  the position where to evaluate.
+     * @param  list   the names of the fields to evaluate, or {@code null} for all fields.
+     * @return the value at the given position, or an empty set.
+     * @throws PointOutsideCoverageException if the point is outside this coverage.
+     * @throws CannotEvaluateException if the point can not be transformed to grid coordinates
+     *         or if an error occurred while reading the netCDF file.
+     */
+    @Override
+    public Set<Record> evaluate(final DirectPosition point, final Collection<String> list) {
+        if (list != null && !list.contains(variable.getShortName())) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(new SampleRecord(rangeType, evaluate(point, (double[]) null)[0]));
+    }
+
+    /**
+     * Returns the rule used for positions on the boundary between two grid cells. Values are evaluated
+     * at the nearest grid point, and a position midway between two grid points gets the value of the
+     * cell having the greatest grid index, which is the cell starting at that position.
+     *
+     * @return {@link CommonPointRule#START}.
+     */
+    @Override
+    public CommonPointRule getCommonPointRule() {
+        return CommonPointRule.START;
+    }
+
+    /**
+     * Returns the geographic bounding box of this coverage. The box is computed from the
+     * {@linkplain #getEnvelope() envelope} in the longitude and latitude dimensions of the CRS.
+     * If the CRS has projected <var>x</var> and <var>y</var> axes instead, the envelope borders
+     * are projected back to geographic coordinates. The box is clipped to the world.
+     *
+     * @return the geographic bounding box in a singleton set,
+     *         or an empty set if the CRS has no horizontal dimensions.
+     * @throws CannotEvaluateException if the envelope can not be projected to geographic coordinates.
+     */
+    @Override
+    public Set<Extent> getDomainExtents() {
+        if (crs == null) {
+            return Collections.emptySet();
+        }
+        int lon = -1, lat = -1, x = -1, y = -1;
+        for (int i=0; i<crs.getDimension(); i++) {
+            final AxisType type = crs.getAxis(i).delegate().getAxisType();
+            if (type != null) switch (type) {
+                case Lon:  lon = i; break;
+                case Lat:  lat = i; break;
+                case GeoX: x   = i; break;
+                case GeoY: y   = i; break;
+            }
+        }
+        final Envelope envelope = getEnvelope();
+        double west, east, south, north;
+        if (lon >= 0 && lat >= 0) {
+            west  = envelope.getMinimum(lon);
+            east  = envelope.getMaximum(lon);
+            south = envelope.getMinimum(lat);
+            north = envelope.getMaximum(lat);
+        } else if (x >= 0 && y >= 0) {
+            final ProjectedCRS projected = projected(crs);
+            if (projected == null) {
+                return Collections.emptySet();
+            }
+            /*
+             * Project points along the four borders, since the extremums of
+             * longitudes and latitudes are not necessarily on the corners.
+             */
+            final int n = 16;
+            final double[] border = new double[8 * n];
+            for (int i=0; i<n; i++) {
+                final double tx = envelope.getMinimum(x) + envelope.getSpan(x) * i / n;
+                final double ty = envelope.getMinimum(y) + envelope.getSpan(y) * i / n;
+                final int k = i * 8;
+                border[k  ] = tx;                       border[k+1] = envelope.getMinimum(y);
+                border[k+2] = tx + envelope.getSpan(x) / n;
+                border[k+3] = envelope.getMaximum(y);
+                border[k+4] = envelope.getMinimum(x);   border[k+5] = ty + envelope.getSpan(y) / n;
+                border[k+6] = envelope.getMaximum(x);   border[k+7] = ty;
+            }
+            try {
+                projected.getConversionFromBase().getMathTransform().inverse().transform(border, 0, border, 0, 4 * n);
+            } catch (TransformException e) {
+                throw new CannotEvaluateException("Can not compute the geographic bounding box.", e);
+            }
+            west = south = Double.POSITIVE_INFINITY;
+            east = north = Double.NEGATIVE_INFINITY;
+            for (int i=0; i<border.length; i += 2) {
+                west  = Math.min(west,  border[i  ]);
+                east  = Math.max(east,  border[i  ]);
+                south = Math.min(south, border[i+1]);
+                north = Math.max(north, border[i+1]);
+            }
+        } else {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(new SimpleGeographicBoundingBox(
+                Math.max(west,  -180), Math.min(east,  180),
+                Math.max(south,  -90), Math.min(north,  90)));
+    }
+
+    /**
+     * Returns the projected CRS which is the given CRS or one of its components, or {@code null} if none.
+     */
+    private static ProjectedCRS projected(final CoordinateReferenceSystem crs) {
+        if (crs instanceof ProjectedCRS) {
+            return (ProjectedCRS) crs;
+        }
+        if (crs instanceof CompoundCRS) {
+            for (final CoordinateReferenceSystem component : ((CompoundCRS) crs).getComponents()) {
+                final ProjectedCRS projected = projected(component);
+                if (projected != null) {
+                    return projected;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the grid point nearest to the given position, together with its value.
+     * If the position is outside the coverage, the nearest grid point on the grid border is returned.
+     *
+     * @param  p  the search position.
+     * @return the nearest grid point and its value.
+     * @throws CannotEvaluateException if the position can not be transformed to grid coordinates
+     *         or if an error occurred while reading the netCDF file.
+     */
+    @Override
+    public GeometryValuePair find(final DirectPosition p) {
+        final double[] grid = transformToGrid(p);
+        final int rank = shape.length;
+        final int[] index = new int[rank];
+        for (int i=0; i<rank; i++) {
+            index[i] = clamp(grid[i], shape[rank - 1 - i]);
+        }
+        return new Node(index);
+    }
+
+    /**
+     * Returns the grid points nearest to the given position, ordered by their distance. Distances are computed
+     * with the size of grid cells in units of the CRS axes, or in grid units if this coverage has no CRS.
+     * Only the grid points in a window around the position are examined; the window is enlarged until no grid
+     * point outside it can be closer than the farthest grid point retained.
+     *
+     * @param  p      the search position.
+     * @param  limit  the maximal number of grid points to return.
+     * @return the nearest grid points and their values, nearest first.
+     * @throws CannotEvaluateException if the position can not be transformed to grid coordinates
+     *         or if an error occurred while reading the netCDF file.
+     */
+    @Override
+    public List<GeometryValuePair> find(final DirectPosition p, final int limit) {
+        final double[] grid = transformToGrid(p);
+        final int rank = shape.length;
+        long size = 1;
+        for (final int length : shape) {
+            size *= length;
+        }
+        final int count = (int) Math.min(limit, size);
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        /*
+         * Size of grid cells in CRS units. The grid to CRS transform of netCDF regular grids is a scale
+         * and a translation in each dimension, so the distance is the sum of squared scaled differences.
+         */
+        final double[] cellSize = new double[rank];
+        Arrays.fill(cellSize, 1);
+        final MathTransform gridToCRS = (crs != null) ? crs.getGridToCRS() : null;
+        if (gridToCRS != null) {
+            final double[] pts = new double[rank * (rank + 1)];
+            for (int i=0; i<rank; i++) {
+                pts[(i+1)*rank + i] = 1;
+            }
+            try {
+                gridToCRS.transform(pts, 0, pts, 0, rank + 1);
+            } catch (TransformException e) {
+                throw new CannotEvaluateException("Can not compute the size of grid cells.", e);
+            }
+            for (int i=0; i<rank; i++) {
+                cellSize[i] = Math.abs(pts[(i+1)*rank + i] - pts[i]);
+            }
+        }
+        double minSize = Double.POSITIVE_INFINITY;
+        double shift = 0;
+        final int[] center = new int[rank];
+        for (int i=0; i<rank; i++) {
+            center[i] = clamp(grid[i], shape[rank - 1 - i]);
+            shift     = Math.max(shift, Math.abs(center[i] - grid[i]));
+            minSize   = Math.min(minSize, cellSize[i]);
+        }
+        final int[] lo = new int[rank];
+        final int[] hi = new int[rank];
+        final int[] index = new int[rank];
+        final List<double[]> candidates = new ArrayList<>();
+        for (int r = (int) Math.ceil(Math.pow(count, 1.0 / rank) / 2);; r = 2*r + 1) {
+            long windowSize = 1;
+            boolean wholeGrid = true;
+            for (int i=0; i<rank; i++) {
+                final int length = shape[rank - 1 - i];
+                lo[i] = Math.max(center[i] - r, 0);
+                hi[i] = Math.min(center[i] + r, length - 1);
+                windowSize *= hi[i] - lo[i] + 1;
+                wholeGrid &= (lo[i] == 0 && hi[i] == length - 1);
+            }
+            if (windowSize < count) {
+                continue;
+            }
+            candidates.clear();
+            System.arraycopy(lo, 0, index, 0, rank);
+            do {
+                final double[] c = new double[rank + 1];
+                for (int i=0; i<rank; i++) {
+                    final double d = (index[i] - grid[i]) * cellSize[i];
+                    c[0] += d * d;
+                    c[i+1] = index[i];
+                }
+                candidates.add(c);
+            } while (increment(index, lo, hi, rank));
+            candidates.sort((c1, c2) -> Double.compare(c1[0], c2[0]));
+            final double bound = minSize * (r + 1 - shift);
+            if (wholeGrid || (bound > 0 && candidates.get(count - 1)[0] <= bound * bound)) {
+                break;
+            }
+        }
+        final List<GeometryValuePair> nodes = new ArrayList<>(count);
+        for (int k=0; k<count; k++) {
+            final double[] c = candidates.get(k);
+            final int[] node = new int[rank];
+            for (int i=0; i<rank; i++) {
+                node[i] = (int) c[i+1];
+            }
+            nodes.add(new Node(node));
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the index of the grid point nearest to the given grid coordinate, clamped to the grid extent.
+     */
+    private static int clamp(final double g, final int length) {
+        return (int) Math.max(0, Math.min(length - 1, Math.floor(g + 0.5)));
+    }
+
+    /**
+     * A grid point together with the value of the grid cell centered on it.
+     * Instances are returned by the {@code find(…)} methods.
+     */
+    private final class Node implements GridPoint, GeometryValuePair {
+        /** The grid coordinates, in GeoAPI order. */
+        private final int[] index;
+
+        /** Creates a new grid point at the given grid coordinates. */
+        Node(final int[] index) {
+            this.index = index;
+        }
+
+        /** Returns this grid point. */
+        @Override public DomainObject<?> getGeometry() {
+            return this;
+        }
+
+        /** Reads the value of this grid point. */
+        @Override public Record getValue() {
+            final double[] grid = new double[index.length];
+            for (int i=0; i<grid.length; i++) {
+                grid[i] = index[i];
+            }
+            final double[] value = new double[1];
+            try {
+                sample(grid, 1, value, 0);
+            } catch (IOException e) {
+                throw new CannotEvaluateException("Can not read the \"" + variable.getShortName() + "\" variable.", e);
+            }
+            return new SampleRecord(rangeType, value[0]);
+        }
+
+        /** Returns the grid coordinates of this grid point. */
+        @Override public GridCoordinates getGridCoordinates() {
+            final long[] coordinates = new long[index.length];
+            for (int i=0; i<coordinates.length; i++) {
+                coordinates[i] = index[i];
+            }
+            return new SimpleGridCoordinates(coordinates);
+        }
+
+        /** Returns {@code null}, since this coverage is not a {@link Grid}. */
+        @Override public Grid getFramework() {
+            return null;
+        }
+
+        /** Returns an empty set, since grid cells are not represented by this implementation. */
+        @Override public Set<GridCell> getCells() {
+            return Collections.emptySet();
+        }
+
+        /** Returns {@code null}, since this module has no implementation of geometric points. */
+        @Override public Point getGroundPoint() {
+            return null;
+        }
+
+        /** Returns an empty set, since this module has no implementation of foot prints. */
+        @Override public Set<FootPrint> getFootPrints() {
+            return Collections.emptySet();
+        }
+
+        /** Returns an empty set, since this module has no implementation of geometries. */
+        @Override public Set<Geometry> getSpatialElements() {
+            return Collections.emptySet();
+        }
+
+        /** Returns an empty set, since temporal coordinates are not represented by this implementation. */
+        @Override public Set<TemporalGeometricPrimitive> getTemporalElements() {
+            return Collections.emptySet();
+        }
+
+        /** Returns the grid coordinates of this grid point. */
+        @Override public String toString() {
+            return "Node" + Arrays.toString(index);
+        }
+    }
+
+    /** Not supported by this implementation. */
+    @Override public Set<GridPoint> getIntersections() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation. */
+    @Override public Set<GridCell> getCells() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation. */
+    @Override public Set<? extends DomainObject<?>> getDomainElements() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation. */
+    @Override public Collection<AttributeValues> getRangeElements() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation. */
+    @Override public Set<? extends GeometryValuePair> list() {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation. */
+    @Override public Set<? extends GeometryValuePair> select(Geometry s, Period t) {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation. */
+    @Override public Set<? extends DomainObject<?>> evaluateInverse(Record v) {throw new UnsupportedOperationException();}
+
+    /** Not supported by this implementation. */
+    @Override public RenderableImage getRenderableImage(int xAxis, int yAxis) {throw new UnsupportedOperationException();}
+}
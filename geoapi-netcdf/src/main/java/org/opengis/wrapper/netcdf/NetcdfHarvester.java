@@ -0,0 +1,762 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.IdentityHashMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import ucar.nc2.Attribute;
+import ucar.nc2.Dimension;
+import ucar.nc2.dataset.NetcdfDataset;
+import ucar.nc2.dataset.CoordinateAxis;
+import ucar.nc2.dataset.CoordinateAxis1D;
+import ucar.nc2.dataset.CoordinateSystem;
+
+import org.opengis.metadata.Metadata;
+
+
+/**
+ * Reads the metadata and coordinate reference systems of all netCDF files in a directory tree.
+ * Files are opened concurrently by a fixed number of threads, and results are provided as a
+ * {@link Stream} in the order of the directory walk. At most twice as many files as threads
+ * are pending at any time, so the directory tree can contain a large amount of files.
+ *
+ * <p>Each file is read by a single task, which opens the file, copies its global attributes and
+ * coordinate axes in a small in-memory dataset, then closes the file. The metadata and coordinate
+ * reference systems of the result wrap that copy, so they do not retain the variables or any other
+ * part of the file. If a task does not complete within the timeout given
+ * at construction time, the task is cancelled and the result for that file contains a
+ * {@link TimeoutException}. Note that netCDF I/O operations are not necessarily interruptible,
+ * so a cancelled task may continue to occupy its thread until the I/O operation completes.</p>
+ *
+ * <p>Results are cached by file path. On the next harvest, files having the same modification time
+ * and size than at the previous harvest are not opened again; the cached result is returned instead.
+ * Failures and timeouts are not cached, so files which could not be read are tried again on the next
+ * harvest. The cache retains at most the number of results given at construction time, discarding
+ * the least recently used ones. When a harvest walks a directory tree to the end, the results for
+ * files under that tree which have not been found anymore are removed from the cache.</p>
+ *
+ * <p>Instances of this class are thread-safe. Harvesters shall be {@linkplain #close() closed}
+ * when no longer needed in order to stop the threads.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class NetcdfHarvester implements AutoCloseable {
+    /**
+     * The logger for warnings about coordinate systems which can not be wrapped.
+     */
+    private static final Logger LOGGER = Logger.getLogger("org.opengis.wrapper.netcdf");
+
+    /**
+     * Default maximal number of results retained in the cache.
+     */
+    private static final int DEFAULT_CACHE_CAPACITY = 100000;
+
+    /**
+     * The metadata and coordinate reference systems read from a netCDF file, or the failure
+     * if the file could not be read. Instances of this class are immutable and do not depend
+     * on the netCDF file, which is closed.
+     */
+    public static final class Result {
+        /** The path to the netCDF file. */
+        private final Path path;
+
+        /** Modification time of the file when it has been read, or {@code null} if unknown. */
+        private final FileTime lastModified;
+
+        /** Size of the file in bytes when it has been read, or -1 if unknown. */
+        private final long size;
+
+        /** The metadata, or {@code null} if the file could not be read. */
+        private final Metadata metadata;
+
+        /** The coordinate reference systems, or an empty list if none. */
+        private final List<NetcdfCRS> crs;
+
+        /** The reason why the file could not be read, or {@code null} if none. */
+        private final Exception failure;
+
+        /** Creates a new result for a successfully read file. */
+        Result(final Path path, final BasicFileAttributes attributes, final Metadata metadata, final List<NetcdfCRS> crs) {
+            this.path         = path;
+            this.lastModified = attributes.lastModifiedTime();
+            this.size         = attributes.size();
+            this.metadata     = metadata;
+            this.crs          = Collections.unmodifiableList(crs);
+            this.failure      = null;
+        }
+
+        /** Creates a new result for a file which could not be read. */
+        Result(final Path path, final BasicFileAttributes attributes, final Exception failure) {
+            this.path         = path;
+            this.lastModified = (attributes != null) ? attributes.lastModifiedTime() : null;
+            this.size         = (attributes != null) ? attributes.size() : -1;
+            this.metadata     = null;
+            this.crs          = Collections.emptyList();
+            this.failure      = failure;
+        }
+
+        /**
+         * Returns whether this result is still valid for a file having the given attributes.
+         */
+        final boolean isCurrent(final BasicFileAttributes attributes) {
+            return size == attributes.size() && attributes.lastModifiedTime().equals(lastModified);
+        }
+
+        /**
+         * Returns the path to the netCDF file.
+         *
+         * @return the netCDF file.
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the modification time of the file when it has been read.
+         *
+         * @return modification time of the file, or {@code null} if unknown.
+         */
+        public FileTime getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Returns the size of the file when it has been read.
+         *
+         * @return size of the file in bytes, or -1 if unknown.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the metadata read from the file. The metadata wraps a copy of the global attributes
+         * made before the file has been closed, so its content does not change anymore.
+         *
+         * @return the metadata, or {@code null} if the file could not be read.
+         */
+        public Metadata getMetadata() {
+            return metadata;
+        }
+
+        /**
+         * Returns the coordinate reference systems read from the file. Those CRS wrap copies of the
+         * coordinate axes, with their coordinate values, made before the file has been closed.
+         * Coordinate systems having axes of other kinds than {@code CoordinateAxis1D} are omitted.
+         *
+         * @return the coordinate reference systems, or an empty list if none.
+         */
+        public List<NetcdfCRS> getCoordinateReferenceSystems() {
+            return crs;
+        }
+
+        /**
+         * Returns the reason why the file could not be read. This is a {@link TimeoutException}
+         * if the file has not been read within the timeout.
+         *
+         * @return the failure, or {@code null} if the file has been read successfully.
+         */
+        public Exception getFailure() {
+            return failure;
+        }
+
+        /**
+         * Returns a string representation of this result for debugging purpose.
+         */
+        @Override
+        public String toString() {
+            return "Result[" + path + (failure != null ? ", " + failure : "") + ']';
+        }
+    }
+
+    /**
+     * Counts of harvested files and time spent since the harvester creation.
+     * Instances of this class are immutable snapshots.
+     */
+    public static final class Metrics {
+        /** Number of files opened, found in the cache, failed and timed out. */
+        private final long opened, cached, failed, timedOut;
+
+        /** Number of bytes in the opened files. */
+        private final long bytes;
+
+        /** Sum of time spent by tasks reading files, and time elapsed in completed harvests. */
+        private final long busyNanos, elapsedNanos;
+
+        /** Creates a new snapshot from the counters of the given harvester. */
+        Metrics(final NetcdfHarvester h) {
+            opened       = h.opened      .get();
+            cached       = h.cached      .get();
+            failed       = h.failed      .get();
+            timedOut     = h.timedOut    .get();
+            bytes        = h.bytes       .get();
+            busyNanos    = h.busyNanos   .get();
+            elapsedNanos = h.elapsedNanos.get();
+        }
+
+        /**
+         * Returns the number of files which have been opened and read successfully.
+         *
+         * @return number of files read.
+         */
+        public long getFileCount() {
+            return opened;
+        }
+
+        /**
+         * Returns the number of files which have not been opened because they did not changed
+         * since the previous harvest.
+         *
+         * @return number of results taken from the cache.
+         */
+        public long getCachedCount() {
+            return cached;
+        }
+
+        /**
+         * Returns the number of files which could not be read, including timeouts.
+         *
+         * @return number of failures.
+         */
+        public long getFailureCount() {
+            return failed;
+        }
+
+        /**
+         * Returns the number of files which have not been read within the timeout.
+         *
+         * @return number of timeouts.
+         */
+        public long getTimeoutCount() {
+            return timedOut;
+        }
+
+        /**
+         * Returns the total size of files which have been read successfully.
+         *
+         * @return number of bytes in the files read.
+         */
+        public long getByteCount() {
+            return bytes;
+        }
+
+        /**
+         * Returns the sum of time spent by all threads for reading files.
+         * Divided by {@link #getElapsedTime(TimeUnit)}, this gives the average parallelism.
+         *
+         * @param  unit  the desired unit of measurement.
+         * @return time spent by threads in the given unit.
+         */
+        public long getBusyTime(final TimeUnit unit) {
+            return unit.convert(busyNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the time elapsed in all completed harvests, from the stream creation to its
+         * exhaustion or closing.
+         *
+         * @param  unit  the desired unit of measurement.
+         * @return elapsed time in the given unit.
+         */
+        public long getElapsedTime(final TimeUnit unit) {
+            return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the number of files (read or found in the cache) per second of elapsed time.
+         *
+         * @return throughput in files per second, or {@code NaN} if no harvest completed.
+         */
+        public double getFilesPerSecond() {
+            return (elapsedNanos != 0) ? (opened + cached) * 1E9 / elapsedNanos : Double.NaN;
+        }
+
+        /**
+         * Returns a string representation of those metrics.
+         */
+        @Override
+        public String toString() {
+            return "Metrics[files=" + opened + ", cached=" + cached + ", failed=" + failed
+                    + " (timeout=" + timedOut + "), bytes=" + bytes
+                    + ", files/s=" + (float) getFilesPerSecond() + ']';
+        }
+    }
+
+    /**
+     * The threads reading netCDF files.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Maximal number of results pending in a harvest.
+     */
+    private final int window;
+
+    /**
+     * Maximal time, in nanoseconds, for reading a file.
+     */
+    private final long timeout;
+
+    /**
+     * Results of previous harvests, for skipping unchanged files. Entries are in access order,
+     * from the least recently used to the most recently used. All accesses shall be synchronized
+     * on this map.
+     */
+    private final ResultCache cache;
+
+    /**
+     * The cache of results, discarding the least recently used results when the capacity is exceeded.
+     */
+    @SuppressWarnings("serial")
+    private static final class ResultCache extends LinkedHashMap<Path,Result> {
+        /** Maximal number of results to keep. */
+        private final int capacity;
+
+        /** Creates a new cache of the given capacity. */
+        ResultCache(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        /** Returns {@code true} if the least recently used result shall be discarded. */
+        @Override protected boolean removeEldestEntry(final Map.Entry<Path,Result> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * Counters for {@link Metrics}.
+     */
+    private final AtomicLong opened, cached, failed, timedOut, bytes, busyNanos, elapsedNanos;
+
+    /**
+     * Creates a new harvester retaining at most {@value #DEFAULT_CACHE_CAPACITY} results in its cache.
+     *
+     * @param  parallelism  number of files to read concurrently.
+     * @param  timeout      maximal time for reading a single file.
+     * @param  unit         unit of measurement of the timeout.
+     * @throws IllegalArgumentException if the parallelism or the timeout is not strictly positive.
+     */
+    public NetcdfHarvester(final int parallelism, final long timeout, final TimeUnit unit) {
+        this(parallelism, timeout, unit, DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creates a new harvester retaining at most the given number of results in its cache.
+     *
+     * @param  parallelism    number of files to read concurrently.
+     * @param  timeout        maximal time for reading a single file.
+     * @param  unit           unit of measurement of the timeout.
+     * @param  cacheCapacity  maximal number of results to retain for skipping unchanged files, or 0 for no cache.
+     * @throws IllegalArgumentException if the parallelism or the timeout is not strictly positive,
+     *         or if the cache capacity is negative.
+     */
+    public NetcdfHarvester(final int parallelism, final long timeout, final TimeUnit unit, final int cacheCapacity) {
+        if (parallelism <= 0 || timeout <= 0) {
+            throw new IllegalArgumentException("Parallelism and timeout shall be strictly positive.");
+        }
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("Cache capacity shall be positive.");
+        }
+        this.timeout = unit.toNanos(timeout);
+        window       = Math.multiplyExact(parallelism, 2);
+        cache        = new ResultCache(cacheCapacity);
+        opened       = new AtomicLong();
+        cached       = new AtomicLong();
+        failed       = new AtomicLong();
+        timedOut     = new AtomicLong();
+        bytes        = new AtomicLong();
+        busyNanos    = new AtomicLong();
+        elapsedNanos = new AtomicLong();
+        executor = Executors.newFixedThreadPool(parallelism, (task) -> {
+            final Thread thread = new Thread(task, "netCDF harvester");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads all files having the {@code .nc}, {@code .nc4} or {@code .cdf} extension in the given directory tree.
+     *
+     * @param  root  the root directory.
+     * @return the result for each netCDF file. This stream shall be closed after use.
+     * @throws IOException if the directory tree can not be walked.
+     */
+    public Stream<Result> harvest(final Path root) throws IOException {
+        return harvest(root, root.getFileSystem().getPathMatcher("glob:**.{nc,nc4,cdf}"));
+    }
+
+    /**
+     * Reads all files accepted by the given filter in the given directory tree.
+     * Closing the stream cancels the pending tasks.
+     *
+     * @param  root    the root directory.
+     * @param  filter  the filter for selecting netCDF files.
+     * @return the result for each netCDF file. This stream shall be closed after use.
+     * @throws IOException if the directory tree can not be walked.
+     */
+    public Stream<Result> harvest(final Path root, final PathMatcher filter) throws IOException {
+        final Stream<Path> files = Files.walk(root).filter((path) -> filter.matches(path) && Files.isRegularFile(path));
+        final Harvest harvest = new Harvest(root, files.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(harvest,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+                    harvest.cancel();
+                    files.close();
+                });
+    }
+
+    /**
+     * Reads the metadata and coordinate reference systems of the given file. This method is invoked
+     * in a worker thread. The global attributes and coordinate axes are copied by {@link #detach(NetcdfDataset)}
+     * before the file is closed, and the result wraps that copy. Subclasses can override this method for
+     * reading more information, in which case they should not retain references to the file.
+     *
+     * @param  path        the file to read.
+     * @param  attributes  the file attributes at the time the file has been selected.
+     * @return the metadata and coordinate reference systems of the given file.
+     * @throws IOException if an error occurred while reading the file.
+     */
+    protected Result read(final Path path, final BasicFileAttributes attributes) throws IOException {
+        final NetcdfDataset header;
+        try (NetcdfDataset file = NetcdfDataset.openDataset(path.toString())) {
+            header = detach(file);
+        }
+        final List<NetcdfCRS> crs = new ArrayList<>();
+        for (final CoordinateSystem cs : header.getCoordinateSystems()) {
+            final NetcdfCRS c = NetcdfCRS.wrap(cs, header, LOGGER);
+            c.getGridToCRS();
+            crs.add(c);
+        }
+        return new Result(path, attributes, new NetcdfMetadata(header), crs);
+    }
+
+    /**
+     * Copies the global attributes and the coordinate systems of the given file in a new in-memory dataset.
+     * The coordinate values of all axes are read and stored in the copy, so the copy does not need the file
+     * anymore. Variables other than coordinate axes are not copied. Coordinate systems having axes of other
+     * kinds than {@code CoordinateAxis1D} are omitted.
+     *
+     * @param  file  the file to copy.
+     * @return a copy of the global attributes and coordinate systems of the given file.
+     * @throws IOException if an error occurred while reading the coordinate values.
+     */
+    protected static NetcdfDataset detach(final NetcdfDataset file) throws IOException {
+        final NetcdfDataset header = new NetcdfDataset();
+        header.setLocation(file.getLocation());
+        header.setId(file.getId());
+        header.setTitle(file.getTitle());
+        for (final Attribute attribute : file.getGlobalAttributes()) {
+            header.addAttribute(null, attribute);
+        }
+        final Map<CoordinateAxis,CoordinateAxis> copies = new IdentityHashMap<>();
+next:   for (final CoordinateSystem cs : file.getCoordinateSystems()) {
+            final List<CoordinateAxis> axes = new ArrayList<>();
+            for (final CoordinateAxis axis : cs.getCoordinateAxes()) {
+                if (!(axis instanceof CoordinateAxis1D)) {
+                    LOGGER.fine("Unsupported coordinate system \"" + cs.getName() + "\" in " + file.getLocation());
+                    continue next;
+                }
+                CoordinateAxis copy = copies.get(axis);
+                if (copy == null) {
+                    copy = copy(header, (CoordinateAxis1D) axis);
+                    copies.put(axis, copy);
+                }
+                axes.add(copy);
+            }
+            header.addCoordinateSystem(new CoordinateSystem(header, axes, cs.getCoordinateTransforms()));
+        }
+        header.finish();
+        return header;
+    }
+
+    /**
+     * Copies the given axis in the given in-memory dataset, together with its dimensions,
+     * attributes and coordinate values.
+     */
+    private static CoordinateAxis1D copy(final NetcdfDataset header, final CoordinateAxis1D axis) throws IOException {
+        for (final Dimension dimension : axis.getDimensions()) {
+            final String name = dimension.getShortName();
+            if (header.getRootGroup().findDimensionLocal(name) == null) {
+                header.addDimension(null, new Dimension(name, dimension.getLength()));
+            }
+        }
+        final CoordinateAxis1D copy = new CoordinateAxis1D(header, null, axis.getShortName(), axis.getDataType(),
+                axis.getDimensionsString(), axis.getUnitsString(), axis.getDescription());
+        for (final Attribute attribute : axis.getAttributes()) {
+            copy.addAttribute(attribute);
+        }
+        copy.setAxisType(axis.getAxisType());
+        copy.setPositive(axis.getPositive());
+        copy.setBoundaryRef(axis.getBoundaryRef());
+        copy.setCachedData(axis.read(), false);
+        header.addVariable(null, copy);
+        header.addCoordinateAxis(copy);
+        return copy;
+    }
+
+    /**
+     * The task reading a single file.
+     */
+    private final class Task implements Callable<Result> {
+        /** The file to read. */
+        private final Path path;
+
+        /** The file attributes at the time the file has been selected. */
+        private final BasicFileAttributes attributes;
+
+        /** Value of {@link System#nanoTime()} when this task started, or 0 if not yet started. */
+        private volatile long started;
+
+        /** The future result of this task. */
+        Future<Result> future;
+
+        /** Creates a new task for the given file. */
+        Task(final Path path, final BasicFileAttributes attributes) {
+            this.path       = path;
+            this.attributes = attributes;
+        }
+
+        /** Reads the file. The result is cached by {@link #await()}, unless this task has been cancelled. */
+        @Override
+        public Result call() throws IOException {
+            final long start = System.nanoTime();
+            started = start;
+            try {
+                final Result result = read(path, attributes);
+                opened.incrementAndGet();
+                bytes.addAndGet(attributes.size());
+                return result;
+            } finally {
+                busyNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Waits for the result and caches it. The timeout is measured from the time the task started,
+         * so waiting for a free thread does not count. Results of tasks which did not complete within
+         * the timeout are not cached, even if the task completes later.
+         */
+        Result await() {
+            for (;;) {
+                final long start = started;
+                final long wait = (start == 0) ? timeout : start + timeout - System.nanoTime();
+                try {
+                    final Result result = future.get(Math.max(wait, 0), TimeUnit.NANOSECONDS);
+                    synchronized (cache) {
+                        cache.put(path, result);
+                    }
+                    return result;
+                } catch (TimeoutException e) {
+                    final long s = started;
+                    if (s != 0 && System.nanoTime() - s >= timeout) {
+                        future.cancel(true);
+                        failed.incrementAndGet();
+                        timedOut.incrementAndGet();
+                        return new Result(path, attributes, new TimeoutException("Can not read " + path + " within the timeout."));
+                    }
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    failed.incrementAndGet();
+                    return new Result(path, attributes, (Exception) cause);
+                } catch (InterruptedException | CancellationException e) {
+                    future.cancel(true);
+                    Thread.currentThread().interrupt();
+                    failed.incrementAndGet();
+                    return new Result(path, attributes, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Iterator over the results of a harvest. Files are submitted to the executor
+     * ahead of consumption, up to the {@linkplain #window} size.
+     */
+    private final class Harvest implements Iterator<Result> {
+        /** The root of the directory tree. */
+        private final Path root;
+
+        /** The files to read. */
+        private final Iterator<Path> paths;
+
+        /** The files found in the directory tree so far, for removing deleted files from the cache. */
+        private final Set<Path> found;
+
+        /** Cached {@link Result} or pending {@link Task} instances, in iteration order. */
+        private final Deque<Object> pending;
+
+        /** Value of {@link System#nanoTime()} when this harvest started. */
+        private final long start;
+
+        /** Whether the elapsed time has been recorded. */
+        private boolean finished;
+
+        /** Creates a new harvest of the given files. */
+        Harvest(final Path root, final Iterator<Path> paths) {
+            this.root  = root;
+            this.paths = paths;
+            found   = new HashSet<>();
+            pending = new ArrayDeque<>();
+            start = System.nanoTime();
+        }
+
+        /** Submits tasks until the window is full or there is no more files. */
+        private void fill() {
+            while (pending.size() < window && paths.hasNext()) {
+                final Path path = paths.next();
+                found.add(path);
+                final BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    pending.add(new Result(path, null, e));
+                    continue;
+                }
+                final Result previous;
+                synchronized (cache) {
+                    previous = cache.get(path);
+                }
+                if (previous != null && previous.isCurrent(attributes)) {
+                    cached.incrementAndGet();
+                    pending.add(previous);
+                } else {
+                    final Task task = new Task(path, attributes);
+                    task.future = executor.submit(task);
+                    pending.add(task);
+                }
+            }
+        }
+
+        /**
+         * Returns whether there is more results. When the directory tree has been walked to the end,
+         * removes from the cache the files under the root directory which have not been found.
+         */
+        @Override
+        public synchronized boolean hasNext() {
+            fill();
+            if (pending.isEmpty()) {
+                if (!finished) {
+                    synchronized (cache) {
+                        cache.keySet().removeIf((path) -> path.startsWith(root) && !found.contains(path));
+                    }
+                    found.clear();
+                }
+                finish();
+                return false;
+            }
+            return true;
+        }
+
+        /** Returns the next result, waiting for it if needed. */
+        @Override
+        public synchronized Result next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object next = pending.remove();
+            return (next instanceof Task) ? ((Task) next).await() : (Result) next;
+        }
+
+        /** Cancels all pending tasks. */
+        synchronized void cancel() {
+            for (final Object task : pending) {
+                if (task instanceof Task) {
+                    ((Task) task).future.cancel(true);
+                }
+            }
+            pending.clear();
+            finish();
+        }
+
+        /** Records the elapsed time if not already done. */
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                elapsedNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the counters since this harvester creation.
+     *
+     * @return the current metrics.
+     */
+    public Metrics getMetrics() {
+        return new Metrics(this);
+    }
+
+    /**
+     * Returns the number of results in the cache. Used for testing purpose only.
+     */
+    final int getCachedResultCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Discards all results of previous harvests, so all files will be read again.
+     */
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Stops the threads. Tasks in progress are interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.Collections;
+
+import org.opengis.util.MemberName;
+import org.opengis.util.Record;
+import org.opengis.util.RecordSchema;
+import org.opengis.util.RecordType;
+import org.opengis.util.TypeName;
+
+
+/**
+ * The value of a netCDF variable in a grid cell, as a read-only {@link Record} with a single real member.
+ * The member is named after the netCDF variable.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class SampleRecord implements Record {
+    /**
+     * The name of a record type or of a member type.
+     */
+    private static final class Name extends SimpleName implements TypeName {
+        private static final long serialVersionUID = -2093651263582539482L;
+
+        Name(final String name) {
+            super(null, name);
+        }
+    }
+
+    /**
+     * The name of the single member, which is the netCDF variable name.
+     */
+    private static final class Member extends SimpleName implements MemberName {
+        private static final long serialVersionUID = 7480932147585436735L;
+
+        Member(final String name) {
+            super(null, name);
+        }
+
+        /** Returns the {@code "Real"} type name. */
+        @Override public TypeName getAttributeType() {
+            return REAL;
+        }
+    }
+
+    /**
+     * The name of the record type.
+     */
+    private static final TypeName NAME = new Name("Sample");
+
+    /**
+     * The name of the type of the member.
+     */
+    static final TypeName REAL = new Name("Real");
+
+    /**
+     * The type of sample records for a given netCDF variable.
+     */
+    static final class Type implements RecordType {
+        /** The type of the member. */
+        private static final org.opengis.util.Type REAL_TYPE = () -> REAL;
+
+        /** The member, named after the netCDF variable. */
+        final MemberName member;
+
+        /**
+         * Creates a new record type for the netCDF variable of the given name.
+         *
+         * @param variable  the netCDF variable name.
+         */
+        Type(final String variable) {
+            member = new Member(variable);
+        }
+
+        /** Returns the name of this record type, which is {@code "Sample"}. */
+        @Override public TypeName getTypeName() {
+            return NAME;
+        }
+
+        /** Returns {@code null} since record schemas are not supported by this implementation. */
+        @Override public RecordSchema getContainer() {
+            return null;
+        }
+
+        /** Returns the type of the single member. */
+        @Override public Map<MemberName, org.opengis.util.Type> getMemberTypes() {
+            return Collections.singletonMap(member, REAL_TYPE);
+        }
+
+        /** Returns the name of the single member. */
+        @Override public Set<MemberName> getMembers() {
+            return Collections.singleton(member);
+        }
+
+        /** Returns the {@code "Real"} type name if the given name is the member name, or {@code null} otherwise. */
+        @Override public TypeName locate(final MemberName name) {
+            return member.equals(name) ? REAL : null;
+        }
+
+        /** Returns {@code true} if the given record is of this type. */
+        @Override public boolean isInstance(final Record record) {
+            return (record != null) && equals(record.getRecordType());
+        }
+
+        /** Returns a hash code value for this type. */
+        @Override public int hashCode() {
+            return member.hashCode();
+        }
+
+        /** Compares this type with the given object for equality. */
+        @Override public boolean equals(final Object obj) {
+            return (obj instanceof Type) && ((Type) obj).member.equals(member);
+        }
+    }
+
+    /**
+     * The type of this record.
+     */
+    private final Type type;
+
+    /**
+     * The unpacked value, or {@link Double#NaN} for fill values.
+     */
+    private final double value;
+
+    /**
+     * Creates a new record for the given value.
+     */
+    SampleRecord(final Type type, final double value) {
+        this.type  = type;
+        this.value = value;
+    }
+
+    /**
+     * Returns the type of this record.
+     */
+    @Override
+    public Type getRecordType() {
+        return type;
+    }
+
+    /**
+     * Returns the value associated to the member name.
+     */
+    @Override
+    public Map<MemberName, Object> getAttributes() {
+        return Collections.singletonMap(type.member, value);
+    }
+
+    /**
+     * Returns the value as a {@link Double} if the given name is the member name, or {@code null} otherwise.
+     */
+    @Override
+    public Object locate(final MemberName name) {
+        return type.member.equals(name) ? value : null;
+    }
+
+    /**
+     * Unsupported since sample records are read-only.
+     */
+    @Override
+    public void set(final MemberName name, final Object value) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("Sample records are read-only.");
+    }
+
+    /**
+     * Returns a hash code value for this record.
+     */
+    @Override
+    public int hashCode() {
+        return Double.hashCode(value) + type.hashCode();
+    }
+
+    /**
+     * Compares this record with the given object for equality.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof SampleRecord) {
+            final SampleRecord other = (SampleRecord) obj;
+            return Double.doubleToLongBits(value) == Double.doubleToLongBits(other.value) && type.equals(other.type);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a string representation of the sample value.
+     */
+    @Override
+    public String toString() {
+        return type.member + "=" + value;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import javax.vecmath.SingularMatrixException;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+
+
+/**
+ * A {@link MathTransform} defined by an affine matrix. This is used by {@link NetcdfCRS#getGridToCRS()}
+ * when no {@link org.opengis.referencing.operation.MathTransformFactory} is available on the classpath.
+ * The matrix shall be square, with the translation terms in the last column.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class SimpleAffineTransform implements MathTransform {
+    /**
+     * The affine matrix. Shall not be modified.
+     */
+    private final SimpleMatrix matrix;
+
+    /**
+     * The inverse transform, computed when first needed.
+     */
+    private SimpleAffineTransform inverse;
+
+    /**
+     * Creates a new transform for the given matrix. The matrix is not cloned.
+     *
+     * @param matrix  the affine matrix, which shall not be modified after this call.
+     */
+    SimpleAffineTransform(final SimpleMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    /**
+     * Returns the number of source and target dimensions, which is the matrix size minus 1.
+     */
+    @Override
+    public int getSourceDimensions() {
+        return matrix.getNumCol() - 1;
+    }
+
+    /**
+     * Returns the number of source and target dimensions, which is the matrix size minus 1.
+     */
+    @Override
+    public int getTargetDimensions() {
+        return matrix.getNumRow() - 1;
+    }
+
+    /**
+     * Returns {@code true} if the matrix is the identity matrix.
+     */
+    @Override
+    public boolean isIdentity() {
+        return matrix.isIdentity();
+    }
+
+    /**
+     * Transforms the given position.
+     */
+    @Override
+    public DirectPosition transform(final DirectPosition ptSrc, DirectPosition ptDst) {
+        final int dimension = getSourceDimensions();
+        if (ptSrc.getDimension() != dimension) {
+            throw new MismatchedDimensionException("Position shall have " + dimension + " dimensions.");
+        }
+        final double[] coordinates = ptSrc.getCoordinate();
+        transform(coordinates, 0, coordinates, 0, 1);
+        if (ptDst == null) {
+            ptDst = new SimpleDirectPosition(dimension);
+        }
+        for (int i=0; i<dimension; i++) {
+            ptDst.setOrdinate(i, coordinates[i]);
+        }
+        return ptDst;
+    }
+
+    /**
+     * Transforms the given points. Source and target arrays can overlap.
+     */
+    @Override
+    public void transform(final double[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts) {
+        final int dimension = getSourceDimensions();
+        final double[] buffer = new double[dimension];
+        int step = dimension;
+        if (srcPts == dstPts && dstOff > srcOff) {
+            /*
+             * Overlapping arrays: iterate backward for avoiding
+             * to overwrite source points not yet transformed.
+             */
+            srcOff += (numPts - 1) * dimension;
+            dstOff += (numPts - 1) * dimension;
+            step = -dimension;
+        }
+        while (--numPts >= 0) {
+            for (int j=0; j<dimension; j++) {
+                double sum = matrix.getElement(j, dimension);
+                for (int i=0; i<dimension; i++) {
+                    sum += matrix.getElement(j, i) * srcPts[srcOff + i];
+                }
+                buffer[j] = sum;
+            }
+            System.arraycopy(buffer, 0, dstPts, dstOff, dimension);
+            srcOff += step;
+            dstOff += step;
+        }
+    }
+
+    /**
+     * Transforms the given points using {@code double} arithmetic.
+     */
+    @Override
+    public void transform(final float[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts) {
+        final double[] buffer = new double[numPts * getSourceDimensions()];
+        transform(srcPts, srcOff, buffer, 0, numPts);
+        for (int i=0; i<buffer.length; i++) {
+            dstPts[dstOff + i] = (float) buffer[i];
+        }
+    }
+
+    /**
+     * Transforms the given points, converting them to {@code double} values.
+     */
+    @Override
+    public void transform(final float[] srcPts, final int srcOff, final double[] dstPts, final int dstOff, final int numPts) {
+        final double[] buffer = new double[numPts * getSourceDimensions()];
+        for (int i=0; i<buffer.length; i++) {
+            buffer[i] = srcPts[srcOff + i];
+        }
+        transform(buffer, 0, dstPts, dstOff, numPts);
+    }
+
+    /**
+     * Transforms the given points, converting them to {@code float} values.
+     */
+    @Override
+    public void transform(final double[] srcPts, final int srcOff, final float[] dstPts, int dstOff, final int numPts) {
+        final double[] buffer = new double[numPts * getSourceDimensions()];
+        transform(srcPts, srcOff, buffer, 0, numPts);
+        for (int i=0; i<buffer.length; i++) {
+            dstPts[dstOff + i] = (float) buffer[i];
+        }
+    }
+
+    /**
+     * Returns the derivative, which is the same everywhere for an affine transform.
+     */
+    @Override
+    public Matrix derivative(final DirectPosition point) {
+        final int dimension = getSourceDimensions();
+        final SimpleMatrix derivative = new SimpleMatrix(dimension);
+        for (int j=0; j<dimension; j++) {
+            for (int i=0; i<dimension; i++) {
+                derivative.setElement(j, i, matrix.getElement(j, i));
+            }
+        }
+        return derivative;
+    }
+
+    /**
+     * Returns the inverse transform.
+     *
+     * @throws NoninvertibleTransformException if the matrix is singular.
+     */
+    @Override
+    public synchronized MathTransform inverse() throws NoninvertibleTransformException {
+        if (inverse == null) {
+            final SimpleMatrix m = matrix.clone();
+            try {
+                m.invert();
+            } catch (SingularMatrixException e) {
+                throw new NoninvertibleTransformException("Singular matrix.", e);
+            }
+            inverse = new SimpleAffineTransform(m);
+            inverse.inverse = this;
+        }
+        return inverse;
+    }
+
+    /**
+     * Unsupported by this simple implementation.
+     */
+    @Override
+    public String toWKT() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a string representation of the matrix.
+     */
+    @Override
+    public String toString() {
+        return "Affine[" + matrix + ']';
+    }
+}
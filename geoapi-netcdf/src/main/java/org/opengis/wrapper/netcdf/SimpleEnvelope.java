@@ -0,0 +1,168 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import java.util.Arrays;
+import java.io.Serializable;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+
+/**
+ * A simple {@link Envelope} implementation defined by minimal and maximal coordinate values.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class SimpleEnvelope implements Envelope, Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 3164215328766834561L;
+
+    /**
+     * The coordinate reference system, or {@code null} if unknown.
+     */
+    private final CoordinateReferenceSystem crs;
+
+    /**
+     * The minimal and maximal coordinate values.
+     */
+    private final double[] minimum, maximum;
+
+    /**
+     * Creates a new envelope for the given coordinate values. The arrays are not cloned.
+     *
+     * @param crs      the coordinate reference system, or {@code null} if unknown.
+     * @param minimum  the minimal coordinate values.
+     * @param maximum  the maximal coordinate values.
+     */
+    SimpleEnvelope(final CoordinateReferenceSystem crs, final double[] minimum, final double[] maximum) {
+        this.crs     = crs;
+        this.minimum = minimum;
+        this.maximum = maximum;
+    }
+
+    /**
+     * Returns the coordinate reference system, or {@code null} if unknown.
+     */
+    @Override
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the number of dimensions.
+     */
+    @Override
+    public int getDimension() {
+        return minimum.length;
+    }
+
+    /**
+     * Returns a copy of the given coordinate values as a position.
+     */
+    private static DirectPosition position(final double[] coordinates) {
+        final SimpleDirectPosition position = new SimpleDirectPosition(coordinates.length);
+        System.arraycopy(coordinates, 0, position.ordinates, 0, coordinates.length);
+        return position;
+    }
+
+    /**
+     * Returns the minimal coordinate values.
+     */
+    @Override
+    public DirectPosition getLowerCorner() {
+        return position(minimum);
+    }
+
+    /**
+     * Returns the maximal coordinate values.
+     */
+    @Override
+    public DirectPosition getUpperCorner() {
+        return position(maximum);
+    }
+
+    /**
+     * Returns the minimal coordinate value in the given dimension.
+     */
+    @Override
+    public double getMinimum(final int dimension) {
+        return minimum[dimension];
+    }
+
+    /**
+     * Returns the maximal coordinate value in the given dimension.
+     */
+    @Override
+    public double getMaximum(final int dimension) {
+        return maximum[dimension];
+    }
+
+    /**
+     * Returns the median coordinate value in the given dimension.
+     */
+    @Override
+    public double getMedian(final int dimension) {
+        return (minimum[dimension] + maximum[dimension]) / 2;
+    }
+
+    /**
+     * Returns the difference between the maximal and minimal coordinate values in the given dimension.
+     */
+    @Override
+    public double getSpan(final int dimension) {
+        return maximum[dimension] - minimum[dimension];
+    }
+
+    /**
+     * Compares this envelope with the given object for equality.
+     */
+    @Override
+    public boolean equals(final Object object) {
+        if (object instanceof SimpleEnvelope) {
+            final SimpleEnvelope other = (SimpleEnvelope) object;
+            return Arrays.equals(minimum, other.minimum) && Arrays.equals(maximum, other.maximum);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a hash code value for this envelope.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(minimum) + 31 * Arrays.hashCode(maximum);
+    }
+
+    /**
+     * Returns a string representation of this envelope.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder("BOX(");
+        for (int i=0; i<minimum.length; i++) {
+            buffer.append(i == 0 ? "" : " ").append(minimum[i]);
+        }
+        buffer.append(',');
+        for (int i=0; i<maximum.length; i++) {
+            buffer.append(' ').append(maximum[i]);
+        }
+        return buffer.append(')').toString();
+    }
+}
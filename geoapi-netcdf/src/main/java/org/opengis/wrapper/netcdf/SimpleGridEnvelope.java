@@ -0,0 +1,133 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import java.util.Arrays;
+import java.io.Serializable;
+
+import org.opengis.coverage.grid.GridEnvelope;
+import org.opengis.coverage.grid.GridCoordinates;
+
+
+/**
+ * A trivial implementation of {@link GridEnvelope} with inclusive low and high grid coordinates.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class SimpleGridEnvelope implements GridEnvelope, Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 2281837543197311346L;
+
+    /**
+     * The minimal and maximal grid coordinates, both inclusive.
+     */
+    private final long[] low, high;
+
+    /**
+     * Creates a new grid envelope with the given coordinates, which are copied.
+     *
+     * @param  low   the minimal grid coordinates, inclusive.
+     * @param  high  the maximal grid coordinates, inclusive.
+     */
+    SimpleGridEnvelope(final long[] low, final long[] high) {
+        if (low.length != high.length) {
+            throw new IllegalArgumentException("Mismatched dimensions.");
+        }
+        this.low  = low.clone();
+        this.high = high.clone();
+    }
+
+    /**
+     * Returns the number of dimensions.
+     */
+    @Override
+    public int getDimension() {
+        return low.length;
+    }
+
+    /**
+     * Returns the minimal coordinate values for all grid points, inclusive.
+     */
+    @Override
+    public GridCoordinates getLow() {
+        return new SimpleGridCoordinates(low);
+    }
+
+    /**
+     * Returns the maximal coordinate values for all grid points, inclusive.
+     */
+    @Override
+    public GridCoordinates getHigh() {
+        return new SimpleGridCoordinates(high);
+    }
+
+    /**
+     * Returns the valid minimum grid coordinate along the specified dimension.
+     */
+    @Override
+    public long getLow(final int dimension) {
+        return low[dimension];
+    }
+
+    /**
+     * Returns the valid maximum grid coordinate along the specified dimension, inclusive.
+     */
+    @Override
+    public long getHigh(final int dimension) {
+        return high[dimension];
+    }
+
+    /**
+     * Returns the number of integer grid coordinates along the specified dimension.
+     */
+    @Override
+    public long getSize(final int dimension) {
+        return high[dimension] - low[dimension] + 1;
+    }
+
+    /**
+     * Compares this grid envelope with the specified object for equality.
+     *
+     * @param  object  the object to compares with this grid envelope.
+     * @return {@code true} if the given object is equal to this grid envelope.
+     */
+    @Override
+    public boolean equals(final Object object) {
+        if (object instanceof SimpleGridEnvelope) {
+            final SimpleGridEnvelope other = (SimpleGridEnvelope) object;
+            return Arrays.equals(low, other.low) && Arrays.equals(high, other.high);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a hash code value for this object.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(low) + 31 * Arrays.hashCode(high);
+    }
+
+    /**
+     * Returns a string representation of this grid envelope.
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + '[' + Arrays.toString(low) + " … " + Arrays.toString(high) + ']';
+    }
+}
@@ -30,7 +30,7 @@ import org.opengis.util.InternationalString;
  * @version 3.1
  * @since   3.1
  */
-final class SimpleName implements LocalName, Serializable {
+class SimpleName implements LocalName, Serializable {
     /**
      * For cross-version compatibility.
      */
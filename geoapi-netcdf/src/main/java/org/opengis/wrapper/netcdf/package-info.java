@@ -26,6 +26,8 @@
  *       <li>Coordinate Operations as wrappers around the netCDF {@link ucar.unidata.geoloc.Projection} object.</li>
  *     </ul>
  *   </li>
+ *   <li>Coverage services, as wrappers around numeric {@link ucar.nc2.Variable} objects
+ *       with unpacked chunks cached in memory.</li>
  * </ul>
  *
  * Home page: <a href="http://www.geoapi.org/java/examples/netcdf/index.html">GeoAPI-netCDF bindings</a>.
@@ -171,7 +171,7 @@ public strictfp class NetcdfCRSTest extends IOTestCase {
      * @param  collection  the collection from which to get the singleton.
      * @return the singleton element from the collection.
      */
-    private static <E> E assertSingleton(final Iterable<? extends E> collection) {
+    static <E> E assertSingleton(final Iterable<? extends E> collection) {
         assertNotNull("Null collection.", collection);
         final Iterator<? extends E> it = collection.iterator();
         assertTrue("The collection is empty.", it.hasNext());
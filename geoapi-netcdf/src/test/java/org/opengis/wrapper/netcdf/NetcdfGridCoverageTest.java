@@ -0,0 +1,241 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.io.IOException;
+
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.dataset.CoordinateSystem;
+import ucar.nc2.dataset.NetcdfDataset;
+
+import org.opengis.coverage.CommonPointRule;
+import org.opengis.coverage.GeometryValuePair;
+import org.opengis.coverage.PointOutsideCoverageException;
+import org.opengis.coverage.grid.GridEnvelope;
+import org.opengis.coverage.grid.GridPoint;
+import org.opengis.coverage.grid.SequenceType;
+import org.opengis.geometry.Envelope;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.metadata.extent.GeographicBoundingBox;
+import org.opengis.util.MemberName;
+import org.opengis.util.Record;
+import org.opengis.test.dataset.TestData;
+
+import org.junit.Test;
+
+import static org.opengis.test.Assert.*;
+
+
+/**
+ * Tests the {@link NetcdfGridCoverage} class using the {@link TestData#NETCDF_2D_GEOGRAPHIC} file.
+ * That file contains a {@code SST(lat, lon)} variable of 73 × 73 packed 16 bits integers, with
+ * longitudes from 180°W to 180°E by steps of 5° and latitudes from 90°S to 90°N by steps of 2.5°.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class NetcdfGridCoverageTest extends IOTestCase {
+    /**
+     * Tolerance factor for floating point comparisons.
+     */
+    private static final double EPS = 1E-9;
+
+    /**
+     * Returns the expected value for the given packed value, using the {@code scale_factor}
+     * and {@code add_offset} attributes of the test file.
+     */
+    private static double unpack(final int packed) {
+        return packed * 0.0011 - 1.85;
+    }
+
+    /**
+     * Wraps the single coordinate system of the given dataset.
+     */
+    private static NetcdfCRS wrap(final NetcdfDataset dataset) throws IOException {
+        final List<CoordinateSystem> systems = dataset.getCoordinateSystems();
+        assertEquals("Number of coordinate systems.", 1, systems.size());
+        return NetcdfCRS.wrap(systems.get(0), dataset, null);
+    }
+
+    /**
+     * Tests evaluation at geographic coordinates, one point at a time and in a batch.
+     *
+     * @throws IOException if an error occurred while reading the test file.
+     */
+    @Test
+    public void testEvaluate() throws IOException {
+        final NetcdfFile file = open(TestData.NETCDF_2D_GEOGRAPHIC);
+        try (NetcdfDataset dataset = new NetcdfDataset(file)) {
+            final NetcdfCRS crs = wrap(dataset);
+            final ChunkCache cache = new ChunkCache(1 << 20);
+            final NetcdfGridCoverage coverage = new NetcdfGridCoverage(file, "SST", crs, cache);
+            assertEquals(Arrays.asList("lon", "lat"), coverage.getAxisNames());
+            final GridEnvelope extent = coverage.getExtent();
+            assertEquals(72, extent.getHigh(0));
+            assertEquals(72, extent.getHigh(1));
+
+            final SimpleDirectPosition position = new SimpleDirectPosition(2);
+            assertEquals(unpack(24899), coverage.evaluate(position, (double[]) null)[0], EPS);
+            position.setOrdinate(0,  -80);
+            position.setOrdinate(1,  -65);
+            assertEquals(unpack(318), coverage.evaluate(position, (double[]) null)[0], EPS);
+            position.setOrdinate(0,  190);
+            try {
+                coverage.evaluate(position, (double[]) null);
+                fail("Expected PointOutsideCoverageException.");
+            } catch (PointOutsideCoverageException e) {
+                assertNotNull(e.getMessage());
+            }
+
+            final double[] values = new double[5];
+            coverage.evaluate(new double[] {
+                -180,  -90,
+                -155,   10,
+                 180,   90,
+                 0.9, -0.4,
+                 200,    0
+            }, 0, 5, values, 0);
+            assertEquals(unpack(   27), values[0], EPS);
+            assertEquals(unpack(27669), values[1], EPS);
+            assertEquals(unpack(   14), values[2], EPS);
+            assertEquals(unpack(24899), values[3], EPS);
+            assertTrue(Double.isNaN(values[4]));
+            assertEquals("The file is small enough for being read in a single chunk.", 1, cache.getMissCount());
+        }
+    }
+
+    /**
+     * Tests reading a sub-region with small blocks, and compares with the values read in a single chunk.
+     *
+     * @throws IOException if an error occurred while reading the test file.
+     */
+    @Test
+    public void testRead() throws IOException {
+        try (NetcdfFile file = open(TestData.NETCDF_2D_GEOGRAPHIC)) {
+            final ChunkCache cache = new ChunkCache(1 << 20);
+            final NetcdfGridCoverage whole   = new NetcdfGridCoverage(file, "SST", null, cache);
+            final NetcdfGridCoverage blocked = new NetcdfGridCoverage(file, "SST", null, cache, new int[] {10, 7});
+            final double[] all = whole.read(whole.getExtent());
+            assertEquals(73 * 73, all.length);
+            assertEquals(unpack(318), all[10*73 + 20], EPS);
+
+            final GridEnvelope region = new SimpleGridEnvelope(new long[] {15, 4}, new long[] {52, 30});
+            final double[] subset = blocked.read(region);
+            assertEquals(38 * 27, subset.length);
+            for (int y=0; y<27; y++) {
+                for (int x=0; x<38; x++) {
+                    assertEquals(all[(y + 4)*73 + (x + 15)], subset[y*38 + x], 0);
+                }
+            }
+            /*
+             * Chunks intersecting the region are 5 along x (10 cells each) and 5 along y (7 cells each).
+             * Reading the region again shall not read the file.
+             */
+            final long misses = cache.getMissCount();
+            assertEquals(1 + 5*5, misses);
+            assertArrayEquals(subset, blocked.read(region), 0);
+            assertEquals(misses, cache.getMissCount());
+        }
+    }
+
+    /**
+     * Tests the {@link org.opengis.coverage.grid.GridValuesMatrix} methods: envelope, range type,
+     * sequencing rule and values.
+     *
+     * @throws IOException if an error occurred while reading the test file.
+     */
+    @Test
+    public void testGridValues() throws IOException {
+        final NetcdfFile file = open(TestData.NETCDF_2D_GEOGRAPHIC);
+        try (NetcdfDataset dataset = new NetcdfDataset(file)) {
+            final NetcdfGridCoverage coverage = new NetcdfGridCoverage(file, "SST", wrap(dataset), new ChunkCache(1 << 20));
+            final Envelope envelope = coverage.getEnvelope();
+            assertEquals(-182.5,  envelope.getMinimum(0), EPS);
+            assertEquals(+182.5,  envelope.getMaximum(0), EPS);
+            assertEquals( -91.25, envelope.getMinimum(1), EPS);
+            assertEquals( +91.25, envelope.getMaximum(1), EPS);
+
+            final MemberName member = NetcdfCRSTest.assertSingleton(coverage.getRangeType().getMembers());
+            assertEquals("SST", member.toString());
+            assertEquals(SequenceType.LINEAR, coverage.getSequencingRule().getType());
+            assertEquals(Arrays.asList("+lon", "+lat"), coverage.getSequencingRule().getScanDirection());
+
+            final List<Record> values = coverage.getValues();
+            assertEquals(73 * 73, values.size());
+            final Record record = values.get(10*73 + 20);
+            assertTrue(coverage.getRangeType().isInstance(record));
+            assertEquals(unpack(318), (Double) record.locate(member), EPS);
+
+            final SimpleDirectPosition position = new SimpleDirectPosition(2);
+            position.setOrdinate(0, -80);
+            position.setOrdinate(1, -65);
+            assertEquals(record, NetcdfCRSTest.assertSingleton(coverage.evaluate(position, (List<String>) null)));
+            assertTrue(coverage.evaluate(position, Collections.singleton("other")).isEmpty());
+        }
+    }
+
+    /**
+     * Returns the grid coordinates of the given grid point.
+     */
+    private static long[] gridCoordinates(final GeometryValuePair pair) {
+        return ((GridPoint) pair.getGeometry()).getGridCoordinates().getCoordinateValues();
+    }
+
+    /**
+     * Tests the {@code find(…)} methods, the domain extents and the common point rule.
+     *
+     * @throws IOException if an error occurred while reading the test file.
+     */
+    @Test
+    public void testFind() throws IOException {
+        final NetcdfFile file = open(TestData.NETCDF_2D_GEOGRAPHIC);
+        try (NetcdfDataset dataset = new NetcdfDataset(file)) {
+            final NetcdfGridCoverage coverage = new NetcdfGridCoverage(file, "SST", wrap(dataset), new ChunkCache(1 << 20));
+            assertEquals(CommonPointRule.START, coverage.getCommonPointRule());
+
+            final SimpleDirectPosition position = new SimpleDirectPosition(2);
+            position.setOrdinate(0, -79);
+            position.setOrdinate(1, -64.5);
+            GeometryValuePair pair = coverage.find(position);
+            assertArrayEquals(new long[] {20, 10}, gridCoordinates(pair));
+            assertEquals(unpack(318), (Double) NetcdfCRSTest.assertSingleton(pair.getValue().getAttributes().values()), EPS);
+            /*
+             * Cells are 5° wide and 2.5° high, so the next nearest grid points are
+             * the ones below and above before the ones on the left and right sides.
+             */
+            final List<GeometryValuePair> pairs = coverage.find(position, 3);
+            assertEquals(3, pairs.size());
+            assertArrayEquals(new long[] {20, 10}, gridCoordinates(pairs.get(0)));
+            assertArrayEquals(new long[] {20, 11}, gridCoordinates(pairs.get(1)));
+            assertArrayEquals(new long[] {20,  9}, gridCoordinates(pairs.get(2)));
+
+            position.setOrdinate(0, 200);                                   // Outside the coverage.
+            position.setOrdinate(1, 0);
+            assertArrayEquals(new long[] {72, 36}, gridCoordinates(coverage.find(position)));
+            assertTrue(coverage.find(position, 0).isEmpty());
+
+            final Set<Extent> extents = coverage.getDomainExtents();
+            final GeographicBoundingBox bbox = (GeographicBoundingBox) NetcdfCRSTest.assertSingleton(extents);
+            assertEquals(-180, bbox.getWestBoundLongitude(), EPS);
+            assertEquals(+180, bbox.getEastBoundLongitude(), EPS);
+            assertEquals( -90, bbox.getSouthBoundLatitude(), EPS);
+            assertEquals( +90, bbox.getNorthBoundLatitude(), EPS);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The netCDF wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.netcdf;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.opengis.metadata.Metadata;
+import org.opengis.referencing.crs.CompoundCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.test.dataset.TestData;
+
+import org.junit.Test;
+
+import static org.opengis.test.Assert.*;
+
+
+/**
+ * Tests the {@link NetcdfHarvester} class on a temporary directory containing copies of the test files.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class NetcdfHarvesterTest {
+    /**
+     * Harvests the given directory and returns the results by file name.
+     */
+    private static Map<String,NetcdfHarvester.Result> harvest(final NetcdfHarvester harvester, final Path root)
+            throws IOException
+    {
+        try (Stream<NetcdfHarvester.Result> results = harvester.harvest(root)) {
+            return results.collect(Collectors.toMap((r) -> r.getPath().getFileName().toString(), (r) -> r));
+        }
+    }
+
+    /**
+     * Tests harvesting a directory tree twice, with a file modified between the two harvests.
+     *
+     * @throws IOException if an error occurred while creating or reading the test files.
+     */
+    @Test
+    public void testHarvest() throws IOException {
+        final Path root = Files.createTempDirectory("netcdf");
+        try (NetcdfHarvester harvester = new NetcdfHarvester(2, 1, TimeUnit.MINUTES)) {
+            final Path sub = Files.createDirectory(root.resolve("sub"));
+            final Path geographic = Files.write(root.resolve("geographic.nc"), TestData.NETCDF_2D_GEOGRAPHIC.content());
+            Files.write(sub .resolve("projected.nc"), TestData.NETCDF_4D_PROJECTED.content());
+            Files.write(sub .resolve("broken.nc"),    new byte[] {'N', 'o', 't', ' ', 'n', 'e', 't', 'C', 'D', 'F'});
+            Files.write(root.resolve("readme.txt"),   new byte[] {'I', 'g', 'n', 'o', 'r', 'e', 'd'});
+
+            Map<String,NetcdfHarvester.Result> results = harvest(harvester, root);
+            assertEquals(3, results.size());
+            assertNotNull(results.get("broken.nc").getFailure());
+            final NetcdfHarvester.Result result = results.get("geographic.nc");
+            assertNull(result.getFailure());
+            final Metadata metadata = result.getMetadata();
+            assertEquals("Test data from Sea Surface Temperature Analysis Model",
+                    metadata.getIdentificationInfo().iterator().next().getCitation().getTitle().toString());
+            assertEquals(1, result.getCoordinateReferenceSystems().size());
+            assertNotNull(result.getCoordinateReferenceSystems().get(0).getGridToCRS());
+            final List<NetcdfCRS> projected = results.get("projected.nc").getCoordinateReferenceSystems();
+            assertEquals(1, projected.size());
+            assertInstanceOf("Expected a (projected + vertical + time) CRS.", CompoundCRS.class, projected.get(0));
+            assertInstanceOf("Expected a projected CRS.", ProjectedCRS.class,
+                    ((CompoundCRS) projected.get(0)).getComponents().get(0));
+            assertNull("Data variables shall not be retained.", ((NetcdfMetadata) metadata).file.findVariable("SST"));
+            assertEquals(2, harvester.getCachedResultCount());
+
+            NetcdfHarvester.Metrics metrics = harvester.getMetrics();
+            assertEquals(2, metrics.getFileCount());
+            assertEquals(0, metrics.getCachedCount());
+            assertEquals(1, metrics.getFailureCount());
+            assertEquals(0, metrics.getTimeoutCount());
+            assertEquals(TestData.NETCDF_2D_GEOGRAPHIC.content().length
+                       + TestData.NETCDF_4D_PROJECTED .content().length, metrics.getByteCount());
+            /*
+             * Harvest again after modifying one file. Only the modified file
+             * and the file which could not be read shall be opened again.
+             */
+            Files.setLastModifiedTime(geographic, FileTime.fromMillis(
+                    Files.getLastModifiedTime(geographic).toMillis() - TimeUnit.HOURS.toMillis(1)));
+            results = harvest(harvester, root);
+            assertEquals(3, results.size());
+            assertNotSame(result, results.get("geographic.nc"));
+            metrics = harvester.getMetrics();
+            assertEquals(3, metrics.getFileCount());
+            assertEquals(1, metrics.getCachedCount());
+            assertEquals(2, metrics.getFailureCount());
+            assertTrue(metrics.getFilesPerSecond() > 0);
+            /*
+             * Harvest again after deleting a file. The result for that file shall be removed from the cache.
+             */
+            Files.delete(sub.resolve("projected.nc"));
+            results = harvest(harvester, root);
+            assertEquals(2, results.size());
+            assertEquals(1, harvester.getCachedResultCount());
+        } finally {
+            delete(root);
+        }
+    }
+
+    /**
+     * Tests that the cache does not retain more results than its capacity.
+     *
+     * @throws IOException if an error occurred while creating or reading the test files.
+     */
+    @Test
+    public void testCacheCapacity() throws IOException {
+        final Path root = Files.createTempDirectory("netcdf");
+        try (NetcdfHarvester harvester = new NetcdfHarvester(2, 1, TimeUnit.MINUTES, 1)) {
+            Files.write(root.resolve("geographic.nc"), TestData.NETCDF_2D_GEOGRAPHIC.content());
+            Files.write(root.resolve("projected.nc"),  TestData.NETCDF_4D_PROJECTED.content());
+            assertEquals(2, harvest(harvester, root).size());
+            assertEquals(1, harvester.getCachedResultCount());
+            assertEquals(2, harvest(harvester, root).size());
+            assertEquals(1, harvester.getCachedResultCount());
+            final NetcdfHarvester.Metrics metrics = harvester.getMetrics();
+            assertEquals("Only the most recent result shall be found in the cache.", 1, metrics.getCachedCount());
+            assertEquals(3, metrics.getFileCount());
+        } finally {
+            delete(root);
+        }
+    }
+
+    /**
+     * Deletes the given directory tree.
+     */
+    private static void delete(final Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (final Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
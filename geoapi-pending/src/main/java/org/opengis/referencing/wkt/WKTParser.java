@@ -0,0 +1,2508 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2026 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.referencing.wkt;
+
+import java.util.Map;
+import java.util.Date;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import javax.measure.Unit;
+import javax.measure.Quantity;
+import javax.measure.spi.ServiceProvider;
+import javax.measure.spi.SystemOfUnits;
+import javax.measure.quantity.Angle;
+import javax.measure.quantity.Dimensionless;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Pressure;
+import javax.measure.quantity.Time;
+
+import org.opengis.util.CodeList;
+import org.opengis.util.FactoryException;
+import org.opengis.metadata.Identifier;
+import org.opengis.parameter.ParameterValue;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.referencing.ReferenceSystem;
+import org.opengis.referencing.cs.AffineCS;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CSFactory;
+import org.opengis.referencing.cs.CartesianCS;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.cs.EllipsoidalCS;
+import org.opengis.referencing.cs.ParametricCS;
+import org.opengis.referencing.cs.SphericalCS;
+import org.opengis.referencing.cs.TimeCS;
+import org.opengis.referencing.cs.VerticalCS;
+import org.opengis.referencing.crs.CRSFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.SingleCRS;
+import org.opengis.referencing.datum.Datum;
+import org.opengis.referencing.datum.DatumFactory;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.EngineeringDatum;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.ImageDatum;
+import org.opengis.referencing.datum.ParametricDatum;
+import org.opengis.referencing.datum.PixelInCell;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.opengis.referencing.datum.TemporalDatum;
+import org.opengis.referencing.datum.VerticalDatum;
+import org.opengis.referencing.datum.VerticalDatumType;
+import org.opengis.referencing.operation.Conversion;
+import org.opengis.referencing.operation.CoordinateOperationFactory;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.MathTransformFactory;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+
+
+/**
+ * A single-pass parser of <cite>Well Known Text</cite> (WKT) version 1 and 2. This parser reads the
+ * characters of a {@link CharSequence} directly, without regular expressions and without building an
+ * intermediate tree of elements: referencing objects are created by the GeoAPI factories given at
+ * construction time as soon as all their components are known. Consequently the same parser can be
+ * used by any GeoAPI implementation, for example the example factories and the Proj.4 wrappers.
+ *
+ * <p>This parser supports the following elements:</p>
+ * <ul>
+ *   <li>All CRS types defined by ISO 19162 (geodetic, projected, vertical, temporal, parametric,
+ *       engineering, image, compound and derived CRS) together with their datum and coordinate system.</li>
+ *   <li>The WKT 1 elements {@code GEOGCS}, {@code GEOCCS}, {@code PROJCS}, {@code VERT_CS},
+ *       {@code LOCAL_CS} and {@code COMPD_CS}.</li>
+ *   <li>The WKT 1 math transforms {@code PARAM_MT}, {@code CONCAT_MT}, {@code INVERSE_MT}
+ *       and {@code PASSTHROUGH_MT}.</li>
+ *   <li>Identifiers, remarks, scopes and anchor points.</li>
+ * </ul>
+ *
+ * <p>The WKT 1 {@code TOWGS84} element is given to the datum factory as a {@code double[]} array
+ * in the {@value #TOWGS84_KEY} property, which factories are free to ignore.
+ * Geographic extents ({@code AREA}, {@code BBOX}, {@code VERTICALEXTENT} and {@code TIMEEXTENT})
+ * and other elements not listed above are skipped.</p>
+ *
+ * <p><b>Performance:</b>
+ * keywords are identified by a binary search in a table of known keywords, without creating
+ * {@link String} instances. Units, ellipsoids, prime meridians, datum, axes, coordinate systems and CRS
+ * are pooled by the text of their WKT element, so that a CRS appearing many times (for example the base
+ * CRS of many projected CRS) is parsed once and shared by all parsed objects. The pool is kept by this
+ * {@code WKTParser} instance; it is bounded and cleared when too many objects have been parsed.</p>
+ *
+ * <p>Units of measurement are obtained from the {@link ServiceProvider} of the <cite>Units of Measurement</cite>
+ * API, so an implementation of that API shall be available at runtime.
+ * This class is thread-safe.</p>
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class WKTParser {
+    /**
+     * Key of the geodetic datum property holding the Bursa-Wolf parameters of the WKT 1 {@code TOWGS84} element.
+     * The value is a {@code double[]} array of 3 or 7 elements in the order they appear in the WKT.
+     * This is not a property defined by GeoAPI; factories which do not support datum shifts ignore it.
+     */
+    public static final String TOWGS84_KEY = "toWGS84";
+
+    /**
+     * Code of keywords not known to this parser. Synonymous keywords share the same code,
+     * and CRS keywords are in the {@link #GEODCRS} … {@link #COMPOUNDCRS} range.
+     */
+    private static final int UNKNOWN        = 0;
+
+    /** Code of the {@code GEODCRS}, {@code GEOGCRS} and their WKT 2 synonymous keywords. */
+    private static final int GEODCRS        = 1;
+
+    /** Code of the WKT 1 {@code GEOGCS} keyword. */
+    private static final int GEOGCS         = 2;
+
+    /** Code of the WKT 1 {@code GEOCCS} keyword. */
+    private static final int GEOCCS         = 3;
+
+    /** Code of the {@code PROJCRS} and its WKT 2 synonymous keywords. */
+    private static final int PROJCRS        = 4;
+
+    /** Code of the WKT 1 {@code PROJCS} keyword. */
+    private static final int PROJCS         = 5;
+
+    /** Code of the {@code VERTCRS} and its WKT 2 synonymous keywords. */
+    private static final int VERTCRS        = 6;
+
+    /** Code of the WKT 1 {@code VERT_CS} keyword. */
+    private static final int VERT_CS        = 7;
+
+    /** Code of the {@code TIMECRS} and {@code BASETIMECRS} keywords. */
+    private static final int TIMECRS        = 8;
+
+    /** Code of the {@code PARAMETRICCRS} and {@code BASEPARAMCRS} keywords. */
+    private static final int PARAMETRICCRS  = 9;
+
+    /** Code of the {@code ENGCRS} and its WKT 2 synonymous keywords. */
+    private static final int ENGCRS         = 10;
+
+    /** Code of the WKT 1 {@code LOCAL_CS} keyword. */
+    private static final int LOCAL_CS       = 11;
+
+    /** Code of the {@code IMAGECRS} keyword. */
+    private static final int IMAGECRS       = 12;
+
+    /** Code of the {@code COMPOUNDCRS} and the WKT 1 {@code COMPD_CS} keywords. */
+    private static final int COMPOUNDCRS    = 13;
+
+    /** Code of the {@code DATUM}, {@code GEODETICDATUM} and {@code TRF} keywords. */
+    private static final int DATUM          = 20;
+
+    /** Code of the {@code VDATUM}, {@code VERTICALDATUM} and {@code VRF} keywords. */
+    private static final int VDATUM         = 21;
+
+    /** Code of the WKT 1 {@code VERT_DATUM} keyword. */
+    private static final int VERT_DATUM     = 22;
+
+    /** Code of the {@code TDATUM} and {@code TIMEDATUM} keywords. */
+    private static final int TDATUM         = 23;
+
+    /** Code of the {@code PDATUM} and {@code PARAMETRICDATUM} keywords. */
+    private static final int PDATUM         = 24;
+
+    /** Code of the {@code EDATUM} and {@code ENGINEERINGDATUM} keywords. */
+    private static final int EDATUM         = 25;
+
+    /** Code of the WKT 1 {@code LOCAL_DATUM} keyword. */
+    private static final int LOCAL_DATUM    = 26;
+
+    /** Code of the {@code IDATUM} and {@code IMAGEDATUM} keywords. */
+    private static final int IDATUM         = 27;
+
+    /** Code of the {@code ELLIPSOID} and {@code SPHEROID} keywords. */
+    private static final int ELLIPSOID      = 30;
+
+    /** Code of the {@code PRIMEM} and {@code PRIMEMERIDIAN} keywords. */
+    private static final int PRIMEM         = 31;
+
+    /** Code of the {@code ANCHOR} keyword. */
+    private static final int ANCHOR         = 32;
+
+    /** Code of the {@code TIMEORIGIN} keyword. */
+    private static final int TIMEORIGIN     = 33;
+
+    /** Code of the {@code CS} keyword. */
+    private static final int CS             = 34;
+
+    /** Code of the {@code AXIS} keyword. */
+    private static final int AXIS           = 35;
+
+    /** Code of the {@code ORDER} keyword. */
+    private static final int ORDER          = 36;
+
+    /** Code of the WKT 1 {@code TOWGS84} keyword. */
+    private static final int TOWGS84        = 37;
+
+    /** Code of the generic {@code UNIT} keyword. */
+    private static final int UNIT           = 40;
+
+    /** Code of the {@code LENGTHUNIT} keyword. */
+    private static final int LENGTHUNIT     = 41;
+
+    /** Code of the {@code ANGLEUNIT} keyword. */
+    private static final int ANGLEUNIT      = 42;
+
+    /** Code of the {@code SCALEUNIT} keyword. */
+    private static final int SCALEUNIT      = 43;
+
+    /** Code of the {@code TIMEUNIT} and {@code TEMPORALQUANTITY} keywords. */
+    private static final int TIMEUNIT       = 44;
+
+    /** Code of the {@code PARAMETRICUNIT} keyword. */
+    private static final int PARAMETRICUNIT = 45;
+
+    /** Code of the {@code CONVERSION} and {@code DERIVINGCONVERSION} keywords. */
+    private static final int CONVERSION     = 50;
+
+    /** Code of the {@code METHOD} and the WKT 1 {@code PROJECTION} keywords. */
+    private static final int METHOD         = 51;
+
+    /** Code of the {@code PARAMETER} keyword. */
+    private static final int PARAMETER      = 52;
+
+    /** Code of the {@code ID} and the WKT 1 {@code AUTHORITY} keywords. */
+    private static final int ID             = 53;
+
+    /** Code of the {@code REMARK} keyword. */
+    private static final int REMARK         = 54;
+
+    /** Code of the {@code SCOPE} keyword. */
+    private static final int SCOPE          = 55;
+
+    /** Code of the {@code USAGE} keyword. */
+    private static final int USAGE          = 56;
+
+    /** Code of the WKT 1 {@code PARAM_MT} keyword. */
+    private static final int PARAM_MT       = 60;
+
+    /** Code of the WKT 1 {@code CONCAT_MT} keyword. */
+    private static final int CONCAT_MT      = 61;
+
+    /** Code of the WKT 1 {@code INVERSE_MT} keyword. */
+    private static final int INVERSE_MT     = 62;
+
+    /** Code of the WKT 1 {@code PASSTHROUGH_MT} keyword. */
+    private static final int PASSTHROUGH_MT = 63;
+
+    /**
+     * Known keywords in upper cases, sorted for binary search. The code of {@code KEYWORDS[i]} is {@code CODES[i]}.
+     */
+    private static final String[] KEYWORDS;
+
+    /**
+     * Codes of the keywords in the {@link #KEYWORDS} array.
+     */
+    private static final byte[] CODES;
+    static {
+        final Object[] table = {
+            "GEODCRS", GEODCRS, "GEODETICCRS", GEODCRS, "GEOGCRS", GEODCRS, "GEOGRAPHICCRS", GEODCRS,
+            "BASEGEODCRS", GEODCRS, "BASEGEOGCRS", GEODCRS, "GEOGCS", GEOGCS, "GEOCCS", GEOCCS,
+            "PROJCRS", PROJCRS, "PROJECTEDCRS", PROJCRS, "BASEPROJCRS", PROJCRS, "PROJCS", PROJCS,
+            "VERTCRS", VERTCRS, "VERTICALCRS", VERTCRS, "BASEVERTCRS", VERTCRS, "VERT_CS", VERT_CS,
+            "TIMECRS", TIMECRS, "BASETIMECRS", TIMECRS, "PARAMETRICCRS", PARAMETRICCRS, "BASEPARAMCRS", PARAMETRICCRS,
+            "ENGCRS", ENGCRS, "ENGINEERINGCRS", ENGCRS, "BASEENGCRS", ENGCRS, "LOCAL_CS", LOCAL_CS,
+            "IMAGECRS", IMAGECRS, "COMPOUNDCRS", COMPOUNDCRS, "COMPD_CS", COMPOUNDCRS,
+            "DATUM", DATUM, "GEODETICDATUM", DATUM, "TRF", DATUM,
+            "VDATUM", VDATUM, "VERTICALDATUM", VDATUM, "VRF", VDATUM, "VERT_DATUM", VERT_DATUM,
+            "TDATUM", TDATUM, "TIMEDATUM", TDATUM, "PDATUM", PDATUM, "PARAMETRICDATUM", PDATUM,
+            "EDATUM", EDATUM, "ENGINEERINGDATUM", EDATUM, "LOCAL_DATUM", LOCAL_DATUM, "IDATUM", IDATUM, "IMAGEDATUM", IDATUM,
+            "ELLIPSOID", ELLIPSOID, "SPHEROID", ELLIPSOID, "PRIMEM", PRIMEM, "PRIMEMERIDIAN", PRIMEM,
+            "ANCHOR", ANCHOR, "TIMEORIGIN", TIMEORIGIN, "CS", CS, "AXIS", AXIS, "ORDER", ORDER, "TOWGS84", TOWGS84,
+            "UNIT", UNIT, "LENGTHUNIT", LENGTHUNIT, "ANGLEUNIT", ANGLEUNIT, "SCALEUNIT", SCALEUNIT,
+            "TIMEUNIT", TIMEUNIT, "TEMPORALQUANTITY", TIMEUNIT, "PARAMETRICUNIT", PARAMETRICUNIT,
+            "CONVERSION", CONVERSION, "DERIVINGCONVERSION", CONVERSION, "METHOD", METHOD, "PROJECTION", METHOD,
+            "PARAMETER", PARAMETER, "ID", ID, "AUTHORITY", ID, "REMARK", REMARK, "SCOPE", SCOPE, "USAGE", USAGE,
+            "PARAM_MT", PARAM_MT, "CONCAT_MT", CONCAT_MT, "INVERSE_MT", INVERSE_MT, "PASSTHROUGH_MT", PASSTHROUGH_MT
+        };
+        final TreeMap<String,Integer> sorted = new TreeMap<>();
+        for (int i=0; i<table.length; i += 2) {
+            sorted.put((String) table[i], (Integer) table[i+1]);
+        }
+        KEYWORDS = sorted.keySet().toArray(new String[sorted.size()]);
+        CODES = new byte[KEYWORDS.length];
+        for (int i=0; i<CODES.length; i++) {
+            CODES[i] = sorted.get(KEYWORDS[i]).byteValue();
+        }
+    }
+
+    /**
+     * The coordinate system types, in the case used by ISO 19162.
+     */
+    private static final String[] CS_TYPES = {
+        "ellipsoidal", "Cartesian", "affine", "spherical", "cylindrical", "polar", "vertical",
+        "temporal", "temporalCount", "temporalMeasure", "parametric", "linear"
+    };
+
+    /**
+     * Exact powers of 10 which can be represented by the {@code double} type.
+     */
+    private static final double[] POW10 = {
+        1E+00, 1E+01, 1E+02, 1E+03, 1E+04, 1E+05, 1E+06, 1E+07, 1E+08, 1E+09, 1E+10, 1E+11,
+        1E+12, 1E+13, 1E+14, 1E+15, 1E+16, 1E+17, 1E+18, 1E+19, 1E+20, 1E+21, 1E+22
+    };
+
+    /**
+     * Maximal number of objects in the {@linkplain #pool}. The pool is cleared when this limit is reached.
+     */
+    private static final int POOL_CAPACITY = 4096;
+
+    /**
+     * The factory to use for creating datum, ellipsoids and prime meridians, or {@code null} if none.
+     */
+    private final DatumFactory datumFactory;
+
+    /**
+     * The factory to use for creating coordinate systems and their axes, or {@code null} if none.
+     */
+    private final CSFactory csFactory;
+
+    /**
+     * The factory to use for creating coordinate reference systems, or {@code null} if none.
+     */
+    private final CRSFactory crsFactory;
+
+    /**
+     * The factory to use for creating the conversions of derived CRS, or {@code null} if none.
+     */
+    private final CoordinateOperationFactory opFactory;
+
+    /**
+     * The factory to use for creating math transforms and operation parameters, or {@code null} if none.
+     */
+    private final MathTransformFactory mtFactory;
+
+    /**
+     * Objects created by previous parsing, keyed by the text of the WKT element and the context
+     * in which the element has been parsed.
+     */
+    private final ConcurrentHashMap<Key,Object> pool = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new parser which will use the given factories. Any factory can be {@code null}
+     * if the objects that it creates are not needed. For example a parser which is used only for
+     * {@linkplain #parseMathTransform(CharSequence) parsing math transforms} needs only the
+     * {@code mtFactory} argument.
+     *
+     * <p>The {@code mtFactory} is also used for fetching the parameters of map projections, unless
+     * the {@link #createParameters(String, Map)} method is overridden.</p>
+     *
+     * @param datumFactory  the factory to use for creating datum, ellipsoids and prime meridians.
+     * @param csFactory     the factory to use for creating coordinate systems and their axes.
+     * @param crsFactory    the factory to use for creating coordinate reference systems.
+     * @param opFactory     the factory to use for creating the conversions of derived CRS.
+     * @param mtFactory     the factory to use for creating math transforms and projection parameters.
+     */
+    public WKTParser(final DatumFactory datumFactory, final CSFactory csFactory, final CRSFactory crsFactory,
+            final CoordinateOperationFactory opFactory, final MathTransformFactory mtFactory)
+    {
+        this.datumFactory = datumFactory;
+        this.csFactory    = csFactory;
+        this.crsFactory   = crsFactory;
+        this.opFactory    = opFactory;
+        this.mtFactory    = mtFactory;
+    }
+
+    /**
+     * Parses the given WKT 1 or WKT 2 string as a coordinate reference system.
+     *
+     * @param  wkt  the Well Known Text to parse.
+     * @return the coordinate reference system parsed from the given text.
+     * @throws FactoryException if the text can not be parsed or the CRS can not be created.
+     */
+    public CoordinateReferenceSystem parseCRS(final CharSequence wkt) throws FactoryException {
+        final Reader reader = new Reader(wkt);
+        final int start = reader.start();
+        final int type = reader.keyword();
+        if (!isCRS(type)) {
+            throw reader.error("Not a coordinate reference system");
+        }
+        final CoordinateReferenceSystem crs = reader.crs(type, start);
+        reader.end();
+        return crs;
+    }
+
+    /**
+     * Parses the given WKT 1 string as a math transform.
+     *
+     * @param  wkt  the Well Known Text to parse.
+     * @return the math transform parsed from the given text.
+     * @throws FactoryException if the text can not be parsed or the transform can not be created.
+     */
+    public MathTransform parseMathTransform(final CharSequence wkt) throws FactoryException {
+        final Reader reader = new Reader(wkt);
+        final MathTransform transform = reader.transform(reader.keyword());
+        reader.end();
+        return transform;
+    }
+
+    /**
+     * Returns the parameters to set for the given operation method. This method is invoked for the defining
+     * conversion of derived and projected CRS, and for the {@code PARAM_MT} elements other than affine.
+     * The parser then sets the value of each parameter by a call to {@link ParameterValue#setValue(double, Unit)}
+     * on {@code group.parameter(name)}, or to {@link ParameterValue#setValue(double)} if the unit is {@code null}.
+     *
+     * <p>The default implementation delegates to {@link MathTransformFactory#getDefaultParameters(String)}.
+     * Subclasses can override this method for supporting methods unknown to the math transform factory,
+     * or for parsing conversions without math transform factory.</p>
+     *
+     * @param  method      name of the operation method, as written in the WKT.
+     * @param  parameters  names of the parameters to be set, in WKT order, associated to their units
+     *                     of measurement or to {@code null} if the unit is unknown. This map is unmodifiable.
+     * @return the parameters to set, containing at least the parameters named in the given map.
+     * @throws FactoryException if no parameters can be created for the given method.
+     */
+    protected ParameterValueGroup createParameters(final String method, final Map<String,Unit<?>> parameters)
+            throws FactoryException
+    {
+        return factory(mtFactory, MathTransformFactory.class).getDefaultParameters(method);
+    }
+
+    /**
+     * Returns the object in the pool for the given key, or {@code null} if none.
+     *
+     * @param  key  the key of the object to fetch.
+     * @return the pooled object, or {@code null} if none.
+     */
+    private Object cached(final Key key) {
+        return pool.get(key);
+    }
+
+    /**
+     * Adds the given object in the pool, unless another thread added an object for the same key
+     * in the meantime.
+     *
+     * @param  <T>    the type of the object to add.
+     * @param  key    the key of the object to add.
+     * @param  value  the object to add.
+     * @return the object in the pool, which may be an object added concurrently by another thread.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cache(final Key key, final T value) {
+        if (pool.size() >= POOL_CAPACITY) {
+            pool.clear();
+        }
+        final Object existing = pool.putIfAbsent(key, value);
+        return (existing != null) ? (T) existing : value;
+    }
+
+    /**
+     * The units of measurement used by the parser, provided by the <cite>Units of Measurement</cite>
+     * implementation available at runtime. This class is initialized only when a WKT is parsed.
+     */
+    private static final class Units {
+        /** The base unit of length. */
+        static final Unit<Length> METRE;
+
+        /** The base unit of angles. */
+        static final Unit<Angle> RADIAN;
+
+        /** The base unit of time. */
+        static final Unit<Time> SECOND;
+
+        /** The base unit of pressure. */
+        static final Unit<Pressure> PASCAL;
+
+        /** The unit of dimensionless quantities. */
+        static final Unit<Dimensionless> ONE;
+
+        /** The unit of measurement for degrees of angle. */
+        static final Unit<Angle> DEGREE;
+
+        /**
+         * Units of measurement recognized from their conversion factor. When a WKT unit has a conversion factor
+         * close to the factor of one of those units, that unit is used instead of a new one created from the
+         * factor, in order to avoid rounding errors caused by the limited number of digits in WKT strings.
+         */
+        static final Unit<?>[] KNOWN;
+
+        /** The conversion factors of {@link #KNOWN} units to their system unit. */
+        static final double[] FACTORS;
+
+        static {
+            final SystemOfUnits system = ServiceProvider.current().getSystemOfUnitsService().getSystemOfUnits();
+            METRE  = system.getUnit(Length.class);
+            RADIAN = system.getUnit(Angle.class);
+            SECOND = system.getUnit(Time.class);
+            PASCAL = system.getUnit(Pressure.class);
+            ONE    = system.getUnit(Dimensionless.class);
+            DEGREE = RADIAN.multiply(Math.PI/180);
+            KNOWN  = new Unit<?>[] {
+                METRE.multiply(1000),
+                METRE.multiply(0.3048),
+                METRE.multiply(12 / 39.37),
+                DEGREE,
+                RADIAN.multiply(Math.PI / 200),
+                RADIAN.multiply(Math.PI / (180*60*60)),
+                RADIAN.divide(1E6),
+                SECOND.multiply(60),
+                SECOND.multiply(60*60),
+                SECOND.multiply(24*60*60),
+                PASCAL.multiply(100),
+                ONE.divide(1000000)
+            };
+            FACTORS = new double[KNOWN.length];
+            for (int i=0; i<KNOWN.length; i++) {
+                FACTORS[i] = factor(KNOWN[i]);
+            }
+        }
+
+        /**
+         * Do not allow instantiation of this class.
+         */
+        private Units() {
+        }
+    }
+
+    /**
+     * The key of an object in the {@linkplain #pool}: the text of a WKT element, together with the
+     * implicit units or other objects that influenced the parsing of that element.
+     */
+    private static final class Key {
+        /** The text of the WKT element. */
+        private final String text;
+
+        /** The implicit units or other objects used for parsing the element. */
+        private final Object[] context;
+
+        /**
+         * Creates a new key.
+         *
+         * @param text     the text of the WKT element.
+         * @param context  the implicit units or other objects used for parsing the element.
+         */
+        Key(final String text, final Object... context) {
+            this.text    = text;
+            this.context = context;
+        }
+
+        /**
+         * Returns a hash code value for this key.
+         *
+         * @return a hash code value computed from the text and the context.
+         */
+        @Override public int hashCode() {
+            return text.hashCode() * 31 + Arrays.hashCode(context);
+        }
+
+        /**
+         * Compares this key with the given object for equality.
+         *
+         * @param  obj  the object to compare with this key.
+         * @return whether the given object is a key for the same text and context.
+         */
+        @Override public boolean equals(final Object obj) {
+            if (obj instanceof Key) {
+                final Key other = (Key) obj;
+                return text.equals(other.text) && Arrays.equals(context, other.context);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The identifier of a parsed object, as given by an {@code ID} or {@code AUTHORITY} element.
+     * The authority name is stored as the code space.
+     */
+    private static final class Id implements Identifier, Serializable {
+        /** For cross-version compatibility. */
+        private static final long serialVersionUID = 2407461591163216282L;
+
+        /** The authority name, for example {@code "EPSG"}. */
+        private final String codeSpace;
+
+        /** The authority code, for example {@code "4326"}. */
+        private final String code;
+
+        /**
+         * Creates a new identifier.
+         *
+         * @param codeSpace  the authority name.
+         * @param code       the authority code.
+         */
+        Id(final String codeSpace, final String code) {
+            this.codeSpace = codeSpace;
+            this.code      = code;
+        }
+
+        /**
+         * Returns the authority name given at construction time.
+         *
+         * @return the authority name.
+         */
+        @Override public String getCodeSpace() {
+            return codeSpace;
+        }
+
+        /**
+         * Returns the authority code given at construction time.
+         *
+         * @return the authority code.
+         */
+        @Override public String getCode() {
+            return code;
+        }
+
+        /**
+         * Returns a hash code value for this identifier.
+         *
+         * @return a hash code value computed from the code space and code.
+         */
+        @Override public int hashCode() {
+            return codeSpace.hashCode() * 31 + code.hashCode();
+        }
+
+        /**
+         * Compares this identifier with the given object for equality.
+         *
+         * @param  obj  the object to compare with this identifier.
+         * @return whether the given object is an identifier with the same code space and code.
+         */
+        @Override public boolean equals(final Object obj) {
+            if (obj instanceof Id) {
+                final Id other = (Id) obj;
+                return codeSpace.equals(other.codeSpace) && code.equals(other.code);
+            }
+            return false;
+        }
+
+        /**
+         * Returns the identifier in the {@code "codespace:code"} form.
+         *
+         * @return a string representation of this identifier.
+         */
+        @Override public String toString() {
+            return codeSpace + ':' + code;
+        }
+    }
+
+    /**
+     * The matrix of an affine {@code PARAM_MT}, initialized to the identity matrix.
+     */
+    private static final class AffineMatrix implements Matrix, Cloneable {
+        /** Number of rows. */
+        private final int numRow;
+
+        /** Number of columns. */
+        private final int numCol;
+
+        /** The matrix elements in a row-major array. */
+        private double[] elements;
+
+        /**
+         * Creates an identity matrix of the given size.
+         *
+         * @param  numRow  number of rows.
+         * @param  numCol  number of columns.
+         */
+        AffineMatrix(final int numRow, final int numCol) {
+            this.numRow = numRow;
+            this.numCol = numCol;
+            elements = new double[numRow * numCol];
+            for (int i=Math.min(numRow, numCol); --i >= 0;) {
+                elements[i * numCol + i] = 1;
+            }
+        }
+
+        /**
+         * Returns the number of rows in this matrix.
+         *
+         * @return the number of rows.
+         */
+        @Override public int getNumRow() {
+            return numRow;
+        }
+
+        /**
+         * Returns the number of columns in this matrix.
+         *
+         * @return the number of columns.
+         */
+        @Override public int getNumCol() {
+            return numCol;
+        }
+
+        /**
+         * Returns the index of the given element in the {@link #elements} array.
+         *
+         * @param  row     the row index, from 0 inclusive to {@link #numRow} exclusive.
+         * @param  column  the column index, from 0 inclusive to {@link #numCol} exclusive.
+         * @return the index of the element in the {@link #elements} array.
+         * @throws IndexOutOfBoundsException if the given row or column is out of bounds.
+         */
+        private int index(final int row, final int column) {
+            if (row < 0 || row >= numRow || column < 0 || column >= numCol) {
+                throw new IndexOutOfBoundsException("No element (" + row + ", " + column + ") in a "
+                        + numRow + '×' + numCol + " matrix.");
+            }
+            return row * numCol + column;
+        }
+
+        /**
+         * Returns the element at the given row and column.
+         *
+         * @param  row     the row index, from 0 inclusive to {@link #numRow} exclusive.
+         * @param  column  the column index, from 0 inclusive to {@link #numCol} exclusive.
+         * @return the current value at the given row and column.
+         */
+        @Override public double getElement(final int row, final int column) {
+            return elements[index(row, column)];
+        }
+
+        /**
+         * Modifies the element at the given row and column.
+         *
+         * @param  row     the row index, from 0 inclusive to {@link #numRow} exclusive.
+         * @param  column  the column index, from 0 inclusive to {@link #numCol} exclusive.
+         * @param  value   the new value to set at the given row and column.
+         */
+        @Override public void setElement(final int row, final int column, final double value) {
+            elements[index(row, column)] = value;
+        }
+
+        /**
+         * Returns {@code true} if this matrix is an identity matrix.
+         *
+         * @return {@code true} if this matrix is an identity matrix.
+         */
+        @Override public boolean isIdentity() {
+            if (numRow != numCol) {
+                return false;
+            }
+            for (int i=0; i<elements.length; i++) {
+                if (elements[i] != ((i % (numCol + 1) == 0) ? 1 : 0)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns a copy of this matrix.
+         *
+         * @return a clone of this matrix.
+         */
+        @Override public AffineMatrix clone() {
+            final AffineMatrix clone;
+            try {
+                clone = (AffineMatrix) super.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);                // Should never happen since we are cloneable.
+            }
+            clone.elements = elements.clone();
+            return clone;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given keyword code is the code of a CRS element.
+     *
+     * @param  keyword  the keyword code to test.
+     * @return whether the given code is in the range of CRS codes.
+     */
+    private static boolean isCRS(final int keyword) {
+        return keyword >= GEODCRS && keyword <= COMPOUNDCRS;
+    }
+
+    /**
+     * Returns {@code true} if the given keyword code is the code of a unit element.
+     *
+     * @param  keyword  the keyword code to test.
+     * @return whether the given code is in the range of unit codes.
+     */
+    private static boolean isUnit(final int keyword) {
+        return keyword >= UNIT && keyword <= PARAMETRICUNIT;
+    }
+
+    /**
+     * Returns the code of the keyword in the given range of characters, or {@link #UNKNOWN}.
+     * The comparison is case-insensitive.
+     *
+     * @param  text   the text containing the keyword.
+     * @param  start  index of the first character of the keyword.
+     * @param  end    index after the last character of the keyword.
+     * @return the keyword code, or {@link #UNKNOWN} if the keyword is not recognized.
+     */
+    private static int keyword(final CharSequence text, final int start, final int end) {
+        int low  = 0;
+        int high = KEYWORDS.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final String keyword = KEYWORDS[mid];
+            final int length = Math.min(keyword.length(), end - start);
+            int c = 0;
+            for (int i=0; i<length; i++) {
+                c = keyword.charAt(i) - Character.toUpperCase(text.charAt(start + i));
+                if (c != 0) break;
+            }
+            if (c == 0) {
+                c = keyword.length() - (end - start);
+                if (c == 0) return CODES[mid];
+            }
+            if (c < 0) low = mid + 1;
+            else high = mid - 1;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the conversion factor from the given unit to its system unit.
+     *
+     * @param  <Q>   the type of quantity measured by the unit.
+     * @param  unit  the unit for which to get the conversion factor.
+     * @return the conversion factor from the given unit to its system unit.
+     */
+    private static <Q extends Quantity<Q>> double factor(final Unit<Q> unit) {
+        return unit.getConverterTo(unit.getSystemUnit()).convert(1);
+    }
+
+    /**
+     * Returns the unit for the given system unit and conversion factor.
+     *
+     * @param  base    the system unit.
+     * @param  factor  the conversion factor to the system unit, or NaN if unspecified.
+     * @return the unit for the given factor, preferably one of the {@linkplain Units#KNOWN known units}.
+     */
+    private static Unit<?> unit(final Unit<?> base, final double factor) {
+        if (factor == 1 || Double.isNaN(factor)) {
+            return base;
+        }
+        for (int i=0; i<Units.KNOWN.length; i++) {
+            final double known = Units.FACTORS[i];
+            if (Math.abs(factor - known) <= known * 1E-12 && base.equals(Units.KNOWN[i].getSystemUnit())) {
+                return Units.KNOWN[i];
+            }
+        }
+        return base.multiply(factor);
+    }
+
+    /**
+     * Returns {@code true} if the given unit is a unit of angle.
+     *
+     * @param  unit  the unit to test.
+     * @return whether the given unit is angular.
+     */
+    private static boolean isAngular(final Unit<?> unit) {
+        return Units.RADIAN.equals(unit.getSystemUnit());
+    }
+
+    /**
+     * Returns {@code true} if the given unit is a unit of length.
+     *
+     * @param  unit  the unit to test.
+     * @return whether the given unit is linear.
+     */
+    private static boolean isLinear(final Unit<?> unit) {
+        return Units.METRE.equals(unit.getSystemUnit());
+    }
+
+    /**
+     * Returns {@code true} if the given direction is up or down.
+     *
+     * @param  direction  the direction to test.
+     * @return whether the given direction is vertical.
+     */
+    private static boolean isVertical(final AxisDirection direction) {
+        return direction == AxisDirection.UP || direction == AxisDirection.DOWN;
+    }
+
+    /**
+     * Returns the default system unit of {@code UNIT} elements in a CRS of the given type.
+     *
+     * @param  crsType  the code of the CRS keyword.
+     * @param  csType   the coordinate system type declared by the {@code CS} element, or {@code null} if none.
+     * @return the system unit of generic {@code UNIT} elements in the CRS.
+     */
+    private static Unit<?> defaultBase(final int crsType, final String csType) {
+        switch (crsType) {
+            case GEOGCS:        return Units.RADIAN;
+            case GEODCRS:       return (csType == null || csType.equals("ellipsoidal")) ? Units.RADIAN : Units.METRE;
+            case TIMECRS:       return Units.SECOND;
+            case PARAMETRICCRS: return Units.ONE;
+            default:            return Units.METRE;
+        }
+    }
+
+    /**
+     * Returns the unit to use for axes without explicit unit in a coordinate system of the given type.
+     *
+     * @param  csType  the coordinate system type.
+     * @return the implicit unit of the axes.
+     */
+    private static Unit<?> defaultUnit(final String csType) {
+        switch (csType) {
+            case "ellipsoidal":
+            case "spherical":
+            case "polar":           return Units.DEGREE;
+            case "temporal":
+            case "temporalMeasure": return Units.SECOND;
+            case "temporalCount":
+            case "parametric":      return Units.ONE;
+            default:                return Units.METRE;
+        }
+    }
+
+    /**
+     * Returns the coordinate system type implied by a CRS of the given type when the WKT has no {@code CS} element.
+     *
+     * @param  crsType  the code of the CRS keyword.
+     * @return the implicit coordinate system type.
+     */
+    private static String defaultCS(final int crsType) {
+        switch (crsType) {
+            case GEODCRS:
+            case GEOGCS:        return "ellipsoidal";
+            case VERTCRS:
+            case VERT_CS:       return "vertical";
+            case TIMECRS:       return "temporal";
+            case PARAMETRICCRS: return "parametric";
+            default:            return "Cartesian";
+        }
+    }
+
+    /**
+     * Returns a new properties map containing only the given name.
+     *
+     * @param  name  the object name.
+     * @return a modifiable map of properties with the given name.
+     */
+    private static Map<String,Object> properties(final String name) {
+        final Map<String,Object> properties = new HashMap<>(8);
+        properties.put(IdentifiedObject.NAME_KEY, name);
+        return properties;
+    }
+
+    /**
+     * Returns the given value cast to the given type, or throws an exception if the value is absent or of another type.
+     *
+     * @param  <T>      the expected type.
+     * @param  type     the expected type.
+     * @param  value    the value to cast.
+     * @param  element  the name of the WKT element, used in the error message.
+     * @return the given value cast to the given type.
+     * @throws FactoryException if the value is null or not an instance of the given type.
+     */
+    private static <T> T require(final Class<T> type, final Object value, final String element) throws FactoryException {
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        throw new FactoryException((value == null ? "Missing " : "Unexpected ") + element + " element.");
+    }
+
+    /**
+     * Returns the given factory, or throws an exception if {@code null}.
+     *
+     * @param  <T>      the type of the factory.
+     * @param  factory  the factory to return.
+     * @param  type     the factory interface, used in the error message.
+     * @return the given factory, never {@code null}.
+     * @throws FactoryException if the given factory is null.
+     */
+    private static <T> T factory(final T factory, final Class<?> type) throws FactoryException {
+        if (factory == null) {
+            throw new FactoryException("No " + type.getSimpleName() + " has been specified to the WKT parser.");
+        }
+        return factory;
+    }
+
+    /**
+     * Returns the axis direction for the given WKT word. The comparison ignores case, so "north" and "NORTH"
+     * are both recognized. A new direction is created if the given word does not match any known direction.
+     *
+     * @param  word  the direction as written in the WKT.
+     * @return the axis direction.
+     */
+    private AxisDirection direction(final String word) {
+        final Key key = new Key(word, AxisDirection.class);
+        final Object cached = cached(key);
+        if (cached != null) {
+            return (AxisDirection) cached;
+        }
+        return cache(key, CodeList.valueOf(AxisDirection.class, (code) -> {
+            for (final String name : code.names()) {
+                if (name.equalsIgnoreCase(word)) return true;
+            }
+            return false;
+        }, word));
+    }
+
+    /**
+     * Creates or fetches a coordinate system axis.
+     *
+     * @param  name          the axis name.
+     * @param  abbreviation  the axis abbreviation.
+     * @param  direction     the axis direction.
+     * @param  unit          the axis unit.
+     * @return the axis.
+     * @throws FactoryException if the axis can not be created.
+     */
+    private CoordinateSystemAxis axis(final String name, final String abbreviation,
+            final AxisDirection direction, final Unit<?> unit) throws FactoryException
+    {
+        final Key key = new Key(name, abbreviation, direction, unit);
+        final Object cached = cached(key);
+        if (cached != null) {
+            return (CoordinateSystemAxis) cached;
+        }
+        return cache(key, factory(csFactory, CSFactory.class).createCoordinateSystemAxis(
+                properties(name), abbreviation, direction, unit));
+    }
+
+    /**
+     * Returns the axes to use when a CRS of the given type has no {@code AXIS} elements.
+     *
+     * @param  crsType  the code of the CRS keyword.
+     * @param  csType   the coordinate system type.
+     * @param  unit     the unit declared in the CRS element, or {@code null} if none.
+     * @return the default axes.
+     * @throws FactoryException if the coordinate system type has no default axes, or an axis can not be created.
+     */
+    private CoordinateSystemAxis[] defaultAxes(final int crsType, final String csType, final Unit<?> unit)
+            throws FactoryException
+    {
+        final Unit<?> u = (unit != null) ? unit : defaultUnit(csType);
+        switch (csType) {
+            case "ellipsoidal": {
+                final CoordinateSystemAxis lat = axis("Geodetic latitude",  "φ", AxisDirection.NORTH, u);
+                final CoordinateSystemAxis lon = axis("Geodetic longitude", "λ", AxisDirection.EAST,  u);
+                return (crsType == GEOGCS) ? new CoordinateSystemAxis[] {lon, lat} : new CoordinateSystemAxis[] {lat, lon};
+            }
+            case "Cartesian": {
+                if (crsType == GEODCRS || crsType == GEOCCS) {
+                    return new CoordinateSystemAxis[] {
+                        axis("Geocentric X", "X", AxisDirection.GEOCENTRIC_X, u),
+                        axis("Geocentric Y", "Y", AxisDirection.GEOCENTRIC_Y, u),
+                        axis("Geocentric Z", "Z", AxisDirection.GEOCENTRIC_Z, u)
+                    };
+                }
+                return new CoordinateSystemAxis[] {
+                    axis("Easting",  "E", AxisDirection.EAST,  u),
+                    axis("Northing", "N", AxisDirection.NORTH, u)
+                };
+            }
+            case "vertical": return new CoordinateSystemAxis[] {axis("Gravity-related height", "H", AxisDirection.UP, u)};
+            case "temporal": return new CoordinateSystemAxis[] {axis("Time", "t", AxisDirection.FUTURE, u)};
+        }
+        throw new FactoryException("Missing AXIS elements for the " + csType + " coordinate system.");
+    }
+
+    /**
+     * Returns the axis name to use when the WKT specifies only an abbreviation.
+     *
+     * @param  abbreviation  the axis abbreviation.
+     * @param  direction     the axis direction.
+     * @return the axis name.
+     */
+    private static String axisName(final String abbreviation, final AxisDirection direction) {
+        switch (abbreviation) {
+            case "lat": case "φ": return "Geodetic latitude";
+            case "lon": case "λ": return "Geodetic longitude";
+            case "h": return "Ellipsoidal height";
+            case "H": return "Gravity-related height";
+            case "D": return "Depth";
+            case "E": return "Easting";
+            case "N": return "Northing";
+            case "t": return "Time";
+        }
+        if (direction == AxisDirection.GEOCENTRIC_X ||
+            direction == AxisDirection.GEOCENTRIC_Y ||
+            direction == AxisDirection.GEOCENTRIC_Z)
+        {
+            return "Geocentric " + abbreviation;
+        }
+        return abbreviation;
+    }
+
+    /**
+     * Returns the ISO 19111 name of an axis for the given name found in a WKT string. ISO 19162 allows
+     * {@code "latitude"} and {@code "longitude"} for geodetic axes, and WKT 1 uses {@code "X"} and
+     * {@code "Y"} for projected axes. Other names are returned unchanged.
+     *
+     * @param  name       the axis name as written in the WKT.
+     * @param  direction  the axis direction.
+     * @return the ISO 19111 axis name.
+     */
+    private static String standardName(final String name, final AxisDirection direction) {
+        switch (name.toLowerCase()) {
+            case "lat": case "latitude":  return "Geodetic latitude";
+            case "lon": case "longitude": case "long": return "Geodetic longitude";
+            case "x": case "y": {
+                if (direction == AxisDirection.EAST)  return "Easting";
+                if (direction == AxisDirection.WEST)  return "Westing";
+                if (direction == AxisDirection.NORTH) return "Northing";
+                if (direction == AxisDirection.SOUTH) return "Southing";
+                break;
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Returns the axis abbreviation to use when the WKT specifies only the axis name.
+     *
+     * @param  name  the axis name as written in the WKT.
+     * @return the axis abbreviation.
+     */
+    private static String abbreviation(final String name) {
+        switch (name.toLowerCase()) {
+            case "lat": case "latitude":  case "geodetic latitude":  return "φ";
+            case "lon": case "longitude": case "geodetic longitude": case "long": return "λ";
+            case "ellipsoidal height":     return "h";
+            case "gravity-related height": return "H";
+            case "depth":    return "D";
+            case "easting":  return "E";
+            case "northing": return "N";
+            case "time":     return "t";
+        }
+        return name;
+    }
+
+    /**
+     * Creates or fetches a coordinate system of the given type with the given axes.
+     *
+     * @param  type  the coordinate system type, in the case used by ISO 19162.
+     * @param  axes  the coordinate system axes.
+     * @return the coordinate system.
+     * @throws FactoryException if the type and number of axes are not supported, or the creation failed.
+     */
+    private CoordinateSystem coordinateSystem(final String type, final CoordinateSystemAxis[] axes)
+            throws FactoryException
+    {
+        final Key key = new Key(type, axes);
+        final Object cached = cached(key);
+        if (cached != null) {
+            return (CoordinateSystem) cached;
+        }
+        final CSFactory factory = factory(csFactory, CSFactory.class);
+        final Map<String,?> properties = Collections.singletonMap(IdentifiedObject.NAME_KEY,
+                Character.toUpperCase(type.charAt(0)) + type.substring(1) + " CS");
+        final CoordinateSystem cs;
+        switch (axes.length) {
+            case 1: {
+                switch (type) {
+                    case "vertical":        cs = factory.createVerticalCS  (properties, axes[0]); break;
+                    case "temporal":
+                    case "temporalCount":
+                    case "temporalMeasure": cs = factory.createTimeCS      (properties, axes[0]); break;
+                    case "parametric":      cs = factory.createParametricCS(properties, axes[0]); break;
+                    case "linear":          cs = factory.createLinearCS    (properties, axes[0]); break;
+                    default: cs = null;
+                }
+                break;
+            }
+            case 2: {
+                switch (type) {
+                    case "ellipsoidal": cs = factory.createEllipsoidalCS(properties, axes[0], axes[1]); break;
+                    case "Cartesian":   cs = factory.createCartesianCS  (properties, axes[0], axes[1]); break;
+                    case "affine":      cs = factory.createAffineCS     (properties, axes[0], axes[1]); break;
+                    case "polar":       cs = factory.createPolarCS      (properties, axes[0], axes[1]); break;
+                    default: cs = null;
+                }
+                break;
+            }
+            case 3: {
+                switch (type) {
+                    case "ellipsoidal": cs = factory.createEllipsoidalCS(properties, axes[0], axes[1], axes[2]); break;
+                    case "Cartesian":   cs = factory.createCartesianCS  (properties, axes[0], axes[1], axes[2]); break;
+                    case "affine":      cs = factory.createAffineCS     (properties, axes[0], axes[1], axes[2]); break;
+                    case "spherical":   cs = factory.createSphericalCS  (properties, axes[0], axes[1], axes[2]); break;
+                    case "cylindrical": cs = factory.createCylindricalCS(properties, axes[0], axes[1], axes[2]); break;
+                    default: cs = null;
+                }
+                break;
+            }
+            default: cs = null;
+        }
+        if (cs == null) {
+            throw new FactoryException("Unsupported " + type + " coordinate system with " + axes.length + " axes.");
+        }
+        return cache(key, cs);
+    }
+
+    /**
+     * Returns the unit to use for a parameter without explicit unit, inferred from the parameter name.
+     *
+     * @param  name     the parameter name.
+     * @param  angular  the unit of angular parameters.
+     * @param  linear   the unit of linear parameters.
+     * @return the implicit unit of the parameter, or {@code null} if it can not be inferred.
+     */
+    private static Unit<?> implicitUnit(final String name, final Unit<?> angular, final Unit<?> linear) {
+        final String n = name.toLowerCase();
+        if (n.contains("scale")) {
+            return Units.ONE;
+        }
+        if (n.contains("latitude") || n.contains("longitude") || n.contains("meridian") || n.contains("parallel") ||
+            n.contains("azimuth")  || n.contains("bearing")   || n.contains("rotation") || n.contains("angle"))
+        {
+            return angular;
+        }
+        if (n.contains("easting") || n.contains("northing") || n.contains("false") || n.contains("height") ||
+            n.contains("width")   || n.contains("semi"))
+        {
+            return linear;
+        }
+        return null;
+    }
+
+    /**
+     * Creates a defining conversion from the given operation. Parameters without explicit unit
+     * get the angular or linear unit given in argument, depending on their name.
+     *
+     * @param  op       the parsed {@code CONVERSION} element.
+     * @param  angular  the unit of angular parameters without explicit unit.
+     * @param  linear   the unit of linear parameters without explicit unit.
+     * @return the defining conversion.
+     * @throws FactoryException if the method is missing or the conversion can not be created.
+     */
+    private Conversion conversion(final Operation op, final Unit<?> angular, final Unit<?> linear) throws FactoryException {
+        final CoordinateOperationFactory factory = factory(opFactory, CoordinateOperationFactory.class);
+        if (op.method == null) {
+            throw new FactoryException("Missing METHOD element.");
+        }
+        final Unit<?>[] units = new Unit<?>[op.count];
+        for (int i=0; i<units.length; i++) {
+            units[i] = (op.units[i] != null) ? op.units[i] : implicitUnit(op.names[i], angular, linear);
+        }
+        return factory.createDefiningConversion(op.properties, factory.getOperationMethod(op.method), parameters(op, units));
+    }
+
+    /**
+     * Creates the parameters of the given operation by a call to {@link #createParameters(String, Map)},
+     * then sets their values.
+     *
+     * @param  op     the parsed {@code CONVERSION} or {@code PARAM_MT} element.
+     * @param  units  the units of the parameters, or {@code null} elements for parameters without unit.
+     * @return the parameter values.
+     * @throws FactoryException if the parameters can not be created or a value can not be set.
+     */
+    private ParameterValueGroup parameters(final Operation op, final Unit<?>[] units) throws FactoryException {
+        final Map<String,Unit<?>> descriptors = new LinkedHashMap<>();
+        for (int i=0; i<op.count; i++) {
+            descriptors.put(op.names[i], units[i]);
+        }
+        final ParameterValueGroup group = createParameters(op.method, Collections.unmodifiableMap(descriptors));
+        try {
+            for (int i=0; i<op.count; i++) {
+                final ParameterValue<?> p = group.parameter(op.names[i]);
+                if (units[i] != null) {
+                    p.setValue(op.values[i], units[i]);
+                } else {
+                    p.setValue(op.values[i]);
+                }
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new FactoryException("Illegal parameter in \"" + op.method + "\": " + e.getMessage(), e);
+        }
+        return group;
+    }
+
+    /**
+     * The content of a {@code CONVERSION}, {@code PROJECTION} or {@code PARAM_MT} element.
+     * The conversion is created only after the enclosing CRS has been fully parsed, because
+     * the units of parameters without explicit unit depend on the CRS.
+     */
+    private static final class Operation {
+        /** Name and identifiers of the conversion. */
+        final Map<String,Object> properties;
+
+        /** Name of the operation method, or {@code null} if not yet known. */
+        String method;
+
+        /** Names of the parameters. */
+        String[] names = new String[8];
+
+        /** Values of the parameters. */
+        double[] values = new double[8];
+
+        /** Units of the parameters, or {@code null} elements for parameters without explicit unit. */
+        Unit<?>[] units = new Unit<?>[8];
+
+        /** Number of valid elements in the parameter arrays. */
+        int count;
+
+        /**
+         * Creates a new operation with the given properties.
+         *
+         * @param properties  name and identifiers of the conversion, or {@code null} if not needed.
+         */
+        Operation(final Map<String,Object> properties) {
+            this.properties = properties;
+        }
+
+        /**
+         * Adds a parameter.
+         *
+         * @param name   the parameter name.
+         * @param value  the parameter value.
+         * @param unit   the parameter unit, or {@code null} if unspecified.
+         */
+        void add(final String name, final double value, final Unit<?> unit) {
+            if (count == names.length) {
+                names  = Arrays.copyOf(names,  count * 2);
+                values = Arrays.copyOf(values, count * 2);
+                units  = Arrays.copyOf(units,  count * 2);
+            }
+            names [count] = name;
+            values[count] = value;
+            units [count] = unit;
+            count++;
+        }
+    }
+
+    /**
+     * A coordinate system axis together with its {@code ORDER} element, or 0 if none.
+     */
+    private static final class OrderedAxis {
+        /** The axis. */
+        final CoordinateSystemAxis axis;
+
+        /** The value of the {@code ORDER} element, or 0 if none. */
+        final int order;
+
+        /**
+         * Creates a new axis with the given order.
+         *
+         * @param axis   the axis.
+         * @param order  the value of the {@code ORDER} element, or 0 if none.
+         */
+        OrderedAxis(final CoordinateSystemAxis axis, final int order) {
+            this.axis  = axis;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Parses the given date in ISO 8601 format. If no timezone is specified, UTC is assumed.
+     *
+     * @param  text  the date to parse.
+     * @return the parsed date.
+     * @throws FactoryException if the text is not a valid ISO 8601 date.
+     */
+    private static Date date(final String text) throws FactoryException {
+        try {
+            if (text.indexOf('T') < 0) {
+                return Date.from(LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant());
+            }
+            try {
+                return Date.from(OffsetDateTime.parse(text).toInstant());
+            } catch (DateTimeParseException e) {
+                return Date.from(LocalDateTime.parse(text).toInstant(ZoneOffset.UTC));
+            }
+        } catch (DateTimeParseException e) {
+            throw new FactoryException("Illegal date: \"" + text + "\".", e);
+        }
+    }
+
+    /**
+     * The parsing of a single WKT string. This class holds the text and the current position.
+     * New instances are created for each parsing, while the pool of objects is shared.
+     */
+    private final class Reader {
+        /** The text to parse. */
+        private final CharSequence text;
+
+        /** Number of characters in the text to parse. */
+        private final int length;
+
+        /** Index of the next character to parse. */
+        int position;
+
+        /** Index after the last character of the element measured by the last call to {@link #key(int, Object...)}. */
+        private int elementEnd;
+
+        /**
+         * Creates a new reader for the given text.
+         *
+         * @param text  the text to parse.
+         */
+        Reader(final CharSequence text) {
+            this.text   = text;
+            this.length = text.length();
+        }
+
+        /**
+         * Returns an exception for a parsing error at the current position.
+         *
+         * @param  message  the error message, without the position.
+         * @return the exception to throw.
+         */
+        FactoryException error(final String message) {
+            return new FactoryException(message + " at index " + position + " of the WKT.");
+        }
+
+        /**
+         * Skips white spaces and returns the next character.
+         *
+         * @return the next character, or -1 if the end of text has been reached.
+         */
+        int skipSpaces() {
+            while (position < length) {
+                final char c = text.charAt(position);
+                if (!Character.isWhitespace(c)) {
+                    return c;
+                }
+                position++;
+            }
+            return -1;
+        }
+
+        /**
+         * Skips white spaces and returns the index of the next character.
+         *
+         * @return the index of the next character.
+         */
+        int start() {
+            skipSpaces();
+            return position;
+        }
+
+        /**
+         * Verifies that there is no remaining characters other than white spaces.
+         *
+         * @throws FactoryException if there is remaining characters.
+         */
+        void end() throws FactoryException {
+            if (skipSpaces() >= 0) {
+                throw error("Unexpected text after the WKT element");
+            }
+        }
+
+        /**
+         * Parses a keyword.
+         *
+         * @return the keyword code, or {@link #UNKNOWN} if the keyword is not recognized.
+         * @throws FactoryException if there is no keyword at the current position.
+         */
+        int keyword() throws FactoryException {
+            skipSpaces();
+            final int start = position;
+            while (position < length) {
+                final char c = text.charAt(position);
+                if (!Character.isLetterOrDigit(c) && c != '_') break;
+                position++;
+            }
+            if (position == start) {
+                throw error("Expected a keyword");
+            }
+            return WKTParser.keyword(text, start, position);
+        }
+
+        /**
+         * Parses the opening bracket of an element.
+         *
+         * @throws FactoryException if there is no opening bracket at the current position.
+         */
+        void open() throws FactoryException {
+            final int c = skipSpaces();
+            if (c != '[' && c != '(') {
+                throw error("Expected an opening bracket");
+            }
+            position++;
+        }
+
+        /**
+         * Parses a separator or a closing bracket.
+         *
+         * @return {@code true} if a separator has been found (meaning that another value follows),
+         *         or {@code false} at the end of the element.
+         * @throws FactoryException if there is neither a separator or a closing bracket.
+         */
+        boolean next() throws FactoryException {
+            switch (skipSpaces()) {
+                case ',': position++; return true;
+                case ']':
+                case ')': position++; return false;
+                case -1:  throw error("Unexpected end of text");
+                default:  throw error("Expected a separator or a closing bracket");
+            }
+        }
+
+        /**
+         * Parses a separator which is mandatory before the next value.
+         *
+         * @throws FactoryException if there is no separator at the current position.
+         */
+        void separator() throws FactoryException {
+            if (!next()) {
+                position--;
+                throw error("Missing value");
+            }
+        }
+
+        /**
+         * Skips all remaining values of the current element, including the closing bracket.
+         *
+         * @throws FactoryException if the remaining values are malformed.
+         */
+        void close() throws FactoryException {
+            while (next()) {
+                skipValue();
+            }
+        }
+
+        /**
+         * Parses a quoted text. Double quotes are escaped by doubling them.
+         * The “ and ” quotes are also accepted.
+         *
+         * @return the text without quotes.
+         * @throws FactoryException if there is no quoted text at the current position.
+         */
+        String string() throws FactoryException {
+            final int c = skipSpaces();
+            final char close;
+            switch (c) {
+                case '"': close = '"'; break;
+                case '“': close = '”'; break;
+                default: throw error("Expected a quoted text");
+            }
+            int start = ++position;
+            StringBuilder buffer = null;
+            while (position < length) {
+                if (text.charAt(position++) == close) {
+                    if (close == '"' && position < length && text.charAt(position) == '"') {
+                        if (buffer == null) buffer = new StringBuilder();
+                        buffer.append(text, start, position);
+                        start = ++position;
+                        continue;
+                    }
+                    final int stop = position - 1;
+                    if (buffer == null) {
+                        return text.subSequence(start, stop).toString();
+                    }
+                    return buffer.append(text, start, stop).toString();
+                }
+            }
+            throw error("Unclosed quoted text");
+        }
+
+        /**
+         * Parses an unquoted token, for example a direction or a coordinate system type.
+         *
+         * @return the token.
+         * @throws FactoryException if there is no token at the current position.
+         */
+        String token() throws FactoryException {
+            skipSpaces();
+            final int start = position;
+            while (position < length) {
+                final char c = text.charAt(position);
+                if (c == ',' || c == '[' || c == ']' || c == '(' || c == ')' || c == '"' || Character.isWhitespace(c)) break;
+                position++;
+            }
+            if (position == start) {
+                throw error("Expected a value");
+            }
+            return text.subSequence(start, position).toString();
+        }
+
+        /**
+         * Parses a value which may be quoted or not, for example an identifier code.
+         *
+         * @return the value without quotes.
+         * @throws FactoryException if there is no value at the current position.
+         */
+        String code() throws FactoryException {
+            final int c = skipSpaces();
+            return (c == '"' || c == '“') ? string() : token();
+        }
+
+        /**
+         * Parses a floating point number. Numbers having at most 15 significant digits and a small exponent
+         * are computed directly from their digits, since the result is then exact or correctly rounded.
+         * Other numbers are delegated to {@link Double#parseDouble(String)}.
+         *
+         * @return the parsed number.
+         * @throws FactoryException if there is no number at the current position.
+         */
+        double number() throws FactoryException {
+            skipSpaces();
+            final int start = position;
+            boolean negative = false;
+            char c = (position < length) ? text.charAt(position) : 0;
+            if (c == '-' || c == '+') {
+                negative = (c == '-');
+                c = (++position < length) ? text.charAt(position) : 0;
+            }
+            long    mantissa = 0;
+            int     digits   = 0;
+            int     scale    = 0;
+            boolean any      = false;
+            boolean fraction = false;
+            while (true) {
+                if (c >= '0' && c <= '9') {
+                    any = true;
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        if (mantissa != 0) digits++;
+                        if (fraction) scale--;
+                    } else {
+                        digits++;                   // Too many digits: will delegate to Double.parseDouble.
+                    }
+                } else if (c == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+                c = (++position < length) ? text.charAt(position) : 0;
+            }
+            if (!any) {
+                position = start;
+                throw error("Expected a number");
+            }
+            if (c == 'e' || c == 'E') {
+                c = (++position < length) ? text.charAt(position) : 0;
+                boolean negativeExponent = false;
+                if (c == '-' || c == '+') {
+                    negativeExponent = (c == '-');
+                    c = (++position < length) ? text.charAt(position) : 0;
+                }
+                int exponent = 0;
+                final int s = position;
+                while (c >= '0' && c <= '9') {
+                    if (exponent < 10000) exponent = exponent * 10 + (c - '0');
+                    c = (++position < length) ? text.charAt(position) : 0;
+                }
+                if (position == s) {
+                    throw error("Expected an exponent");
+                }
+                scale += negativeExponent ? -exponent : exponent;
+            }
+            if (digits <= 15 && scale >= -22 && scale <= 22) {
+                double value = mantissa;
+                value = (scale < 0) ? value / POW10[-scale] : value * POW10[scale];
+                return negative ? -value : value;
+            }
+            return Double.parseDouble(text.subSequence(start, position).toString());
+        }
+
+        /**
+         * Parses an integer.
+         *
+         * @return the parsed integer.
+         * @throws FactoryException if there is no integer at the current position.
+         */
+        int integer() throws FactoryException {
+            final int start = position;
+            final double value = number();
+            final int n = (int) value;
+            if (n != value) {
+                position = start;
+                throw error("Expected an integer");
+            }
+            return n;
+        }
+
+        /**
+         * Returns {@code true} if the given character is the beginning of a number.
+         *
+         * @param  c  the character to test.
+         * @return whether the given character may start a number.
+         */
+        private boolean isNumberStart(final int c) {
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+        }
+
+        /**
+         * Skips the brackets and content of the element for which the keyword has just been parsed.
+         * Quoted texts are taken in account, so that brackets in quoted texts are ignored.
+         *
+         * @throws FactoryException if the element is not closed.
+         */
+        void skipElement() throws FactoryException {
+            final int c = skipSpaces();
+            if (c != '[' && c != '(') {
+                return;
+            }
+            int depth = 0;
+            while (position < length) {
+                switch (text.charAt(position++)) {
+                    case '[': case '(': depth++; break;
+                    case ']': case ')': if (--depth == 0) return; break;
+                    case '"': {
+                        while (position < length && text.charAt(position++) != '"') {}
+                        break;
+                    }
+                    case '“': {
+                        while (position < length && text.charAt(position++) != '”') {}
+                        break;
+                    }
+                }
+            }
+            throw error("Unclosed element");
+        }
+
+        /**
+         * Skips a value of any kind: quoted text, number, token or element.
+         *
+         * @throws FactoryException if the value is malformed.
+         */
+        void skipValue() throws FactoryException {
+            final int c = skipSpaces();
+            if (c == '"' || c == '“') {
+                string();
+            } else {
+                token();
+                skipElement();
+            }
+        }
+
+        /**
+         * Returns the pool key for the element starting at the given index, where {@link #position}
+         * is after the element keyword. This method scans the element for finding its end, stores
+         * the end index in the {@link #elementEnd} field, then restores the position.
+         *
+         * @param  start    index of the first character of the element keyword.
+         * @param  context  the implicit units or other objects used for parsing the element.
+         * @return the pool key for the element.
+         * @throws FactoryException if the element is not closed.
+         */
+        Key key(final int start, final Object... context) throws FactoryException {
+            final int resume = position;
+            skipElement();
+            elementEnd = position;
+            position = resume;
+            return new Key(text.subSequence(start, elementEnd).toString(), context);
+        }
+
+        /**
+         * Parses the identification and usage elements shared by most WKT elements:
+         * {@code ID}, {@code REMARK}, {@code SCOPE} and {@code USAGE}. If the given keyword
+         * is not one of those elements, then nothing is parsed.
+         *
+         * @param  keyword     the code of the keyword which has just been parsed.
+         * @param  properties  where to store the parsed properties, or {@code null} for ignoring them.
+         * @return whether the given keyword was one of the elements handled by this method.
+         * @throws FactoryException if the element is malformed.
+         */
+        boolean common(final int keyword, final Map<String,Object> properties) throws FactoryException {
+            switch (keyword) {
+                case ID: {
+                    open();
+                    final String authority = string();
+                    separator();
+                    final String code = code();
+                    close();
+                    if (properties != null) {
+                        final Identifier id = new Id(authority, code);
+                        Identifier[] ids = (Identifier[]) properties.get(IdentifiedObject.IDENTIFIERS_KEY);
+                        if (ids == null) {
+                            ids = new Identifier[] {id};
+                        } else {
+                            ids = Arrays.copyOf(ids, ids.length + 1);
+                            ids[ids.length - 1] = id;
+                        }
+                        properties.put(IdentifiedObject.IDENTIFIERS_KEY, ids);
+                    }
+                    return true;
+                }
+                case REMARK:
+                case SCOPE: {
+                    open();
+                    final String value = string();
+                    close();
+                    if (properties != null) {
+                        properties.put(keyword == REMARK ? IdentifiedObject.REMARKS_KEY : ReferenceSystem.SCOPE_KEY, value);
+                    }
+                    return true;
+                }
+                case USAGE: {
+                    open();
+                    do {
+                        final int k = keyword();
+                        if (!common(k, properties)) skipElement();
+                    } while (next());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Parses a unit element. The system unit is inferred from the keyword, or is the given
+         * {@code base} unit for the generic {@code UNIT} keyword.
+         *
+         * @param  keyword  the code of the unit keyword which has just been parsed.
+         * @param  start    index of the first character of the keyword.
+         * @param  base     the system unit of a generic {@code UNIT} element, or {@code null} if unknown.
+         * @return the parsed unit.
+         * @throws FactoryException if the element is malformed.
+         */
+        Unit<?> unit(final int keyword, final int start, final Unit<?> base) throws FactoryException {
+            final Key key = key(start, (keyword == UNIT) ? base : null);
+            final Object cached = cached(key);
+            if (cached != null) {
+                position = elementEnd;
+                return (Unit<?>) cached;
+            }
+            open();
+            final String name = string();
+            double factor = Double.NaN;
+            while (next()) {
+                if (Double.isNaN(factor) && isNumberStart(skipSpaces())) {
+                    factor = number();
+                } else {
+                    skipValue();
+                }
+            }
+            final Unit<?> system;
+            switch (keyword) {
+                case LENGTHUNIT: system = Units.METRE;  break;
+                case ANGLEUNIT:  system = Units.RADIAN; break;
+                case SCALEUNIT:  system = Units.ONE;    break;
+                case TIMEUNIT:   system = Units.SECOND; break;
+                case PARAMETRICUNIT: {
+                    system = (name.contains("Pa") || name.contains("bar")) ? Units.PASCAL : Units.ONE;
+                    break;
+                }
+                default: system = (base != null) ? base : Units.ONE;
+            }
+            return cache(key, WKTParser.unit(system, factor));
+        }
+
+        /**
+         * Parses an {@code ELLIPSOID} element. If no unit is specified, metres are assumed.
+         *
+         * @param  start  index of the first character of the keyword.
+         * @return the parsed ellipsoid.
+         * @throws FactoryException if the element is malformed or the ellipsoid can not be created.
+         */
+        Ellipsoid ellipsoid(final int start) throws FactoryException {
+            final Key key = key(start);
+            final Object cached = cached(key);
+            if (cached != null) {
+                position = elementEnd;
+                return (Ellipsoid) cached;
+            }
+            open();
+            final Map<String,Object> properties = properties(string());
+            separator();
+            final double semiMajor = number();
+            separator();
+            final double inverseFlattening = number();
+            Unit<?> unit = Units.METRE;
+            while (next()) {
+                final int s = start();
+                final int k = keyword();
+                if (isUnit(k)) {
+                    unit = unit(k, s, Units.METRE);
+                } else if (!common(k, properties)) {
+                    skipElement();
+                }
+            }
+            final Unit<Length> linear;
+            try {
+                linear = unit.asType(Length.class);
+            } catch (ClassCastException e) {
+                throw error("Illegal ellipsoid unit");
+            }
+            final DatumFactory factory = factory(datumFactory, DatumFactory.class);
+            return cache(key, (inverseFlattening == 0 || Double.isInfinite(inverseFlattening))
+                    ? factory.createEllipsoid(properties, semiMajor, semiMajor, linear)
+                    : factory.createFlattenedSphere(properties, semiMajor, inverseFlattening, linear));
+        }
+
+        /**
+         * Parses the {@code PRIMEM} element in the given range of characters.
+         *
+         * @param  start    index of the first character of the element, or -1 for the Greenwich meridian.
+         * @param  stop     index after the last character of the element.
+         * @param  angular  the unit to use if the element does not specify a unit.
+         * @return the parsed prime meridian.
+         * @throws FactoryException if the element is malformed or the prime meridian can not be created.
+         */
+        PrimeMeridian primeMeridian(final int start, final int stop, final Unit<?> angular) throws FactoryException {
+            final DatumFactory factory = factory(datumFactory, DatumFactory.class);
+            if (start < 0) {
+                final Key key = new Key("PRIMEM[\"Greenwich\",0]", Units.DEGREE);
+                final Object cached = cached(key);
+                if (cached != null) {
+                    return (PrimeMeridian) cached;
+                }
+                return cache(key, factory.createPrimeMeridian(properties("Greenwich"), 0, Units.DEGREE));
+            }
+            final Key key = new Key(text.subSequence(start, stop).toString(), angular);
+            final Object cached = cached(key);
+            if (cached != null) {
+                return (PrimeMeridian) cached;
+            }
+            final int resume = position;
+            position = start;
+            keyword();
+            open();
+            final Map<String,Object> properties = properties(string());
+            separator();
+            final double longitude = number();
+            Unit<?> unit = angular;
+            while (next()) {
+                final int s = start();
+                final int k = keyword();
+                if (isUnit(k)) {
+                    unit = unit(k, s, Units.RADIAN);
+                } else if (!common(k, properties)) {
+                    skipElement();
+                }
+            }
+            position = resume;
+            try {
+                return cache(key, factory.createPrimeMeridian(properties, longitude, unit.asType(Angle.class)));
+            } catch (ClassCastException e) {
+                throw new FactoryException("Illegal prime meridian unit: " + unit, e);
+            }
+        }
+
+        /**
+         * Parses a datum element. The {@link #position} shall be after the datum keyword.
+         *
+         * @param  keyword  the code of the datum keyword which has just been parsed.
+         * @param  pm       the prime meridian of a geodetic datum, ignored for other datum types.
+         * @return the parsed datum.
+         * @throws FactoryException if the element is malformed or the datum can not be created.
+         */
+        Datum datum(final int keyword, final PrimeMeridian pm) throws FactoryException {
+            open();
+            final String name = string();
+            final Map<String,Object> properties = properties(name);
+            Ellipsoid ellipsoid = null;
+            Date origin = null;
+            int typeCode = 0;
+            while (next()) {
+                if (isNumberStart(skipSpaces())) {
+                    typeCode = integer();                   // WKT 1 type of vertical or local datum.
+                    continue;
+                }
+                final int s = start();
+                final int k = keyword();
+                switch (k) {
+                    case ELLIPSOID: ellipsoid = ellipsoid(s); break;
+                    case ANCHOR: {
+                        open();
+                        properties.put(Datum.ANCHOR_POINT_KEY, string());
+                        close();
+                        break;
+                    }
+                    case TIMEORIGIN: {
+                        open();
+                        origin = date(code());
+                        close();
+                        break;
+                    }
+                    case TOWGS84: {
+                        open();
+                        double[] values = new double[7];
+                        int n = 0;
+                        do {
+                            if (n == values.length) {
+                                values = Arrays.copyOf(values, n * 2);
+                            }
+                            values[n++] = number();
+                        } while (next());
+                        properties.put(TOWGS84_KEY, Arrays.copyOf(values, n));
+                        break;
+                    }
+                    default: if (!common(k, properties)) skipElement();
+                }
+            }
+            final DatumFactory factory = factory(datumFactory, DatumFactory.class);
+            switch (keyword) {
+                case DATUM: {
+                    return factory.createGeodeticDatum(properties, require(Ellipsoid.class, ellipsoid, "ELLIPSOID"), pm);
+                }
+                case VDATUM: {
+                    return factory.createVerticalDatum(properties, name.toLowerCase().contains("depth")
+                            ? VerticalDatumType.DEPTH : VerticalDatumType.GEOIDAL);
+                }
+                case VERT_DATUM: {
+                    final VerticalDatumType type;
+                    switch (typeCode) {
+                        case 2003: type = VerticalDatumType.BAROMETRIC; break;
+                        case 2005: type = VerticalDatumType.GEOIDAL; break;
+                        case 2006: type = VerticalDatumType.DEPTH; break;
+                        default:   type = VerticalDatumType.OTHER_SURFACE; break;
+                    }
+                    return factory.createVerticalDatum(properties, type);
+                }
+                case TDATUM:      return factory.createTemporalDatum(properties, require(Date.class, origin, "TIMEORIGIN"));
+                case PDATUM:      return factory.createParametricDatum(properties);
+                case IDATUM:      return factory.createImageDatum(properties, PixelInCell.CELL_CENTER);
+                default:          return factory.createEngineeringDatum(properties);
+            }
+        }
+
+        /**
+         * Parses the {@code AXIS} element in the given range of characters.
+         *
+         * @param  start     index of the first character of the element.
+         * @param  stop      index after the last character of the element.
+         * @param  unit      the unit declared in the enclosing CS or CRS element, or {@code null} if none.
+         * @param  implicit  the unit to use if neither the axis or the enclosing element declare a unit.
+         * @return the parsed axis together with its order.
+         * @throws FactoryException if the element is malformed or the axis can not be created.
+         */
+        OrderedAxis axis(final int start, final int stop, final Unit<?> unit, final Unit<?> implicit)
+                throws FactoryException
+        {
+            final Key key = new Key(text.subSequence(start, stop).toString(), unit, implicit);
+            final Object cached = cached(key);
+            if (cached != null) {
+                return (OrderedAxis) cached;
+            }
+            final int resume = position;
+            position = start;
+            keyword();
+            open();
+            String name = string().trim();
+            separator();
+            final AxisDirection direction = direction(token());
+            final Map<String,Object> properties = new HashMap<>(4);
+            Unit<?> axisUnit = null;
+            int order = 0;
+            while (next()) {
+                final int s = start();
+                final int k = keyword();
+                if (k == ORDER) {
+                    open();
+                    order = integer();
+                    close();
+                } else if (isUnit(k)) {
+                    axisUnit = unit(k, s, (unit != null ? unit : implicit).getSystemUnit());
+                } else if (!common(k, properties)) {
+                    skipElement();
+                }
+            }
+            position = resume;
+            String abbreviation = null;
+            final int s = name.lastIndexOf('(');
+            if (s >= 0 && name.endsWith(")")) {
+                abbreviation = name.substring(s + 1, name.length() - 1).trim();
+                name = name.substring(0, s).trim();
+            }
+            if (name.isEmpty()) {
+                name = axisName(abbreviation, direction);
+            } else if (abbreviation == null) {
+                abbreviation = abbreviation(name);
+            }
+            name = standardName(name, direction);
+            if (axisUnit == null) {
+                axisUnit = (unit != null) ? unit : implicit;
+                if (isVertical(direction) && isAngular(axisUnit)) {
+                    axisUnit = Units.METRE;
+                }
+            }
+            properties.put(IdentifiedObject.NAME_KEY, name);
+            final CoordinateSystemAxis axis = factory(csFactory, CSFactory.class)
+                    .createCoordinateSystemAxis(properties, abbreviation, direction, axisUnit);
+            return cache(key, new OrderedAxis(axis, order));
+        }
+
+        /**
+         * Parses a {@code CONVERSION} element. The {@link #position} shall be after the keyword.
+         *
+         * @return the parsed conversion, to be created after the enclosing CRS.
+         * @throws FactoryException if the element is malformed.
+         */
+        Operation operation() throws FactoryException {
+            open();
+            final Operation op = new Operation(properties(string()));
+            while (next()) {
+                final int k = keyword();
+                switch (k) {
+                    case METHOD:    op.method = method(); break;
+                    case PARAMETER: parameter(op); break;
+                    default: if (!common(k, op.properties)) skipElement();
+                }
+            }
+            return op;
+        }
+
+        /**
+         * Parses a {@code METHOD} or {@code PROJECTION} element.
+         *
+         * @return the method name.
+         * @throws FactoryException if the element is malformed.
+         */
+        String method() throws FactoryException {
+            open();
+            final String name = string();
+            close();
+            return name;
+        }
+
+        /**
+         * Parses a {@code PARAMETER} element and adds it to the given operation.
+         *
+         * @param  op  the operation where to add the parameter.
+         * @throws FactoryException if the element is malformed.
+         */
+        void parameter(final Operation op) throws FactoryException {
+            open();
+            final String name = string();
+            separator();
+            final double value = number();
+            Unit<?> unit = null;
+            while (next()) {
+                final int s = start();
+                final int k = keyword();
+                if (isUnit(k)) {
+                    unit = unit(k, s, null);
+                } else {
+                    skipElement();
+                }
+            }
+            op.add(name, value, unit);
+        }
+
+        /**
+         * Parses a CRS element, or returns a pooled CRS if the same element has already been parsed.
+         *
+         * @param  type   code of the keyword which has just been parsed.
+         * @param  start  index of the first character of the keyword.
+         * @return the parsed CRS.
+         * @throws FactoryException if the element is malformed or the CRS can not be created.
+         */
+        CoordinateReferenceSystem crs(final int type, final int start) throws FactoryException {
+            final Key key = key(start);
+            final Object cached = cached(key);
+            if (cached != null) {
+                position = elementEnd;
+                return (CoordinateReferenceSystem) cached;
+            }
+            return cache(key, parseCRS(type));
+        }
+
+        /**
+         * Parses a CRS element. Prime meridians, geodetic datum and axes are parsed only after the
+         * closing bracket, because their implicit units may be specified after them.
+         *
+         * @param  type  code of the keyword which has just been parsed.
+         * @return the parsed CRS.
+         * @throws FactoryException if the element is malformed or the CRS can not be created.
+         */
+        private CoordinateReferenceSystem parseCRS(final int type) throws FactoryException {
+            open();
+            final Map<String,Object> properties = properties(string());
+            SingleCRS base = null;
+            Operation conversion = null;
+            Datum datum = null;
+            String csType = null;
+            int dimension = 0;
+            Unit<?> unit = null;
+            int datumStart = -1, datumEnd = 0, pmStart = -1, pmEnd = 0;
+            int[] axes = null;
+            int axisCount = 0;
+            List<CoordinateReferenceSystem> components = null;
+            while (next()) {
+                skipSpaces();
+                final int s = start();
+                final int k = keyword();
+                switch (k) {
+                    case DATUM: {
+                        datumStart = s;
+                        skipElement();
+                        datumEnd = position;
+                        break;
+                    }
+                    case PRIMEM: {
+                        pmStart = s;
+                        skipElement();
+                        pmEnd = position;
+                        break;
+                    }
+                    case AXIS: {
+                        if (axes == null) {
+                            axes = new int[6];
+                        } else if (axisCount == axes.length) {
+                            axes = Arrays.copyOf(axes, axisCount * 2);
+                        }
+                        axes[axisCount++] = s;
+                        skipElement();
+                        axes[axisCount++] = position;
+                        break;
+                    }
+                    case CS: {
+                        open();
+                        final String word = token();
+                        csType = null;
+                        for (final String t : CS_TYPES) {
+                            if (t.equalsIgnoreCase(word)) {
+                                csType = t;
+                                break;
+                            }
+                        }
+                        if (csType == null) {
+                            throw error("Unsupported coordinate system type \"" + word + '"');
+                        }
+                        separator();
+                        dimension = integer();
+                        close();
+                        break;
+                    }
+                    case VDATUM: case VERT_DATUM: case TDATUM: case PDATUM:
+                    case EDATUM: case LOCAL_DATUM: case IDATUM: {
+                        final Key key = key(s);
+                        final Object cached = cached(key);
+                        if (cached != null) {
+                            position = elementEnd;
+                            datum = (Datum) cached;
+                        } else {
+                            datum = cache(key, datum(k, null));
+                        }
+                        break;
+                    }
+                    case CONVERSION: {
+                        conversion = operation();
+                        break;
+                    }
+                    case METHOD: {
+                        if (conversion == null) {
+                            conversion = new Operation(properties((String) properties.get(IdentifiedObject.NAME_KEY)));
+                        }
+                        conversion.method = method();
+                        break;
+                    }
+                    case PARAMETER: {
+                        if (conversion == null) {
+                            conversion = new Operation(properties((String) properties.get(IdentifiedObject.NAME_KEY)));
+                        }
+                        parameter(conversion);
+                        break;
+                    }
+                    default: {
+                        if (isUnit(k)) {
+                            unit = unit(k, s, defaultBase(type, csType));
+                        } else if (isCRS(k)) {
+                            final CoordinateReferenceSystem crs = crs(k, s);
+                            if (type == COMPOUNDCRS) {
+                                if (components == null) {
+                                    components = new ArrayList<>(3);
+                                }
+                                components.add(crs);
+                            } else {
+                                base = require(SingleCRS.class, crs, "base CRS");
+                            }
+                        } else if (!common(k, properties)) {
+                            skipElement();
+                        }
+                    }
+                }
+            }
+            final CRSFactory factory = factory(crsFactory, CRSFactory.class);
+            if (type == COMPOUNDCRS) {
+                if (components == null) {
+                    throw error("Missing components in compound CRS");
+                }
+                return factory.createCompoundCRS(properties, components.toArray(new CoordinateReferenceSystem[components.size()]));
+            }
+            /*
+             * Create the coordinate system. Axes without explicit unit use the unit declared in the CRS
+             * or CS element, or a default unit depending on the coordinate system type.
+             */
+            if (csType == null) {
+                csType = defaultCS(type);
+            }
+            final CoordinateSystemAxis[] csAxes;
+            if (axisCount == 0) {
+                csAxes = defaultAxes(type, csType, unit);
+            } else {
+                final Unit<?> implicit = defaultUnit(csType);
+                final OrderedAxis[] ordered = new OrderedAxis[axisCount / 2];
+                for (int i=0; i<ordered.length; i++) {
+                    ordered[i] = axis(axes[i*2], axes[i*2 + 1], unit, implicit);
+                }
+                for (int i=1; i<ordered.length; i++) {              // Insertion sort stable on ORDER values.
+                    final OrderedAxis a = ordered[i];
+                    int j = i;
+                    while (j > 0 && ordered[j-1].order > a.order) {
+                        ordered[j] = ordered[j-1];
+                        j--;
+                    }
+                    ordered[j] = a;
+                }
+                csAxes = new CoordinateSystemAxis[ordered.length];
+                for (int i=0; i<csAxes.length; i++) {
+                    csAxes[i] = ordered[i].axis;
+                }
+            }
+            if (dimension != 0 && dimension != csAxes.length) {
+                throw error("Expected " + dimension + " axes but found " + csAxes.length);
+            }
+            final CoordinateSystem cs = coordinateSystem(csType, csAxes);
+            /*
+             * Derived and projected CRS. The implicit units of conversion parameters are
+             * the angular unit of the base CRS and the linear unit of the derived CRS.
+             */
+            if (base != null && conversion != null) {
+                Unit<?> angular = base.getCoordinateSystem().getAxis(0).getUnit();
+                if (!isAngular(angular)) angular = Units.DEGREE;
+                Unit<?> linear = csAxes[0].getUnit();
+                if (!isLinear(linear)) linear = Units.METRE;
+                final Conversion op = conversion(conversion, angular, linear);
+                if (type == PROJCRS || type == PROJCS) {
+                    return factory.createProjectedCRS(properties, require(GeographicCRS.class, base, "base geographic CRS"),
+                            op, require(CartesianCS.class, cs, "Cartesian CS"));
+                }
+                return factory.createDerivedCRS(properties, base, op, cs);
+            }
+            switch (type) {
+                case GEODCRS:
+                case GEOGCS:
+                case GEOCCS: {
+                    if (datumStart < 0) {
+                        throw error("Missing DATUM element");
+                    }
+                    final PrimeMeridian pm = primeMeridian(pmStart, pmEnd,
+                            (unit != null && isAngular(unit)) ? unit : Units.DEGREE);
+                    final Key key = new Key(text.subSequence(datumStart, datumEnd).toString(), pm);
+                    GeodeticDatum gd = (GeodeticDatum) cached(key);
+                    if (gd == null) {
+                        final int resume = position;
+                        position = datumStart;
+                        keyword();
+                        gd = cache(key, (GeodeticDatum) datum(DATUM, pm));
+                        position = resume;
+                    }
+                    if (cs instanceof EllipsoidalCS) return factory.createGeographicCRS(properties, gd, (EllipsoidalCS) cs);
+                    if (cs instanceof CartesianCS)   return factory.createGeocentricCRS(properties, gd, (CartesianCS)   cs);
+                    if (cs instanceof SphericalCS)   return factory.createGeocentricCRS(properties, gd, (SphericalCS)   cs);
+                    throw error("Unexpected coordinate system for a geodetic CRS");
+                }
+                case PROJCRS:
+                case PROJCS: {
+                    throw error(base == null ? "Missing base CRS" : "Missing conversion");
+                }
+                case VERTCRS:
+                case VERT_CS: {
+                    return factory.createVerticalCRS(properties, require(VerticalDatum.class, datum, "VDATUM"),
+                            require(VerticalCS.class, cs, "vertical CS"));
+                }
+                case TIMECRS: {
+                    return factory.createTemporalCRS(properties, require(TemporalDatum.class, datum, "TDATUM"),
+                            require(TimeCS.class, cs, "temporal CS"));
+                }
+                case PARAMETRICCRS: {
+                    return factory.createParametricCRS(properties, require(ParametricDatum.class, datum, "PDATUM"),
+                            require(ParametricCS.class, cs, "parametric CS"));
+                }
+                case IMAGECRS: {
+                    return factory.createImageCRS(properties, require(ImageDatum.class, datum, "IDATUM"),
+                            require(AffineCS.class, cs, "affine CS"));
+                }
+                default: {
+                    return factory.createEngineeringCRS(properties, require(EngineeringDatum.class, datum, "EDATUM"), cs);
+                }
+            }
+        }
+
+        /**
+         * Parses a WKT 1 math transform element. The {@link #position} shall be after the keyword.
+         *
+         * @param  type  the code of the keyword which has just been parsed.
+         * @return the parsed math transform.
+         * @throws FactoryException if the element is malformed or the transform can not be created.
+         */
+        MathTransform transform(final int type) throws FactoryException {
+            final MathTransformFactory factory = factory(mtFactory, MathTransformFactory.class);
+            switch (type) {
+                case PARAM_MT: {
+                    open();
+                    final Operation op = new Operation(null);
+                    op.method = string();
+                    while (next()) {
+                        final int k = keyword();
+                        if (k == PARAMETER) {
+                            parameter(op);
+                        } else if (!common(k, null)) {
+                            skipElement();
+                        }
+                    }
+                    if (op.method.equalsIgnoreCase("Affine")) {
+                        return factory.createAffineTransform(affine(op));
+                    }
+                    return factory.createParameterizedTransform(parameters(op, op.units));
+                }
+                case CONCAT_MT: {
+                    open();
+                    MathTransform result = null;
+                    do {
+                        final MathTransform step = transform(keyword());
+                        result = (result == null) ? step : factory.createConcatenatedTransform(result, step);
+                    } while (next());
+                    return result;
+                }
+                case INVERSE_MT: {
+                    open();
+                    final MathTransform tr = transform(keyword());
+                    close();
+                    try {
+                        return tr.inverse();
+                    } catch (NoninvertibleTransformException e) {
+                        throw new FactoryException(e.getMessage(), e);
+                    }
+                }
+                case PASSTHROUGH_MT: {
+                    open();
+                    final int firstAffectedCoordinate = integer();
+                    separator();
+                    final MathTransform tr = transform(keyword());
+                    close();
+                    return factory.createPassThroughTransform(firstAffectedCoordinate, tr, 0);
+                }
+                default: throw error("Expected a math transform");
+            }
+        }
+
+        /**
+         * Creates the matrix of an affine transform from the {@code num_row}, {@code num_col}
+         * and {@code elt_<row>_<col>} parameters. Missing elements are taken from the identity matrix.
+         * The matrix size is not restricted; factories supporting only some sizes shall reject the others.
+         *
+         * @param  op  the parsed {@code PARAM_MT} element.
+         * @return the affine transform matrix.
+         * @throws FactoryException if the matrix size or an element name is illegal.
+         */
+        private Matrix affine(final Operation op) throws FactoryException {
+            int numRow = 3, numCol = 3;
+            for (int i=0; i<op.count; i++) {
+                switch (op.names[i]) {
+                    case "num_row": numRow = size(op.names[i], op.values[i]); break;
+                    case "num_col": numCol = size(op.names[i], op.values[i]); break;
+                }
+            }
+            final AffineMatrix matrix = new AffineMatrix(numRow, numCol);
+            for (int i=0; i<op.count; i++) {
+                final String name = op.names[i];
+                if (name.startsWith("elt_")) {
+                    final int s = name.indexOf('_', 4);
+                    try {
+                        final int row = Integer.parseInt(name.substring(4, s));
+                        final int col = Integer.parseInt(name.substring(s + 1));
+                        matrix.setElement(row, col, op.values[i]);
+                    } catch (RuntimeException e) {          // NumberFormatException or index out of bounds.
+                        throw new FactoryException("Illegal matrix element: " + name, e);
+                    }
+                }
+            }
+            return matrix;
+        }
+
+        /**
+         * Returns the given value of a {@code num_row} or {@code num_col} parameter as a matrix size.
+         *
+         * @param  name   the parameter name, used in the error message.
+         * @param  value  the parameter value.
+         * @return the matrix size.
+         * @throws FactoryException if the value is not a strictly positive integer.
+         */
+        private int size(final String name, final double value) throws FactoryException {
+            final int n = (int) value;
+            if (n != value || n < 1) {
+                throw new FactoryException("Illegal " + name + " value: " + value);
+            }
+            return n;
+        }
+    }
+}
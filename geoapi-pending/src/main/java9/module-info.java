@@ -75,4 +75,5 @@ module org.opengis.geoapi.pending {
 
     // Additional exports
     exports org.opengis.coverage.grid;
+    exports org.opengis.referencing.wkt;
 }
@@ -0,0 +1,493 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The Proj.4 wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.proj4;
+
+import javax.measure.Unit;
+import javax.measure.quantity.Angle;
+import javax.measure.quantity.Length;
+
+import org.opengis.metadata.Identifier;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.referencing.cs.AxisDirection;
+import org.opengis.referencing.cs.CartesianCS;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.cs.CoordinateSystemAxis;
+import org.opengis.referencing.cs.EllipsoidalCS;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.opengis.referencing.operation.Conversion;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.OperationMethod;
+
+
+/**
+ * Components of a {@literal Proj.4} definition string, created by {@link PJFactory.Objects} from property maps.
+ * Those objects are plain Java objects holding only the values needed for building the definition string of a CRS;
+ * they do not use the Proj.4 native library. They are typically created by the WKT parser before being assembled
+ * into a CRS by {@link PJFactory.Objects#createGeographicCRS createGeographicCRS(…)} or similar methods.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+final class PJDefinition {
+    /**
+     * Do not allow instantiation of this class.
+     */
+    private PJDefinition() {
+    }
+
+    /**
+     * An ellipsoid defined by its semi-axis lengths or inverse flattening factor.
+     */
+    static final class Spheroid extends PJObject implements Ellipsoid {
+        /**
+         * The semi-major axis length, in {@link #unit}.
+         */
+        private final double semiMajorAxis;
+
+        /**
+         * The semi-minor axis length, in {@link #unit}.
+         */
+        private final double semiMinorAxis;
+
+        /**
+         * The inverse flattening factor, or infinity for a sphere.
+         */
+        private final double inverseFlattening;
+
+        /**
+         * Whether the inverse flattening is the definitive parameter of this ellipsoid.
+         */
+        private final boolean ivfDefinitive;
+
+        /**
+         * The unit of the semi-axis lengths.
+         */
+        private final Unit<Length> unit;
+
+        /**
+         * Creates a new ellipsoid.
+         *
+         * @param name               the ellipsoid name, or {@code null} if none.
+         * @param semiMajorAxis      the semi-major axis length.
+         * @param semiMinorAxis      the semi-minor axis length.
+         * @param inverseFlattening  the inverse flattening factor, or infinity for a sphere.
+         * @param ivfDefinitive      whether the inverse flattening is the definitive parameter.
+         * @param unit               the unit of the semi-axis lengths.
+         */
+        Spheroid(final Identifier name, final double semiMajorAxis, final double semiMinorAxis,
+                final double inverseFlattening, final boolean ivfDefinitive, final Unit<Length> unit)
+        {
+            super(name);
+            this.semiMajorAxis     = semiMajorAxis;
+            this.semiMinorAxis     = semiMinorAxis;
+            this.inverseFlattening = inverseFlattening;
+            this.ivfDefinitive     = ivfDefinitive;
+            this.unit              = unit;
+        }
+
+        /**
+         * Returns the unit of the semi-axis lengths.
+         *
+         * @return the unit of the semi-axis lengths.
+         */
+        @Override
+        public Unit<Length> getAxisUnit() {
+            return unit;
+        }
+
+        /**
+         * Returns the semi-major axis length.
+         *
+         * @return the semi-major axis length, in {@linkplain #getAxisUnit() axis unit}.
+         */
+        @Override
+        public double getSemiMajorAxis() {
+            return semiMajorAxis;
+        }
+
+        /**
+         * Returns the semi-minor axis length.
+         *
+         * @return the semi-minor axis length, in {@linkplain #getAxisUnit() axis unit}.
+         */
+        @Override
+        public double getSemiMinorAxis() {
+            return semiMinorAxis;
+        }
+
+        /**
+         * Returns the inverse flattening factor.
+         *
+         * @return the inverse flattening factor, or infinity for a sphere.
+         */
+        @Override
+        public double getInverseFlattening() {
+            return inverseFlattening;
+        }
+
+        /**
+         * Returns whether the inverse flattening is the definitive parameter of this ellipsoid.
+         *
+         * @return {@code true} if this ellipsoid has been defined by its inverse flattening.
+         */
+        @Override
+        public boolean isIvfDefinitive() {
+            return ivfDefinitive;
+        }
+
+        /**
+         * Returns whether this ellipsoid is a sphere.
+         *
+         * @return {@code true} if the two semi-axis lengths are equal.
+         */
+        @Override
+        public boolean isSphere() {
+            return semiMajorAxis == semiMinorAxis;
+        }
+    }
+
+    /**
+     * A prime meridian defined by its longitude relative to Greenwich.
+     */
+    static final class Meridian extends PJObject implements PrimeMeridian {
+        /**
+         * The longitude of this prime meridian relative to Greenwich, in {@link #unit}.
+         */
+        private final double longitude;
+
+        /**
+         * The unit of the {@linkplain #longitude}.
+         */
+        private final Unit<Angle> unit;
+
+        /**
+         * Creates a new prime meridian.
+         *
+         * @param name       the prime meridian name, or {@code null} if none.
+         * @param longitude  the longitude relative to Greenwich.
+         * @param unit       the unit of the longitude.
+         */
+        Meridian(final Identifier name, final double longitude, final Unit<Angle> unit) {
+            super(name);
+            this.longitude = longitude;
+            this.unit      = unit;
+        }
+
+        /**
+         * Returns the longitude of this prime meridian relative to Greenwich.
+         *
+         * @return the longitude in {@linkplain #getAngularUnit() angular unit}.
+         */
+        @Override
+        public double getGreenwichLongitude() {
+            return longitude;
+        }
+
+        /**
+         * Returns the unit of the Greenwich longitude.
+         *
+         * @return the angular unit of the Greenwich longitude.
+         */
+        @Override
+        public Unit<Angle> getAngularUnit() {
+            return unit;
+        }
+    }
+
+    /**
+     * A geodetic datum, optionally with the parameters of a datum shift to WGS 84.
+     */
+    static final class Datum extends PJObject implements GeodeticDatum {
+        /**
+         * The ellipsoid of this datum.
+         */
+        private final Ellipsoid ellipsoid;
+
+        /**
+         * The prime meridian of this datum, or {@code null} for Greenwich.
+         */
+        private final PrimeMeridian primeMeridian;
+
+        /**
+         * The Bursa-Wolf parameters of the datum shift to WGS 84, or {@code null} if none.
+         */
+        private final double[] toWGS84;
+
+        /**
+         * Creates a new geodetic datum.
+         *
+         * @param name           the datum name, or {@code null} if none.
+         * @param ellipsoid      the ellipsoid of the new datum.
+         * @param primeMeridian  the prime meridian of the new datum, or {@code null} for Greenwich.
+         * @param toWGS84        the Bursa-Wolf parameters of the datum shift to WGS 84, or {@code null} if none.
+         */
+        Datum(final Identifier name, final Ellipsoid ellipsoid, final PrimeMeridian primeMeridian, final double[] toWGS84) {
+            super(name);
+            this.ellipsoid     = ellipsoid;
+            this.primeMeridian = primeMeridian;
+            this.toWGS84       = toWGS84;
+        }
+
+        /**
+         * Returns the ellipsoid of this datum.
+         *
+         * @return the ellipsoid.
+         */
+        @Override
+        public Ellipsoid getEllipsoid() {
+            return ellipsoid;
+        }
+
+        /**
+         * Returns the prime meridian of this datum.
+         *
+         * @return the prime meridian, or {@code null} for Greenwich.
+         */
+        @Override
+        public PrimeMeridian getPrimeMeridian() {
+            return primeMeridian;
+        }
+
+        /**
+         * Returns the parameters of the datum shift to WGS 84, in the order expected
+         * by the {@literal Proj.4} {@code +towgs84} parameter.
+         *
+         * @return the Bursa-Wolf parameters, or {@code null} if none.
+         */
+        double[] getToWGS84() {
+            return (toWGS84 != null) ? toWGS84.clone() : null;
+        }
+    }
+
+    /**
+     * A coordinate system axis defined by its abbreviation, direction and unit.
+     */
+    static final class Axis extends PJObject implements CoordinateSystemAxis {
+        /**
+         * The axis abbreviation.
+         */
+        private final String abbreviation;
+
+        /**
+         * The axis direction.
+         */
+        private final AxisDirection direction;
+
+        /**
+         * The unit of measurement of coordinate values along this axis.
+         */
+        private final Unit<?> unit;
+
+        /**
+         * Creates a new axis.
+         *
+         * @param name          the axis name, or {@code null} if none.
+         * @param abbreviation  the axis abbreviation.
+         * @param direction     the axis direction.
+         * @param unit          the unit of measurement.
+         */
+        Axis(final Identifier name, final String abbreviation, final AxisDirection direction, final Unit<?> unit) {
+            super(name);
+            this.abbreviation = abbreviation;
+            this.direction    = direction;
+            this.unit         = unit;
+        }
+
+        /**
+         * Returns the axis abbreviation.
+         *
+         * @return the axis abbreviation.
+         */
+        @Override
+        public String getAbbreviation() {
+            return abbreviation;
+        }
+
+        /**
+         * Returns the axis direction.
+         *
+         * @return the axis direction.
+         */
+        @Override
+        public AxisDirection getDirection() {
+            return direction;
+        }
+
+        /**
+         * Returns the unit of measurement of coordinate values along this axis.
+         *
+         * @return the unit of measurement.
+         */
+        @Override
+        public Unit<?> getUnit() {
+            return unit;
+        }
+    }
+
+    /**
+     * Base class of coordinate systems defined by a list of axes.
+     */
+    static class CS extends PJObject implements CoordinateSystem {
+        /**
+         * The axes of this coordinate system.
+         */
+        private final CoordinateSystemAxis[] axes;
+
+        /**
+         * Creates a new coordinate system.
+         *
+         * @param name  the coordinate system name, or {@code null} if none.
+         * @param axes  the axes of the new coordinate system.
+         */
+        CS(final Identifier name, final CoordinateSystemAxis... axes) {
+            super(name);
+            this.axes = axes;
+        }
+
+        /**
+         * Returns the number of axes.
+         *
+         * @return the dimension of this coordinate system.
+         */
+        @Override
+        public int getDimension() {
+            return axes.length;
+        }
+
+        /**
+         * Returns the axis at the given dimension.
+         *
+         * @param  dimension  the zero-based index of the axis.
+         * @return the axis at the given dimension.
+         * @throws IndexOutOfBoundsException if the given index is out of bounds.
+         */
+        @Override
+        public CoordinateSystemAxis getAxis(final int dimension) throws IndexOutOfBoundsException {
+            return axes[dimension];
+        }
+    }
+
+    /**
+     * An ellipsoidal coordinate system of 2 or 3 dimensions.
+     */
+    static final class Ellipsoidal extends CS implements EllipsoidalCS {
+        /**
+         * Creates a new ellipsoidal coordinate system.
+         *
+         * @param name  the coordinate system name, or {@code null} if none.
+         * @param axes  the axes of the new coordinate system.
+         */
+        Ellipsoidal(final Identifier name, final CoordinateSystemAxis... axes) {
+            super(name, axes);
+        }
+    }
+
+    /**
+     * A Cartesian coordinate system of 2 or 3 dimensions.
+     */
+    static final class Cartesian extends CS implements CartesianCS {
+        /**
+         * Creates a new Cartesian coordinate system.
+         *
+         * @param name  the coordinate system name, or {@code null} if none.
+         * @param axes  the axes of the new coordinate system.
+         */
+        Cartesian(final Identifier name, final CoordinateSystemAxis... axes) {
+            super(name, axes);
+        }
+    }
+
+    /**
+     * The defining conversion of a projected CRS: an operation method with its parameter values,
+     * but without source CRS, target CRS or math transform.
+     */
+    static final class DefiningConversion extends PJObject implements Conversion {
+        /**
+         * The operation method.
+         */
+        private final OperationMethod method;
+
+        /**
+         * The parameter values of the operation method.
+         */
+        private final ParameterValueGroup parameters;
+
+        /**
+         * Creates a new defining conversion.
+         *
+         * @param name        the conversion name, or {@code null} if none.
+         * @param method      the operation method.
+         * @param parameters  the parameter values of the operation method.
+         */
+        DefiningConversion(final Identifier name, final OperationMethod method, final ParameterValueGroup parameters) {
+            super(name);
+            this.method     = method;
+            this.parameters = parameters;
+        }
+
+        /**
+         * Returns {@code null} since a defining conversion has no source CRS.
+         *
+         * @return {@code null}.
+         */
+        @Override
+        public CoordinateReferenceSystem getSourceCRS() {
+            return null;
+        }
+
+        /**
+         * Returns {@code null} since a defining conversion has no target CRS.
+         *
+         * @return {@code null}.
+         */
+        @Override
+        public CoordinateReferenceSystem getTargetCRS() {
+            return null;
+        }
+
+        /**
+         * Returns {@code null} since a defining conversion has no math transform.
+         *
+         * @return {@code null}.
+         */
+        @Override
+        public MathTransform getMathTransform() {
+            return null;
+        }
+
+        /**
+         * Returns the operation method.
+         *
+         * @return the operation method.
+         */
+        @Override
+        public OperationMethod getMethod() {
+            return method;
+        }
+
+        /**
+         * Returns the parameter values of the operation method.
+         *
+         * @return the parameter values.
+         */
+        @Override
+        public ParameterValueGroup getParameterValues() {
+            return parameters;
+        }
+    }
+}
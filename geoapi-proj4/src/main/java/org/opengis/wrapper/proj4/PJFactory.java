@@ -15,11 +15,14 @@ package org.opengis.wrapper.proj4;
 
 import java.util.Set;
 import java.util.Map;
+import java.util.Date;
 import java.util.Collections;
 import java.util.MissingResourceException;
 import java.awt.geom.AffineTransform;
 import javax.measure.Unit;
+import javax.measure.IncommensurableException;
 import javax.measure.quantity.Angle;
+import javax.measure.quantity.Length;
 
 import org.opengis.util.*;
 import org.opengis.parameter.*;
@@ -29,6 +32,7 @@ import org.opengis.referencing.datum.*;
 import org.opengis.referencing.operation.*;
 import org.opengis.referencing.IdentifiedObject;
 import org.opengis.referencing.NoSuchAuthorityCodeException;
+import org.opengis.referencing.wkt.WKTParser;
 import org.opengis.metadata.citation.Citation;
 import org.opengis.metadata.Identifier;
 import org.proj4.PJ;
@@ -240,21 +244,117 @@ public class PJFactory implements Factory {
      *   <li>{@link #createGeocentricCRS(Map, GeodeticDatum, CartesianCS)}</li>
      *   <li>{@link #createGeographicCRS(Map, GeodeticDatum, EllipsoidalCS)}</li>
      *   <li>{@link #createProjectedCRS(Map, GeographicCRS, Conversion, CartesianCS)}</li>
+     *   <li>{@link #createFromWKT(String)} for the above CRS types</li>
      * </ul>
      *
+     * The geodetic datum, ellipsoid, prime meridian, ellipsoidal and Cartesian coordinate systems
+     * given to the above methods can be created by this factory as well. Those components are
+     * plain Java objects which do not need the Proj.4 native library; only the CRS are native.
      * All other methods throw a {@link FactoryException}.
      *
      * @author  Martin Desruisseaux (Geomatys)
      * @version 3.1
      * @since   3.1
      */
-    public static class Objects extends PJFactory implements CRSFactory {
+    public static class Objects extends PJFactory implements CRSFactory, DatumFactory, CSFactory {
+        /**
+         * The parser to use for {@link #createFromWKT(String)}, created when first needed.
+         * Race conditions are harmless since the parser would only be created twice.
+         */
+        private volatile WKTParser parser;
+
         /**
          * Creates a new factory.
          */
         public Objects() {
         }
 
+        /**
+         * Returns the conversion factor from the given unit to metres.
+         *
+         * @param  unit  the linear unit, or {@code null} for metres.
+         * @return the factor by which to multiply values in the given unit for getting metres.
+         * @throws FactoryException if the given unit is not a linear unit.
+         */
+        private static double toMetres(final Unit<?> unit) throws FactoryException {
+            if (unit != null) try {
+                return unit.getConverterToAny(Units.METRE).convert(1);
+            } catch (IncommensurableException e) {
+                throw new FactoryException("Unit shall be linear: " + unit, e);
+            }
+            return 1;
+        }
+
+        /**
+         * Returns whether the given unit is the degree, ignoring rounding errors in the conversion factor.
+         *
+         * @param  unit  the unit to test, or {@code null} for degrees.
+         * @return whether the given unit is the degree.
+         */
+        private static boolean isDegrees(final Unit<?> unit) {
+            if (unit != null) try {
+                return Math.abs(unit.getConverterToAny(Units.DEGREE).convert(1) - 1) <= 1E-10;
+            } catch (IncommensurableException e) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Appends the {@code +to_meter} parameter if the given unit is not the metre.
+         *
+         * @param  def   the definition string buffer.
+         * @param  unit  the linear unit of the coordinate system axes, or {@code null} for metres.
+         * @throws FactoryException if the given unit is not a linear unit.
+         */
+        private static void appendLinearUnit(final StringBuilder def, final Unit<?> unit) throws FactoryException {
+            final double factor = toMetres(unit);
+            if (factor != 1) {
+                def.append(" +to_meter=").append(factor);
+            }
+        }
+
+        /**
+         * Appends the semi-axis lengths, in metres, to the given definition string buffer.
+         *
+         * @param def        the definition string buffer.
+         * @param ellipsoid  the ellipsoid.
+         * @param major      whether to append the semi-major axis length.
+         * @param minor      whether to append the semi-minor axis length.
+         */
+        private static void appendEllipsoid(final StringBuilder def, final Ellipsoid ellipsoid,
+                final boolean major, final boolean minor)
+        {
+            double a = ellipsoid.getSemiMajorAxis();
+            double b = ellipsoid.getSemiMinorAxis();
+            final Unit<Length> unit = ellipsoid.getAxisUnit();
+            if (unit != null) {
+                a = unit.getConverterTo(Units.METRE).convert(a);
+                b = unit.getConverterTo(Units.METRE).convert(b);
+            }
+            if (major) def.append(" +a=").append(a);
+            if (minor) def.append(" +b=").append(b);
+        }
+
+        /**
+         * Appends the datum shift to WGS 84 if the given datum declares one.
+         *
+         * @param def    the definition string buffer.
+         * @param datum  the geodetic datum.
+         */
+        private static void appendToWGS84(final StringBuilder def, final GeodeticDatum datum) {
+            if (datum instanceof PJDefinition.Datum) {
+                final double[] shift = ((PJDefinition.Datum) datum).getToWGS84();
+                if (shift != null) {
+                    def.append(" +towgs84=");
+                    for (int i=0; i<shift.length; i++) {
+                        if (i != 0) def.append(',');
+                        def.append(shift[i]);
+                    }
+                }
+            }
+        }
+
         /**
          * Appends the prime meridian to the given definition string buffer.
          *
@@ -308,21 +408,51 @@ public class PJFactory implements Factory {
          * @return the coordinate reference system for the given properties.
          * @throws FactoryException if the object creation failed.
          */
-        private static CoordinateReferenceSystem createGeodeticCRS(final String type, final Map<String,?> properties,
+        private CoordinateReferenceSystem createGeodeticCRS(final String type, final Map<String,?> properties,
                 final GeodeticDatum datum, final CoordinateSystem cs) throws FactoryException
         {
             final int           dimension  = cs.getDimension();
-            final Identifier    name       = createIdentifier(properties);
-            final Ellipsoid     ellipsoid  = datum.getEllipsoid();
             final StringBuilder definition = new StringBuilder(100);
-            definition.append("+proj=").append(type)
-                    .append(" +a=").append(ellipsoid.getSemiMajorAxis())
-                    .append(" +b=").append(ellipsoid.getSemiMinorAxis());
+            definition.append("+proj=").append(type);
+            appendEllipsoid(definition, datum.getEllipsoid(), true, true);
+            appendToWGS84(definition, datum);
             appendPrimeMeridian(definition, datum.getPrimeMeridian());
-            appendAxisDirections(definition.append(' ').append(AXIS_ORDER_PARAM), cs, Math.min(dimension, 3));
+            if (type.equals("geocent")) {
+                /*
+                 * Proj.4 geocentric axes are always (X,Y,Z) with X toward the prime meridian,
+                 * so there is no axis order to declare, only the unit.
+                 */
+                appendLinearUnit(definition, cs.getAxis(0).getUnit());
+            } else {
+                for (int i=Math.min(dimension, 2); --i >= 0;) {
+                    if (!isDegrees(cs.getAxis(i).getUnit())) {
+                        throw new FactoryException("Geographic CRS shall have angular units in degrees.");
+                    }
+                }
+                appendAxisDirections(definition.append(' ').append(AXIS_ORDER_PARAM), cs, Math.min(dimension, 3));
+            }
+            return createCRS(createIdentifier(properties), datum, cs, definition.toString());
+        }
+
+        /**
+         * Creates a CRS from the given {@literal Proj.4} definition string built by this factory.
+         * The default implementation delegates to {@link PJFactory#createCRS(Identifier, Identifier, String, int)},
+         * which requires the Proj.4 native library. This method is overridden by tests which verify the definition
+         * strings without the native library.
+         *
+         * @param  name        the name of the CRS to create, or {@code null} if none.
+         * @param  datum       the datum of the CRS to create.
+         * @param  cs          the coordinate system of the CRS to create.
+         * @param  definition  the Proj.4 definition string.
+         * @return a CRS created from the given definition string.
+         * @throws FactoryException if the CRS can not be created.
+         */
+        CoordinateReferenceSystem createCRS(final Identifier name, final GeodeticDatum datum,
+                final CoordinateSystem cs, final String definition) throws FactoryException
+        {
             try {
-                return createCRS(name, datum.getName(), definition.toString(), dimension);
-            } catch (IllegalArgumentException e) {
+                return createCRS(name, datum.getName(), definition, cs.getDimension());
+            } catch (IllegalArgumentException | UnsupportedOperationException e) {
                 throw new FactoryException(e.getMessage(), e);
             }
         }
@@ -381,7 +511,6 @@ public class PJFactory implements Factory {
                 final Conversion conversionFromBase, final CartesianCS derivedCS) throws FactoryException
         {
             final int                 dimension  = derivedCS.getDimension();
-            final Identifier          name       = createIdentifier(properties);
             final EllipsoidalCS       baseCS     = baseCRS.getCoordinateSystem();
             final GeodeticDatum       datum      = baseCRS.getDatum();
             final Ellipsoid           ellipsoid  = datum.getEllipsoid();
@@ -401,21 +530,17 @@ public class PJFactory implements Factory {
                     }
                 }
             }
-            if (!hasSemiMajor) definition.append(" +a=").append(ellipsoid.getSemiMajorAxis());
-            if (!hasSemiMinor) definition.append(" +b=").append(ellipsoid.getSemiMinorAxis());
+            appendEllipsoid     (definition, ellipsoid, !hasSemiMajor, !hasSemiMinor);
+            appendToWGS84       (definition, datum);
             appendPrimeMeridian (definition, datum.getPrimeMeridian());
+            appendLinearUnit    (definition, derivedCS.getAxis(0).getUnit());
             appendAxisDirections(definition.append(' ').append(AXIS_ORDER_PARAM), derivedCS, Math.min(dimension, 3));
             appendAxisDirections(definition.append(AXIS_ORDER_SEPARATOR), baseCS, Math.min(baseCS.getDimension(), 3));
-            final PJCRS.Projected crs;
-            try {
-                crs = (PJCRS.Projected) createCRS(name, datum.getName(), definition.toString(), dimension);
-            } catch (IllegalArgumentException e) {
-                throw new FactoryException(e.getMessage(), e);
-            }
-            if (baseCRS instanceof PJCRS.Geographic) {
-                crs.baseCRS = (PJCRS.Geographic) baseCRS;
+            final CoordinateReferenceSystem crs = createCRS(createIdentifier(properties), datum, derivedCS, definition.toString());
+            if (crs instanceof PJCRS.Projected && baseCRS instanceof PJCRS.Geographic) {
+                ((PJCRS.Projected) crs).baseCRS = (PJCRS.Geographic) baseCRS;
             }
-            return crs;
+            return (ProjectedCRS) crs;
         }
 
         /**
@@ -498,13 +623,202 @@ public class PJFactory implements Factory {
             throw unsupportedOperation();
         }
 
+        /**
+         * Creates an ellipsoid from its semi-axis lengths.
+         *
+         * @param  properties     name to give to the new object. Available properties are
+         *                        {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  semiMajorAxis  the equatorial radius.
+         * @param  semiMinorAxis  the polar radius.
+         * @param  unit           the unit of the semi-axis lengths.
+         * @return the ellipsoid for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public Ellipsoid createEllipsoid(final Map<String,?> properties, final double semiMajorAxis,
+                final double semiMinorAxis, final Unit<Length> unit) throws FactoryException
+        {
+            final double ivf = (semiMajorAxis == semiMinorAxis) ? Double.POSITIVE_INFINITY
+                             : semiMajorAxis / (semiMajorAxis - semiMinorAxis);
+            return new PJDefinition.Spheroid(createIdentifier(properties), semiMajorAxis, semiMinorAxis, ivf, false, unit);
+        }
+
+        /**
+         * Creates an ellipsoid from its semi-major axis length and inverse flattening factor.
+         *
+         * @param  properties         name to give to the new object. Available properties are
+         *                            {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  semiMajorAxis      the equatorial radius.
+         * @param  inverseFlattening  the inverse flattening factor, or 0 or infinity for a sphere.
+         * @param  unit               the unit of the semi-major axis length.
+         * @return the ellipsoid for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public Ellipsoid createFlattenedSphere(final Map<String,?> properties, final double semiMajorAxis,
+                double inverseFlattening, final Unit<Length> unit) throws FactoryException
+        {
+            final double semiMinorAxis;
+            if (inverseFlattening == 0 || Double.isInfinite(inverseFlattening)) {
+                inverseFlattening = Double.POSITIVE_INFINITY;
+                semiMinorAxis = semiMajorAxis;
+            } else {
+                semiMinorAxis = semiMajorAxis * (1 - 1 / inverseFlattening);
+            }
+            return new PJDefinition.Spheroid(createIdentifier(properties), semiMajorAxis, semiMinorAxis, inverseFlattening, true, unit);
+        }
+
+        /**
+         * Creates a prime meridian relative to Greenwich.
+         *
+         * @param  properties  name to give to the new object. Available properties are
+         *                     {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  longitude   the longitude of the prime meridian relative to Greenwich.
+         * @param  unit        the unit of the longitude.
+         * @return the prime meridian for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public PrimeMeridian createPrimeMeridian(final Map<String,?> properties, final double longitude,
+                final Unit<Angle> unit) throws FactoryException
+        {
+            return new PJDefinition.Meridian(createIdentifier(properties), longitude, unit);
+        }
+
+        /**
+         * Creates a geodetic datum from an ellipsoid and a prime meridian. If the properties contain a
+         * {@value org.opengis.referencing.wkt.WKTParser#TOWGS84_KEY} entry, then the Bursa-Wolf parameters
+         * will be given to Proj.4 as the {@code +towgs84} parameter of the CRS using this datum.
+         *
+         * @param  properties     name to give to the new object. Available properties are
+         *                        {@linkplain PJFactory#createIdentifier(Map) listed there},
+         *                        completed by the datum shift described above.
+         * @param  ellipsoid      the ellipsoid to use in the new datum.
+         * @param  primeMeridian  the prime meridian to use in the new datum.
+         * @return the datum for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public GeodeticDatum createGeodeticDatum(final Map<String,?> properties, final Ellipsoid ellipsoid,
+                final PrimeMeridian primeMeridian) throws FactoryException
+        {
+            double[] shift = null;
+            if (properties != null) {
+                final Object value = properties.get(WKTParser.TOWGS84_KEY);
+                if (value instanceof double[]) {
+                    shift = ((double[]) value).clone();
+                } else if (value != null) {
+                    throw new FactoryException("Illegal datum shift: " + value);
+                }
+            }
+            return new PJDefinition.Datum(createIdentifier(properties), ellipsoid, primeMeridian, shift);
+        }
+
+        /**
+         * Creates a coordinate system axis.
+         *
+         * @param  properties    name to give to the new object. Available properties are
+         *                       {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  abbreviation  the coordinate axis abbreviation.
+         * @param  direction     the axis direction.
+         * @param  unit          the coordinate axis unit.
+         * @return the axis for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public CoordinateSystemAxis createCoordinateSystemAxis(final Map<String,?> properties,
+                final String abbreviation, final AxisDirection direction, final Unit<?> unit) throws FactoryException
+        {
+            return new PJDefinition.Axis(createIdentifier(properties), abbreviation, direction, unit);
+        }
+
+        /**
+         * Creates a two-dimensional Cartesian coordinate system.
+         *
+         * @param  properties  name to give to the new object. Available properties are
+         *                     {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  axis0       the first axis.
+         * @param  axis1       the second axis.
+         * @return the coordinate system for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public CartesianCS createCartesianCS(final Map<String,?> properties,
+                final CoordinateSystemAxis axis0, final CoordinateSystemAxis axis1) throws FactoryException
+        {
+            return new PJDefinition.Cartesian(createIdentifier(properties), axis0, axis1);
+        }
+
+        /**
+         * Creates a three-dimensional Cartesian coordinate system.
+         *
+         * @param  properties  name to give to the new object. Available properties are
+         *                     {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  axis0       the first axis.
+         * @param  axis1       the second axis.
+         * @param  axis2       the third axis.
+         * @return the coordinate system for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public CartesianCS createCartesianCS(final Map<String,?> properties, final CoordinateSystemAxis axis0,
+                final CoordinateSystemAxis axis1, final CoordinateSystemAxis axis2) throws FactoryException
+        {
+            return new PJDefinition.Cartesian(createIdentifier(properties), axis0, axis1, axis2);
+        }
+
+        /**
+         * Creates a two-dimensional ellipsoidal coordinate system.
+         *
+         * @param  properties  name to give to the new object. Available properties are
+         *                     {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  axis0       the first axis.
+         * @param  axis1       the second axis.
+         * @return the coordinate system for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public EllipsoidalCS createEllipsoidalCS(final Map<String,?> properties,
+                final CoordinateSystemAxis axis0, final CoordinateSystemAxis axis1) throws FactoryException
+        {
+            return new PJDefinition.Ellipsoidal(createIdentifier(properties), axis0, axis1);
+        }
+
+        /**
+         * Creates a three-dimensional ellipsoidal coordinate system.
+         *
+         * @param  properties  name to give to the new object. Available properties are
+         *                     {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  axis0       the first axis.
+         * @param  axis1       the second axis.
+         * @param  axis2       the third axis.
+         * @return the coordinate system for the given properties.
+         * @throws FactoryException if the object creation failed.
+         */
+        @Override
+        public EllipsoidalCS createEllipsoidalCS(final Map<String,?> properties, final CoordinateSystemAxis axis0,
+                final CoordinateSystemAxis axis1, final CoordinateSystemAxis axis2) throws FactoryException
+        {
+            return new PJDefinition.Ellipsoidal(createIdentifier(properties), axis0, axis1, axis2);
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public EngineeringDatum createEngineeringDatum(Map<String,?> properties) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
         /**
          * Unconditionally throw an exception, since this functionality is not supported yet.
          *
          * @throws FactoryException always thrown.
          */
         @Override
-        public CoordinateReferenceSystem createFromXML(String xml) throws FactoryException {
+        public ImageDatum createImageDatum(Map<String,?> properties, PixelInCell pixelInCell) throws FactoryException {
             throw unsupportedOperation();
         }
 
@@ -514,9 +828,169 @@ public class PJFactory implements Factory {
          * @throws FactoryException always thrown.
          */
         @Override
-        public CoordinateReferenceSystem createFromWKT(String wkt) throws FactoryException {
+        public TemporalDatum createTemporalDatum(Map<String,?> properties, Date origin) throws FactoryException {
             throw unsupportedOperation();
         }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public VerticalDatum createVerticalDatum(Map<String,?> properties, VerticalDatumType type) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public ParametricDatum createParametricDatum(Map<String,?> properties) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public AffineCS createAffineCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public AffineCS createAffineCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public PolarCS createPolarCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public CylindricalCS createCylindricalCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public SphericalCS createSphericalCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public VerticalCS createVerticalCS(Map<String,?> properties, CoordinateSystemAxis axis) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public TimeCS createTimeCS(Map<String,?> properties, CoordinateSystemAxis axis) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public ParametricCS createParametricCS(Map<String,?> properties, CoordinateSystemAxis axis) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public LinearCS createLinearCS(Map<String,?> properties, CoordinateSystemAxis axis) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public UserDefinedCS createUserDefinedCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public UserDefinedCS createUserDefinedCS(Map<String,?> properties, CoordinateSystemAxis axis0, CoordinateSystemAxis axis1, CoordinateSystemAxis axis2) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Unconditionally throw an exception, since this functionality is not supported yet.
+         *
+         * @throws FactoryException always thrown.
+         */
+        @Override
+        public CoordinateReferenceSystem createFromXML(String xml) throws FactoryException {
+            throw unsupportedOperation();
+        }
+
+        /**
+         * Creates a coordinate reference system from a WKT 1 or WKT 2 string. The WKT is parsed by the
+         * shared {@link WKTParser}, which creates the datum and coordinate system with this factory and
+         * the projection parameters with {@link Transform}, then assembles them into a Proj.4 definition
+         * string by the {@code createFooCRS(…)} methods. Consequently only the CRS types supported by
+         * this factory can be parsed. The WKT 1 {@code TOWGS84} element is mapped to {@code +towgs84}.
+         *
+         * @param  wkt  the Well Known Text to parse.
+         * @return the coordinate reference system parsed from the given text.
+         * @throws FactoryException if the text can not be parsed or the CRS is not supported.
+         */
+        @Override
+        public CoordinateReferenceSystem createFromWKT(final String wkt) throws FactoryException {
+            WKTParser p = parser;
+            if (p == null) {
+                parser = p = new WKTParser(this, this, this, new Operation(), new Transform());
+            }
+            return p.parseCRS(wkt);
+        }
     }
 
     /**
@@ -554,11 +1028,6 @@ public class PJFactory implements Factory {
          */
         private final boolean useEpsgAxisOrder;
 
-        /**
-         * The set of all EPSG codes known to Proj.4, created when first needed.
-         */
-        private Set<String> codes;
-
         /**
          * Creates a new coordinate operation factory which will create CRS with axis order
          * as declared in the EPSG database.
@@ -591,17 +1060,14 @@ public class PJFactory implements Factory {
         }
 
         /**
-         * Returns the authority codes.
+         * Returns the authority codes. The returned set is backed by a sorted array of codes
+         * shared by all factory instances, and is safe for use by concurrent threads.
          *
          * @throws FactoryException if an error occurred while fetching the authority codes.
          */
         @Override
-        @SuppressWarnings("ReturnOfCollectionOrArrayField")
-        public synchronized Set<String> getAuthorityCodes(Class<? extends IdentifiedObject> type) throws FactoryException {
-            if (codes == null) {
-                codes = Collections.unmodifiableSet(ResourcesLoader.getAxisOrientations().keySet());
-            }
-            return codes;
+        public Set<String> getAuthorityCodes(Class<? extends IdentifiedObject> type) throws FactoryException {
+            return ResourcesLoader.getAuthorityCodes();
         }
 
         /**
@@ -666,7 +1132,7 @@ public class PJFactory implements Factory {
                  * have to be adjusted before to be given to Proj.4 since the later expects
                  * exactly 3 characters.
                  */
-                String orientation = ResourcesLoader.getAxisOrientations().get(code);
+                String orientation = ResourcesLoader.getAxisOrientation(code);
                 if (orientation != null) {
                     definition.append(' ').append(AXIS_ORDER_PARAM).append(orientation);
                     final int end = orientation.indexOf(AXIS_ORDER_SEPARATOR);
@@ -817,6 +1283,8 @@ public class PJFactory implements Factory {
      * <ul>
      *   <li>{@link #createOperation(CoordinateReferenceSystem, CoordinateReferenceSystem)}</li>
      *   <li>{@link #createOperation(CoordinateReferenceSystem, CoordinateReferenceSystem, OperationMethod)}</li>
+     *   <li>{@link #createDefiningConversion(Map, OperationMethod, ParameterValueGroup)}</li>
+     *   <li>{@link #getOperationMethod(String)}</li>
      * </ul>
      *
      * All other methods unconditionally throw a {@link FactoryException}.
@@ -905,15 +1373,22 @@ public class PJFactory implements Factory {
         }
 
         /**
-         * Unconditionally throw an exception, since this functionality is not supported yet.
+         * Creates a defining conversion from the given method and parameters. The conversion has no
+         * source CRS, target CRS or math transform; it is only a component of a projected CRS to be
+         * given to {@link Objects#createProjectedCRS Objects.createProjectedCRS(…)}.
          *
-         * @throws FactoryException alway thrown.
+         * @param  properties  name to give to the new object. Available properties are
+         *                     {@linkplain PJFactory#createIdentifier(Map) listed there}.
+         * @param  method      the operation method.
+         * @param  parameters  the parameter values, typically created by {@link Transform#getDefaultParameters(String)}.
+         * @return the defining conversion.
+         * @throws FactoryException if the object creation failed.
          */
         @Override
         public Conversion createDefiningConversion(Map<String,?> properties,
                 OperationMethod method, ParameterValueGroup parameters) throws FactoryException
         {
-            throw unsupportedOperation();
+            return new PJDefinition.DefiningConversion(createIdentifier(properties), method, parameters);
         }
 
         /**
@@ -929,13 +1404,16 @@ public class PJFactory implements Factory {
         }
 
         /**
-         * Unconditionally throw an exception, since this functionality is not supported yet.
+         * Returns the operation method of the given name. The name can be the Proj.4 projection name
+         * or one of its aliases. This method does not check the validity of the given name.
          *
-         * @throws FactoryException alway thrown.
+         * @param  name  the name of the operation method.
+         * @return the operation method of the given name.
+         * @throws FactoryException if the aliases can not be loaded.
          */
         @Override
         public OperationMethod getOperationMethod(String name) throws FactoryException {
-            throw unsupportedOperation();
+            return new PJMethod(new PJIdentifier(name), ResourcesLoader.getAliases(name, false));
         }
     }
 
@@ -1099,13 +1577,16 @@ public class PJFactory implements Factory {
         }
 
         /**
-         * Unconditionally throw an exception, since this functionality is not supported yet.
+         * Creates a math transform from a WKT 1 {@code PARAM_MT} element, optionally wrapped in
+         * {@code INVERSE_MT} or {@code CONCAT_MT} elements when the corresponding operations are supported.
          *
-         * @throws FactoryException always thrown.
+         * @param  wkt  the Well Known Text to parse.
+         * @return the math transform parsed from the given text.
+         * @throws FactoryException if the text can not be parsed or the transform is not supported.
          */
         @Override
-        public MathTransform createFromWKT(String wkt) throws FactoryException {
-            throw unsupportedOperation();
+        public MathTransform createFromWKT(final String wkt) throws FactoryException {
+            return new WKTParser(null, null, null, null, this).parseMathTransform(wkt);
         }
     }
 }
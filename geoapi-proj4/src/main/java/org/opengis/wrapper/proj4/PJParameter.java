@@ -116,11 +116,16 @@ final class PJParameter extends PJObject implements ParameterValue<Double>, Para
 
     /**
      * Returns the standard unit used by Proj.4 for any value in the given unit.
+     * Angles are identified by their system unit rather than by {@link Unit#isCompatible(Unit)},
+     * because radians are dimensionless and would be considered compatible with scale factors.
+     *
+     * @param  unit  the unit of a parameter value.
+     * @return the unit of the parameter value given to Proj.4, or {@code null} if unknown.
      */
     private static Unit<?> getStandardUnit(final Unit<?> unit) {
-        if (unit.isCompatible(Units.METRE))  return Units.METRE;
-        if (unit.isCompatible(Units.DEGREE)) return Units.DEGREE;
-        if (unit.isCompatible(Units.ONE))    return Units.ONE;
+        if (unit.isCompatible(Units.METRE))              return Units.METRE;
+        if (unit.getSystemUnit().equals(Units.RADIAN))   return Units.DEGREE;
+        if (unit.isCompatible(Units.ONE))                return Units.ONE;
         return null;
     }
 
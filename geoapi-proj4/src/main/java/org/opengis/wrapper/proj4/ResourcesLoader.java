@@ -28,10 +28,13 @@ import org.opengis.referencing.operation.OperationMethod;
 
 
 /**
- * Loads the resources needed by the Proj.4 wrappers.
+ * Loads the resources needed by the Proj.4 wrappers. The resource files are parsed only once,
+ * when first needed, into immutable sorted arrays. Those tables are published through volatile
+ * fields without locking: if two threads ask for the same table concurrently, the file may be
+ * parsed twice but both threads get equivalent tables and only one is retained.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 final class ResourcesLoader {
@@ -51,32 +54,27 @@ final class ResourcesLoader {
     static final String PROJECTIONS_FILE = "projection-names.txt";
 
     /**
-     * The map of axis orientations for each CRS codes.
-     * This map will be loaded from the {@value #AXIS_FILE} file when first needed.
+     * The axis orientations for each CRS codes.
+     * This table will be loaded from the {@value #AXIS_FILE} file when first needed.
      */
-    private static Map<String,String> axisOrientations;
+    private static volatile AxisTable axisOrientations;
 
     /**
      * The Proj.4 names for OGC, EPSG or GeoTIFF projection names.
-     * Will be filled when first needed.
+     * This table will be loaded from the {@value #PROJECTIONS_FILE} file when first needed.
      */
-    private static final Map<String,String> projectionNames = new HashMap<>();
+    private static volatile NameTable projectionNames;
 
     /**
      * The Proj.4 names for OGC, EPSG or GeoTIFF parameter names.
-     * Will be filled when first needed.
+     * This table will be loaded from the {@value #PARAMETERS_FILE} file when first needed.
      */
-    private static final Map<String,String> parameterNames = new HashMap<>();
+    private static volatile NameTable parameterNames;
 
     /**
-     * Pool of identifiers, filled when first needed.
+     * The set of all operation methods, created when first needed.
      */
-    private static final Map<String, List<GenericName>> aliases = new HashMap<>();
-
-    /**
-     * The set of all operation methods, filled when first needed.
-     */
-    private static final Set<OperationMethod> methods = new LinkedHashSet<>();
+    private static volatile Set<OperationMethod> methods;
 
     /**
      * Do not allows instantiation of this class.
@@ -85,91 +83,343 @@ final class ResourcesLoader {
     }
 
     /**
-     * Returns the axis orientation map. Callers shall not modify the returned map.
-     * The file format is the one created by {@link SupportedCodes#write()} in the
-     * test directory.
+     * Opens the given resource file for reading.
      *
-     * @throws FactoryException if the resource file can not be loaded.
+     * @throws FactoryException if the resource file is not found.
      */
-    static synchronized Map<String,String> getAxisOrientations() throws FactoryException {
-        if (axisOrientations != null) {
-            return axisOrientations;
+    private static BufferedReader open(final String file) throws IOException, FactoryException {
+        final InputStream in = ResourcesLoader.class.getResourceAsStream(file);
+        if (in == null) {
+            throw new FactoryException("Can not find the \"" + file + "\" resource");
         }
-        IOException cause = null;
-        final InputStream in = ResourcesLoader.class.getResourceAsStream(AXIS_FILE);
-        if (in != null) try {
-            final Map<String,String> map = new LinkedHashMap<>(5000);
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if ((line = line.trim()).isEmpty()) {
-                        continue;                                       // Skip empty lines.
+        return new BufferedReader(new InputStreamReader(in, "UTF-8"));
+    }
+
+    /**
+     * The axis orientations for each CRS code, stored as a sorted array of codes with a parallel array
+     * of indices in the (small) array of distinct orientations. Lookups use a binary search and do not
+     * create any {@code String} object.
+     */
+    private static final class AxisTable extends AbstractSet<String> {
+        /**
+         * The CRS codes in increasing order.
+         */
+        private final int[] codes;
+
+        /**
+         * For each code, the index in {@link #orientations} of the axis orientation of that code.
+         */
+        private final byte[] indices;
+
+        /**
+         * The distinct axis orientations, in the order they appear in the file.
+         */
+        private final String[] orientations;
+
+        /**
+         * Parses the given file. The file format is the one created by {@link SupportedCodes#write()}
+         * in the test directory. Codes are first packed in {@code long} values together with the index
+         * of their orientation, so that a single primitive sort orders both arrays.
+         */
+        AxisTable(final BufferedReader reader) throws IOException, FactoryException {
+            final List<String> distinct = new ArrayList<>();
+            long[] entries = new long[5000];
+            int count = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if ((line = line.trim()).isEmpty()) {
+                    continue;                                       // Skip empty lines.
+                }
+                switch (line.charAt(0)) {
+                    case '#': {
+                        break;                                      // A line of comment. Ignore.
                     }
-                    switch (line.charAt(0)) {
-                        case '#': {
-                            break;                                      // A line of comment. Ignore.
-                        }
-                        case '[': {
-                            // The authority. Actually we don't parse yet
-                            // this element. Maybe a future version will do.
-                            break;
+                    case '[': {
+                        // The authority. Actually we don't parse yet
+                        // this element. Maybe a future version will do.
+                        break;
+                    }
+                    default: {
+                        final int s = line.indexOf(':');
+                        final String orientation = line.substring(0, s).trim();
+                        int index = distinct.indexOf(orientation);
+                        if (index < 0) {
+                            index = distinct.size();
+                            if (index > Byte.MAX_VALUE) {
+                                throw new FactoryException("Too many axis orientations in \"" + AXIS_FILE + "\".");
+                            }
+                            distinct.add(orientation);
                         }
-                        default: {
-                            int s = line.indexOf(':');
-                            final String orientation = line.substring(0, s).trim();
-                            do {
-                                final int p = s+1;
-                                s = line.indexOf(' ', p);
-                                final String code = (s >= 0) ? line.substring(p,s) : line.substring(p);
-                                map.put(code.trim(), orientation);
-                            } while (s >= 0);
-                            break;
+                        final int length = line.length();
+                        int i = s;
+                        while (++i < length) {
+                            final int start = i;
+                            while (i < length && line.charAt(i) != ' ') i++;
+                            final int code = parse(line, start, i);
+                            if (code >= 0) {
+                                if (count == entries.length) {
+                                    entries = Arrays.copyOf(entries, count * 2);
+                                }
+                                entries[count++] = ((long) code << Byte.SIZE) | index;
+                            } else if (i != start) {
+                                throw new FactoryException("Illegal code \"" + line.substring(start, i)
+                                        + "\" in \"" + AXIS_FILE + "\".");
+                            }
                         }
+                        break;
                     }
                 }
             }
-            return axisOrientations = map;
-        } catch (IOException e) {
-            cause = e;
+            Arrays.sort(entries, 0, count);
+            codes   = new int [count];
+            indices = new byte[count];
+            for (int i=0; i<count; i++) {
+                final long entry = entries[i];
+                codes  [i] = (int)  (entry >>> Byte.SIZE);
+                indices[i] = (byte) (entry & 0xFF);
+            }
+            orientations = distinct.toArray(new String[distinct.size()]);
+        }
+
+        /**
+         * Parses the given range of characters as a positive integer,
+         * or returns -1 if the range is empty or is not a valid code.
+         */
+        private static int parse(final CharSequence text, int start, final int end) {
+            if (start >= end || end - start > 9) {
+                return -1;                              // Empty or too long for fitting in an int.
+            }
+            int code = 0;
+            do {
+                final int digit = text.charAt(start) - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                code = code * 10 + digit;
+            } while (++start < end);
+            return code;
+        }
+
+        /**
+         * Returns the index of the given code in the {@link #codes} array, or a negative value if none.
+         */
+        private int indexOf(final Object code) {
+            if (code instanceof CharSequence) {
+                final CharSequence text = (CharSequence) code;
+                final int value = parse(text, 0, text.length());
+                if (value >= 0) {
+                    return Arrays.binarySearch(codes, value);
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the axis orientation for the given code, or {@code null} if none.
+         */
+        final String get(final String code) {
+            final int i = indexOf(code);
+            return (i >= 0) ? orientations[indices[i]] : null;
+        }
+
+        /**
+         * Returns {@code true} if the given code is a known CRS code.
+         */
+        @Override
+        public boolean contains(final Object code) {
+            return indexOf(code) >= 0;
+        }
+
+        /**
+         * Returns the number of CRS codes.
+         */
+        @Override
+        public int size() {
+            return codes.length;
+        }
+
+        /**
+         * Returns an iterator over all CRS codes in increasing order.
+         * The {@code String} objects are created on the fly.
+         */
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int index;
+
+                @Override public boolean hasNext() {
+                    return index < codes.length;
+                }
+
+                @Override public String next() {
+                    if (index >= codes.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return Integer.toString(codes[index++]);
+                }
+            };
         }
-        throw new FactoryException("Can not read the \"" + AXIS_FILE + "\" resource", cause);
     }
 
     /**
-     * Returns the mapping from projection/parameter names to Proj.4 names.
+     * Returns the axis orientation table, loading it when first needed.
      *
      * @throws FactoryException if the resource file can not be loaded.
      */
-    private static Map<String,String> getAliases(final boolean isParam) throws FactoryException {
-        final Map<String,String> map = isParam ? parameterNames : projectionNames;
-        synchronized (map) {
-            if (!map.isEmpty()) {
-                return map;
+    private static AxisTable axisOrientations() throws FactoryException {
+        AxisTable table = axisOrientations;
+        if (table == null) {
+            try (BufferedReader in = open(AXIS_FILE)) {
+                axisOrientations = table = new AxisTable(in);
+            } catch (IOException e) {
+                throw new FactoryException("Can not read the \"" + AXIS_FILE + "\" resource", e);
             }
-            IOException cause = null;
-            final String file = isParam ? PARAMETERS_FILE : PROJECTIONS_FILE;
-            final InputStream in = ResourcesLoader.class.getResourceAsStream(file);
-            if (in != null) try {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"))) {
-                    String parameter = null;
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        if ((line = line.trim()).isEmpty()) {
-                            continue;                                               // Skip empty lines.
+        }
+        return table;
+    }
+
+    /**
+     * Returns the axis orientation for the given CRS code, or {@code null} if none.
+     *
+     * @param  code  the CRS code, without codespace.
+     * @return the axis orientation for the given code, or {@code null} if none.
+     * @throws FactoryException if the resource file can not be loaded.
+     */
+    static String getAxisOrientation(final String code) throws FactoryException {
+        return axisOrientations().get(code);
+    }
+
+    /**
+     * Returns all CRS codes for which an axis orientation is known.
+     * The returned set is unmodifiable and sorted in increasing order of code values.
+     *
+     * @throws FactoryException if the resource file can not be loaded.
+     */
+    static Set<String> getAuthorityCodes() throws FactoryException {
+        return Collections.unmodifiableSet(axisOrientations());
+    }
+
+    /**
+     * The mapping from projection or parameter names to Proj.4 names. The names are stored in
+     * sorted arrays searched by binary search, with the aliases of each Proj.4 name precomputed.
+     */
+    private static final class NameTable {
+        /**
+         * The OGC, EPSG or GeoTIFF names, in lexicographical order.
+         */
+        private final String[] names;
+
+        /**
+         * The Proj.4 name (including the leading {@code '+'}) for each element of {@link #names}.
+         */
+        private final String[] projNames;
+
+        /**
+         * The distinct Proj.4 names, sorted in a case-insensitive way.
+         */
+        private final String[] distinct;
+
+        /**
+         * The aliases of each element of {@link #distinct}, in the order they appear in the file.
+         */
+        private final List<List<GenericName>> aliases;
+
+        /**
+         * Parses the given file. Lines starting with {@code '+'} are Proj.4 names,
+         * and the following lines are the aliases for that Proj.4 name.
+         */
+        NameTable(final BufferedReader reader) throws IOException {
+            final Map<String,String> map = new HashMap<>();
+            final Map<String, List<String>> groups = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            List<String> group = null;
+            String parameter = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if ((line = line.trim()).isEmpty()) {
+                    continue;                                               // Skip empty lines.
+                }
+                switch (line.charAt(0)) {
+                    case '#': {
+                        break;                                              // A line of comment.
+                    }
+                    case '+': {
+                        parameter = line;
+                        group = groups.get(line);
+                        if (group == null) {
+                            group = new ArrayList<>();
+                            groups.put(line, group);
                         }
-                        switch (line.charAt(0)) {
-                            case '#': /* A line of comment */   break;
-                            case '+': parameter = line;         break;
-                            default:  map.put(line, parameter); break;
+                        break;
+                    }
+                    default: {
+                        final String old = map.put(line, parameter);
+                        if (old != null) {
+                            groups.get(old).remove(line);
                         }
+                        if (group != null) {
+                            group.add(line);
+                        }
+                        break;
                     }
                 }
-                return map;
+            }
+            names = map.keySet().toArray(new String[map.size()]);
+            Arrays.sort(names);
+            projNames = new String[names.length];
+            for (int i=0; i<names.length; i++) {
+                projNames[i] = map.get(names[i]);
+            }
+            distinct = groups.keySet().toArray(new String[groups.size()]);
+            final List<List<GenericName>> lists = new ArrayList<>(distinct.length);
+            for (final List<String> members : groups.values()) {
+                final GenericName[] list = new GenericName[members.size()];
+                for (int i=0; i<list.length; i++) {
+                    list[i] = new PJIdentifier(members.get(i));
+                }
+                lists.add((list.length != 0) ? Collections.unmodifiableList(Arrays.asList(list))
+                                             : Collections.<GenericName>emptyList());
+            }
+            aliases = lists;
+        }
+
+        /**
+         * Returns the Proj.4 name for the given OGC, EPSG or GeoTIFF name, or {@code null} if none.
+         */
+        final String get(final String name) {
+            final int i = Arrays.binarySearch(names, name);
+            return (i >= 0) ? projNames[i] : null;
+        }
+
+        /**
+         * Returns the aliases for the given Proj.4 name (case-insensitive), or an empty list if none.
+         */
+        final List<GenericName> getAliases(final String projName) {
+            final int i = Arrays.binarySearch(distinct, projName, String.CASE_INSENSITIVE_ORDER);
+            return (i >= 0) ? aliases.get(i) : Collections.<GenericName>emptyList();
+        }
+    }
+
+    /**
+     * Returns the mapping from projection/parameter names to Proj.4 names, loading it when first needed.
+     *
+     * @throws FactoryException if the resource file can not be loaded.
+     */
+    private static NameTable getAliases(final boolean isParam) throws FactoryException {
+        NameTable table = isParam ? parameterNames : projectionNames;
+        if (table == null) {
+            final String file = isParam ? PARAMETERS_FILE : PROJECTIONS_FILE;
+            try (BufferedReader in = open(file)) {
+                table = new NameTable(in);
             } catch (IOException e) {
-                cause = e;
+                throw new FactoryException("Can not read the \"" + file + "\" resource", e);
+            }
+            if (isParam) {
+                parameterNames = table;
+            } else {
+                projectionNames = table;
             }
-            throw new FactoryException("Can not read the \"" + file + "\" resource", cause);
         }
+        return table;
     }
 
     /**
@@ -187,19 +437,19 @@ final class ResourcesLoader {
     }
 
     /**
-     * Returns the Proj.4 name for the given identified object, looking in the given map
+     * Returns the Proj.4 name for the given identified object, looking in the given table
      * of aliases. If no mapping is found, then the parameter name is returned unchanged.
      */
-    private static String getProjName(final IdentifiedObject descriptor, final Map<String, String> map)
+    private static String getProjName(final IdentifiedObject descriptor, final NameTable table)
             throws NoSuchIdentifierException
     {
         final String name = descriptor.getName().getCode();
-        String proj = map.get(name);
+        String proj = table.get(name);
         if (proj == null) {
             // If the name is not recognized, try the alias (if any).
             // If no alias match, then return the name unchanged.
             for (final GenericName alias : descriptor.getAlias()) {
-                proj = map.get(alias.tip().toString());
+                proj = table.get(alias.tip().toString());
                 if (proj != null) {
                     return proj;
                 }
@@ -217,51 +467,30 @@ final class ResourcesLoader {
      */
     static List<GenericName> getAliases(String name, final boolean isParam) throws FactoryException {
         // Replace the name by the Proj.4 name, if we find it.
-        final Map<String, String> map = getAliases(isParam);
-        final String projName = map.get(name);
+        final NameTable table = getAliases(isParam);
+        final String projName = table.get(name);
         if (projName != null) {
             name = projName;
         }
-        return getAliases(name, map);
-    }
-
-    /**
-     * Returns the list of aliases for the given Proj.4 name, or an empty list if none.
-     */
-    private static List<GenericName> getAliases(final String name, final Map<String,String> map) {
-        List<GenericName> list;
-        synchronized (aliases) {
-            list = aliases.get(name);
-            if (list == null) {
-                list = new ArrayList<>();
-                for (final Map.Entry<String, String> entry : map.entrySet()) {
-                    if (name.equalsIgnoreCase(entry.getValue())) {
-                        list.add(new PJIdentifier(entry.getKey()));
-                    }
-                }
-                if (list.isEmpty()) {
-                    list = Collections.emptyList();
-                } else {
-                    ((ArrayList<?>) list).trimToSize();
-                    list = Collections.unmodifiableList(list);
-                }
-            }
-        }
-        return list;
+        return table.getAliases(name);
     }
 
     /**
-     * Returns the set of all operation methods.
+     * Returns the set of all operation methods. Only the Proj.4 names having at least one alias are included.
      */
     static Set<OperationMethod> getMethods() throws FactoryException {
-        synchronized (methods) {
-            if (methods.isEmpty()) {
-                final Map<String, String> map = getAliases(false);
-                for (final String name : new HashSet<>(map.values())) {
-                    methods.add(new PJMethod(new PJIdentifier(SimpleCitation.PROJ4, name), getAliases(name, map)));
+        Set<OperationMethod> set = methods;
+        if (set == null) {
+            final NameTable table = getAliases(false);
+            set = new LinkedHashSet<>();
+            for (int i=0; i<table.distinct.length; i++) {
+                final List<GenericName> aliases = table.aliases.get(i);
+                if (!aliases.isEmpty()) {
+                    set.add(new PJMethod(new PJIdentifier(SimpleCitation.PROJ4, table.distinct[i]), aliases));
                 }
             }
+            methods = set = Collections.unmodifiableSet(set);
         }
-        return methods;
+        return set;
     }
 }
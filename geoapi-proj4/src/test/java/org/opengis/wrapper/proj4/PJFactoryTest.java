@@ -15,6 +15,7 @@ package org.opengis.wrapper.proj4;
 
 import org.opengis.util.FactoryException;
 import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
 
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -43,4 +44,35 @@ public class PJFactoryTest {
         final PJDatum pj = (PJDatum) crs.getDatum();
         assertArrayEquals(new char[] {'n', 'e', 'u'}, pj.getAxisDirections());
     }
+
+    /**
+     * Tests the parsing of a WKT 1 projected CRS. The axis directions are checked
+     * for verifying that the {@code AXIS} elements have been mapped to Proj.4.
+     *
+     * @throws FactoryException if an error occurred while parsing the WKT.
+     */
+    @Test
+    public void testCreateFromWKT() throws FactoryException {
+        final ProjectedCRS crs = (ProjectedCRS) new PJFactory.Objects().createFromWKT(
+                "PROJCS[\"WGS 84 / UTM zone 31N\",\n" +
+                "  GEOGCS[\"WGS 84\",\n" +
+                "    DATUM[\"World Geodetic System 1984\",\n" +
+                "      SPHEROID[\"WGS 84\", 6378137, 298.257223563]],\n" +
+                "    PRIMEM[\"Greenwich\", 0],\n" +
+                "    UNIT[\"degree\", 0.017453292519943295],\n" +
+                "    AXIS[\"Lat\", NORTH],\n" +
+                "    AXIS[\"Lon\", EAST]],\n" +
+                "  PROJECTION[\"Transverse_Mercator\"],\n" +
+                "  PARAMETER[\"latitude_of_origin\", 0],\n" +
+                "  PARAMETER[\"central_meridian\", 3],\n" +
+                "  PARAMETER[\"scale_factor\", 0.9996],\n" +
+                "  PARAMETER[\"false_easting\", 500000],\n" +
+                "  PARAMETER[\"false_northing\", 0],\n" +
+                "  UNIT[\"metre\", 1],\n" +
+                "  AXIS[\"Easting\", EAST],\n" +
+                "  AXIS[\"Northing\", NORTH]]");
+        assertEquals("WGS 84 / UTM zone 31N", crs.getName().getCode());
+        assertArrayEquals(new char[] {'e', 'n', 'u'}, ((PJDatum) crs.getDatum()).getAxisDirections());
+        assertArrayEquals(new char[] {'n', 'e', 'u'}, ((PJDatum) crs.getBaseCRS().getDatum()).getAxisDirections());
+    }
 }
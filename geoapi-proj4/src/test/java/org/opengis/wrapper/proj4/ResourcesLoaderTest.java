@@ -0,0 +1,225 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The Proj.4 wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.proj4;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.BufferedReader;
+
+import org.opengis.util.GenericName;
+import org.opengis.util.FactoryException;
+import org.opengis.parameter.ParameterValue;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.referencing.operation.Projection;
+import org.opengis.referencing.operation.OperationMethod;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link ResourcesLoader} class. The tables built by {@code ResourcesLoader} are compared
+ * with the content of the resource files parsed in a straightforward way by this test.
+ * Those tests do not need the Proj.4 native library.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class ResourcesLoaderTest {
+    /**
+     * Reads the non-empty and non-comment lines of the given resource file.
+     */
+    private static List<String> lines(final String file) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        final InputStream in = ResourcesLoader.class.getResourceAsStream(file);
+        assertNotNull(file, in);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!(line = line.trim()).isEmpty() && line.charAt(0) != '#') {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Parses the given name file as a map from OGC, EPSG or GeoTIFF names to Proj.4 names.
+     * If a name appears twice, the last occurrence wins.
+     */
+    private static Map<String,String> names(final String file) throws IOException {
+        final Map<String,String> map = new HashMap<>();
+        String projName = null;
+        for (final String line : lines(file)) {
+            if (line.charAt(0) == '+') {
+                projName = line;
+            } else {
+                map.put(line, projName);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Returns the names of the given aliases.
+     */
+    private static Set<String> toStrings(final List<GenericName> aliases) {
+        final Set<String> names = new HashSet<>();
+        for (final GenericName alias : aliases) {
+            assertTrue("Duplicated alias: " + alias, names.add(alias.toString()));
+        }
+        return names;
+    }
+
+    /**
+     * Verifies the axis orientations and the authority codes against the {@value ResourcesLoader#AXIS_FILE} file.
+     *
+     * @throws IOException if an error occurred while reading the resource file.
+     * @throws FactoryException if an error occurred while loading the tables.
+     */
+    @Test
+    public void testAxisOrientations() throws IOException, FactoryException {
+        final Map<String,String> expected = new HashMap<>();
+        for (final String line : lines(ResourcesLoader.AXIS_FILE)) {
+            if (line.charAt(0) != '[') {
+                final int s = line.indexOf(':');
+                final String orientation = line.substring(0, s).trim();
+                for (final String code : line.substring(s + 1).trim().split(" ")) {
+                    assertNull("Duplicated code: " + code, expected.put(code, orientation));
+                }
+            }
+        }
+        final Set<String> codes = ResourcesLoader.getAuthorityCodes();
+        assertEquals(expected.keySet(), codes);
+        assertEquals(expected.size(), codes.size());
+        int previous = -1;
+        for (final String code : codes) {
+            final int value = Integer.parseInt(code);
+            assertTrue("Codes shall be in increasing order.", value > previous);
+            assertEquals(code, expected.get(code), ResourcesLoader.getAxisOrientation(code));
+            previous = value;
+        }
+        assertNull(ResourcesLoader.getAxisOrientation("1"));
+        assertNull(ResourcesLoader.getAxisOrientation("EPSG:4326"));
+        assertFalse(codes.contains("not a code"));
+        assertFalse(codes.contains(4326));
+        assertEquals("ne", ResourcesLoader.getAxisOrientation("4326"));
+        assertEquals(codes, new PJFactory.EPSG().getAuthorityCodes(null));
+    }
+
+    /**
+     * Verifies the alias lookups of the given name file.
+     */
+    private static void verifyAliases(final String file, final boolean isParam) throws IOException, FactoryException {
+        final Map<String,String> expected = names(file);
+        final Map<String,Set<String>> aliases = new HashMap<>();
+        for (final Map.Entry<String,String> entry : expected.entrySet()) {
+            Set<String> set = aliases.get(entry.getValue());
+            if (set == null) {
+                set = new HashSet<>();
+                aliases.put(entry.getValue(), set);
+            }
+            set.add(entry.getKey());
+        }
+        for (final Map.Entry<String,Set<String>> entry : aliases.entrySet()) {
+            final String projName = entry.getKey();
+            assertEquals(projName, entry.getValue(), toStrings(ResourcesLoader.getAliases(projName, isParam)));
+            assertEquals(projName, entry.getValue(), toStrings(ResourcesLoader.getAliases(projName.toUpperCase(), isParam)));
+            for (final String alias : entry.getValue()) {
+                assertEquals(alias, entry.getValue(), toStrings(ResourcesLoader.getAliases(alias, isParam)));
+            }
+        }
+        assertTrue(ResourcesLoader.getAliases("Unknown name", isParam).isEmpty());
+    }
+
+    /**
+     * Verifies the projection aliases against the {@value ResourcesLoader#PROJECTIONS_FILE} file.
+     *
+     * @throws IOException if an error occurred while reading the resource file.
+     * @throws FactoryException if an error occurred while loading the tables.
+     */
+    @Test
+    public void testProjectionAliases() throws IOException, FactoryException {
+        verifyAliases(ResourcesLoader.PROJECTIONS_FILE, false);
+    }
+
+    /**
+     * Verifies the parameter aliases against the {@value ResourcesLoader#PARAMETERS_FILE} file.
+     *
+     * @throws IOException if an error occurred while reading the resource file.
+     * @throws FactoryException if an error occurred while loading the tables.
+     */
+    @Test
+    public void testParameterAliases() throws IOException, FactoryException {
+        verifyAliases(ResourcesLoader.PARAMETERS_FILE, true);
+    }
+
+    /**
+     * Verifies the mapping of projection and parameter names to Proj.4 names through {@link PJFactory.Transform}.
+     *
+     * @throws IOException if an error occurred while reading the resource files.
+     * @throws FactoryException if an error occurred while loading the tables.
+     */
+    @Test
+    public void testProjName() throws IOException, FactoryException {
+        final PJFactory.Transform factory = new PJFactory.Transform();
+        for (final Map.Entry<String,String> entry : names(ResourcesLoader.PROJECTIONS_FILE).entrySet()) {
+            final ParameterValueGroup group = factory.getDefaultParameters(entry.getKey());
+            assertEquals(entry.getKey(), entry.getValue(), ResourcesLoader.getProjName(group, false));
+        }
+        final ParameterValueGroup group = factory.getDefaultParameters("Transverse_Mercator");
+        for (final Map.Entry<String,String> entry : names(ResourcesLoader.PARAMETERS_FILE).entrySet()) {
+            final ParameterValue<?> param = group.parameter(entry.getKey());
+            assertEquals(entry.getKey(), entry.getValue(), ResourcesLoader.getProjName(param, true));
+        }
+    }
+
+    /**
+     * Verifies the operation methods against the {@value ResourcesLoader#PROJECTIONS_FILE} file.
+     * There is one method for each Proj.4 name having at least one alias.
+     *
+     * @throws IOException if an error occurred while reading the resource file.
+     * @throws FactoryException if an error occurred while loading the tables.
+     */
+    @Test
+    public void testAvailableMethods() throws IOException, FactoryException {
+        final Map<String,String> expected = names(ResourcesLoader.PROJECTIONS_FILE);
+        final Set<OperationMethod> methods = new PJFactory.Transform().getAvailableMethods(Projection.class);
+        final Set<String> names = new HashSet<>();
+        for (final OperationMethod method : methods) {
+            final String name = method.getName().getCode();
+            assertTrue("Duplicated method: " + name, names.add(name));
+            for (final String alias : toStrings(new ArrayList<>(method.getAlias()))) {
+                assertEquals(alias, name, expected.get(alias));
+            }
+        }
+        assertEquals(new HashSet<>(expected.values()), names);
+        assertSame(methods, ResourcesLoader.getMethods());
+        try {
+            methods.clear();
+            fail("The set of methods shall be unmodifiable.");
+        } catch (UnsupportedOperationException e) {
+            // This is the expected exception.
+        }
+    }
+}
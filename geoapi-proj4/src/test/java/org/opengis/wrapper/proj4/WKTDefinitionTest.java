@@ -0,0 +1,274 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The Proj.4 wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementers can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.proj4;
+
+import java.lang.reflect.Proxy;
+import org.opengis.util.FactoryException;
+import org.opengis.metadata.Identifier;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.GeocentricCRS;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the conversion of WKT strings into {@literal Proj.4} definition strings by {@link PJFactory}.
+ * The CRS are not given to Proj.4; the definition strings are intercepted and the CRS replaced by stubs,
+ * so those tests do not need the Proj.4 native library.
+ *
+ * @author  agent
+ * @version 4.0
+ * @since   4.0
+ */
+public class WKTDefinitionTest {
+    /**
+     * A factory which records the Proj.4 definition strings instead of giving them to Proj.4.
+     */
+    private static final class Factory extends PJFactory.Objects {
+        /**
+         * The last definition string given to {@link #createCRS(Identifier, GeodeticDatum, CoordinateSystem, String)}.
+         */
+        String definition;
+
+        /**
+         * Records the given definition and returns a stub implementing the CRS interface
+         * inferred from the {@code +proj} parameter.
+         */
+        @Override
+        CoordinateReferenceSystem createCRS(final Identifier name, final GeodeticDatum datum,
+                final CoordinateSystem cs, final String def)
+        {
+            definition = def;
+            final Class<?> type;
+            if (def.startsWith("+proj=latlon "))  type = GeographicCRS.class;
+            else if (def.startsWith("+proj=geocent ")) type = GeocentricCRS.class;
+            else type = ProjectedCRS.class;
+            return (CoordinateReferenceSystem) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getName":             return name;
+                            case "getDatum":            return datum;
+                            case "getCoordinateSystem": return cs;
+                            case "toString":            return def;
+                            case "hashCode":            return System.identityHashCode(proxy);
+                            case "equals":              return proxy == args[0];
+                            default:                    return null;
+                        }
+                    });
+        }
+
+        /**
+         * Parses the given WKT and returns the definition string of the CRS.
+         */
+        String parse(final String wkt) throws FactoryException {
+            definition = null;
+            final CoordinateReferenceSystem crs = createFromWKT(wkt);
+            assertEquals(definition, crs.toString());
+            return definition;
+        }
+    }
+
+    /**
+     * Tests a WKT 1 geographic CRS with a prime meridian other than Greenwich, a datum shift
+     * and axes in (<var>latitude</var>, <var>longitude</var>) order.
+     *
+     * @throws FactoryException if an error occurred while parsing the WKT.
+     */
+    @Test
+    public void testGeographicCRS() throws FactoryException {
+        final Factory factory = new Factory();
+        assertEquals("+proj=latlon +a=6378249.2 +b=6356515.0 +towgs84=-168.0,-60.0,320.0 +pm=2.33722917 +axis=ne",
+                factory.parse(
+                "GEOGCS[\"NTF (Paris)\",\n" +
+                "  DATUM[\"Nouvelle Triangulation Francaise (Paris)\",\n" +
+                "    SPHEROID[\"Clarke 1880 (IGN)\", 6378249.2, 293.4660212936269],\n" +
+                "    TOWGS84[-168, -60, 320]],\n" +
+                "  PRIMEM[\"Paris\", 2.33722917],\n" +
+                "  UNIT[\"degree\", 0.017453292519943295],\n" +
+                "  AXIS[\"Lat\", NORTH],\n" +
+                "  AXIS[\"Lon\", EAST]]"));
+    }
+
+    /**
+     * Tests that a geographic CRS in units other than degrees is rejected.
+     */
+    @Test
+    public void testGeographicRadians() {
+        try {
+            new Factory().parse(
+                "GEOGCS[\"WGS 84\",\n" +
+                "  DATUM[\"World Geodetic System 1984\",\n" +
+                "    SPHEROID[\"WGS 84\", 6378137, 298.257223563]],\n" +
+                "  PRIMEM[\"Greenwich\", 0],\n" +
+                "  UNIT[\"radian\", 1]]");
+            fail("Radians shall not be accepted.");
+        } catch (FactoryException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("degrees"));
+        }
+    }
+
+    /**
+     * Tests a WKT 1 projected CRS. The base CRS axes have no explicit {@code AXIS} elements,
+     * so the WKT 1 default (<var>longitude</var>, <var>latitude</var>) order applies.
+     *
+     * @throws FactoryException if an error occurred while parsing the WKT.
+     */
+    @Test
+    public void testProjectedCRS() throws FactoryException {
+        final Factory factory = new Factory();
+        final String definition = factory.parse(
+                "PROJCS[\"WGS 84 / UTM zone 31N\",\n" +
+                "  GEOGCS[\"WGS 84\",\n" +
+                "    DATUM[\"World Geodetic System 1984\",\n" +
+                "      SPHEROID[\"WGS 84\", 6378137, 298.257223563],\n" +
+                "      TOWGS84[0, 0, 0, 0, 0, 0, 0]],\n" +
+                "    PRIMEM[\"Greenwich\", 0],\n" +
+                "    UNIT[\"degree\", 0.017453292519943295]],\n" +
+                "  PROJECTION[\"Transverse_Mercator\"],\n" +
+                "  PARAMETER[\"latitude_of_origin\", 0],\n" +
+                "  PARAMETER[\"central_meridian\", 3],\n" +
+                "  PARAMETER[\"scale_factor\", 0.9996],\n" +
+                "  PARAMETER[\"false_easting\", 500000],\n" +
+                "  PARAMETER[\"false_northing\", 0],\n" +
+                "  UNIT[\"metre\", 1],\n" +
+                "  AXIS[\"Easting\", EAST],\n" +
+                "  AXIS[\"Northing\", NORTH]]");
+        assertTrue(definition, definition.startsWith("+proj=tmerc "));
+        assertTrue(definition, definition.contains(" +lon_0=3.0 "));
+        assertTrue(definition, definition.contains(" +k=0.9996 "));
+        assertTrue(definition, definition.contains(" +x_0=500000.0 "));
+        assertTrue(definition, definition.contains(" +a=6378137.0 +b=6356752.314245179 "));
+        assertTrue(definition, definition.contains(" +towgs84=0.0,0.0,0.0,0.0,0.0,0.0,0.0 "));
+        assertFalse(definition, definition.contains("+to_meter"));
+        assertTrue(definition, definition.endsWith(" +pm=0.0 +axis=en,en"));
+    }
+
+    /**
+     * Tests a WKT 2 projected CRS in US survey feet. The false easting shall be converted to metres,
+     * and the axis unit declared by the {@code +to_meter} parameter.
+     *
+     * @throws FactoryException if an error occurred while parsing the WKT.
+     */
+    @Test
+    public void testProjectedFeet() throws FactoryException {
+        final Factory factory = new Factory();
+        final String definition = factory.parse(
+                "PROJCRS[\"NAD83 / Texas Central (ftUS)\",\n" +
+                "  BASEGEOGCRS[\"NAD83\",\n" +
+                "    DATUM[\"North American Datum 1983\",\n" +
+                "      ELLIPSOID[\"GRS 1980\", 6378137, 298.257222101, LENGTHUNIT[\"metre\", 1]]],\n" +
+                "    ANGLEUNIT[\"degree\", 0.0174532925199433]],\n" +
+                "  CONVERSION[\"SPCS83 Texas Central zone (US Survey feet)\",\n" +
+                "    METHOD[\"Lambert Conic Conformal (2SP)\"],\n" +
+                "    PARAMETER[\"Latitude of false origin\", 29.6666666666667, ANGLEUNIT[\"degree\", 0.0174532925199433]],\n" +
+                "    PARAMETER[\"Longitude of false origin\", -100.333333333333, ANGLEUNIT[\"degree\", 0.0174532925199433]],\n" +
+                "    PARAMETER[\"Latitude of 1st standard parallel\", 31.8833333333333, ANGLEUNIT[\"degree\", 0.0174532925199433]],\n" +
+                "    PARAMETER[\"Latitude of 2nd standard parallel\", 30.1166666666667, ANGLEUNIT[\"degree\", 0.0174532925199433]],\n" +
+                "    PARAMETER[\"Easting at false origin\", 2296583.333, LENGTHUNIT[\"US survey foot\", 0.304800609601219]],\n" +
+                "    PARAMETER[\"Northing at false origin\", 9842500, LENGTHUNIT[\"US survey foot\", 0.304800609601219]]],\n" +
+                "  CS[Cartesian, 2],\n" +
+                "    AXIS[\"easting (X)\", east],\n" +
+                "    AXIS[\"northing (Y)\", north],\n" +
+                "    LENGTHUNIT[\"US survey foot\", 0.304800609601219]]");
+        assertTrue(definition, definition.startsWith("+proj=lcc "));
+        assertTrue(definition, definition.contains(" +lat_1=31.8833333333333 "));
+        assertTrue(definition, definition.contains(" +x_0=699999.9998"));            // 2296583.333 US survey feet.
+        assertTrue(definition, definition.contains(" +to_meter=0.30480060960121"));
+        assertFalse(definition, definition.contains("+towgs84"));
+        assertTrue(definition, definition.endsWith(" +axis=en,ne"));
+    }
+
+    /**
+     * Tests a WKT 1 geocentric CRS. Proj.4 geocentric axes have an implicit order,
+     * so no {@code +axis} parameter shall be declared.
+     *
+     * @throws FactoryException if an error occurred while parsing the WKT.
+     */
+    @Test
+    public void testGeocentricCRS() throws FactoryException {
+        final Factory factory = new Factory();
+        assertEquals("+proj=geocent +a=6378137.0 +b=6356752.314245179 +pm=0.0 +to_meter=1000.0",
+                factory.parse(
+                "GEOCCS[\"WGS 84 (km)\",\n" +
+                "  DATUM[\"World Geodetic System 1984\",\n" +
+                "    SPHEROID[\"WGS 84\", 6378137, 298.257223563]],\n" +
+                "  PRIMEM[\"Greenwich\", 0],\n" +
+                "  UNIT[\"kilometre\", 1000],\n" +
+                "  AXIS[\"X\", OTHER],\n" +
+                "  AXIS[\"Y\", EAST],\n" +
+                "  AXIS[\"Z\", NORTH]]"));
+    }
+
+    /**
+     * Tests that CRS types not supported by Proj.4 are rejected.
+     */
+    @Test
+    public void testUnsupportedCRS() {
+        try {
+            new Factory().parse(
+                "VERT_CS[\"Mean Sea Level height\",\n" +
+                "  VERT_DATUM[\"Mean Sea Level\", 2005],\n" +
+                "  UNIT[\"metre\", 1]]");
+            fail("Vertical CRS are not supported.");
+        } catch (FactoryException e) {
+            // This is the expected exception.
+        }
+    }
+
+    /**
+     * Tests the parsing of a WKT 1 affine transform.
+     *
+     * @throws FactoryException if an error occurred while parsing the WKT.
+     * @throws TransformException if an error occurred while transforming the test point.
+     */
+    @Test
+    public void testAffineFromWKT() throws FactoryException, TransformException {
+        final MathTransform tr = new PJFactory.Transform().createFromWKT(
+                "INVERSE_MT[PARAM_MT[\"Affine\",\n" +
+                "  PARAMETER[\"num_row\",3],\n" +
+                "  PARAMETER[\"num_col\",3],\n" +
+                "  PARAMETER[\"elt_0_0\",2],\n" +
+                "  PARAMETER[\"elt_0_2\",5.0E+2],\n" +
+                "  PARAMETER[\"elt_1_1\",-0.25]]]");
+        final double[] point = {502, -1};
+        tr.transform(point, 0, point, 0, 1);
+        assertEquals(1, point[0], 0);
+        assertEquals(4, point[1], 0);
+    }
+
+    /**
+     * Tests that affine transforms of more than two dimensions are rejected,
+     * since the Proj.4 wrappers support only two-dimensional affine transforms.
+     */
+    @Test
+    public void testAffine3D() {
+        try {
+            new PJFactory.Transform().createFromWKT(
+                "PARAM_MT[\"Affine\",\n" +
+                "  PARAMETER[\"num_row\",4],\n" +
+                "  PARAMETER[\"num_col\",4],\n" +
+                "  PARAMETER[\"elt_2_2\",3]]");
+            fail("Three-dimensional affine transforms are not supported.");
+        } catch (FactoryException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("3×3"));
+        }
+    }
+}